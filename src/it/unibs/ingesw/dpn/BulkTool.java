@@ -0,0 +1,174 @@
+package it.unibs.ingesw.dpn;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import it.unibs.ingesw.dpn.model.events.EventBoard;
+import it.unibs.ingesw.dpn.model.persistence.DiskSerializationStrategy;
+import it.unibs.ingesw.dpn.model.persistence.Model;
+import it.unibs.ingesw.dpn.model.persistence.PersistenceException;
+import it.unibs.ingesw.dpn.model.persistence.PersistenceManager;
+import it.unibs.ingesw.dpn.model.persistence.bulk.BulkExporter;
+import it.unibs.ingesw.dpn.model.persistence.bulk.BulkImporter;
+import it.unibs.ingesw.dpn.model.persistence.bulk.BulkReport;
+import it.unibs.ingesw.dpn.model.persistence.bulk.RecordFormat;
+import it.unibs.ingesw.dpn.model.users.UsersRepository;
+
+/**
+ * Strumento a riga di comando per l'importazione e l'esportazione massive di utenti ed eventi,
+ * senza passare per l'interfaccia utente interattiva.<br>
+ * <br>
+ * Utilizzo: <code>BulkTool &lt;comando&gt; &lt;file&gt; [database]</code>, dove il comando è uno fra
+ * "import-users", "import-events", "export-users" ed "export-events". Il formato dei record è CSV
+ * se il file ha estensione ".csv", JSON Lines altrimenti (vedi {@link RecordFormat}).
+ * Se non specificato, il database è quello utilizzato dall'applicazione.<br>
+ * <br>
+ * Il comando <code>BulkTool benchmark [record]</code> misura la velocità di importazione: genera in memoria
+ * il numero dato di utenti e di eventi (ciascuno con un iscritto), li importa in un model vuoto e stampa
+ * i resoconti, senza leggere né modificare alcun database.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class BulkTool {
+
+	public static final int USAGE_ERROR_EXIT_CODE = 3;
+	public static final int IO_ERROR_EXIT_CODE = 4;
+
+	private static final String USAGE = "Utilizzo: BulkTool <import-users|import-events|export-users|export-events> <file> [database]\n"
+			+ "         BulkTool benchmark [record]";
+
+	/** Numero di utenti e di eventi generati di default dal comando "benchmark" */
+	private static final int DEFAULT_BENCHMARK_RECORDS = 100_000;
+
+	private static final String BENCHMARK_USER = "{\"NICKNAME\": \"utente%d\", \"CATEGORIE_DI_INTERESSE\": \"CONFERENZA\"}\n";
+	private static final String BENCHMARK_EVENT =
+			  "{\"CATEGORIA\": \"CONFERENZA\", \"CREATORE\": \"utente%d\", \"LUOGO\": \"Brescia\", "
+			+ "\"DATA_E_ORA\": \"2050-01-10T21:00Z\", \"TERMINE_ULTIMO_DI_ISCRIZIONE\": \"2050-01-05T12:00Z\", "
+			+ "\"NUMERO_DI_PARTECIPANTI\": \"10\", \"QUOTA_INDIVIDUALE\": \"12.50\", \"RELATORI\": \"Rossi\", "
+			+ "\"ARGOMENTO\": \"Argomento %d\", \"ISCRITTI\": \"utente%d\"}\n";
+
+	public static void main(String[] args) {
+
+		if (args.length >= 1 && args.length <= 2 && args[0].equals("benchmark")) {
+			try {
+				benchmark((args.length == 2) ? Integer.parseInt(args[1]) : DEFAULT_BENCHMARK_RECORDS);
+			}
+			catch (IllegalArgumentException ex) {
+				System.err.println(USAGE);
+				System.exit(USAGE_ERROR_EXIT_CODE);
+			}
+			System.exit(Main.NO_ERROR_EXIT_CODE);
+		}
+
+		if (args.length < 2 || args.length > 3) {
+			System.err.println(USAGE);
+			System.exit(USAGE_ERROR_EXIT_CODE);
+		}
+
+		String command = args[0];
+		File file = new File(args[1]);
+		File database = (args.length == 3) ? new File(args[2]) : Main.DEFAULT_DATABASE;
+		RecordFormat format = RecordFormat.forFileName(file.getName());
+
+		PersistenceManager persistenceManager = new PersistenceManager(new DiskSerializationStrategy(database));
+		try {
+			persistenceManager.load();
+		}
+		catch (PersistenceException ex) {
+			System.err.println("Errore durante la lettura del database di dominio");
+			ex.printStackTrace();
+			System.exit(Main.DB_LOAD_ERROR_EXIT_CODE);
+		}
+
+		BulkReport report = null;
+		boolean modified = false;
+		try {
+			switch (command) {
+
+			case "import-users":
+				try (Reader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+					report = new BulkImporter(persistenceManager.getModel()).importUsers(in, format);
+				}
+				modified = true;
+				break;
+
+			case "import-events":
+				try (Reader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+					report = new BulkImporter(persistenceManager.getModel()).importEvents(in, format);
+				}
+				modified = true;
+				break;
+
+			case "export-users":
+				try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+					report = new BulkExporter(persistenceManager.getModel()).exportUsers(out, format);
+				}
+				break;
+
+			case "export-events":
+				try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+					report = new BulkExporter(persistenceManager.getModel()).exportEvents(out, format, null);
+				}
+				break;
+
+			default:
+				System.err.println(USAGE);
+				System.exit(USAGE_ERROR_EXIT_CODE);
+			}
+		}
+		catch (IOException ex) {
+			System.err.println("Errore durante l'accesso al file " + file);
+			ex.printStackTrace();
+			System.exit(IO_ERROR_EXIT_CODE);
+		}
+
+		System.out.print(report);
+
+		if (modified) {
+			try {
+				persistenceManager.save();
+			}
+			catch (PersistenceException ex) {
+				System.err.println("Errore durante la scrittura del database di dominio: impossibile salvare i dati");
+				System.exit(Main.DB_SAVE_ERROR_EXIT_CODE);
+			}
+		}
+
+		System.exit(Main.NO_ERROR_EXIT_CODE);
+	}
+
+	/**
+	 * Genera in memoria il numero dato di utenti e di eventi, li importa in un model vuoto e stampa i resoconti.
+	 */
+	private static void benchmark(int records) {
+		if (records <= 0) {
+			throw new IllegalArgumentException("Il numero di record deve essere positivo");
+		}
+
+		StringBuilder users = new StringBuilder();
+		StringBuilder events = new StringBuilder();
+		for (int i = 0; i < records; i++) {
+			users.append(String.format(BENCHMARK_USER, i));
+			events.append(String.format(BENCHMARK_EVENT, i, i, (i + 1) % records));
+		}
+
+		BulkImporter importer = new BulkImporter(new Model(new EventBoard(), new UsersRepository()));
+		try {
+			System.out.println("Utenti:");
+			System.out.print(importer.importUsers(new StringReader(users.toString()), RecordFormat.JSONL));
+			System.out.println("Eventi:");
+			System.out.print(importer.importEvents(new StringReader(events.toString()), RecordFormat.JSONL));
+		}
+		catch (IOException ex) {
+			// La lettura da una stringa non genera errori
+			throw new IllegalStateException(ex);
+		}
+	}
+
+}
@@ -0,0 +1,253 @@
+package it.unibs.ingesw.dpn;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import it.unibs.ingesw.dpn.model.admission.AdmissionController;
+import it.unibs.ingesw.dpn.model.events.EventBoard;
+import it.unibs.ingesw.dpn.model.events.EventState;
+import it.unibs.ingesw.dpn.model.persistence.Model;
+import it.unibs.ingesw.dpn.model.sharding.LoopbackTransport;
+import it.unibs.ingesw.dpn.model.sharding.ShardCoordinator;
+import it.unibs.ingesw.dpn.model.time.Clocks;
+import it.unibs.ingesw.dpn.model.time.VirtualClock;
+import it.unibs.ingesw.dpn.model.users.NotificationDigester;
+import it.unibs.ingesw.dpn.model.users.UsersRepository;
+import it.unibs.ingesw.dpn.model.workload.LoadTestHarness;
+import it.unibs.ingesw.dpn.model.workload.LoadTestReport;
+import it.unibs.ingesw.dpn.model.workload.ShardedLoadTestHarness;
+import it.unibs.ingesw.dpn.model.workload.Workload;
+import it.unibs.ingesw.dpn.model.workload.WorkloadGenerator;
+
+/**
+ * Strumento a riga di comando per la generazione e l'esecuzione di carichi di lavoro sintetici
+ * su un model in memoria, senza database e senza interfaccia utente.<br>
+ * <br>
+ * Utilizzo:
+ * <ul>
+ * 	<li> <code>LoadTest generate &lt;traccia&gt; [seme] [utenti] [eventi] [operazioni]</code>: genera un carico
+ * 	di lavoro e lo salva come traccia </li>
+ * 	<li> <code>LoadTest replay &lt;traccia&gt; [thread]</code>: riesegue una traccia salvata </li>
+ * 	<li> <code>LoadTest run [seme] [thread] [utenti] [eventi] [operazioni]</code>: genera ed esegue un carico di lavoro </li>
+ * 	<li> <code>LoadTest lifecycle [seme] [thread] [utenti] [eventi] [operazioni]</code>: genera ed esegue un carico di lavoro
+ * 	su un orologio simulato (vedi {@link VirtualClock}), quindi fa avanzare il tempo fino alla conclusione di tutti gli eventi,
+ * 	raggruppando le notifiche su finestre di un'ora (vedi {@link NotificationDigester}) </li>
+ * 	<li> <code>LoadTest sharded [seme] [partizioni] [utenti] [eventi] [operazioni]</code>: genera un carico di lavoro
+ * 	e lo esegue su un model suddiviso nel numero di partizioni dato (vedi {@link ShardCoordinator}), per verificare
+ * 	che il partizionamento produca gli stessi esiti del model non partizionato. Poiché le partizioni risiedono
+ * 	nello stesso processo, il throughput risulta inferiore a quello dell'esecuzione "run" </li>
+ * 	<li> <code>LoadTest flashcrowd [seme] [thread] [utenti] [posti]</code>: genera un carico di lavoro in cui tutti gli utenti
+ * 	tentano di iscriversi ad un unico evento (vedi {@link WorkloadGenerator#generateFlashCrowd(int, int, int)}) e lo esegue
+ * 	due volte, senza e con il controllo di ammissione delle iscrizioni (vedi {@link AdmissionController}) </li>
+ * </ul>
+ * Al termine dell'esecuzione viene stampato il resoconto (vedi {@link LoadTestReport}).
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class LoadTest {
+
+	public static final long DEFAULT_SEED = 42;
+	public static final int DEFAULT_USERS = 2000;
+	public static final int DEFAULT_EVENTS = 200;
+	public static final int DEFAULT_OPERATIONS = 50000;
+	/** Finestra di raggruppamento delle notifiche nell'esecuzione su orologio simulato */
+	public static final long LIFECYCLE_DIGEST_WINDOW_MILLIS = TimeUnit.HOURS.toMillis(1);
+	/** Posti dell'evento e tentativi di iscrizione di ciascun utente nell'esecuzione "flash crowd" */
+	public static final int DEFAULT_FLASH_CROWD_CAPACITY = 50;
+	public static final int FLASH_CROWD_ATTEMPTS = 5;
+
+	private static final String USAGE = "Utilizzo:\n"
+			+ "  LoadTest generate <traccia> [seme] [utenti] [eventi] [operazioni]\n"
+			+ "  LoadTest replay <traccia> [thread]\n"
+			+ "  LoadTest run [seme] [thread] [utenti] [eventi] [operazioni]\n"
+			+ "  LoadTest lifecycle [seme] [thread] [utenti] [eventi] [operazioni]\n"
+			+ "  LoadTest sharded [seme] [partizioni] [utenti] [eventi] [operazioni]\n"
+			+ "  LoadTest flashcrowd [seme] [thread] [utenti] [posti]";
+
+	public static void main(String[] args) {
+
+		if (args.length < 1) {
+			usageError();
+		}
+
+		int threads = Runtime.getRuntime().availableProcessors();
+		try {
+			switch (args[0]) {
+
+			case "generate":
+				if (args.length < 2 || args.length > 6) {
+					usageError();
+				}
+				Workload generated = generate(argument(args, 2), argument(args, 3), argument(args, 4), argument(args, 5));
+				try (Writer out = Files.newBufferedWriter(new File(args[1]).toPath(), StandardCharsets.UTF_8)) {
+					generated.write(out);
+				}
+				System.out.printf("Generate %d operazioni in %s\n", generated.size(), args[1]);
+				break;
+
+			case "replay":
+				if (args.length < 2 || args.length > 3) {
+					usageError();
+				}
+				Workload replayed;
+				try (Reader in = Files.newBufferedReader(new File(args[1]).toPath(), StandardCharsets.UTF_8)) {
+					replayed = Workload.read(in);
+				}
+				if (args.length == 3) {
+					threads = Integer.parseInt(args[2]);
+				}
+				execute(replayed, threads);
+				break;
+
+			case "run":
+			case "lifecycle":
+			case "sharded":
+				if (args.length > 6) {
+					usageError();
+				}
+				if (args.length > 2) {
+					threads = Integer.parseInt(args[2]);
+				}
+				Workload workload = generate(argument(args, 1), argument(args, 3), argument(args, 4), argument(args, 5));
+				if (args[0].equals("run")) {
+					execute(workload, threads);
+				} else if (args[0].equals("lifecycle")) {
+					executeLifecycle(workload, threads);
+				} else {
+					executeSharded(workload, threads);
+				}
+				break;
+
+			case "flashcrowd":
+				if (args.length > 5) {
+					usageError();
+				}
+				if (args.length > 2) {
+					threads = Integer.parseInt(args[2]);
+				}
+				String seed = argument(args, 1);
+				String users = argument(args, 3);
+				String capacity = argument(args, 4);
+				Workload crowd = new WorkloadGenerator((seed == null) ? DEFAULT_SEED : Long.parseLong(seed)).generateFlashCrowd(
+						(users == null) ? DEFAULT_USERS : Integer.parseInt(users),
+						(capacity == null) ? DEFAULT_FLASH_CROWD_CAPACITY : Integer.parseInt(capacity),
+						FLASH_CROWD_ATTEMPTS);
+				executeFlashCrowd(crowd, threads);
+				break;
+
+			default:
+				usageError();
+			}
+		}
+		catch (IOException ex) {
+			System.err.println("Errore durante l'accesso alla traccia " + args[1]);
+			ex.printStackTrace();
+			System.exit(BulkTool.IO_ERROR_EXIT_CODE);
+		}
+		catch (IllegalArgumentException ex) {
+			System.err.println(ex.getMessage());
+			usageError();
+		}
+
+		// Le scadenze degli eventi creati restano pianificate sull'orologio: termino esplicitamente
+		System.exit(Main.NO_ERROR_EXIT_CODE);
+	}
+
+	/**
+	 * Genera un carico di lavoro; i parametri nulli assumono il valore di default.
+	 */
+	private static Workload generate(String seed, String users, String events, String operations) {
+		return new WorkloadGenerator((seed == null) ? DEFAULT_SEED : Long.parseLong(seed)).generate(
+				(users == null) ? DEFAULT_USERS : Integer.parseInt(users),
+				(events == null) ? DEFAULT_EVENTS : Integer.parseInt(events),
+				(operations == null) ? DEFAULT_OPERATIONS : Integer.parseInt(operations));
+	}
+
+	private static String argument(String [] args, int index) {
+		return (index < args.length) ? args[index] : null;
+	}
+
+	private static void execute(Workload workload, int threads) {
+		Model model = new Model(new EventBoard(), new UsersRepository());
+		LoadTestReport report = new LoadTestHarness(threads).run(model, workload);
+		System.out.printf("Thread: %d\n", threads);
+		System.out.print(report);
+	}
+
+	/**
+	 * Esegue un carico di lavoro due volte, ciascuna su un nuovo model: la prima senza e la seconda con
+	 * il controllo di ammissione delle iscrizioni, di cui stampa gli esiti.
+	 */
+	private static void executeFlashCrowd(Workload workload, int threads) {
+		System.out.printf("Thread: %d\n", threads);
+
+		System.out.println("Senza controllo di ammissione:");
+		System.out.print(new LoadTestHarness(threads).run(new Model(new EventBoard(), new UsersRepository()), workload));
+
+		AdmissionController admission = new AdmissionController();
+		System.out.println("Con controllo di ammissione:");
+		System.out.print(new LoadTestHarness(threads, admission).run(new Model(new EventBoard(), new UsersRepository()), workload));
+		System.out.print(admission);
+	}
+
+	/**
+	 * Esegue un carico di lavoro su un model suddiviso nel numero di partizioni dato,
+	 * ciascuna con il proprio thread, quindi stampa il numero di eventi di ciascuna partizione.
+	 */
+	private static void executeSharded(Workload workload, int shards) {
+		LoopbackTransport transport = new LoopbackTransport(shards);
+		try (ShardCoordinator coordinator = new ShardCoordinator(transport)) {
+			LoadTestReport report = new ShardedLoadTestHarness(coordinator).run(workload);
+			System.out.printf("Partizioni: %d\n", shards);
+			System.out.print(report);
+			System.out.print("Eventi per partizione:");
+			for (int count : coordinator.broadcast(shard -> shard.getEventCount()).join()) {
+				System.out.printf(" %d", count);
+			}
+			System.out.println();
+		}
+	}
+	
+	/**
+	 * Esegue un carico di lavoro su un orologio simulato, quindi esegue istantaneamente
+	 * tutti i passaggi di stato pianificati e stampa la distribuzione finale degli stati.
+	 */
+	private static void executeLifecycle(Workload workload, int threads) {
+		VirtualClock clock = new VirtualClock(System.currentTimeMillis());
+		Clocks.setCurrent(clock);
+		try {
+			Model model = new Model(new EventBoard(), new UsersRepository());
+			NotificationDigester digester = model.getEventBoard().getNotificationDigester();
+			digester.setWindow(LIFECYCLE_DIGEST_WINDOW_MILLIS);
+			LoadTestReport report = new LoadTestHarness(threads).run(model, workload);
+			System.out.printf("Thread: %d\n", threads);
+			System.out.print(report);
+
+			long start = System.nanoTime();
+			int executed = clock.runUntilIdle();
+			long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+			System.out.printf("Scadenze eseguite: %d in %d ms\n", executed, elapsedMillis);
+			for (String state : new String [] {EventState.OPEN, EventState.CLOSED, EventState.ONGOING,
+					EventState.ENDED, EventState.FAILED}) {
+				System.out.printf("  %-10s %d\n", state, model.getEventBoard().getEventsByState(state).size());
+			}
+			System.out.printf("Notifiche: %d messaggi, %d consegne\n",
+					digester.getReceivedMessages(), digester.getDeliveredNotifications());
+		}
+		finally {
+			Clocks.useSystemClock();
+		}
+	}
+
+	private static void usageError() {
+		System.err.println(USAGE);
+		System.exit(BulkTool.USAGE_ERROR_EXIT_CODE);
+	}
+
+}
@@ -1,10 +1,13 @@
 package it.unibs.ingesw.dpn;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import it.unibs.ingesw.dpn.model.persistence.DiskSerializationStrategy;
 import it.unibs.ingesw.dpn.model.persistence.PersistenceException;
 import it.unibs.ingesw.dpn.model.persistence.PersistenceManager;
+import it.unibs.ingesw.dpn.model.replication.ReplicationServer;
 import it.unibs.ingesw.dpn.model.users.LoginManager;
 import it.unibs.ingesw.dpn.ui.MenuManager;
 import it.unibs.ingesw.dpn.ui.TextUI;
@@ -15,6 +18,10 @@ import it.unibs.ingesw.dpn.ui.UserInterface;
  * Si occupa di istanziare le classi principali e di avviare l'esecuzione dell'albero di menu.<br>
  * Inoltre, utilizza le classi che si occupano della persistenza per caricare i dati all'avvio
  * e salvarli alla chiusura del programma.<br>
+ * <br>
+ * Utilizzo: <code>Main [--replication-port &lt;porta&gt;]</code>. Con l'opzione, il programma funge anche da primario
+ * per le repliche in sola lettura (vedi {@link ReplicationServer}), in ascolto sulla porta data dell'interfaccia locale;
+ * le repliche possono essere avviate con {@link ReplicaTool}.<br>
  * 
  * @author Michele Dusi, Lorenzo Nodari, Emanuele Poggi
  *
@@ -24,19 +31,45 @@ public class Main {
 	public static final int NO_ERROR_EXIT_CODE = 0;
 	public static final int DB_LOAD_ERROR_EXIT_CODE = 1;
 	public static final int DB_SAVE_ERROR_EXIT_CODE = 2;
+	public static final int USAGE_ERROR_EXIT_CODE = 3;
+	public static final int REPLICATION_ERROR_EXIT_CODE = 4;
 	
-	public static final File DEFAULT_DATABASE = new File(System.getProperty("user.dir"), "socialnetwork_v6.db");
+	private static final String REPLICATION_OPTION = "--replication-port";
+	private static final String USAGE = "Utilizzo: Main [" + REPLICATION_OPTION + " <porta>]";
+	
+	/** Finestra di raggruppamento delle notifiche inviate dagli eventi */
+	public static final long NOTIFICATION_DIGEST_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+	
+	public static final File DEFAULT_DATABASE = new File(System.getProperty("user.dir"), "socialnetwork_v7.db");
 
 	private static PersistenceManager persistenceManager = null;
 	private static MenuManager menuManager = null;
 	private static UserInterface userInterface = null;
+	private static ReplicationServer replicationServer = null;
 	/**
 	 * Metodo di avvio del programma, è il primo ad essere chiamato.
 	 * 
-	 * @param args Parametri esterni, al momento non vengono usati.
+	 * @param args Parametri esterni: facoltativamente, l'opzione "--replication-port" seguita dalla porta di ascolto del primario.
 	 */
 	public static void main(String[] args) {
 		
+		int replicationPort = -1;
+		if (args.length == 2 && args[0].equals(REPLICATION_OPTION)) {
+			try {
+				replicationPort = Integer.parseInt(args[1]);
+			}
+			catch (NumberFormatException ex) {
+				replicationPort = -1;
+			}
+			if (replicationPort < 0 || replicationPort > 0xFFFF) {
+				System.err.println(USAGE);
+				System.exit(USAGE_ERROR_EXIT_CODE);
+			}
+		}
+		else if (args.length != 0) {
+			System.err.println(USAGE);
+			System.exit(USAGE_ERROR_EXIT_CODE);
+		}
 
 		try {
 			persistenceManager = new PersistenceManager(new DiskSerializationStrategy(DEFAULT_DATABASE));
@@ -48,6 +81,20 @@ public class Main {
 			System.exit(DB_LOAD_ERROR_EXIT_CODE);
 		}
 
+		persistenceManager.getModel().getEventBoard().getNotificationDigester().setWindow(NOTIFICATION_DIGEST_WINDOW_MILLIS);
+		
+		if (replicationPort >= 0) {
+			try {
+				replicationServer = new ReplicationServer(persistenceManager.getModel(), replicationPort);
+				System.out.println("Primario in ascolto per le repliche sulla porta " + replicationServer.getPort());
+			}
+			catch (IOException ex) {
+				System.err.println("Errore durante l'avvio del primario: impossibile mettersi in ascolto sulla porta " + replicationPort);
+				ex.printStackTrace();
+				System.exit(REPLICATION_ERROR_EXIT_CODE);
+			}
+		}
+		
 		LoginManager loginManager = new LoginManager();
 		menuManager = new MenuManager(persistenceManager.getModel(), loginManager);
 		
@@ -65,6 +112,11 @@ public class Main {
 	 */
 	public static void terminate(int status) {
 		
+		// Visualizzo l'eventuale output in sospeso
+		if (userInterface != null) {
+			userInterface.renderer().flush();
+		}
+		
 		try {
 			persistenceManager.save();
 		}
@@ -73,6 +125,14 @@ public class Main {
 			status = DB_SAVE_ERROR_EXIT_CODE;
 		}
 		
+		// Disconnetto le eventuali repliche
+		if (replicationServer != null) {
+			replicationServer.close();
+		}
+		
+		// Consegno i fatti di dominio in sospeso prima di terminare
+		persistenceManager.getModel().getEventBoard().close();
+		
 		System.exit(status);
 		
 	}
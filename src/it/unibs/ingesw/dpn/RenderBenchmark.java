@@ -0,0 +1,120 @@
+package it.unibs.ingesw.dpn;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import it.unibs.ingesw.dpn.ui.TextRenderer;
+import it.unibs.ingesw.dpn.ui.actions.Action;
+import it.unibs.ingesw.dpn.ui.actions.MenuAction;
+
+/**
+ * Strumento a riga di comando per la misura delle prestazioni di {@link TextRenderer}
+ * sul rendering di menu di grandi dimensioni.<br>
+ * <br>
+ * Utilizzo: <code>RenderBenchmark [voci] [ripetizioni] [voci per pagina]</code>.<br>
+ * Viene renderizzata ripetutamente la prima pagina di un menu con il numero di voci dato (per default,
+ * con la dimensione di pagina predefinita di {@link MenuAction}), alternata a un prompt
+ * come avviene durante la navigazione; l'output viene scartato, contando i byte e le scritture
+ * ricevute dallo stream. Le prime ripetizioni servono da riscaldamento e non vengono misurate.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class RenderBenchmark {
+
+	public static final int DEFAULT_ENTRIES = 1000;
+	public static final int DEFAULT_REPETITIONS = 200;
+
+	private static final String USAGE = "Utilizzo: RenderBenchmark [voci] [ripetizioni] [voci per pagina]";
+	private static final String ENTRY_FORMAT = "Evento di prova numero %d - Conferenza sulla programmazione ad oggetti";
+
+	/**
+	 * Stream che scarta i dati ricevuti, contandoli.
+	 */
+	private static class CountingOutputStream extends OutputStream {
+
+		private long bytes = 0;
+		private long writes = 0;
+
+		@Override
+		public void write(int b) {
+			this.bytes++;
+			this.writes++;
+		}
+
+		@Override
+		public void write(byte [] b, int off, int len) {
+			this.bytes += len;
+			this.writes++;
+		}
+
+	}
+
+	public static void main(String[] args) {
+
+		if (args.length > 3) {
+			usageError();
+		}
+
+		int entries = DEFAULT_ENTRIES;
+		int repetitions = DEFAULT_REPETITIONS;
+		int pageSize = MenuAction.DEFAULT_PAGE_SIZE;
+		try {
+			if (args.length > 0) {
+				entries = Integer.parseInt(args[0]);
+			}
+			if (args.length > 1) {
+				repetitions = Integer.parseInt(args[1]);
+			}
+			if (args.length > 2) {
+				pageSize = Integer.parseInt(args[2]);
+			}
+		}
+		catch (NumberFormatException ex) {
+			usageError();
+		}
+		if (entries < 0 || repetitions < 1 || pageSize < 1) {
+			usageError();
+		}
+
+		MenuAction menu = new MenuAction("Bacheca", "Eventi aperti alle iscrizioni");
+		for (int i = 1; i <= entries; i++) {
+			menu.addEntry(String.format(ENTRY_FORMAT, i), Action.EMPTY_ACTION);
+		}
+		menu.setPageSize(pageSize);
+
+		// Riscaldamento
+		run(menu, Math.max(1, repetitions / 10));
+
+		CountingOutputStream stream = new CountingOutputStream();
+		long start = System.nanoTime();
+		run(menu, repetitions, stream);
+		long elapsedNanos = System.nanoTime() - start;
+
+		double seconds = elapsedNanos / 1e9;
+		System.out.printf("Voci: %d, voci per pagina: %d, ripetizioni: %d\n", entries, pageSize, repetitions);
+		System.out.printf("Tempo totale: %.1f ms (%.3f ms per menu)\n", elapsedNanos / 1e6, elapsedNanos / 1e6 / repetitions);
+		System.out.printf("Throughput: %.1f menu/s, %.1f MB/s\n", repetitions / seconds, stream.bytes / 1e6 / seconds);
+		System.out.printf("Scritture sullo stream: %d (%.1f per menu)\n", stream.writes, (double) stream.writes / repetitions);
+
+		System.exit(Main.NO_ERROR_EXIT_CODE);
+	}
+
+	private static void run(MenuAction menu, int repetitions) {
+		run(menu, repetitions, new CountingOutputStream());
+	}
+
+	private static void run(MenuAction menu, int repetitions, OutputStream stream) {
+		TextRenderer renderer = new TextRenderer(stream, StandardCharsets.UTF_8);
+		for (int i = 0; i < repetitions; i++) {
+			renderer.renderMenu(menu);
+			renderer.renderEmptyPrompt();
+		}
+	}
+
+	private static void usageError() {
+		System.err.println(USAGE);
+		System.exit(BulkTool.USAGE_ERROR_EXIT_CODE);
+	}
+
+}
@@ -0,0 +1,89 @@
+package it.unibs.ingesw.dpn;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+
+import it.unibs.ingesw.dpn.model.events.EventState;
+import it.unibs.ingesw.dpn.model.replication.ReplicaClient;
+import it.unibs.ingesw.dpn.model.replication.ReplicaModel;
+
+/**
+ * Strumento a riga di comando che avvia una replica in sola lettura (vedi {@link ReplicaClient}) di un primario
+ * in esecuzione sulla stessa macchina, avviato con <code>Main --replication-port &lt;porta&gt;</code>.<br>
+ * <br>
+ * Utilizzo: <code>ReplicaTool &lt;porta&gt; [intervallo]</code>. La replica stampa periodicamente, ogni intervallo
+ * di secondi dato, il riepilogo del proprio model e il proprio ritardo rispetto al primario; termina quando
+ * il primario si disconnette.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class ReplicaTool {
+
+	public static final int USAGE_ERROR_EXIT_CODE = 3;
+	public static final int CONNECTION_ERROR_EXIT_CODE = 4;
+
+	private static final String USAGE = "Utilizzo: ReplicaTool <porta> [intervallo]";
+
+	/** Intervallo di default fra due riepiloghi, in secondi */
+	private static final int DEFAULT_INTERVAL_SECONDS = 5;
+
+	private static final String SUMMARY_FORMAT = "Posizione %d, ritardo %d ms: %d utenti, %d eventi (%d aperti, %d chiusi, %d conclusi)";
+
+	public static void main(String[] args) {
+
+		int port = -1;
+		int interval = DEFAULT_INTERVAL_SECONDS;
+		try {
+			if (args.length < 1 || args.length > 2) {
+				throw new IllegalArgumentException();
+			}
+			port = Integer.parseInt(args[0]);
+			if (args.length == 2) {
+				interval = Integer.parseInt(args[1]);
+			}
+			if (port < 0 || port > 0xFFFF || interval <= 0) {
+				throw new IllegalArgumentException();
+			}
+		}
+		catch (IllegalArgumentException ex) {
+			System.err.println(USAGE);
+			System.exit(USAGE_ERROR_EXIT_CODE);
+		}
+
+		try (ReplicaClient replica = new ReplicaClient(InetAddress.getLoopbackAddress().getHostAddress(), port)) {
+			while (replica.isConnected()) {
+				Thread.sleep(TimeUnit.SECONDS.toMillis(interval));
+				System.out.println(summary(replica));
+			}
+			System.out.println("Il primario si è disconnesso");
+		}
+		catch (IOException ex) {
+			System.err.println("Errore durante la connessione al primario sulla porta " + port);
+			ex.printStackTrace();
+			System.exit(CONNECTION_ERROR_EXIT_CODE);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+
+		System.exit(Main.NO_ERROR_EXIT_CODE);
+	}
+
+	/**
+	 * Restituisce il riepilogo del model della replica data.
+	 */
+	private static String summary(ReplicaClient replica) {
+		ReplicaModel model = replica.getModel();
+		return String.format(SUMMARY_FORMAT,
+				model.getAppliedPosition(),
+				replica.getLagMillis(),
+				model.getUserCount(),
+				model.getEvents().size(),
+				model.getEventsByState(EventState.OPEN).size(),
+				model.getEventsByState(EventState.CLOSED).size(),
+				model.getEventsByState(EventState.ENDED).size());
+	}
+
+}
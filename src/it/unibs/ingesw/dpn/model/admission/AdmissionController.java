@@ -0,0 +1,278 @@
+package it.unibs.ingesw.dpn.model.admission;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Controllo di ammissione delle iscrizioni agli eventi, pensato per le raffiche di iscrizioni
+ * all'apertura di un evento molto richiesto.<br>
+ * <br>
+ * Ciascuna richiesta attraversa, in ordine, i seguenti controlli, e viene scartata al primo fallito:
+ * <ol>
+ * 	<li> l'evento deve accettare iscrizioni (vedi {@link Event#acceptsSubscriptions()}): la verifica legge il
+ * 	numero di iscritti senza acquisire il lock dell'evento, e respinge immediatamente le richieste ad un evento pieno; </li>
+ * 	<li> l'utente non deve aver superato il proprio limite di richieste (un {@link TokenBucket} per utente); </li>
+ * 	<li> l'evento non deve aver superato il proprio limite di richieste (un {@link TokenBucket} per evento), che
+ * 	limita il numero di thread in attesa del lock dell'evento; se la richiesta viene scartata in questo punto,
+ * 	il gettone dell'utente gli viene restituito. </li>
+ * </ol>
+ * Solo le richieste ammesse acquisiscono il lock dell'evento, e verificano l'iscrizione con "canSubscribe(User)"
+ * invece di provocare e gestire un'eccezione; se l'iscrizione non è possibile, il gettone dell'evento gli viene
+ * restituito. Le richieste scartate terminano quindi in un tempo costante,
+ * e la latenza delle richieste resta limitata anche durante le raffiche.<br>
+ * <br>
+ * Il controllore conta gli esiti di tutte le richieste (vedi {@link #getCount(AdmissionResult)} e {@link #getShedCount()}).
+ * I secchi pieni, indistinguibili da secchi nuovi, vengono eliminati in modo incrementale: ad ogni secchio creato
+ * ne vengono esaminati al più {@link #SWEEP_STEP}, proseguendo ciclicamente dal punto raggiunto in precedenza.
+ * Un secchio inutilizzato viene quindi eliminato poco dopo essere tornato pieno, e la creazione di un secchio
+ * ha un costo costante anche quando i secchi tracciati sono molti.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class AdmissionController {
+
+	/** Limiti di default: richieste al secondo e raffica massima per evento e per utente */
+	public static final double DEFAULT_EVENT_RATE = 500;
+	public static final int DEFAULT_EVENT_BURST = 100;
+	public static final double DEFAULT_USER_RATE = 1;
+	public static final int DEFAULT_USER_BURST = 3;
+
+	/** Numero di secchi esaminati, alla ricerca di secchi pieni, ad ogni secchio creato */
+	public static final int SWEEP_STEP = 4;
+
+	/**
+	 * Secchi associati a ciascuna chiave, eliminati in modo incrementale una volta tornati pieni.
+	 */
+	private static class BucketMap<K> {
+
+		private final double rate;
+		private final int burst;
+		private final Map<K, TokenBucket> buckets;
+
+		/** Posizione raggiunta dall'eliminazione incrementale; utilizzata solamente da chi ha acquisito "sweeping" */
+		private Iterator<Map.Entry<K, TokenBucket>> cursor;
+		private final AtomicBoolean sweeping;
+
+		private BucketMap(double rate, int burst) {
+			this.rate = rate;
+			this.burst = burst;
+			this.buckets = new ConcurrentHashMap<>();
+			this.cursor = null;
+			this.sweeping = new AtomicBoolean(false);
+		}
+
+		/**
+		 * Preleva un gettone dal secchio associato alla chiave data, creandolo se necessario.<br>
+		 * Se il secchio ottenuto viene ritirato prima del prelievo, il prelievo viene ripetuto sul secchio
+		 * che lo sostituisce.
+		 *
+		 * @return Il secchio da cui è stato prelevato il gettone, oppure "null" se il secchio è vuoto
+		 */
+		private TokenBucket tryAcquire(K key) {
+			while (true) {
+				TokenBucket bucket = this.buckets.get(key);
+				if (bucket == null) {
+					// L'eliminazione precede l'inserimento, poiché il nuovo secchio è pieno
+					this.sweep();
+					bucket = this.buckets.computeIfAbsent(key, k -> new TokenBucket(this.rate, this.burst));
+				}
+				if (bucket.tryAcquire()) {
+					return bucket;
+				}
+				if (!bucket.isRetired()) {
+					return null;
+				}
+				// Il secchio era pieno ed è stato ritirato: lo elimino, se non l'ha già fatto chi l'ha ritirato
+				this.buckets.remove(key, bucket);
+			}
+		}
+
+		/**
+		 * Esamina i prossimi {@link AdmissionController#SWEEP_STEP} secchi, eliminando quelli pieni.<br>
+		 * Un secchio pieno equivale ad uno nuovo, per cui la sua eliminazione non ha effetti sui limiti.
+		 * Il secchio viene ritirato prima di essere eliminato (vedi {@link TokenBucket#retireIfFull()}), per cui
+		 * una richiesta concorrente che lo aveva già ottenuto non vi preleva gettoni non conteggiati, ma ripete il
+		 * prelievo sul secchio che lo sostituisce.
+		 * Se un altro thread sta già esaminando i secchi, il metodo termina immediatamente.
+		 */
+		private void sweep() {
+			if (!this.sweeping.compareAndSet(false, true)) {
+				return;
+			}
+			try {
+				for (int i = 0; i < SWEEP_STEP; i++) {
+					if (this.cursor == null || !this.cursor.hasNext()) {
+						this.cursor = this.buckets.entrySet().iterator();
+					}
+					if (!this.cursor.hasNext()) {
+						return;
+					}
+					Map.Entry<K, TokenBucket> entry = this.cursor.next();
+					TokenBucket bucket = entry.getValue();
+					if (bucket.retireIfFull()) {
+						this.buckets.remove(entry.getKey(), bucket);
+					}
+				}
+			}
+			finally {
+				this.sweeping.set(false);
+			}
+		}
+
+		private int size() {
+			return this.buckets.size();
+		}
+
+	}
+
+	private final BucketMap<Event> eventBuckets;
+	private final BucketMap<User> userBuckets;
+	private final Map<AdmissionResult, LongAdder> counters;
+
+	/**
+	 * Crea un controllore con i limiti di default.
+	 */
+	public AdmissionController() {
+		this(DEFAULT_EVENT_RATE, DEFAULT_EVENT_BURST, DEFAULT_USER_RATE, DEFAULT_USER_BURST);
+	}
+
+	/**
+	 * Crea un controllore con i limiti dati.
+	 *
+	 * Precondizione: eventRate > 0, eventBurst > 0, userRate > 0, userBurst > 0
+	 *
+	 * @param eventRate Il numero di richieste al secondo ammesse per ciascun evento
+	 * @param eventBurst Il numero massimo di richieste consecutive ammesse per ciascun evento
+	 * @param userRate Il numero di richieste al secondo ammesse per ciascun utente
+	 * @param userBurst Il numero massimo di richieste consecutive ammesse per ciascun utente
+	 */
+	public AdmissionController(double eventRate, int eventBurst, double userRate, int userBurst) {
+		// Verifica delle precondizioni
+		if (!(eventRate > 0) || eventBurst <= 0 || !(userRate > 0) || userBurst <= 0) {
+			throw new IllegalArgumentException("Limiti del controllo di ammissione non validi");
+		}
+
+		this.eventBuckets = new BucketMap<>(eventRate, eventBurst);
+		this.userBuckets = new BucketMap<>(userRate, userBurst);
+		this.counters = new EnumMap<>(AdmissionResult.class);
+		for (AdmissionResult result : AdmissionResult.values()) {
+			this.counters.put(result, new LongAdder());
+		}
+	}
+
+	/**
+	 * Sottopone al controllo di ammissione l'iscrizione dell'utente dato all'evento dato, ed esegue l'iscrizione
+	 * se la richiesta viene ammessa.<br>
+	 * Il metodo non lancia eccezioni per le iscrizioni respinte, ma ne restituisce l'esito.
+	 *
+	 * Precondizione: event != null, user != null
+	 *
+	 * @param event L'evento
+	 * @param user L'utente che richiede l'iscrizione
+	 * @return L'esito della richiesta
+	 */
+	public AdmissionResult subscribe(Event event, User user) {
+		// Verifica delle precondizioni
+		if (event == null || user == null) {
+			throw new IllegalArgumentException("Impossibile iscrivere un utente con parametri nulli");
+		}
+
+		AdmissionResult result = this.admit(event, user);
+		this.counters.get(result).increment();
+		return result;
+	}
+
+	private AdmissionResult admit(Event event, User user) {
+		// Verifica rapida, senza lock, dei posti disponibili
+		if (!event.acceptsSubscriptions()) {
+			return AdmissionResult.NO_CAPACITY;
+		}
+		// Limite dell'utente, prima di consumare un gettone dell'evento
+		TokenBucket userBucket = this.userBuckets.tryAcquire(user);
+		if (userBucket == null) {
+			return AdmissionResult.USER_THROTTLED;
+		}
+		TokenBucket eventBucket = this.eventBuckets.tryAcquire(event);
+		if (eventBucket == null) {
+			// La richiesta non è stata servita: non viene conteggiata nel limite dell'utente
+			userBucket.release();
+			return AdmissionResult.EVENT_THROTTLED;
+		}
+
+		synchronized (event) {
+			if (!event.canSubscribe(user)) {
+				// L'evento non è stato modificato: la richiesta non viene conteggiata nel limite dell'evento
+				eventBucket.release();
+				return AdmissionResult.REJECTED;
+			}
+			event.subscribe(user);
+			return AdmissionResult.ADMITTED;
+		}
+	}
+
+	/**
+	 * @param result L'esito
+	 * @return Il numero di richieste con l'esito dato
+	 */
+	public long getCount(AdmissionResult result) {
+		return this.counters.get(result).sum();
+	}
+
+	/**
+	 * @return Il numero di richieste scartate prima di raggiungere l'evento (vedi {@link AdmissionResult#isShed()})
+	 */
+	public long getShedCount() {
+		long shed = 0;
+		for (AdmissionResult result : AdmissionResult.values()) {
+			if (result.isShed()) {
+				shed += this.getCount(result);
+			}
+		}
+		return shed;
+	}
+
+	/**
+	 * @return Il numero totale di richieste
+	 */
+	public long getRequestCount() {
+		long requests = 0;
+		for (LongAdder counter : this.counters.values()) {
+			requests += counter.sum();
+		}
+		return requests;
+	}
+
+	/**
+	 * @return Il numero di secchi attualmente associati ad eventi e utenti
+	 */
+	public int getTrackedBuckets() {
+		return this.eventBuckets.size() + this.userBuckets.size();
+	}
+
+	/**
+	 * Fornisce un resoconto degli esiti delle richieste.
+	 *
+	 * @return Il resoconto degli esiti
+	 */
+	@Override
+	public String toString() {
+		StringBuffer s = new StringBuffer();
+		long requests = this.getRequestCount();
+		long shed = this.getShedCount();
+		s.append(String.format("Richieste di iscrizione: %d, scartate: %d (%.1f%%)\n",
+				requests, shed, (requests == 0) ? 0.0 : 100.0 * shed / requests));
+		for (AdmissionResult result : AdmissionResult.values()) {
+			s.append(String.format("  %-30s %d\n", result.getDescription(), this.getCount(result)));
+		}
+		return s.toString();
+	}
+
+}
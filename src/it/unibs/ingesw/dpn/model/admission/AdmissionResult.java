@@ -0,0 +1,48 @@
+package it.unibs.ingesw.dpn.model.admission;
+
+/**
+ * Esito di una richiesta di iscrizione sottoposta ad un {@link AdmissionController}.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public enum AdmissionResult {
+
+	/** L'utente è stato iscritto all'evento */
+	ADMITTED("Ammessa", false),
+
+	/** L'evento non accetta iscrizioni (è pieno o non è aperto); la richiesta è stata respinta senza acquisire il lock dell'evento */
+	NO_CAPACITY("Evento pieno o chiuso", true),
+
+	/** L'utente ha superato il proprio limite di richieste */
+	USER_THROTTLED("Limite dell'utente superato", true),
+
+	/** L'evento ha superato il proprio limite di richieste */
+	EVENT_THROTTLED("Limite dell'evento superato", true),
+
+	/** L'evento ha respinto l'iscrizione (ad esempio perché l'utente era già iscritto, o l'ultimo posto è stato appena occupato) */
+	REJECTED("Respinta dall'evento", false);
+
+	private final String description;
+	private final boolean shed;
+
+	private AdmissionResult(String description, boolean shed) {
+		this.description = description;
+		this.shed = shed;
+	}
+
+	/**
+	 * @return La descrizione dell'esito
+	 */
+	public String getDescription() {
+		return this.description;
+	}
+
+	/**
+	 * @return "true" se la richiesta è stata scartata prima di raggiungere l'evento, e quindi senza acquisirne il lock
+	 */
+	public boolean isShed() {
+		return this.shed;
+	}
+
+}
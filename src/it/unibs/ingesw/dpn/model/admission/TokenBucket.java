@@ -0,0 +1,155 @@
+package it.unibs.ingesw.dpn.model.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import it.unibs.ingesw.dpn.model.time.Clocks;
+
+/**
+ * Secchio di gettoni: consente al più "capacity" richieste consecutive, e in seguito una richiesta
+ * ogni 1 / "rate" secondi, man mano che i gettoni vengono ricaricati.<br>
+ * <br>
+ * Lo stato del secchio è un unico istante, aggiornato con un'operazione atomica (compare-and-set):
+ * l'istante in cui il secchio tornerà pieno, in microsecondi secondo l'orologio attivo (vedi {@link Clocks}).
+ * Ciascuna richiesta accettata sposta in avanti tale istante del tempo di ricarica di un gettone, e una
+ * richiesta viene respinta se il secchio non tornerebbe pieno entro il tempo di ricarica di "capacity" gettoni.
+ * La verifica non acquisisce alcun lock e non alloca alcun oggetto.<br>
+ * <br>
+ * Un secchio pieno può essere ritirato (vedi {@link #retireIfFull()}): da quel momento non concede più gettoni,
+ * e chi lo utilizza deve sostituirlo con un secchio nuovo.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public final class TokenBucket {
+
+	private static final long MICROS_PER_SECOND = TimeUnit.SECONDS.toMicros(1);
+
+	/** Valore di "fullAt" di un secchio ritirato */
+	private static final long RETIRED = Long.MAX_VALUE;
+
+	private final int capacity;
+	private final long refillMicros;
+	private final long toleranceMicros;
+
+	/** Istante in cui il secchio tornerà pieno, in microsecondi */
+	private final AtomicLong fullAt;
+
+	/**
+	 * Crea un secchio pieno.
+	 *
+	 * Precondizione: rate > 0, capacity > 0
+	 *
+	 * @param rate Il numero di gettoni ricaricati al secondo
+	 * @param capacity Il numero massimo di gettoni nel secchio
+	 */
+	public TokenBucket(double rate, int capacity) {
+		// Verifica delle precondizioni
+		if (!(rate > 0) || capacity <= 0) {
+			throw new IllegalArgumentException("Parametri del secchio di gettoni non validi");
+		}
+
+		this.capacity = capacity;
+		this.refillMicros = Math.max(1, Math.round(MICROS_PER_SECOND / rate));
+		this.toleranceMicros = this.refillMicros * (capacity - 1);
+		this.fullAt = new AtomicLong(0);
+	}
+
+	/**
+	 * Preleva un gettone dal secchio, se disponibile.
+	 *
+	 * @return "true" se il gettone è stato prelevato, "false" se il secchio è vuoto o ritirato
+	 */
+	public boolean tryAcquire() {
+		long now = nowMicros();
+		while (true) {
+			long current = this.fullAt.get();
+			if (current == RETIRED) {
+				return false;
+			}
+			long base = Math.max(current, now);
+			if (base - now > this.toleranceMicros) {
+				return false;
+			}
+			if (this.fullAt.compareAndSet(current, base + this.refillMicros)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Restituisce al secchio un gettone prelevato e non utilizzato, ad esempio perché la richiesta è stata
+	 * respinta da un controllo successivo.
+	 *
+	 * Precondizione: il gettone è stato prelevato con {@link #tryAcquire()} e non è già stato restituito
+	 */
+	public void release() {
+		while (true) {
+			long current = this.fullAt.get();
+			// Un secchio ritirato era pieno: il gettone non ha più effetto
+			if (current == RETIRED || this.fullAt.compareAndSet(current, current - this.refillMicros)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Ritira il secchio, se è pieno. L'operazione è atomica rispetto ai prelievi: un prelievo concorrente
+	 * avviene prima del ritiro, e in tal caso il secchio non è più pieno e non viene ritirato, oppure dopo,
+	 * e in tal caso viene respinto.
+	 *
+	 * @return "true" se il secchio è stato ritirato da questa chiamata
+	 */
+	boolean retireIfFull() {
+		long now = nowMicros();
+		while (true) {
+			long current = this.fullAt.get();
+			if (current == RETIRED || current > now) {
+				return false;
+			}
+			if (this.fullAt.compareAndSet(current, RETIRED)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * @return "true" se il secchio è stato ritirato, e non concede più gettoni
+	 */
+	boolean isRetired() {
+		return this.fullAt.get() == RETIRED;
+	}
+
+	/**
+	 * @return Il numero di gettoni attualmente disponibili
+	 */
+	public int getAvailableTokens() {
+		long current = this.fullAt.get();
+		if (current == RETIRED) {
+			return 0;
+		}
+		long now = nowMicros();
+		long missing = Math.max(0, current - now);
+		// Un gettone parzialmente ricaricato non è disponibile
+		return this.capacity - (int) ((missing + this.refillMicros - 1) / this.refillMicros);
+	}
+
+	/**
+	 * @return "true" se il secchio è pieno, ovvero se è indistinguibile da un secchio appena creato
+	 */
+	public boolean isFull() {
+		return this.fullAt.get() <= nowMicros();
+	}
+
+	/**
+	 * @return Il numero massimo di gettoni nel secchio
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	private static long nowMicros() {
+		return TimeUnit.MILLISECONDS.toMicros(Clocks.current().currentTimeMillis());
+	}
+
+}
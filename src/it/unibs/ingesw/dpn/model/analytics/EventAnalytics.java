@@ -0,0 +1,386 @@
+package it.unibs.ingesw.dpn.model.analytics;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import it.unibs.ingesw.dpn.model.bus.DomainEvent;
+import it.unibs.ingesw.dpn.model.bus.DomainEventListener;
+import it.unibs.ingesw.dpn.model.bus.EventPublished;
+import it.unibs.ingesw.dpn.model.bus.EventRemoved;
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.events.EventState;
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fields.Field;
+import it.unibs.ingesw.dpn.model.fieldvalues.DateFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.FieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.MoneyAmount;
+import it.unibs.ingesw.dpn.model.fieldvalues.OptionalCostsFieldValue;
+
+/**
+ * Motore di statistiche sugli eventi.<br>
+ * Mantiene, per ogni evento tracciato, una "riga" memorizzata per colonne (un array per ciascuna
+ * dimensione e per ciascuna misura) e, per ogni valore di ciascuna dimensione, gli aggregati delle misure.<br>
+ * Gli aggregati vengono aggiornati in maniera incrementale ad ogni modifica di un evento (cambio di stato,
+ * iscrizione, disiscrizione), sottraendo i vecchi valori della riga e sommando i nuovi: le interrogazioni
+ * di tipo "group by" costano quindi quanto il numero di gruppi, e non quanto il numero di eventi.<br>
+ * <br>
+ * Gli aggiornamenti arrivano dal bus dei fatti di dominio della bacheca (vedi {@link DomainEventListener}),
+ * attraverso il quale il motore viene registrato come listener asincrono.<br>
+ * <br>
+ * Gli importi sono espressi in centesimi (vedi {@link MoneyAmount}).
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class EventAnalytics implements DomainEventListener<DomainEvent> {
+	
+	/** Dimensioni secondo cui è possibile raggruppare gli eventi */
+	public enum Dimension {
+		/** Categoria dell'evento, come oggetto {@link it.unibs.ingesw.dpn.model.categories.Category} */
+		CATEGORY,
+		/** Nome dello stato dell'evento, come oggetto String */
+		STATE,
+		/** Mese di svolgimento dell'evento, come oggetto {@link YearMonth} (null se la data non è definita) */
+		MONTH,
+		/** Creatore dell'evento, come oggetto {@link it.unibs.ingesw.dpn.model.users.User} */
+		CREATOR
+	}
+	
+	/** Misure aggregabili */
+	public enum Measure {
+		/** Numero di eventi */
+		EVENTS,
+		/** Numero di partecipanti, creatore compreso */
+		PARTICIPANTS,
+		/** Incasso atteso dal creatore, spese opzionali comprese */
+		REVENUE,
+		/** Incasso atteso dalle sole spese opzionali */
+		OPTIONAL_REVENUE
+	}
+	
+	private static final int DIMENSIONS = Dimension.values().length;
+	private static final int MEASURES = Measure.values().length;
+	private static final int INITIAL_CAPACITY = 64;
+	
+	/** Riga associata a ciascun evento tracciato */
+	private final IdentityHashMap<Event, Integer> rows;
+	/** Righe attualmente occupate */
+	private final BitSet usedRows;
+	
+	/** Colonne delle dimensioni: per ciascuna dimensione, il codice del valore in ciascuna riga */
+	private int [][] keyColumns;
+	/** Colonne delle misure: per ciascuna misura, il valore in ciascuna riga */
+	private long [][] measureColumns;
+	
+	/** Dizionari delle dimensioni: per ciascuna dimensione, il valore associato a ciascun codice */
+	private final List<List<Object>> dictionaries;
+	/** Dizionari inversi delle dimensioni: per ciascuna dimensione, il codice associato a ciascun valore */
+	private final List<Map<Object, Integer>> codes;
+	/** Aggregati: per ciascuna dimensione e per ciascun codice, il valore di tutte le misure */
+	private final List<List<long []>> aggregates;
+	/** Totali complessivi di tutte le misure */
+	private final long [] totals;
+	
+	/**
+	 * Crea un motore di statistiche vuoto.
+	 */
+	public EventAnalytics() {
+		this.rows = new IdentityHashMap<>();
+		this.usedRows = new BitSet();
+		this.keyColumns = new int[DIMENSIONS][INITIAL_CAPACITY];
+		this.measureColumns = new long[MEASURES][INITIAL_CAPACITY];
+		this.dictionaries = new ArrayList<>(DIMENSIONS);
+		this.codes = new ArrayList<>(DIMENSIONS);
+		this.aggregates = new ArrayList<>(DIMENSIONS);
+		for (int d = 0; d < DIMENSIONS; d++) {
+			this.dictionaries.add(new ArrayList<>());
+			this.codes.add(new HashMap<>());
+			this.aggregates.add(new ArrayList<>());
+		}
+		this.totals = new long[MEASURES];
+	}
+	
+	/**
+	 * Inizia a tracciare un evento.<br>
+	 * Se l'evento è già tracciato, i suoi valori vengono semplicemente aggiornati.<br>
+	 * Un evento ritirato non viene tracciato, poiché è stato (o sta per essere) rimosso dalla bacheca:
+	 * in questo modo il tracciamento iniziale non aggiunge di nuovo un evento la cui rimozione è già stata applicata.
+	 * 
+	 * Precondizione: event != null
+	 * 
+	 * @param event L'evento da tracciare
+	 */
+	public void track(Event event) {
+		// Verifica della precondizione
+		if (event == null) {
+			throw new IllegalArgumentException("Impossibile tracciare un evento nullo");
+		}
+		
+		/*
+		 * NOTA: i valori dell'evento vengono letti tenendo il suo lock, e PRIMA di acquisire il lock di questo oggetto,
+		 * in modo da non acquisire mai il lock di un evento mentre si detiene quello delle statistiche.
+		 * Due letture dello stesso evento vengono quindi applicate nell'ordine in cui sono avvenute, anche quando
+		 * il tracciamento iniziale si sovrappone alla consegna asincrona dei fatti di dominio.
+		 */
+		synchronized (event) {
+			if (EventState.WITHDRAWN.equals(event.getState())) {
+				return;
+			}
+			Object [] keys = readKeys(event);
+			long [] measures = readMeasures(event);
+			synchronized (this) {
+				Integer row = this.rows.get(event);
+				if (row == null) {
+					row = this.allocateRow();
+					this.rows.put(event, row);
+				} else {
+					this.subtractRow(row);
+				}
+				this.writeRow(row, keys, measures);
+			}
+		}
+	}
+	
+	/**
+	 * Smette di tracciare un evento, rimuovendo il suo contributo da tutti gli aggregati.
+	 * 
+	 * @param event L'evento da non tracciare più
+	 */
+	public void untrack(Event event) {
+		synchronized (this) {
+			Integer row = this.rows.remove(event);
+			if (row != null) {
+				this.subtractRow(row);
+				this.usedRows.clear(row);
+			}
+		}
+	}
+	
+	/**
+	 * Aggiorna la riga dell'evento modificato.
+	 * 
+	 * @param e L'evento modificato
+	 */
+	public void onEventChange(Event e) {
+		synchronized (e) {
+			Object [] keys = readKeys(e);
+			long [] measures = readMeasures(e);
+			synchronized (this) {
+				Integer row = this.rows.get(e);
+				if (row != null) {
+					this.subtractRow(row);
+					this.writeRow(row, keys, measures);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Aggiorna le statistiche in base al fatto di dominio ricevuto dal bus:
+	 * gli eventi pubblicati vengono tracciati, quelli rimossi non vengono più tracciati,
+	 * quelli modificati vengono aggiornati.
+	 * 
+	 * @param domainEvent Il fatto di dominio
+	 */
+	@Override
+	public void handle(DomainEvent domainEvent) {
+		if (domainEvent instanceof EventPublished) {
+			this.track(domainEvent.getSource());
+		} else if (domainEvent instanceof EventRemoved) {
+			this.untrack(domainEvent.getSource());
+		} else {
+			this.onEventChange(domainEvent.getSource());
+		}
+	}
+	
+	/**
+	 * Restituisce il numero di eventi tracciati.
+	 * 
+	 * @return Il numero di eventi tracciati
+	 */
+	public synchronized int size() {
+		return this.rows.size();
+	}
+	
+	/**
+	 * Restituisce il totale di una misura su tutti gli eventi tracciati.
+	 * 
+	 * @param measure La misura
+	 * @return Il totale della misura
+	 */
+	public synchronized long getTotal(Measure measure) {
+		return this.totals[measure.ordinal()];
+	}
+	
+	/**
+	 * Restituisce il valore aggregato di una misura per uno specifico valore di una dimensione.
+	 * 
+	 * @param dimension La dimensione
+	 * @param key Il valore della dimensione (ad esempio una categoria)
+	 * @param measure La misura
+	 * @return Il valore aggregato, 0 se nessun evento ha il valore dato
+	 */
+	public synchronized long get(Dimension dimension, Object key, Measure measure) {
+		Integer code = this.codes.get(dimension.ordinal()).get(key);
+		if (code == null) {
+			return 0L;
+		}
+		return this.aggregates.get(dimension.ordinal()).get(code)[measure.ordinal()];
+	}
+	
+	/**
+	 * Raggruppa gli eventi tracciati secondo una dimensione e restituisce, per ciascun gruppo non vuoto,
+	 * il valore aggregato della misura data.
+	 * 
+	 * @param dimension La dimensione di raggruppamento
+	 * @param measure La misura da aggregare
+	 * @return Una mappa (in ordine di prima comparsa) che associa ad ogni gruppo il valore della misura
+	 */
+	public synchronized Map<Object, Long> groupBy(Dimension dimension, Measure measure) {
+		List<Object> dictionary = this.dictionaries.get(dimension.ordinal());
+		List<long []> groups = this.aggregates.get(dimension.ordinal());
+		
+		Map<Object, Long> result = new LinkedHashMap<>();
+		for (int code = 0; code < groups.size(); code++) {
+			long [] group = groups.get(code);
+			// Escludo i gruppi che non contengono più alcun evento
+			if (group[Measure.EVENTS.ordinal()] > 0) {
+				result.put(dictionary.get(code), group[measure.ordinal()]);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Restituisce una riga libera, eventualmente allargando le colonne.
+	 * 
+	 * @return L'indice della riga
+	 */
+	private int allocateRow() {
+		int row = this.usedRows.nextClearBit(0);
+		if (row >= this.keyColumns[0].length) {
+			int newCapacity = this.keyColumns[0].length * 2;
+			for (int d = 0; d < DIMENSIONS; d++) {
+				this.keyColumns[d] = Arrays.copyOf(this.keyColumns[d], newCapacity);
+			}
+			for (int m = 0; m < MEASURES; m++) {
+				this.measureColumns[m] = Arrays.copyOf(this.measureColumns[m], newCapacity);
+			}
+		}
+		this.usedRows.set(row);
+		return row;
+	}
+	
+	/**
+	 * Scrive i valori di una riga e li somma agli aggregati.
+	 * 
+	 * @param row La riga
+	 * @param keys I valori delle dimensioni
+	 * @param measures I valori delle misure
+	 */
+	private void writeRow(int row, Object [] keys, long [] measures) {
+		for (int m = 0; m < MEASURES; m++) {
+			this.measureColumns[m][row] = measures[m];
+			this.totals[m] += measures[m];
+		}
+		for (int d = 0; d < DIMENSIONS; d++) {
+			int code = this.encode(d, keys[d]);
+			this.keyColumns[d][row] = code;
+			long [] group = this.aggregates.get(d).get(code);
+			for (int m = 0; m < MEASURES; m++) {
+				group[m] += measures[m];
+			}
+		}
+	}
+	
+	/**
+	 * Sottrae agli aggregati il contributo di una riga.
+	 * 
+	 * @param row La riga
+	 */
+	private void subtractRow(int row) {
+		for (int m = 0; m < MEASURES; m++) {
+			this.totals[m] -= this.measureColumns[m][row];
+		}
+		for (int d = 0; d < DIMENSIONS; d++) {
+			long [] group = this.aggregates.get(d).get(this.keyColumns[d][row]);
+			for (int m = 0; m < MEASURES; m++) {
+				group[m] -= this.measureColumns[m][row];
+			}
+		}
+	}
+	
+	/**
+	 * Restituisce il codice associato ad un valore di una dimensione, aggiungendolo al dizionario se necessario.
+	 * 
+	 * @param dimension L'ordinale della dimensione
+	 * @param key Il valore
+	 * @return Il codice del valore
+	 */
+	private int encode(int dimension, Object key) {
+		Map<Object, Integer> dimensionCodes = this.codes.get(dimension);
+		Integer code = dimensionCodes.get(key);
+		if (code == null) {
+			code = this.dictionaries.get(dimension).size();
+			this.dictionaries.get(dimension).add(key);
+			this.aggregates.get(dimension).add(new long[MEASURES]);
+			dimensionCodes.put(key, code);
+		}
+		return code;
+	}
+	
+	/**
+	 * Legge dall'evento i valori delle dimensioni.
+	 * 
+	 * @param event L'evento
+	 * @return I valori delle dimensioni, indicizzati per ordinale
+	 */
+	private static Object [] readKeys(Event event) {
+		Object [] keys = new Object[DIMENSIONS];
+		keys[Dimension.CATEGORY.ordinal()] = event.getCategory();
+		keys[Dimension.STATE.ordinal()] = event.getState();
+		keys[Dimension.CREATOR.ordinal()] = event.getCreator();
+		
+		FieldValue date = event.getFieldValue(CommonField.DATA_E_ORA);
+		if (date != null && ((DateFieldValue) date).getValue() != null) {
+			Date value = ((DateFieldValue) date).getValue();
+			keys[Dimension.MONTH.ordinal()] = YearMonth.from(value.toInstant().atZone(ZoneId.systemDefault()));
+		}
+		return keys;
+	}
+	
+	/**
+	 * Legge dall'evento i valori delle misure.
+	 * 
+	 * @param event L'evento
+	 * @return I valori delle misure, indicizzati per ordinale
+	 */
+	private static long [] readMeasures(Event event) {
+		long [] measures = new long[MEASURES];
+		measures[Measure.EVENTS.ordinal()] = 1L;
+		measures[Measure.PARTICIPANTS.ordinal()] = event.getSubscribers().size();
+		if (event.getFieldValue(CommonField.QUOTA_INDIVIDUALE) != null) {
+			measures[Measure.REVENUE.ordinal()] = event.getExpectedRevenue();
+		}
+		
+		long optionalRevenue = MoneyAmount.ZERO;
+		for (Field f : event.getUserDependantFields()) {
+			FieldValue value = event.getFieldValue(f);
+			if (value instanceof OptionalCostsFieldValue) {
+				optionalRevenue = MoneyAmount.add(optionalRevenue, ((OptionalCostsFieldValue) value).getTotalExpenses());
+			}
+		}
+		measures[Measure.OPTIONAL_REVENUE.ordinal()] = optionalRevenue;
+		return measures;
+	}
+
+}
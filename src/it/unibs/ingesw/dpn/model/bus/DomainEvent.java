@@ -0,0 +1,56 @@
+package it.unibs.ingesw.dpn.model.bus;
+
+import java.util.Date;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.time.Clocks;
+
+/**
+ * Classe astratta che rappresenta un "fatto" di dominio avvenuto su un {@link Event}
+ * (pubblicazione, iscrizione, cambio di stato, ...), da comunicare tramite il {@link DomainEventBus}.<br>
+ * Gli oggetti DomainEvent sono immutabili.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public abstract class DomainEvent {
+	
+	private final Event source;
+	private final Date timestamp;
+	
+	/**
+	 * Costruttore.
+	 * 
+	 * Precondizione: source != null
+	 * 
+	 * @param source L'evento a cui il fatto si riferisce
+	 */
+	protected DomainEvent(Event source) {
+		// Verifica della precondizione
+		if (source == null) {
+			throw new IllegalArgumentException("Impossibile creare un fatto di dominio senza evento di riferimento");
+		}
+		
+		this.source = source;
+		this.timestamp = Clocks.current().now();
+	}
+	
+	/**
+	 * Restituisce l'evento a cui il fatto si riferisce.
+	 * 
+	 * @return L'evento di riferimento
+	 */
+	public Event getSource() {
+		return this.source;
+	}
+	
+	/**
+	 * Restituisce l'istante in cui il fatto è avvenuto.
+	 * 
+	 * @return L'istante del fatto
+	 */
+	public Date getTimestamp() {
+		return new Date(this.timestamp.getTime());
+	}
+
+}
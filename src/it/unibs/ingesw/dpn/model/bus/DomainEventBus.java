@@ -0,0 +1,321 @@
+package it.unibs.ingesw.dpn.model.bus;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bus dei fatti di dominio ({@link DomainEvent}) avvenuti sugli eventi.<br>
+ * Gli oggetti interessati si registrano indicando il tipo di fatto che desiderano ricevere
+ * (comprese le sue sottoclassi) e possono essere di due tipi:
+ * <ul>
+ * 	<li> <strong>Sincroni</strong>: ricevono il fatto nel thread che lo pubblica, prima che il metodo 
+ * 	{@link #publish(DomainEvent)} termini. Adatti a indici e cache che devono restare coerenti con il model.
+ * 	Poiché gli eventi pubblicano i fatti tenendo il proprio lock, i listener sincroni devono essere rapidi.</li>
+ * 	<li> <strong>Asincroni</strong>: ricevono il fatto in un thread dedicato, nell'ordine di pubblicazione.
+ * 	Adatti a registri, statistiche, bacheche personalizzate e notifiche che non devono rallentare le operazioni di dominio.</li>
+ * </ul>
+ * I fatti destinati ai listener asincroni transitano in una coda non bloccante, svuotata da un unico
+ * thread di consegna: la pubblicazione non acquisisce alcun lock.<br>
+ * <br>
+ * Il thread di consegna viene avviato alla registrazione del primo listener asincrono e resta attivo
+ * fino alla chiusura del bus (vedi {@link #close()}), che deve quindi essere chiuso quando non è più utilizzato.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class DomainEventBus {
+	
+	/** Intervallo massimo di attesa del thread di consegna, in assenza di nuovi fatti */
+	private static final long DISPATCHER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+	
+	private static final String LISTENER_FAILURE_FORMAT = "Errore nella consegna del fatto di dominio %s al listener %s:";
+	
+	/**
+	 * Registrazione di un listener per un tipo di fatto.
+	 *
+	 * @param <T> Il tipo di fatto
+	 */
+	private static class Registration<T extends DomainEvent> {
+		
+		private final Class<T> type;
+		private final DomainEventListener<? super T> listener;
+		
+		Registration(Class<T> type, DomainEventListener<? super T> listener) {
+			this.type = type;
+			this.listener = listener;
+		}
+		
+		void deliver(DomainEvent event) {
+			if (this.type.isInstance(event)) {
+				this.listener.handle(this.type.cast(event));
+			}
+		}
+		
+	}
+	
+	private final List<Registration<?>> syncListeners;
+	private final List<Registration<?>> asyncListeners;
+	
+	/** Coda dei fatti in attesa di consegna ai listener asincroni */
+	private final ConcurrentLinkedQueue<DomainEvent> asyncQueue;
+	/** Numero di fatti pubblicati ma non ancora consegnati ai listener asincroni */
+	private final AtomicLong pendingAsyncEvents;
+	/** Numero totale di fatti pubblicati */
+	private final AtomicLong publishedEvents;
+	/** Numero di eccezioni sollevate dai listener */
+	private final AtomicLong listenerFailures;
+	
+	private volatile Thread dispatcher;
+	/** Indica se il bus è stato chiuso, e il thread di consegna deve terminare */
+	private volatile boolean closed;
+	
+	/**
+	 * Crea un bus senza listener.
+	 */
+	public DomainEventBus() {
+		this.syncListeners = new CopyOnWriteArrayList<>();
+		this.asyncListeners = new CopyOnWriteArrayList<>();
+		this.asyncQueue = new ConcurrentLinkedQueue<>();
+		this.pendingAsyncEvents = new AtomicLong();
+		this.publishedEvents = new AtomicLong();
+		this.listenerFailures = new AtomicLong();
+		this.dispatcher = null;
+		this.closed = false;
+	}
+	
+	/**
+	 * Registra un listener sincrono per un tipo di fatto e per tutte le sue sottoclassi.
+	 * 
+	 * Precondizione: type != null, listener != null
+	 * 
+	 * @param type Il tipo di fatto
+	 * @param listener Il listener
+	 */
+	public <T extends DomainEvent> void addListener(Class<T> type, DomainEventListener<? super T> listener) {
+		this.syncListeners.add(createRegistration(type, listener));
+	}
+	
+	/**
+	 * Registra un listener asincrono per un tipo di fatto e per tutte le sue sottoclassi.
+	 * 
+	 * Precondizione: type != null, listener != null, il bus non deve essere stato chiuso
+	 * 
+	 * @param type Il tipo di fatto
+	 * @param listener Il listener
+	 */
+	public <T extends DomainEvent> void addAsyncListener(Class<T> type, DomainEventListener<? super T> listener) {
+		Registration<T> registration = createRegistration(type, listener);
+		this.ensureDispatcher();
+		this.asyncListeners.add(registration);
+	}
+	
+	/**
+	 * Rimuove tutte le registrazioni di un listener, sia sincrone che asincrone.
+	 * 
+	 * @param listener Il listener da rimuovere
+	 */
+	public void removeListener(DomainEventListener<?> listener) {
+		this.syncListeners.removeIf(registration -> registration.listener == listener);
+		this.asyncListeners.removeIf(registration -> registration.listener == listener);
+	}
+	
+	/**
+	 * Pubblica un fatto di dominio: lo consegna subito ai listener sincroni, nell'ordine di registrazione,
+	 * e lo accoda per i listener asincroni.<br>
+	 * Un'eccezione sollevata da un listener non interrompe la consegna agli altri, né l'operazione di dominio
+	 * che ha generato il fatto: viene segnalata sullo standard error con l'intera traccia dello stack,
+	 * e conteggiata (vedi {@link #getListenerFailureCount()}).<br>
+	 * Dopo la chiusura del bus i fatti vengono consegnati solamente ai listener sincroni; un fatto
+	 * pubblicato in concomitanza con la chiusura viene consegnato ai listener asincroni oppure ritirato,
+	 * ma non resta mai in attesa nella coda.
+	 * 
+	 * Precondizione: event != null
+	 * 
+	 * @param event Il fatto da pubblicare
+	 */
+	public void publish(DomainEvent event) {
+		// Verifica della precondizione
+		if (event == null) {
+			throw new IllegalArgumentException("Impossibile pubblicare un fatto nullo");
+		}
+		
+		this.publishedEvents.incrementAndGet();
+		
+		this.deliverToAll(this.syncListeners, event);
+		
+		if (!this.closed && !this.asyncListeners.isEmpty()) {
+			this.pendingAsyncEvents.incrementAndGet();
+			this.asyncQueue.offer(event);
+			if (this.closed && this.asyncQueue.remove(event)) {
+				// Il bus è stato chiuso durante l'accodamento e nessuno ha ancora estratto il fatto:
+				// lo ritiro, poiché la coda potrebbe essere già stata svuotata per l'ultima volta
+				this.pendingAsyncEvents.decrementAndGet();
+				return;
+			}
+			LockSupport.unpark(this.dispatcher);
+		}
+	}
+	
+	/**
+	 * Restituisce il numero totale di fatti pubblicati.
+	 * 
+	 * @return Il numero di fatti pubblicati
+	 */
+	public long getPublishedCount() {
+		return this.publishedEvents.get();
+	}
+	
+	/**
+	 * Restituisce il numero di eccezioni sollevate dai listener, sincroni o asincroni, durante la consegna dei fatti.
+	 * 
+	 * @return Il numero di consegne fallite
+	 */
+	public long getListenerFailureCount() {
+		return this.listenerFailures.get();
+	}
+	
+	/**
+	 * Restituisce il numero di fatti in attesa di consegna ai listener asincroni.
+	 * 
+	 * @return Il numero di fatti in attesa
+	 */
+	public long getPendingAsyncCount() {
+		return this.pendingAsyncEvents.get();
+	}
+	
+	/**
+	 * Attende che tutti i fatti pubblicati finora siano stati consegnati ai listener asincroni.
+	 * 
+	 * @param timeoutMillis Il tempo massimo di attesa, in millisecondi
+	 * @return "True" se tutti i fatti sono stati consegnati, "false" se il tempo è scaduto
+	 * @throws InterruptedException Se il thread viene interrotto durante l'attesa
+	 */
+	public boolean awaitAsyncDelivery(long timeoutMillis) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		while (this.pendingAsyncEvents.get() > 0) {
+			if (System.currentTimeMillis() >= deadline) {
+				return false;
+			}
+			Thread.sleep(1);
+		}
+		return true;
+	}
+	
+	/**
+	 * Chiude il bus: il thread di consegna consegna ai listener asincroni i fatti già accodati, quindi termina;
+	 * il metodo ne attende la terminazione. I fatti pubblicati in seguito vengono consegnati solamente
+	 * ai listener sincroni. Chiudere un bus già chiuso non ha alcun effetto.
+	 */
+	public void close() {
+		Thread thread;
+		synchronized (this) {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			thread = this.dispatcher;
+		}
+		if (thread == null || thread == Thread.currentThread()) {
+			// Nessun thread di consegna, o chiusura richiesta da un listener asincrono
+			return;
+		}
+		
+		LockSupport.unpark(thread);
+		try {
+			thread.join();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		
+		// Scarto i fatti accodati mentre il thread di consegna terminava
+		while (this.asyncQueue.poll() != null) {
+			this.pendingAsyncEvents.decrementAndGet();
+		}
+	}
+	
+	/**
+	 * Indica se il bus è stato chiuso.
+	 * 
+	 * @return "True" se il bus è stato chiuso
+	 */
+	public boolean isClosed() {
+		return this.closed;
+	}
+	
+	/**
+	 * Crea una registrazione, verificando i parametri.
+	 */
+	private static <T extends DomainEvent> Registration<T> createRegistration(Class<T> type, DomainEventListener<? super T> listener) {
+		// Verifica delle precondizioni
+		if (type == null || listener == null) {
+			throw new IllegalArgumentException("Impossibile registrare un listener con parametri nulli");
+		}
+		return new Registration<>(type, listener);
+	}
+	
+	/**
+	 * Consegna un fatto a tutte le registrazioni di una lista, isolando le eccezioni dei singoli listener.<br>
+	 * Ciascuna eccezione viene conteggiata e segnalata sullo standard error con l'intera traccia dello stack,
+	 * poiché il listener che l'ha sollevata (ad esempio un indice) potrebbe non essere più coerente con il model.
+	 */
+	private void deliverToAll(List<Registration<?>> registrations, DomainEvent event) {
+		for (Registration<?> registration : registrations) {
+			try {
+				registration.deliver(event);
+			}
+			catch (RuntimeException ex) {
+				this.listenerFailures.incrementAndGet();
+				System.err.println(String.format(LISTENER_FAILURE_FORMAT,
+						event.getClass().getSimpleName(), registration.listener));
+				ex.printStackTrace();
+			}
+		}
+	}
+	
+	/**
+	 * Avvia il thread di consegna dei fatti ai listener asincroni, se non è già attivo.
+	 */
+	private synchronized void ensureDispatcher() {
+		if (this.closed) {
+			throw new IllegalStateException("Impossibile registrare listener asincroni su un bus chiuso");
+		}
+		if (this.dispatcher != null) {
+			return;
+		}
+		Thread thread = new Thread(this::dispatchLoop, "DomainEventBus-dispatcher");
+		thread.setDaemon(true);
+		this.dispatcher = thread;
+		thread.start();
+	}
+	
+	/**
+	 * Ciclo del thread di consegna: estrae i fatti dalla coda e li consegna ai listener asincroni.
+	 * Alla chiusura del bus il ciclo termina dopo aver svuotato la coda.
+	 */
+	private void dispatchLoop() {
+		while (true) {
+			DomainEvent event = this.asyncQueue.poll();
+			if (event == null) {
+				if (this.closed) {
+					// Un fatto accodato prima della chiusura può comparire dopo l'estrazione fallita:
+					// ricontrollo la coda dopo aver osservato la chiusura
+					if (this.asyncQueue.isEmpty()) {
+						return;
+					}
+					continue;
+				}
+				LockSupport.parkNanos(this, DISPATCHER_PARK_NANOS);
+				continue;
+			}
+			this.deliverToAll(this.asyncListeners, event);
+			this.pendingAsyncEvents.decrementAndGet();
+		}
+	}
+
+}
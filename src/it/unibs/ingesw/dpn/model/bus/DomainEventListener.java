@@ -0,0 +1,20 @@
+package it.unibs.ingesw.dpn.model.bus;
+
+/**
+ * Interfaccia funzionale per gli oggetti interessati ad un tipo di fatto di dominio.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ * @param <T> Il tipo di fatto di dominio gestito
+ */
+@FunctionalInterface
+public interface DomainEventListener<T extends DomainEvent> {
+	
+	/**
+	 * Gestisce un fatto di dominio.
+	 * 
+	 * @param event Il fatto di dominio
+	 */
+	public void handle(T event);
+
+}
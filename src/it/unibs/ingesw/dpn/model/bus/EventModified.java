@@ -0,0 +1,19 @@
+package it.unibs.ingesw.dpn.model.bus;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+
+/**
+ * Fatto di dominio generico: un evento è stato modificato (ad esempio a seguito della personalizzazione
+ * dei campi dipendenti dall'utente).<br>
+ * Le modifiche più specifiche (iscrizioni, cambi di stato, liste d'attesa) sono rappresentate da sottoclassi.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class EventModified extends DomainEvent {
+
+	public EventModified(Event source) {
+		super(source);
+	}
+
+}
@@ -0,0 +1,38 @@
+package it.unibs.ingesw.dpn.model.bus;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+
+/**
+ * Fatto di dominio: un evento è stato aggiunto alla bacheca e pubblicato.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class EventPublished extends DomainEvent {
+
+	private final boolean bulkLoad;
+
+	public EventPublished(Event source) {
+		this(source, false);
+	}
+
+	/**
+	 * @param source L'evento pubblicato
+	 * @param bulkLoad "True" se l'evento fa parte di un caricamento massivo di dati già esistenti
+	 */
+	public EventPublished(Event source, boolean bulkLoad) {
+		super(source);
+		this.bulkLoad = bulkLoad;
+	}
+
+	/**
+	 * Indica se l'evento fa parte di un caricamento massivo di dati già esistenti (ad esempio una migrazione):
+	 * in tal caso l'evento non è una novità per gli utenti, e non deve essere segnalato loro.
+	 * 
+	 * @return "True" se l'evento fa parte di un caricamento massivo
+	 */
+	public boolean isBulkLoad() {
+		return this.bulkLoad;
+	}
+
+}
@@ -0,0 +1,17 @@
+package it.unibs.ingesw.dpn.model.bus;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+
+/**
+ * Fatto di dominio: un evento è stato ritirato e rimosso dalla bacheca.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class EventRemoved extends DomainEvent {
+
+	public EventRemoved(Event source) {
+		super(source);
+	}
+
+}
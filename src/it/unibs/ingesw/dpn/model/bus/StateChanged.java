@@ -0,0 +1,37 @@
+package it.unibs.ingesw.dpn.model.bus;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+
+/**
+ * Fatto di dominio: un evento ha cambiato stato.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class StateChanged extends EventModified {
+	
+	private final String oldState;
+	private final String newState;
+
+	/**
+	 * Costruttore.
+	 * 
+	 * @param source L'evento
+	 * @param oldState Il nome dello stato precedente, null se l'evento è appena stato creato
+	 * @param newState Il nome del nuovo stato
+	 */
+	public StateChanged(Event source, String oldState, String newState) {
+		super(source);
+		this.oldState = oldState;
+		this.newState = newState;
+	}
+	
+	public String getOldState() {
+		return this.oldState;
+	}
+	
+	public String getNewState() {
+		return this.newState;
+	}
+
+}
@@ -0,0 +1,25 @@
+package it.unibs.ingesw.dpn.model.bus;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Fatto di dominio: un utente si è iscritto ad un evento.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class UserSubscribed extends EventModified {
+	
+	private final User user;
+
+	public UserSubscribed(Event source, User user) {
+		super(source);
+		this.user = user;
+	}
+	
+	public User getUser() {
+		return this.user;
+	}
+
+}
@@ -0,0 +1,25 @@
+package it.unibs.ingesw.dpn.model.bus;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Fatto di dominio: un utente si è disiscritto da un evento.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class UserUnsubscribed extends EventModified {
+	
+	private final User user;
+
+	public UserUnsubscribed(Event source, User user) {
+		super(source);
+		this.user = user;
+	}
+	
+	public User getUser() {
+		return this.user;
+	}
+
+}
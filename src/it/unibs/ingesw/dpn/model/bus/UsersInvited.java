@@ -0,0 +1,38 @@
+package it.unibs.ingesw.dpn.model.bus;
+
+import java.util.Collections;
+import java.util.List;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Fatto di dominio: il creatore di un evento ha invitato alcuni utenti a parteciparvi.<br>
+ * Gli inviti vengono recapitati dai listener del fatto (vedi {@link it.unibs.ingesw.dpn.model.events.Inviter}).
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class UsersInvited extends DomainEvent {
+	
+	private final List<User> invited;
+
+	/**
+	 * Costruttore.
+	 * 
+	 * @param source L'evento a cui gli utenti sono invitati
+	 * @param invited Gli utenti invitati
+	 */
+	public UsersInvited(Event source, List<User> invited) {
+		super(source);
+		this.invited = Collections.unmodifiableList(invited);
+	}
+	
+	/**
+	 * @return Gli utenti invitati, in una lista non modificabile
+	 */
+	public List<User> getInvited() {
+		return this.invited;
+	}
+
+}
@@ -0,0 +1,39 @@
+package it.unibs.ingesw.dpn.model.bus;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Fatto di dominio: un utente è entrato nella lista d'attesa di un evento oppure ne è uscito
+ * (perché l'ha lasciata, perché è stato promosso fra gli iscritti o perché la lista è stata svuotata).
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class WaitlistChanged extends EventModified {
+	
+	private final User user;
+	private final boolean joined;
+
+	/**
+	 * Costruttore.
+	 * 
+	 * @param source L'evento
+	 * @param user L'utente entrato nella lista d'attesa o uscito da essa
+	 * @param joined "true" se l'utente è entrato nella lista d'attesa, "false" se ne è uscito
+	 */
+	public WaitlistChanged(Event source, User user, boolean joined) {
+		super(source);
+		this.user = user;
+		this.joined = joined;
+	}
+	
+	public User getUser() {
+		return this.user;
+	}
+	
+	public boolean hasJoined() {
+		return this.joined;
+	}
+
+}
@@ -2,10 +2,10 @@ package it.unibs.ingesw.dpn.model.events;
 
 import java.io.Serializable;
 import java.util.Date;
-import java.util.Timer;
 
 import it.unibs.ingesw.dpn.model.fields.CommonField;
 import it.unibs.ingesw.dpn.model.fieldvalues.DateFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.MoneyAmount;
 import it.unibs.ingesw.dpn.model.fieldvalues.MoneyAmountFieldValue;
 
 /**
@@ -23,9 +23,6 @@ public class ClosedState implements EventState, Serializable {
 	
 	private static final String MEMO_NOTIFICATION_MESSAGE = "PROMEMORIA: L'evento \"%s\" si terra' in data %s, presso \"%s\"";
 	private static final String MEMO_NOTIFICATION_MONEY = "; Quota di partecipazione: %s";
-	private static final String TIMER_NAME = "OngoingTimer_";
-
-	private transient Timer ongoingTimer;
 	
 	@Override
 	public String getStateName() {
@@ -33,10 +30,10 @@ public class ClosedState implements EventState, Serializable {
 	}
 	
 	/**
-	 * All'entrata nel nuovo stato, viene schedulato un timer programmato per scadere a conclusione dell'evento.
-	 * Se l'evento prevede un'orario e una data conclusiva, la scadenza del timer scatena il passaggio da CLOSED a ONGOING,
+	 * All'entrata nel nuovo stato, viene pianificato un cambio di stato programmato per scadere a conclusione dell'evento.
+	 * Se l'evento prevede un'orario e una data conclusiva, la scadenza scatena il passaggio da CLOSED a ONGOING,
 	 * nel momento in cui l'evento inizia.
-	 * Se invece l'evento è "istantaneo" e non presenta una data di conclusione, la scadenza del timer scatena
+	 * Se invece l'evento è "istantaneo" e non presenta una data di conclusione, la scadenza scatena
 	 * il passaggio da CLOSED a ENDED in maniera diretta.
 	 * 
 	 * @param e L'evento a cui si fa riferimento
@@ -51,7 +48,7 @@ public class ClosedState implements EventState, Serializable {
 									   							e.getFieldValue(CommonField.LUOGO)));
 		
 		MoneyAmountFieldValue quota = (MoneyAmountFieldValue) e.getFieldValue(CommonField.QUOTA_INDIVIDUALE);
-		if (quota.getValue() > 0.0f) {
+		if (quota.getCents() > MoneyAmount.ZERO) {
 			message.append(String.format(MEMO_NOTIFICATION_MONEY, quota));
 		}
 		
@@ -63,8 +60,8 @@ public class ClosedState implements EventState, Serializable {
 	}
 	
 	/**
-	 * In seguito alla deserializzazione di un ClosedState, e' necessario riavviare i timer ad esso
-	 * associati
+	 * In seguito alla deserializzazione di un ClosedState, e' necessario ripianificare il cambio
+	 * di stato ad esso associato
 	 * 
 	 * @param e L'evento di riferimento dello stato
 	 */
@@ -77,10 +74,6 @@ public class ClosedState implements EventState, Serializable {
 	
 	private void setTimers(Event e) {
 		
-		// Preparo il timer di scadenza della conclusione dell'evento
-		// Lo configuro in modo che venga eseguito come daemon (grazie al parametro con valore true).
-		this.ongoingTimer = new Timer(TIMER_NAME + e.hashCode(), true);
-		
 		// Ricavo la data di inizio dell'evento
 		Date ongoingDate = ((DateFieldValue) e.getFieldValue(CommonField.DATA_E_ORA)).getValue();
 				
@@ -88,12 +81,12 @@ public class ClosedState implements EventState, Serializable {
 		if (e.getFieldValue(CommonField.DATA_E_ORA_CONCLUSIVE) != null) {
 	
 			// Programmo il passaggio di stato da CLOSED a ONGOING
-			EventState.scheduleStateChange(e, EventState.ONGOING, ongoingTimer, ongoingDate);
+			EventState.scheduleStateChange(e, EventState.ONGOING, ongoingDate);
 					
 		} else {
 				
 			// Programmo il passaggio di stato da CLOSED a ENDED
-			EventState.scheduleStateChange(e, EventState.ENDED, ongoingTimer, ongoingDate);
+			EventState.scheduleStateChange(e, EventState.ENDED, ongoingDate);
 			
 		}
 		
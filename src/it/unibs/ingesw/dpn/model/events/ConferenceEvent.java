@@ -3,6 +3,7 @@ package it.unibs.ingesw.dpn.model.events;
 
 import it.unibs.ingesw.dpn.model.categories.Category;
 import it.unibs.ingesw.dpn.model.fields.ConferenceField;
+import it.unibs.ingesw.dpn.model.fieldvalues.MoneyAmount;
 import it.unibs.ingesw.dpn.model.fieldvalues.OptionalCostsFieldValue;
 import it.unibs.ingesw.dpn.model.users.User;
 
@@ -30,10 +31,10 @@ public class ConferenceEvent extends Event {
 	}
 	
 	@Override
-	public float getExpensesForUser(User user) {
+	public long getExpensesForUser(User user) {
 		
-		float baseAmount = super.getExpensesForUser(user);
-		float extras = 0.0f;
+		long baseAmount = super.getExpensesForUser(user);
+		long extras = MoneyAmount.ZERO;
 		
 		if (this.hasFieldValue(ConferenceField.SPESE_OPZIONALI)) {
 			
@@ -41,7 +42,7 @@ public class ConferenceEvent extends Event {
 		
 		}
 		
-		return baseAmount + extras;
+		return MoneyAmount.add(baseAmount, extras);
 	}
 
 }
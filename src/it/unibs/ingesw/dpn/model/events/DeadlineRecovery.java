@@ -0,0 +1,100 @@
+package it.unibs.ingesw.dpn.model.events;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import it.unibs.ingesw.dpn.model.time.Clocks;
+import it.unibs.ingesw.dpn.model.time.VirtualClock;
+import it.unibs.ingesw.dpn.model.users.Notification;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Recupero delle scadenze trascorse mentre l'applicazione non era in esecuzione.<br>
+ * Invece di ripianificare sull'orologio reale scadenze già trascorse, che verrebbero eseguite tutte
+ * insieme e in ordine non significativo, le scadenze di tutti gli eventi vengono pianificate su un
+ * {@link VirtualClock}, proprio di ciascun recupero, che viene fatto avanzare fino all'istante corrente: i passaggi di stato
+ * vengono quindi applicati dagli stessi stati degli eventi, in un'unica passata, nel thread chiamante
+ * e in ordine cronologico (a parità di scadenza, nell'ordine degli eventi in bacheca).
+ * Lo storico di ciascun evento riporta gli istanti in cui le scadenze sono effettivamente cadute.<br>
+ * <br>
+ * Durante il recupero le notifiche vengono trattenute; al termine ciascun utente riceve un'unica
+ * notifica che riassume, in ordine, tutti gli aggiornamenti che lo riguardano.
+ * Le scadenze future vengono infine pianificate sull'orologio attivo.<br>
+ * <br>
+ * L'orologio attivo (vedi {@link Clocks#current()}) non viene mai sostituito: durante il recupero solo gli eventi
+ * dati utilizzano l'orologio simulato, ed è quindi possibile recuperare più bacheche contemporaneamente.
+ * Il recupero deve comunque essere effettuato all'avvio, prima che gli eventi siano resi accessibili ad altri thread.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+final class DeadlineRecovery {
+
+	static final String DIGEST_HEADER = "Aggiornamenti durante l'interruzione del servizio: ";
+	static final String DIGEST_SEPARATOR = " | ";
+
+	private DeadlineRecovery() {
+		// Classe non istanziabile
+	}
+
+	/**
+	 * Applica le scadenze trascorse degli eventi dati e ripianifica quelle future.
+	 *
+	 * Precondizione: events != null
+	 *
+	 * @param events Gli eventi appena caricati, nell'ordine della bacheca
+	 * @return Il numero di scadenze trascorse elaborate
+	 */
+	static int recover(List<Event> events) {
+		// Verifica della precondizione
+		if (events == null) {
+			throw new IllegalArgumentException("Impossibile recuperare le scadenze di una lista di eventi nulla");
+		}
+
+		long now = Clocks.current().currentTimeMillis();
+		// L'orologio simulato parte dall'inizio dell'epoca, in modo da precedere ogni scadenza trascorsa
+		VirtualClock catchUp = new VirtualClock(0);
+		Map<User, List<String>> held = new LinkedHashMap<>();
+
+		// Solo gli eventi dati utilizzano l'orologio simulato: l'orologio attivo non viene modificato
+		int processed;
+		try {
+			for (Event e : events) {
+				e.useClock(catchUp);
+				e.holdNotifications(held);
+				e.resetState();
+			}
+			processed = catchUp.advanceTo(now);
+		}
+		finally {
+			for (Event e : events) {
+				e.useClock(null);
+				e.releaseNotifications();
+			}
+		}
+
+		// Le scadenze rimaste sull'orologio simulato sono tutte future: le ripianifico sull'orologio attivo
+		for (Event e : events) {
+			e.resetState();
+		}
+
+		deliver(held);
+		return processed;
+	}
+
+	/**
+	 * Invia a ciascun utente un'unica notifica con tutti i messaggi trattenuti.
+	 * Gli utenti che ricevono lo stesso testo condividono la stessa notifica.
+	 */
+	private static void deliver(Map<User, List<String>> held) {
+		Map<String, Notification> payloads = new HashMap<>();
+		for (Map.Entry<User, List<String>> entry : held.entrySet()) {
+			List<String> messages = entry.getValue();
+			String text = (messages.size() == 1) ? messages.get(0) : DIGEST_HEADER + String.join(DIGEST_SEPARATOR, messages);
+			entry.getKey().receive(payloads.computeIfAbsent(text, Notification::new));
+		}
+	}
+
+}
@@ -1,22 +1,39 @@
 package it.unibs.ingesw.dpn.model.events;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import it.unibs.ingesw.dpn.model.bus.DomainEvent;
+import it.unibs.ingesw.dpn.model.bus.DomainEventBus;
+import it.unibs.ingesw.dpn.model.bus.EventModified;
+import it.unibs.ingesw.dpn.model.bus.StateChanged;
+import it.unibs.ingesw.dpn.model.bus.UserSubscribed;
+import it.unibs.ingesw.dpn.model.bus.UserUnsubscribed;
+import it.unibs.ingesw.dpn.model.bus.WaitlistChanged;
 import it.unibs.ingesw.dpn.model.categories.Category;
 import it.unibs.ingesw.dpn.model.fields.AbstractFieldable;
 import it.unibs.ingesw.dpn.model.fields.CommonField;
 import it.unibs.ingesw.dpn.model.fields.Field;
+import it.unibs.ingesw.dpn.model.fieldvalues.FieldValue;
 import it.unibs.ingesw.dpn.model.fieldvalues.DateFieldValue;
 import it.unibs.ingesw.dpn.model.fieldvalues.IntegerFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.MoneyAmount;
 import it.unibs.ingesw.dpn.model.fieldvalues.MoneyAmountFieldValue;
 import it.unibs.ingesw.dpn.model.fieldvalues.StringFieldValue;
 import it.unibs.ingesw.dpn.model.fieldvalues.UserDependantFieldValue;
+import it.unibs.ingesw.dpn.model.time.Clock;
+import it.unibs.ingesw.dpn.model.time.Clocks;
 import it.unibs.ingesw.dpn.model.users.Notification;
+import it.unibs.ingesw.dpn.model.users.NotificationDigester;
+import it.unibs.ingesw.dpn.model.users.NotificationTopic;
 import it.unibs.ingesw.dpn.model.users.User;
 
 /**
@@ -47,38 +64,72 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 	
 	/** Eccezioni */
 	private static final String NULL_ARGUMENT_EXCEPTION = "Impossibile creare un evento con parametri nulli";
-	private static final String ILLEGAL_COMPARING_METHOD_EXCEPTION = "Metodologia di ordinamento non riconosciuta";
 	
 	/** Messaggi di Log o di notifica */
 	private static final String STATE_CHANGE_LOG = "Cambio di stato in: %s";
 	private static final String EVENT_SUBSCRIPTION_MESSAGE = "Ti sei iscritto/a correttamente all'evento \"%s\"";
 	private static final String EVENT_UNSUBSCRIPTION_MESSAGE = "Ti sei disiscritto/a correttamente dall'evento \"%s\"";
 	private static final String EVENT_CREATION_AND_PUBLICATION_MESSAGE = "L'evento \"%s\" da te creato è stato pubblicato correttamente";
+	private static final String WAITLIST_JOIN_MESSAGE = "Sei in lista d'attesa per l'evento \"%s\": verrai iscritto/a automaticamente se si libererà un posto";
+	private static final String WAITLIST_PROMOTION_MESSAGE = "Si è liberato un posto per l'evento \"%s\": sei stato/a iscritto/a dalla lista d'attesa";
+	private static final String WAITLIST_CUSTOMIZATION_MESSAGE = "; scegli le spese opzionali dalla voce \"Personalizza spese opzionali\" dell'evento per conoscere l'importo dovuto";
+	private static final String WAITLIST_SKIP_MESSAGE = "Sei stato/a rimosso/a dalla lista d'attesa dell'evento \"%s\": non è stato possibile iscriverti al posto liberatosi";
+	private static final String WAITLIST_DISMISSAL_MESSAGE = "Sei stato/a rimosso/a dalla lista d'attesa dell'evento \"%s\", per il quale non possono più liberarsi posti";
 	
 	/** Stringhe di formattazione */
 	private static final String FIELD_DESCRIPTION_STRING = " | %-50s : %s\n";
 	
-	/** Strategie per il confronto di eventi */
-	public enum ComparingMethod {
-		BY_DATE,
-		BY_TITLE
+	/** 
+	 * Strategie per il confronto di eventi.<br>
+	 * Ciascuna strategia è un {@link Comparator} privo di stato, utilizzabile in maniera 
+	 * indipendente (e sicura rispetto ai thread) per ordinare qualunque lista di eventi.
+	 */
+	public enum ComparingMethod implements Comparator<Event> {
+		BY_DATE {
+			@Override
+			public int compare(Event e1, Event e2) {
+				return e1.compareByEventDateTo(e2);
+			}
+		},
+		BY_TITLE {
+			@Override
+			public int compare(Event e1, Event e2) {
+				return e1.compareByTitleTo(e2);
+			}
+		}
 	};
 	
-	/** Strategia di default, comune a tutti gli Event */
-	private static ComparingMethod comparingMethod = ComparingMethod.BY_DATE;
-	
 	/** Attributi d'istanza */
 		
 	private final User creator;
 	
 	private final Category category;
 	
-	private EventState state;
+	/** Stato corrente; volatile perché può essere letto senza acquisire il lock dell'evento (vedi "acceptsSubscriptions()") */
+	private volatile EventState state;
 	
 	private final EventHistory history;
 	
 	private final List<User> partecipants;
 	
+	/** Utenti in attesa che si liberi un posto, nell'ordine di arrivo */
+	private EventWaitlist waitlist = new EventWaitlist();
+	
+	/** Bus su cui pubblicare i fatti di dominio relativi all'evento; non viene salvato su disco */
+	private transient DomainEventBus eventBus;
+	
+	/** Raggruppatore attraverso cui inviare le notifiche, o null per consegnarle direttamente; non viene salvato su disco */
+	private transient NotificationDigester notificationDigester;
+	
+	/** Notifiche trattenute per destinatario durante il recupero delle scadenze, o null se le notifiche vengono inviate */
+	private transient Map<User, List<String>> heldNotifications;
+	
+	/** Orologio su cui pianificare le scadenze durante il recupero (vedi {@link DeadlineRecovery}), o null per l'orologio attivo */
+	private transient Clock clock;
+	
+	/** Descrizioni testuali memorizzate, invalidate ad ogni modifica dei campi o dello stato; non vengono salvate su disco */
+	private transient EventDescriptionCache descriptionCache = new EventDescriptionCache();
+	
 	/**
 	 * Crea un nuovo evento con la relativa categoria. Tutti i campi definiti in CommonField sono automaticamente
 	 * aggiunti all'evento. Eventuali sottoclassi che desiderassero aggiungere dei propri field a questi dovranno
@@ -189,9 +240,11 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 	 * 
 	 * @param message Il messaggio da inviare agli iscritti
 	 */
-	 void notifyEveryone(String message) {
-		notifyCreator(message);
-		notifyPartecipants(message);
+	 synchronized void notifyEveryone(String message) {
+		 // Un'unica notifica condivisa da tutti i destinatari
+		 Notification payload = new Notification(message);
+		 this.send(creator, payload);
+		 this.sendToPartecipants(payload);
 	 }
 	 
 	 /**
@@ -200,15 +253,20 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 	  * @param message Il testo della notifica
 	  */
 	 void notifyCreator(String message) {
-		 creator.receive(new Notification(message));
+		 this.send(creator, new Notification(message));
 	 }
 	 
 	 /**
 	  * Invia una notifica a tutti i partecipanti all'evento ma NON al creatore.
+	  * La notifica è condivisa da tutti i destinatari.
 	  * 
 	  * @param message Il testo della notifica
 	  */
-	 void notifyPartecipants(String message) {
+	 synchronized void notifyPartecipants(String message) {
+		 this.sendToPartecipants(new Notification(message));
+	 }
+	 
+	 private synchronized void sendToPartecipants(Notification payload) {
 		 for (User u : partecipants) {
 
 			 if (u == creator) {
@@ -216,10 +274,95 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 			 }
 			 
 			 // Invio la notifica
-			 u.receive(new Notification(message));
+			 this.send(u, payload);
 		 }
 	 }
 	 
+	 /**
+	  * Invia una notifica relativa all'evento al destinatario dato, oppure la trattiene se le notifiche
+	  * sono sospese (vedi {@link #holdNotifications(Map)}).<br>
+	  * Se l'evento è collegato a un {@link NotificationDigester}, la notifica viene inviata attraverso di esso,
+	  * con l'argomento corrispondente allo stato corrente dell'evento.<br>
+	  * La stessa notifica può essere inviata a più destinatari.
+	  * 
+	  * @param recipient Il destinatario
+	  * @param payload La notifica
+	  */
+	 synchronized void send(User recipient, Notification payload) {
+		 this.send(recipient, topicOf(this.getState()), payload);
+	 }
+	 
+	 /**
+	  * Invia una notifica relativa all'evento al destinatario dato, con l'argomento dato, oppure la trattiene
+	  * se le notifiche sono sospese (vedi {@link #send(User, Notification)}).
+	  * 
+	  * @param recipient Il destinatario
+	  * @param topic L'argomento della notifica
+	  * @param payload La notifica
+	  */
+	 private synchronized void send(User recipient, NotificationTopic topic, Notification payload) {
+		 if (this.heldNotifications != null) {
+			 this.heldNotifications.computeIfAbsent(recipient, u -> new ArrayList<>()).add(payload.getMessage());
+		 } else if (this.notificationDigester != null) {
+			 this.notificationDigester.send(recipient, topic, this.category.getName(), this.getTitle(), payload);
+		 } else {
+			 recipient.receive(payload);
+		 }
+	 }
+	 
+	 /**
+	  * Restituisce l'argomento delle notifiche inviate da un evento nello stato dato.
+	  */
+	 private static NotificationTopic topicOf(String stateName) {
+		 switch (stateName) {
+		 case EventState.OPEN :
+			 return NotificationTopic.NUOVO_EVENTO;
+		 case EventState.CLOSED :
+			 return NotificationTopic.CHIUSURA;
+		 case EventState.FAILED :
+			 return NotificationTopic.FALLIMENTO;
+		 case EventState.ENDED :
+			 return NotificationTopic.CONCLUSIONE;
+		 case EventState.WITHDRAWN :
+			 return NotificationTopic.RITIRO;
+		 default :
+			 return NotificationTopic.ALTRO;
+		 }
+	 }
+	 
+	 /**
+	  * Imposta il raggruppatore attraverso cui verranno inviate le notifiche relative all'evento.<br>
+	  * Viene invocato dalla {@link EventBoard} che contiene l'evento.
+	  * 
+	  * @param notificationDigester Il raggruppatore, o null per consegnare direttamente le notifiche
+	  */
+	 synchronized void setNotificationDigester(NotificationDigester notificationDigester) {
+		 this.notificationDigester = notificationDigester;
+	 }
+	 
+	 /**
+	  * Sospende l'invio delle notifiche: fino alla chiamata di {@link #releaseNotifications()} i messaggi
+	  * destinati agli utenti vengono aggiunti, in ordine, alle liste della mappa data.
+	  * 
+	  * Precondizione: held != null
+	  * 
+	  * @param held La mappa in cui raccogliere i messaggi, per destinatario
+	  */
+	 synchronized void holdNotifications(Map<User, List<String>> held) {
+		 if (held == null) {
+			 throw new IllegalArgumentException("Impossibile trattenere le notifiche in una mappa nulla");
+		 }
+		 this.heldNotifications = held;
+	 }
+	 
+	 /**
+	  * Ripristina l'invio delle notifiche. I messaggi trattenuti fino a questo momento restano nella
+	  * mappa indicata a {@link #holdNotifications(Map)} e non vengono inviati.
+	  */
+	 synchronized void releaseNotifications() {
+		 this.heldNotifications = null;
+	 }
+	 
 	 /**
 	  * Restituisce i campi dell'evento dipendenti dall'utente al momento della sua iscrizione
 	  * 
@@ -258,6 +401,7 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 	 */
 	synchronized void setState(EventState newState) {
 		// Modifico lo stato
+		String oldStateName = (this.state == null) ? null : this.state.getStateName();
 		this.state = newState;
 		
 		// Effettuo le attività d'entrata nello stato
@@ -267,7 +411,15 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 		String message_log = String.format(
 				STATE_CHANGE_LOG, 
 				this.state.getStateName().toUpperCase());
-		this.history.addLog(message_log);
+		this.history.addLog(message_log, this.getClock().now());
+		this.descriptionCache.invalidate();
+		
+		this.publishDomainEvent(new StateChanged(this, oldStateName, this.state.getStateName()));
+		
+		// Fuori dallo stato OPEN non si liberano più posti
+		if (!EventState.OPEN.equals(this.state.getStateName())) {
+			this.dismissWaitlist();
+		}
 		
 	}
 	
@@ -279,6 +431,27 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 		this.state.resetState(this);
 	}
 	
+	/**
+	 * Restituisce l'orologio su cui vengono pianificate le scadenze dell'evento e registrati i cambi di stato:
+	 * l'orologio attivo (vedi {@link Clocks#current()}), o quello impostato con {@link #useClock(Clock)}.
+	 * 
+	 * @return L'orologio dell'evento
+	 */
+	Clock getClock() {
+		Clock clock = this.clock;
+		return (clock != null) ? clock : Clocks.current();
+	}
+	
+	/**
+	 * Imposta l'orologio dell'evento, senza modificare l'orologio attivo degli altri oggetti del model.
+	 * Le scadenze già pianificate restano sull'orologio su cui sono state pianificate.
+	 * 
+	 * @param clock Il nuovo orologio, o null per tornare all'orologio attivo
+	 */
+	synchronized void useClock(Clock clock) {
+		this.clock = clock;
+	}
+	
 	/**
 	 * Restituisce una stringa corrispondente allo stato dell'oggetto {@link Event}.
 	 * 
@@ -362,7 +535,7 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 	 * Si noti che, in caso venga chiamato il metodo quando si è già nello stato WITHDRAWN, lo stato non verrà modificato
 	 * e sarà restituita un'eccezione.<br>
 	 */
-	public void withdraw() {
+	public synchronized void withdraw() {
 		if (this.canBeWithdrawn()) {
 			this.state.onWithdrawal(this);
 		} else {
@@ -370,6 +543,19 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 		}
 	}
 
+	/**
+	 * Indica se l'evento accetta in questo momento nuove iscrizioni, ovvero se è aperto e non ha raggiunto
+	 * il numero massimo di partecipanti, senza verificare alcun utente specifico.<br>
+	 * Il metodo non acquisisce il lock dell'evento, e può quindi essere utilizzato per respingere rapidamente
+	 * le richieste di iscrizione ad un evento pieno durante le raffiche di iscrizioni; il risultato può essere
+	 * superato da una modifica concorrente, e l'iscrizione vera e propria deve comunque verificare "canSubscribe(User)".
+	 * 
+	 * @return "True" se l'evento accetta nuove iscrizioni
+	 */
+	public boolean acceptsSubscriptions() {
+		return this.state.canDoSubscription();
+	}
+	
 	/**
 	 * Indica se l'evento può accettare l'iscrizione di uno specifico {@link User} nell'istante in cui tale
 	 * metodo viene chiamato ed eseguito.<br>
@@ -382,7 +568,7 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 	 * @param potentialSubscriber L'utente che si vuole verificare se sia iscrivibile
 	 * @return "True" se l'utente può essere iscritto all'evento
 	 */
-	public boolean canSubscribe(User potentialSubscriber) {
+	public synchronized boolean canSubscribe(User potentialSubscriber) {
 		// Verifico che l'utente NON sia già iscritto/a
 		if (this.partecipants.contains(potentialSubscriber)) {
 			return false;
@@ -427,20 +613,72 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 			throw new IllegalStateException("Impossibile iscriversi a questo evento");
 		}
 		
-		// Aggiungo l'iscritto
+		this.addSubscriber(subscriber, SubscriptionNotice.CONFIRMATION);
+	}
+	
+	/**
+	 * Iscrive un utente all'evento senza inviargli alcuna notifica, come parte di un caricamento massivo
+	 * di dati già esistenti (vedi {@link EventBoard#loadSubscribers}).
+	 * 
+	 * @param subscriber L'utente da iscrivere
+	 * @return "True" se l'utente è stato iscritto, "false" se non poteva iscriversi (vedi "canSubscribe(User)")
+	 */
+	synchronized boolean loadSubscriber(User subscriber) {
+		if (!this.canSubscribe(subscriber)) {
+			return false;
+		}
+		this.addSubscriber(subscriber, SubscriptionNotice.NONE);
+		return true;
+	}
+	
+	/**
+	 * Notifica inviata all'utente aggiunto agli iscritti.
+	 */
+	private enum SubscriptionNotice {
+		/** Conferma dell'iscrizione con l'importo dovuto; non viene inviata al creatore */
+		CONFIRMATION,
+		/** Iscrizione dalla lista d'attesa, con il rimando alla personalizzazione delle spese opzionali */
+		PROMOTION,
+		/** Nessuna notifica */
+		NONE
+	}
+	
+	/**
+	 * Aggiunge un iscritto all'evento, inviandogli la notifica data.<br>
+	 * Un utente iscritto dalla lista d'attesa riceve un'unica notifica di promozione, che lo rimanda alla
+	 * personalizzazione delle spese opzionali (se presenti) al posto dell'importo dovuto.
+	 * 
+	 * @param subscriber L'utente da iscrivere, che può iscriversi all'evento
+	 * @param notice La notifica da inviare all'utente
+	 */
+	private void addSubscriber(User subscriber, SubscriptionNotice notice) {
+		// Aggiungo l'iscritto, che non è più in attesa
 		this.partecipants.add(subscriber);
+		this.waitlist.remove(subscriber);
 
+		if (notice == SubscriptionNotice.PROMOTION) {
+			StringBuffer message = new StringBuffer(String.format(WAITLIST_PROMOTION_MESSAGE, this.getTitle()));
+			if (!this.hasUserDependantFields()) {
+				message.append("; Importo dovuto: ");
+				message.append(MoneyAmount.toString(this.getExpensesForUser(subscriber)));
+			}
+			else {
+				message.append(WAITLIST_CUSTOMIZATION_MESSAGE);
+			}
+			this.send(subscriber, NotificationTopic.LISTA_D_ATTESA, new Notification(message.toString()));
+		}
 		// Se l'utente non e' il creatore, notifica l'utente che l'iscrizione è andata a buon fine
-		if (subscriber != this.creator) {
+		else if (notice == SubscriptionNotice.CONFIRMATION && subscriber != this.creator) {
 			// Notifico l'iscrizione
 			StringBuffer message = new StringBuffer(
 					String.format(
 							EVENT_SUBSCRIPTION_MESSAGE, 
 							this.getTitle()));
 			// Notifico il costo
-			message.append(String.format("; Importo dovuto: %.2f €", this.getExpensesForUser(subscriber)));
+			message.append("; Importo dovuto: ");
+			message.append(MoneyAmount.toString(this.getExpensesForUser(subscriber)));
 			// Invio il messaggio
-			subscriber.receive(new Notification(message.toString()));
+			this.send(subscriber, NotificationTopic.ISCRIZIONE, new Notification(message.toString()));
 		}
 		
 		// Notifico lo stato che c'è stata un'iscrizione
@@ -449,6 +687,8 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 		 * un cambio di stato (e quindi un'invio di notifiche).
 		 */
 		this.state.onSubscription(this);
+		
+		this.publishDomainEvent(new UserSubscribed(this, subscriber));
 	}
 
 	/**
@@ -464,7 +704,7 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 	 * @param potentialSubscriber L'utente che si vuole verificare se sia disiscrivibile
 	 * @return "True" se l'utente può essere disiscritto dall'evento
 	 */
-	public boolean canUnsubscribe(User potentialUnsubscriber) {
+	public synchronized boolean canUnsubscribe(User potentialUnsubscriber) {
 		// Verifico che l'utente sia già iscritto
 		if (!this.partecipants.contains(potentialUnsubscriber)) {
 			return false;
@@ -502,7 +742,7 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 	 * 
 	 * @return true se il partecipante viene rimosso dalle iscrizioni, false altrimenti.
 	 */
-	public void unsubscribe(User unsubscriber) {
+	public synchronized void unsubscribe(User unsubscriber) {
 		// Verifico che l'utente sia già iscritto
 		if (!this.canUnsubscribe(unsubscriber)) {
 			throw new IllegalStateException("Impossibile disiscriversi da questo evento");
@@ -517,61 +757,192 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 			UserDependantFieldValue fieldValue = (UserDependantFieldValue) this.getFieldValue(field);
 			fieldValue.forgetUserCustomization(unsubscriber);
 		}
+		this.descriptionCache.invalidate();
 
 		// Notifica l'utente che la disiscrizione è andata a buon fine
-		unsubscriber.receive(new Notification(
+		this.send(unsubscriber, NotificationTopic.DISISCRIZIONE, new Notification(
 				String.format(EVENT_UNSUBSCRIPTION_MESSAGE, this.getTitle())
 				));
 		
 		// Comunica allo stato che c'è stata una disiscrizione
 		this.state.onUnsubscription(this);
+		
+		this.publishDomainEvent(new UserUnsubscribed(this, unsubscriber));
+		
+		// Il posto liberato viene assegnato al primo utente in lista d'attesa
+		this.promoteFromWaitlist();
 	}
 	
 	/**
-	 * Metodo di classe che imposta (per tutti gli oggetti {@link Event}) il metodo di comparazione
-	 * degli stessi, utilizzato per ordinamenti basilari.
-	 * Poiché il metodo ha effetto su tutte le istanze della classe (poiché modifica il comportamento
-	 * del metodo "compareTo"), NON è possibile utilizzare questo metodo per ordinare una sottolista di {@link Event}.
-	 * Si consiglia, per fare ciò, di creare un comparatore apposito avvalendosi dei metodi "compareBy-Strategy-To(Event e)".
+	 * Indica se l'utente dato può entrare nella lista d'attesa dell'evento.<br>
+	 * Un utente può entrare in lista d'attesa solamente se:
+	 * <ul>
+	 * 	<li> Non è già iscritto, né già in lista d'attesa </li>
+	 * 	<li> L'evento è aperto ma ha raggiunto il numero massimo di partecipanti </li>
+	 * 	<li> Non è scaduto il termine ultimo di ritiro iscrizione, e quindi un posto può ancora liberarsi </li>
+	 * </ul>
 	 * 
-	 * Nota: questo metodo NON garantisce un ri-ordino automatico degli oggetti {@link Event} a seguito della
-	 * sua chiamata. E' necessario occuparsi direttamente di tale ordinamento secondo altri modi.
+	 * @param user L'utente
+	 * @return "True" se l'utente può entrare in lista d'attesa
+	 */
+	public synchronized boolean canJoinWaitlist(User user) {
+		return !this.partecipants.contains(user)
+				&& !this.waitlist.contains(user)
+				&& EventState.OPEN.equals(this.state.getStateName())
+				&& !this.state.canDoSubscription()
+				&& this.state.canDoUnsubscription();
+	}
+	
+	/**
+	 * Aggiunge un utente in coda alla lista d'attesa dell'evento.<br>
+	 * Quando un iscritto si disiscrive, il primo utente in lista d'attesa viene iscritto automaticamente
+	 * e ne riceve notifica. Allo scadere del termine ultimo di ritiro iscrizione, o all'uscita dallo stato OPEN,
+	 * gli utenti ancora in lista d'attesa vengono rimossi e ne ricevono notifica.<br>
+	 * <br>
+	 * Precondizione: l'utente può entrare in lista d'attesa (vedi "canJoinWaitlist(User)"). In caso contrario,
+	 * il metodo restituisce un'eccezione.
 	 * 
-	 * @param comparingMethod Il modo per confrontare e ordinare due eventi.
+	 * @param user L'utente da aggiungere alla lista d'attesa
 	 */
-	public static void setComparingMethod(ComparingMethod method) {
-		Event.comparingMethod = method;
+	public synchronized void joinWaitlist(User user) {
+		// Verifica della precondizione
+		if (!this.canJoinWaitlist(user)) {
+			throw new IllegalStateException("Impossibile entrare nella lista d'attesa di questo evento");
+		}
+		
+		this.waitlist.add(user);
+		this.send(user, NotificationTopic.LISTA_D_ATTESA, new Notification(String.format(WAITLIST_JOIN_MESSAGE, this.getTitle())));
+		
+		this.publishDomainEvent(new WaitlistChanged(this, user, true));
 	}
 	
 	/**
-	 * Restituisce, come oggetto enun {@link ComparingMethod}, il metodo di confronto degli eventi.
+	 * Rimuove un utente dalla lista d'attesa dell'evento.<br>
+	 * La rimozione non acquisisce il lock dell'evento: un utente che lascia la lista mentre si libera un posto
+	 * viene rimosso oppure iscritto, ma mai entrambe le cose. Il lock viene acquisito solamente dopo la rimozione,
+	 * per pubblicare il fatto {@link WaitlistChanged}.
 	 * 
-	 * @return Il metodo di comparazione utilizzato per gli eventi
+	 * @param user L'utente da rimuovere
+	 * @return "True" se l'utente è stato rimosso, "false" se non era in lista d'attesa
 	 */
-	public static ComparingMethod getComparingMethod() {
-		return Event.comparingMethod;
+	public boolean leaveWaitlist(User user) {
+		if (!this.waitlist.remove(user)) {
+			return false;
+		}
+		this.publishDomainEvent(new WaitlistChanged(this, user, false));
+		return true;
 	}
-
+	
+	/**
+	 * @param user L'utente
+	 * @return "True" se l'utente è in lista d'attesa
+	 */
+	public boolean isWaitlisted(User user) {
+		return this.waitlist.contains(user);
+	}
+	
+	/**
+	 * @return Gli utenti in lista d'attesa, nell'ordine di arrivo
+	 */
+	public List<User> getWaitlist() {
+		return this.waitlist.getUsers();
+	}
+	
+	/**
+	 * @return Il numero di utenti in lista d'attesa
+	 */
+	public int getWaitlistSize() {
+		return this.waitlist.size();
+	}
+	
+	/**
+	 * Iscrive gli utenti in lista d'attesa, nell'ordine di arrivo, finché l'evento accetta iscrizioni.<br>
+	 * Un utente che non può essere iscritto viene rimosso dalla lista e ne riceve notifica.
+	 */
+	private synchronized void promoteFromWaitlist() {
+		User candidate;
+		while (this.state.canDoSubscription() && (candidate = this.waitlist.poll()) != null) {
+			this.publishDomainEvent(new WaitlistChanged(this, candidate, false));
+			if (this.canSubscribe(candidate)) {
+				this.addSubscriber(candidate, SubscriptionNotice.PROMOTION);
+			}
+			else {
+				this.send(candidate, NotificationTopic.LISTA_D_ATTESA, new Notification(String.format(WAITLIST_SKIP_MESSAGE, this.getTitle())));
+			}
+		}
+	}
+	
+	/**
+	 * Svuota la lista d'attesa, notificando la rimozione agli utenti in attesa.<br>
+	 * Viene invocato allo scadere del termine ultimo di ritiro iscrizione e all'uscita dallo stato OPEN,
+	 * quando nessun posto può più liberarsi.
+	 */
+	synchronized void dismissWaitlist() {
+		for (User user : this.waitlist.clear()) {
+			this.publishDomainEvent(new WaitlistChanged(this, user, false));
+			this.send(user, NotificationTopic.LISTA_D_ATTESA, new Notification(String.format(WAITLIST_DISMISSAL_MESSAGE, this.getTitle())));
+		}
+	}
+	
+	/**
+	 * Imposta il bus su cui verranno pubblicati i fatti di dominio relativi all'evento
+	 * (cambi di stato, iscrizioni, disiscrizioni, modifiche).<br>
+	 * Viene invocato dalla {@link EventBoard} che contiene l'evento.
+	 * 
+	 * @param eventBus Il bus, o null per non pubblicare alcun fatto
+	 */
+	synchronized void setEventBus(DomainEventBus eventBus) {
+		this.eventBus = eventBus;
+	}
+	
+	/**
+	 * Comunica che l'evento è stato modificato, pubblicando un fatto {@link EventModified}.<br>
+	 * I cambi di stato, le iscrizioni e le disiscrizioni vengono comunicati automaticamente; questo metodo 
+	 * deve essere invocato esplicitamente dopo aver modificato i campi dipendenti dall'utente (ad esempio, 
+	 * al termine di una personalizzazione delle spese opzionali).<br>
+	 * Invalida inoltre le descrizioni testuali memorizzate dell'evento.
+	 */
+	public void notifyChange() {
+		this.descriptionCache.invalidate();
+		this.publishDomainEvent(new EventModified(this));
+	}
+	
 	/**
-	 * Confronta due eventi sulla base del criterio specificato dal metodo "setComparingMethod".
-	 * Al momento è possibile ordinare due eventi:
-	 * - Per ID crescenti.
-	 * - Per date crescenti.
-	 * - Per titolo, in ordina alfabetico.
+	 * Pubblica un fatto di dominio sul bus dell'evento, se impostato.
+	 * 
+	 * @param domainEvent Il fatto da pubblicare
+	 */
+	private synchronized void publishDomainEvent(DomainEvent domainEvent) {
+		if (this.eventBus != null) {
+			this.eventBus.publish(domainEvent);
+		}
+	}
+	
+	/**
+	 * Metodo di deserializzazione: prepara una memoria vuota per le descrizioni testuali dell'evento,
+	 * che non vengono salvate su disco, e una lista d'attesa vuota per gli eventi salvati prima
+	 * dell'introduzione delle liste d'attesa.
+	 * 
+	 * @param in Lo stream di lettura
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.descriptionCache = new EventDescriptionCache();
+		if (this.waitlist == null) {
+			this.waitlist = new EventWaitlist();
+		}
+	}
+	
+	/**
+	 * Confronta due eventi secondo il loro ordinamento naturale, ossia per date crescenti.<br>
+	 * Per ordinare gli eventi secondo altri criteri, utilizzare le strategie di {@link ComparingMethod}.
 	 * 
 	 * @param e L'evento con cui effettuare il confronto
 	 * @return Un valore numerico per capire l'ordinamento dei due eventi
 	 */
 	@Override
 	public int compareTo(Event e) {
-		switch (Event.comparingMethod) {
-		case BY_DATE: 
-			return this.compareByEventDateTo(e);
-		case BY_TITLE:
-			return this.compareByTitleTo(e);
-		default:
-			throw new IllegalStateException(ILLEGAL_COMPARING_METHOD_EXCEPTION);
-		}
+		return this.compareByEventDateTo(e);
 	}
 	
 	/**
@@ -613,23 +984,66 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 	 * Restituisce le spese che il dato utente dovra' sostenere per l'evento
 	 * 
 	 * @param user L'utente per il quale si vogliono conoscere i costi
-	 * @return Il costo che il dato utente dovra' sostenere
+	 * @return Il costo che il dato utente dovra' sostenere, in centesimi (vedi {@link MoneyAmount})
 	 */
-	public float getExpensesForUser(User user) {
+	public long getExpensesForUser(User user) {
+		
+		return ((MoneyAmountFieldValue) this.getFieldValue(CommonField.QUOTA_INDIVIDUALE)).getCents();
 		
-		return ((MoneyAmountFieldValue) this.getFieldValue(CommonField.QUOTA_INDIVIDUALE)).getValue();
+	}
+	
+	/**
+	 * Restituisce l'incasso atteso dal creatore dell'evento, calcolato come somma delle spese
+	 * di tutti gli iscritti ad eccezione del creatore stesso.<br>
+	 * Il calcolo e' esatto e non alloca oggetti intermedi.
+	 * 
+	 * @return L'incasso atteso, in centesimi (vedi {@link MoneyAmount})
+	 */
+	public synchronized long getExpectedRevenue() {
+		
+		long revenue = MoneyAmount.ZERO;
+		for (User partecipant : this.partecipants) {
+			if (partecipant != this.creator) {
+				revenue = MoneyAmount.add(revenue, this.getExpensesForUser(partecipant));
+			}
+		}
+		return revenue;
 		
 	}
 	
+	/**
+	 * Modifica il valore associato ad un campo dell'evento (vedi {@link AbstractFieldable#setFieldValue(Field, FieldValue)}),
+	 * invalidando le descrizioni testuali memorizzate dell'evento.
+	 * 
+	 * @param chosenField Il campo che si vuole modificare
+	 * @param newValue Il nuovo valore da associare al campo 
+	 */
+	@Override
+	public boolean setFieldValue(Field chosenField, FieldValue newValue) {
+		boolean modified = super.setFieldValue(chosenField, newValue);
+		if (modified) {
+			this.descriptionCache.invalidate();
+		}
+		return modified;
+	}
+	
 	/**
 	 * Restituisce una stringa contenente la descrizione completa ma compatta delle caratteristiche
-	 * dell'evento.
+	 * dell'evento.<br>
+	 * La descrizione viene memorizzata e riutilizzata fino alla successiva modifica dei campi o dello stato.
 	 * 
 	 * @return Una descrizione testuale dell'evento
 	 */
 	@Override
 	public String toString() {
-		StringBuffer description = new StringBuffer();
+		return this.descriptionCache.getDescription(this::renderDescription);
+	}
+	
+	/**
+	 * Produce la descrizione completa dell'evento restituita da {@link #toString()}.
+	 */
+	private String renderDescription() {
+		StringBuilder description = new StringBuilder();
 		// Categoria
 		String categoryName = this.category.getName();
 		description.append(String.format("Categoria   : %s\n", categoryName));
@@ -655,6 +1069,8 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 	 * In particolare, adatta la descrizione a seconda dell'utente che richiede la
 	 * visualizzazione, in modo da presentare valori diversi in caso di campi {@link Field}
 	 * dipendenti dall'utente stesso.<br>
+	 * La sezione dedicata a ciascun utente viene memorizzata separatamente dalla descrizione comune,
+	 * e riutilizzata fino alla successiva modifica dei campi o dello stato.<br>
 	 * 
 	 * Nota: Nel caso in cui l'utente passato come parametro sia il creatore, viene visualizzata
 	 * la lista di campi in maniera standard.
@@ -668,44 +1084,23 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 			return this.toString();
 		}
 		
-		// L'inizio è identico
-		StringBuffer s = new StringBuffer(this.toString());
+		// L'inizio è identico; aggiungo la sezione dei campi dipendenti dall'utente, ma SOLO SE l'utente non è il creatore
+		return this.toString() + this.descriptionCache.getUserSection(pointOfViewUser, this::renderUserSection);
+	}
+	
+	/**
+	 * Produce la sezione della descrizione dedicata all'utente dato, restituita da {@link #toString(User)}.
+	 */
+	private String renderUserSection(User pointOfViewUser) {
+		StringBuilder s = new StringBuilder();
 		
-		// Aggiungo la visualizzazione dei campi dipendenti dall'utente, ma SOLO SE l'utente non è il creatore
+		// Aggiungo la visualizzazione dei campi dipendenti dall'utente
 		s.append("Selezioni dell'utente:\n");
 		for (Field f : this.getUserDependantFields()) {
 			s.append(String.format(FIELD_DESCRIPTION_STRING, f.getName(), this.getFieldValue(f).toString()));
 			// TODO Credo che non funzioni...
 			// Attendo la visualizzazione personalizzata anche dei FieldValue
 		}
-	
-		/*
-		if (this.hasUserDependantFields() && pointOfViewUser != this.getCreator()) {
-			s.append("\n");
-			s.append("Spese opzionali scelte: \n");
-			
-			OptionalCostsFieldValue costsFieldValue = (OptionalCostsFieldValue) event.getFieldValue(ConferenceField.SPESE_OPZIONALI);
-			Map<String, Float> costs = costsFieldValue.getValue();
-			
-			for (String cost : costs.keySet()) {
-				
-				menuContent.append(cost);
-				menuContent.append(String.format(" : %.2f € ", costs.get(cost)));
-				
-				if (!costsFieldValue.userHasCost(loginManager.getCurrentUser(), cost)) {
-					menuContent.append("[ ]");
-				}
-				else {
-					menuContent.append("[X]");
-				}
-				
-				menuContent.append("\n");
-			}
-			menuContent.append("\n");
-			
-			menuContent.append(String.format("Costo complessivo di partecipazione: %.2f €", event.getExpensesForUser(loginManager.getCurrentUser())));
-		}
-		*/
 		
 		return s.toString();
 	}
@@ -718,7 +1113,7 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 	 * @param user L'utente del quale verificare l'iscrizione all'evento
 	 * @return true se l'utente risulta iscritto all'evento
 	 */
-	public boolean hasSubscriber(User user) {
+	public synchronized boolean hasSubscriber(User user) {
 		
 		// Verifica precondizione
 		if (user == null) {
@@ -729,11 +1124,11 @@ public abstract class Event extends AbstractFieldable implements Comparable<Even
 	}
 	
 	/**
-	 * Restituisce la lista non modificabile degli utenti iscritti all'evento
+	 * Restituisce una copia non modificabile della lista degli utenti iscritti all'evento
 	 * 
 	 * @return La lista degli iscritti all'evento
 	 */
-	public List<User> getSubscribers() {
-		return Collections.unmodifiableList(this.partecipants);
+	public synchronized List<User> getSubscribers() {
+		return Collections.unmodifiableList(new ArrayList<>(this.partecipants));
 	}
 }
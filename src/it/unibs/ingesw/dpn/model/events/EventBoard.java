@@ -1,9 +1,24 @@
 package it.unibs.ingesw.dpn.model.events;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
+import it.unibs.ingesw.dpn.model.admission.AdmissionController;
+import it.unibs.ingesw.dpn.model.analytics.EventAnalytics;
+import it.unibs.ingesw.dpn.model.bus.DomainEvent;
+import it.unibs.ingesw.dpn.model.bus.DomainEventBus;
+import it.unibs.ingesw.dpn.model.bus.EventPublished;
+import it.unibs.ingesw.dpn.model.bus.EventRemoved;
+import it.unibs.ingesw.dpn.model.bus.UsersInvited;
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.readmodel.BoardReadModel;
+import it.unibs.ingesw.dpn.model.recommendations.RecommendationFeed;
+import it.unibs.ingesw.dpn.model.fieldvalues.MoneyAmount;
+import it.unibs.ingesw.dpn.model.users.NotificationDigester;
 import it.unibs.ingesw.dpn.model.users.User;
 
 /**
@@ -19,7 +34,42 @@ public class EventBoard implements Serializable {
 	 */
 	private static final long serialVersionUID = 8389735292299317677L;
 	
-	private List<Event> events = new ArrayList<Event>();
+	/*
+	 * NOTA: la lista è "copy-on-write", in modo che ogni lettura possa scorrere un'istantanea immutabile
+	 * senza copiare la lista; le scritture (aggiunta e rimozione di eventi) sono invece rare.
+	 */
+	private List<Event> events = new CopyOnWriteArrayList<Event>();
+	
+	/** Bus dei fatti di dominio relativi agli eventi in bacheca; non viene salvato su disco */
+	private transient DomainEventBus eventBus = new DomainEventBus();
+	
+	/** Raggruppatore delle notifiche inviate dagli eventi in bacheca; non viene salvato su disco */
+	private transient NotificationDigester notificationDigester = new NotificationDigester();
+	
+	/** Statistiche sugli eventi, costruite su richiesta e non salvate su disco */
+	private transient EventAnalytics analytics;
+	
+	/** Campi di tipo data per i quali è possibile ottenere un indice ordinato */
+	private static final CommonField [] INDEXABLE_DATE_FIELDS = {
+			CommonField.DATA_E_ORA,
+			CommonField.TERMINE_ULTIMO_DI_ISCRIZIONE,
+			CommonField.TERMINE_ULTIMO_DI_RITIRO_ISCRIZIONE
+	};
+	
+	/** Indici ordinati sui campi di tipo data, costruiti su richiesta e non salvati su disco */
+	private transient Map<CommonField, EventDateIndex> dateIndexes;
+	
+	/** Indice per la ricerca testuale, costruito su richiesta e non salvato su disco */
+	private transient EventSearchIndex searchIndex;
+	
+	/** Bacheche personalizzate degli utenti, costruite su richiesta e non salvate su disco */
+	private transient RecommendationFeed recommendationFeed;
+	
+	/** Modello di lettura per le schermate di consultazione, costruito su richiesta e non salvato su disco */
+	private transient BoardReadModel readModel;
+	
+	/** Controllo di ammissione delle iscrizioni, costruito su richiesta e non salvato su disco */
+	private transient AdmissionController admissionController;
 	
 	/**
 	 * Aggiunge un evento alla lista della bacheca, pubblicandolo e rendendolo visibile a tutti.
@@ -51,16 +101,110 @@ public class EventBoard implements Serializable {
 			
 			// Aggiungo l'evento alla bacheca
 			events.add(event);
-			// Procedo con l'operazione di pubblicazione
+			// Collego l'evento al bus e procedo con l'operazione di pubblicazione
+			event.setEventBus(this.eventBus);
+			event.setNotificationDigester(this.notificationDigester);
 			event.publish();
+			// Comunico la pubblicazione a statistiche, indici e a tutti gli altri interessati
+			this.eventBus.publish(new EventPublished(event));
 			// Restituisco true perché l'operazione è andata a buon fine		
 			return true;
 		}
 		else {
 			return false;
-		}		
+		}
+	}
+
+	/**
+	 * Aggiunge un insieme di eventi alla bacheca, pubblicandoli, come farebbero chiamate successive
+	 * di {@link #addEvent(Event)}.<br>
+	 * A differenza di queste, la lista degli eventi viene copiata una sola volta per l'intero insieme:
+	 * il metodo è pensato per i caricamenti massivi di dati già esistenti. Per questo motivo i creatori
+	 * non ricevono la notifica di pubblicazione, e i fatti {@link EventPublished} sono marcati come
+	 * caricamento massivo (vedi {@link EventPublished#isBulkLoad()}), in modo che gli eventi non vengano
+	 * segnalati agli utenti interessati.
+	 * <br>
+	 * Precondizione : Nessun evento deve essere nullo o ripetuto.<br>
+	 *
+	 * @param newEvents Gli eventi da aggiungere alla bacheca
+	 * @return Gli eventi effettivamente aggiunti e pubblicati, nello stesso ordine; gli eventi che
+	 * non possono essere pubblicati vengono ignorati, compresi quelli già contenuti in bacheca
+	 * (che sono già stati pubblicati).
+	 */
+	public List<Event> addEvents(Collection<Event> newEvents) {
+		// Verifica precondizione
+		// NOTA: gli eventi in bacheca non vengono copiati per il confronto, poiché non possono essere pubblicati di nuovo
+		Set<Event> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (Event event : newEvents) {
+			if (event == null) {
+				throw new IllegalArgumentException("Impossibile aggiungere un evento nullo");
+			}
+			else if (!distinct.add(event)) {
+				throw new IllegalArgumentException("Impossibile aggiungere due volte lo stesso evento");
+			}
+		}
+
+		List<Event> published = new ArrayList<>(newEvents.size());
+		for (Event event : newEvents) {
+			if (event.canBePublished()) {
+				event.setEventBus(this.eventBus);
+				event.setNotificationDigester(this.notificationDigester);
+				// Le notifiche della pubblicazione vengono trattenute e scartate
+				event.holdNotifications(new HashMap<>());
+				try {
+					event.publish();
+				}
+				finally {
+					event.releaseNotifications();
+				}
+				published.add(event);
+			}
+		}
+		// Aggiungo tutti gli eventi pubblicati con una sola copia della lista
+		this.events.addAll(published);
+		for (Event event : published) {
+			this.eventBus.publish(new EventPublished(event, true));
+		}
+		return published;
 	}
 	
+	/**
+	 * Iscrive ad un evento in bacheca gli utenti dati, senza inviare alcuna notifica, come parte di un
+	 * caricamento massivo di dati già esistenti.<br>
+	 * Le iscrizioni vengono comunque pubblicate sul bus, e possono provocare cambi di stato dell'evento
+	 * (ad esempio la chiusura al raggiungimento del numero massimo di partecipanti); anche le notifiche
+	 * dei cambi di stato vengono scartate.
+	 * 
+	 * Precondizione: event != null, subscribers != null
+	 * 
+	 * @param event L'evento
+	 * @param subscribers Gli utenti da iscrivere, in ordine
+	 * @return Gli utenti che non è stato possibile iscrivere (vedi {@link Event#canSubscribe(User)}), in ordine
+	 */
+	public List<User> loadSubscribers(Event event, Collection<User> subscribers) {
+		// Verifica delle precondizioni
+		if (event == null || subscribers == null) {
+			throw new IllegalArgumentException("Impossibile iscrivere utenti con parametri nulli");
+		}
+		
+		List<User> rejected = new ArrayList<>();
+		// Il lock dell'evento impedisce di scartare le notifiche di operazioni concorrenti
+		synchronized (event) {
+			event.holdNotifications(new HashMap<>());
+			try {
+				for (User subscriber : subscribers) {
+					if (!event.loadSubscriber(subscriber)) {
+						rejected.add(subscriber);
+					}
+				}
+			}
+			finally {
+				event.releaseNotifications();
+			}
+		}
+		return rejected;
+	}
+
 	/**
 	 * Metodo che rimuove un evento dalla bacheca. Si noti che un evento puo' essere
 	 * rimosso dalla bacheca solo se e' rispettato il valore del suo campo "Termine ultimo di 
@@ -96,6 +240,9 @@ public class EventBoard implements Serializable {
 			events.remove(event);
 			// Procedo con l'operazione di ritiro
 			event.withdraw();
+			// Comunico la rimozione a statistiche, indici e a tutti gli altri interessati, poi scollego l'evento dal bus
+			this.eventBus.publish(new EventRemoved(event));
+			event.setEventBus(null);
 			// Restituisco true perché l'operazione è andata a buon fine		
 			return true;
 		}
@@ -104,13 +251,22 @@ public class EventBoard implements Serializable {
 		}
 	}
 	
+	/**
+	 * Restituisce una nuova interrogazione sugli eventi in bacheca.<br>
+	 * A differenza dei metodi "getEvents*", l'interrogazione non copia la lista di eventi
+	 * e permette di specificare filtri, ordinamento, offset e limite (vedi {@link EventQuery}).
+	 * 
+	 * @return Una nuova interrogazione, senza filtri
+	 */
+	public EventQuery query() {
+		return new EventQuery(this.events);
+	}
+	
 	/**
 	 * Restituisce la lista degli eventi 
 	 */
 	public List<Event> getEvents(){
-		return events
-				.stream()
-				.collect(Collectors.toCollection(ArrayList::new));
+		return this.query().toList();
 	}
 	
 	/**
@@ -120,10 +276,9 @@ public class EventBoard implements Serializable {
 	 */
 	public List<Event> getEventsByState(String stateName){
 		
-		return events
-				.stream()
-				.filter(event -> event.getState().equals(stateName))
-				.collect(Collectors.toCollection(ArrayList::new));
+		return this.query()
+				.withState(stateName)
+				.toList();
 	}
 	/**
 	 * Restituisce la lista degli eventi attualmente aperti proposti da un utente.
@@ -132,11 +287,10 @@ public class EventBoard implements Serializable {
 	 * @param author : utente su cui si effettua la ricerca
 	 */
 	public List<Event> getEventsByAuthor(User author) {
-		return events
-				.stream()
-				.filter(event -> event.getState().equals(EventState.OPEN))
-				.filter(event -> event.getCreator() == author)
-				.collect(Collectors.toCollection(ArrayList::new));
+		return this.query()
+				.withState(EventState.OPEN)
+				.withCreator(author)
+				.toList();
 	}
 
 	/**
@@ -145,11 +299,10 @@ public class EventBoard implements Serializable {
 	 * @param user L'utente su cui avviene la ricerca 
 	 */
 	public List<Event> getOpenSubscriptionsByUser(User user) {
-		return events
-				.stream()
-				.filter(event -> event.hasSubscriber(user))
-				.filter(event -> event.getState().equals(EventState.OPEN))
-				.collect(Collectors.toCollection(ArrayList::new));
+		return this.query()
+				.withSubscriber(user)
+				.withState(EventState.OPEN)
+				.toList();
 	}
 	
 	/**
@@ -158,12 +311,11 @@ public class EventBoard implements Serializable {
 	 * @param user L'utente su cui avviene la ricerca 
 	 */
 	public List<Event> getOpenSubscriptionsNotProposedByUser(User user) {
-		return events
-				.stream()
-				.filter(event -> event.hasSubscriber(user))
+		return this.query()
+				.withSubscriber(user)
+				.withState(EventState.OPEN)
 				.filter(event -> !event.getCreator().equals(user))
-				.filter(event -> event.getState().equals(EventState.OPEN))
-				.collect(Collectors.toCollection(ArrayList::new));
+				.toList();
 	}
 	
 	
@@ -176,28 +328,363 @@ public class EventBoard implements Serializable {
 	 */
 	public List<User> getListOfOldSubscribersFromPastEvents(User user) {
 		ArrayList<User> subscribers = new ArrayList<>();
-		for(Event e : events
-				.stream()
-				.filter(event -> event.getState().equals(EventState.ENDED))
-				.filter(event -> event.getCreator() == user)
-				.collect(Collectors.toCollection(ArrayList::new))) {
-			for(User u : e.getSubscribers()) {
-				if(!subscribers.contains(u) && u != e.getCreator())
-					subscribers.add(u);
-			}			
-		}
+		this.query()
+				.withState(EventState.ENDED)
+				.withCreator(user)
+				.forEach(e -> {
+					for(User u : e.getSubscribers()) {
+						if(!subscribers.contains(u) && u != e.getCreator())
+							subscribers.add(u);
+					}
+				});
 		return subscribers;
 	}
 	
+	/**
+	 * Invita gli utenti dati a partecipare all'evento dato, pubblicando un fatto {@link UsersInvited}.<br>
+	 * Possono essere invitati solamente gli utenti che hanno partecipato ad eventi conclusi dello stesso
+	 * creatore (vedi {@link #getListOfOldSubscribersFromPastEvents(User)}): gli altri vengono ignorati.
+	 * 
+	 * Precondizione: event != null, users != null
+	 * 
+	 * @param event L'evento a cui invitare gli utenti
+	 * @param users Gli utenti da invitare
+	 * @return Il numero di utenti invitati
+	 */
+	public int inviteUsers(Event event, Collection<User> users) {
+		// Verifica delle precondizioni
+		if (event == null || users == null) {
+			throw new IllegalArgumentException("Impossibile invitare utenti con parametri nulli");
+		}
+		
+		List<User> candidates = this.getListOfOldSubscribersFromPastEvents(event.getCreator());
+		List<User> invited = users.stream()
+				.distinct()
+				.filter(candidates::contains)
+				.collect(Collectors.toList());
+		if (!invited.isEmpty()) {
+			this.eventBus.publish(new UsersInvited(event, invited));
+		}
+		return invited.size();
+	}
+	
+	/**
+	 * Restituisce l'incasso complessivo atteso da un utente per gli eventi da lui proposti.<br>
+	 * Non vengono considerati gli eventi ritirati o falliti, per i quali non e' previsto alcun incasso.<br>
+	 * Il calcolo e' esatto e, a differenza dei metodi di ricerca, non crea copie della lista di eventi.
+	 * 
+	 * @param creator L'utente creatore degli eventi
+	 * @return L'incasso atteso, in centesimi (vedi {@link MoneyAmount})
+	 */
+	public long getExpectedRevenueByCreator(User creator) {
+		long revenue = MoneyAmount.ZERO;
+		for (Event e : this.events) {
+			if (e.getCreator() == creator && isRevenueExpected(e)) {
+				revenue = MoneyAmount.add(revenue, e.getExpectedRevenue());
+			}
+		}
+		return revenue;
+	}
+	
+	/**
+	 * Restituisce l'incasso complessivo atteso per tutti gli eventi in bacheca.<br>
+	 * Non vengono considerati gli eventi ritirati o falliti, per i quali non e' previsto alcun incasso.
+	 * 
+	 * @return L'incasso atteso, in centesimi (vedi {@link MoneyAmount})
+	 */
+	public long getTotalExpectedRevenue() {
+		long revenue = MoneyAmount.ZERO;
+		for (Event e : this.events) {
+			if (isRevenueExpected(e)) {
+				revenue = MoneyAmount.add(revenue, e.getExpectedRevenue());
+			}
+		}
+		return revenue;
+	}
+	
+	/**
+	 * Indica se per un evento e' previsto un incasso, ossia se l'evento non e' stato ritirato e non e' fallito.
+	 * 
+	 * @param e L'evento
+	 * @return "True" se per l'evento e' previsto un incasso
+	 */
+	private static boolean isRevenueExpected(Event e) {
+		String state = e.getState();
+		return !EventState.WITHDRAWN.equals(state) && !EventState.FAILED.equals(state);
+	}
+	
+	/**
+	 * Restituisce il bus su cui vengono pubblicati i fatti di dominio relativi agli eventi in bacheca:
+	 * pubblicazioni, rimozioni, cambi di stato, iscrizioni, disiscrizioni e modifiche (vedi {@link DomainEvent}).<br>
+	 * Statistiche, indici e bacheche personalizzate si mantengono aggiornati registrandosi su questo bus; 
+	 * allo stesso modo possono registrarsi notificatori, registri e altri consumatori.
+	 * 
+	 * @return Il bus dei fatti di dominio della bacheca
+	 */
+	public DomainEventBus getEventBus() {
+		return this.eventBus;
+	}
+	
+	/**
+	 * Restituisce il raggruppatore attraverso cui gli eventi in bacheca inviano le notifiche ai propri
+	 * iscritti e agli utenti interessati. Per default le notifiche vengono consegnate immediatamente;
+	 * è possibile impostare una finestra di raggruppamento mediante {@link NotificationDigester#setWindow(long)}.
+	 * 
+	 * @return Il raggruppatore delle notifiche
+	 */
+	public NotificationDigester getNotificationDigester() {
+		return this.notificationDigester;
+	}
+	
+	/**
+	 * Restituisce il motore di statistiche sugli eventi in bacheca.<br>
+	 * Il motore viene creato alla prima richiesta e da quel momento viene mantenuto aggiornato
+	 * ad ogni aggiunta o rimozione di eventi, e ad ogni modifica degli eventi stessi.<br>
+	 * Gli aggiornamenti avvengono nel thread di consegna asincrona del bus, e non rallentano quindi
+	 * le iscrizioni: le statistiche possono riflettere le ultime modifiche con un breve ritardo.
+	 * 
+	 * @return Le statistiche sugli eventi in bacheca
+	 */
+	public synchronized EventAnalytics getAnalytics() {
+		if (this.analytics == null) {
+			this.analytics = new EventAnalytics();
+			// Registro il motore prima di tracciare gli eventi, per non perdere le modifiche concorrenti
+			// (gli eventi rimossi nel frattempo sono già ritirati, e non vengono tracciati)
+			this.eventBus.addAsyncListener(DomainEvent.class, this.analytics);
+			for (Event e : this.events) {
+				this.analytics.track(e);
+			}
+		}
+		return this.analytics;
+	}
+	
+	/**
+	 * Restituisce le bacheche personalizzate degli utenti (vedi {@link RecommendationFeed}).<br>
+	 * L'oggetto viene creato alla prima richiesta e da quel momento viene mantenuto aggiornato
+	 * ad ogni aggiunta o rimozione di eventi, e ad ogni modifica degli eventi stessi.<br>
+	 * Gli aggiornamenti avvengono nel thread di consegna asincrona del bus, e non rallentano quindi
+	 * le iscrizioni: le bacheche personalizzate possono riflettere le ultime modifiche con un breve ritardo.
+	 * 
+	 * @return Le bacheche personalizzate
+	 */
+	public synchronized RecommendationFeed getRecommendationFeed() {
+		if (this.recommendationFeed == null) {
+			this.recommendationFeed = new RecommendationFeed();
+			// Registro la bacheca prima di tracciare gli eventi, per non perdere le modifiche concorrenti
+			// (gli eventi rimossi nel frattempo sono già ritirati, e non vengono tracciati)
+			this.eventBus.addAsyncListener(DomainEvent.class, this.recommendationFeed);
+			for (Event e : this.events) {
+				this.recommendationFeed.track(e);
+			}
+		}
+		return this.recommendationFeed;
+	}
+	
+	/**
+	 * Restituisce il modello di lettura della bacheca (vedi {@link BoardReadModel}), con le liste di eventi
+	 * per stato e le iscrizioni e proposte di ciascun utente.<br>
+	 * Il modello viene creato alla prima richiesta e da quel momento viene mantenuto aggiornato
+	 * ad ogni aggiunta o rimozione di eventi, e ad ogni modifica degli eventi stessi.
+	 * 
+	 * @return Il modello di lettura della bacheca
+	 */
+	public synchronized BoardReadModel getReadModel() {
+		if (this.readModel == null) {
+			this.readModel = new BoardReadModel();
+			// Registro il modello prima di tracciare gli eventi, per non perdere le modifiche concorrenti
+			// (gli eventi rimossi nel frattempo sono già ritirati, e non vengono tracciati)
+			this.eventBus.addListener(DomainEvent.class, this.readModel);
+			for (Event e : this.events) {
+				this.readModel.track(e);
+			}
+		}
+		return this.readModel;
+	}
+	
+	/**
+	 * Restituisce il controllo di ammissione attraverso cui passano le iscrizioni agli eventi in bacheca
+	 * (vedi {@link AdmissionController}), con i limiti di default.<br>
+	 * Il controllo viene creato alla prima richiesta; i limiti di richieste non vengono salvati su disco.
+	 * 
+	 * @return Il controllo di ammissione delle iscrizioni
+	 */
+	public synchronized AdmissionController getAdmissionController() {
+		if (this.admissionController == null) {
+			this.admissionController = new AdmissionController();
+		}
+		return this.admissionController;
+	}
+	
+	/**
+	 * Restituisce l'indice ordinato degli eventi in bacheca secondo un campo di tipo data.<br>
+	 * L'indice viene creato alla prima richiesta e da quel momento viene mantenuto aggiornato
+	 * ad ogni aggiunta o rimozione di eventi.
+	 * 
+	 * Precondizione: il campo deve essere uno fra DATA_E_ORA, TERMINE_ULTIMO_DI_ISCRIZIONE
+	 * e TERMINE_ULTIMO_DI_RITIRO_ISCRIZIONE.
+	 * 
+	 * @param field Il campo di tipo data
+	 * @return L'indice ordinato sul campo
+	 */
+	public synchronized EventDateIndex getDateIndex(CommonField field) {
+		// Verifica della precondizione
+		if (!Arrays.asList(INDEXABLE_DATE_FIELDS).contains(field)) {
+			throw new IllegalArgumentException("Impossibile indicizzare il campo richiesto");
+		}
+		
+		if (this.dateIndexes == null) {
+			this.dateIndexes = new EnumMap<>(CommonField.class);
+			this.eventBus.addListener(EventPublished.class, published -> this.updateDateIndexes(published.getSource(), true));
+			this.eventBus.addListener(EventRemoved.class, removed -> this.updateDateIndexes(removed.getSource(), false));
+		}
+		EventDateIndex index = this.dateIndexes.get(field);
+		if (index == null) {
+			index = new EventDateIndex(field);
+			for (Event e : this.events) {
+				index.add(e);
+			}
+			this.dateIndexes.put(field, index);
+		}
+		return index;
+	}
+	
+	/**
+	 * Restituisce, in ordine cronologico, gli eventi che si svolgono nell'intervallo [from, to).
+	 * 
+	 * @param from L'inizio dell'intervallo, incluso
+	 * @param to La fine dell'intervallo, esclusa
+	 * @return Gli eventi che si svolgono nell'intervallo
+	 */
+	public List<Event> getEventsTakingPlaceBetween(Date from, Date to) {
+		return this.getDateIndex(CommonField.DATA_E_ORA).getEventsBetween(from, to);
+	}
+	
+	/**
+	 * Restituisce, in ordine cronologico di scadenza, gli eventi aperti il cui termine ultimo di iscrizione
+	 * cade nell'intervallo [from, to).
+	 * 
+	 * @param from L'inizio dell'intervallo, incluso
+	 * @param to La fine dell'intervallo, esclusa
+	 * @return Gli eventi aperti con iscrizioni in chiusura nell'intervallo
+	 */
+	public List<Event> getEventsClosingSubscriptionsBetween(Date from, Date to) {
+		List<Event> result = this.getDateIndex(CommonField.TERMINE_ULTIMO_DI_ISCRIZIONE).getEventsBetween(from, to);
+		result.removeIf(event -> !event.getState().equals(EventState.OPEN));
+		return result;
+	}
+	
+	/**
+	 * Aggiorna gli indici già costruiti a seguito della pubblicazione o della rimozione di un evento.
+	 * 
+	 * @param event L'evento
+	 * @param added "True" se l'evento è stato aggiunto, "false" se è stato rimosso
+	 */
+	private synchronized void updateDateIndexes(Event event, boolean added) {
+		if (this.dateIndexes == null) {
+			return;
+		}
+		for (EventDateIndex index : this.dateIndexes.values()) {
+			if (added) {
+				index.add(event);
+			} else {
+				index.remove(event);
+			}
+		}
+	}
+	
+	/**
+	 * Cerca, fra gli eventi in bacheca nello stato dato, quelli il cui titolo, luogo o note contengono
+	 * le parole del testo dato. I risultati sono ordinati per rilevanza (vedi {@link EventSearchIndex}).
+	 * 
+	 * @param text Il testo da cercare
+	 * @param stateName Il nome dello stato degli eventi cercati, o null per cercare in tutti gli stati
+	 * @param limit Il numero massimo di risultati
+	 * @return Gli eventi trovati, ordinati per rilevanza
+	 */
+	public List<Event> searchEvents(String text, String stateName, int limit) {
+		return this.getSearchIndex().search(
+				text,
+				(stateName == null) ? null : event -> event.getState().equals(stateName),
+				limit);
+	}
+	
+	/**
+	 * Restituisce l'indice per la ricerca testuale, creandolo alla prima richiesta.
+	 * 
+	 * @return L'indice per la ricerca testuale
+	 */
+	private synchronized EventSearchIndex getSearchIndex() {
+		if (this.searchIndex == null) {
+			// Registro i listener prima del caricamento iniziale, in modo da non perdere pubblicazioni e rimozioni
+			// concorrenti: vengono applicate al termine del caricamento, e l'aggiunta di un evento già indicizzato
+			// non ha alcun effetto
+			this.searchIndex = new EventSearchIndex();
+			this.eventBus.addListener(EventPublished.class, published -> this.updateSearchIndex(published.getSource(), true));
+			this.eventBus.addListener(EventRemoved.class, removed -> this.updateSearchIndex(removed.getSource(), false));
+			for (Event e : this.events) {
+				this.searchIndex.add(e);
+			}
+		}
+		return this.searchIndex;
+	}
+	
+	/**
+	 * Aggiorna l'indice per la ricerca testuale a seguito della pubblicazione o della rimozione di un evento.
+	 * 
+	 * @param event L'evento
+	 * @param added "True" se l'evento è stato aggiunto, "false" se è stato rimosso
+	 */
+	private synchronized void updateSearchIndex(Event event, boolean added) {
+		if (this.searchIndex == null) {
+			return;
+		}
+		if (added) {
+			this.searchIndex.add(event);
+		} else {
+			this.searchIndex.remove(event);
+		}
+	}
+	
 	/**
 	 * Reimposta lo stato degli eventi contenuti nell bacheca. Tale metodo deve essere chiamato dopo aver caricato
 	 * la event board da disco in modo che gli eventi in essa contenuti siano posti in uno stato consistente con quello
-	 * che avevano precedentemente al salvataggio persistente
+	 * che avevano precedentemente al salvataggio persistente.<br>
+	 * Le scadenze trascorse nel frattempo vengono applicate in ordine cronologico, in un'unica passata e con
+	 * notifiche riassuntive (vedi {@link DeadlineRecovery}); quelle future vengono pianificate normalmente.
+	 * 
+	 * @return Il numero di scadenze trascorse elaborate
 	 */
-	public void resetEventStates() {
+	public int resetEventStates() {
 		
+		return DeadlineRecovery.recover(this.events);
+	}
+	
+	/**
+	 * Chiude il bus dei fatti di dominio della bacheca, arrestandone il thread di consegna ai listener asincroni
+	 * (vedi {@link DomainEventBus#close()}). Deve essere chiamato quando la bacheca non è più utilizzata,
+	 * in modo che né il thread né la bacheca restino in memoria.
+	 */
+	public void close() {
+		this.eventBus.close();
+	}
+	
+	/**
+	 * Metodo di deserializzazione: garantisce che la lista di eventi sia "copy-on-write"
+	 * anche se caricata da un database salvato con una versione precedente, e ricollega
+	 * gli eventi ad un nuovo bus dei fatti di dominio.
+	 * 
+	 * @param in Lo stream di lettura
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if (!(this.events instanceof CopyOnWriteArrayList)) {
+			this.events = new CopyOnWriteArrayList<>(this.events);
+		}
+		this.eventBus = new DomainEventBus();
+		this.notificationDigester = new NotificationDigester();
 		for (Event e : this.events) {
-			e.resetState();
+			e.setEventBus(this.eventBus);
+			e.setNotificationDigester(this.notificationDigester);
 		}
 	}
 	
@@ -0,0 +1,176 @@
+package it.unibs.ingesw.dpn.model.events;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fieldvalues.DateFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.FieldValue;
+
+/**
+ * Indice ordinato degli eventi secondo il valore di un campo di tipo data
+ * (ad esempio {@link CommonField#DATA_E_ORA} o i termini ultimi di iscrizione e di ritiro).<br>
+ * Permette di rispondere ad interrogazioni su finestre temporali ("eventi dei prossimi 7 giorni",
+ * "iscrizioni in chiusura") mediante una scansione dell'intervallo richiesto, senza ordinare l'intera bacheca.<br>
+ * <br>
+ * Gli eventi il cui campo non ha valore non vengono indicizzati.<br>
+ * Nota: i campi di un evento non vengono modificati dopo la pubblicazione, per cui è sufficiente aggiornare
+ * l'indice all'aggiunta e alla rimozione degli eventi dalla bacheca.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class EventDateIndex {
+	
+	private final CommonField field;
+	
+	/** Eventi indicizzati per istante (in millisecondi), nell'ordine di inserimento in caso di parità */
+	private final NavigableMap<Long, Set<Event>> index;
+	
+	/**
+	 * Crea un indice vuoto sul campo dato.
+	 * 
+	 * Precondizione: il campo deve contenere valori di tipo {@link DateFieldValue}.
+	 * 
+	 * @param field Il campo di tipo data da indicizzare
+	 */
+	public EventDateIndex(CommonField field) {
+		// Verifica della precondizione
+		if (field == null || field.getType() != DateFieldValue.class) {
+			throw new IllegalArgumentException("Impossibile indicizzare un campo che non contiene date");
+		}
+		
+		this.field = field;
+		this.index = new TreeMap<>();
+	}
+	
+	/**
+	 * Restituisce il campo indicizzato.
+	 * 
+	 * @return Il campo indicizzato
+	 */
+	public CommonField getField() {
+		return this.field;
+	}
+	
+	/**
+	 * Aggiunge un evento all'indice, se il campo indicizzato ha un valore.
+	 * 
+	 * @param event L'evento da aggiungere
+	 */
+	public synchronized void add(Event event) {
+		Long key = this.keyOf(event);
+		if (key != null) {
+			this.index.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(event);
+		}
+	}
+	
+	/**
+	 * Rimuove un evento dall'indice.
+	 * 
+	 * @param event L'evento da rimuovere
+	 */
+	public synchronized void remove(Event event) {
+		Long key = this.keyOf(event);
+		if (key != null) {
+			Set<Event> sameInstant = this.index.get(key);
+			if (sameInstant != null) {
+				sameInstant.remove(event);
+				if (sameInstant.isEmpty()) {
+					this.index.remove(key);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Restituisce, in ordine cronologico, gli eventi il cui campo cade nell'intervallo [from, to).
+	 * 
+	 * Precondizione: from e to non nulli, from non successivo a to
+	 * 
+	 * @param from L'inizio dell'intervallo, incluso
+	 * @param to La fine dell'intervallo, esclusa
+	 * @return Gli eventi nell'intervallo
+	 */
+	public synchronized List<Event> getEventsBetween(Date from, Date to) {
+		// Verifica delle precondizioni
+		if (from == null || to == null || from.after(to)) {
+			throw new IllegalArgumentException("Intervallo temporale non valido");
+		}
+		
+		return flatten(this.index.subMap(from.getTime(), true, to.getTime(), false), Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Restituisce, in ordine cronologico, al più "limit" eventi il cui campo è uguale o successivo all'istante dato.<br>
+	 * Utile per scorrere gli eventi in ordine cronologico una pagina alla volta.
+	 * 
+	 * Precondizione: from non nullo, limit non negativo
+	 * 
+	 * @param from L'istante di partenza, incluso
+	 * @param limit Il numero massimo di eventi
+	 * @return Gli eventi successivi all'istante dato
+	 */
+	public synchronized List<Event> getEventsFrom(Date from, int limit) {
+		// Verifica delle precondizioni
+		if (from == null || limit < 0) {
+			throw new IllegalArgumentException("Parametri di ricerca non validi");
+		}
+		
+		return flatten(this.index.tailMap(from.getTime(), true), limit);
+	}
+	
+	/**
+	 * Restituisce il numero di eventi indicizzati.
+	 * 
+	 * @return Il numero di eventi indicizzati
+	 */
+	public synchronized int size() {
+		int size = 0;
+		for (Set<Event> sameInstant : this.index.values()) {
+			size += sameInstant.size();
+		}
+		return size;
+	}
+	
+	/**
+	 * Restituisce la chiave dell'evento nell'indice, o null se il campo non ha valore.
+	 * 
+	 * @param event L'evento
+	 * @return L'istante in millisecondi, oppure null
+	 */
+	private Long keyOf(Event event) {
+		FieldValue value = event.getFieldValue(this.field);
+		if (value == null || ((DateFieldValue) value).getValue() == null) {
+			return null;
+		}
+		return ((DateFieldValue) value).getValue().getTime();
+	}
+	
+	/**
+	 * Appiattisce una porzione dell'indice in una lista di al più "limit" eventi.
+	 * 
+	 * @param range La porzione dell'indice
+	 * @param limit Il numero massimo di eventi
+	 * @return La lista degli eventi
+	 */
+	private static List<Event> flatten(Map<Long, Set<Event>> range, int limit) {
+		List<Event> result = new ArrayList<>();
+		for (Set<Event> sameInstant : range.values()) {
+			for (Event e : sameInstant) {
+				if (result.size() >= limit) {
+					return result;
+				}
+				result.add(e);
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,116 @@
+package it.unibs.ingesw.dpn.model.events;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Memoria delle descrizioni testuali di un evento (vedi {@link Event#toString()} e {@link Event#toString(User)}).<br>
+ * La descrizione comune e le sezioni dedicate a ciascun utente vengono prodotte alla prima richiesta e
+ * riutilizzate fino alla successiva invalidazione, che l'evento richiede ad ogni modifica dei valori dei
+ * campi o dello stato.<br>
+ * <br>
+ * Le descrizioni memorizzate sono associate alla versione del contenuto per cui sono state prodotte:
+ * l'invalidazione si limita ad incrementare la versione, senza acquisire alcun lock, e una descrizione
+ * prodotta mentre l'evento veniva modificato non viene mai restituita dopo la modifica.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+class EventDescriptionCache {
+
+	/**
+	 * Descrizioni prodotte per una specifica versione del contenuto dell'evento.
+	 */
+	private static class Descriptions {
+
+		private final long version;
+		private volatile String description;
+		private final Map<User, String> userSections;
+
+		private Descriptions(long version) {
+			this.version = version;
+			this.description = null;
+			this.userSections = new ConcurrentHashMap<>();
+		}
+
+	}
+
+	/** Versione del contenuto, incrementata ad ogni invalidazione */
+	private final AtomicLong version;
+
+	private volatile Descriptions current;
+
+	/**
+	 * Crea una memoria vuota.
+	 */
+	EventDescriptionCache() {
+		this.version = new AtomicLong();
+		this.current = null;
+	}
+
+	/**
+	 * Invalida tutte le descrizioni memorizzate, che verranno prodotte nuovamente alla prossima richiesta.
+	 */
+	void invalidate() {
+		this.version.incrementAndGet();
+	}
+
+	/**
+	 * Restituisce la versione attuale del contenuto.
+	 *
+	 * @return La versione attuale del contenuto
+	 */
+	long getVersion() {
+		return this.version.get();
+	}
+
+	/**
+	 * Restituisce la descrizione comune dell'evento, producendola se non è valida per la versione attuale.
+	 *
+	 * @param renderer Il processo di produzione della descrizione
+	 * @return La descrizione comune dell'evento
+	 */
+	String getDescription(Supplier<String> renderer) {
+		Descriptions descriptions = this.currentDescriptions();
+		String description = descriptions.description;
+		if (description == null) {
+			description = renderer.get();
+			descriptions.description = description;
+		}
+		return description;
+	}
+
+	/**
+	 * Restituisce la sezione della descrizione dedicata all'utente dato, producendola se non è
+	 * valida per la versione attuale.
+	 *
+	 * Precondizione: user != null
+	 *
+	 * @param user L'utente a cui è dedicata la sezione
+	 * @param renderer Il processo di produzione della sezione
+	 * @return La sezione della descrizione dedicata all'utente
+	 */
+	String getUserSection(User user, Function<User, String> renderer) {
+		return this.currentDescriptions().userSections.computeIfAbsent(user, renderer);
+	}
+
+	/**
+	 * Restituisce le descrizioni associate alla versione attuale del contenuto, sostituendo quelle
+	 * memorizzate se prodotte per una versione precedente.
+	 */
+	private Descriptions currentDescriptions() {
+		long currentVersion = this.version.get();
+		Descriptions descriptions = this.current;
+		if (descriptions == null || descriptions.version != currentVersion) {
+			descriptions = new Descriptions(currentVersion);
+			this.current = descriptions;
+		}
+		return descriptions;
+	}
+
+}
@@ -1,12 +1,14 @@
 package it.unibs.ingesw.dpn.model.events;
 
 import java.io.Serializable;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedList;
 
+import it.unibs.ingesw.dpn.model.time.Clocks;
+import it.unibs.ingesw.dpn.model.time.TimestampFormat;
+
 /**
  * Classe che si occupa di memorizzare la storia di un evento.
  * Al suo interno contiene una struttura LIFO (implementata tramite una Deque) 
@@ -39,9 +41,6 @@ public class EventHistory implements Serializable {
 		private static final long serialVersionUID = -6309804809014983435L;
 		
 		private static final String NULL_MESSAGE_EXCEPTION = "Impossibile creare un Log con un messaggio null";
-		private static final String LOG_FORMAT = " | %s - %s";
-
-		private static final String DATE_FORMAT_STRING = "EEE dd/MM/yyyy, HH:mm:ss";
 		
 		private String message;
 		private Date timestamp;
@@ -50,13 +49,14 @@ public class EventHistory implements Serializable {
 		 * Costruttore.
 		 * 
 		 * @param message Il messaggio da associare al log
+		 * @param timestamp L'istante del log
 		 */
-		public Log(String message) {
+		public Log(String message, Date timestamp) {
 			if (message == null) {
 				throw new IllegalArgumentException(NULL_MESSAGE_EXCEPTION);
 			} else {
 				this.message = message;
-				this.timestamp = new Date();
+				this.timestamp = timestamp;
 			}
 		}
 
@@ -84,7 +84,20 @@ public class EventHistory implements Serializable {
 		 * @return la stringa descrittiva del log
 		 */
 		public String toString() {
-			return String.format(LOG_FORMAT, (new SimpleDateFormat(DATE_FORMAT_STRING)).format(timestamp), this.getMessage());
+			return this.appendTo(new StringBuilder()).toString();
+		}
+		
+		/**
+		 * Aggiunge la stringa descrittiva del log in coda al buffer dato.
+		 * 
+		 * @param buffer Il buffer a cui aggiungere la descrizione
+		 * @return Il buffer dato
+		 */
+		private StringBuilder appendTo(StringBuilder buffer) {
+			// Formato: " | <data> - <messaggio>"
+			buffer.append(" | ");
+			TimestampFormat.HISTORY_DATE_TIME.formatTo(this.timestamp, buffer);
+			return buffer.append(" - ").append(this.message);
 		}
 	}
 	
@@ -112,10 +125,20 @@ public class EventHistory implements Serializable {
 	 * @param message Il messaggio dell'aggiornamento
 	 */
 	public void addLog(String message) {
-		if (message == null) {
+		this.addLog(message, Clocks.current().now());
+	}
+	
+	/**
+	 * Aggiunge un nuovo aggiornamento alla cronologia, avvenuto nell'istante dato.
+	 * 
+	 * @param message Il messaggio dell'aggiornamento
+	 * @param timestamp L'istante dell'aggiornamento
+	 */
+	void addLog(String message, Date timestamp) {
+		if (message == null || timestamp == null) {
 			throw new IllegalArgumentException();
 		} else {
-			this.chronology.addFirst(new Log(message));
+			this.chronology.addFirst(new Log(message, timestamp));
 		}
 	}
 	
@@ -209,10 +232,10 @@ public class EventHistory implements Serializable {
 	 * @return L'elenco completo di tutti gli avvenimenti dell'evento associato
 	 */
 	public String toString() {
-		StringBuffer s = new StringBuffer();
+		StringBuilder s = new StringBuilder();
 		Iterator<Log> iterator = this.chronology.descendingIterator();
 		while (iterator.hasNext()) {
-			s.append(iterator.next().toString() + "\n");
+			iterator.next().appendTo(s).append('\n');
 		}
 		return s.toString();
 	}
@@ -0,0 +1,228 @@
+package it.unibs.ingesw.dpn.model.events;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Interrogazione sugli eventi di una {@link EventBoard}.<br>
+ * Un oggetto EventQuery viene ottenuto mediante il metodo {@link EventBoard#query()} e permette di specificare
+ * filtri, criterio di ordinamento, numero di risultati da saltare e numero massimo di risultati.<br>
+ * La valutazione è "pigra": nessuna lista viene copiata finché non viene invocata un'operazione terminale
+ * (come {@link #forEach(Consumer)}, {@link #stream()} o {@link #toList()}), e tale operazione
+ * scorre un'istantanea immutabile della bacheca, non influenzata da modifiche concorrenti.<br>
+ * <br>
+ * Ogni metodo di configurazione restituisce un nuovo oggetto, lasciando invariato quello su cui è chiamato.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public final class EventQuery {
+	
+	private static final String NEGATIVE_VALUE_EXCEPTION = "Impossibile utilizzare un valore negativo";
+	
+	/** Sorgente degli eventi: la collezione interna della bacheca */
+	private final Collection<Event> source;
+	private final Predicate<Event> filter;
+	private final Comparator<Event> order;
+	private final long offset;
+	private final long limit;
+	private final boolean parallel;
+	
+	/**
+	 * Crea una nuova interrogazione senza filtri su una collezione di eventi.<br>
+	 * La collezione deve restituire istantanee immutabili tramite il suo metodo spliterator.
+	 * 
+	 * @param source La collezione di eventi
+	 */
+	EventQuery(Collection<Event> source) {
+		this(source, null, null, 0, Long.MAX_VALUE, false);
+	}
+	
+	private EventQuery(Collection<Event> source, Predicate<Event> filter, Comparator<Event> order, long offset, long limit, boolean parallel) {
+		this.source = source;
+		this.filter = filter;
+		this.order = order;
+		this.offset = offset;
+		this.limit = limit;
+		this.parallel = parallel;
+	}
+	
+	/**
+	 * Aggiunge un filtro all'interrogazione. I filtri si sommano in congiunzione.
+	 * 
+	 * Precondizione: predicate != null
+	 * 
+	 * @param predicate Il predicato che gli eventi devono soddisfare
+	 * @return La nuova interrogazione
+	 */
+	public EventQuery filter(Predicate<Event> predicate) {
+		// Verifica della precondizione
+		if (predicate == null) {
+			throw new IllegalArgumentException("Impossibile filtrare con un predicato nullo");
+		}
+		Predicate<Event> newFilter = (this.filter == null) ? predicate : this.filter.and(predicate);
+		return new EventQuery(this.source, newFilter, this.order, this.offset, this.limit, this.parallel);
+	}
+	
+	/**
+	 * Filtra gli eventi in un particolare stato.
+	 * 
+	 * @param stateName Il nome dello stato (vedi le costanti di {@link EventState})
+	 * @return La nuova interrogazione
+	 */
+	public EventQuery withState(String stateName) {
+		return this.filter(event -> event.getState().equals(stateName));
+	}
+	
+	/**
+	 * Filtra gli eventi creati da un particolare utente.
+	 * 
+	 * @param creator Il creatore
+	 * @return La nuova interrogazione
+	 */
+	public EventQuery withCreator(User creator) {
+		return this.filter(event -> event.getCreator() == creator);
+	}
+	
+	/**
+	 * Filtra gli eventi ai quali un particolare utente è iscritto.
+	 * 
+	 * @param subscriber L'utente iscritto
+	 * @return La nuova interrogazione
+	 */
+	public EventQuery withSubscriber(User subscriber) {
+		return this.filter(event -> event.hasSubscriber(subscriber));
+	}
+	
+	/**
+	 * Imposta il criterio di ordinamento dei risultati.
+	 * 
+	 * Precondizione: comparator != null
+	 * 
+	 * @param comparator Il criterio di ordinamento
+	 * @return La nuova interrogazione
+	 */
+	public EventQuery sortedBy(Comparator<Event> comparator) {
+		// Verifica della precondizione
+		if (comparator == null) {
+			throw new IllegalArgumentException("Impossibile ordinare con un criterio nullo");
+		}
+		return new EventQuery(this.source, this.filter, comparator, this.offset, this.limit, this.parallel);
+	}
+	
+	/**
+	 * Imposta il numero di risultati iniziali da saltare.
+	 * 
+	 * Precondizione: offset >= 0
+	 * 
+	 * @param offset Il numero di risultati da saltare
+	 * @return La nuova interrogazione
+	 */
+	public EventQuery skip(long offset) {
+		// Verifica della precondizione
+		if (offset < 0) {
+			throw new IllegalArgumentException(NEGATIVE_VALUE_EXCEPTION);
+		}
+		return new EventQuery(this.source, this.filter, this.order, offset, this.limit, this.parallel);
+	}
+	
+	/**
+	 * Imposta il numero massimo di risultati.
+	 * 
+	 * Precondizione: limit >= 0
+	 * 
+	 * @param limit Il numero massimo di risultati
+	 * @return La nuova interrogazione
+	 */
+	public EventQuery limit(long limit) {
+		// Verifica della precondizione
+		if (limit < 0) {
+			throw new IllegalArgumentException(NEGATIVE_VALUE_EXCEPTION);
+		}
+		return new EventQuery(this.source, this.filter, this.order, this.offset, limit, this.parallel);
+	}
+	
+	/**
+	 * Richiede che la scansione avvenga in parallelo, utile su bacheche molto grandi.<br>
+	 * Nota: l'ordine dei risultati è garantito solamente se è stato impostato un criterio di ordinamento.
+	 * 
+	 * @return La nuova interrogazione
+	 */
+	public EventQuery parallel() {
+		return new EventQuery(this.source, this.filter, this.order, this.offset, this.limit, true);
+	}
+	
+	/**
+	 * Restituisce lo {@link Spliterator} su un'istantanea immutabile degli eventi, senza alcun filtro applicato.
+	 * 
+	 * @return Lo spliterator sull'istantanea
+	 */
+	public Spliterator<Event> snapshot() {
+		return this.source.spliterator();
+	}
+	
+	/**
+	 * Restituisce lo stream dei risultati, valutato in maniera pigra.
+	 * 
+	 * @return Lo stream dei risultati
+	 */
+	public Stream<Event> stream() {
+		Stream<Event> stream = StreamSupport.stream(this.snapshot(), this.parallel);
+		if (this.filter != null) {
+			stream = stream.filter(this.filter);
+		}
+		if (this.order != null) {
+			stream = stream.sorted(this.order);
+		}
+		if (this.offset > 0) {
+			stream = stream.skip(this.offset);
+		}
+		if (this.limit < Long.MAX_VALUE) {
+			stream = stream.limit(this.limit);
+		}
+		return stream;
+	}
+	
+	/**
+	 * Esegue un'azione per ciascun risultato, senza copiare la lista degli eventi.
+	 * 
+	 * @param action L'azione da eseguire
+	 */
+	public void forEach(Consumer<? super Event> action) {
+		Stream<Event> stream = this.stream();
+		if (this.parallel && this.order != null) {
+			stream.forEachOrdered(action);
+		} else {
+			stream.forEach(action);
+		}
+	}
+	
+	/**
+	 * Restituisce il numero di risultati.
+	 * 
+	 * @return Il numero di risultati
+	 */
+	public long count() {
+		return this.stream().count();
+	}
+	
+	/**
+	 * Restituisce i risultati in una nuova lista modificabile.
+	 * 
+	 * @return La lista dei risultati
+	 */
+	public List<Event> toList() {
+		return this.stream().collect(Collectors.toCollection(ArrayList::new));
+	}
+
+}
@@ -0,0 +1,412 @@
+package it.unibs.ingesw.dpn.model.events;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fieldvalues.FieldValue;
+
+/**
+ * Indice invertito per la ricerca testuale sugli eventi.<br>
+ * Vengono indicizzati i campi testuali {@link CommonField#TITOLO}, {@link CommonField#LUOGO} 
+ * e {@link CommonField#NOTE}; il testo viene normalizzato rimuovendo accenti, maiuscole, punteggiatura 
+ * e le parole italiane più comuni ("di", "della", ...).<br>
+ * I risultati sono ordinati per rilevanza secondo la formula BM25.<br>
+ * <br>
+ * L'indice viene aggiornato all'aggiunta e alla rimozione degli eventi; lo stato degli eventi viene invece
+ * verificato al momento della ricerca, per cui i cambi di stato non richiedono alcun aggiornamento.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class EventSearchIndex {
+	
+	/** Campi indicizzati */
+	private static final CommonField [] INDEXED_FIELDS = {
+			CommonField.TITOLO,
+			CommonField.LUOGO,
+			CommonField.NOTE
+	};
+	
+	/** Parametri della formula BM25 */
+	private static final double K1 = 1.2;
+	private static final double B = 0.75;
+	
+	/** Parole troppo comuni per essere significative */
+	private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+			"il", "lo", "la", "i", "gli", "le", "l", "un", "uno", "una",
+			"di", "a", "da", "in", "con", "su", "per", "tra", "fra", "e", "o", "ed",
+			"del", "dello", "della", "dei", "degli", "delle", "dell",
+			"al", "allo", "alla", "ai", "agli", "alle", "all",
+			"dal", "dallo", "dalla", "dai", "dagli", "dalle", "dall",
+			"nel", "nello", "nella", "nei", "negli", "nelle", "nell",
+			"sul", "sullo", "sulla", "sui", "sugli", "sulle", "sull"));
+	
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+	private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+	
+	/** Sovradimensionamento della selezione dei candidati quando i risultati devono soddisfare un filtro */
+	private static final int FILTER_OVERFETCH = 4;
+	
+	/**
+	 * Lista di occorrenze di un termine: gli identificativi dei documenti che lo contengono e la relativa frequenza,
+	 * in array paralleli e senza un ordine particolare.
+	 */
+	private static class TermPostings {
+		
+		private int [] documents = new int[4];
+		private int [] frequencies = new int[4];
+		private int size = 0;
+		
+		void add(int document, int frequency) {
+			if (this.size == this.documents.length) {
+				this.documents = Arrays.copyOf(this.documents, this.size * 2);
+				this.frequencies = Arrays.copyOf(this.frequencies, this.size * 2);
+			}
+			this.documents[this.size] = document;
+			this.frequencies[this.size] = frequency;
+			this.size++;
+		}
+		
+		/**
+		 * Rimuove le occorrenze del documento dato, spostando al suo posto l'ultima occorrenza.
+		 */
+		void remove(int document) {
+			for (int i = 0; i < this.size; i++) {
+				if (this.documents[i] == document) {
+					this.size--;
+					this.documents[i] = this.documents[this.size];
+					this.frequencies[i] = this.frequencies[this.size];
+					return;
+				}
+			}
+		}
+		
+	}
+	
+	/** Documenti (eventi) indicizzati, per identificativo; gli identificativi liberati vengono riutilizzati */
+	private final List<Event> documents;
+	/** Identificativo di ciascun evento indicizzato */
+	private final IdentityHashMap<Event, Integer> documentIds;
+	/** Identificativi attualmente utilizzati */
+	private final BitSet usedIds;
+	/** Termini distinti di ciascun documento, utilizzati per la rimozione */
+	private final List<String []> documentTerms;
+	/** Numero di termini di ciascun documento */
+	private int [] documentLengths;
+	/** Numero progressivo di inserimento di ciascun documento, utilizzato a parità di punteggio */
+	private long [] insertionSequence;
+	/** Numero di inserimenti effettuati finora */
+	private long insertions;
+	/** Somma del numero di termini di tutti i documenti */
+	private long totalLength;
+	
+	/** Liste di occorrenze, per termine */
+	private final Map<String, TermPostings> postings;
+	
+	/** Punteggi dei documenti durante una ricerca, per identificativo; nulli al di fuori delle ricerche */
+	private double [] scores;
+	
+	/**
+	 * Crea un indice vuoto.
+	 */
+	public EventSearchIndex() {
+		this.documents = new ArrayList<>();
+		this.documentIds = new IdentityHashMap<>();
+		this.usedIds = new BitSet();
+		this.documentTerms = new ArrayList<>();
+		this.documentLengths = new int[16];
+		this.insertionSequence = new long[16];
+		this.insertions = 0;
+		this.totalLength = 0;
+		this.postings = new HashMap<>();
+		this.scores = new double[16];
+	}
+	
+	/**
+	 * Aggiunge un evento all'indice. Se l'evento è già presente, non viene effettuata alcuna operazione.
+	 * 
+	 * Precondizione: event != null
+	 * 
+	 * @param event L'evento da indicizzare
+	 */
+	public synchronized void add(Event event) {
+		// Verifica della precondizione
+		if (event == null) {
+			throw new IllegalArgumentException("Impossibile indicizzare un evento nullo");
+		}
+		if (this.documentIds.containsKey(event)) {
+			return;
+		}
+		
+		// Assegno un identificativo libero
+		int id = this.usedIds.nextClearBit(0);
+		this.usedIds.set(id);
+		this.documentIds.put(event, id);
+		if (id == this.documents.size()) {
+			this.documents.add(event);
+			this.documentTerms.add(null);
+			if (id == this.documentLengths.length) {
+				this.documentLengths = Arrays.copyOf(this.documentLengths, id * 2);
+				this.insertionSequence = Arrays.copyOf(this.insertionSequence, id * 2);
+				this.scores = new double[id * 2];
+			}
+		} else {
+			this.documents.set(id, event);
+		}
+		
+		// Conteggio dei termini
+		List<String> terms = tokenize(getIndexedText(event));
+		Map<String, Integer> frequencies = new HashMap<>();
+		for (String term : terms) {
+			frequencies.merge(term, 1, Integer::sum);
+		}
+		for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+			this.postings.computeIfAbsent(entry.getKey(), k -> new TermPostings()).add(id, entry.getValue());
+		}
+		this.documentTerms.set(id, frequencies.keySet().toArray(new String[0]));
+		this.documentLengths[id] = terms.size();
+		this.insertionSequence[id] = this.insertions++;
+		this.totalLength += terms.size();
+	}
+	
+	/**
+	 * Rimuove un evento dall'indice.
+	 * 
+	 * @param event L'evento da rimuovere
+	 */
+	public synchronized void remove(Event event) {
+		Integer id = this.documentIds.remove(event);
+		if (id == null) {
+			return;
+		}
+		
+		// Rimuovo i termini indicizzati, anche se nel frattempo il testo dell'evento è cambiato
+		for (String term : this.documentTerms.get(id)) {
+			TermPostings termPostings = this.postings.get(term);
+			if (termPostings != null) {
+				termPostings.remove(id);
+				if (termPostings.size == 0) {
+					this.postings.remove(term);
+				}
+			}
+		}
+		this.totalLength -= this.documentLengths[id];
+		this.documentLengths[id] = 0;
+		this.documentTerms.set(id, null);
+		this.documents.set(id, null);
+		this.usedIds.clear(id);
+	}
+	
+	/**
+	 * Restituisce il numero di eventi indicizzati.
+	 * 
+	 * @return Il numero di eventi indicizzati
+	 */
+	public synchronized int size() {
+		return this.documentIds.size();
+	}
+	
+	/**
+	 * Cerca gli eventi che contengono almeno uno dei termini del testo dato e che soddisfano il filtro,
+	 * restituendone al più "limit" in ordine decrescente di rilevanza; a parità di rilevanza, nell'ordine
+	 * in cui sono stati aggiunti all'indice.<br>
+	 * I migliori candidati vengono selezionati con un heap di dimensione limitata, senza ordinare tutti
+	 * i documenti trovati; in presenza di un filtro ne vengono selezionati di più, e la selezione viene
+	 * ampliata solo se i candidati che soddisfano il filtro non sono sufficienti.
+	 * 
+	 * Precondizione: text != null, limit >= 0
+	 * 
+	 * @param text Il testo da cercare
+	 * @param filter Il filtro da applicare ai risultati (ad esempio sullo stato), o null
+	 * @param limit Il numero massimo di risultati
+	 * @return Gli eventi trovati, ordinati per rilevanza
+	 */
+	public synchronized List<Event> search(String text, Predicate<Event> filter, int limit) {
+		// Verifica delle precondizioni
+		if (text == null || limit < 0) {
+			throw new IllegalArgumentException("Parametri di ricerca non validi");
+		}
+		
+		int documentCount = this.documentIds.size();
+		List<Event> result = new ArrayList<>();
+		if (documentCount == 0 || limit == 0) {
+			return result;
+		}
+		double averageLength = Math.max(1.0, ((double) this.totalLength) / documentCount);
+		
+		// Calcolo il punteggio BM25 di ciascun documento che contiene almeno un termine
+		int [] matches = new int[16];
+		int matchCount = 0;
+		for (String term : new LinkedHashSet<>(tokenize(text))) {
+			TermPostings termPostings = this.postings.get(term);
+			if (termPostings == null) {
+				continue;
+			}
+			double df = termPostings.size;
+			double idf = Math.log(1.0 + (documentCount - df + 0.5) / (df + 0.5));
+			for (int i = 0; i < termPostings.size; i++) {
+				int id = termPostings.documents[i];
+				double tf = termPostings.frequencies[i];
+				double length = this.documentLengths[id];
+				double score = idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * length / averageLength));
+				if (this.scores[id] == 0) {
+					// Primo termine trovato nel documento (i punteggi BM25 sono sempre positivi)
+					if (matchCount == matches.length) {
+						matches = Arrays.copyOf(matches, matchCount * 2);
+					}
+					matches[matchCount++] = id;
+				}
+				this.scores[id] += score;
+			}
+		}
+		
+		try {
+			int candidates = (filter == null) ? limit : (int) Math.min((long) limit * FILTER_OVERFETCH, matchCount);
+			while (true) {
+				int [] ranking = this.selectTop(matches, matchCount, Math.min(candidates, matchCount));
+				result.clear();
+				for (int i = 0; i < ranking.length && result.size() < limit; i++) {
+					Event event = this.documents.get(ranking[i]);
+					if (filter == null || filter.test(event)) {
+						result.add(event);
+					}
+				}
+				if (result.size() >= limit || ranking.length == matchCount) {
+					return result;
+				}
+				// Troppi candidati scartati dal filtro: amplio la selezione
+				candidates = (int) Math.min((long) candidates * FILTER_OVERFETCH, matchCount);
+			}
+		}
+		finally {
+			// Azzero i punteggi per la ricerca successiva
+			for (int i = 0; i < matchCount; i++) {
+				this.scores[matches[i]] = 0;
+			}
+		}
+	}
+	
+	/**
+	 * Seleziona, fra i documenti dati, i "k" con punteggio più alto mediante un heap di dimensione k,
+	 * e li restituisce in ordine decrescente di punteggio e, a parità, in ordine di inserimento.
+	 */
+	private int [] selectTop(int [] matches, int matchCount, int k) {
+		// Heap il cui primo elemento è il peggiore fra i migliori k trovati finora
+		int [] heap = new int[k];
+		int size = 0;
+		for (int i = 0; i < matchCount; i++) {
+			int id = matches[i];
+			if (size < k) {
+				heap[size] = id;
+				this.siftUp(heap, size++);
+			} else if (k > 0 && this.ranksBefore(id, heap[0])) {
+				heap[0] = id;
+				this.siftDown(heap, size, 0);
+			}
+		}
+		
+		// Estraggo i documenti dal peggiore al migliore, riempiendo il risultato dal fondo
+		int [] ranking = new int[size];
+		for (int i = size - 1; i >= 0; i--) {
+			ranking[i] = heap[0];
+			heap[0] = heap[i];
+			this.siftDown(heap, i, 0);
+		}
+		return ranking;
+	}
+	
+	/**
+	 * Indica se il primo documento precede il secondo nei risultati.
+	 */
+	private boolean ranksBefore(int a, int b) {
+		int byScore = Double.compare(this.scores[a], this.scores[b]);
+		return (byScore != 0) ? byScore > 0 : this.insertionSequence[a] < this.insertionSequence[b];
+	}
+	
+	private void siftUp(int [] heap, int position) {
+		int id = heap[position];
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			if (!this.ranksBefore(heap[parent], id)) {
+				break;
+			}
+			heap[position] = heap[parent];
+			position = parent;
+		}
+		heap[position] = id;
+	}
+	
+	private void siftDown(int [] heap, int size, int position) {
+		int id = heap[position];
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && this.ranksBefore(heap[child], heap[child + 1])) {
+				child++;
+			}
+			if (!this.ranksBefore(id, heap[child])) {
+				break;
+			}
+			heap[position] = heap[child];
+			position = child;
+		}
+		heap[position] = id;
+	}
+	
+	/**
+	 * Suddivide un testo in termini normalizzati: minuscoli, privi di accenti e di parole comuni.
+	 * 
+	 * @param text Il testo
+	 * @return La lista dei termini, nell'ordine in cui compaiono
+	 */
+	static List<String> tokenize(String text) {
+		List<String> terms = new ArrayList<>();
+		if (text == null) {
+			return terms;
+		}
+		String normalized = DIACRITICS
+				.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+				.replaceAll("")
+				.toLowerCase(Locale.ITALIAN);
+		for (String token : SEPARATORS.split(normalized)) {
+			if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+				terms.add(token);
+			}
+		}
+		return terms;
+	}
+	
+	/**
+	 * Restituisce il testo indicizzabile di un evento, unendo i valori dei campi indicizzati.
+	 * 
+	 * @param event L'evento
+	 * @return Il testo indicizzabile
+	 */
+	private static String getIndexedText(Event event) {
+		StringBuilder text = new StringBuilder();
+		for (CommonField field : INDEXED_FIELDS) {
+			FieldValue value = event.getFieldValue(field);
+			if (value != null) {
+				text.append(value.toString());
+				text.append(' ');
+			}
+		}
+		return text.toString();
+	}
+
+}
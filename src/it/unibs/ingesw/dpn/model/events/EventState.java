@@ -1,8 +1,9 @@
 package it.unibs.ingesw.dpn.model.events;
 
 import java.util.Date;
-import java.util.Timer;
-import java.util.TimerTask;
+
+import it.unibs.ingesw.dpn.model.time.Clocks;
+import it.unibs.ingesw.dpn.model.time.ScheduledTask;
 
 /**
  * Interfaccia che implementa il pattern "State" per la classe context {@link Event}.
@@ -158,14 +159,17 @@ public interface EventState {
 	}
 
 	/**
-	 * Metodo di utilita' utilizzato per avviare il timer di cambio stato di un evento
+	 * Metodo di utilita' utilizzato per pianificare il cambio stato di un evento sull'orologio dell'evento,
+	 * che di norma è l'orologio attivo (vedi {@link Clocks#current()}).<br>
+	 * Il cambio di stato viene effettuato solo se, alla scadenza, l'evento si trova ancora nello stato
+	 * in cui si trovava al momento della pianificazione.
 	 * 
 	 * @param event L'evento di riferimento
-	 * @param newState Il nome del nuovo stato, come restituito da {@link EventState.getStateName()}
-	 * @param timer Il timer da avviare
-	 * @param timeout Il timeout da impostare al timer
+	 * @param state Il nome del nuovo stato, come restituito da {@link EventState#getStateName()}
+	 * @param timeout L'istante del cambio di stato
+	 * @return Il riferimento al cambio di stato pianificato
 	 */
-	static void scheduleStateChange(Event event, String state, Timer timer, Date timeout) {
+	static ScheduledTask scheduleStateChange(Event event, String state, Date timeout) {
 		
 		EventState newState;
 		
@@ -205,14 +209,14 @@ public interface EventState {
 			
 		}
 		
-		timer.schedule(new TimerTask() {
-			
-			@Override
-			public void run() {
-				event.setState(newState);
-			};
-			
-		}, timeout);
+		String currentState = event.getState();
+		return event.getClock().schedule(timeout, () -> {
+			synchronized (event) {
+				if (currentState.equals(event.getState())) {
+					event.setState(newState);
+				}
+			}
+		});
 	}
 	
 
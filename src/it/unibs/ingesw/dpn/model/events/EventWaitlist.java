@@ -0,0 +1,146 @@
+package it.unibs.ingesw.dpn.model.events;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Lista d'attesa di un evento: coda degli utenti che attendono che si liberi un posto,
+ * in ordine di iscrizione alla lista.<br>
+ * <br>
+ * La coda è una mappa ordinata concorrente (una skip list) indicizzata da un numero progressivo,
+ * affiancata da un indice per utente: l'aggiunta, la rimozione di un utente qualsiasi e l'estrazione del
+ * primo utente richiedono un tempo O(log n), e la verifica della presenza di un utente un tempo costante.<br>
+ * Ciascun elemento della coda viene rimosso da un'unica operazione fra {@link #remove(User)} e {@link #poll()}:
+ * un utente che lascia la lista mentre viene promosso non viene quindi né promosso due volte né perso.
+ * L'aggiunta e la rimozione di un utente sono mutuamente esclusive, in modo che una rimozione non possa
+ * trovare l'utente nell'indice prima che sia stato inserito nella coda; l'estrazione e le letture non
+ * acquisiscono alcun lock.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+class EventWaitlist implements Serializable {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = -6134120574960921837L;
+
+	private final ConcurrentSkipListMap<Long, User> queue;
+	private final Map<User, Long> positions;
+	private final AtomicLong nextSequence;
+	private final AtomicInteger size;
+
+	/**
+	 * Crea una lista d'attesa vuota.
+	 */
+	EventWaitlist() {
+		this.queue = new ConcurrentSkipListMap<>();
+		this.positions = new ConcurrentHashMap<>();
+		this.nextSequence = new AtomicLong();
+		this.size = new AtomicInteger();
+	}
+
+	/**
+	 * Aggiunge un utente in coda alla lista, se non è già presente.
+	 *
+	 * Precondizione: user != null
+	 *
+	 * @param user L'utente da aggiungere
+	 * @return "true" se l'utente è stato aggiunto, "false" se era già presente
+	 */
+	synchronized boolean add(User user) {
+		// Verifica della precondizione
+		if (user == null) {
+			throw new IllegalArgumentException("Impossibile aggiungere un utente nullo alla lista d'attesa");
+		}
+
+		long sequence = this.nextSequence.getAndIncrement();
+		if (this.positions.putIfAbsent(user, sequence) != null) {
+			return false;
+		}
+		this.queue.put(sequence, user);
+		this.size.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * Rimuove un utente dalla lista.
+	 *
+	 * @param user L'utente da rimuovere
+	 * @return "true" se l'utente è stato rimosso, "false" se non era presente (o è stato appena estratto)
+	 */
+	synchronized boolean remove(User user) {
+		if (user == null) {
+			return false;
+		}
+		Long sequence = this.positions.get(user);
+		// Solo l'operazione che rimuove l'elemento dalla coda lo rimuove anche dall'indice
+		if (sequence == null || !this.queue.remove(sequence, user)) {
+			return false;
+		}
+		this.positions.remove(user, sequence);
+		this.size.decrementAndGet();
+		return true;
+	}
+
+	/**
+	 * Estrae il primo utente della lista.
+	 *
+	 * @return Il primo utente, o null se la lista è vuota
+	 */
+	User poll() {
+		Map.Entry<Long, User> first = this.queue.pollFirstEntry();
+		if (first == null) {
+			return null;
+		}
+		this.positions.remove(first.getValue(), first.getKey());
+		this.size.decrementAndGet();
+		return first.getValue();
+	}
+
+	/**
+	 * Svuota la lista.
+	 *
+	 * @return Gli utenti che erano presenti nella lista, in ordine
+	 */
+	List<User> clear() {
+		List<User> removed = new ArrayList<>();
+		User user;
+		while ((user = this.poll()) != null) {
+			removed.add(user);
+		}
+		return removed;
+	}
+
+	/**
+	 * @param user L'utente
+	 * @return "true" se l'utente è presente nella lista
+	 */
+	boolean contains(User user) {
+		return user != null && this.positions.containsKey(user);
+	}
+
+	/**
+	 * @return Il numero di utenti in lista
+	 */
+	int size() {
+		return this.size.get();
+	}
+
+	/**
+	 * @return Gli utenti presenti nella lista, in ordine
+	 */
+	List<User> getUsers() {
+		return new ArrayList<>(this.queue.values());
+	}
+
+}
@@ -1,5 +1,7 @@
 package it.unibs.ingesw.dpn.model.events;
 
+import it.unibs.ingesw.dpn.model.bus.DomainEventListener;
+import it.unibs.ingesw.dpn.model.bus.EventPublished;
 import it.unibs.ingesw.dpn.model.users.Notification;
 import it.unibs.ingesw.dpn.model.users.User;
 import it.unibs.ingesw.dpn.model.users.UsersRepository;
@@ -8,30 +10,45 @@ import it.unibs.ingesw.dpn.model.users.UsersRepository;
  * Classe adibita all'invio di notifiche relative alla creazione di un nuovo evento rientrante nelle
  * categorie di interesse dei destinatari. Questa classe e' stata creata sulla base del pattern GRASP
  * Pure Fabrication, al fine di migliorare la coesione della classe Inviter, che precedentemente si occupava
- * di cio', oltre che dei suoi altri compiti. 
+ * di cio', oltre che dei suoi altri compiti.<br>
+ * E' un listener del bus della bacheca: reagisce ad ogni fatto {@link EventPublished}, ad eccezione di
+ * quelli dei caricamenti massivi, che non sono novità per gli utenti.
  * 
  * @author Lorenzo Nodari
  *
  */
-public class NewEventNotifier {
+public class NewEventNotifier implements DomainEventListener<EventPublished> {
 	
-	private Event target;
 	private UsersRepository users;
 	
-	public NewEventNotifier(Event target, UsersRepository users) {
+	public NewEventNotifier(UsersRepository users) {
 		
-		this.target = target;
 		this.users = users;
 		
 	}
 	
+	@Override
+	public void handle(EventPublished published) {
+		
+		if (!published.isBulkLoad()) {
+			this.sendNotifications(published.getSource());
+		}
+		
+	}
+	
 	/**
-	 * Metodo che invia  notifiche agli utenti che hanno selezionato la categoria dell'evento come categoria di interesse
+	 * Metodo che invia  notifiche agli utenti che hanno selezionato la categoria dell'evento come categoria di interesse.
+	 * Le notifiche vengono inviate attraverso l'evento, in modo da essere raggruppate secondo le impostazioni
+	 * della bacheca (vedi {@link EventBoard#getNotificationDigester()}).
+	 * 
+	 * @param target L'evento appena pubblicato
 	 */
-	public void sendNotifications() {
+	private void sendNotifications(Event target) {
 		
 		StringBuffer notificationContent = new StringBuffer("Un evento appartenente ad una tua categoria di interesse è appena stato creato: ");
 		notificationContent.append(target.getTitle());
+		// Un'unica notifica condivisa da tutti i destinatari
+		Notification payload = new Notification(notificationContent.toString());
 		
 		for(User u : users.getUserByCategoryOfInterest(target.getCategory())) {
 			
@@ -39,7 +56,7 @@ public class NewEventNotifier {
 				continue;
 			}
 			
-			u.receive(new Notification(notificationContent.toString()));
+			target.send(u, payload);
 		}
 		
 	}
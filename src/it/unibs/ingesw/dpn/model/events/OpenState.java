@@ -2,13 +2,12 @@ package it.unibs.ingesw.dpn.model.events;
 
 import java.io.Serializable;
 import java.util.Date;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 
 import it.unibs.ingesw.dpn.model.fields.CommonField;
 import it.unibs.ingesw.dpn.model.fieldvalues.IntegerFieldValue;
 import it.unibs.ingesw.dpn.model.fieldvalues.DateFieldValue;
+import it.unibs.ingesw.dpn.model.time.ScheduledTask;
 
 /**
  * Classe che modellizza il comportamento di un evento {@link Event} nello stato OPEN.
@@ -23,22 +22,17 @@ public class OpenState implements EventState, Serializable {
 	 */
 	private static final long serialVersionUID = 8082128824977480600L;
 	
-	/** Numero di iscritti attuale */
-	private int currentSubscribers = 0;
+	/** Numero di iscritti attuale; volatile perché può essere letto senza il lock dell'evento (vedi {@link Event#acceptsSubscriptions()}) */
+	private volatile int currentSubscribers = 0;
 	/** Numero minimo di iscritti, pari al valore del campo "Numero di partecipanti" */
-	private int minSubscribers;
+	private volatile int minSubscribers;
 	/** Numero massimo di iscritti, pari alla somma dei valori dei campi "Numero di partecipanti" e "tolleranza" */
-	private int maxSubscribers;
-	/** Flag che considera quando è scaduto il primo timer "unsubscriptionTimeoutTimer" */
+	private volatile int maxSubscribers;
+	/** Flag che considera quando è scaduto il "Termine ultimo di ritiro iscrizione" */
 	private boolean acceptUnsubscription = true;
 	
-	private transient Timer unsubscriptionTimeoutTimer;
-	private transient Timer subscriptionTimeoutTimer;
-	
-	private transient Semaphore timerSemaphore;
-
-	private static final String UNSUBS_TIMER_NAME = "unsubscriptionTimeoutTimer_";
-	private static final String SUBS_TIMER_NAME = "subscriptionTimeoutTimer_";
+	/** Scadenza attualmente pianificata sull'orologio dell'evento */
+	private transient ScheduledTask pendingTimeout;
 
 	@Override
 	public String getStateName() {
@@ -46,7 +40,7 @@ public class OpenState implements EventState, Serializable {
 	}
 	
 	/**
-	 * All'entrata nel nuovo stato, vengono schedulati i due timer.
+	 * All'entrata nel nuovo stato, viene pianificata la scadenza del "Termine ultimo di ritiro iscrizione".
 	 * Inoltre, vengono impostati alcuni valori di parametri utilizzati in questo stato.
 	 * 
 	 * Precondizione: questo metodo deve essere chiamato prima degli altri metodi di questo stato,
@@ -107,7 +101,6 @@ public class OpenState implements EventState, Serializable {
 	/**
 	 * Alla sottoscrizione di un nuovo partecipante all'evento, viene incrementato il contatore dei parteicpanti.
 	 * Se il contatore raggiunge il numero previsto dall'evento, viene effettauto il passaggio da OPEN a CLOSED.
-	 * Inoltre, viene fermato il timer relativo al termine ultimo di iscrizione.
 	 * 
 	 * @param e L'evento a cui si fa riferimento
 	 */
@@ -156,13 +149,13 @@ public class OpenState implements EventState, Serializable {
 	
 	/**
 	 * Quando si verifica una disiscrizione in un evento OPEN, viene invocato questo metodo.
-	 * In caso non sia ancora scaduto il timer "unsubscriptionTimeoutTimer", viene decrementato il valore
+	 * In caso non sia ancora scaduto il "Termine ultimo di ritiro iscrizione", viene decrementato il valore
 	 * corrente di iscrizioni.
 	 * Non è possibile che tale valore assuma un valore negativo poiché nella classe {@link Event} viene effettuato
 	 * un controllo sull'utente che intende disiscriversi, e questo metodo viene chiamato solo se l'utente era
 	 * iscritto in precedenza. Non viene mai rimossa, perciò, alcuna iscrizione che non sia stata già effettuata correttamente.
 	 * 
-	 * In caso il timer "unsubscriptionTimeoutTimer" sia già scaduto, viene lanciata un'eccezione.
+	 * In caso il "Termine ultimo di ritiro iscrizione" sia già scaduto, viene lanciata un'eccezione.
 	 * 
 	 * @param e L'evento a cui si fa riferimento
 	 */
@@ -182,21 +175,12 @@ public class OpenState implements EventState, Serializable {
 	 * - verso FAILED se gli iscritti non sono sufficienti.
 	 * - verso CLOSED se gli iscritti hanno raggiunto il numero minimo.
 	 *
-	 * Nota: questo metodo è impostato per essere eseguito solo dopo la scadenza (e la relativa esecuzione) del
-	 * timer del "Termine ultimo di ritiro iscrizione". Per fare ciò viene utilizzato un semaforo.
+	 * Nota: questo metodo viene pianificato solo al termine dell'esecuzione di {@link #onUnsubscriptionTimeout(Event)},
+	 * in modo da rispettare l'ordine delle due scadenze anche quando coincidono.
 	 * 
 	 * @param e L'evento a cui si fa riferimento
 	 */
 	private void onSubscriptionTimeout(Event e) {
-		// Verifico le precedenze fra thread dei timer:
-		try {
-			// Attendo il completamento dell'altro timer
-			this.timerSemaphore.acquire();
-		} catch (InterruptedException exc) {
-			// In caso d'errore, stampo l'errore su console.
-			exc.printStackTrace();
-		}
-		
 		// Verifico se ho raggiunto il numero minimo di iscritti
 		// Se non è stato raggiunto
 		if (this.currentSubscribers < this.minSubscribers) {
@@ -213,7 +197,7 @@ public class OpenState implements EventState, Serializable {
 	/**
 	 * Metodo che racchiude tutte le azioni da eseguire allo scadere del "Termine ultimo di ritiro iscrizione".
 	 * Imposta il flag booleano per accettare disiscrizioni a "false": da questo momento in poi non sarà
-	 * più possibile disiscriversi all'evento.
+	 * più possibile disiscriversi all'evento, e la lista d'attesa dell'evento viene svuotata.
 	 * Inoltre verifica se il numero di partecipanti ha raggiunto il numero massimo; in tal caso scatena
 	 * una transizione da OPEN allo stato CLOSED.
 	 * 
@@ -222,15 +206,17 @@ public class OpenState implements EventState, Serializable {
 	private void onUnsubscriptionTimeout(Event e) {
 		this.acceptUnsubscription = false;
 		
+		// Da questo momento non si possono più liberare posti
+		e.dismissWaitlist();
+		
 		// Verifico se il numero di iscritti era già al massimo
 		if (this.currentSubscribers < this.maxSubscribers) {
 			// Rimango nello stato OPEN
-			// Lascio che venga eseguito il task dell'altro timer
-			this.timerSemaphore.release();
+			// Pianifico la scadenza del "Termine ultimo di iscrizione"
+			Date subscriptionTimeoutDate = ((DateFieldValue) e.getFieldValue(CommonField.TERMINE_ULTIMO_DI_ISCRIZIONE)).getValue();
+			this.pendingTimeout = this.scheduleTimeout(e, subscriptionTimeoutDate, this::onSubscriptionTimeout);
 			
 		} else if (this.currentSubscribers == this.maxSubscribers) {
-			// Annullo l'altro timer, poiché non mi serve più
-			this.subscriptionTimeoutTimer.cancel();
 			// Transiziono allo stato CLOSED
 			e.setState(new ClosedState());
 			
@@ -243,8 +229,8 @@ public class OpenState implements EventState, Serializable {
 	}
 	
 	/**
-	 * In seguito alla deserializzazione di un OpenState, e' necessario riavviare i Timer di passaggio
-	 * di stato
+	 * In seguito alla deserializzazione di un OpenState, e' necessario ripianificare le scadenze
+	 * di passaggio di stato
 	 * 
 	 * @param e L'evento di riferimento dello stato
 	 */
@@ -257,41 +243,37 @@ public class OpenState implements EventState, Serializable {
 	
 	private void setTimers(Event e) {
 		
-		// Preparo i due timer:
-		// - quello del termine ultimo di ritiro delle iscrizioni
-		// - quello del termine ultimo di iscrizioni
+		// Le due scadenze vengono pianificate in sequenza, sull'orologio dell'evento:
+		// - quella del termine ultimo di ritiro delle iscrizioni, subito
+		// - quella del termine ultimo di iscrizioni, allo scadere della precedente
+		// Se il termine di ritiro è già stato elaborato (ad esempio prima di un salvataggio), pianifico subito la seconda.
 		
-		// Configuro i timer in modo che vengano eseguiti come daemon (grazie al parametro con valore true).
-		this.unsubscriptionTimeoutTimer = new Timer(UNSUBS_TIMER_NAME + e.hashCode(), true);
-		this.subscriptionTimeoutTimer = new Timer(SUBS_TIMER_NAME + e.hashCode(), true);
-		
-		// Ricavo la data del termine ultimo di iscrizione
-		Date unsubscriptionTimeoutDate = ((DateFieldValue) e.getFieldValue(CommonField.TERMINE_ULTIMO_DI_RITIRO_ISCRIZIONE)).getValue();
-		Date subscriptionTimeoutDate = ((DateFieldValue) e.getFieldValue(CommonField.TERMINE_ULTIMO_DI_ISCRIZIONE)).getValue();
-		
-		// Semaforo per le precedenze
-		// Mi assicuro che "unsubscriptionTimeoutTimer" venga eseguito prima di "subscriptionTimeoutTimer".
-		this.timerSemaphore = new Semaphore(0);
-		
-		// Schedulo l'azione da effettuare al "Termine ultimo di ritiro iscrizione"
-		this.unsubscriptionTimeoutTimer.schedule(new TimerTask() {
-			
-			@Override
-			public void run() {
-				// Tutte le azioni da effettuare sono contenute nel seguente metodo:
-				onUnsubscriptionTimeout(e);
-			}
-		}, unsubscriptionTimeoutDate);
+		// Annullo l'eventuale scadenza pianificata in precedenza
+		if (this.pendingTimeout != null) {
+			this.pendingTimeout.cancel();
+		}
 		
-		// Schedulo l'azione da effettuare al "Termine ultimo di iscrizione"
-		this.subscriptionTimeoutTimer.schedule(new TimerTask() {
-			
-			@Override
-			public void run() {
-				// Tutte le azioni da effettuare sono contenute nel seguente metodo:
-				onSubscriptionTimeout(e);
+		if (this.acceptUnsubscription) {
+			Date unsubscriptionTimeoutDate = ((DateFieldValue) e.getFieldValue(CommonField.TERMINE_ULTIMO_DI_RITIRO_ISCRIZIONE)).getValue();
+			this.pendingTimeout = this.scheduleTimeout(e, unsubscriptionTimeoutDate, this::onUnsubscriptionTimeout);
+		} else {
+			Date subscriptionTimeoutDate = ((DateFieldValue) e.getFieldValue(CommonField.TERMINE_ULTIMO_DI_ISCRIZIONE)).getValue();
+			this.pendingTimeout = this.scheduleTimeout(e, subscriptionTimeoutDate, this::onSubscriptionTimeout);
+		}
+	}
+	
+	/**
+	 * Pianifica l'azione data sull'orologio dell'evento. L'azione viene eseguita mantenendo il lock dell'evento
+	 * e solo se, alla scadenza, l'evento si trova ancora nello stato OPEN.
+	 */
+	private ScheduledTask scheduleTimeout(Event e, Date timeout, Consumer<Event> action) {
+		return e.getClock().schedule(timeout, () -> {
+			synchronized (e) {
+				if (EventState.OPEN.equals(e.getState())) {
+					action.accept(e);
+				}
 			}
-		}, subscriptionTimeoutDate);
+		});
 	}
 		
 }
@@ -9,6 +9,7 @@ import it.unibs.ingesw.dpn.model.fieldvalues.IntegerFieldValue;
 import it.unibs.ingesw.dpn.model.fieldvalues.MoneyAmountFieldValue;
 import it.unibs.ingesw.dpn.model.fieldvalues.TimeAmountFieldValue;
 import it.unibs.ingesw.dpn.model.fieldvalues.StringFieldValue;
+import it.unibs.ingesw.dpn.model.time.Clocks;
 
 public enum CommonField implements Field, Serializable {
 	
@@ -39,7 +40,7 @@ public enum CommonField implements Field, Serializable {
 			DateFieldValue actualValue = (DateFieldValue) value;
 			Date dateValue = ((DateFieldValue) value).getValue();
 			
-			if (dateValue.before(new Date())) {
+			if (dateValue.before(Clocks.current().now())) {
 				throw new FieldCompatibilityException("Inserire una data futura");
 				
 			} else if (isAfterOrEqualToDateField(actualValue, fieldableTarget, CommonField.DATA_E_ORA_CONCLUSIVE)) {
@@ -92,7 +93,7 @@ public enum CommonField implements Field, Serializable {
 			Date dateValue = actualValue.getValue();
 			
 			// Verifico che la data dell'evento sia posteriore alla creazione
-			if (dateValue.before(new Date())) {
+			if (dateValue.before(Clocks.current().now())) {
 				throw new FieldCompatibilityException("Inserire una data futura");
 				
 			} else if (isBeforeOrEqualToDateField(actualValue, fieldableTarget, CommonField.DATA_E_ORA)) {
@@ -158,7 +159,7 @@ public enum CommonField implements Field, Serializable {
 			Date dateValue = actualValue.getValue();
 			
 			// Verifico che la data dell'evento sia posteriore alla creazione
-			if (dateValue.before(new Date())) {
+			if (dateValue.before(Clocks.current().now())) {
 				throw new FieldCompatibilityException("Inserire una data futura");
 			
 			} else if (isAfterOrEqualToDateField(actualValue, fieldableTarget, CommonField.DATA_E_ORA)) {
@@ -188,7 +189,7 @@ public enum CommonField implements Field, Serializable {
 			Date dateValue = actualValue.getValue();
 			
 			// Verifico che la data dell'evento sia posteriore alla creazione
-			if (dateValue.before(new Date())) {
+			if (dateValue.before(Clocks.current().now())) {
 				throw new FieldCompatibilityException("Inserire una data futura");
 			
 			} else if (isAfterOrEqualToDateField(actualValue, fieldableTarget, CommonField.DATA_E_ORA)) {
@@ -254,7 +255,7 @@ public enum CommonField implements Field, Serializable {
 			MoneyAmountFieldValue moneyAmountValue = (MoneyAmountFieldValue) value;
 			
 			// Controllo che il valore di spesa non sia negativo
-			if (moneyAmountValue.getValue() < 0) {
+			if (moneyAmountValue.getCents() < 0) {
 				throw new FieldCompatibilityException("Non è possibile inserire un valore di spesa negativo");
 			}
 		}
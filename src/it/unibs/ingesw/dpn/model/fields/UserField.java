@@ -1,11 +1,10 @@
 package it.unibs.ingesw.dpn.model.fields;
 
-import java.time.LocalDate;
-
 import it.unibs.ingesw.dpn.model.fieldvalues.CategoryListFieldValue;
 import it.unibs.ingesw.dpn.model.fieldvalues.FieldValue;
 import it.unibs.ingesw.dpn.model.fieldvalues.LocalDateFieldValue;
 import it.unibs.ingesw.dpn.model.fieldvalues.StringFieldValue;
+import it.unibs.ingesw.dpn.model.time.Clocks;
 
 public enum UserField implements Field {
 	
@@ -30,10 +29,10 @@ public enum UserField implements Field {
 		public void checkValueCompatibility(Fieldable fieldableTarget, FieldValue value) throws FieldCompatibilityException {
 			LocalDateFieldValue localDateValue = (LocalDateFieldValue) value;
 			
-			if (localDateValue.getLocalDate().isAfter(LocalDate.now())) {
+			if (localDateValue.getLocalDate().isAfter(Clocks.current().today())) {
 				throw new FieldCompatibilityException("Impossibile accettare una data futura");
 				
-			} else if (localDateValue.getLocalDate().isAfter(LocalDate.now().minusYears(AGE_LIMIT))) {
+			} else if (localDateValue.getLocalDate().isAfter(Clocks.current().today().minusYears(AGE_LIMIT))) {
 				throw new FieldCompatibilityException(String.format(
 						"Per utilizzare questo programma devi avere almeno %d anni.\nInserisci la tua vera data di nascita o termina l'esecuzione del programma.",
 						AGE_LIMIT));
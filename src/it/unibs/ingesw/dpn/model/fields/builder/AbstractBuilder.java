@@ -4,8 +4,10 @@ import java.util.HashMap;
 import java.util.Map;
 
 import it.unibs.ingesw.dpn.model.fields.Field;
+import it.unibs.ingesw.dpn.model.fields.FieldCompatibilityException;
 import it.unibs.ingesw.dpn.model.fields.Fieldable;
 import it.unibs.ingesw.dpn.model.fieldvalues.FieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.FieldValueCodecs;
 import it.unibs.ingesw.dpn.ui.FieldValueUIAcquirer;
 
 public abstract class AbstractBuilder implements FieldableBuilder {
@@ -35,6 +37,21 @@ public abstract class AbstractBuilder implements FieldableBuilder {
 		// Inizializzo I/O
 		this.acquirer = acquirer;
 		
+		this.initialize();
+	}
+	
+	/**
+	 * Costruttore di un Builder "headless", privo di interfaccia utente.
+	 * I valori dei campi possono essere impostati solamente con i metodi "setFieldValue";
+	 * il metodo "acquireFieldValue" non è disponibile.
+	 */
+	public AbstractBuilder() {
+		this.acquirer = null;
+		
+		this.initialize();
+	}
+	
+	private void initialize() {
 		// Inizializzo state
 		this.state = new ReadyState();
 		
@@ -128,6 +145,10 @@ public abstract class AbstractBuilder implements FieldableBuilder {
 		// Permette di distinguere il comportamento in caso di creazione o di modifica
 		this.state.onFieldValueAcquisition(this, field);
 		
+		if (this.acquirer == null) {
+			throw new IllegalStateException("Impossibile acquisire valori in modo interattivo con un Builder privo di interfaccia utente");
+		}
+		
 		// Acquisisco il valore del campo.
 		// Avendo controllato tutto correttamente, questo metodo mi garantisce che terminerò l'acquisizione con un valore valido
 		FieldValue value = this.acquirer.acquireFieldValue(this.provisionalFieldable, field);
@@ -136,6 +157,77 @@ public abstract class AbstractBuilder implements FieldableBuilder {
 		this.provisionalFieldable.setFieldValue(field, value);
 		
 	}
+	
+	/**
+	 * Imposta il valore del campo {@link Field} passato come parametro senza alcuna interazione con l'utente.<br>
+	 * Il valore viene sottoposto agli stessi controlli dell'acquisizione interattiva: controllo del tipo,
+	 * controllo di compatibilità con gli altri campi e propagazione ai valori "legati"
+	 * (vedi {@link Field#checkTypeAndCompatibilityAndPropagateValueAcquisition}).
+	 * Se il valore non è valido, l'oggetto non viene modificato.
+	 * 
+	 * Precondizione: il Builder deve essere in modalità "Creazione" o "Modifica".
+	 * 
+	 * Precondizione: il campo {@link Field} e il valore non devono essere nulli.
+	 * 
+	 * Precondizione: il campo {@link Field} deve essere un campo previsto per l'oggetto Fieldable che si intende creare.
+	 * 
+	 * @param field Il campo di cui si vuole impostare il valore
+	 * @param value Il valore del campo
+	 * @throws FieldCompatibilityException Se il valore non è compatibile con il campo o con gli altri valori
+	 */
+	@Override
+	public void setFieldValue(Field field, FieldValue value) throws FieldCompatibilityException {
+		if (field == null || value == null) {
+			throw new IllegalArgumentException("Impossibile impostare un campo nullo o un valore nullo");
+		}
+		
+		// Gestione dello stato
+		this.state.onFieldValueAcquisition(this, field);
+		
+		if (!this.provisionalFieldable.hasField(field)) {
+			throw new IllegalArgumentException(String.format(
+					"Il campo \"%s\" non è previsto per l'oggetto che si sta creando o modificando",
+					field.getName()));
+		}
+		
+		// Gli stessi tre livelli di verifica dell'acquisizione interattiva
+		try {
+			field.checkTypeAndCompatibilityAndPropagateValueAcquisition(this.provisionalFieldable, value);
+		}
+		catch (FieldCompatibilityException ex) {
+			throw new FieldCompatibilityException(String.format("Campo \"%s\": %s", field.getName(), ex.getMessage()));
+		}
+		
+		this.provisionalFieldable.setFieldValue(field, value);
+	}
+	
+	/**
+	 * Imposta il valore del campo {@link Field} passato come parametro a partire dalla sua rappresentazione
+	 * testuale (vedi {@link FieldValueCodecs}), senza alcuna interazione con l'utente e con gli stessi controlli
+	 * del metodo {@link #setFieldValue(Field, FieldValue)}.
+	 * 
+	 * Precondizione: il campo {@link Field} e il testo non devono essere nulli.
+	 * 
+	 * @param field Il campo di cui si vuole impostare il valore
+	 * @param text La rappresentazione testuale del valore
+	 * @throws FieldCompatibilityException Se il valore non è compatibile con il campo o con gli altri valori
+	 * @throws IllegalArgumentException Se il testo non è nel formato previsto
+	 */
+	@Override
+	public void setFieldValue(Field field, String text) throws FieldCompatibilityException {
+		if (field == null || text == null) {
+			throw new IllegalArgumentException("Impossibile impostare un campo nullo o un valore nullo");
+		}
+		
+		FieldValue value;
+		try {
+			value = FieldValueCodecs.parse(field, text);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new IllegalArgumentException(String.format("Campo \"%s\": %s", field.getName(), ex.getMessage()), ex);
+		}
+		this.setFieldValue(field, value);
+	}
 
 	@Override
 	public Fieldable finalise() {
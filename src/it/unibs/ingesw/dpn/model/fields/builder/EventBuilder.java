@@ -16,6 +16,10 @@ import it.unibs.ingesw.dpn.ui.FieldValueUIAcquirer;
  * - acquireFieldValue(..);		<- Quante volte si vuole
  * - finalise(..);
  * 
+ * In alternativa al metodo "acquireFieldValue", i valori possono essere impostati senza alcuna interazione
+ * con l'utente mediante i metodi "setFieldValue", che effettuano gli stessi controlli; un Builder creato
+ * con il costruttore privo di parametri può essere utilizzato solamente in questo modo.
+ * 
  * @author Michele Dusi, Lorenzo Nodari, Emanuele Poggi
  *
  */
@@ -32,6 +36,14 @@ public class EventBuilder extends AbstractBuilder {
 		super(acquirer);
 	}
 	
+	/**
+	 * Costruttore di un Builder privo di interfaccia utente, i cui valori vengono impostati
+	 * con i metodi "setFieldValue".
+	 */
+	public EventBuilder() {
+		super();
+	}
+	
 	/**
 	 * Comincia la creazione di un evento, data una precisa categoria e un utente creatore.
 	 * 
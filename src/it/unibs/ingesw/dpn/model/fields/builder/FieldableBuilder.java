@@ -3,6 +3,7 @@ package it.unibs.ingesw.dpn.model.fields.builder;
 import java.util.Map;
 
 import it.unibs.ingesw.dpn.model.fields.Field;
+import it.unibs.ingesw.dpn.model.fields.FieldCompatibilityException;
 import it.unibs.ingesw.dpn.model.fields.Fieldable;
 import it.unibs.ingesw.dpn.model.fieldvalues.FieldValue;
 
@@ -41,6 +42,26 @@ public interface FieldableBuilder {
 	 */
 	public void acquireFieldValue(Field field);
 	
+	/**
+	 * Imposta il valore dello specifico campo passato come parametro senza interagire con l'utente,
+	 * effettuando gli stessi controlli dell'acquisizione interattiva.
+	 * 
+	 * @param field Il campo di cui si intende impostare il valore
+	 * @param value Il valore del campo
+	 * @throws FieldCompatibilityException Se il valore non è compatibile con il campo o con gli altri valori
+	 */
+	public void setFieldValue(Field field, FieldValue value) throws FieldCompatibilityException;
+	
+	/**
+	 * Imposta il valore dello specifico campo passato come parametro a partire dalla sua rappresentazione
+	 * testuale, senza interagire con l'utente e con gli stessi controlli dell'acquisizione interattiva.
+	 * 
+	 * @param field Il campo di cui si intende impostare il valore
+	 * @param text La rappresentazione testuale del valore
+	 * @throws FieldCompatibilityException Se il valore non è compatibile con il campo o con gli altri valori
+	 */
+	public void setFieldValue(Field field, String text) throws FieldCompatibilityException;
+	
 	/**
 	 * Termina il processo di creazione o modifica restituendo un riferimento all'oggetto
 	 * Fieldable finalizzato.
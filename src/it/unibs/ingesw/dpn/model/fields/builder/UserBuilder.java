@@ -16,6 +16,10 @@ import it.unibs.ingesw.dpn.ui.FieldValueUIAcquirer;
  * - acquireFieldValue(..);		<- Quante volte si vuole, permette la modifica dei campi già presenti
  * - finalise(..);				<- Restituisce lo User modificato
  * 
+ * In alternativa al metodo "acquireFieldValue", i valori possono essere impostati senza alcuna interazione
+ * con l'utente mediante i metodi "setFieldValue", che effettuano gli stessi controlli; un Builder creato
+ * con il costruttore privo di parametri può essere utilizzato solamente in questo modo.
+ * 
  * Solo dopo aver chiamato i tre metodi, o eventualmente dopo aver cancellato la creazione
  * o la modifica con il metodo "cancel", è possibile ricominciare un nuovo processo di creazione o modifica.
  * 
@@ -33,6 +37,14 @@ public class UserBuilder extends AbstractBuilder {
 		super(acquirer);
 	}
 	
+	/**
+	 * Costruttore di un Builder privo di interfaccia utente, i cui valori vengono impostati
+	 * con i metodi "setFieldValue".
+	 */
+	public UserBuilder() {
+		super();
+	}
+	
 	/**
 	 * Comincia la creazione di un utente.
 	 * 
@@ -1,10 +1,10 @@
 package it.unibs.ingesw.dpn.model.fieldvalues;
 
 import java.io.Serializable;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Scanner;
 
+import it.unibs.ingesw.dpn.model.time.TimestampFormat;
 import it.unibs.ingesw.dpn.ui.UserInterface;
 
 /**
@@ -23,10 +23,8 @@ public class DateFieldValue implements FieldValue, Serializable {
 	 */
 	private static final long serialVersionUID = 715073002238005354L;
 	
-	private static final String DATE_FORMAT_STRING = "dd/MM/yyyy - HH:mm";
 	private static final String DATE_DELIMITER = "(/|-|,| )";
 	private static final String HOURS_DELIMITER = "(:|\\.| )";
-	private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat(DATE_FORMAT_STRING);
 	
 	private Date date;
 	
@@ -55,7 +53,7 @@ public class DateFieldValue implements FieldValue, Serializable {
 	 */
 	@Override
 	public String toString() {
-		return DATE_FORMAT.format(this.date);
+		return TimestampFormat.FIELD_DATE_TIME.format(this.date);
 	}
 	
 	public Date getValue() {
@@ -0,0 +1,71 @@
+package it.unibs.ingesw.dpn.model.fieldvalues;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Interfaccia che rappresenta la conversione dei valori di un tipo di {@link FieldValue} da e verso
+ * una rappresentazione testuale e una rappresentazione binaria, senza alcuna interazione con l'utente.<br>
+ * Permette di costruire i valori dei campi in modo programmatico, in alternativa al metodo
+ * {@link FieldValue#initializeValue}.<br>
+ * <br>
+ * Nota: i codec verificano solamente la correttezza del formato e la validità del valore in quanto tale;
+ * i controlli di compatibilità con gli altri campi dell'oggetto sono effettuati dal Builder
+ * (vedi {@link it.unibs.ingesw.dpn.model.fields.builder.FieldableBuilder#setFieldValue}).
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ * @param <T> Il tipo di valore gestito
+ */
+public interface FieldValueCodec<T extends FieldValue> {
+	
+	/**
+	 * @return La classe dei valori gestiti dal codec
+	 */
+	public Class<T> getType();
+	
+	/**
+	 * Interpreta la rappresentazione testuale di un valore.
+	 * 
+	 * Precondizione: text != null
+	 * 
+	 * @param text Il testo da interpretare
+	 * @return Il valore corrispondente
+	 * @throws IllegalArgumentException Se il testo non è nel formato previsto
+	 */
+	public T parse(String text);
+	
+	/**
+	 * Restituisce la rappresentazione testuale di un valore, interpretabile con il metodo {@link #parse}.
+	 * 
+	 * Precondizione: value != null
+	 * 
+	 * @param value Il valore
+	 * @return Il testo corrispondente
+	 */
+	public String format(T value);
+	
+	/**
+	 * Scrive la rappresentazione binaria di un valore, leggibile con il metodo {@link #read}.
+	 * 
+	 * Precondizione: value != null, out != null
+	 * 
+	 * @param value Il valore
+	 * @param out Lo stream su cui scrivere
+	 * @throws IOException In caso di errori di scrittura
+	 */
+	public void write(T value, DataOutput out) throws IOException;
+	
+	/**
+	 * Legge la rappresentazione binaria di un valore.
+	 * 
+	 * Precondizione: in != null
+	 * 
+	 * @param in Lo stream da cui leggere
+	 * @return Il valore letto
+	 * @throws IOException In caso di errori di lettura o di dati non validi
+	 */
+	public T read(DataInput in) throws IOException;
+
+}
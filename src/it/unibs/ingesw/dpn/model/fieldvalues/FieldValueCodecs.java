@@ -0,0 +1,522 @@
+package it.unibs.ingesw.dpn.model.fieldvalues;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import it.unibs.ingesw.dpn.model.categories.Category;
+import it.unibs.ingesw.dpn.model.fields.Field;
+
+/**
+ * Raccolta dei {@link FieldValueCodec} di tutti i tipi di {@link FieldValue}.<br>
+ * <br>
+ * Le rappresentazioni testuali sono pensate per essere indipendenti dalla lingua e dal fuso orario della macchina:
+ * <ul>
+ * 	<li> Date e ore: ISO-8601 con offset esplicito, formattate in UTC (ad es. "2050-01-31T21:30:00Z") </li>
+ * 	<li> Date: ISO-8601 (ad es. "1990-05-12") </li>
+ * 	<li> Durate: ISO-8601 (ad es. "PT1H30M") </li>
+ * 	<li> Importi: euro con il punto come separatore decimale (ad es. "12.50") </li>
+ * 	<li> Liste: elementi separati da ";" (categorie per nome, ad es. "CONFERENZA;PARTITA_DI_CALCIO";
+ * 	spese opzionali come "nome=importo"); all'interno degli elementi ";" e "\" sono preceduti da "\" </li>
+ * 	<li> Intervalli di interi: "min;max" </li>
+ * 	<li> Stringhe, interi e generi: la descrizione testuale del valore </li>
+ * </ul>
+ * Le rappresentazioni binarie sono compatte e non dipendono dal fuso orario: le date sono scritte
+ * come millisecondi (o giorni) dall'epoca, le durate in secondi e gli importi in centesimi.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public final class FieldValueCodecs {
+
+	/** Separatore degli elementi delle liste nella rappresentazione testuale */
+	public static final String LIST_SEPARATOR = ";";
+	private static final char ESCAPE = '\\';
+	private static final String ENTRY_SEPARATOR = "=";
+	private static final int CENTS_SCALE = 2;
+
+	private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ISO_INSTANT;
+
+	public static final FieldValueCodec<StringFieldValue> STRING = new SimpleCodec<>(
+			StringFieldValue.class,
+			text -> new StringFieldValue(text),
+			value -> value.toString(),
+			(value, out) -> writeString(value.toString(), out),
+			in -> new StringFieldValue(readString(in)));
+
+	public static final FieldValueCodec<IntegerFieldValue> INTEGER = new SimpleCodec<>(
+			IntegerFieldValue.class,
+			text -> new IntegerFieldValue(Integer.parseInt(text.trim())),
+			value -> Integer.toString(value.getValue()),
+			(value, out) -> out.writeInt(value.getValue()),
+			in -> new IntegerFieldValue(in.readInt()));
+
+	public static final FieldValueCodec<DateFieldValue> DATE = new SimpleCodec<>(
+			DateFieldValue.class,
+			text -> {
+				// L'offset è obbligatorio: un orario senza offset dipenderebbe dal fuso orario della macchina
+				OffsetDateTime dateTime = OffsetDateTime.parse(text.trim(), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+				return new DateFieldValue(dateTime.toInstant().toEpochMilli());
+			},
+			value -> DATE_TIME_FORMAT.format(Instant.ofEpochMilli(value.getValue().getTime())),
+			(value, out) -> out.writeLong(value.getValue().getTime()),
+			in -> new DateFieldValue(in.readLong()));
+
+	public static final FieldValueCodec<LocalDateFieldValue> LOCAL_DATE = new SimpleCodec<>(
+			LocalDateFieldValue.class,
+			text -> new LocalDateFieldValue(LocalDate.parse(text.trim())),
+			value -> value.getLocalDate().toString(),
+			(value, out) -> out.writeLong(value.getLocalDate().toEpochDay()),
+			in -> new LocalDateFieldValue(LocalDate.ofEpochDay(in.readLong())));
+
+	public static final FieldValueCodec<TimeAmountFieldValue> TIME_AMOUNT = new SimpleCodec<>(
+			TimeAmountFieldValue.class,
+			text -> TimeAmountFieldValue.ofSeconds(Duration.parse(text.trim()).getSeconds()),
+			value -> Duration.ofSeconds(value.getSeconds()).toString(),
+			(value, out) -> out.writeLong(value.getSeconds()),
+			in -> TimeAmountFieldValue.ofSeconds(in.readLong()));
+
+	public static final FieldValueCodec<MoneyAmountFieldValue> MONEY_AMOUNT = new SimpleCodec<>(
+			MoneyAmountFieldValue.class,
+			text -> MoneyAmountFieldValue.ofCents(parseCents(text)),
+			value -> formatCents(value.getCents()),
+			(value, out) -> out.writeLong(value.getCents()),
+			in -> MoneyAmountFieldValue.ofCents(in.readLong()));
+
+	public static final FieldValueCodec<GenderFieldValue> GENDER = new SimpleCodec<>(
+			GenderFieldValue.class,
+			text -> new GenderFieldValue(text.trim()),
+			value -> value.toString(),
+			(value, out) -> writeString(value.toString(), out),
+			in -> new GenderFieldValue(readString(in)));
+
+	public static final FieldValueCodec<IntegerIntervalFieldValue> INTEGER_INTERVAL = new SimpleCodec<>(
+			IntegerIntervalFieldValue.class,
+			text -> {
+				String [] bounds = text.split(LIST_SEPARATOR, -1);
+				if (bounds.length != 2) {
+					throw new IllegalArgumentException("Intervallo non nel formato \"min;max\"");
+				}
+				return new IntegerIntervalFieldValue(Integer.parseInt(bounds[0].trim()), Integer.parseInt(bounds[1].trim()));
+			},
+			value -> value.getMin() + LIST_SEPARATOR + value.getMax(),
+			(value, out) -> {
+				out.writeInt(value.getMin());
+				out.writeInt(value.getMax());
+			},
+			in -> new IntegerIntervalFieldValue(in.readInt(), in.readInt()));
+
+	public static final FieldValueCodec<CategoryListFieldValue> CATEGORY_LIST = new SimpleCodec<>(
+			CategoryListFieldValue.class,
+			text -> {
+				CategoryListFieldValue categories = new CategoryListFieldValue();
+				for (String name : parseList(text)) {
+					if (!name.trim().isEmpty()) {
+						categories.addCategory(Category.valueOf(name.trim()));
+					}
+				}
+				return categories;
+			},
+			value -> {
+				StringBuilder s = new StringBuilder();
+				for (Category c : Category.values()) {
+					if (value.contains(c)) {
+						appendListElement(s, c.name());
+					}
+				}
+				return s.toString();
+			},
+			(value, out) -> {
+				// Le categorie sono scritte come maschera di bit degli ordinali
+				long mask = 0;
+				for (Category c : Category.values()) {
+					if (value.contains(c)) {
+						mask |= 1L << c.ordinal();
+					}
+				}
+				out.writeLong(mask);
+			},
+			in -> {
+				long mask = in.readLong();
+				CategoryListFieldValue categories = new CategoryListFieldValue();
+				for (Category c : Category.values()) {
+					if ((mask & (1L << c.ordinal())) != 0) {
+						categories.addCategory(c);
+					}
+				}
+				return categories;
+			});
+
+	public static final FieldValueCodec<OptionalCostsFieldValue> OPTIONAL_COSTS = new SimpleCodec<>(
+			OptionalCostsFieldValue.class,
+			text -> {
+				OptionalCostsFieldValue costs = new OptionalCostsFieldValue();
+				for (String entry : parseList(text)) {
+					if (entry.trim().isEmpty()) {
+						continue;
+					}
+					int separator = entry.lastIndexOf(ENTRY_SEPARATOR);
+					if (separator <= 0) {
+						throw new IllegalArgumentException("Spesa opzionale non nel formato \"nome=importo\"");
+					}
+					costs.addEntry(entry.substring(0, separator).trim(), parseCents(entry.substring(separator + 1)));
+				}
+				return costs;
+			},
+			value -> {
+				StringBuilder s = new StringBuilder();
+				for (Map.Entry<String, Long> entry : value.getValue().entrySet()) {
+					appendListElement(s, entry.getKey() + ENTRY_SEPARATOR + formatCents(entry.getValue()));
+				}
+				return s.toString();
+			},
+			(value, out) -> {
+				Map<String, Long> entries = value.getValue();
+				out.writeInt(entries.size());
+				for (Map.Entry<String, Long> entry : entries.entrySet()) {
+					writeString(entry.getKey(), out);
+					out.writeLong(entry.getValue());
+				}
+			},
+			in -> {
+				int size = in.readInt();
+				if (size < 0) {
+					throw new IOException("Numero di spese opzionali non valido: " + size);
+				}
+				OptionalCostsFieldValue costs = new OptionalCostsFieldValue();
+				for (int i = 0; i < size; i++) {
+					costs.addEntry(readString(in), in.readLong());
+				}
+				return costs;
+			});
+
+	private static final Map<Class<? extends FieldValue>, FieldValueCodec<?>> CODECS;
+	static {
+		Map<Class<? extends FieldValue>, FieldValueCodec<?>> codecs = new HashMap<>();
+		for (FieldValueCodec<?> codec : new FieldValueCodec<?> [] {
+				STRING,
+				INTEGER,
+				DATE,
+				LOCAL_DATE,
+				TIME_AMOUNT,
+				MONEY_AMOUNT,
+				GENDER,
+				INTEGER_INTERVAL,
+				CATEGORY_LIST,
+				OPTIONAL_COSTS}) {
+			codecs.put(codec.getType(), codec);
+		}
+		CODECS = Collections.unmodifiableMap(codecs);
+	}
+
+	/**
+	 * Costruttore privato: la classe non deve essere istanziata.
+	 */
+	private FieldValueCodecs() {
+
+	}
+
+	/**
+	 * Restituisce il codec dei valori del tipo dato.
+	 *
+	 * Precondizione: type != null
+	 *
+	 * @param type La classe dei valori
+	 * @return Il codec corrispondente
+	 * @throws IllegalArgumentException Se il tipo non è supportato
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends FieldValue> FieldValueCodec<T> forType(Class<T> type) {
+		if (type == null) {
+			throw new IllegalArgumentException("Impossibile ottenere il codec di un tipo nullo");
+		}
+		FieldValueCodec<?> codec = CODECS.get(type);
+		if (codec == null) {
+			throw new IllegalArgumentException(String.format(
+					"Tipo di valore non supportato: %s", type.getSimpleName()));
+		}
+		return (FieldValueCodec<T>) codec;
+	}
+
+	/**
+	 * Restituisce il codec dei valori del campo dato.
+	 *
+	 * Precondizione: field != null
+	 *
+	 * @param field Il campo
+	 * @return Il codec corrispondente al tipo del campo
+	 * @throws IllegalArgumentException Se il tipo del campo non è supportato
+	 */
+	public static FieldValueCodec<? extends FieldValue> forField(Field field) {
+		if (field == null) {
+			throw new IllegalArgumentException("Impossibile ottenere il codec di un campo nullo");
+		}
+		return forType(field.getType());
+	}
+
+	/**
+	 * Interpreta la rappresentazione testuale di un valore per il campo dato.<br>
+	 * Questo metodo verifica solamente la correttezza del formato: i controlli di compatibilità
+	 * con gli altri campi sono a carico del chiamante (vedi {@link Field#checkTypeAndCompatibilityAndPropagateValueAcquisition}).
+	 *
+	 * Precondizione: field != null, text != null
+	 *
+	 * @param field Il campo
+	 * @param text Il testo da interpretare
+	 * @return Il valore corrispondente
+	 * @throws IllegalArgumentException Se il testo non è nel formato previsto
+	 */
+	public static FieldValue parse(Field field, String text) {
+		if (text == null) {
+			throw new IllegalArgumentException("Impossibile interpretare un testo nullo");
+		}
+		return forField(field).parse(text);
+	}
+
+	/**
+	 * Restituisce la rappresentazione testuale di un valore.
+	 *
+	 * Precondizione: value != null
+	 *
+	 * @param value Il valore
+	 * @return Il testo corrispondente
+	 */
+	public static String format(FieldValue value) {
+		return codecOf(value).format(value);
+	}
+
+	/**
+	 * Scrive la rappresentazione binaria di un valore.
+	 *
+	 * Precondizione: value != null, out != null
+	 *
+	 * @param value Il valore
+	 * @param out Lo stream su cui scrivere
+	 * @throws IOException In caso di errori di scrittura
+	 */
+	public static void write(FieldValue value, DataOutput out) throws IOException {
+		codecOf(value).write(value, out);
+	}
+
+	/**
+	 * Legge la rappresentazione binaria di un valore per il campo dato.
+	 *
+	 * Precondizione: field != null, in != null
+	 *
+	 * @param field Il campo
+	 * @param in Lo stream da cui leggere
+	 * @return Il valore letto
+	 * @throws IOException In caso di errori di lettura o di dati non validi
+	 */
+	public static FieldValue read(Field field, DataInput in) throws IOException {
+		return forField(field).read(in);
+	}
+
+	/* METODI PRIVATI DI UTILITA' */
+
+	@SuppressWarnings("unchecked")
+	private static FieldValueCodec<FieldValue> codecOf(FieldValue value) {
+		if (value == null) {
+			throw new IllegalArgumentException("Impossibile convertire un valore nullo");
+		}
+		return (FieldValueCodec<FieldValue>) forType(value.getClass());
+	}
+
+	/**
+	 * Interpreta un importo in euro, con il punto come separatore decimale, in modo esatto.
+	 */
+	private static long parseCents(String text) {
+		return new BigDecimal(text.trim()).movePointRight(CENTS_SCALE).longValueExact();
+	}
+
+	/**
+	 * Formatta un importo espresso in centesimi come euro, con il punto come separatore decimale.
+	 */
+	private static String formatCents(long cents) {
+		// Non uso MoneyAmount.toString perché dipende dalla lingua e aggiunge il simbolo della valuta
+		return BigDecimal.valueOf(cents, CENTS_SCALE).toPlainString();
+	}
+
+	/**
+	 * Aggiunge un elemento alla rappresentazione testuale di una lista, facendo precedere dal
+	 * carattere di escape i separatori e gli escape contenuti nell'elemento.
+	 *
+	 * Precondizione: s != null, element != null
+	 *
+	 * @param s La lista in costruzione
+	 * @param element L'elemento da aggiungere
+	 */
+	public static void appendListElement(StringBuilder s, String element) {
+		if (s.length() > 0) {
+			s.append(LIST_SEPARATOR);
+		}
+		for (int i = 0; i < element.length(); i++) {
+			char c = element.charAt(i);
+			if (c == ESCAPE || c == LIST_SEPARATOR.charAt(0)) {
+				s.append(ESCAPE);
+			}
+			s.append(c);
+		}
+	}
+
+	/**
+	 * Suddivide la rappresentazione testuale di una lista nei suoi elementi, rimuovendo gli escape
+	 * aggiunti da {@link #appendListElement(StringBuilder, String)}.
+	 *
+	 * Precondizione: text != null
+	 *
+	 * @param text Il testo della lista
+	 * @return Gli elementi della lista, nell'ordine in cui compaiono
+	 * @throws IllegalArgumentException Se il testo termina con un carattere di escape isolato
+	 */
+	public static List<String> parseList(String text) {
+		List<String> elements = new ArrayList<>();
+		StringBuilder element = new StringBuilder();
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == ESCAPE) {
+				if (++i == text.length()) {
+					throw new IllegalArgumentException("Carattere di escape non seguito da alcun carattere");
+				}
+				element.append(text.charAt(i));
+			}
+			else if (c == LIST_SEPARATOR.charAt(0)) {
+				elements.add(element.toString());
+				element.setLength(0);
+			}
+			else {
+				element.append(c);
+			}
+		}
+		elements.add(element.toString());
+		return elements;
+	}
+
+	/**
+	 * Scrive una stringa come lunghezza in byte seguita dai byte in UTF-8.<br>
+	 * Non uso DataOutput.writeUTF perché limita le stringhe a 65535 byte.
+	 */
+	private static void writeString(String s, DataOutput out) throws IOException {
+		byte [] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInput in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			throw new IOException("Lunghezza della stringa non valida: " + length);
+		}
+		byte [] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/* CLASSI E INTERFACCE DI UTILITA' */
+
+	@FunctionalInterface
+	private interface BinaryWriter<T> {
+		void write(T value, DataOutput out) throws IOException;
+	}
+
+	@FunctionalInterface
+	private interface BinaryReader<T> {
+		T read(DataInput in) throws IOException;
+	}
+
+	@FunctionalInterface
+	private interface TextParser<T> {
+		T parse(String text);
+	}
+
+	@FunctionalInterface
+	private interface TextFormatter<T> {
+		String format(T value);
+	}
+
+	/**
+	 * Codec composto dalle quattro funzioni di conversione.<br>
+	 * Le eccezioni di formato lanciate dalle librerie standard vengono uniformate in {@link IllegalArgumentException}
+	 * (interpretazione testuale) o {@link IOException} (lettura binaria).
+	 */
+	private static final class SimpleCodec<T extends FieldValue> implements FieldValueCodec<T> {
+
+		private final Class<T> type;
+		private final TextParser<T> parser;
+		private final TextFormatter<T> formatter;
+		private final BinaryWriter<T> writer;
+		private final BinaryReader<T> reader;
+
+		SimpleCodec(Class<T> type, TextParser<T> parser, TextFormatter<T> formatter,
+				BinaryWriter<T> writer, BinaryReader<T> reader) {
+			this.type = type;
+			this.parser = parser;
+			this.formatter = formatter;
+			this.writer = writer;
+			this.reader = reader;
+		}
+
+		@Override
+		public Class<T> getType() {
+			return this.type;
+		}
+
+		@Override
+		public T parse(String text) {
+			if (text == null) {
+				throw new IllegalArgumentException("Impossibile interpretare un testo nullo");
+			}
+			try {
+				return this.parser.parse(text);
+			}
+			catch (DateTimeParseException | ArithmeticException ex) {
+				// Le NumberFormatException sono già delle IllegalArgumentException
+				throw new IllegalArgumentException(ex.getMessage(), ex);
+			}
+		}
+
+		@Override
+		public String format(T value) {
+			if (value == null) {
+				throw new IllegalArgumentException("Impossibile convertire un valore nullo");
+			}
+			return this.formatter.format(value);
+		}
+
+		@Override
+		public void write(T value, DataOutput out) throws IOException {
+			if (value == null || out == null) {
+				throw new IllegalArgumentException("Impossibile scrivere con parametri nulli");
+			}
+			this.writer.write(value, out);
+		}
+
+		@Override
+		public T read(DataInput in) throws IOException {
+			if (in == null) {
+				throw new IllegalArgumentException("Impossibile leggere da uno stream nullo");
+			}
+			try {
+				return this.reader.read(in);
+			}
+			catch (IllegalArgumentException ex) {
+				throw new IOException("Valore non valido: " + ex.getMessage(), ex);
+			}
+		}
+
+	}
+
+}
@@ -1,5 +1,7 @@
 package it.unibs.ingesw.dpn.model.fieldvalues;
 
+import java.io.Serializable;
+
 import it.unibs.ingesw.dpn.ui.UserInterface;
 
 /**
@@ -15,7 +17,9 @@ import it.unibs.ingesw.dpn.ui.UserInterface;
  * @author Michele Dusi
  *
  */
-public class GenderFieldValue implements FieldValue {
+public class GenderFieldValue implements FieldValue, Serializable {
+	
+	private static final long serialVersionUID = 4180527739213526617L;
 	
 	 private enum Gender {
 		
@@ -39,6 +43,28 @@ public class GenderFieldValue implements FieldValue {
 	
 	private Gender gender;
 	
+	public GenderFieldValue() {
+		
+	}
+	
+	/**
+	 * Crea un valore a partire dal nome del genere (ad esempio "Uomo" o "Misto"), senza distinzione
+	 * fra maiuscole e minuscole.
+	 * 
+	 * Precondizione: il nome deve corrispondere ad uno dei generi previsti
+	 * 
+	 * @param genderName Il nome del genere
+	 */
+	public GenderFieldValue(String genderName) {
+		for (Gender g : Gender.values()) {
+			if (g.toString().equalsIgnoreCase(genderName)) {
+				this.gender = g;
+				return;
+			}
+		}
+		throw new IllegalArgumentException(String.format("Genere \"%s\" non previsto", genderName));
+	}
+	
 	@Override
 	public String toString() {
 		return this.gender.toString();
@@ -24,6 +24,26 @@ public class IntegerIntervalFieldValue implements FieldValue, Serializable {
 	
 	private int min, max;
 	
+	public IntegerIntervalFieldValue() {
+		
+	}
+	
+	/**
+	 * Crea un intervallo a partire dai suoi estremi, entrambi inclusi.
+	 * 
+	 * Precondizione: min <= max
+	 * 
+	 * @param min L'estremo inferiore
+	 * @param max L'estremo superiore
+	 */
+	public IntegerIntervalFieldValue(int min, int max) {
+		if (min > max) {
+			throw new IllegalArgumentException("Impossibile creare un intervallo con estremo inferiore maggiore del superiore");
+		}
+		this.min = min;
+		this.max = max;
+	}
+	
 	public int getMin() {
 		return this.min;
 	}
@@ -2,9 +2,9 @@ package it.unibs.ingesw.dpn.model.fieldvalues;
 
 import java.io.Serializable;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.Scanner;
 
+import it.unibs.ingesw.dpn.model.time.TimestampFormat;
 import it.unibs.ingesw.dpn.ui.UserInterface;
 
 /**
@@ -22,11 +22,28 @@ public class LocalDateFieldValue implements FieldValue, Serializable {
 	 */
 	private static final long serialVersionUID = 715073002238005354L;
 
-	private static final String DATE_FORMAT_STRING = "dd/MM/yyyy";
 	private static final String DATE_DELIMITER = "(/|-|,| )";
 	
 	private LocalDate date = null;
 	
+	public LocalDateFieldValue() {
+		
+	}
+	
+	/**
+	 * Crea un valore a partire da una data.
+	 * 
+	 * Precondizione: date != null
+	 * 
+	 * @param date La data
+	 */
+	public LocalDateFieldValue(LocalDate date) {
+		if (date == null) {
+			throw new IllegalArgumentException("Impossibile creare un LocalDateFieldValue con data nulla");
+		}
+		this.date = date;
+	}
+	
 	/**
 	 * Restituisce la data contenuta come valore del campo all'interno di questo oggetto.
 	 * 
@@ -43,7 +60,7 @@ public class LocalDateFieldValue implements FieldValue, Serializable {
 	 */
 	@Override
 	public String toString() {
-		return this.date.format(DateTimeFormatter.ofPattern(DATE_FORMAT_STRING));
+		return TimestampFormat.FIELD_DATE.format(this.date);
 	}
 
 	/**
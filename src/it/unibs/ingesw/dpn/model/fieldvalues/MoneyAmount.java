@@ -0,0 +1,118 @@
+package it.unibs.ingesw.dpn.model.fieldvalues;
+
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Classe di utilità per la gestione esatta degli importi in denaro.<br>
+ * Gli importi sono rappresentati come valori <code>long</code> espressi in centesimi di euro,
+ * in modo da evitare gli errori di arrotondamento tipici dell'aritmetica in virgola mobile
+ * e da permettere l'aggregazione di grandi quantità di importi senza allocare oggetti.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public final class MoneyAmount {
+
+	/** Importo nullo */
+	public static final long ZERO = 0L;
+
+	/** Numero di centesimi in un euro */
+	public static final long CENTS_PER_UNIT = 100L;
+
+	private static final String CURRENCY_SYMBOL = " €";
+
+	/**
+	 * Costruttore privato: la classe non deve essere istanziata.
+	 */
+	private MoneyAmount() {
+
+	}
+
+	/**
+	 * Converte un importo espresso in euro come numero in virgola mobile nel corrispondente
+	 * numero di centesimi, arrotondando al centesimo più vicino.<br>
+	 * Utilizzato per l'acquisizione di valori dall'utente.
+	 *
+	 * @param amount L'importo in euro
+	 * @return L'importo in centesimi
+	 */
+	public static long fromFloat(float amount) {
+		// Il passaggio per il double evita errori di arrotondamento nella moltiplicazione
+		return Math.round(((double) amount) * CENTS_PER_UNIT);
+	}
+
+	/**
+	 * Converte un importo espresso in centesimi nel corrispondente valore in euro.<br>
+	 * Nota: il valore restituito è approssimato e va utilizzato solamente a scopo di visualizzazione
+	 * o di compatibilità, mai per effettuare calcoli.
+	 *
+	 * @param cents L'importo in centesimi
+	 * @return L'importo in euro
+	 */
+	public static float toFloat(long cents) {
+		return (float) (((double) cents) / CENTS_PER_UNIT);
+	}
+
+	/**
+	 * Somma due importi espressi in centesimi.
+	 *
+	 * Precondizione: la somma non deve eccedere la capacità di un <code>long</code>.
+	 *
+	 * @param first Il primo importo
+	 * @param second Il secondo importo
+	 * @return La somma dei due importi
+	 */
+	public static long add(long first, long second) {
+		try {
+			return Math.addExact(first, second);
+		}
+		catch (ArithmeticException ex) {
+			throw new IllegalArgumentException("Impossibile sommare gli importi: valore eccessivo", ex);
+		}
+	}
+
+	/**
+	 * Moltiplica un importo per un numero intero di unità (ad esempio, il numero di partecipanti).
+	 *
+	 * Precondizione: il prodotto non deve eccedere la capacità di un <code>long</code>.
+	 *
+	 * @param cents L'importo in centesimi
+	 * @param times Il fattore moltiplicativo
+	 * @return Il prodotto
+	 */
+	public static long multiply(long cents, long times) {
+		try {
+			return Math.multiplyExact(cents, times);
+		}
+		catch (ArithmeticException ex) {
+			throw new IllegalArgumentException("Impossibile moltiplicare l'importo: valore eccessivo", ex);
+		}
+	}
+
+	/**
+	 * Restituisce la rappresentazione testuale di un importo espresso in centesimi,
+	 * con due cifre decimali e il simbolo della valuta.<br>
+	 * La formattazione avviene in modo esatto, senza passare per valori in virgola mobile.
+	 *
+	 * @param cents L'importo in centesimi
+	 * @return La stringa che rappresenta l'importo
+	 */
+	public static String toString(long cents) {
+		StringBuilder s = new StringBuilder();
+		if (cents < 0) {
+			s.append('-');
+		}
+		// Lavoro sul valore assoluto, facendo attenzione al caso di Long.MIN_VALUE
+		long units = Math.abs(cents / CENTS_PER_UNIT);
+		long remainder = Math.abs(cents % CENTS_PER_UNIT);
+		s.append(units);
+		s.append(DecimalFormatSymbols.getInstance().getDecimalSeparator());
+		if (remainder < 10) {
+			s.append('0');
+		}
+		s.append(remainder);
+		s.append(CURRENCY_SYMBOL);
+		return s.toString();
+	}
+
+}
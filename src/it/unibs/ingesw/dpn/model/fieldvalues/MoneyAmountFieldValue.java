@@ -9,31 +9,64 @@ public class MoneyAmountFieldValue implements FieldValue, Serializable {
 	/**
 	 * 
 	 */
-	private static final long serialVersionUID = -5887722467075194461L;
+	private static final long serialVersionUID = -5887722467075194462L;
 	
-	private float value;
+	/** L'importo, espresso in centesimi (vedi {@link MoneyAmount}) */
+	private long cents;
 	
 	public MoneyAmountFieldValue() {
-		this.value = 0.0f;
+		this.cents = MoneyAmount.ZERO;
 	}
 	
+	/**
+	 * Crea un importo a partire da un valore in euro, arrotondato al centesimo.
+	 * 
+	 * @param value L'importo in euro
+	 */
 	public MoneyAmountFieldValue(float value) {
-		this.value = value;
+		this.cents = MoneyAmount.fromFloat(value);
+	}
+	
+	/**
+	 * Crea un importo a partire da un valore esatto in centesimi.
+	 * 
+	 * @param cents L'importo in centesimi
+	 * @return Il nuovo FieldValue
+	 */
+	public static MoneyAmountFieldValue ofCents(long cents) {
+		MoneyAmountFieldValue value = new MoneyAmountFieldValue();
+		value.cents = cents;
+		return value;
 	}
 	
 	@Override
 	public String toString() {
-		return String.format("%.2f €", this.value);
+		return MoneyAmount.toString(this.cents);
 	}
 	
+	/**
+	 * Restituisce l'importo in euro, in maniera approssimata.<br>
+	 * Per effettuare calcoli utilizzare {@link #getCents()}.
+	 * 
+	 * @return L'importo in euro
+	 */
 	public float getValue() {
-		return this.value;
+		return MoneyAmount.toFloat(this.cents);
+	}
+	
+	/**
+	 * Restituisce l'importo esatto, espresso in centesimi.
+	 * 
+	 * @return L'importo in centesimi
+	 */
+	public long getCents() {
+		return this.cents;
 	}
 
 	@Override
 	public void initializeValue(UserInterface userInterface) {
 		
-		this.value = userInterface.getter().getFloat();
+		this.cents = MoneyAmount.fromFloat(userInterface.getter().getFloat());
 		
 	}
 
@@ -1,12 +1,12 @@
 package it.unibs.ingesw.dpn.model.fieldvalues;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Stack;
-import java.util.List;
 import java.util.Collections;
 
 import it.unibs.ingesw.dpn.model.users.User;
@@ -19,15 +19,34 @@ public class OptionalCostsFieldValue implements UserDependantFieldValue, Seriali
 	/**
 	 * 
 	 */
-	private static final long serialVersionUID = 1605590568155502574L;
+	private static final long serialVersionUID = 1605590568155502576L;
 	
-	private LinkedHashMap<String, Float> costs;
-	private HashMap<String, List<User>> userChoices;
+	/** Le voci di spesa, con il relativo importo in centesimi (vedi {@link MoneyAmount}) */
+	private LinkedHashMap<String, Long> costs;
+	
+	/** Indice (ordinale) di ciascuna voce di spesa, nell'ordine di inserimento */
+	private HashMap<String, Integer> costOrdinals;
+	/**
+	 * Importi delle voci di spesa, indicizzati per ordinale, in un array primitivo che evita il boxing nel calcolo
+	 * delle spese. Poiche' duplica {@link #costs} non viene serializzato: e' ricostruito alla prima necessita'
+	 * dopo l'aggiunta di una voce e dopo la deserializzazione (vedi {@link #amountsByOrdinal()})
+	 */
+	private transient long[] amountsByOrdinal;
+	/** Per ciascuna voce di spesa (indicizzata per ordinale), l'insieme degli slot degli utenti che la sostengono */
+	private ArrayList<BitSet> userChoices;
+	
+	/** Slot assegnato a ciascun utente che ha espresso delle scelte */
+	private HashMap<User, Integer> userSlots;
+	/** Slot attualmente occupati */
+	private BitSet usedSlots;
 	
 	public OptionalCostsFieldValue() {
 		
 		this.costs = new LinkedHashMap<>();
-		this.userChoices = new HashMap<>();
+		this.costOrdinals = new HashMap<>();
+		this.userChoices = new ArrayList<>();
+		this.userSlots = new HashMap<>();
+		this.usedSlots = new BitSet();
 		
 	}
 	
@@ -38,9 +57,9 @@ public class OptionalCostsFieldValue implements UserDependantFieldValue, Seriali
 	 * Precondizione: name != null
 	 * 
 	 * @param name Il nome della voce di spesa
-	 * @param amount L'ammontare della spesa 
+	 * @param amount L'ammontare della spesa, in centesimi
 	 */
-	public void addEntry(String name, float amount) {
+	public void addEntry(String name, long amount) {
 		
 		// Verifica delle precondizioni
 		if (name == null) {
@@ -52,16 +71,18 @@ public class OptionalCostsFieldValue implements UserDependantFieldValue, Seriali
 		}
 		
 		costs.put(name, amount);
-		userChoices.put(name, new LinkedList<User>());
+		costOrdinals.put(name, userChoices.size());
+		userChoices.add(new BitSet());
+		amountsByOrdinal = null;
 		
 	}
 	
 	/**
 	 * Restituisce una view non modificabile del valore del campo
 	 * 
-	 * @return L'elenco delle coppie "voce di spesa" + "ammontare"
+	 * @return L'elenco delle coppie "voce di spesa" + "ammontare" (in centesimi)
 	 */
-	public Map<String, Float> getValue() {
+	public Map<String, Long> getValue() {
 		
 		return Collections.unmodifiableMap(costs);
 	}
@@ -74,7 +95,7 @@ public class OptionalCostsFieldValue implements UserDependantFieldValue, Seriali
 		for (String name : costs.keySet()) {
 			buffer.append(name);
 			buffer.append(": ");
-			buffer.append(String.format("%.2f €", costs.get(name)));
+			buffer.append(MoneyAmount.toString(costs.get(name)));
 			buffer.append("; ");
 		}
 		
@@ -104,7 +125,7 @@ public class OptionalCostsFieldValue implements UserDependantFieldValue, Seriali
 			throw new IllegalArgumentException();
 		}
 		
-		userChoices.get(cost).add(user);
+		userChoices.get(costOrdinals.get(cost)).set(this.acquireSlot(user));
 		return true;
 		
 	}
@@ -131,7 +152,10 @@ public class OptionalCostsFieldValue implements UserDependantFieldValue, Seriali
 			throw new IllegalArgumentException("Impossibile rimuovere un utente da una spesa che non sta sostenendo");
 		}
 		
-		userChoices.get(cost).remove(user);
+		Integer slot = userSlots.get(user);
+		if (slot != null) {
+			userChoices.get(costOrdinals.get(cost)).clear(slot);
+		}
 		return true;
 		
 	}
@@ -157,7 +181,8 @@ public class OptionalCostsFieldValue implements UserDependantFieldValue, Seriali
 			throw new IllegalArgumentException();
 		}
 		
-		return userChoices.get(cost).contains(user);
+		Integer slot = userSlots.get(user);
+		return slot != null && userChoices.get(costOrdinals.get(cost)).get(slot);
 		
 	}
 	
@@ -168,28 +193,113 @@ public class OptionalCostsFieldValue implements UserDependantFieldValue, Seriali
 	 * Precondizione: L'utente deve essere gia' registrato tra quelli che sostengono spese aggiuntive
 	 * 
 	 * @param user L'utente per il quale calcolare le spese aggiuntive
-	 * @return Le spese aggiuntive sostenute dall'utente
+	 * @return Le spese aggiuntive sostenute dall'utente, in centesimi
 	 */
-	public float getExpensesForUser(User user) {
+	public long getExpensesForUser(User user) {
+		
+		long amount = MoneyAmount.ZERO;
 		
-		float amount = 0.0f;
+		Integer slot = userSlots.get(user);
+		if (slot == null) {
+			return amount;
+		}
 		
-		for (String cost : userChoices.keySet()) {
+		long[] amounts = this.amountsByOrdinal();
+		for (int ordinal = 0; ordinal < amounts.length; ordinal++) {
 			
-			if (userChoices.get(cost).contains(user)) {
-				amount += costs.get(cost);
+			if (userChoices.get(ordinal).get(slot)) {
+				amount = MoneyAmount.add(amount, amounts[ordinal]);
 			}
 		}
 		
 		return amount;
 	}
 
+	/**
+	 * Restituisce il numero di utenti che hanno deciso di sostenere la spesa data
+	 * 
+	 * Precondizione: cost != null
+	 * Precondizione: il costo dato deve essere uno dei costi esistenti
+	 * 
+	 * @param cost Il costo in questione
+	 * @return Il numero di utenti che sostengono la spesa
+	 */
+	public int getUptakeForCost(String cost) {
+		
+		// Verifica delle precondizioni
+		if (cost == null) {
+			throw new IllegalArgumentException("Impossibile analizzare una spesa nulla");
+		}
+		
+		if (!costs.containsKey(cost)) {
+			throw new IllegalArgumentException("La spesa indicata non e' prevista da questo campo");
+		}
+		
+		return userChoices.get(costOrdinals.get(cost)).cardinality();
+	}
+	
+	/**
+	 * Restituisce l'importo complessivo delle spese opzionali sostenute da tutti gli utenti
+	 * 
+	 * @return L'importo complessivo, in centesimi
+	 */
+	public long getTotalExpenses() {
+		
+		long total = MoneyAmount.ZERO;
+		
+		long[] amounts = this.amountsByOrdinal();
+		for (int ordinal = 0; ordinal < amounts.length; ordinal++) {
+			total = MoneyAmount.add(total, MoneyAmount.multiply(
+					amounts[ordinal], 
+					userChoices.get(ordinal).cardinality()));
+		}
+		
+		return total;
+	}
+	
+	/**
+	 * Restituisce gli importi delle voci di spesa indicizzati per ordinale, ricavandoli 
+	 * da {@link #costs} se non sono gia' stati calcolati.
+	 * 
+	 * @return Gli importi, in centesimi
+	 */
+	private long[] amountsByOrdinal() {
+		
+		if (amountsByOrdinal == null) {
+			long[] amounts = new long[costs.size()];
+			int ordinal = 0;
+			for (long amount : costs.values()) {
+				amounts[ordinal++] = amount;
+			}
+			amountsByOrdinal = amounts;
+		}
+		return amountsByOrdinal;
+	}
+	
+	/**
+	 * Restituisce lo slot assegnato all'utente, assegnandogliene uno libero se l'utente 
+	 * non ne possiede ancora uno.
+	 * 
+	 * @param user L'utente
+	 * @return Lo slot dell'utente
+	 */
+	private int acquireSlot(User user) {
+		
+		Integer slot = userSlots.get(user);
+		if (slot == null) {
+			slot = usedSlots.nextClearBit(0);
+			usedSlots.set(slot);
+			userSlots.put(user, slot);
+		}
+		return slot;
+	}
+
 	@Override
 	public void initializeValue(UserInterface userInterface) {
 		
 		// Variabili ausiliarie
 		int option = 0;
-		LinkedHashMap<String, Float> entriesBuffer = new LinkedHashMap<>();
+		LinkedHashMap<String, Long> entriesBuffer = new LinkedHashMap<>();
 		Stack<String> entriesOrder = new Stack<String>();
 		
 		
@@ -199,7 +309,7 @@ public class OptionalCostsFieldValue implements UserDependantFieldValue, Seriali
 			// Stampa il riepilogo delle voci aggiunte
 			userInterface.renderer().renderText("Voci di spesa opzionali:");
 			for (String s : entriesBuffer.keySet()) {
-				userInterface.renderer().renderText(String.format(" - %s : %.2f €", s, entriesBuffer.get(s)));
+				userInterface.renderer().renderText(String.format(" - %s : %s", s, MoneyAmount.toString(entriesBuffer.get(s))));
 			}
 			userInterface.renderer().renderText("");
 			
@@ -221,7 +331,7 @@ public class OptionalCostsFieldValue implements UserDependantFieldValue, Seriali
 				userInterface.renderer().renderText("Inserisci la ragione della spesa");
 				String reason = userInterface.getter().getString();
 				userInterface.renderer().renderText("Inserisci l'ammontare della spesa");
-				float amount = userInterface.getter().getFloat();
+				long amount = MoneyAmount.fromFloat(userInterface.getter().getFloat());
 				
 				if (entriesBuffer.containsKey(reason)) {
 					userInterface.renderer().renderError("La voce di spesa inserita risulta gia' definita");
@@ -261,7 +371,7 @@ public class OptionalCostsFieldValue implements UserDependantFieldValue, Seriali
 		for (String cost : costs.keySet()) {
 			StringBuilder sb = new StringBuilder(cost);
 			sb.append(": ");
-			sb.append(String.format("%.2f €", costs.get(cost)));
+			sb.append(MoneyAmount.toString(costs.get(cost)));
 			sb.append("; ");
 			
 			choicesDescriptors.put(cost, sb.toString());
@@ -286,11 +396,16 @@ public class OptionalCostsFieldValue implements UserDependantFieldValue, Seriali
 	@Override
 	public void forgetUserCustomization(User user) {
 		
-		for (String cost : this.userChoices.keySet()) {
-			if (this.userChoices.get(cost).contains(user)) {
-				this.userChoices.get(cost).remove(user);
-			}
+		Integer slot = this.userSlots.remove(user);
+		if (slot == null) {
+			return;
+		}
+		
+		for (BitSet choice : this.userChoices) {
+			choice.clear(slot);
 		}
+		// Lo slot puo' essere riassegnato ad un altro utente
+		this.usedSlots.clear(slot);
 		
 	}
 	
@@ -102,7 +102,24 @@ public class TimeAmountFieldValue implements FieldValue, Serializable {
 		}
 		this.seconds = times * unit.getUnit().getDuration().getSeconds();
 	}
-	
+
+	/**
+	 * Costruisce un oggetto {@link TimeAmountFieldValue} a partire dal numero di secondi della durata.
+	 *
+	 * Precondizione: seconds >= 0
+	 *
+	 * @param seconds La durata, espressa in secondi
+	 * @return Il valore corrispondente
+	 */
+	public static TimeAmountFieldValue ofSeconds(long seconds) {
+		if (seconds < 0) {
+			throw new IllegalArgumentException("Parametri invalidi: impossibile creare un oggetto PeriodFieldValue con tempi negativi");
+		}
+		TimeAmountFieldValue value = new TimeAmountFieldValue();
+		value.seconds = seconds;
+		return value;
+	}
+
 	/**
 	 * Restituisce il numero di secondi totali della durata.
 	 * 
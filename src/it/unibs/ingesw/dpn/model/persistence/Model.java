@@ -1,6 +1,10 @@
 package it.unibs.ingesw.dpn.model.persistence;
 
+import it.unibs.ingesw.dpn.model.bus.EventPublished;
+import it.unibs.ingesw.dpn.model.bus.UsersInvited;
 import it.unibs.ingesw.dpn.model.events.EventBoard;
+import it.unibs.ingesw.dpn.model.events.Inviter;
+import it.unibs.ingesw.dpn.model.events.NewEventNotifier;
 import it.unibs.ingesw.dpn.model.users.UsersRepository;
 
 /**
@@ -32,5 +36,15 @@ public class Model {
 	public UsersRepository getUsersRepository() {
 		return this.users;
 	}
+	
+	/**
+	 * Collega al bus della bacheca i listener che recapitano notifiche ed inviti agli utenti:
+	 * le notifiche dei nuovi eventi (vedi {@link NewEventNotifier}) e gli inviti (vedi {@link Inviter}).<br>
+	 * Viene invocato una sola volta, dopo il caricamento del model (vedi {@link PersistenceManager#load()}).
+	 */
+	public void attachNotificationListeners() {
+		this.events.getEventBus().addListener(EventPublished.class, new NewEventNotifier(this.users));
+		this.events.getEventBus().addListener(UsersInvited.class, new Inviter());
+	}
 
 }
@@ -31,18 +31,27 @@ public class PersistenceManager {
 	}
 	
 	/**
-	 * Effettua il caricamento dei dati di dominio mediante la strategia specificata durante la costruzione di questo oggetto.
+	 * Effettua il caricamento dei dati di dominio mediante la strategia specificata durante la costruzione di questo oggetto,
+	 * e collega al model caricato i listener delle notifiche (vedi {@link Model#attachNotificationListeners()}).
 	 * 
 	 * @throws PersistenceException 
 	 */
 	public void load() throws PersistenceException {
 
+			Model previous = this.model;
 			this.model = this.strategy.loadModel();
+			this.model.attachNotificationListeners();
+			
+			// Il model sostituito non viene più utilizzato
+			if (previous != null) {
+				previous.getEventBoard().close();
+			}
 		
 	}
 	
 	/**
 	 * Effettua il salvataggio dei dati di dominio mediante la strategia specificata durante la costruzione di questo oggetto.
+	 * Le notifiche in attesa di raggruppamento vengono consegnate prima del salvataggio.
 	 * 
 	 * Precondizione: i dati di dominio devono essere stati precedentemente caricati mediante una chiamata
 	 *                al metodo load()
@@ -54,6 +63,8 @@ public class PersistenceManager {
 			throw new IllegalStateException();
 		}
 		
+		// Consegno le notifiche ancora in attesa di raggruppamento, in modo che vengano salvate
+		this.model.getEventBoard().getNotificationDigester().flush();
 		this.strategy.saveModel(this.model);
 		
 	}
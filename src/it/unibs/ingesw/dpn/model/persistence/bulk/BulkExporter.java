@@ -0,0 +1,170 @@
+package it.unibs.ingesw.dpn.model.persistence.bulk;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fields.Field;
+import it.unibs.ingesw.dpn.model.fields.Fieldable;
+import it.unibs.ingesw.dpn.model.fieldvalues.FieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.FieldValueCodecs;
+import it.unibs.ingesw.dpn.model.persistence.Model;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Esportazione massiva di utenti ed eventi in record testuali, nello stesso formato letto
+ * da {@link BulkImporter}.<br>
+ * I record vengono prodotti in blocchi: i record di ciascun blocco vengono codificati in parallelo
+ * e scritti nell'ordine originale.<br>
+ * <br>
+ * Nota: vengono esportati i valori dei campi, il creatore e gli iscritti di ciascun evento; lo stato,
+ * lo storico, le personalizzazioni degli utenti e il contenuto delle caselle di posta non vengono esportati.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class BulkExporter {
+
+	private final Model model;
+	private final int batchSize;
+
+	/**
+	 * Crea un esportatore per il model dato.
+	 *
+	 * Precondizione: model != null
+	 *
+	 * @param model Il model da esportare
+	 */
+	public BulkExporter(Model model) {
+		// Verifica della precondizione
+		if (model == null) {
+			throw new IllegalArgumentException("Impossibile esportare i dati di un model nullo");
+		}
+
+		this.model = model;
+		this.batchSize = BulkImporter.DEFAULT_BATCH_SIZE;
+	}
+
+	/**
+	 * Esporta tutti gli utenti registrati, nell'ordine di registrazione.
+	 *
+	 * @param out Lo stream su cui scrivere i record
+	 * @param format Il formato dei record
+	 * @return Il resoconto dell'esportazione
+	 * @throws IOException In caso di errori di scrittura
+	 */
+	public BulkReport exportUsers(Writer out, RecordFormat format) throws IOException {
+		return this.exportRecords(
+				out,
+				format,
+				RecordSchema.USER_COLUMNS,
+				this.model.getUsersRepository().getUsers(),
+				BulkExporter::userToRecord);
+	}
+
+	/**
+	 * Esporta gli eventi in bacheca nello stato dato.
+	 *
+	 * @param out Lo stream su cui scrivere i record
+	 * @param format Il formato dei record
+	 * @param stateName Il nome dello stato degli eventi da esportare, o null per esportarli tutti
+	 * @return Il resoconto dell'esportazione
+	 * @throws IOException In caso di errori di scrittura
+	 */
+	public BulkReport exportEvents(Writer out, RecordFormat format, String stateName) throws IOException {
+		List<Event> events = (stateName == null) ?
+				this.model.getEventBoard().getEvents() :
+				this.model.getEventBoard().getEventsByState(stateName);
+		return this.exportRecords(
+				out,
+				format,
+				RecordSchema.EVENT_COLUMNS,
+				events,
+				BulkExporter::eventToRecord);
+	}
+
+	/* CONVERSIONE IN RECORD */
+
+	private static Map<String, String> userToRecord(User user) {
+		Map<String, String> record = new LinkedHashMap<>();
+		putFields(record, user);
+		return record;
+	}
+
+	private static Map<String, String> eventToRecord(Event event) {
+		Map<String, String> record = new LinkedHashMap<>();
+		record.put(RecordSchema.CATEGORY_COLUMN, event.getCategory().name());
+		record.put(RecordSchema.CREATOR_COLUMN, event.getCreator().getNickname());
+		putFields(record, event);
+		// Il termine di ritiro coincide per default con il termine di iscrizione, ma non può essere acquisito
+		// con lo stesso valore: lo ometto, in modo che venga reimpostato per default all'importazione
+		if (Objects.equals(
+				record.get(RecordSchema.columnOf(CommonField.TERMINE_ULTIMO_DI_RITIRO_ISCRIZIONE)),
+				record.get(RecordSchema.columnOf(CommonField.TERMINE_ULTIMO_DI_ISCRIZIONE)))) {
+			record.remove(RecordSchema.columnOf(CommonField.TERMINE_ULTIMO_DI_RITIRO_ISCRIZIONE));
+		}
+
+		StringBuilder subscribers = new StringBuilder();
+		for (User subscriber : event.getSubscribers()) {
+			// Il creatore viene iscritto automaticamente alla pubblicazione
+			if (subscriber == event.getCreator()) {
+				continue;
+			}
+			FieldValueCodecs.appendListElement(subscribers, subscriber.getNickname());
+		}
+		record.put(RecordSchema.SUBSCRIBERS_COLUMN, subscribers.toString());
+		return record;
+	}
+
+	private static void putFields(Map<String, String> record, Fieldable fieldable) {
+		for (Map.Entry<Field, FieldValue> entry : fieldable.getAllFieldValues().entrySet()) {
+			if (entry.getValue() != null) {
+				record.put(RecordSchema.columnOf(entry.getKey()), FieldValueCodecs.format(entry.getValue()));
+			}
+		}
+	}
+
+	/* SCRITTURA A BLOCCHI */
+
+	private <T> BulkReport exportRecords(Writer out, RecordFormat format, List<String> columns,
+			List<T> items, Function<T, Map<String, String>> toRecord) throws IOException {
+		// Verifica delle precondizioni
+		if (out == null || format == null) {
+			throw new IllegalArgumentException("Impossibile esportare con parametri nulli");
+		}
+
+		long start = System.nanoTime();
+		BulkReport report = new BulkReport();
+		BufferedWriter writer = (out instanceof BufferedWriter) ? (BufferedWriter) out : new BufferedWriter(out);
+
+		if (format.hasHeader()) {
+			writer.write(format.encodeHeader(columns));
+			writer.newLine();
+		}
+
+		for (int from = 0; from < items.size(); from += this.batchSize) {
+			List<String> lines = items.subList(from, Math.min(from + this.batchSize, items.size()))
+					.parallelStream()
+					.map(item -> format.encode(toRecord.apply(item), columns))
+					.collect(Collectors.toList());
+			for (String line : lines) {
+				writer.write(line);
+				writer.newLine();
+				report.recordAccepted();
+			}
+		}
+		writer.flush();
+
+		report.setElapsedNanos(System.nanoTime() - start);
+		return report;
+	}
+
+}
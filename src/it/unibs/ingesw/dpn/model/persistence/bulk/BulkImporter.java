@@ -0,0 +1,365 @@
+package it.unibs.ingesw.dpn.model.persistence.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import it.unibs.ingesw.dpn.model.categories.Category;
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.events.EventBoard;
+import it.unibs.ingesw.dpn.model.fields.Field;
+import it.unibs.ingesw.dpn.model.fields.FieldCompatibilityException;
+import it.unibs.ingesw.dpn.model.fields.Fieldable;
+import it.unibs.ingesw.dpn.model.fields.builder.AbstractBuilder;
+import it.unibs.ingesw.dpn.model.fields.builder.EventBuilder;
+import it.unibs.ingesw.dpn.model.fields.builder.UserBuilder;
+import it.unibs.ingesw.dpn.model.fieldvalues.FieldValueCodecs;
+import it.unibs.ingesw.dpn.model.persistence.Model;
+import it.unibs.ingesw.dpn.model.users.User;
+import it.unibs.ingesw.dpn.model.users.UsersRepository;
+
+/**
+ * Importazione massiva di utenti ed eventi da record testuali (vedi {@link RecordFormat} e {@link FieldValueCodecs}),
+ * senza alcuna interazione con l'utente.<br>
+ * <br>
+ * Ogni oggetto viene costruito da un Builder privo di interfaccia utente, e quindi validato con le stesse regole
+ * applicate durante la creazione interattiva: per ogni campo vengono effettuati il controllo del tipo, il controllo
+ * di compatibilità con gli altri campi e la propagazione del valore
+ * (vedi {@link AbstractBuilder#setFieldValue(Field, String)}), quindi viene verificata la presenza dei campi
+ * obbligatori e vengono impostati i valori di default.
+ * Gli utenti devono avere un nickname non ancora registrato; gli eventi vengono pubblicati sulla bacheca,
+ * devono poter essere pubblicati e devono avere un creatore registrato.<br>
+ * I record non validi vengono scartati e riportati nel {@link BulkReport}, senza interrompere l'importazione.
+ * Gli iscritti di un evento che non possono essere iscritti (perché ripetuti, o perché l'evento è già pieno)
+ * vengono riportati come avvisi.<br>
+ * Gli eventi e le iscrizioni importati sono dati già esistenti: non vengono inviate notifiche né ai creatori,
+ * né agli iscritti, né agli utenti interessati alle nuove proposte
+ * (vedi {@link it.unibs.ingesw.dpn.model.events.EventBoard#addEvents(java.util.Collection)}).<br>
+ * <br>
+ * Le righe vengono lette in blocchi: i record di ciascun blocco vengono interpretati e validati in parallelo,
+ * quindi inseriti nel model in un'unica operazione, nell'ordine in cui compaiono.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class BulkImporter {
+
+	/** Numero di righe elaborate in ciascun blocco */
+	public static final int DEFAULT_BATCH_SIZE = 4096;
+
+	private final Model model;
+	private final int batchSize;
+
+	/**
+	 * Crea un importatore che inserisce utenti ed eventi nel model dato.
+	 *
+	 * Precondizione: model != null
+	 *
+	 * @param model Il model di destinazione
+	 */
+	public BulkImporter(Model model) {
+		this(model, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Crea un importatore che inserisce utenti ed eventi nel model dato, elaborando blocchi
+	 * della dimensione data.
+	 *
+	 * Precondizione: model != null, batchSize > 0
+	 *
+	 * @param model Il model di destinazione
+	 * @param batchSize Il numero di righe di ciascun blocco
+	 */
+	public BulkImporter(Model model, int batchSize) {
+		// Verifica delle precondizioni
+		if (model == null) {
+			throw new IllegalArgumentException("Impossibile importare dati in un model nullo");
+		} else if (batchSize <= 0) {
+			throw new IllegalArgumentException("La dimensione dei blocchi deve essere positiva");
+		}
+
+		this.model = model;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Importa gli utenti descritti dai record letti dallo stream.
+	 *
+	 * @param in Lo stream da cui leggere i record
+	 * @param format Il formato dei record
+	 * @return Il resoconto dell'importazione
+	 * @throws IOException In caso di errori di lettura
+	 */
+	public BulkReport importUsers(Reader in, RecordFormat format) throws IOException {
+		return this.importRecords(in, format, this::parseUser, this::storeUsers);
+	}
+
+	/**
+	 * Importa e pubblica gli eventi descritti dai record letti dallo stream.<br>
+	 * I creatori e gli iscritti degli eventi devono essere già registrati.
+	 *
+	 * @param in Lo stream da cui leggere i record
+	 * @param format Il formato dei record
+	 * @return Il resoconto dell'importazione
+	 * @throws IOException In caso di errori di lettura
+	 */
+	public BulkReport importEvents(Reader in, RecordFormat format) throws IOException {
+		return this.importRecords(in, format, this::parseEvent, this::storeEvents);
+	}
+
+	/* INTERPRETAZIONE E VALIDAZIONE (eseguite in parallelo) */
+
+	private User parseUser(Map<String, String> record) throws FieldCompatibilityException {
+		UserBuilder builder = new UserBuilder();
+		builder.startCreation();
+		return (User) build(builder, record, Collections.emptySet());
+	}
+
+	private ParsedEvent parseEvent(Map<String, String> record) throws FieldCompatibilityException {
+		String categoryName = record.get(RecordSchema.CATEGORY_COLUMN);
+		String creatorName = record.get(RecordSchema.CREATOR_COLUMN);
+		if (categoryName == null || creatorName == null) {
+			throw new IllegalArgumentException(String.format(
+					"Colonne \"%s\" e \"%s\" obbligatorie",
+					RecordSchema.CATEGORY_COLUMN,
+					RecordSchema.CREATOR_COLUMN));
+		}
+
+		// NOTA: durante l'interpretazione il repository degli utenti viene solamente letto
+		UsersRepository users = this.model.getUsersRepository();
+		User creator = users.getUser(creatorName);
+		if (creator == null) {
+			throw new IllegalArgumentException(String.format("Creatore \"%s\" non registrato", creatorName));
+		}
+
+		Category category;
+		try {
+			category = Category.valueOf(categoryName);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new IllegalArgumentException(String.format("Categoria \"%s\" non prevista", categoryName));
+		}
+
+		EventBuilder builder = new EventBuilder();
+		builder.startCreation(creator, category);
+
+		Set<String> reservedColumns = new HashSet<>();
+		reservedColumns.add(RecordSchema.CATEGORY_COLUMN);
+		reservedColumns.add(RecordSchema.CREATOR_COLUMN);
+		reservedColumns.add(RecordSchema.SUBSCRIBERS_COLUMN);
+		Event event = (Event) build(builder, record, reservedColumns);
+
+		List<User> subscribers = new ArrayList<>();
+		String subscriberNames = record.get(RecordSchema.SUBSCRIBERS_COLUMN);
+		if (subscriberNames != null) {
+			for (String name : FieldValueCodecs.parseList(subscriberNames)) {
+				if (name.trim().isEmpty()) {
+					continue;
+				}
+				User subscriber = users.getUser(name.trim());
+				if (subscriber == null) {
+					throw new IllegalArgumentException(String.format("Iscritto \"%s\" non registrato", name.trim()));
+				}
+				subscribers.add(subscriber);
+			}
+		}
+
+		return new ParsedEvent(event, subscribers);
+	}
+
+	/**
+	 * Imposta, tramite il Builder dato, i valori dei campi dell'oggetto in costruzione a partire da un record,
+	 * quindi verifica la presenza di tutti i campi obbligatori e finalizza la costruzione.
+	 */
+	private static Fieldable build(AbstractBuilder builder, Map<String, String> record, Set<String> reservedColumns)
+			throws FieldCompatibilityException {
+		Set<Field> fields = builder.getProvisionalFieldValues().keySet();
+
+		// Verifico che il record non contenga colonne sconosciute
+		Set<String> knownColumns = new HashSet<>(reservedColumns);
+		for (Field f : fields) {
+			knownColumns.add(RecordSchema.columnOf(f));
+		}
+		for (String column : record.keySet()) {
+			if (!knownColumns.contains(column)) {
+				throw new IllegalArgumentException(String.format("Colonna \"%s\" non prevista", column));
+			}
+		}
+
+		// Acquisisco i valori nell'ordine dei campi, come nella creazione interattiva
+		for (Field f : new ArrayList<>(fields)) {
+			String text = record.get(RecordSchema.columnOf(f));
+			if (text != null) {
+				builder.setFieldValue(f, text);
+			}
+		}
+
+		if (!builder.verifyMandatoryFields()) {
+			builder.cancel();
+			throw new IllegalArgumentException("Campi obbligatori mancanti");
+		}
+		return builder.finalise();
+	}
+
+	/* INSERIMENTO NEL MODEL (eseguito in sequenza) */
+
+	private void storeUsers(List<ParsedRecord<User>> batch, BulkReport report) {
+		UsersRepository users = this.model.getUsersRepository();
+		for (ParsedRecord<User> record : batch) {
+			if (record.error != null) {
+				report.recordRejected(record.lineNumber, record.error);
+			} else if (users.isNicknameExisting(record.value.getNickname())) {
+				report.recordRejected(record.lineNumber, String.format(
+						"Nickname \"%s\" già registrato", record.value.getNickname()));
+			} else {
+				users.addUser(record.value);
+				report.recordAccepted();
+			}
+		}
+	}
+
+	private void storeEvents(List<ParsedRecord<ParsedEvent>> batch, BulkReport report) {
+		EventBoard board = this.model.getEventBoard();
+		List<Event> events = new ArrayList<>();
+		for (ParsedRecord<ParsedEvent> record : batch) {
+			if (record.error == null) {
+				events.add(record.value.event);
+			}
+		}
+
+		Set<Event> published = Collections.newSetFromMap(new IdentityHashMap<>());
+		published.addAll(board.addEvents(events));
+
+		for (ParsedRecord<ParsedEvent> record : batch) {
+			if (record.error != null) {
+				report.recordRejected(record.lineNumber, record.error);
+			} else if (!published.contains(record.value.event)) {
+				report.recordRejected(record.lineNumber, "L'evento non può essere pubblicato");
+			} else {
+				for (User subscriber : board.loadSubscribers(record.value.event, record.value.subscribers)) {
+					report.recordWarning(record.lineNumber, String.format(
+							"Impossibile iscrivere \"%s\": già iscritto/a, o evento chiuso alle iscrizioni", subscriber.getNickname()));
+				}
+				report.recordAccepted();
+			}
+		}
+	}
+
+	/* LETTURA A BLOCCHI */
+
+	private <T> BulkReport importRecords(Reader in, RecordFormat format, RecordParser<T> parser, BatchStore<T> store)
+			throws IOException {
+		// Verifica delle precondizioni
+		if (in == null || format == null) {
+			throw new IllegalArgumentException("Impossibile importare con parametri nulli");
+		}
+
+		long start = System.nanoTime();
+		BulkReport report = new BulkReport();
+		BufferedReader reader = (in instanceof BufferedReader) ? (BufferedReader) in : new BufferedReader(in);
+
+		List<String> header = null;
+		List<RawLine> batch = new ArrayList<>(this.batchSize);
+		long lineNumber = 0;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			lineNumber++;
+			if (line.trim().isEmpty()) {
+				continue;
+			}
+			if (format.hasHeader() && header == null) {
+				header = format.decodeHeader(line);
+				continue;
+			}
+			batch.add(new RawLine(lineNumber, line));
+			if (batch.size() == this.batchSize) {
+				this.processBatch(batch, format, header, parser, store, report);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty()) {
+			this.processBatch(batch, format, header, parser, store, report);
+		}
+
+		report.setElapsedNanos(System.nanoTime() - start);
+		return report;
+	}
+
+	private <T> void processBatch(List<RawLine> batch, RecordFormat format, List<String> header,
+			RecordParser<T> parser, BatchStore<T> store, BulkReport report) {
+		// Interpretazione e validazione in parallelo; l'ordine delle righe viene mantenuto
+		List<ParsedRecord<T>> parsed = batch.parallelStream()
+				.map(raw -> {
+					try {
+						return new ParsedRecord<T>(raw.lineNumber, parser.parse(format.decode(raw.text, header)), null);
+					}
+					catch (FieldCompatibilityException | IllegalArgumentException ex) {
+						String reason = (ex.getMessage() != null) ? ex.getMessage() : ex.getClass().getSimpleName();
+						return new ParsedRecord<T>(raw.lineNumber, null, reason);
+					}
+				})
+				.collect(Collectors.toList());
+
+		// Inserimento in sequenza
+		store.store(parsed, report);
+	}
+
+	/* CLASSI E INTERFACCE DI UTILITA' */
+
+	@FunctionalInterface
+	private interface RecordParser<T> {
+		T parse(Map<String, String> record) throws FieldCompatibilityException;
+	}
+
+	@FunctionalInterface
+	private interface BatchStore<T> {
+		void store(List<ParsedRecord<T>> batch, BulkReport report);
+	}
+
+	private static class RawLine {
+
+		private final long lineNumber;
+		private final String text;
+
+		RawLine(long lineNumber, String text) {
+			this.lineNumber = lineNumber;
+			this.text = text;
+		}
+
+	}
+
+	private static class ParsedRecord<T> {
+
+		private final long lineNumber;
+		private final T value;
+		private final String error;
+
+		ParsedRecord(long lineNumber, T value, String error) {
+			this.lineNumber = lineNumber;
+			this.value = value;
+			this.error = error;
+		}
+
+	}
+
+	private static class ParsedEvent {
+
+		private final Event event;
+		private final List<User> subscribers;
+
+		ParsedEvent(Event event, List<User> subscribers) {
+			this.event = event;
+			this.subscribers = subscribers;
+		}
+
+	}
+
+}
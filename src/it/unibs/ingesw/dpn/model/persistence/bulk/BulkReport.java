@@ -0,0 +1,152 @@
+package it.unibs.ingesw.dpn.model.persistence.bulk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resoconto di un'importazione o di un'esportazione massiva: numero di record elaborati,
+ * accettati e scartati, con i motivi dei primi scarti e la velocità di elaborazione.<br>
+ * Un record accettato può essere importato solo in parte (ad esempio un evento di cui alcuni iscritti
+ * non possono essere iscritti): in tal caso il resoconto riporta un avviso.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class BulkReport {
+
+	/** Numero massimo di errori, e di avvisi, conservati nel resoconto */
+	public static final int MAX_REPORTED_ERRORS = 100;
+
+	private long processed;
+	private long accepted;
+	private long rejected;
+	private final List<String> errors;
+	private long warningCount;
+	private final List<String> warnings;
+	private long elapsedNanos;
+
+	BulkReport() {
+		this.processed = 0;
+		this.accepted = 0;
+		this.rejected = 0;
+		this.errors = new ArrayList<>();
+		this.warningCount = 0;
+		this.warnings = new ArrayList<>();
+		this.elapsedNanos = 0;
+	}
+
+	void recordAccepted() {
+		this.processed++;
+		this.accepted++;
+	}
+
+	void recordRejected(long lineNumber, String reason) {
+		this.processed++;
+		this.rejected++;
+		if (this.errors.size() < MAX_REPORTED_ERRORS) {
+			this.errors.add(String.format("Riga %d: %s", lineNumber, reason));
+		}
+	}
+
+	void recordWarning(long lineNumber, String warning) {
+		this.warningCount++;
+		if (this.warnings.size() < MAX_REPORTED_ERRORS) {
+			this.warnings.add(String.format("Riga %d: %s", lineNumber, warning));
+		}
+	}
+
+	void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return Il numero di record elaborati
+	 */
+	public long getProcessed() {
+		return this.processed;
+	}
+
+	/**
+	 * @return Il numero di record importati o esportati con successo
+	 */
+	public long getAccepted() {
+		return this.accepted;
+	}
+
+	/**
+	 * @return Il numero di record scartati
+	 */
+	public long getRejected() {
+		return this.rejected;
+	}
+
+	/**
+	 * Restituisce i motivi dei primi {@link #MAX_REPORTED_ERRORS} scarti, con il relativo numero di riga.
+	 *
+	 * @return La lista (immutabile) degli errori
+	 */
+	public List<String> getErrors() {
+		return Collections.unmodifiableList(this.errors);
+	}
+
+	/**
+	 * @return Il numero di avvisi sui record accettati solo in parte
+	 */
+	public long getWarningCount() {
+		return this.warningCount;
+	}
+
+	/**
+	 * Restituisce i primi {@link #MAX_REPORTED_ERRORS} avvisi, con il relativo numero di riga.
+	 *
+	 * @return La lista (immutabile) degli avvisi
+	 */
+	public List<String> getWarnings() {
+		return Collections.unmodifiableList(this.warnings);
+	}
+
+	/**
+	 * @return La durata dell'elaborazione, in millisecondi
+	 */
+	public long getElapsedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(this.elapsedNanos);
+	}
+
+	/**
+	 * @return Il numero di record elaborati al secondo
+	 */
+	public double getRecordsPerSecond() {
+		if (this.elapsedNanos == 0) {
+			return 0.0;
+		}
+		return this.processed * (double) TimeUnit.SECONDS.toNanos(1) / this.elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer s = new StringBuffer();
+		s.append(String.format("Record elaborati: %d (accettati: %d, scartati: %d)\n",
+				this.processed,
+				this.accepted,
+				this.rejected));
+		s.append(String.format("Durata: %d ms (%.0f record/s)\n",
+				this.getElapsedMillis(),
+				this.getRecordsPerSecond()));
+		for (String error : this.errors) {
+			s.append(" - ").append(error).append('\n');
+		}
+		if (this.rejected > this.errors.size()) {
+			s.append(String.format(" ... e altri %d errori\n", this.rejected - this.errors.size()));
+		}
+		for (String warning : this.warnings) {
+			s.append(" ! ").append(warning).append('\n');
+		}
+		if (this.warningCount > this.warnings.size()) {
+			s.append(String.format(" ... e altri %d avvisi\n", this.warningCount - this.warnings.size()));
+		}
+		return s.toString();
+	}
+
+}
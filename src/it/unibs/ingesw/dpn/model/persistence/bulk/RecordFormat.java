@@ -0,0 +1,407 @@
+package it.unibs.ingesw.dpn.model.persistence.bulk;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formati testuali "una riga, un record" supportati dall'importazione e dall'esportazione massive.<br>
+ * Ogni record è una mappa da nomi di colonna a valori testuali; un valore assente (o vuoto) indica
+ * un campo non compilato.
+ * <ul>
+ * 	<li> {@link #JSONL}: ogni riga è un oggetto JSON "piatto", i cui valori sono stringhe (o null). </li>
+ * 	<li> {@link #CSV}: la prima riga contiene i nomi delle colonne, separati da virgole; i valori che
+ * 	contengono virgole o doppi apici vengono racchiusi fra doppi apici. </li>
+ * </ul>
+ * In entrambi i casi un record non può estendersi su più righe.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public enum RecordFormat {
+
+	JSONL {
+
+		@Override
+		public boolean hasHeader() {
+			return false;
+		}
+
+		@Override
+		public String encodeHeader(List<String> columns) {
+			return null;
+		}
+
+		@Override
+		public String encode(Map<String, String> record, List<String> columns) {
+			StringBuilder line = new StringBuilder("{");
+			boolean first = true;
+			for (String column : columns) {
+				String value = record.get(column);
+				if (value == null || value.isEmpty()) {
+					continue;
+				}
+				if (!first) {
+					line.append(',');
+				}
+				appendJsonString(line, column);
+				line.append(':');
+				appendJsonString(line, value);
+				first = false;
+			}
+			return line.append('}').toString();
+		}
+
+		@Override
+		public Map<String, String> decode(String line, List<String> header) {
+			return new JsonObjectParser(line).parse();
+		}
+
+	},
+
+	CSV {
+
+		@Override
+		public boolean hasHeader() {
+			return true;
+		}
+
+		@Override
+		public String encodeHeader(List<String> columns) {
+			StringBuilder line = new StringBuilder();
+			for (String column : columns) {
+				if (line.length() > 0) {
+					line.append(',');
+				}
+				appendCsvValue(line, column);
+			}
+			return line.toString();
+		}
+
+		@Override
+		public String encode(Map<String, String> record, List<String> columns) {
+			StringBuilder line = new StringBuilder();
+			boolean first = true;
+			for (String column : columns) {
+				if (!first) {
+					line.append(',');
+				}
+				String value = record.get(column);
+				if (value != null) {
+					appendCsvValue(line, value);
+				}
+				first = false;
+			}
+			return line.toString();
+		}
+
+		@Override
+		public Map<String, String> decode(String line, List<String> header) {
+			// Verifica della precondizione
+			if (header == null) {
+				throw new IllegalArgumentException("Impossibile interpretare una riga CSV senza intestazione");
+			}
+
+			List<String> values = splitCsvLine(line);
+			if (values.size() != header.size()) {
+				throw new IllegalArgumentException(String.format(
+						"Numero di valori (%d) diverso dal numero di colonne (%d)",
+						values.size(),
+						header.size()));
+			}
+			Map<String, String> record = new LinkedHashMap<>();
+			for (int i = 0; i < header.size(); i++) {
+				if (!values.get(i).isEmpty()) {
+					record.put(header.get(i), values.get(i));
+				}
+			}
+			return record;
+		}
+
+	};
+
+	/**
+	 * Indica se il formato prevede una riga di intestazione con i nomi delle colonne.
+	 *
+	 * @return "True" se la prima riga è un'intestazione
+	 */
+	public abstract boolean hasHeader();
+
+	/**
+	 * Restituisce la riga di intestazione per le colonne date, o null se il formato non la prevede.
+	 *
+	 * @param columns Le colonne
+	 * @return La riga di intestazione
+	 */
+	public abstract String encodeHeader(List<String> columns);
+
+	/**
+	 * Codifica un record in una riga di testo.
+	 *
+	 * @param record Il record, come mappa da colonne a valori
+	 * @param columns Le colonne da scrivere, nell'ordine
+	 * @return La riga corrispondente al record
+	 */
+	public abstract String encode(Map<String, String> record, List<String> columns);
+
+	/**
+	 * Decodifica una riga di testo in un record.<br>
+	 * Le colonne con valore vuoto non vengono inserite nel record.
+	 *
+	 * @param line La riga
+	 * @param header L'intestazione letta in precedenza, o null se il formato non la prevede
+	 * @return Il record
+	 * @throws IllegalArgumentException Se la riga non è ben formata
+	 */
+	public abstract Map<String, String> decode(String line, List<String> header);
+
+	/**
+	 * Decodifica la riga di intestazione.
+	 *
+	 * @param line La riga di intestazione
+	 * @return I nomi delle colonne
+	 */
+	public List<String> decodeHeader(String line) {
+		return splitCsvLine(line);
+	}
+
+	/**
+	 * Sceglie il formato in base all'estensione del nome di un file: ".csv" per {@link #CSV},
+	 * qualunque altra estensione per {@link #JSONL}.
+	 *
+	 * @param fileName Il nome del file
+	 * @return Il formato corrispondente
+	 */
+	public static RecordFormat forFileName(String fileName) {
+		if (fileName != null && fileName.toLowerCase().endsWith(".csv")) {
+			return CSV;
+		}
+		return JSONL;
+	}
+
+	/* METODI PRIVATI DI UTILITA' */
+
+	private static void appendJsonString(StringBuilder s, String value) {
+		s.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				s.append("\\\"");
+				break;
+			case '\\':
+				s.append("\\\\");
+				break;
+			case '\n':
+				s.append("\\n");
+				break;
+			case '\r':
+				s.append("\\r");
+				break;
+			case '\t':
+				s.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					s.append(String.format("\\u%04x", (int) c));
+				} else {
+					s.append(c);
+				}
+			}
+		}
+		s.append('"');
+	}
+
+	private static void appendCsvValue(StringBuilder s, String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+			s.append(value);
+		} else {
+			s.append('"').append(value.replace("\"", "\"\"")).append('"');
+		}
+	}
+
+	private static List<String> splitCsvLine(String line) {
+		List<String> values = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		boolean quoted = false;
+
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"') {
+					if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+						current.append('"');
+						i++;
+					} else {
+						quoted = false;
+					}
+				} else {
+					current.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				values.add(current.toString());
+				current.setLength(0);
+			} else {
+				current.append(c);
+			}
+		}
+
+		if (quoted) {
+			throw new IllegalArgumentException("Doppi apici non chiusi");
+		}
+		values.add(current.toString());
+		return values;
+	}
+
+	/**
+	 * Interprete minimale di oggetti JSON "piatti": i valori possono essere stringhe, null,
+	 * oppure letterali (numeri e booleani) che vengono restituiti come testo.
+	 */
+	private static class JsonObjectParser {
+
+		private final String text;
+		private int position;
+
+		JsonObjectParser(String text) {
+			this.text = text;
+			this.position = 0;
+		}
+
+		Map<String, String> parse() {
+			Map<String, String> record = new LinkedHashMap<>();
+			this.expect('{');
+			this.skipWhitespace();
+			if (this.peek() == '}') {
+				this.position++;
+			} else {
+				do {
+					this.skipWhitespace();
+					String key = this.readString();
+					this.expect(':');
+					this.skipWhitespace();
+					String value = (this.peek() == '"') ? this.readString() : this.readLiteral();
+					if (value != null && !value.isEmpty()) {
+						record.put(key, value);
+					}
+					this.skipWhitespace();
+				} while (this.tryConsume(','));
+				this.expect('}');
+			}
+			this.skipWhitespace();
+			if (this.position != this.text.length()) {
+				throw this.error("contenuto inatteso dopo la fine dell'oggetto");
+			}
+			return record;
+		}
+
+		private String readString() {
+			this.expect('"');
+			StringBuilder s = new StringBuilder();
+			while (true) {
+				char c = this.next();
+				if (c == '"') {
+					return s.toString();
+				} else if (c != '\\') {
+					s.append(c);
+					continue;
+				}
+				char escaped = this.next();
+				switch (escaped) {
+				case '"':
+				case '\\':
+				case '/':
+					s.append(escaped);
+					break;
+				case 'n':
+					s.append('\n');
+					break;
+				case 'r':
+					s.append('\r');
+					break;
+				case 't':
+					s.append('\t');
+					break;
+				case 'b':
+					s.append('\b');
+					break;
+				case 'f':
+					s.append('\f');
+					break;
+				case 'u':
+					if (this.position + 4 > this.text.length()) {
+						throw this.error("sequenza unicode incompleta");
+					}
+					try {
+						s.append((char) Integer.parseInt(this.text.substring(this.position, this.position + 4), 16));
+					} catch (NumberFormatException ex) {
+						throw this.error("sequenza unicode non valida");
+					}
+					this.position += 4;
+					break;
+				default:
+					throw this.error("sequenza di escape non valida");
+				}
+			}
+		}
+
+		private String readLiteral() {
+			int start = this.position;
+			while (this.position < this.text.length()) {
+				char c = this.text.charAt(this.position);
+				if (c == ',' || c == '}' || Character.isWhitespace(c)) {
+					break;
+				}
+				this.position++;
+			}
+			String literal = this.text.substring(start, this.position);
+			if (literal.isEmpty()) {
+				throw this.error("valore mancante");
+			}
+			return literal.equals("null") ? null : literal;
+		}
+
+		private void skipWhitespace() {
+			while (this.position < this.text.length() && Character.isWhitespace(this.text.charAt(this.position))) {
+				this.position++;
+			}
+		}
+
+		private char peek() {
+			if (this.position >= this.text.length()) {
+				throw this.error("fine della riga inattesa");
+			}
+			return this.text.charAt(this.position);
+		}
+
+		private char next() {
+			char c = this.peek();
+			this.position++;
+			return c;
+		}
+
+		private void expect(char expected) {
+			this.skipWhitespace();
+			if (this.next() != expected) {
+				throw this.error(String.format("atteso '%c'", expected));
+			}
+		}
+
+		private boolean tryConsume(char c) {
+			if (this.position < this.text.length() && this.text.charAt(this.position) == c) {
+				this.position++;
+				return true;
+			}
+			return false;
+		}
+
+		private IllegalArgumentException error(String message) {
+			return new IllegalArgumentException(String.format(
+					"JSON non valido alla posizione %d: %s", this.position, message));
+		}
+
+	}
+
+}
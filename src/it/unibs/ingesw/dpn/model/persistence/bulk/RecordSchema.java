@@ -0,0 +1,74 @@
+package it.unibs.ingesw.dpn.model.persistence.bulk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import it.unibs.ingesw.dpn.model.categories.Category;
+import it.unibs.ingesw.dpn.model.fields.Field;
+import it.unibs.ingesw.dpn.model.fields.UserField;
+
+/**
+ * Colonne dei record di utenti ed eventi usati dall'importazione e dall'esportazione massive.<br>
+ * Ogni campo corrisponde ad una colonna con lo stesso nome della costante che lo definisce
+ * (ad esempio "NICKNAME" o "DATA_E_ORA"); gli eventi hanno in più le colonne {@link #CATEGORY_COLUMN},
+ * {@link #CREATOR_COLUMN} e {@link #SUBSCRIBERS_COLUMN}.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+final class RecordSchema {
+
+	/** Nome della categoria dell'evento, come costante di {@link Category} */
+	static final String CATEGORY_COLUMN = "CATEGORIA";
+	/** Nickname del creatore dell'evento */
+	static final String CREATOR_COLUMN = "CREATORE";
+	/** Nickname degli iscritti all'evento, separati da ";" (escluso il creatore) */
+	static final String SUBSCRIBERS_COLUMN = "ISCRITTI";
+
+	static final List<String> USER_COLUMNS;
+	static final List<String> EVENT_COLUMNS;
+
+	static {
+		List<String> userColumns = new ArrayList<>();
+		for (UserField f : UserField.values()) {
+			userColumns.add(columnOf(f));
+		}
+		USER_COLUMNS = Collections.unmodifiableList(userColumns);
+
+		// Le colonne degli eventi sono l'unione dei campi di tutte le categorie
+		Set<String> eventColumns = new LinkedHashSet<>();
+		eventColumns.add(CATEGORY_COLUMN);
+		eventColumns.add(CREATOR_COLUMN);
+		for (Category c : Category.values()) {
+			for (Field f : c.getFields()) {
+				eventColumns.add(columnOf(f));
+			}
+		}
+		eventColumns.add(SUBSCRIBERS_COLUMN);
+		EVENT_COLUMNS = Collections.unmodifiableList(new ArrayList<>(eventColumns));
+	}
+
+	/**
+	 * Costruttore privato: la classe non deve essere istanziata.
+	 */
+	private RecordSchema() {
+
+	}
+
+	/**
+	 * Restituisce il nome della colonna corrispondente ad un campo.
+	 *
+	 * @param field Il campo
+	 * @return Il nome della colonna
+	 */
+	static String columnOf(Field field) {
+		if (field instanceof Enum) {
+			return ((Enum<?>) field).name();
+		}
+		return field.getName();
+	}
+
+}
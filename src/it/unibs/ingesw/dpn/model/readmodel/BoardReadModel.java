@@ -0,0 +1,316 @@
+package it.unibs.ingesw.dpn.model.readmodel;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import it.unibs.ingesw.dpn.model.bus.DomainEvent;
+import it.unibs.ingesw.dpn.model.bus.DomainEventListener;
+import it.unibs.ingesw.dpn.model.bus.EventModified;
+import it.unibs.ingesw.dpn.model.bus.EventRemoved;
+import it.unibs.ingesw.dpn.model.bus.UserSubscribed;
+import it.unibs.ingesw.dpn.model.bus.UserUnsubscribed;
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.events.EventState;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Modello di lettura della bacheca: liste di eventi già pronte per le schermate di consultazione,
+ * proiettate dai fatti di dominio pubblicati sul bus della bacheca (vedi {@link it.unibs.ingesw.dpn.model.bus.DomainEventBus}):
+ * <ul>
+ * 	<li> gli eventi in bacheca in ciascuno stato; </li>
+ * 	<li> per ciascun utente, gli eventi aperti a cui è iscritto e di cui non è creatore ("Le mie iscrizioni"); </li>
+ * 	<li> per ciascun utente, gli eventi aperti da lui proposti ("Le mie proposte"). </li>
+ * </ul>
+ * Gli eventi di ciascuna lista sono nell'ordine di pubblicazione, come nella bacheca.<br>
+ * <br>
+ * Ciascuna lista è immutabile, e viene sostituita atomicamente da una nuova lista ad ogni modifica:
+ * le letture non acquisiscono alcun lock e non copiano le liste, e le liste restituite possono essere
+ * conservate e scorse liberamente anche mentre la bacheca viene modificata.
+ * Ad ogni fatto di dominio vengono aggiornate solamente le liste in cui l'evento interessato compare
+ * o deve comparire; le nuove liste condividono con le precedenti tutti i blocchi non modificati
+ * (vedi {@link ChunkedList}), per cui l'aggiornamento non copia l'intera lista.<br>
+ * Le iscrizioni e le disiscrizioni vengono proiettate a partire dal solo utente indicato dal fatto,
+ * senza rileggere gli iscritti dell'evento; l'evento viene riletto solamente alla pubblicazione e ai
+ * cambi di stato.<br>
+ * <br>
+ * Nota: ciascun evento viene letto e proiettato tenendo il suo monitor, lo stesso acquisito dai metodi
+ * che lo modificano e che pubblicano i fatti; le modifiche di uno stesso evento vengono quindi proiettate
+ * nell'ordine in cui sono avvenute.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class BoardReadModel implements DomainEventListener<DomainEvent> {
+
+	/**
+	 * Contenuto di un evento rilevante per le liste, al momento dell'ultima proiezione.
+	 */
+	private static class Projection {
+
+		private final long sequence;
+		private final String state;
+		private final User creator;
+		/** Utenti nella cui lista delle iscrizioni compare l'evento; modificato solamente dalle scritture */
+		private final Set<User> subscribers;
+
+		private Projection(long sequence, String state, User creator, Set<User> subscribers) {
+			this.sequence = sequence;
+			this.state = state;
+			this.creator = creator;
+			this.subscribers = subscribers;
+		}
+
+		private boolean isOpen() {
+			return EventState.OPEN.equals(this.state);
+		}
+
+	}
+
+	private final Map<String, ChunkedList<Event>> eventsByState;
+	private final Map<User, ChunkedList<Event>> subscriptionsByUser;
+	private final Map<User, ChunkedList<Event>> proposalsByUser;
+
+	/** Ultima proiezione di ciascun evento; utilizzata solamente dalle scritture */
+	private final Map<Event, Projection> projections;
+	private long nextSequence;
+
+	/**
+	 * Crea un modello di lettura vuoto.<br>
+	 * Gli eventi vengono tracciati mediante il metodo {@link #track(Event)}.
+	 */
+	public BoardReadModel() {
+		this.eventsByState = new ConcurrentHashMap<>();
+		this.subscriptionsByUser = new ConcurrentHashMap<>();
+		this.proposalsByUser = new ConcurrentHashMap<>();
+		this.projections = new IdentityHashMap<>();
+		this.nextSequence = 0;
+	}
+
+	/**
+	 * Inizia a tracciare un evento in bacheca, se non è già tracciato.<br>
+	 * Un evento ritirato non viene tracciato, poiché è stato (o sta per essere) rimosso dalla bacheca.
+	 *
+	 * Precondizione: event != null
+	 *
+	 * @param event L'evento da tracciare
+	 */
+	public void track(Event event) {
+		// Verifica della precondizione
+		if (event == null) {
+			throw new IllegalArgumentException("Impossibile tracciare un evento nullo");
+		}
+
+		synchronized (event) {
+			synchronized (this) {
+				if (!this.projections.containsKey(event) && !EventState.WITHDRAWN.equals(event.getState())) {
+					this.project(event);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Aggiorna le liste in base al fatto di dominio ricevuto dal bus.
+	 *
+	 * @param domainEvent Il fatto di dominio
+	 */
+	@Override
+	public void handle(DomainEvent domainEvent) {
+		Event event = domainEvent.getSource();
+		synchronized (event) {
+			synchronized (this) {
+				Projection current = this.projections.get(event);
+				if (domainEvent instanceof EventRemoved) {
+					this.replace(event, current, null);
+					this.projections.remove(event);
+				}
+				else if (current != null && domainEvent instanceof UserSubscribed) {
+					this.addSubscriber(event, current, ((UserSubscribed) domainEvent).getUser());
+				}
+				else if (current != null && domainEvent instanceof UserUnsubscribed) {
+					this.removeSubscriber(event, current, ((UserUnsubscribed) domainEvent).getUser());
+				}
+				else if (current == null || domainEvent.getClass() != EventModified.class) {
+					// Le sole modifiche dei campi non cambiano il contenuto delle liste
+					this.project(event);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Restituisce gli eventi in bacheca nello stato dato.
+	 *
+	 * @param stateName Il nome dello stato
+	 * @return Gli eventi nello stato dato, in una lista immutabile
+	 */
+	public List<Event> getEventsByState(String stateName) {
+		return listOf(this.eventsByState, stateName);
+	}
+
+	/**
+	 * Restituisce gli eventi aperti a cui l'utente dato è iscritto e di cui non è creatore.
+	 *
+	 * @param user L'utente
+	 * @return Le iscrizioni dell'utente, in una lista immutabile
+	 */
+	public List<Event> getSubscriptions(User user) {
+		return listOf(this.subscriptionsByUser, user);
+	}
+
+	/**
+	 * Restituisce gli eventi aperti proposti dall'utente dato.
+	 *
+	 * @param user L'utente
+	 * @return Le proposte dell'utente, in una lista immutabile
+	 */
+	public List<Event> getProposals(User user) {
+		return listOf(this.proposalsByUser, user);
+	}
+
+	private static <K> List<Event> listOf(Map<K, ChunkedList<Event>> lists, K key) {
+		if (key == null) {
+			return Collections.emptyList();
+		}
+		List<Event> list = lists.get(key);
+		return (list != null) ? list : Collections.emptyList();
+	}
+
+	/**
+	 * Proietta il contenuto attuale dell'evento dato.
+	 */
+	private void project(Event event) {
+		Projection old = this.projections.get(event);
+		long sequence = (old != null) ? old.sequence : this.nextSequence++;
+
+		String state = event.getState();
+		User creator = event.getCreator();
+		Set<User> subscribers = Collections.newSetFromMap(new IdentityHashMap<>());
+		if (EventState.OPEN.equals(state)) {
+			subscribers.addAll(event.getSubscribers());
+			subscribers.remove(creator);
+		}
+
+		Projection current = new Projection(sequence, state, creator, subscribers);
+		this.projections.put(event, current);
+		this.replace(event, old, current);
+	}
+
+	/**
+	 * Aggiunge l'utente iscritto all'evento dato alla proiezione dell'evento e alla lista delle sue iscrizioni.
+	 */
+	private void addSubscriber(Event event, Projection projection, User user) {
+		if (projection.isOpen() && user != projection.creator && projection.subscribers.add(user)) {
+			this.insert(this.subscriptionsByUser, user, event, projection.sequence);
+		}
+	}
+
+	/**
+	 * Rimuove l'utente disiscritto dall'evento dato dalla proiezione dell'evento e dalla lista delle sue iscrizioni.
+	 */
+	private void removeSubscriber(Event event, Projection projection, User user) {
+		if (projection.subscribers.remove(user)) {
+			this.remove(this.subscriptionsByUser, user, event, projection.sequence);
+		}
+	}
+
+	/**
+	 * Sostituisce la proiezione di un evento nelle liste, aggiornando solamente le liste in cui l'evento
+	 * compariva o deve comparire.
+	 *
+	 * @param event L'evento
+	 * @param old La proiezione precedente, o null se l'evento non era tracciato
+	 * @param current La nuova proiezione, o null se l'evento non deve essere più tracciato
+	 */
+	private void replace(Event event, Projection old, Projection current) {
+		// Liste per stato
+		String oldState = (old != null) ? old.state : null;
+		String newState = (current != null) ? current.state : null;
+		if (oldState != null && !oldState.equals(newState)) {
+			this.remove(this.eventsByState, oldState, event, old.sequence);
+		}
+		if (newState != null && !newState.equals(oldState)) {
+			this.insert(this.eventsByState, newState, event, current.sequence);
+		}
+
+		// Proposte
+		boolean wasProposed = old != null && old.isOpen();
+		boolean isProposed = current != null && current.isOpen();
+		if (wasProposed && !isProposed) {
+			this.remove(this.proposalsByUser, old.creator, event, old.sequence);
+		}
+		else if (isProposed && !wasProposed) {
+			this.insert(this.proposalsByUser, current.creator, event, current.sequence);
+		}
+
+		// Iscrizioni
+		if (old != null) {
+			for (User user : old.subscribers) {
+				if (current == null || !current.subscribers.contains(user)) {
+					this.remove(this.subscriptionsByUser, user, event, old.sequence);
+				}
+			}
+		}
+		if (current != null) {
+			for (User user : current.subscribers) {
+				if (old == null || !old.subscribers.contains(user)) {
+					this.insert(this.subscriptionsByUser, user, event, current.sequence);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sostituisce la lista associata alla chiave data con una nuova lista che contiene anche l'evento dato,
+	 * nella posizione corrispondente al suo ordine di pubblicazione.
+	 */
+	private <K> void insert(Map<K, ChunkedList<Event>> lists, K key, Event event, long sequence) {
+		ChunkedList<Event> list = lists.getOrDefault(key, ChunkedList.empty());
+		lists.put(key, list.insert(this.positionOf(list, sequence), event));
+	}
+
+	/**
+	 * Sostituisce la lista associata alla chiave data con una nuova lista che non contiene l'evento dato;
+	 * le liste vuote vengono rimosse.
+	 */
+	private <K> void remove(Map<K, ChunkedList<Event>> lists, K key, Event event, long sequence) {
+		ChunkedList<Event> list = lists.get(key);
+		if (list == null) {
+			return;
+		}
+
+		int position = this.positionOf(list, sequence);
+		if (position < list.size() && list.get(position) == event) {
+			ChunkedList<Event> rest = list.delete(position);
+			if (rest.isEmpty()) {
+				lists.remove(key);
+			}
+			else {
+				lists.put(key, rest);
+			}
+		}
+	}
+
+	/**
+	 * Ricerca binaria della posizione del primo evento della lista pubblicato non prima della sequenza data.
+	 */
+	private int positionOf(List<Event> list, long sequence) {
+		int low = 0;
+		int high = list.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.projections.get(list.get(middle)).sequence < sequence) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+}
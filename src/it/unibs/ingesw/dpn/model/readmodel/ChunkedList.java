@@ -0,0 +1,180 @@
+package it.unibs.ingesw.dpn.model.readmodel;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Lista immutabile e persistente, suddivisa in blocchi di al più {@link #MAX_CHUNK_SIZE} elementi.<br>
+ * Gli inserimenti e le rimozioni restituiscono una nuova lista che condivide con la precedente tutti i blocchi
+ * non interessati dalla modifica: il costo di una modifica è proporzionale alla dimensione di un blocco più
+ * il numero di blocchi, e non al numero di elementi della lista. La lista originale resta invariata e può
+ * essere letta da altri thread senza alcuna sincronizzazione.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ * @param <E> Il tipo degli elementi della lista
+ */
+final class ChunkedList<E> extends AbstractList<E> implements RandomAccess {
+
+	/** Numero massimo di elementi in un blocco; un blocco pieno viene diviso a metà */
+	static final int MAX_CHUNK_SIZE = 64;
+
+	private static final ChunkedList<Object> EMPTY = new ChunkedList<>(new Object[0][], new int[0], 0);
+
+	/** Blocchi della lista, mai vuoti e mai modificati dopo la creazione */
+	private final Object[][] chunks;
+	/** Indice nella lista del primo elemento di ciascun blocco */
+	private final int[] offsets;
+	private final int size;
+
+	private ChunkedList(Object[][] chunks, int[] offsets, int size) {
+		this.chunks = chunks;
+		this.offsets = offsets;
+		this.size = size;
+	}
+
+	/**
+	 * Restituisce la lista vuota.
+	 *
+	 * @return La lista vuota
+	 */
+	@SuppressWarnings("unchecked")
+	static <E> ChunkedList<E> empty() {
+		return (ChunkedList<E>) EMPTY;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Indice " + index + " non valido per una lista di " + this.size + " elementi");
+		}
+		int chunk = this.chunkOf(index);
+		return (E) this.chunks[chunk][index - this.offsets[chunk]];
+	}
+
+	/**
+	 * Restituisce una nuova lista ottenuta inserendo l'elemento dato nella posizione data.
+	 *
+	 * Precondizione: 0 <= index <= size()
+	 *
+	 * @param index La posizione dell'elemento nella nuova lista
+	 * @param element L'elemento da inserire
+	 * @return La nuova lista
+	 */
+	ChunkedList<E> insert(int index, E element) {
+		// Verifica della precondizione
+		if (index < 0 || index > this.size) {
+			throw new IndexOutOfBoundsException("Indice " + index + " non valido per una lista di " + this.size + " elementi");
+		}
+
+		if (this.chunks.length == 0) {
+			return new ChunkedList<>(new Object[][] {{element}}, new int[] {0}, 1);
+		}
+
+		// In coda alla lista l'elemento viene aggiunto all'ultimo blocco
+		int chunk = (index == this.size) ? this.chunks.length - 1 : this.chunkOf(index);
+		Object[] old = this.chunks[chunk];
+		int position = index - this.offsets[chunk];
+
+		Object[] grown = new Object[old.length + 1];
+		System.arraycopy(old, 0, grown, 0, position);
+		grown[position] = element;
+		System.arraycopy(old, position, grown, position + 1, old.length - position);
+
+		if (grown.length <= MAX_CHUNK_SIZE) {
+			Object[][] chunks = this.chunks.clone();
+			chunks[chunk] = grown;
+			return new ChunkedList<>(chunks, this.shiftedOffsets(chunk, 1), this.size + 1);
+		}
+
+		// Il blocco pieno viene diviso in due metà
+		int half = grown.length / 2;
+		Object[][] chunks = new Object[this.chunks.length + 1][];
+		System.arraycopy(this.chunks, 0, chunks, 0, chunk);
+		chunks[chunk] = Arrays.copyOfRange(grown, 0, half);
+		chunks[chunk + 1] = Arrays.copyOfRange(grown, half, grown.length);
+		System.arraycopy(this.chunks, chunk + 1, chunks, chunk + 2, this.chunks.length - chunk - 1);
+		return new ChunkedList<>(chunks, offsetsOf(chunks), this.size + 1);
+	}
+
+	/**
+	 * Restituisce una nuova lista ottenuta rimuovendo l'elemento nella posizione data.
+	 *
+	 * Precondizione: 0 <= index < size()
+	 *
+	 * @param index La posizione dell'elemento da rimuovere
+	 * @return La nuova lista
+	 */
+	ChunkedList<E> delete(int index) {
+		// Verifica della precondizione
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Indice " + index + " non valido per una lista di " + this.size + " elementi");
+		}
+
+		int chunk = this.chunkOf(index);
+		Object[] old = this.chunks[chunk];
+		if (old.length == 1) {
+			// Il blocco rimasto vuoto viene eliminato
+			Object[][] chunks = new Object[this.chunks.length - 1][];
+			System.arraycopy(this.chunks, 0, chunks, 0, chunk);
+			System.arraycopy(this.chunks, chunk + 1, chunks, chunk, this.chunks.length - chunk - 1);
+			return new ChunkedList<>(chunks, offsetsOf(chunks), this.size - 1);
+		}
+
+		int position = index - this.offsets[chunk];
+		Object[] shrunk = new Object[old.length - 1];
+		System.arraycopy(old, 0, shrunk, 0, position);
+		System.arraycopy(old, position + 1, shrunk, position, old.length - position - 1);
+
+		Object[][] chunks = this.chunks.clone();
+		chunks[chunk] = shrunk;
+		return new ChunkedList<>(chunks, this.shiftedOffsets(chunk, -1), this.size - 1);
+	}
+
+	/**
+	 * Ricerca binaria del blocco che contiene l'elemento nella posizione data.
+	 */
+	private int chunkOf(int index) {
+		int low = 0;
+		int high = this.offsets.length - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (this.offsets[middle] <= index) {
+				low = middle;
+			}
+			else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Copia gli indici iniziali dei blocchi, spostando di delta quelli dei blocchi successivi al blocco dato.
+	 */
+	private int[] shiftedOffsets(int chunk, int delta) {
+		int[] offsets = this.offsets.clone();
+		for (int i = chunk + 1; i < offsets.length; i++) {
+			offsets[i] += delta;
+		}
+		return offsets;
+	}
+
+	private static int[] offsetsOf(Object[][] chunks) {
+		int[] offsets = new int[chunks.length];
+		int offset = 0;
+		for (int i = 0; i < chunks.length; i++) {
+			offsets[i] = offset;
+			offset += chunks[i].length;
+		}
+		return offsets;
+	}
+
+}
@@ -0,0 +1,700 @@
+package it.unibs.ingesw.dpn.model.recommendations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import it.unibs.ingesw.dpn.model.bus.DomainEvent;
+import it.unibs.ingesw.dpn.model.bus.DomainEventListener;
+import it.unibs.ingesw.dpn.model.bus.EventRemoved;
+import it.unibs.ingesw.dpn.model.bus.UserSubscribed;
+import it.unibs.ingesw.dpn.model.bus.UserUnsubscribed;
+import it.unibs.ingesw.dpn.model.categories.Category;
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.events.EventState;
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fields.UserField;
+import it.unibs.ingesw.dpn.model.fieldvalues.CategoryListFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.DateFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.FieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.IntegerFieldValue;
+import it.unibs.ingesw.dpn.model.time.Clocks;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Bacheca personalizzata: per ciascun utente, elenco degli eventi aperti ai quali può iscriversi,
+ * ordinati secondo un punteggio che tiene conto di:
+ * <ul>
+ * 	<li> interesse dell'utente per la categoria dell'evento </li>
+ * 	<li> presenza fra gli iscritti di utenti con cui l'utente ha già partecipato ad eventi conclusi </li>
+ * 	<li> posti ancora disponibili </li>
+ * 	<li> vicinanza della data di svolgimento </li>
+ * </ul>
+ * La bacheca mantiene una copia dei dati rilevanti di ciascun evento tracciato (categoria, creatore, iscritti,
+ * posti e data), aggiornata in maniera incrementale dai fatti di dominio: un'iscrizione o una disiscrizione
+ * aggiornano solamente l'evento interessato e i contatori degli utenti che hanno già partecipato con l'utente
+ * iscritto, senza rileggere l'evento. La consultazione della bacheca personalizzata non scorre quindi la bacheca
+ * e non accede agli eventi.<br>
+ * Per ciascun utente viene mantenuto in una cache il numero di compagni di partecipazione iscritti a ciascun evento;
+ * la cache viene invalidata quando l'utente partecipa ad un nuovo evento concluso.
+ * La componente legata alla data varia nel tempo, e viene calcolata con la risoluzione di un'ora: il valore
+ * di ciascun evento viene ricalcolato solo al cambio dell'ora.<br>
+ * <br>
+ * Anche la bacheca personalizzata di ciascun utente, già ordinata, viene mantenuta in una cache: resta valida
+ * finché non cambiano l'insieme degli eventi aperti, i compagni di partecipazione dell'utente o l'ora corrente.
+ * Quando cambiano i dati o gli iscritti di un evento aperto vengono invalidate solamente le bacheche degli utenti
+ * interessati, ossia quelle che contengono l'evento e quelle nelle quali l'evento, con il nuovo punteggio, entrerebbe.
+ * Una bacheca invalidata viene ricalcolata selezionando i migliori eventi con un heap di dimensione limitata,
+ * senza ordinare tutti gli eventi aperti. A parità di punteggio, gli eventi seguono l'ordine in cui sono stati tracciati.<br>
+ * <br>
+ * Nota: ciascun evento viene letto tenendo il suo monitor e, solo in seguito, il monitor della bacheca
+ * personalizzata; mentre si detiene quest'ultimo non viene mai acquisito il monitor di un evento.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class RecommendationFeed implements DomainEventListener<DomainEvent> {
+	
+	/** Pesi delle componenti del punteggio */
+	private static final double CATEGORY_WEIGHT = 3.0;
+	private static final double CO_PARTICIPANT_WEIGHT = 1.0;
+	private static final int MAX_COUNTED_CO_PARTICIPANTS = 5;
+	private static final double CAPACITY_WEIGHT = 1.0;
+	private static final double PROXIMITY_WEIGHT = 2.0;
+	
+	/** Distanza temporale (in giorni) alla quale la componente legata alla data si dimezza */
+	private static final double PROXIMITY_HALF_LIFE_DAYS = 7.0;
+	private static final double MILLIS_PER_DAY = 24.0 * 60 * 60 * 1000;
+	/** Risoluzione del calcolo della componente legata alla data */
+	private static final long PROXIMITY_RESOLUTION_MILLIS = 60 * 60 * 1000;
+	
+	/**
+	 * Dati di un evento aperto rilevanti per i punteggi.
+	 */
+	private static class Snapshot {
+	
+		private Category category;
+		private User creator;
+		/** Numero massimo di iscritti, tolleranza compresa */
+		private int maxSubscribers;
+		/** Data di svolgimento in millisecondi, o null se non definita */
+		private Long date;
+		private final Set<User> subscribers = Collections.newSetFromMap(new IdentityHashMap<>());
+		/** Ordine in cui l'evento è stato tracciato, utilizzato a parità di punteggio */
+		private long sequence;
+		/** Componente del punteggio legata alla data, e istante (arrotondato all'ora) in cui è stata calcolata */
+		private double proximity;
+		private long proximityTime = Long.MIN_VALUE;
+		
+		private double getRemainingCapacityRatio() {
+			if (this.maxSubscribers <= 0) {
+				return 0.0;
+			}
+			double remaining = this.maxSubscribers - this.subscribers.size();
+			return Math.max(0.0, Math.min(1.0, remaining / this.maxSubscribers));
+		}
+		
+		private double getProximity(long time) {
+			if (this.proximityTime != time) {
+				this.proximity = getProximityScore(this.date, time);
+				this.proximityTime = time;
+			}
+			return this.proximity;
+		}
+		
+	}
+	
+	/**
+	 * Bacheca personalizzata già calcolata per un utente.
+	 */
+	private static class RankedFeed {
+		
+		/** Versione dell'insieme degli eventi aperti su cui è stata calcolata */
+		private final long version;
+		/** Istante, arrotondato all'ora, su cui è stata calcolata */
+		private final long time;
+		/** Numero massimo di eventi richiesto */
+		private final int limit;
+		/** Categorie di interesse dell'utente su cui è stata calcolata */
+		private final CategoryListFieldValue interests;
+		private final List<Event> events;
+		/** Punteggio e ordine di tracciamento dell'ultimo evento selezionato */
+		private final double lastScore;
+		private final long lastSequence;
+		
+		private RankedFeed(long version, long time, int limit, CategoryListFieldValue interests, List<Event> events, double lastScore, long lastSequence) {
+			this.version = version;
+			this.time = time;
+			this.limit = limit;
+			this.interests = interests;
+			this.events = events;
+			this.lastScore = lastScore;
+			this.lastSequence = lastSequence;
+		}
+		
+	}
+	
+	/**
+	 * Selezione dei migliori eventi mediante un heap di dimensione limitata, il cui primo elemento è il peggiore
+	 * fra i migliori trovati finora.
+	 */
+	private static class TopEvents {
+		
+		private final Event [] events;
+		private final double [] scores;
+		private final long [] sequences;
+		private int size;
+		
+		private TopEvents(int capacity) {
+			this.events = new Event[capacity];
+			this.scores = new double[capacity];
+			this.sequences = new long[capacity];
+			this.size = 0;
+		}
+		
+		void offer(Event event, double score, long sequence) {
+			if (this.size < this.events.length) {
+				this.set(this.size, event, score, sequence);
+				this.siftUp(this.size++);
+			} else if (this.size > 0 && ranksBefore(score, sequence, this.scores[0], this.sequences[0])) {
+				this.set(0, event, score, sequence);
+				this.siftDown(0, this.size);
+			}
+		}
+		
+		/**
+		 * Restituisce il punteggio del peggiore fra i migliori eventi trovati finora.
+		 */
+		double lastScore() {
+			return (this.size > 0) ? this.scores[0] : Double.NEGATIVE_INFINITY;
+		}
+		
+		/**
+		 * Restituisce l'ordine di tracciamento del peggiore fra i migliori eventi trovati finora.
+		 */
+		long lastSequence() {
+			return (this.size > 0) ? this.sequences[0] : Long.MAX_VALUE;
+		}
+		
+		/**
+		 * Svuota l'heap, restituendo gli eventi in ordine decrescente di punteggio.
+		 */
+		List<Event> drain() {
+			Event [] ranking = new Event[this.size];
+			for (int i = this.size - 1; i >= 0; i--) {
+				ranking[i] = this.events[0];
+				this.swap(0, i);
+				this.siftDown(0, i);
+			}
+			this.size = 0;
+			return Arrays.asList(ranking);
+		}
+		
+		private static boolean ranksBefore(double score, long sequence, double otherScore, long otherSequence) {
+			int byScore = Double.compare(score, otherScore);
+			return (byScore != 0) ? byScore > 0 : sequence < otherSequence;
+		}
+		
+		private boolean ranksBefore(int a, int b) {
+			return ranksBefore(this.scores[a], this.sequences[a], this.scores[b], this.sequences[b]);
+		}
+		
+		private void siftUp(int position) {
+			while (position > 0) {
+				int parent = (position - 1) >>> 1;
+				if (!this.ranksBefore(parent, position)) {
+					break;
+				}
+				this.swap(parent, position);
+				position = parent;
+			}
+		}
+		
+		private void siftDown(int position, int size) {
+			while (true) {
+				int child = 2 * position + 1;
+				if (child >= size) {
+					break;
+				}
+				if (child + 1 < size && this.ranksBefore(child, child + 1)) {
+					child++;
+				}
+				if (!this.ranksBefore(position, child)) {
+					break;
+				}
+				this.swap(position, child);
+				position = child;
+			}
+		}
+		
+		private void set(int position, Event event, double score, long sequence) {
+			this.events[position] = event;
+			this.scores[position] = score;
+			this.sequences[position] = sequence;
+		}
+		
+		private void swap(int a, int b) {
+			Event event = this.events[a];
+			double score = this.scores[a];
+			long sequence = this.sequences[a];
+			this.set(a, this.events[b], this.scores[b], this.sequences[b]);
+			this.set(b, event, score, sequence);
+		}
+		
+	}
+	
+	/** Eventi aperti tracciati */
+	private final Map<Event, Snapshot> openEvents;
+	/** Per ciascun utente, gli eventi aperti a cui è iscritto */
+	private final Map<User, Set<Event>> subscriptionsByUser;
+	/** Partecipanti di ciascun evento concluso tracciato */
+	private final Map<Event, List<User>> endedEvents;
+	/** Per ciascun utente, gli utenti con cui ha partecipato ad eventi conclusi e il numero di tali eventi */
+	private final Map<User, Map<User, Integer>> coParticipantsByUser;
+	/** Cache: per ciascun utente, il numero di compagni di partecipazione iscritti a ciascun evento aperto */
+	private final Map<User, Map<Event, Integer>> overlapsByUser;
+	/** Cache: per ciascun utente, l'ultima bacheca personalizzata calcolata */
+	private final Map<User, RankedFeed> feedsByUser;
+	/** Versione dell'insieme degli eventi aperti, incrementata quando un evento aperto viene aggiunto o rimosso */
+	private long version;
+	/** Numero di eventi tracciati finora come aperti */
+	private long trackedEvents;
+	
+	/**
+	 * Crea una bacheca personalizzata vuota.<br>
+	 * Gli eventi vengono tracciati mediante il metodo {@link #track(Event)}.
+	 */
+	public RecommendationFeed() {
+		this.openEvents = new IdentityHashMap<>();
+		this.subscriptionsByUser = new HashMap<>();
+		this.endedEvents = new IdentityHashMap<>();
+		this.coParticipantsByUser = new HashMap<>();
+		this.overlapsByUser = new HashMap<>();
+		this.feedsByUser = new HashMap<>();
+		this.version = 0;
+		this.trackedEvents = 0;
+	}
+	
+	/**
+	 * Inizia a tracciare un evento, aggiornando le bacheche già calcolate.<br>
+	 * Un evento ritirato non viene tracciato, poiché è stato (o sta per essere) rimosso dalla bacheca.
+	 * 
+	 * Precondizione: event != null
+	 * 
+	 * @param event L'evento da tracciare
+	 */
+	public void track(Event event) {
+		// Verifica della precondizione
+		if (event == null) {
+			throw new IllegalArgumentException("Impossibile tracciare un evento nullo");
+		}
+		
+		// Un evento ritirato non è aperto: la rilettura lo rimuove dalle bacheche, senza mai aggiungerlo
+		this.onEventChange(event);
+	}
+	
+	/**
+	 * Smette di tracciare un evento, rimuovendolo da tutte le bacheche già calcolate.
+	 * 
+	 * @param event L'evento da non tracciare più
+	 */
+	public synchronized void untrack(Event event) {
+		this.removeOpenEvent(event);
+		this.removeEndedEvent(event);
+	}
+	
+	/**
+	 * Rilegge i dati dell'evento modificato e aggiorna le bacheche già calcolate.<br>
+	 * Se l'evento si è concluso, gli utenti che vi hanno partecipato hanno nuovi compagni di partecipazione:
+	 * le loro cache vengono quindi invalidate e ricalcolate alla prossima consultazione.
+	 * 
+	 * @param e L'evento modificato
+	 */
+	public void onEventChange(Event e) {
+		/*
+		 * NOTA: l'evento viene letto tenendo il suo monitor, e il monitor di questo oggetto viene acquisito
+		 * solo in seguito: due letture dello stesso evento vengono quindi applicate nell'ordine in cui sono avvenute.
+		 * Mentre si detiene il monitor di questo oggetto non viene mai acquisito il monitor di un evento.
+		 */
+		synchronized (e) {
+			String state = e.getState();
+			List<User> subscribers = e.getSubscribers();
+			Snapshot snapshot = null;
+			if (EventState.OPEN.equals(state)) {
+				snapshot = readSnapshot(e);
+			}
+			
+			synchronized (this) {
+				if (snapshot != null) {
+					this.updateOpenEvent(e, snapshot, subscribers);
+				} else {
+					this.removeOpenEvent(e);
+					if (EventState.ENDED.equals(state)) {
+						this.addEndedEvent(e, subscribers);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Aggiorna le bacheche personalizzate in base al fatto di dominio ricevuto dal bus.<br>
+	 * Le iscrizioni e le disiscrizioni vengono applicate senza rileggere l'evento.
+	 * 
+	 * @param domainEvent Il fatto di dominio
+	 */
+	@Override
+	public void handle(DomainEvent domainEvent) {
+		Event e = domainEvent.getSource();
+		if (domainEvent instanceof EventRemoved) {
+			this.untrack(e);
+		} else if (domainEvent instanceof UserSubscribed) {
+			this.addSubscriber(e, ((UserSubscribed) domainEvent).getUser());
+		} else if (domainEvent instanceof UserUnsubscribed) {
+			this.removeSubscriber(e, ((UserUnsubscribed) domainEvent).getUser());
+		} else {
+			this.onEventChange(e);
+		}
+	}
+	
+	/**
+	 * Invalida la bacheca personalizzata di un utente, ad esempio dopo la modifica delle sue categorie di interesse.
+	 * 
+	 * @param user L'utente
+	 */
+	public synchronized void invalidate(User user) {
+		this.overlapsByUser.remove(user);
+		this.feedsByUser.remove(user);
+	}
+	
+	/**
+	 * Verifica se la bacheca personalizzata dell'utente è presente nella cache ed è ancora valida
+	 * per l'insieme attuale degli eventi aperti.
+	 * 
+	 * @param user L'utente
+	 * @return true se la bacheca dell'utente è già calcolata
+	 */
+	synchronized boolean hasCachedFeed(User user) {
+		RankedFeed cached = this.feedsByUser.get(user);
+		return cached != null && cached.version == this.version;
+	}
+	
+	/**
+	 * Restituisce al più "limit" eventi consigliati all'utente, in ordine decrescente di punteggio.
+	 * 
+	 * Precondizione: user != null, limit >= 0
+	 * 
+	 * @param user L'utente
+	 * @param limit Il numero massimo di eventi
+	 * @return Gli eventi consigliati
+	 */
+	public List<Event> getFeed(User user, int limit) {
+		// Verifica delle precondizioni
+		if (user == null || limit < 0) {
+			throw new IllegalArgumentException("Parametri non validi per la bacheca personalizzata");
+		}
+		
+		CategoryListFieldValue interests = (CategoryListFieldValue) user.getFieldValue(UserField.CATEGORIE_DI_INTERESSE);
+		long now = Clocks.current().currentTimeMillis();
+		long time = now - Math.floorMod(now, PROXIMITY_RESOLUTION_MILLIS);
+		
+		List<Event> ranking;
+		synchronized (this) {
+			RankedFeed cached = this.feedsByUser.get(user);
+			if (cached == null || cached.version != this.version || cached.time != time || cached.limit < limit) {
+				cached = this.rank(user, interests, time, limit);
+				this.feedsByUser.put(user, cached);
+			}
+			ranking = cached.events;
+		}
+		
+		return new ArrayList<>((ranking.size() > limit) ? ranking.subList(0, limit) : ranking);
+	}
+	
+	/**
+	 * Calcola i punteggi degli eventi aperti per l'utente dato e ne seleziona al più "limit",
+	 * in ordine decrescente di punteggio e, a parità, nell'ordine in cui sono stati tracciati.
+	 */
+	private RankedFeed rank(User user, CategoryListFieldValue interests, long time, int limit) {
+		Map<Event, Integer> overlaps = this.getOverlaps(user);
+		TopEvents top = new TopEvents(Math.min(limit, this.openEvents.size()));
+		for (Map.Entry<Event, Snapshot> entry : this.openEvents.entrySet()) {
+			Snapshot snapshot = entry.getValue();
+			if (!isCandidate(snapshot, user)) {
+				continue;
+			}
+			
+			double score = getScore(entry.getKey(), snapshot, interests, overlaps, time);
+			top.offer(entry.getKey(), score, snapshot.sequence);
+		}
+		double lastScore = top.lastScore();
+		long lastSequence = top.lastSequence();
+		return new RankedFeed(this.version, time, limit, interests, top.drain(), lastScore, lastSequence);
+	}
+	
+	/**
+	 * Verifica se un evento aperto può essere consigliato all'utente, ossia se l'utente non ne è il creatore
+	 * e non vi è già iscritto.
+	 */
+	private static boolean isCandidate(Snapshot snapshot, User user) {
+		return snapshot.creator != user && !snapshot.subscribers.contains(user);
+	}
+	
+	/**
+	 * Calcola il punteggio di un evento aperto per un utente, date le sue categorie di interesse
+	 * e il numero di compagni di partecipazione iscritti a ciascun evento.
+	 */
+	private static double getScore(Event e, Snapshot snapshot, CategoryListFieldValue interests, Map<Event, Integer> overlaps, long time) {
+		double score = CAPACITY_WEIGHT * snapshot.getRemainingCapacityRatio();
+		if (interests != null && interests.contains(snapshot.category)) {
+			score += CATEGORY_WEIGHT;
+		}
+		int overlap = overlaps.getOrDefault(e, 0);
+		score += CO_PARTICIPANT_WEIGHT * Math.min(overlap, MAX_COUNTED_CO_PARTICIPANTS);
+		score += snapshot.getProximity(time);
+		return score;
+	}
+	
+	/**
+	 * Invalida le bacheche già calcolate sulle quali incide la modifica dei dati o degli iscritti di un evento aperto:
+	 * quelle che contengono l'evento, e quelle nelle quali l'evento, con il nuovo punteggio, entrerebbe.
+	 * Le bacheche degli altri utenti restano valide.
+	 */
+	private void invalidateFeedsAffectedBy(Event e, Snapshot snapshot) {
+		Iterator<Map.Entry<User, RankedFeed>> iterator = this.feedsByUser.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<User, RankedFeed> entry = iterator.next();
+			if (this.isAffectedBy(entry.getKey(), entry.getValue(), e, snapshot)) {
+				iterator.remove();
+			}
+		}
+	}
+	
+	private boolean isAffectedBy(User user, RankedFeed cached, Event e, Snapshot snapshot) {
+		if (cached.events.contains(e)) {
+			return true;
+		}
+		if (!isCandidate(snapshot, user)) {
+			return false;
+		}
+		if (cached.events.size() < cached.limit) {
+			// La bacheca contiene tutti gli eventi consigliabili: l'evento vi deve entrare
+			return true;
+		}
+		if (cached.events.isEmpty()) {
+			return false;
+		}
+		double score = getScore(e, snapshot, cached.interests, this.getOverlaps(user), cached.time);
+		return TopEvents.ranksBefore(score, snapshot.sequence, cached.lastScore, cached.lastSequence);
+	}
+	
+	/**
+	 * Legge dall'evento i dati rilevanti per i punteggi, esclusi gli iscritti.
+	 * 
+	 * @param e L'evento
+	 * @return I dati dell'evento
+	 */
+	private static Snapshot readSnapshot(Event e) {
+		Snapshot snapshot = new Snapshot();
+		snapshot.category = e.getCategory();
+		snapshot.creator = e.getCreator();
+		
+		FieldValue participants = e.getFieldValue(CommonField.NUMERO_DI_PARTECIPANTI);
+		if (participants != null) {
+			snapshot.maxSubscribers = ((IntegerFieldValue) participants).getValue();
+			FieldValue tolerance = e.getFieldValue(CommonField.TOLLERANZA_NUMERO_DI_PARTECIPANTI);
+			if (tolerance != null) {
+				snapshot.maxSubscribers += ((IntegerFieldValue) tolerance).getValue();
+			}
+		}
+		
+		FieldValue date = e.getFieldValue(CommonField.DATA_E_ORA);
+		if (date != null && ((DateFieldValue) date).getValue() != null) {
+			snapshot.date = ((DateFieldValue) date).getValue().getTime();
+		}
+		return snapshot;
+	}
+	
+	/**
+	 * Sostituisce i dati di un evento aperto, aggiornando gli iscritti in base alle differenze.
+	 */
+	private void updateOpenEvent(Event e, Snapshot snapshot, List<User> subscribers) {
+		Snapshot old = this.openEvents.put(e, snapshot);
+		snapshot.sequence = (old != null) ? old.sequence : this.trackedEvents++;
+		if (old != null) {
+			for (User subscriber : old.subscribers) {
+				if (!subscribers.contains(subscriber)) {
+					this.onSubscriberRemoved(e, subscriber);
+				} else {
+					snapshot.subscribers.add(subscriber);
+				}
+			}
+		}
+		for (User subscriber : subscribers) {
+			if (snapshot.subscribers.add(subscriber)) {
+				this.onSubscriberAdded(e, subscriber);
+			}
+		}
+		
+		if (old == null) {
+			// Un nuovo evento aperto può entrare nella bacheca di chiunque
+			this.version++;
+		} else {
+			this.invalidateFeedsAffectedBy(e, snapshot);
+		}
+	}
+	
+	/**
+	 * Smette di considerare aperto un evento.
+	 */
+	private void removeOpenEvent(Event e) {
+		Snapshot old = this.openEvents.remove(e);
+		if (old != null) {
+			this.version++;
+			for (User subscriber : old.subscribers) {
+				this.onSubscriberRemoved(e, subscriber);
+			}
+		}
+	}
+	
+	/**
+	 * Aggiunge un iscritto ad un evento aperto tracciato.
+	 */
+	private synchronized void addSubscriber(Event e, User subscriber) {
+		Snapshot snapshot = this.openEvents.get(e);
+		if (snapshot != null && snapshot.subscribers.add(subscriber)) {
+			this.onSubscriberAdded(e, subscriber);
+			this.invalidateFeedsAffectedBy(e, snapshot);
+		}
+	}
+	
+	/**
+	 * Rimuove un iscritto da un evento aperto tracciato.
+	 */
+	private synchronized void removeSubscriber(Event e, User subscriber) {
+		Snapshot snapshot = this.openEvents.get(e);
+		if (snapshot != null && snapshot.subscribers.remove(subscriber)) {
+			this.onSubscriberRemoved(e, subscriber);
+			this.invalidateFeedsAffectedBy(e, snapshot);
+		}
+	}
+	
+	/**
+	 * Aggiorna gli indici dopo l'iscrizione di un utente ad un evento aperto:
+	 * cambia solamente il punteggio dell'evento per i compagni di partecipazione dell'utente.
+	 */
+	private void onSubscriberAdded(Event e, User subscriber) {
+		this.subscriptionsByUser.computeIfAbsent(subscriber, u -> Collections.newSetFromMap(new IdentityHashMap<>())).add(e);
+		for (User coParticipant : this.getCoParticipants(subscriber)) {
+			Map<Event, Integer> overlaps = this.overlapsByUser.get(coParticipant);
+			if (overlaps != null) {
+				overlaps.merge(e, 1, Integer::sum);
+			}
+		}
+	}
+	
+	/**
+	 * Aggiorna gli indici dopo la disiscrizione di un utente da un evento aperto, o dopo la chiusura dell'evento.
+	 */
+	private void onSubscriberRemoved(Event e, User subscriber) {
+		Set<Event> subscriptions = this.subscriptionsByUser.get(subscriber);
+		if (subscriptions != null) {
+			subscriptions.remove(e);
+			if (subscriptions.isEmpty()) {
+				this.subscriptionsByUser.remove(subscriber);
+			}
+		}
+		for (User coParticipant : this.getCoParticipants(subscriber)) {
+			Map<Event, Integer> overlaps = this.overlapsByUser.get(coParticipant);
+			if (overlaps != null) {
+				overlaps.computeIfPresent(e, (event, count) -> (count > 1) ? count - 1 : null);
+			}
+		}
+	}
+	
+	/**
+	 * Registra i partecipanti di un evento concluso come compagni di partecipazione, e invalida le loro cache.
+	 */
+	private void addEndedEvent(Event e, List<User> participants) {
+		if (this.endedEvents.containsKey(e)) {
+			return;
+		}
+		this.endedEvents.put(e, participants);
+		this.updateCoParticipants(participants, 1);
+	}
+	
+	/**
+	 * Smette di considerare i partecipanti di un evento concluso come compagni di partecipazione.
+	 */
+	private void removeEndedEvent(Event e) {
+		List<User> participants = this.endedEvents.remove(e);
+		if (participants != null) {
+			this.updateCoParticipants(participants, -1);
+		}
+	}
+	
+	private void updateCoParticipants(List<User> participants, int delta) {
+		for (User participant : participants) {
+			Map<User, Integer> coParticipants = this.coParticipantsByUser.computeIfAbsent(participant, u -> new HashMap<>());
+			for (User other : participants) {
+				if (other != participant) {
+					coParticipants.compute(other, (u, count) -> (count == null) ? delta : (count + delta != 0) ? count + delta : null);
+				}
+			}
+			if (coParticipants.isEmpty()) {
+				this.coParticipantsByUser.remove(participant);
+			}
+			this.overlapsByUser.remove(participant);
+			this.feedsByUser.remove(participant);
+		}
+	}
+	
+	/**
+	 * Restituisce gli utenti con i quali l'utente dato ha partecipato ad eventi conclusi.
+	 */
+	private Set<User> getCoParticipants(User user) {
+		Map<User, Integer> coParticipants = this.coParticipantsByUser.get(user);
+		return (coParticipants != null) ? coParticipants.keySet() : Collections.emptySet();
+	}
+	
+	/**
+	 * Restituisce, per ciascun evento aperto, il numero di compagni di partecipazione dell'utente iscritti,
+	 * calcolandolo dagli indici se necessario.
+	 */
+	private Map<Event, Integer> getOverlaps(User user) {
+		Map<Event, Integer> overlaps = this.overlapsByUser.get(user);
+		if (overlaps == null) {
+			overlaps = new IdentityHashMap<>();
+			for (User coParticipant : this.getCoParticipants(user)) {
+				for (Event e : this.subscriptionsByUser.getOrDefault(coParticipant, Collections.emptySet())) {
+					overlaps.merge(e, 1, Integer::sum);
+				}
+			}
+			this.overlapsByUser.put(user, overlaps);
+		}
+		return overlaps;
+	}
+	
+	/**
+	 * Restituisce la componente del punteggio legata alla vicinanza della data di svolgimento:
+	 * massima per gli eventi imminenti, si dimezza ogni {@value #PROXIMITY_HALF_LIFE_DAYS} giorni.
+	 * 
+	 * @param date La data di svolgimento in millisecondi, o null se non definita
+	 * @param now L'istante attuale in millisecondi
+	 * @return La componente del punteggio
+	 */
+	private static double getProximityScore(Long date, long now) {
+		if (date == null) {
+			return 0.0;
+		}
+		double days = Math.max(0.0, (date - now) / MILLIS_PER_DAY);
+		return PROXIMITY_WEIGHT * Math.pow(0.5, days / PROXIMITY_HALF_LIFE_DAYS);
+	}
+
+}
@@ -0,0 +1,74 @@
+package it.unibs.ingesw.dpn.model.replication;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Gruppo di modifiche trasmesso dal primario ad una replica.<br>
+ * Ciascun gruppo è associato alla posizione raggiunta dal registro delle modifiche del primario
+ * (vedi {@link ChangeJournal#getPosition()}) al momento della sua produzione: dopo averlo applicato,
+ * la replica riflette tutte le modifiche fino a quella posizione.<br>
+ * Un gruppo vuoto è un segnale di presenza, inviato periodicamente dal primario in assenza di modifiche.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public final class ChangeBatch implements Serializable {
+
+	private static final long serialVersionUID = -4617006289530181374L;
+
+	private final long position;
+	private final long producedAt;
+	private final List<ChangeRecord> records;
+
+	/**
+	 * Crea un gruppo di modifiche.
+	 *
+	 * Precondizione: records != null
+	 *
+	 * @param position La posizione del registro delle modifiche coperta dal gruppo
+	 * @param producedAt L'istante di produzione del gruppo, in millisecondi
+	 * @param records Le modifiche del gruppo
+	 */
+	public ChangeBatch(long position, long producedAt, List<ChangeRecord> records) {
+		// Verifica della precondizione
+		if (records == null) {
+			throw new IllegalArgumentException("Impossibile creare un gruppo di modifiche nullo");
+		}
+
+		this.position = position;
+		this.producedAt = producedAt;
+		this.records = Collections.unmodifiableList(new ArrayList<>(records));
+	}
+
+	/**
+	 * @return La posizione del registro delle modifiche coperta dal gruppo
+	 */
+	public long getPosition() {
+		return this.position;
+	}
+
+	/**
+	 * @return L'istante di produzione del gruppo, in millisecondi
+	 */
+	public long getProducedAt() {
+		return this.producedAt;
+	}
+
+	/**
+	 * @return Le modifiche del gruppo, in sola lettura
+	 */
+	public List<ChangeRecord> getRecords() {
+		return this.records;
+	}
+
+	/**
+	 * @return "true" se il gruppo non contiene modifiche
+	 */
+	public boolean isHeartbeat() {
+		return this.records.isEmpty();
+	}
+
+}
@@ -0,0 +1,260 @@
+package it.unibs.ingesw.dpn.model.replication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import it.unibs.ingesw.dpn.model.bus.DomainEvent;
+import it.unibs.ingesw.dpn.model.bus.DomainEventListener;
+import it.unibs.ingesw.dpn.model.bus.EventRemoved;
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.events.EventState;
+import it.unibs.ingesw.dpn.model.persistence.Model;
+import it.unibs.ingesw.dpn.model.users.User;
+import it.unibs.ingesw.dpn.model.users.UsersListener;
+
+/**
+ * Registro delle modifiche del model del primario, da trasmettere alle repliche.<br>
+ * Il registro osserva i fatti pubblicati sul bus della bacheca (vedi {@link it.unibs.ingesw.dpn.model.bus.DomainEventBus})
+ * e le modifiche agli utenti (vedi {@link UsersListener}), e conta le modifiche osservate (vedi {@link #getPosition()}).<br>
+ * <br>
+ * Ciascuna replica legge il registro attraverso un proprio {@link Cursor}, che raccoglie gli oggetti modificati
+ * dall'ultima lettura: più modifiche allo stesso oggetto vengono trasmesse come un'unica copia del suo stato attuale,
+ * e una replica lenta riceve quindi meno dati, invece di accumulare un ritardo crescente.
+ * Un nuovo cursore contiene inizialmente tutti gli eventi in bacheca e tutti gli utenti registrati.<br>
+ * <br>
+ * Gli eventi vengono identificati da un numero assegnato dal registro alla prima osservazione.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class ChangeJournal {
+
+	/**
+	 * Posizione di lettura di una replica nel registro.
+	 */
+	public class Cursor {
+
+		private final Set<Event> dirtyEvents;
+		private final Set<User> dirtyUsers;
+		private final Set<Long> removedEvents;
+		private final Semaphore signal;
+
+		private Cursor() {
+			this.dirtyEvents = ConcurrentHashMap.newKeySet();
+			this.dirtyUsers = ConcurrentHashMap.newKeySet();
+			this.removedEvents = ConcurrentHashMap.newKeySet();
+			this.signal = new Semaphore(0);
+		}
+
+		private void markEvent(Event event) {
+			this.dirtyEvents.add(event);
+			this.signal();
+		}
+
+		private void markRemoved(long id) {
+			this.removedEvents.add(id);
+			this.signal();
+		}
+
+		private void markUser(User user) {
+			this.dirtyUsers.add(user);
+			this.signal();
+		}
+
+		private void signal() {
+			if (this.signal.availablePermits() == 0) {
+				this.signal.release();
+			}
+		}
+
+		/**
+		 * Attende una modifica per al più il tempo dato, quindi restituisce le modifiche raccolte
+		 * dall'ultima lettura; se non ci sono modifiche, il gruppo restituito è vuoto.
+		 *
+		 * @param timeoutMillis Il tempo massimo di attesa, in millisecondi
+		 * @return Il gruppo delle modifiche
+		 * @throws InterruptedException Se il thread viene interrotto durante l'attesa
+		 */
+		public ChangeBatch awaitBatch(long timeoutMillis) throws InterruptedException {
+			this.signal.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+			this.signal.drainPermits();
+
+			// La posizione viene letta prima delle copie: la replica riflette almeno le modifiche fino a questa posizione
+			long position = ChangeJournal.this.getPosition();
+			List<ChangeRecord> records = new ArrayList<>();
+
+			Iterator<Long> removed = this.removedEvents.iterator();
+			while (removed.hasNext()) {
+				records.add(new EventRemoval(removed.next()));
+				removed.remove();
+			}
+			Iterator<Event> events = this.dirtyEvents.iterator();
+			while (events.hasNext()) {
+				Event event = events.next();
+				events.remove();
+				// Un evento ritirato è stato (o sta per essere) rimosso dalla bacheca
+				if (!EventState.WITHDRAWN.equals(event.getState())) {
+					records.add(EventSnapshot.of(ChangeJournal.this.idOf(event), event));
+				}
+			}
+			Iterator<User> users = this.dirtyUsers.iterator();
+			while (users.hasNext()) {
+				User user = users.next();
+				users.remove();
+				if (user.getNickname() != null) {
+					records.add(MailboxSnapshot.of(user));
+				}
+			}
+
+			return new ChangeBatch(position, System.currentTimeMillis(), records);
+		}
+
+	}
+
+	private final Model model;
+	private final AtomicLong position;
+	private final AtomicLong nextEventId;
+	private final Map<Event, Long> eventIds;
+	private final List<Cursor> cursors;
+
+	private final DomainEventListener<DomainEvent> eventListener;
+	private final UsersListener usersListener;
+
+	/**
+	 * Crea un registro delle modifiche del model dato, e comincia ad osservarne le modifiche.
+	 *
+	 * Precondizione: model != null
+	 *
+	 * @param model Il model del primario
+	 */
+	public ChangeJournal(Model model) {
+		// Verifica della precondizione
+		if (model == null) {
+			throw new IllegalArgumentException("Impossibile creare un registro delle modifiche senza model");
+		}
+
+		this.model = model;
+		this.position = new AtomicLong();
+		this.nextEventId = new AtomicLong(1);
+		// Gli eventi non ridefiniscono "equals": la mappa associa gli identificativi alle singole istanze
+		this.eventIds = Collections.synchronizedMap(new WeakHashMap<>());
+		this.cursors = new CopyOnWriteArrayList<>();
+
+		this.eventListener = this::eventChanged;
+		this.usersListener = new UsersListener() {
+
+			@Override
+			public void userRegistered(User user) {
+				ChangeJournal.this.userChanged(user);
+			}
+
+			@Override
+			public void mailboxChanged(User user) {
+				ChangeJournal.this.userChanged(user);
+			}
+
+		};
+
+		model.getEventBoard().getEventBus().addListener(DomainEvent.class, this.eventListener);
+		model.getUsersRepository().addListener(this.usersListener);
+	}
+
+	/**
+	 * Restituisce il numero di modifiche osservate dalla creazione del registro.
+	 *
+	 * @return La posizione attuale del registro
+	 */
+	public long getPosition() {
+		return this.position.get();
+	}
+
+	/**
+	 * Restituisce l'identificativo dell'evento dato, assegnandone uno nuovo alla prima richiesta.
+	 *
+	 * Precondizione: event != null
+	 *
+	 * @param event L'evento
+	 * @return L'identificativo dell'evento
+	 */
+	public long idOf(Event event) {
+		// Verifica della precondizione
+		if (event == null) {
+			throw new IllegalArgumentException("Impossibile identificare un evento nullo");
+		}
+
+		return this.eventIds.computeIfAbsent(event, e -> this.nextEventId.getAndIncrement());
+	}
+
+	/**
+	 * Apre un nuovo cursore, che contiene inizialmente tutti gli eventi in bacheca e tutti gli utenti registrati.
+	 *
+	 * @return Il cursore
+	 */
+	public Cursor openCursor() {
+		Cursor cursor = new Cursor();
+		// Il cursore viene registrato prima della copia iniziale, per non perdere le modifiche concorrenti
+		this.cursors.add(cursor);
+		for (Event event : this.model.getEventBoard().getEvents()) {
+			cursor.markEvent(event);
+		}
+		for (User user : this.model.getUsersRepository().getUsers()) {
+			cursor.markUser(user);
+		}
+		return cursor;
+	}
+
+	/**
+	 * Chiude un cursore, che non raccoglie più alcuna modifica.
+	 *
+	 * @param cursor Il cursore da chiudere
+	 */
+	public void closeCursor(Cursor cursor) {
+		this.cursors.remove(cursor);
+	}
+
+	/**
+	 * Smette di osservare le modifiche del model.
+	 */
+	public void detach() {
+		this.model.getEventBoard().getEventBus().removeListener(this.eventListener);
+		this.model.getUsersRepository().removeListener(this.usersListener);
+		this.cursors.clear();
+	}
+
+	// Le modifiche vengono raccolte dai cursori prima di essere contate: un gruppo di modifiche
+	// contiene sempre tutte le modifiche contate fino alla sua posizione
+
+	private void eventChanged(DomainEvent fact) {
+		Event event = fact.getSource();
+		if (fact instanceof EventRemoved) {
+			long id = this.idOf(event);
+			for (Cursor cursor : this.cursors) {
+				cursor.markRemoved(id);
+			}
+		}
+		else {
+			for (Cursor cursor : this.cursors) {
+				cursor.markEvent(event);
+			}
+		}
+		this.position.incrementAndGet();
+	}
+
+	private void userChanged(User user) {
+		for (Cursor cursor : this.cursors) {
+			cursor.markUser(user);
+		}
+		this.position.incrementAndGet();
+	}
+
+}
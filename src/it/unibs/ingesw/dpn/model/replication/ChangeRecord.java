@@ -0,0 +1,22 @@
+package it.unibs.ingesw.dpn.model.replication;
+
+import java.io.Serializable;
+
+/**
+ * Singola modifica del model trasmessa dal primario alle repliche (vedi {@link ChangeBatch}).<br>
+ * Ciascuna modifica contiene lo stato completo dell'oggetto modificato, e può quindi essere
+ * applicata più volte senza effetti ulteriori.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public interface ChangeRecord extends Serializable {
+
+	/**
+	 * Applica la modifica al model di una replica.
+	 *
+	 * @param replica Il model della replica
+	 */
+	public void applyTo(ReplicaModel replica);
+
+}
@@ -0,0 +1,36 @@
+package it.unibs.ingesw.dpn.model.replication;
+
+/**
+ * Rimozione di un evento dalla bacheca del primario.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public final class EventRemoval implements ChangeRecord {
+
+	private static final long serialVersionUID = 7208341695537620118L;
+
+	private final long id;
+
+	/**
+	 * Crea la rimozione dell'evento con l'identificativo dato.
+	 *
+	 * @param id L'identificativo dell'evento rimosso
+	 */
+	public EventRemoval(long id) {
+		this.id = id;
+	}
+
+	/**
+	 * @return L'identificativo dell'evento rimosso
+	 */
+	public long getId() {
+		return this.id;
+	}
+
+	@Override
+	public void applyTo(ReplicaModel replica) {
+		replica.removeEvent(this.id);
+	}
+
+}
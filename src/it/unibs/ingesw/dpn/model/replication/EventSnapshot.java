@@ -0,0 +1,143 @@
+package it.unibs.ingesw.dpn.model.replication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Copia immutabile del contenuto di un evento in bacheca, prodotta dal primario ad ogni modifica
+ * dell'evento e conservata dalle repliche per rispondere alle interrogazioni sulla bacheca.<br>
+ * Gli utenti sono rappresentati dal loro nickname.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public final class EventSnapshot implements ChangeRecord {
+
+	private static final long serialVersionUID = -3570460512839201845L;
+
+	private final long id;
+	private final String title;
+	private final String category;
+	private final String creator;
+	private final String state;
+	private final String description;
+	private final List<String> subscribers;
+
+	/**
+	 * Crea una copia del contenuto di un evento.
+	 *
+	 * Precondizione: description != null, subscribers != null
+	 *
+	 * @param id L'identificativo dell'evento
+	 * @param title Il titolo dell'evento
+	 * @param category Il nome della categoria dell'evento
+	 * @param creator Il nickname del creatore dell'evento
+	 * @param state Il nome dello stato dell'evento
+	 * @param description La descrizione testuale dell'evento
+	 * @param subscribers I nickname degli iscritti all'evento
+	 */
+	public EventSnapshot(long id, String title, String category, String creator, String state, String description, List<String> subscribers) {
+		// Verifica delle precondizioni
+		if (description == null || subscribers == null) {
+			throw new IllegalArgumentException("Impossibile creare la copia di un evento con parametri nulli");
+		}
+
+		this.id = id;
+		this.title = title;
+		this.category = category;
+		this.creator = creator;
+		this.state = state;
+		this.description = description;
+		this.subscribers = Collections.unmodifiableList(new ArrayList<>(subscribers));
+	}
+
+	/**
+	 * Crea una copia del contenuto attuale dell'evento dato.
+	 *
+	 * Precondizione: event != null
+	 *
+	 * @param id L'identificativo assegnato all'evento
+	 * @param event L'evento da copiare
+	 * @return La copia dell'evento
+	 */
+	public static EventSnapshot of(long id, Event event) {
+		// Verifica della precondizione
+		if (event == null) {
+			throw new IllegalArgumentException("Impossibile copiare un evento nullo");
+		}
+
+		List<User> users = event.getSubscribers();
+		List<String> subscribers = new ArrayList<>(users.size());
+		for (User user : users) {
+			subscribers.add(user.getNickname());
+		}
+		return new EventSnapshot(
+				id,
+				event.getTitle(),
+				event.getCategory().getName(),
+				event.getCreator().getNickname(),
+				event.getState(),
+				event.toString(),
+				subscribers);
+	}
+
+	/**
+	 * @return L'identificativo dell'evento
+	 */
+	public long getId() {
+		return this.id;
+	}
+
+	/**
+	 * @return Il titolo dell'evento
+	 */
+	public String getTitle() {
+		return this.title;
+	}
+
+	/**
+	 * @return Il nome della categoria dell'evento
+	 */
+	public String getCategory() {
+		return this.category;
+	}
+
+	/**
+	 * @return Il nickname del creatore dell'evento
+	 */
+	public String getCreator() {
+		return this.creator;
+	}
+
+	/**
+	 * @return Il nome dello stato dell'evento
+	 */
+	public String getState() {
+		return this.state;
+	}
+
+	/**
+	 * @return I nickname degli iscritti all'evento, in sola lettura
+	 */
+	public List<String> getSubscribers() {
+		return this.subscribers;
+	}
+
+	@Override
+	public void applyTo(ReplicaModel replica) {
+		replica.putEvent(this);
+	}
+
+	/**
+	 * @return La descrizione testuale dell'evento al momento della copia
+	 */
+	@Override
+	public String toString() {
+		return this.description;
+	}
+
+}
@@ -0,0 +1,111 @@
+package it.unibs.ingesw.dpn.model.replication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import it.unibs.ingesw.dpn.model.users.Invite;
+import it.unibs.ingesw.dpn.model.users.Notification;
+import it.unibs.ingesw.dpn.model.users.NotificationsSnapshot;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Copia immutabile della casella di posta di un utente registrato, prodotta dal primario alla registrazione
+ * dell'utente e ad ogni modifica della casella di posta.<br>
+ * Notifiche e inviti sono rappresentati dalla loro descrizione testuale.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public final class MailboxSnapshot implements ChangeRecord {
+
+	private static final long serialVersionUID = 2990415360174552716L;
+
+	private final String nickname;
+	private final List<String> notifications;
+	private final int unreadNotifications;
+	private final List<String> invites;
+
+	/**
+	 * Crea una copia della casella di posta di un utente.
+	 *
+	 * Precondizione: nickname != null, notifications != null, invites != null
+	 *
+	 * @param nickname Il nickname dell'utente
+	 * @param notifications Le notifiche dell'utente
+	 * @param unreadNotifications Il numero di notifiche non lette
+	 * @param invites Gli inviti ricevuti dall'utente
+	 */
+	public MailboxSnapshot(String nickname, List<String> notifications, int unreadNotifications, List<String> invites) {
+		// Verifica delle precondizioni
+		if (nickname == null || notifications == null || invites == null) {
+			throw new IllegalArgumentException("Impossibile creare la copia di una casella di posta con parametri nulli");
+		}
+
+		this.nickname = nickname;
+		this.notifications = Collections.unmodifiableList(new ArrayList<>(notifications));
+		this.unreadNotifications = unreadNotifications;
+		this.invites = Collections.unmodifiableList(new ArrayList<>(invites));
+	}
+
+	/**
+	 * Crea una copia del contenuto attuale della casella di posta dell'utente dato.
+	 *
+	 * Precondizione: user != null, user.getNickname() != null
+	 *
+	 * @param user L'utente
+	 * @return La copia della casella di posta
+	 */
+	public static MailboxSnapshot of(User user) {
+		// Verifica della precondizione
+		if (user == null || user.getNickname() == null) {
+			throw new IllegalArgumentException("Impossibile copiare la casella di posta di un utente nullo o senza nickname");
+		}
+
+		// Notifiche e numero di notifiche non lette vengono letti insieme
+		NotificationsSnapshot received = user.getNotificationsSnapshot();
+		List<String> notifications = new ArrayList<>();
+		for (Notification notification : received.getNotifications()) {
+			notifications.add(notification.toString());
+		}
+		List<String> invites = new ArrayList<>();
+		for (Invite invite : user.getInvites()) {
+			invites.add(invite.toString());
+		}
+		return new MailboxSnapshot(user.getNickname(), notifications, received.countUnread(), invites);
+	}
+
+	/**
+	 * @return Il nickname dell'utente
+	 */
+	public String getNickname() {
+		return this.nickname;
+	}
+
+	/**
+	 * @return Le descrizioni delle notifiche dell'utente, in sola lettura
+	 */
+	public List<String> getNotifications() {
+		return this.notifications;
+	}
+
+	/**
+	 * @return Il numero di notifiche non lette
+	 */
+	public int getUnreadNotifications() {
+		return this.unreadNotifications;
+	}
+
+	/**
+	 * @return Le descrizioni degli inviti ricevuti dall'utente, in sola lettura
+	 */
+	public List<String> getInvites() {
+		return this.invites;
+	}
+
+	@Override
+	public void applyTo(ReplicaModel replica) {
+		replica.putMailbox(this);
+	}
+
+}
@@ -0,0 +1,154 @@
+package it.unibs.ingesw.dpn.model.replication;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Replica in sola lettura del model di un primario (vedi {@link ReplicationServer}): riceve i gruppi
+ * di modifiche attraverso un socket e li applica al proprio {@link ReplicaModel}, in un thread dedicato.<br>
+ * <br>
+ * Il ritardo della replica è misurato come il tempo trascorso dalla produzione dell'ultimo gruppo di
+ * modifiche applicato (vedi {@link #getLagMillis()}): poiché il primario trasmette un gruppo almeno ogni
+ * {@link ReplicationServer#HEARTBEAT_INTERVAL_MILLIS} millisecondi, un valore superiore indica che la replica
+ * non sta ricevendo le modifiche del primario.<br>
+ * <br>
+ * La replica deserializza solamente le classi dei gruppi di modifiche e i tipi del JDK che essi contengono
+ * (vedi {@link #ALLOWED_CLASSES}): un flusso contenente qualsiasi altra classe interrompe la connessione
+ * prima che l'oggetto venga costruito.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class ReplicaClient implements AutoCloseable {
+
+	/** Nomi delle classi che possono comparire nel flusso trasmesso dal primario */
+	static final Set<String> ALLOWED_CLASSES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			ChangeBatch.class.getName(),
+			EventSnapshot.class.getName(),
+			EventRemoval.class.getName(),
+			MailboxSnapshot.class.getName(),
+			// Liste in sola lettura dei gruppi e delle copie
+			"java.util.ArrayList",
+			"java.util.Collections$UnmodifiableCollection",
+			"java.util.Collections$UnmodifiableList",
+			"java.util.Collections$UnmodifiableRandomAccessList",
+			"java.lang.String"
+			)));
+
+	/**
+	 * Flusso di oggetti che rifiuta le classi non contenute in {@link ReplicaClient#ALLOWED_CLASSES}.
+	 */
+	static class ReplicationInputStream extends ObjectInputStream {
+
+		ReplicationInputStream(InputStream in) throws IOException {
+			super(in);
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass descriptor) throws IOException, ClassNotFoundException {
+			if (!ALLOWED_CLASSES.contains(descriptor.getName())) {
+				throw new InvalidClassException(descriptor.getName(), "Classe non ammessa nel flusso di replica");
+			}
+			return super.resolveClass(descriptor);
+		}
+
+		@Override
+		protected Class<?> resolveProxyClass(String [] interfaces) throws IOException, ClassNotFoundException {
+			throw new InvalidClassException("Proxy non ammessi nel flusso di replica");
+		}
+
+	}
+
+	private final Socket socket;
+	private final ReplicaModel model;
+	private final Thread receiver;
+	private volatile boolean connected;
+
+	/**
+	 * Crea una replica connessa al primario in ascolto all'indirizzo dato.
+	 *
+	 * Precondizione: host != null
+	 *
+	 * @param host L'indirizzo del primario
+	 * @param port La porta di ascolto del primario
+	 * @throws IOException Se non è possibile connettersi al primario
+	 */
+	public ReplicaClient(String host, int port) throws IOException {
+		// Verifica della precondizione
+		if (host == null) {
+			throw new IllegalArgumentException("Impossibile connettersi ad un indirizzo nullo");
+		}
+
+		this.socket = new Socket(host, port);
+		this.model = new ReplicaModel();
+		this.connected = true;
+
+		this.receiver = new Thread(this::receiveBatches, "Replication-Receiver");
+		this.receiver.setDaemon(true);
+		this.receiver.start();
+	}
+
+	private void receiveBatches() {
+		try (ObjectInputStream in = new ReplicationInputStream(new BufferedInputStream(this.socket.getInputStream()))) {
+			while (true) {
+				this.model.apply((ChangeBatch) in.readObject());
+			}
+		}
+		catch (IOException | ClassNotFoundException | ClassCastException e) {
+			// Il primario si è disconnesso, la replica è stata chiusa, o il flusso contiene una classe non ammessa
+		}
+		finally {
+			this.connected = false;
+		}
+	}
+
+	/**
+	 * @return Il model in sola lettura della replica
+	 */
+	public ReplicaModel getModel() {
+		return this.model;
+	}
+
+	/**
+	 * @return "true" se la replica è connessa al primario
+	 */
+	public boolean isConnected() {
+		return this.connected;
+	}
+
+	/**
+	 * Restituisce il tempo trascorso dalla produzione dell'ultimo gruppo di modifiche applicato.
+	 *
+	 * @return Il ritardo della replica in millisecondi, o -1 se nessun gruppo è stato ancora applicato
+	 */
+	public long getLagMillis() {
+		long producedAt = this.model.getLastProducedAt();
+		if (producedAt == 0) {
+			return -1;
+		}
+		return Math.max(0, System.currentTimeMillis() - producedAt);
+	}
+
+	/**
+	 * Disconnette la replica dal primario. Il model della replica resta consultabile.
+	 */
+	@Override
+	public void close() {
+		try {
+			this.socket.close();
+		}
+		catch (IOException e) {
+			// Nessuna ulteriore operazione è necessaria
+		}
+	}
+
+}
@@ -0,0 +1,203 @@
+package it.unibs.ingesw.dpn.model.replication;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Model in sola lettura di una replica, aggiornato dai gruppi di modifiche ricevuti dal primario
+ * (vedi {@link ChangeBatch}).<br>
+ * Le interrogazioni sulla bacheca e sulle caselle di posta possono essere eseguite da più thread contemporaneamente
+ * all'applicazione delle modifiche, e restituiscono le copie immutabili degli oggetti del primario.
+ * Le liste di eventi sono ordinate per identificativo, ovvero per ordine di osservazione da parte del primario.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class ReplicaModel {
+
+	private static final Comparator<EventSnapshot> BY_ID = Comparator.comparingLong(EventSnapshot::getId);
+
+	private final Map<Long, EventSnapshot> events;
+	private final Map<String, MailboxSnapshot> mailboxes;
+
+	private volatile long appliedPosition;
+	private volatile long lastProducedAt;
+	private volatile long lastApplyDelayMillis;
+
+	/**
+	 * Crea un model vuoto.
+	 */
+	public ReplicaModel() {
+		this.events = new ConcurrentHashMap<>();
+		this.mailboxes = new ConcurrentHashMap<>();
+		this.appliedPosition = 0;
+		this.lastProducedAt = 0;
+		this.lastApplyDelayMillis = 0;
+	}
+
+	/**
+	 * Applica un gruppo di modifiche, e risveglia i thread in attesa di una posizione.
+	 *
+	 * Precondizione: batch != null
+	 *
+	 * @param batch Il gruppo di modifiche
+	 */
+	public synchronized void apply(ChangeBatch batch) {
+		// Verifica della precondizione
+		if (batch == null) {
+			throw new IllegalArgumentException("Impossibile applicare un gruppo di modifiche nullo");
+		}
+
+		for (ChangeRecord record : batch.getRecords()) {
+			record.applyTo(this);
+		}
+		this.appliedPosition = Math.max(this.appliedPosition, batch.getPosition());
+		this.lastProducedAt = batch.getProducedAt();
+		this.lastApplyDelayMillis = Math.max(0, System.currentTimeMillis() - batch.getProducedAt());
+		this.notifyAll();
+	}
+
+	/**
+	 * Attende che il model rifletta le modifiche del primario fino alla posizione data.
+	 *
+	 * @param position La posizione del registro delle modifiche del primario
+	 * @param timeoutMillis Il tempo massimo di attesa, in millisecondi
+	 * @return "true" se la posizione è stata raggiunta, "false" se il tempo di attesa è scaduto
+	 * @throws InterruptedException Se il thread viene interrotto durante l'attesa
+	 */
+	public synchronized boolean awaitPosition(long position, long timeoutMillis) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		while (this.appliedPosition < position) {
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0) {
+				return false;
+			}
+			this.wait(remaining);
+		}
+		return true;
+	}
+
+	void putEvent(EventSnapshot event) {
+		this.events.put(event.getId(), event);
+	}
+
+	void removeEvent(long id) {
+		this.events.remove(id);
+	}
+
+	void putMailbox(MailboxSnapshot mailbox) {
+		this.mailboxes.put(mailbox.getNickname(), mailbox);
+	}
+
+	/**
+	 * @return La posizione del registro delle modifiche del primario riflessa dal model
+	 */
+	public long getAppliedPosition() {
+		return this.appliedPosition;
+	}
+
+	/**
+	 * @return L'istante di produzione dell'ultimo gruppo di modifiche applicato, in millisecondi, o 0 se nessun gruppo è stato applicato
+	 */
+	public long getLastProducedAt() {
+		return this.lastProducedAt;
+	}
+
+	/**
+	 * @return Il tempo trascorso fra la produzione e l'applicazione dell'ultimo gruppo di modifiche, in millisecondi
+	 */
+	public long getLastApplyDelayMillis() {
+		return this.lastApplyDelayMillis;
+	}
+
+	/**
+	 * Restituisce l'evento con l'identificativo dato.
+	 *
+	 * @param id L'identificativo dell'evento
+	 * @return L'evento, o null se non è presente in bacheca
+	 */
+	public EventSnapshot getEvent(long id) {
+		return this.events.get(id);
+	}
+
+	/**
+	 * @return Tutti gli eventi in bacheca
+	 */
+	public List<EventSnapshot> getEvents() {
+		List<EventSnapshot> result = new ArrayList<>(this.events.values());
+		result.sort(BY_ID);
+		return result;
+	}
+
+	/**
+	 * Restituisce gli eventi in bacheca nello stato dato.
+	 *
+	 * @param stateName Il nome dello stato
+	 * @return Gli eventi nello stato dato
+	 */
+	public List<EventSnapshot> getEventsByState(String stateName) {
+		List<EventSnapshot> result = new ArrayList<>();
+		for (EventSnapshot event : this.events.values()) {
+			if (event.getState().equals(stateName)) {
+				result.add(event);
+			}
+		}
+		result.sort(BY_ID);
+		return result;
+	}
+
+	/**
+	 * Restituisce gli eventi in bacheca creati dall'utente con il nickname dato.
+	 *
+	 * @param nickname Il nickname del creatore
+	 * @return Gli eventi creati dall'utente
+	 */
+	public List<EventSnapshot> getEventsByCreator(String nickname) {
+		List<EventSnapshot> result = new ArrayList<>();
+		for (EventSnapshot event : this.events.values()) {
+			if (event.getCreator().equals(nickname)) {
+				result.add(event);
+			}
+		}
+		result.sort(BY_ID);
+		return result;
+	}
+
+	/**
+	 * Restituisce gli eventi in bacheca a cui è iscritto l'utente con il nickname dato.
+	 *
+	 * @param nickname Il nickname dell'utente
+	 * @return Gli eventi a cui l'utente è iscritto
+	 */
+	public List<EventSnapshot> getSubscriptionsOf(String nickname) {
+		List<EventSnapshot> result = new ArrayList<>();
+		for (EventSnapshot event : this.events.values()) {
+			if (event.getSubscribers().contains(nickname)) {
+				result.add(event);
+			}
+		}
+		result.sort(BY_ID);
+		return result;
+	}
+
+	/**
+	 * Restituisce la casella di posta dell'utente con il nickname dato.
+	 *
+	 * @param nickname Il nickname dell'utente
+	 * @return La casella di posta, o null se l'utente non è registrato
+	 */
+	public MailboxSnapshot getMailbox(String nickname) {
+		return this.mailboxes.get(nickname);
+	}
+
+	/**
+	 * @return Il numero di utenti registrati
+	 */
+	public int getUserCount() {
+		return this.mailboxes.size();
+	}
+
+}
@@ -0,0 +1,186 @@
+package it.unibs.ingesw.dpn.model.replication;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import it.unibs.ingesw.dpn.model.persistence.Model;
+
+/**
+ * Primario della replicazione: trasmette le modifiche del model alle repliche connesse
+ * attraverso un socket locale (vedi {@link ReplicaClient}).<br>
+ * <br>
+ * Ciascuna replica connessa viene servita da un thread dedicato, che legge il registro delle modifiche
+ * attraverso un proprio cursore (vedi {@link ChangeJournal.Cursor}) e trasmette i gruppi di modifiche
+ * non appena disponibili. In assenza di modifiche, il primario trasmette un gruppo vuoto ogni
+ * {@link #HEARTBEAT_INTERVAL_MILLIS} millisecondi, con cui la replica misura il proprio ritardo.<br>
+ * Una replica lenta non rallenta il primario né le altre repliche: le modifiche si accumulano nel suo cursore.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class ReplicationServer implements AutoCloseable {
+
+	/** Intervallo massimo fra due gruppi di modifiche consecutivi, in millisecondi */
+	public static final long HEARTBEAT_INTERVAL_MILLIS = 100;
+
+	/**
+	 * Connessione con una replica.
+	 */
+	private class Session implements Runnable {
+
+		private final Socket socket;
+		private final ChangeJournal.Cursor cursor;
+		private volatile long sentPosition;
+
+		private Session(Socket socket) {
+			this.socket = socket;
+			this.cursor = ReplicationServer.this.journal.openCursor();
+			this.sentPosition = 0;
+		}
+
+		@Override
+		public void run() {
+			try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(this.socket.getOutputStream()))) {
+				while (!ReplicationServer.this.closed) {
+					ChangeBatch batch = this.cursor.awaitBatch(HEARTBEAT_INTERVAL_MILLIS);
+					out.writeObject(batch);
+					out.flush();
+					// Le copie trasmesse non vengono più riferite: lo stream non deve conservarle
+					out.reset();
+					this.sentPosition = batch.getPosition();
+				}
+			}
+			catch (IOException | InterruptedException e) {
+				// La replica si è disconnessa, o il primario è stato chiuso
+			}
+			finally {
+				this.close();
+			}
+		}
+
+		private void close() {
+			ReplicationServer.this.journal.closeCursor(this.cursor);
+			ReplicationServer.this.sessions.remove(this);
+			try {
+				this.socket.close();
+			}
+			catch (IOException e) {
+				// Nessuna ulteriore operazione è necessaria
+			}
+		}
+
+	}
+
+	private final ChangeJournal journal;
+	private final ServerSocket serverSocket;
+	private final List<Session> sessions;
+	private final Thread acceptor;
+	private volatile boolean closed;
+
+	/**
+	 * Crea un primario per il model dato, in ascolto sull'interfaccia locale alla porta data.
+	 *
+	 * Precondizione: model != null, 0 <= port <= 65535
+	 *
+	 * @param model Il model da replicare
+	 * @param port La porta di ascolto, o 0 per utilizzare una porta libera qualsiasi
+	 * @throws IOException Se non è possibile mettersi in ascolto sulla porta data
+	 */
+	public ReplicationServer(Model model, int port) throws IOException {
+		// Verifica delle precondizioni
+		if (model == null) {
+			throw new IllegalArgumentException("Impossibile replicare un model nullo");
+		}
+		else if (port < 0 || port > 0xFFFF) {
+			throw new IllegalArgumentException("Porta di ascolto non valida: " + port);
+		}
+
+		this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+		this.journal = new ChangeJournal(model);
+		this.sessions = new CopyOnWriteArrayList<>();
+		this.closed = false;
+
+		this.acceptor = new Thread(this::acceptReplicas, "Replication-Acceptor");
+		this.acceptor.setDaemon(true);
+		this.acceptor.start();
+	}
+
+	private void acceptReplicas() {
+		int count = 0;
+		while (!this.closed) {
+			try {
+				Socket socket = this.serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				Session session = new Session(socket);
+				this.sessions.add(session);
+				Thread sender = new Thread(session, "Replication-Sender-" + (count++));
+				sender.setDaemon(true);
+				sender.start();
+			}
+			catch (IOException e) {
+				// Il socket di ascolto è stato chiuso
+			}
+		}
+	}
+
+	/**
+	 * @return La porta di ascolto del primario
+	 */
+	public int getPort() {
+		return this.serverSocket.getLocalPort();
+	}
+
+	/**
+	 * @return Il registro delle modifiche del primario
+	 */
+	public ChangeJournal getJournal() {
+		return this.journal;
+	}
+
+	/**
+	 * @return Il numero di repliche connesse
+	 */
+	public int getReplicaCount() {
+		return this.sessions.size();
+	}
+
+	/**
+	 * Restituisce il ritardo della replica più lenta, misurato come il numero di modifiche osservate
+	 * dal primario e non ancora trasmesse.
+	 *
+	 * @return Il ritardo massimo delle repliche connesse, o 0 se non ci sono repliche connesse
+	 */
+	public long getMaxReplicaLag() {
+		long position = this.journal.getPosition();
+		long lag = 0;
+		for (Session session : this.sessions) {
+			lag = Math.max(lag, position - session.sentPosition);
+		}
+		return lag;
+	}
+
+	/**
+	 * Chiude il primario, disconnettendo tutte le repliche, e smette di osservare le modifiche del model.
+	 */
+	@Override
+	public void close() {
+		this.closed = true;
+		try {
+			this.serverSocket.close();
+		}
+		catch (IOException e) {
+			// Nessuna ulteriore operazione è necessaria
+		}
+		for (Session session : this.sessions) {
+			session.close();
+		}
+		this.journal.detach();
+	}
+
+}
@@ -0,0 +1,92 @@
+package it.unibs.ingesw.dpn.model.sharding;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.users.Invite;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Richiesta di invito ad un evento, inviata alla partizione dell'evento.<br>
+ * Gli utenti della partizione ricevono l'invito; il risultato contiene inoltre il testo con cui l'invito
+ * viene recapitato agli utenti delle altre partizioni.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+final class InviteRequest implements ShardRequest<InviteRequest.Outcome> {
+
+	private static final long serialVersionUID = -6214907731358820342L;
+
+	/**
+	 * Esito di un invito sulla partizione dell'evento.
+	 */
+	static final class Outcome implements Serializable {
+
+		private static final long serialVersionUID = 1749362651064230127L;
+
+		private final int delivered;
+		private final String message;
+
+		private Outcome(int delivered, String message) {
+			this.delivered = delivered;
+			this.message = message;
+		}
+
+		/**
+		 * @return Il numero di inviti consegnati agli utenti della partizione dell'evento
+		 */
+		int getDelivered() {
+			return this.delivered;
+		}
+
+		/**
+		 * @return Il testo dell'invito per gli utenti delle altre partizioni, o null se l'evento non esiste
+		 */
+		String getMessage() {
+			return this.message;
+		}
+
+	}
+
+	private final String eventId;
+	private final List<String> nicknames;
+
+	/**
+	 * Crea la richiesta di invito.
+	 *
+	 * Precondizione: nicknames != null
+	 *
+	 * @param eventId L'identificativo dell'evento
+	 * @param nicknames I nickname degli utenti da invitare assegnati alla partizione dell'evento
+	 */
+	InviteRequest(String eventId, List<String> nicknames) {
+		// Verifica della precondizione
+		if (nicknames == null) {
+			throw new IllegalArgumentException("Impossibile inviare inviti con parametri nulli");
+		}
+
+		this.eventId = eventId;
+		this.nicknames = new ArrayList<>(nicknames);
+	}
+
+	@Override
+	public Outcome handle(Shard shard) {
+		Event event = shard.getEvent(this.eventId);
+		if (event == null) {
+			return new Outcome(0, null);
+		}
+		int delivered = 0;
+		for (String nickname : this.nicknames) {
+			User user = shard.getModel().getUsersRepository().getUser(nickname);
+			if (user != null) {
+				user.receive(new Invite(event));
+				delivered++;
+			}
+		}
+		return new Outcome(delivered, RemoteUser.inviteMessage(event));
+	}
+
+}
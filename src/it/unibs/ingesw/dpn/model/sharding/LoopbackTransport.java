@@ -0,0 +1,112 @@
+package it.unibs.ingesw.dpn.model.sharding;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Implementazione di {@link ShardTransport} che ospita tutte le partizioni nello stesso processo.<br>
+ * Ciascuna partizione dispone di un proprio thread, che esegue le operazioni ricevute una alla volta.
+ * Ogni operazione attraversa quindi la coda di una partizione: rispetto al model non partizionato, che gestisce
+ * già le operazioni concorrenti con il lock di ciascun evento, questo trasporto aggiunge un passaggio fra thread
+ * e non aumenta il throughput (vedi {@link ShardCoordinator}).<br>
+ * <br>
+ * Le richieste e i loro risultati vengono passati per riferimento, senza alcuna serializzazione; le partizioni
+ * utilizzano lo stesso trasporto per inviarsi le richieste.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class LoopbackTransport implements ShardTransport {
+
+	private static final String SHARD_THREAD_NAME = "Shard-";
+
+	private final Shard [] shards;
+	private final ExecutorService [] workers;
+
+	/**
+	 * Crea il numero di partizioni dato, vuote, ciascuna con il proprio thread.
+	 *
+	 * Precondizione: shardCount > 0
+	 *
+	 * @param shardCount Il numero di partizioni
+	 */
+	public LoopbackTransport(int shardCount) {
+		// Verifica della precondizione
+		if (shardCount <= 0) {
+			throw new IllegalArgumentException("Il numero di partizioni deve essere positivo");
+		}
+
+		this.shards = new Shard[shardCount];
+		this.workers = new ExecutorService[shardCount];
+		for (int i = 0; i < shardCount; i++) {
+			final String threadName = SHARD_THREAD_NAME + i;
+			this.shards[i] = new Shard(i, this);
+			this.workers[i] = Executors.newSingleThreadExecutor(task -> {
+				Thread thread = new Thread(task, threadName);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	@Override
+	public int getShardCount() {
+		return this.shards.length;
+	}
+
+	@Override
+	public <T> CompletableFuture<T> call(int shard, ShardRequest<T> request) {
+		// Verifica delle precondizioni
+		if (shard < 0 || shard >= this.shards.length) {
+			throw new IllegalArgumentException("Partizione inesistente: " + shard);
+		} else if (request == null) {
+			throw new IllegalArgumentException("Impossibile inviare una richiesta nulla");
+		}
+
+		Shard target = this.shards[shard];
+		CompletableFuture<T> result = new CompletableFuture<>();
+		try {
+			this.workers[shard].execute(() -> {
+				try {
+					result.complete(request.handle(target));
+				}
+				catch (Throwable ex) {
+					result.completeExceptionally(ex);
+				}
+			});
+		}
+		catch (RejectedExecutionException ex) {
+			throw new IllegalStateException("Impossibile inviare richieste ad un trasporto chiuso", ex);
+		}
+		return result;
+	}
+
+	/**
+	 * Restituisce la partizione con l'indice dato.<br>
+	 * La partizione deve essere utilizzata solamente dopo la chiusura del trasporto, o attraverso {@link #call(int, ShardRequest)}.
+	 *
+	 * @param shard L'indice della partizione
+	 * @return La partizione
+	 */
+	public Shard getShard(int shard) {
+		return this.shards[shard];
+	}
+
+	@Override
+	public void close() {
+		for (int i = 0; i < this.workers.length; i++) {
+			// La partizione viene chiusa dal proprio thread, dopo le richieste già ricevute
+			Shard shard = this.shards[i];
+			try {
+				this.workers[i].execute(shard::close);
+			}
+			catch (RejectedExecutionException ex) {
+				// Trasporto già chiuso
+			}
+			this.workers[i].shutdown();
+		}
+	}
+
+}
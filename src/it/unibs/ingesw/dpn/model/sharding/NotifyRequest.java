@@ -0,0 +1,60 @@
+package it.unibs.ingesw.dpn.model.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import it.unibs.ingesw.dpn.model.users.Notification;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Richiesta di consegna di una notifica ad alcuni utenti di una partizione.<br>
+ * La notifica viene creata dalla partizione che riceve la richiesta, ed è condivisa fra i suoi destinatari.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+final class NotifyRequest implements ShardRequest<Integer> {
+
+	private static final long serialVersionUID = 3871264096021458830L;
+
+	private final List<String> nicknames;
+	private final String message;
+
+	/**
+	 * Crea la richiesta di consegna.
+	 *
+	 * Precondizione: nicknames != null, message != null
+	 *
+	 * @param nicknames I nickname dei destinatari, tutti assegnati alla partizione che riceve la richiesta
+	 * @param message Il messaggio della notifica
+	 */
+	NotifyRequest(List<String> nicknames, String message) {
+		// Verifica delle precondizioni
+		if (nicknames == null || message == null) {
+			throw new IllegalArgumentException("Impossibile inviare notifiche con parametri nulli");
+		}
+
+		this.nicknames = new ArrayList<>(nicknames);
+		this.message = message;
+	}
+
+	/**
+	 * Consegna la notifica ai destinatari registrati nella partizione.
+	 *
+	 * @return Il numero di notifiche consegnate
+	 */
+	@Override
+	public Integer handle(Shard shard) {
+		Notification notification = new Notification(this.message);
+		int delivered = 0;
+		for (String nickname : this.nicknames) {
+			User user = shard.getModel().getUsersRepository().getUser(nickname);
+			if (user != null) {
+				user.receive(notification);
+				delivered++;
+			}
+		}
+		return delivered;
+	}
+
+}
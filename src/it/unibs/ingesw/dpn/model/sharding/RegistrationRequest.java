@@ -0,0 +1,32 @@
+package it.unibs.ingesw.dpn.model.sharding;
+
+/**
+ * Richiesta di verifica della registrazione di un utente, inviata alla partizione dell'utente.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+final class RegistrationRequest implements ShardRequest<Boolean> {
+
+	private static final long serialVersionUID = 8093561427705218604L;
+
+	private final String nickname;
+
+	/**
+	 * Crea la richiesta di verifica.
+	 *
+	 * @param nickname Il nickname dell'utente
+	 */
+	RegistrationRequest(String nickname) {
+		this.nickname = nickname;
+	}
+
+	/**
+	 * @return "true" se l'utente è registrato nella partizione
+	 */
+	@Override
+	public Boolean handle(Shard shard) {
+		return shard.getModel().getUsersRepository().isNicknameExisting(this.nickname);
+	}
+
+}
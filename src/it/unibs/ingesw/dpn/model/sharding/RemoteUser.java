@@ -0,0 +1,101 @@
+package it.unibs.ingesw.dpn.model.sharding;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.fields.UserField;
+import it.unibs.ingesw.dpn.model.fieldvalues.StringFieldValue;
+import it.unibs.ingesw.dpn.model.users.Invite;
+import it.unibs.ingesw.dpn.model.users.Notification;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Rappresentante locale di un utente che appartiene ad un'altra partizione.<br>
+ * <br>
+ * Gli eventi di una partizione fanno riferimento ai propri iscritti e ai propri creatori come oggetti {@link User}:
+ * quando l'utente appartiene ad un'altra partizione, l'evento mantiene un riferimento a questo rappresentante,
+ * che contiene solamente il nickname dell'utente. La posta ricevuta dal rappresentante non viene conservata,
+ * ma inoltrata come testo alla partizione dell'utente.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+final class RemoteUser extends User {
+
+	private static final long serialVersionUID = 5518764218863472135L;
+
+	/**
+	 * Inoltro della posta alla partizione di un utente.
+	 */
+	@FunctionalInterface
+	interface MailForwarder {
+
+		/**
+		 * Recapita all'utente con il nickname dato una notifica con il messaggio dato.
+		 *
+		 * @param nickname Il nickname del destinatario
+		 * @param message Il messaggio della notifica
+		 */
+		void forward(String nickname, String message);
+
+	}
+
+	/** L'inoltro della posta; non viene salvato su disco, e la posta ricevuta dopo il caricamento viene scartata */
+	private transient MailForwarder forwarder;
+
+	/**
+	 * Crea il rappresentante dell'utente con il nickname dato.
+	 *
+	 * Precondizione: nickname != null, forwarder != null
+	 *
+	 * @param nickname Il nickname dell'utente
+	 * @param forwarder L'inoltro della posta alla partizione dell'utente
+	 */
+	RemoteUser(String nickname, MailForwarder forwarder) {
+		// Verifica delle precondizioni
+		if (nickname == null || forwarder == null) {
+			throw new IllegalArgumentException("Impossibile creare un rappresentante con parametri nulli");
+		}
+
+		this.setFieldValue(UserField.NICKNAME, new StringFieldValue(nickname));
+		this.forwarder = forwarder;
+	}
+
+	/**
+	 * Inoltra il messaggio della notifica alla partizione dell'utente.
+	 *
+	 * @param n La notifica da inoltrare
+	 */
+	@Override
+	public void receive(Notification n) {
+		this.forward(n.getMessage());
+	}
+
+	/**
+	 * Inoltra l'invito alla partizione dell'utente, come notifica: l'evento dell'invito appartiene a questa
+	 * partizione, e non può essere consegnato all'utente.
+	 *
+	 * @param i L'invito da inoltrare
+	 */
+	@Override
+	public void receive(Invite i) {
+		this.forward(inviteMessage(i.getEvent()));
+	}
+
+	private void forward(String message) {
+		if (this.forwarder != null) {
+			this.forwarder.forward(this.getNickname(), message);
+		}
+	}
+
+	/**
+	 * Restituisce il testo con cui un invito all'evento dato viene recapitato ad un utente di un'altra partizione.
+	 *
+	 * @param event L'evento dell'invito
+	 * @return Il messaggio dell'invito
+	 */
+	static String inviteMessage(Event event) {
+		return String.format("%s ti ha invitato all'evento \"%s\"",
+				event.getCreator().getNickname(),
+				event.getTitle());
+	}
+
+}
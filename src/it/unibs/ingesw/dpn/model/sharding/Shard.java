@@ -0,0 +1,166 @@
+package it.unibs.ingesw.dpn.model.sharding;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.events.EventBoard;
+import it.unibs.ingesw.dpn.model.persistence.Model;
+import it.unibs.ingesw.dpn.model.users.User;
+import it.unibs.ingesw.dpn.model.users.UsersRepository;
+
+/**
+ * Partizione del model: contiene gli utenti e gli eventi assegnati alla partizione da un {@link ShardRouter},
+ * in un {@link Model} indipendente da quello delle altre partizioni.<br>
+ * Gli eventi della partizione sono indicizzati per identificativo.<br>
+ * Gli utenti di altre partizioni coinvolti negli eventi della partizione sono rappresentati da
+ * un {@link RemoteUser}, unico per ciascun nickname: la posta ricevuta dal rappresentante viene inoltrata
+ * alla partizione dell'utente come {@link ShardRequest}, attraverso il trasporto verso le altre partizioni.<br>
+ * <br>
+ * Nota: una partizione non è thread-safe, e deve essere utilizzata esclusivamente dalle operazioni
+ * ricevute attraverso il proprio {@link ShardTransport}.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class Shard {
+
+	private final int index;
+	/** Il trasporto verso le altre partizioni, e l'assegnamento degli utenti alle partizioni */
+	private final ShardTransport peers;
+	private final ShardRouter router;
+	private final Model model;
+	private final Map<String, Event> events;
+	private final Map<String, User> remoteUsers;
+
+	/**
+	 * Crea una partizione vuota.
+	 *
+	 * Precondizione: 0 <= index < peers.getShardCount()
+	 *
+	 * @param index L'indice della partizione
+	 * @param peers Il trasporto verso le altre partizioni
+	 */
+	public Shard(int index, ShardTransport peers) {
+		// Verifica delle precondizioni
+		if (peers == null || index < 0 || index >= peers.getShardCount()) {
+			throw new IllegalArgumentException("Indice o trasporto della partizione non validi");
+		}
+
+		this.index = index;
+		this.peers = peers;
+		this.router = new ShardRouter(peers.getShardCount());
+		this.model = new Model(new EventBoard(), new UsersRepository());
+		this.events = new HashMap<>();
+		this.remoteUsers = new HashMap<>();
+	}
+
+	/**
+	 * @return L'indice della partizione
+	 */
+	public int getIndex() {
+		return this.index;
+	}
+
+	/**
+	 * @return Il model della partizione
+	 */
+	public Model getModel() {
+		return this.model;
+	}
+
+	/**
+	 * Restituisce l'evento della partizione con l'identificativo dato.
+	 *
+	 * @param id L'identificativo dell'evento
+	 * @return L'evento, o null se la partizione non contiene alcun evento con l'identificativo dato
+	 */
+	public Event getEvent(String id) {
+		return this.events.get(id);
+	}
+
+	/**
+	 * Pubblica un evento nella bacheca della partizione, associandolo all'identificativo dato.
+	 *
+	 * Precondizione: id != null, event != null
+	 *
+	 * @param id L'identificativo dell'evento
+	 * @param event L'evento da pubblicare
+	 * @return "true" se l'evento è stato pubblicato, "false" se l'identificativo è già in uso o l'evento
+	 * non può essere pubblicato
+	 */
+	public boolean publishEvent(String id, Event event) {
+		// Verifica delle precondizioni
+		if (id == null || event == null) {
+			throw new IllegalArgumentException("Impossibile pubblicare un evento con parametri nulli");
+		}
+
+		if (this.events.containsKey(id) || !this.model.getEventBoard().addEvent(event)) {
+			return false;
+		}
+		this.events.put(id, event);
+		return true;
+	}
+
+	/**
+	 * Rimuove dalla bacheca della partizione l'evento con l'identificativo dato.
+	 *
+	 * @param id L'identificativo dell'evento
+	 * @return "true" se l'evento è stato rimosso, "false" altrimenti
+	 */
+	public boolean removeEvent(String id) {
+		Event event = this.events.get(id);
+		if (event == null || !this.model.getEventBoard().removeEvent(event)) {
+			return false;
+		}
+		this.events.remove(id);
+		return true;
+	}
+
+	/**
+	 * Restituisce l'utente con il nickname dato: l'utente stesso se appartiene a questa partizione, altrimenti
+	 * il suo rappresentante locale, creato alla prima richiesta.
+	 *
+	 * @param nickname Il nickname dell'utente
+	 * @param registered "true" se l'utente, appartenente ad un'altra partizione, vi è registrato
+	 * @return L'utente o il suo rappresentante, oppure null se l'utente non è registrato
+	 */
+	User findUser(String nickname, boolean registered) {
+		if (this.router.shardOfUser(nickname) == this.index) {
+			return this.model.getUsersRepository().getUser(nickname);
+		}
+		if (!registered) {
+			return null;
+		}
+		return this.remoteUsers.computeIfAbsent(nickname, key -> new RemoteUser(key, this::forwardMail));
+	}
+
+	/**
+	 * Recapita la posta ricevuta dal rappresentante di un utente alla partizione dell'utente.
+	 * Se il trasporto è già stato chiuso la posta viene scartata, senza interrompere la richiesta in corso.
+	 */
+	private void forwardMail(String nickname, String message) {
+		try {
+			this.peers.call(this.router.shardOfUser(nickname), new NotifyRequest(Collections.singletonList(nickname), message));
+		}
+		catch (IllegalStateException ex) {
+			// Trasporto chiuso: la partizione dell'utente non riceve più richieste
+		}
+	}
+
+	/**
+	 * Rilascia le risorse della partizione, chiudendo la bacheca del suo model (vedi {@link EventBoard#close()}).
+	 */
+	public void close() {
+		this.model.getEventBoard().close();
+	}
+
+	/**
+	 * @return Il numero di eventi della partizione
+	 */
+	public int getEventCount() {
+		return this.events.size();
+	}
+
+}
@@ -0,0 +1,235 @@
+package it.unibs.ingesw.dpn.model.sharding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coordinatore di un model partizionato: instrada ciascuna richiesta verso la partizione che
+ * contiene l'utente o l'evento interessato (vedi {@link ShardRouter}), attraverso un {@link ShardTransport}.<br>
+ * <br>
+ * Le partizioni ricevono richieste serializzabili (vedi {@link ShardRequest}), che contengono solamente nickname,
+ * identificativi e messaggi, e vengono interpretate dalla partizione che le riceve: il coordinatore non consegna
+ * alle partizioni alcun proprio oggetto, e gli oggetti di ciascuna partizione non vengono mai consegnati ad
+ * un'altra partizione. Le operazioni che coinvolgono più partizioni vengono scomposte in richieste alle
+ * singole partizioni.
+ * <ul>
+ * 	<li> le operazioni di un utente su un evento (ad esempio l'iscrizione) vengono gestite dalla partizione
+ * 	dell'evento, dove un utente di un'altra partizione è rappresentato da un {@link RemoteUser}
+ * 	(vedi {@link #callWithUser(String, String, UserShardRequest)}); </li>
+ * 	<li> l'invio di notifiche a più utenti raggruppa i destinatari per partizione, ed invia
+ * 	un'unica richiesta a ciascuna partizione coinvolta; </li>
+ * 	<li> gli utenti di altre partizioni invitati ad un evento ricevono l'invito come notifica. </li>
+ * </ul>
+ * Le richieste inviate da uno stesso thread che riguardano uno stesso utente vengono gestite nell'ordine
+ * di invio, poiché ciascuna partizione gestisce le richieste ricevute nell'ordine di arrivo.<br>
+ * <br>
+ * Il partizionamento stabilisce quale partizione possiede ciascun utente e ciascun evento, e definisce
+ * il protocollo delle richieste fra le partizioni; non è uno strumento per aumentare il throughput.
+ * L'unico trasporto disponibile, {@link LoopbackTransport}, ospita tutte le partizioni nello stesso processo,
+ * e le operazioni eseguite attraverso di esso sono più lente che sul model non partizionato.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class ShardCoordinator implements AutoCloseable {
+
+	private final ShardTransport transport;
+	private final ShardRouter router;
+
+	/** Nickname di cui è già stata verificata la registrazione; gli utenti non vengono mai rimossi */
+	private final Set<String> registeredUsers;
+
+	/**
+	 * Crea un coordinatore per le partizioni raggiungibili attraverso il trasporto dato.
+	 *
+	 * Precondizione: transport != null
+	 *
+	 * @param transport Il livello di comunicazione con le partizioni
+	 */
+	public ShardCoordinator(ShardTransport transport) {
+		// Verifica della precondizione
+		if (transport == null) {
+			throw new IllegalArgumentException("Impossibile creare un coordinatore senza livello di comunicazione");
+		}
+
+		this.transport = transport;
+		this.router = new ShardRouter(transport.getShardCount());
+		this.registeredUsers = ConcurrentHashMap.newKeySet();
+	}
+
+	/**
+	 * @return Il numero di partizioni coordinate
+	 */
+	public int getShardCount() {
+		return this.router.getShardCount();
+	}
+
+	/**
+	 * @return L'assegnamento di utenti ed eventi alle partizioni
+	 */
+	public ShardRouter getRouter() {
+		return this.router;
+	}
+
+	/**
+	 * Invia una richiesta alla partizione dell'utente con il nickname dato.
+	 *
+	 * @param nickname Il nickname dell'utente
+	 * @param request La richiesta da inviare
+	 * @return Il risultato futuro della richiesta
+	 */
+	public <T> CompletableFuture<T> callUserShard(String nickname, ShardRequest<T> request) {
+		return this.transport.call(this.router.shardOfUser(nickname), request);
+	}
+
+	/**
+	 * Invia una richiesta alla partizione dell'evento con l'identificativo dato.
+	 *
+	 * @param eventId L'identificativo dell'evento
+	 * @param request La richiesta da inviare
+	 * @return Il risultato futuro della richiesta
+	 */
+	public <T> CompletableFuture<T> callEventShard(String eventId, ShardRequest<T> request) {
+		return this.transport.call(this.router.shardOfEvent(eventId), request);
+	}
+
+	/**
+	 * Invia una richiesta alla partizione di un evento per conto di un utente.<br>
+	 * Se l'utente appartiene ad un'altra partizione, la richiesta riceve il suo rappresentante locale
+	 * (vedi {@link RemoteUser}); la registrazione dell'utente viene verificata sulla sua partizione
+	 * solamente la prima volta.
+	 *
+	 * @param nickname Il nickname dell'utente
+	 * @param eventId L'identificativo dell'evento
+	 * @param request La richiesta da inviare
+	 * @return Il risultato futuro della richiesta
+	 */
+	public <T> CompletableFuture<T> callWithUser(String nickname, String eventId, UserShardRequest<T> request) {
+		if (request == null) {
+			throw new IllegalArgumentException("Impossibile inviare una richiesta nulla");
+		}
+		int eventShard = this.router.shardOfEvent(eventId);
+		if (this.router.shardOfUser(nickname) == eventShard || this.registeredUsers.contains(nickname)) {
+			return this.transport.call(eventShard, new UserRequestEnvelope<>(nickname, true, request));
+		}
+
+		return this.callUserShard(nickname, new RegistrationRequest(nickname))
+				.thenCompose(registered -> {
+					if (registered) {
+						this.registeredUsers.add(nickname);
+					}
+					return this.transport.call(eventShard, new UserRequestEnvelope<>(nickname, registered, request));
+				});
+	}
+
+	/**
+	 * Invia una richiesta a tutte le partizioni, restituendo i risultati nell'ordine delle partizioni.
+	 *
+	 * @param request La richiesta da inviare
+	 * @return I risultati futuri della richiesta
+	 */
+	public <T> CompletableFuture<List<T>> broadcast(ShardRequest<T> request) {
+		List<CompletableFuture<T>> results = new ArrayList<>(this.getShardCount());
+		for (int i = 0; i < this.getShardCount(); i++) {
+			results.add(this.transport.call(i, request));
+		}
+		return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+			List<T> values = new ArrayList<>(results.size());
+			for (CompletableFuture<T> result : results) {
+				values.add(result.join());
+			}
+			return values;
+		});
+	}
+
+	/**
+	 * Consegna una notifica con il messaggio dato agli utenti dati, inviando un'unica richiesta a ciascuna
+	 * partizione coinvolta. La notifica viene creata dalla partizione stessa, e condivisa solamente fra i
+	 * destinatari della partizione: gli oggetti di una partizione non vengono mai consegnati ad un'altra partizione.
+	 *
+	 * Precondizione: nicknames != null, message != null
+	 *
+	 * @param nicknames I nickname dei destinatari
+	 * @param message Il messaggio della notifica
+	 * @return Il numero futuro di notifiche consegnate; i nickname non registrati vengono ignorati
+	 */
+	public CompletableFuture<Integer> notifyUsers(Collection<String> nicknames, String message) {
+		if (nicknames == null || message == null) {
+			throw new IllegalArgumentException("Impossibile inviare notifiche con parametri nulli");
+		}
+		return this.deliver(nicknames, message);
+	}
+
+	/**
+	 * Invita gli utenti dati all'evento con l'identificativo dato: gli utenti della partizione dell'evento ricevono
+	 * l'invito, mentre agli utenti delle altre partizioni viene recapitata una notifica con il testo dell'invito.
+	 *
+	 * Precondizione: nicknames != null
+	 *
+	 * @param eventId L'identificativo dell'evento
+	 * @param nicknames I nickname degli utenti da invitare
+	 * @return Il numero futuro di inviti consegnati; i nickname non registrati vengono ignorati,
+	 * e nessun invito viene consegnato se l'evento non esiste
+	 */
+	public CompletableFuture<Integer> inviteUsers(String eventId, Collection<String> nicknames) {
+		if (nicknames == null) {
+			throw new IllegalArgumentException("Impossibile inviare inviti con parametri nulli");
+		}
+		int eventShard = this.router.shardOfEvent(eventId);
+		List<String> localRecipients = new ArrayList<>();
+		List<String> remoteRecipients = new ArrayList<>();
+		for (String nickname : nicknames) {
+			(this.router.shardOfUser(nickname) == eventShard ? localRecipients : remoteRecipients).add(nickname);
+		}
+
+		return this.transport.call(eventShard, new InviteRequest(eventId, localRecipients)).thenCompose(outcome -> {
+			if (outcome.getMessage() == null || remoteRecipients.isEmpty()) {
+				return CompletableFuture.completedFuture(outcome.getDelivered());
+			}
+			return this.notifyUsers(remoteRecipients, outcome.getMessage())
+					.thenApply(remoteDelivered -> outcome.getDelivered() + remoteDelivered);
+		});
+	}
+
+	/**
+	 * Raggruppa i destinatari per partizione ed invia a ciascuna partizione coinvolta un'unica richiesta
+	 * di consegna (vedi {@link NotifyRequest}).
+	 */
+	private CompletableFuture<Integer> deliver(Collection<String> nicknames, String message) {
+		List<List<String>> recipients = new ArrayList<>(this.getShardCount());
+		for (int i = 0; i < this.getShardCount(); i++) {
+			recipients.add(new ArrayList<>());
+		}
+		for (String nickname : nicknames) {
+			recipients.get(this.router.shardOfUser(nickname)).add(nickname);
+		}
+
+		List<CompletableFuture<Integer>> results = new ArrayList<>();
+		for (int i = 0; i < this.getShardCount(); i++) {
+			List<String> shardRecipients = recipients.get(i);
+			if (shardRecipients.isEmpty()) {
+				continue;
+			}
+			results.add(this.transport.call(i, new NotifyRequest(shardRecipients, message)));
+		}
+
+		CompletableFuture<Integer> total = CompletableFuture.completedFuture(0);
+		for (CompletableFuture<Integer> result : results) {
+			total = total.thenCombine(result, Integer::sum);
+		}
+		return total;
+	}
+
+	/**
+	 * Chiude il livello di comunicazione con le partizioni.
+	 */
+	@Override
+	public void close() {
+		this.transport.close();
+	}
+
+}
@@ -0,0 +1,29 @@
+package it.unibs.ingesw.dpn.model.sharding;
+
+import java.io.Serializable;
+
+/**
+ * Richiesta inviata ad una singola partizione del model (vedi {@link Shard}), attraverso
+ * un {@link ShardTransport}.<br>
+ * Una richiesta è un messaggio serializzabile che contiene solamente nickname, identificativi e testi:
+ * non deve fare riferimento ad oggetti del coordinatore o di altre partizioni, e viene interpretata
+ * dalla partizione che la riceve.<br>
+ * La richiesta viene gestita dal thread della partizione, in mutua esclusione con tutte le altre
+ * richieste sulla stessa partizione.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ * @param <T> Il tipo del risultato della richiesta
+ */
+public interface ShardRequest<T> extends Serializable {
+
+	/**
+	 * Gestisce la richiesta sulla partizione che l'ha ricevuta.
+	 *
+	 * @param shard La partizione che ha ricevuto la richiesta
+	 * @return Il risultato della richiesta
+	 * @throws Exception In caso di errori durante la gestione, restituiti al mittente
+	 */
+	public T handle(Shard shard) throws Exception;
+
+}
@@ -0,0 +1,74 @@
+package it.unibs.ingesw.dpn.model.sharding;
+
+/**
+ * Assegnamento di utenti ed eventi alle partizioni del model: gli utenti vengono assegnati in base
+ * all'hash del nickname, gli eventi in base all'hash del loro identificativo.<br>
+ * L'assegnamento dipende solamente dalla chiave e dal numero di partizioni, ed è quindi lo stesso
+ * su qualsiasi nodo.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public final class ShardRouter {
+
+	private final int shardCount;
+
+	/**
+	 * Crea un assegnamento sul numero di partizioni dato.
+	 *
+	 * Precondizione: shardCount > 0
+	 *
+	 * @param shardCount Il numero di partizioni
+	 */
+	public ShardRouter(int shardCount) {
+		// Verifica della precondizione
+		if (shardCount <= 0) {
+			throw new IllegalArgumentException("Il numero di partizioni deve essere positivo");
+		}
+
+		this.shardCount = shardCount;
+	}
+
+	/**
+	 * @return Il numero di partizioni
+	 */
+	public int getShardCount() {
+		return this.shardCount;
+	}
+
+	/**
+	 * Restituisce la partizione a cui appartiene l'utente con il nickname dato.
+	 *
+	 * Precondizione: nickname != null
+	 *
+	 * @param nickname Il nickname dell'utente
+	 * @return L'indice della partizione
+	 */
+	public int shardOfUser(String nickname) {
+		return this.shardOf(nickname);
+	}
+
+	/**
+	 * Restituisce la partizione a cui appartiene l'evento con l'identificativo dato.
+	 *
+	 * Precondizione: eventId != null
+	 *
+	 * @param eventId L'identificativo dell'evento
+	 * @return L'indice della partizione
+	 */
+	public int shardOfEvent(String eventId) {
+		return this.shardOf(eventId);
+	}
+
+	private int shardOf(String key) {
+		// Verifica della precondizione
+		if (key == null) {
+			throw new IllegalArgumentException("Impossibile assegnare una chiave nulla ad una partizione");
+		}
+
+		// Rimescolo i bit dell'hash, in modo che chiavi simili ("utente1", "utente2", ...) si distribuiscano uniformemente
+		int hash = key.hashCode() * 0x9E3779B9;
+		return Math.floorMod(hash ^ (hash >>> 16), this.shardCount);
+	}
+
+}
@@ -0,0 +1,41 @@
+package it.unibs.ingesw.dpn.model.sharding;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Livello di comunicazione fra il coordinatore (vedi {@link ShardCoordinator}) e le partizioni del model.<br>
+ * Ciascuna partizione gestisce le richieste ricevute (vedi {@link ShardRequest}) una alla volta, nell'ordine
+ * di arrivo; le partizioni diverse non condividono alcun oggetto né alcun lock.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public interface ShardTransport extends AutoCloseable {
+
+	/**
+	 * Restituisce il numero di partizioni raggiungibili.
+	 *
+	 * @return Il numero di partizioni
+	 */
+	public int getShardCount();
+
+	/**
+	 * Invia una richiesta alla partizione data, restituendone il risultato futuro.<br>
+	 * Le eccezioni sollevate dalla gestione della richiesta completano eccezionalmente il risultato.
+	 *
+	 * Precondizione: 0 <= shard < getShardCount(), request != null
+	 *
+	 * @param shard L'indice della partizione
+	 * @param request La richiesta da inviare
+	 * @return Il risultato futuro della richiesta
+	 */
+	public <T> CompletableFuture<T> call(int shard, ShardRequest<T> request);
+
+	/**
+	 * Chiude il livello di comunicazione; le richieste inviate successivamente vengono rifiutate.
+	 * Al termine delle richieste già ricevute, ciascuna partizione viene chiusa (vedi {@link Shard#close()}).
+	 */
+	@Override
+	public void close();
+
+}
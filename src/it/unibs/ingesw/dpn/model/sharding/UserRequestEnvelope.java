@@ -0,0 +1,46 @@
+package it.unibs.ingesw.dpn.model.sharding;
+
+/**
+ * Richiesta inviata alla partizione di un evento per conto di un utente (vedi {@link UserShardRequest}).<br>
+ * La partizione dell'evento individua l'utente a partire dal suo nickname: se l'utente appartiene ad un'altra
+ * partizione viene utilizzato il suo rappresentante locale, solamente se la sua registrazione è già stata
+ * verificata dal mittente.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ * @param <T> Il tipo del risultato della richiesta
+ */
+final class UserRequestEnvelope<T> implements ShardRequest<T> {
+
+	private static final long serialVersionUID = -3390745829371026215L;
+
+	private final String nickname;
+	private final boolean registered;
+	private final UserShardRequest<T> request;
+
+	/**
+	 * Crea la richiesta per conto dell'utente dato.
+	 *
+	 * Precondizione: request != null
+	 *
+	 * @param nickname Il nickname dell'utente
+	 * @param registered "true" se l'utente è registrato; ignorato se l'utente appartiene alla partizione dell'evento
+	 * @param request La richiesta da gestire per conto dell'utente
+	 */
+	UserRequestEnvelope(String nickname, boolean registered, UserShardRequest<T> request) {
+		// Verifica della precondizione
+		if (request == null) {
+			throw new IllegalArgumentException("Impossibile inviare una richiesta nulla");
+		}
+
+		this.nickname = nickname;
+		this.registered = registered;
+		this.request = request;
+	}
+
+	@Override
+	public T handle(Shard shard) throws Exception {
+		return this.request.handle(shard, shard.findUser(this.nickname, this.registered));
+	}
+
+}
@@ -0,0 +1,30 @@
+package it.unibs.ingesw.dpn.model.sharding;
+
+import java.io.Serializable;
+
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Richiesta inviata alla partizione di un evento per conto di un utente, che può appartenere
+ * ad un'altra partizione (vedi {@link ShardCoordinator#callWithUser(String, String, UserShardRequest)}).<br>
+ * Come ogni {@link ShardRequest}, la richiesta è un messaggio serializzabile: l'utente viene individuato
+ * dalla partizione dell'evento a partire dal suo nickname.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ * @param <T> Il tipo del risultato della richiesta
+ */
+public interface UserShardRequest<T> extends Serializable {
+
+	/**
+	 * Gestisce la richiesta sulla partizione dell'evento, per conto dell'utente dato.
+	 *
+	 * @param eventShard La partizione dell'evento
+	 * @param user L'utente, se appartiene alla partizione dell'evento, altrimenti il suo rappresentante
+	 * locale (vedi {@link RemoteUser}); null se l'utente non è registrato
+	 * @return Il risultato della richiesta
+	 * @throws Exception In caso di errori durante la gestione, restituiti al mittente
+	 */
+	public T handle(Shard eventShard, User user) throws Exception;
+
+}
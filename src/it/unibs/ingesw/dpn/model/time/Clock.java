@@ -0,0 +1,58 @@
+package it.unibs.ingesw.dpn.model.time;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Sorgente del tempo corrente e pianificatore delle azioni temporizzate del model.<br>
+ * Tutte le letture dell'istante corrente e tutte le scadenze (ad esempio i passaggi di stato
+ * degli eventi) passano per l'orologio attivo, ottenibile mediante {@link Clocks#current()}.
+ * In questo modo è possibile sostituire il tempo reale con un tempo simulato
+ * (vedi {@link VirtualClock}), che avanza solo su richiesta.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public interface Clock {
+
+	/**
+	 * Restituisce l'istante corrente, in millisecondi dalla mezzanotte del 1/1/1970 (UTC).
+	 *
+	 * @return L'istante corrente
+	 */
+	long currentTimeMillis();
+
+	/**
+	 * Pianifica l'esecuzione di un'azione nell'istante dato.<br>
+	 * Se l'istante è già trascorso, l'azione viene eseguita il prima possibile.
+	 * Azioni pianificate per lo stesso istante vengono eseguite nell'ordine di pianificazione.
+	 *
+	 * Precondizione: when != null, task != null
+	 *
+	 * @param when L'istante di esecuzione
+	 * @param task L'azione da eseguire
+	 * @return Il riferimento all'azione pianificata, utilizzabile per annullarla
+	 */
+	ScheduledTask schedule(Date when, Runnable task);
+
+	/**
+	 * Restituisce l'istante corrente come oggetto {@link Date}.
+	 *
+	 * @return L'istante corrente
+	 */
+	default Date now() {
+		return new Date(this.currentTimeMillis());
+	}
+
+	/**
+	 * Restituisce la data corrente nel fuso orario di sistema.
+	 *
+	 * @return La data corrente
+	 */
+	default LocalDate today() {
+		return Instant.ofEpochMilli(this.currentTimeMillis()).atZone(ZoneId.systemDefault()).toLocalDate();
+	}
+
+}
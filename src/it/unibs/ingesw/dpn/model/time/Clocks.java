@@ -0,0 +1,53 @@
+package it.unibs.ingesw.dpn.model.time;
+
+/**
+ * Punto di accesso all'orologio attivo del model.<br>
+ * Per default l'orologio è {@link SystemClock}; test e simulazioni possono sostituirlo,
+ * ad esempio con un {@link VirtualClock}, e ripristinarlo al termine.<br>
+ * <br>
+ * Nota: le azioni già pianificate restano associate all'orologio su cui sono state pianificate;
+ * è quindi opportuno sostituire l'orologio prima di creare o caricare gli eventi.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public final class Clocks {
+
+	private static volatile Clock current = SystemClock.INSTANCE;
+
+	private Clocks() {
+		// Classe non istanziabile
+	}
+
+	/**
+	 * Restituisce l'orologio attivo.
+	 *
+	 * @return L'orologio attivo
+	 */
+	public static Clock current() {
+		return current;
+	}
+
+	/**
+	 * Imposta l'orologio attivo.
+	 *
+	 * Precondizione: clock != null
+	 *
+	 * @param clock Il nuovo orologio
+	 */
+	public static void setCurrent(Clock clock) {
+		// Verifica della precondizione
+		if (clock == null) {
+			throw new IllegalArgumentException("Impossibile impostare un orologio nullo");
+		}
+		current = clock;
+	}
+
+	/**
+	 * Ripristina l'orologio di sistema come orologio attivo.
+	 */
+	public static void useSystemClock() {
+		current = SystemClock.INSTANCE;
+	}
+
+}
@@ -0,0 +1,17 @@
+package it.unibs.ingesw.dpn.model.time;
+
+/**
+ * Riferimento a un'azione pianificata mediante {@link Clock#schedule(java.util.Date, Runnable)}.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public interface ScheduledTask {
+
+	/**
+	 * Annulla l'azione, se non è ancora stata eseguita.
+	 * Non ha effetto se l'azione è già stata eseguita o annullata.
+	 */
+	void cancel();
+
+}
@@ -0,0 +1,64 @@
+package it.unibs.ingesw.dpn.model.time;
+
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orologio basato sul tempo reale di sistema.<br>
+ * Le azioni pianificate vengono eseguite da un unico thread daemon condiviso, nell'ordine delle
+ * rispettive scadenze: il numero di thread non dipende dal numero di eventi in bacheca.
+ * Le azioni annullate vengono rimosse immediatamente dalla coda.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public final class SystemClock implements Clock {
+
+	/** Istanza unica */
+	public static final SystemClock INSTANCE = new SystemClock();
+
+	private static final String THREAD_NAME = "SystemClock-scheduler";
+
+	private final ScheduledThreadPoolExecutor executor;
+
+	private SystemClock() {
+		this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, THREAD_NAME);
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.executor.setRemoveOnCancelPolicy(true);
+	}
+
+	@Override
+	public long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	/**
+	 * {@inheritDoc}<br>
+	 * Le eccezioni sollevate dall'azione vengono stampate su console, senza interrompere
+	 * l'esecuzione delle altre azioni pianificate.
+	 */
+	@Override
+	public ScheduledTask schedule(Date when, Runnable task) {
+		// Verifica delle precondizioni
+		if (when == null || task == null) {
+			throw new IllegalArgumentException("Impossibile pianificare un'azione con parametri nulli");
+		}
+
+		long delay = Math.max(0, when.getTime() - this.currentTimeMillis());
+		ScheduledFuture<?> future = this.executor.schedule(() -> {
+			try {
+				task.run();
+			}
+			catch (RuntimeException ex) {
+				ex.printStackTrace();
+			}
+		}, delay, TimeUnit.MILLISECONDS);
+		return () -> future.cancel(false);
+	}
+
+}
@@ -0,0 +1,183 @@
+package it.unibs.ingesw.dpn.model.time;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Servizio centralizzato di formattazione delle date visualizzate dal programma.<br>
+ * Ciascun formato è basato su un {@link DateTimeFormatter}, immutabile e quindi utilizzabile
+ * contemporaneamente da più thread (ad esempio dai thread dell'orologio che eseguono le scadenze degli eventi),
+ * a differenza di {@link java.text.SimpleDateFormat}.<br>
+ * <br>
+ * Poiché gli istanti visualizzati (date delle notifiche, della cronologia degli eventi, dei campi) sono
+ * immutabili e vengono visualizzati ripetutamente, le stringhe prodotte vengono memorizzate in una tabella
+ * di dimensione fissa indicizzata dall'istante: la formattazione di un istante già visualizzato non alloca
+ * alcun oggetto, in particolare se aggiunta direttamente ad uno {@link StringBuilder}
+ * (vedi {@link #formatTo(long, StringBuilder)}).<br>
+ * <br>
+ * Le date vengono formattate secondo il fuso orario e la lingua di default del sistema al momento del caricamento
+ * della classe.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public final class TimestampFormat {
+
+	/** Formato dei campi di tipo "Data e Ora" */
+	public static final TimestampFormat FIELD_DATE_TIME = new TimestampFormat("dd/MM/yyyy - HH:mm");
+	/** Formato dei campi di tipo "Data" */
+	public static final TimestampFormat FIELD_DATE = new TimestampFormat("dd/MM/yyyy");
+	/** Formato della data di invio dei messaggi (notifiche e inviti) */
+	public static final TimestampFormat MESSAGE_DATE_TIME = new TimestampFormat("dd/MM/yyyy @ HH:mm");
+	/** Formato della data degli avvenimenti nella cronologia degli eventi */
+	public static final TimestampFormat HISTORY_DATE_TIME = new TimestampFormat("EEE dd/MM/yyyy, HH:mm:ss");
+
+	/** Numero di stringhe memorizzate per ciascun formato */
+	public static final int CACHE_SIZE = 1 << 10;
+
+	/**
+	 * Stringa formattata associata ad un istante.
+	 */
+	private static class Entry {
+
+		private final long epochMillis;
+		private final String text;
+
+		private Entry(long epochMillis, String text) {
+			this.epochMillis = epochMillis;
+			this.text = text;
+		}
+
+	}
+
+	private final String pattern;
+	private final DateTimeFormatter formatter;
+	private final AtomicReferenceArray<Entry> cache;
+
+	/**
+	 * Crea un formato secondo il pattern dato (vedi {@link DateTimeFormatter#ofPattern(String)}).
+	 *
+	 * Precondizione: pattern != null
+	 *
+	 * @param pattern Il pattern del formato
+	 */
+	public TimestampFormat(String pattern) {
+		// Verifica della precondizione
+		if (pattern == null) {
+			throw new IllegalArgumentException("Impossibile creare un formato di date con pattern nullo");
+		}
+
+		this.pattern = pattern;
+		this.formatter = DateTimeFormatter.ofPattern(pattern).withZone(ZoneId.systemDefault());
+		this.cache = new AtomicReferenceArray<>(CACHE_SIZE);
+	}
+
+	/**
+	 * Restituisce la stringa corrispondente all'istante dato.
+	 *
+	 * Precondizione: date != null
+	 *
+	 * @param date L'istante da formattare
+	 * @return La stringa corrispondente all'istante
+	 */
+	public String format(Date date) {
+		// Verifica della precondizione
+		if (date == null) {
+			throw new IllegalArgumentException("Impossibile formattare una data nulla");
+		}
+
+		return this.format(date.getTime());
+	}
+
+	/**
+	 * Restituisce la stringa corrispondente all'istante dato, espresso in millisecondi dal 1 gennaio 1970.
+	 *
+	 * @param epochMillis L'istante da formattare
+	 * @return La stringa corrispondente all'istante
+	 */
+	public String format(long epochMillis) {
+		int index = indexOf(epochMillis);
+		Entry entry = this.cache.get(index);
+		if (entry == null || entry.epochMillis != epochMillis) {
+			entry = new Entry(epochMillis, this.formatter.format(Instant.ofEpochMilli(epochMillis)));
+			this.cache.set(index, entry);
+		}
+		return entry.text;
+	}
+
+	/**
+	 * Restituisce la stringa corrispondente alla data (o all'orario) dato.<br>
+	 * Le stringhe prodotte da questo metodo non vengono memorizzate.
+	 *
+	 * Precondizione: temporal != null
+	 *
+	 * @param temporal La data da formattare, ad esempio un oggetto {@link java.time.LocalDate}
+	 * @return La stringa corrispondente alla data
+	 */
+	public String format(TemporalAccessor temporal) {
+		// Verifica della precondizione
+		if (temporal == null) {
+			throw new IllegalArgumentException("Impossibile formattare una data nulla");
+		}
+
+		return this.formatter.format(temporal);
+	}
+
+	/**
+	 * Aggiunge la stringa corrispondente all'istante dato in coda al buffer dato.
+	 *
+	 * Precondizione: buffer != null
+	 *
+	 * @param epochMillis L'istante da formattare
+	 * @param buffer Il buffer a cui aggiungere la stringa
+	 * @return Il buffer dato
+	 */
+	public StringBuilder formatTo(long epochMillis, StringBuilder buffer) {
+		// Verifica della precondizione
+		if (buffer == null) {
+			throw new IllegalArgumentException("Impossibile formattare una data su un buffer nullo");
+		}
+
+		return buffer.append(this.format(epochMillis));
+	}
+
+	/**
+	 * Aggiunge la stringa corrispondente all'istante dato in coda al buffer dato.
+	 *
+	 * Precondizione: date != null, buffer != null
+	 *
+	 * @param date L'istante da formattare
+	 * @param buffer Il buffer a cui aggiungere la stringa
+	 * @return Il buffer dato
+	 */
+	public StringBuilder formatTo(Date date, StringBuilder buffer) {
+		// Verifica della precondizione
+		if (date == null) {
+			throw new IllegalArgumentException("Impossibile formattare una data nulla");
+		}
+
+		return this.formatTo(date.getTime(), buffer);
+	}
+
+	/**
+	 * Restituisce il pattern del formato.
+	 *
+	 * @return Il pattern del formato
+	 */
+	public String getPattern() {
+		return this.pattern;
+	}
+
+	/**
+	 * Restituisce la posizione nella tabella delle stringhe memorizzate associata all'istante dato.
+	 */
+	private static int indexOf(long epochMillis) {
+		// Hash moltiplicativo: gli istanti sono spesso multipli di un minuto, quindi i bit meno significativi sono poco informativi
+		return (int) ((epochMillis * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - Integer.numberOfTrailingZeros(CACHE_SIZE)));
+	}
+
+}
@@ -0,0 +1,203 @@
+package it.unibs.ingesw.dpn.model.time;
+
+import java.util.Date;
+import java.util.PriorityQueue;
+
+/**
+ * Orologio simulato, il cui tempo avanza solo su richiesta esplicita.<br>
+ * Le azioni pianificate non vengono mai eseguite in autonomia: vengono eseguite in modo sincrono,
+ * nel thread chiamante, dai metodi {@link #advanceTo(long)} e {@link #advanceBy(long)}, in ordine
+ * di scadenza e, a parità di scadenza, in ordine di pianificazione. Durante l'esecuzione di ciascuna
+ * azione il tempo corrente coincide con la sua scadenza.<br>
+ * <br>
+ * In questo modo l'intero ciclo di vita degli eventi può essere percorso istantaneamente
+ * e in modo deterministico, ad esempio in test e simulazioni.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class VirtualClock implements Clock {
+
+	/**
+	 * Azione pianificata sull'orologio simulato.
+	 */
+	private static final class VirtualTask implements ScheduledTask, Comparable<VirtualTask> {
+
+		private final long due;
+		private final long sequence;
+		private final Runnable task;
+		private volatile boolean cancelled;
+
+		VirtualTask(long due, long sequence, Runnable task) {
+			this.due = due;
+			this.sequence = sequence;
+			this.task = task;
+			this.cancelled = false;
+		}
+
+		@Override
+		public void cancel() {
+			this.cancelled = true;
+		}
+
+		@Override
+		public int compareTo(VirtualTask other) {
+			int byDue = Long.compare(this.due, other.due);
+			return (byDue != 0) ? byDue : Long.compare(this.sequence, other.sequence);
+		}
+
+	}
+
+	private final PriorityQueue<VirtualTask> queue;
+	private long now;
+	private long sequence;
+	private long executedTasks;
+
+	/**
+	 * Crea un orologio simulato fermo all'istante dato.
+	 *
+	 * @param startMillis L'istante iniziale, in millisecondi
+	 */
+	public VirtualClock(long startMillis) {
+		this.queue = new PriorityQueue<>();
+		this.now = startMillis;
+		this.sequence = 0;
+		this.executedTasks = 0;
+	}
+
+	@Override
+	public synchronized long currentTimeMillis() {
+		return this.now;
+	}
+
+	@Override
+	public synchronized ScheduledTask schedule(Date when, Runnable task) {
+		// Verifica delle precondizioni
+		if (when == null || task == null) {
+			throw new IllegalArgumentException("Impossibile pianificare un'azione con parametri nulli");
+		}
+
+		// Le azioni già scadute vengono eseguite al prossimo avanzamento, all'istante corrente
+		VirtualTask scheduled = new VirtualTask(Math.max(when.getTime(), this.now), this.sequence++, task);
+		this.queue.add(scheduled);
+		return scheduled;
+	}
+
+	/**
+	 * Fa avanzare il tempo fino all'istante dato, eseguendo in ordine tutte le azioni con scadenza
+	 * non successiva a tale istante, comprese quelle pianificate durante l'avanzamento.
+	 *
+	 * Precondizione: l'istante dato non deve precedere l'istante corrente.
+	 *
+	 * @param targetMillis L'istante da raggiungere, in millisecondi
+	 * @return Il numero di azioni eseguite
+	 */
+	public int advanceTo(long targetMillis) {
+		synchronized (this) {
+			// Verifica della precondizione
+			if (targetMillis < this.now) {
+				throw new IllegalArgumentException("Impossibile far tornare indietro il tempo simulato");
+			}
+		}
+
+		int executed = 0;
+		VirtualTask next;
+		while ((next = this.pollDueTask(targetMillis)) != null) {
+			// Le azioni vengono eseguite al di fuori del lock, in modo che possano pianificarne altre
+			next.task.run();
+			executed++;
+		}
+
+		synchronized (this) {
+			this.now = Math.max(this.now, targetMillis);
+			this.executedTasks += executed;
+		}
+		return executed;
+	}
+
+	/**
+	 * Fa avanzare il tempo della quantità data.
+	 *
+	 * Precondizione: millis >= 0
+	 *
+	 * @param millis L'avanzamento, in millisecondi
+	 * @return Il numero di azioni eseguite
+	 * @see #advanceTo(long)
+	 */
+	public int advanceBy(long millis) {
+		// Verifica della precondizione
+		if (millis < 0) {
+			throw new IllegalArgumentException("Impossibile far tornare indietro il tempo simulato");
+		}
+		return this.advanceTo(this.currentTimeMillis() + millis);
+	}
+
+	/**
+	 * Fa avanzare il tempo fino all'esaurimento delle azioni pianificate, comprese quelle pianificate
+	 * durante l'avanzamento. Al termine, il tempo corrente coincide con la scadenza dell'ultima azione eseguita.
+	 *
+	 * @return Il numero di azioni eseguite
+	 */
+	public int runUntilIdle() {
+		int executed = 0;
+		VirtualTask next;
+		while ((next = this.pollDueTask(Long.MAX_VALUE)) != null) {
+			next.task.run();
+			executed++;
+		}
+
+		synchronized (this) {
+			this.executedTasks += executed;
+		}
+		return executed;
+	}
+
+	/**
+	 * Esegue le azioni già scadute, senza far avanzare il tempo.
+	 *
+	 * @return Il numero di azioni eseguite
+	 */
+	public int runDueTasks() {
+		return this.advanceTo(this.currentTimeMillis());
+	}
+
+	/**
+	 * Restituisce il numero di azioni in attesa di esecuzione, escluse quelle annullate.
+	 *
+	 * @return Il numero di azioni pianificate
+	 */
+	public synchronized int getPendingTasks() {
+		int count = 0;
+		for (VirtualTask task : this.queue) {
+			if (!task.cancelled) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Restituisce il numero totale di azioni eseguite dall'orologio.
+	 *
+	 * @return Il numero di azioni eseguite
+	 */
+	public synchronized long getExecutedTasks() {
+		return this.executedTasks;
+	}
+
+	/**
+	 * Estrae la prossima azione non annullata con scadenza non successiva all'istante dato,
+	 * portando il tempo corrente alla sua scadenza.
+	 */
+	private synchronized VirtualTask pollDueTask(long targetMillis) {
+		while (!this.queue.isEmpty() && this.queue.peek().due <= targetMillis) {
+			VirtualTask task = this.queue.poll();
+			if (!task.cancelled) {
+				this.now = Math.max(this.now, task.due);
+				return task;
+			}
+		}
+		return null;
+	}
+
+}
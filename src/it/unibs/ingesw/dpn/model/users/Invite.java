@@ -1,10 +1,11 @@
 package it.unibs.ingesw.dpn.model.users;
 
 import java.io.Serializable;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 
 import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.time.Clocks;
+import it.unibs.ingesw.dpn.model.time.TimestampFormat;
 
 /**
  * Classe utilizzata per rappresentare gli inviti scambiati tra gli utenti.
@@ -17,8 +18,6 @@ public class Invite implements Serializable {
 	 */
 	private static final long serialVersionUID = -1835460544841249957L;
 
-	private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("dd/MM/yyyy @ HH:mm");
-
 	private Date date;
 	private Event event;
 	
@@ -29,7 +28,7 @@ public class Invite implements Serializable {
 	 * @param msg Il messaggio della notifica
 	 */
 	public Invite(Event event) {
-		this.date = new Date();
+		this.date = Clocks.current().now();
 		this.event = event;
 	}
 		
@@ -49,10 +48,10 @@ public class Invite implements Serializable {
 	@Override
 	public String toString() {
 		
-		StringBuffer buffer = new StringBuffer();
+		StringBuilder buffer = new StringBuilder();
 		
 		// Formato: giorno/mese - ora:minuti : messaggio
-		buffer.append(DATE_FORMAT.format(this.date));
+		TimestampFormat.MESSAGE_DATE_TIME.formatTo(this.date, buffer);
 		buffer.append(" : ");
 		buffer.append(String.format("%s ti ha invitato all'evento \"%s\"", 
 				                    event.getCreator().getNickname(),
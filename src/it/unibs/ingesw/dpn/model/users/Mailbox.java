@@ -1,12 +1,21 @@
 package it.unibs.ingesw.dpn.model.users;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.LinkedList;
 import java.util.Collections;
 /**
  * Classe utilizzata per contenere le informazioni relative ad un insieme di notifiche. In particolare, ad ogni
- * User e' associata una Mailbox contentente tutte le notifiche ricevute da tale utente.
+ * User e' associata una Mailbox contentente tutte le notifiche ricevute da tale utente.<br>
+ * La mailbox contiene solamente riferimenti alle notifiche, che possono essere condivise con altre mailbox;
+ * lo stato di lettura e' proprio di ciascuna mailbox: le notifiche vengono mantenute in ordine di consegna,
+ * e sono lette tutte quelle consegnate prima dell'ultima lettura ("readUntil").<br>
+ * Le notifiche sono indicizzate per identificativo (vedi {@link Notification#getId()}), insieme al proprio numero
+ * di consegna: consegna, eliminazione e verifica della lettura richiedono un tempo costante.<br>
+ * La mailbox e' thread-safe: le notifiche possono essere consegnate da thread diversi da quello
+ * che le legge.
  */
 class Mailbox implements Serializable {
 
@@ -15,15 +24,25 @@ class Mailbox implements Serializable {
 	 */
 	private static final long serialVersionUID = 4612332277435632397L;
 	
-	private LinkedList<Notification> notifications;
+	/** Le notifiche, in ordine di consegna, associate al proprio numero di consegna */
+	private LinkedHashMap<Notification, Long> notifications;
 	private LinkedList<Invite> invitations;
+	/** Numero di consegna della prossima notifica */
+	private long nextDelivery;
+	/** Numero di consegna successivo all'ultima lettura: le notifiche consegnate in precedenza sono lette */
+	private long readUntil;
+	/** Numero di notifiche lette */
+	private int readNotifications;
 	
 	/**
 	 * Crea una nuova mailbox, vuota
 	 */
 	 Mailbox() {
-		this.notifications = new LinkedList<>();
+		this.notifications = new LinkedHashMap<>();
 		this.invitations = new LinkedList<>();
+		this.nextDelivery = 0;
+		this.readUntil = 0;
+		this.readNotifications = 0;
 	}
 	
 	/**
@@ -32,10 +51,24 @@ class Mailbox implements Serializable {
 	 * non sia possibile per classi esterne modificare la mailbox senza utilizzare gli opportuni
 	 * metodi
 	 * 
-	 * @return Una view non modificabile delle notifiche contenute nella mailbox
+	 * @return Una copia non modificabile delle notifiche contenute nella mailbox
 	 */
-	 List<Notification> getEveryNotification() {
-		return Collections.unmodifiableList(this.notifications);
+	 synchronized List<Notification> getEveryNotification() {
+		return Collections.unmodifiableList(new ArrayList<>(this.notifications.keySet()));
+	}
+	
+	/**
+	 * Restituisce una copia delle notifiche insieme al loro stato di lettura, letti in maniera atomica.
+	 * 
+	 * @return La copia delle notifiche contenute nella mailbox
+	 */
+	 synchronized NotificationsSnapshot getNotificationsSnapshot() {
+		long [] deliveries = new long[this.notifications.size()];
+		int i = 0;
+		for (long delivery : this.notifications.values()) {
+			deliveries[i++] = delivery;
+		}
+		return new NotificationsSnapshot(new ArrayList<>(this.notifications.keySet()), deliveries, this.readUntil);
 	}
 	
 	/**
@@ -44,10 +77,10 @@ class Mailbox implements Serializable {
 	 * modificare la mialbox senza utilizzare gli opportuni metodi.
 	 * 
 	 * 
-	 * @return Una view non modificabile degli inviti contenuti nella mailbox
+	 * @return Una copia non modificabile degli inviti contenuti nella mailbox
 	 */
-	 List<Invite> getEveryInvite() {
-		return Collections.unmodifiableList(this.invitations);
+	 synchronized List<Invite> getEveryInvite() {
+		return Collections.unmodifiableList(new ArrayList<>(this.invitations));
 	}
 	
 	/**
@@ -58,16 +91,16 @@ class Mailbox implements Serializable {
 	 * 
 	 * @param toAdd La notifica da aggiungere alla mailbox
 	 */
-	 void deliver(Notification toAdd) {
+	 synchronized void deliver(Notification toAdd) {
 		
 		// Verifica delle precondizioni
-		if (notifications.contains(toAdd)) {
+		if (this.notifications.containsKey(toAdd)) {
 			throw new IllegalArgumentException();
 		}
 		
-		this.notifications.add(toAdd);
+		this.notifications.put(toAdd, this.nextDelivery++);
 		
-		assert this.notifications.contains(toAdd);
+		assert this.notifications.containsKey(toAdd);
 		
 	}
 	
@@ -79,7 +112,7 @@ class Mailbox implements Serializable {
 	 * 
 	 * @param toAdd L'invito da aggiungere alla mailbox
 	 */
-	 void deliver(Invite toAdd) {
+	 synchronized void deliver(Invite toAdd) {
 		
 		// Verifica delle precondizioni
 		if (invitations.contains(toAdd)) {
@@ -100,16 +133,19 @@ class Mailbox implements Serializable {
 	 * 
 	 * @param toDelete La notifica da eliminare dalla mailbox
 	 */
-	 void delete(Notification toDelete) {
+	 synchronized void delete(Notification toDelete) {
 		
 		// Verifica delle precondizioni
-		if (!notifications.contains(toDelete)) {
+		Long delivery = this.notifications.remove(toDelete);
+		if (delivery == null) {
 			throw new IllegalArgumentException();
 		}
 		
-		this.notifications.remove(toDelete);
+		if (delivery < this.readUntil) {
+			this.readNotifications--;
+		}
 		
-		assert !this.notifications.contains(toDelete);
+		assert !this.notifications.containsKey(toDelete);
 	}
 	
 	/**
@@ -120,7 +156,7 @@ class Mailbox implements Serializable {
 	 * 
 	 * @param toDelete L'invito da eliminare dalla mailbox
 	 */
-	 void delete(Invite toDelete) {
+	 synchronized void delete(Invite toDelete) {
 		
 		// Verifica delle precondizioni
 		if (!invitations.contains(toDelete)) {
@@ -137,16 +173,72 @@ class Mailbox implements Serializable {
 	 * 
 	 * @return true se la mailbox contiene almeno una notifica
 	 */
-	 boolean containsNotifications() {
+	 synchronized boolean containsNotifications() {
 		return !this.notifications.isEmpty();
 	}
 	
+	/**
+	 * Restituisce il numero di notifiche non ancora lette.
+	 * 
+	 * @return Il numero di notifiche non lette
+	 */
+	 synchronized int countUnreadNotifications() {
+		return this.notifications.size() - this.readNotifications;
+	}
+	
+	/**
+	 * Indica se la notifica data e' gia' stata letta.
+	 * 
+	 * Precondizione: la notifica data deve essere contenuta nella mailbox
+	 * 
+	 * @param notification La notifica
+	 * @return true se la notifica e' stata letta
+	 */
+	 synchronized boolean isRead(Notification notification) {
+		Long delivery = this.notifications.get(notification);
+		if (delivery == null) {
+			throw new IllegalArgumentException();
+		}
+		return delivery < this.readUntil;
+	}
+	
+	/**
+	 * Segna come lette tutte le notifiche attualmente contenute nella mailbox.
+	 */
+	 synchronized void markNotificationsRead() {
+		this.readUntil = this.nextDelivery;
+		this.readNotifications = this.notifications.size();
+	}
+	
+	/**
+	 * Segna come lette le notifiche consegnate fino a quella con il numero di consegna dato, compresa.<br>
+	 * Le notifiche consegnate in seguito restano non lette.
+	 * 
+	 * @param lastDelivery Il numero di consegna dell'ultima notifica da segnare come letta
+	 */
+	 synchronized void markNotificationsReadUntil(long lastDelivery) {
+		if (lastDelivery < this.readUntil) {
+			return;
+		}
+		this.readUntil = Math.min(lastDelivery + 1, this.nextDelivery);
+		
+		// Le notifiche sono in ordine di consegna: quelle lette sono le prime
+		int read = 0;
+		for (long delivery : this.notifications.values()) {
+			if (delivery >= this.readUntil) {
+				break;
+			}
+			read++;
+		}
+		this.readNotifications = read;
+	}
+	
 	/**
 	 * Restituisce true se la mailbox dell'utente contiene almeno un invito.
 	 * 
 	 * @return true se la mailbox contiene almeno un invito
 	 */
-	 boolean containsInvites() {
+	 synchronized boolean containsInvites() {
 		return !this.invitations.isEmpty();
 	}
 	
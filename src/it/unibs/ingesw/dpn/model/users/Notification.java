@@ -1,12 +1,22 @@
 package it.unibs.ingesw.dpn.model.users;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Date;
-import java.text.SimpleDateFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+import it.unibs.ingesw.dpn.model.time.Clocks;
+import it.unibs.ingesw.dpn.model.time.TimestampFormat;
 
 /**
  * Classe utilizzata per rappresentare le varie notifiche inviate agli utenti del sistema.
- * Una volta creata, un'istanza di Notification non puo' essere modificata.
+ * Una volta creata, un'istanza di Notification non puo' essere modificata.<br>
+ * <br>
+ * Grazie all'immutabilita', una stessa istanza puo' essere consegnata a tutti i destinatari di un messaggio:
+ * le caselle di posta contengono solo riferimenti alla notifica condivisa, mentre lo stato di lettura
+ * e' mantenuto separatamente da ciascuna casella. Anche il salvataggio su disco scrive una sola volta ogni
+ * notifica condivisa, poiche' la serializzazione preserva i riferimenti comuni all'interno dello stesso stream.
  */
 public class Notification implements Serializable {
 	
@@ -15,10 +25,12 @@ public class Notification implements Serializable {
 	 */
 	private static final long serialVersionUID = -217046894204205232L;
 
-	private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("dd/MM/yyyy @ HH:mm");
+	/** Generatore degli identificativi delle notifiche */
+	private static final AtomicLong NEXT_ID = new AtomicLong(1);
 
-	private String message;
-	private Date date;
+	private final long id;
+	private final String message;
+	private final Date date;
 	
 	/**
 	 * Crea una notifica con il contenuto dato. La data della notifica e' impostata automaticamente
@@ -27,8 +39,19 @@ public class Notification implements Serializable {
 	 * @param msg Il messaggio della notifica
 	 */
 	public Notification(String msg) {
+		this.id = NEXT_ID.getAndIncrement();
 		this.message = msg;
-		this.date = new Date();
+		this.date = Clocks.current().now();
+	}
+	
+	/**
+	 * Restituisce l'identificativo della notifica, unico fra le notifiche create dall'applicazione.
+	 * Gli identificativi crescono con l'ordine di creazione.
+	 * 
+	 * @return L'identificativo della notifica
+	 */
+	public long getId() {
+		return this.id;
 	}
 	
 	public String getMessage() {
@@ -37,7 +60,7 @@ public class Notification implements Serializable {
 	
 	
 	public Date getDate() {
-		return this.date;
+		return new Date(this.date.getTime());
 	}
 	
 	/**
@@ -48,10 +71,10 @@ public class Notification implements Serializable {
 	@Override
 	public String toString() {
 		
-		StringBuffer buffer = new StringBuffer();
+		StringBuilder buffer = new StringBuilder();
 		
 		// Formato: giorno/mese - ora:minuti : messaggio
-		buffer.append(DATE_FORMAT.format(this.date));
+		TimestampFormat.MESSAGE_DATE_TIME.formatTo(this.date, buffer);
 		buffer.append(" : ");
 		buffer.append(this.message);
 		
@@ -59,4 +82,39 @@ public class Notification implements Serializable {
 		return buffer.toString();
 		
 	}
+	
+	/**
+	 * Due notifiche sono uguali se hanno lo stesso identificativo, ovvero se sono la stessa notifica,
+	 * eventualmente caricata da disco.
+	 * 
+	 * @param obj L'oggetto da confrontare
+	 * @return true se l'oggetto e' una notifica con lo stesso identificativo
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Notification)) {
+			return false;
+		}
+		return this.id == ((Notification) obj).id;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Long.hashCode(this.id);
+	}
+	
+	/**
+	 * Metodo di deserializzazione: garantisce che le notifiche create dopo il caricamento
+	 * ricevano identificativi diversi da quelli delle notifiche caricate.
+	 * 
+	 * @param in Lo stream di lettura
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		NEXT_ID.accumulateAndGet(this.id + 1, Math::max);
+	}
+	
 }
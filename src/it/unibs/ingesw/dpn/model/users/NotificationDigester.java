@@ -0,0 +1,259 @@
+package it.unibs.ingesw.dpn.model.users;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import it.unibs.ingesw.dpn.model.time.Clocks;
+
+/**
+ * Livello di raggruppamento delle notifiche destinate agli utenti.<br>
+ * Con una finestra nulla (il default) ogni messaggio viene consegnato subito, come notifica a sé stante.
+ * Con una finestra positiva i messaggi vengono trattenuti: allo scadere della finestra, aperta dal primo
+ * messaggio in attesa, ciascun utente riceve un'unica notifica che li riassume per argomento, ad esempio
+ * "3 nuovi eventi nella categoria Conferenza (A, B, C), 2 eventi chiusi (D, E)", seguito dal testo completo
+ * di ciascun messaggio, nell'ordine di arrivo: il riassunto non fa perdere informazioni come l'importo dovuto
+ * o le istruzioni per completare un'iscrizione. Un utente con un solo messaggio in attesa lo riceve invariato.<br>
+ * In questo modo, durante i picchi di attività, le consegne nelle caselle di posta non crescono più con il
+ * numero di messaggi ma con il numero di destinatari per finestra.<br>
+ * <br>
+ * Le notifiche ricevute per l'invio possono essere condivise fra più destinatari e vengono consegnate
+ * senza copiarle; anche i riassunti identici prodotti in una stessa finestra vengono condivisi.<br>
+ * La scadenza delle finestre viene pianificata sull'orologio attivo (vedi {@link Clocks}).
+ * La classe è thread-safe.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class NotificationDigester {
+
+	static final String DIGEST_HEADER = "Aggiornamenti: ";
+	static final String GROUP_SEPARATOR = ", ";
+	/** Separatore che precede il testo completo di ciascun messaggio riassunto */
+	static final String MESSAGE_SEPARATOR = "\n - ";
+	/** Numero massimo di titoli riportati per ciascun argomento */
+	static final int MAX_LISTED_SUBJECTS = 3;
+	private static final String MORE_SUBJECTS = "...";
+
+	/**
+	 * Messaggio in attesa di consegna.
+	 */
+	private static final class PendingMessage {
+
+		private final NotificationTopic topic;
+		private final String category;
+		private final String subject;
+		private final Notification payload;
+
+		PendingMessage(NotificationTopic topic, String category, String subject, Notification payload) {
+			this.topic = topic;
+			this.category = category;
+			this.subject = subject;
+			this.payload = payload;
+		}
+
+		/**
+		 * Chiave di raggruppamento: l'argomento e, se necessario, la categoria.
+		 */
+		String groupKey() {
+			return this.topic.isPerCategory() ? this.topic.name() + "/" + this.category : this.topic.name();
+		}
+
+	}
+
+	private long windowMillis;
+	private Map<User, List<PendingMessage>> pending;
+	private boolean flushScheduled;
+
+	private long receivedMessages;
+	private long deliveredNotifications;
+
+	/**
+	 * Crea un raggruppatore che consegna subito ogni messaggio.
+	 */
+	public NotificationDigester() {
+		this.windowMillis = 0;
+		this.pending = new IdentityHashMap<>();
+		this.flushScheduled = false;
+		this.receivedMessages = 0;
+		this.deliveredNotifications = 0;
+	}
+
+	/**
+	 * Imposta l'ampiezza della finestra di raggruppamento. Impostando una finestra nulla, i messaggi
+	 * in attesa vengono consegnati immediatamente.
+	 *
+	 * Precondizione: windowMillis >= 0
+	 *
+	 * @param windowMillis L'ampiezza della finestra, in millisecondi
+	 */
+	public void setWindow(long windowMillis) {
+		// Verifica della precondizione
+		if (windowMillis < 0) {
+			throw new IllegalArgumentException("La finestra di raggruppamento delle notifiche non può essere negativa");
+		}
+
+		synchronized (this) {
+			this.windowMillis = windowMillis;
+		}
+		if (windowMillis == 0) {
+			this.flush();
+		}
+	}
+
+	/**
+	 * Restituisce l'ampiezza della finestra di raggruppamento.
+	 *
+	 * @return L'ampiezza della finestra, in millisecondi
+	 */
+	public synchronized long getWindow() {
+		return this.windowMillis;
+	}
+
+	/**
+	 * Invia una notifica a un utente, immediatamente o allo scadere della finestra corrente.
+	 *
+	 * Precondizione: recipient, topic e payload non devono essere nulli.
+	 *
+	 * @param recipient Il destinatario
+	 * @param topic L'argomento della notifica
+	 * @param category Il nome della categoria dell'evento a cui si riferisce la notifica
+	 * @param subject Il titolo dell'evento a cui si riferisce la notifica
+	 * @param payload La notifica, eventualmente condivisa con altri destinatari
+	 */
+	public void send(User recipient, NotificationTopic topic, String category, String subject, Notification payload) {
+		// Verifica delle precondizioni
+		if (recipient == null || topic == null || payload == null) {
+			throw new IllegalArgumentException("Impossibile inviare una notifica con parametri nulli");
+		}
+
+		boolean immediate;
+		synchronized (this) {
+			this.receivedMessages++;
+			immediate = (this.windowMillis == 0);
+			if (!immediate) {
+				this.pending.computeIfAbsent(recipient, u -> new ArrayList<>())
+						.add(new PendingMessage(topic, category, subject, payload));
+				if (!this.flushScheduled) {
+					// Il primo messaggio in attesa apre la finestra
+					this.flushScheduled = true;
+					long due = Clocks.current().currentTimeMillis() + this.windowMillis;
+					Clocks.current().schedule(new Date(due), this::flush);
+				}
+			}
+		}
+		if (immediate) {
+			this.deliver(recipient, payload);
+		}
+	}
+
+	/**
+	 * Consegna immediatamente tutti i messaggi in attesa, uno per destinatario.
+	 * Da invocare, ad esempio, prima di salvare il model.
+	 */
+	public void flush() {
+		Map<User, List<PendingMessage>> toDeliver;
+		synchronized (this) {
+			toDeliver = this.pending;
+			this.pending = new IdentityHashMap<>();
+			this.flushScheduled = false;
+		}
+
+		Map<String, Notification> digests = new HashMap<>();
+		for (Map.Entry<User, List<PendingMessage>> entry : toDeliver.entrySet()) {
+			List<PendingMessage> messages = entry.getValue();
+			if (messages.size() == 1) {
+				this.deliver(entry.getKey(), messages.get(0).payload);
+			} else {
+				this.deliver(entry.getKey(), digests.computeIfAbsent(digest(messages), Notification::new));
+			}
+		}
+	}
+
+	/**
+	 * Restituisce il numero di messaggi ricevuti per l'invio.
+	 *
+	 * @return Il numero di messaggi ricevuti
+	 */
+	public synchronized long getReceivedMessages() {
+		return this.receivedMessages;
+	}
+
+	/**
+	 * Restituisce il numero di notifiche effettivamente consegnate nelle caselle di posta.
+	 *
+	 * @return Il numero di notifiche consegnate
+	 */
+	public synchronized long getDeliveredNotifications() {
+		return this.deliveredNotifications;
+	}
+
+	/**
+	 * Restituisce il numero di messaggi in attesa di consegna.
+	 *
+	 * @return Il numero di messaggi in attesa
+	 */
+	public synchronized int getPendingMessages() {
+		int count = 0;
+		for (List<PendingMessage> messages : this.pending.values()) {
+			count += messages.size();
+		}
+		return count;
+	}
+
+	private void deliver(User recipient, Notification payload) {
+		recipient.receive(payload);
+		synchronized (this) {
+			this.deliveredNotifications++;
+		}
+	}
+
+	/**
+	 * Riassume i messaggi dati in un unico testo: il riassunto per argomento, seguito dal testo completo
+	 * di ciascun messaggio.
+	 */
+	private static String digest(List<PendingMessage> messages) {
+		// Raggruppo per argomento, mantenendo l'ordine di arrivo
+		Map<String, List<PendingMessage>> groups = new LinkedHashMap<>();
+		for (PendingMessage message : messages) {
+			groups.computeIfAbsent(message.groupKey(), k -> new ArrayList<>()).add(message);
+		}
+
+		StringBuilder text = new StringBuilder(DIGEST_HEADER);
+		boolean firstGroup = true;
+		for (List<PendingMessage> group : groups.values()) {
+			if (!firstGroup) {
+				text.append(GROUP_SEPARATOR);
+			}
+			firstGroup = false;
+
+			PendingMessage first = group.get(0);
+			text.append(first.topic.describe(group.size(), first.category));
+
+			List<String> subjects = new ArrayList<>();
+			for (PendingMessage message : group) {
+				if (message.subject != null && !subjects.contains(message.subject)) {
+					subjects.add(message.subject);
+				}
+			}
+			if (!subjects.isEmpty()) {
+				text.append(" (");
+				text.append(String.join(GROUP_SEPARATOR, subjects.subList(0, Math.min(subjects.size(), MAX_LISTED_SUBJECTS))));
+				if (subjects.size() > MAX_LISTED_SUBJECTS) {
+					text.append(GROUP_SEPARATOR).append(MORE_SUBJECTS);
+				}
+				text.append(")");
+			}
+		}
+
+		for (PendingMessage message : messages) {
+			text.append(MESSAGE_SEPARATOR).append(message.payload.getMessage());
+		}
+		return text.toString();
+	}
+
+}
@@ -0,0 +1,54 @@
+package it.unibs.ingesw.dpn.model.users;
+
+/**
+ * Argomento di una notifica, utilizzato da {@link NotificationDigester} per riassumere
+ * più notifiche dello stesso tipo in un'unica voce.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public enum NotificationTopic {
+
+	NUOVO_EVENTO("nuovo evento nella categoria %s", "nuovi eventi nella categoria %s", true),
+	CHIUSURA("evento chiuso", "eventi chiusi", false),
+	FALLIMENTO("evento fallito", "eventi falliti", false),
+	CONCLUSIONE("evento concluso", "eventi conclusi", false),
+	RITIRO("evento ritirato", "eventi ritirati", false),
+	ISCRIZIONE("conferma di iscrizione", "conferme di iscrizione", false),
+	DISISCRIZIONE("conferma di disiscrizione", "conferme di disiscrizione", false),
+	LISTA_D_ATTESA("aggiornamento della lista d'attesa", "aggiornamenti delle liste d'attesa", false),
+	ALTRO("aggiornamento", "aggiornamenti", false);
+
+	private final String singular;
+	private final String plural;
+	private final boolean perCategory;
+
+	private NotificationTopic(String singular, String plural, boolean perCategory) {
+		this.singular = singular;
+		this.plural = plural;
+		this.perCategory = perCategory;
+	}
+
+	/**
+	 * Indica se le notifiche di questo argomento vengono riassunte separatamente per ciascuna categoria.
+	 *
+	 * @return "true" se il riassunto distingue le categorie
+	 */
+	public boolean isPerCategory() {
+		return this.perCategory;
+	}
+
+	/**
+	 * Restituisce la descrizione riassuntiva di un certo numero di notifiche di questo argomento,
+	 * ad esempio "3 nuovi eventi nella categoria Conferenza".
+	 *
+	 * @param count Il numero di notifiche
+	 * @param category Il nome della categoria, considerato solo se {@link #isPerCategory()}
+	 * @return La descrizione riassuntiva
+	 */
+	public String describe(int count, String category) {
+		String label = (count == 1) ? this.singular : this.plural;
+		return count + " " + (this.perCategory ? String.format(label, category) : label);
+	}
+
+}
@@ -0,0 +1,91 @@
+package it.unibs.ingesw.dpn.model.users;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Copia immutabile delle notifiche contenute nella mailbox di un utente, letta in maniera atomica insieme
+ * al relativo stato di lettura.<br>
+ * Ogni notifica e' associata al proprio numero di consegna: per segnare come lette solamente le notifiche
+ * visualizzate, e non quelle consegnate nel frattempo, e' sufficiente passare l'ultimo numero di consegna
+ * della copia al metodo {@link User#markNotificationsReadUntil(long)}.
+ */
+public final class NotificationsSnapshot {
+
+	private final List<Notification> notifications;
+	/** Numeri di consegna delle notifiche, nello stesso ordine */
+	private final long [] deliveries;
+	/** Numero di consegna della prima notifica non letta: le notifiche consegnate in precedenza sono lette */
+	private final long firstUnreadDelivery;
+
+	/**
+	 * Crea una copia delle notifiche date.
+	 *
+	 * Precondizione: notifications != null, deliveries != null, le due sequenze hanno la stessa lunghezza
+	 *
+	 * @param notifications Le notifiche, in ordine di consegna
+	 * @param deliveries I numeri di consegna delle notifiche
+	 * @param firstUnreadDelivery Il numero di consegna della prima notifica non letta
+	 */
+	NotificationsSnapshot(List<Notification> notifications, long [] deliveries, long firstUnreadDelivery) {
+		// Verifica delle precondizioni
+		if (notifications == null || deliveries == null || notifications.size() != deliveries.length) {
+			throw new IllegalArgumentException("Impossibile creare la copia delle notifiche con parametri non validi");
+		}
+
+		this.notifications = Collections.unmodifiableList(new ArrayList<>(notifications));
+		this.deliveries = deliveries.clone();
+		this.firstUnreadDelivery = firstUnreadDelivery;
+	}
+
+	/**
+	 * @return Le notifiche, in ordine di consegna e in sola lettura
+	 */
+	public List<Notification> getNotifications() {
+		return this.notifications;
+	}
+
+	/**
+	 * @return true se la copia non contiene notifiche
+	 */
+	public boolean isEmpty() {
+		return this.notifications.isEmpty();
+	}
+
+	/**
+	 * Indica se la notifica nella posizione data non era ancora stata letta al momento della copia.
+	 *
+	 * Precondizione: 0 <= index < getNotifications().size()
+	 *
+	 * @param index La posizione della notifica
+	 * @return true se la notifica non era stata letta
+	 */
+	public boolean isUnread(int index) {
+		return this.deliveries[index] >= this.firstUnreadDelivery;
+	}
+
+	/**
+	 * Restituisce il numero di notifiche non lette al momento della copia.
+	 *
+	 * @return Il numero di notifiche non lette
+	 */
+	public int countUnread() {
+		// Le notifiche sono in ordine di consegna: quelle non lette sono le ultime
+		int unread = 0;
+		for (int i = this.deliveries.length - 1; i >= 0 && this.isUnread(i); i--) {
+			unread++;
+		}
+		return unread;
+	}
+
+	/**
+	 * Restituisce il numero di consegna dell'ultima notifica contenuta nella copia, oppure -1 se la copia e' vuota.
+	 *
+	 * @return Il numero di consegna dell'ultima notifica
+	 */
+	public long getLastDelivery() {
+		return (this.deliveries.length > 0) ? this.deliveries[this.deliveries.length - 1] : -1;
+	}
+
+}
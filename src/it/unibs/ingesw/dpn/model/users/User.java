@@ -25,6 +25,9 @@ public class User extends AbstractFieldable {
 	/** La casella di posta a cui recapitare i messaggi dell'utente */
 	private Mailbox mailbox;
 	
+	/** Il repository in cui l'utente è registrato, da informare delle modifiche alla casella di posta; non viene salvato su disco */
+	private transient UsersRepository repository;
+	
 	/**
 	 * Crea un nuovo utente con il nome dato. La relativa mailbox e' automaticamente creata, vuota.
 	 * 
@@ -85,12 +88,15 @@ public class User extends AbstractFieldable {
 	}
 	
 	/**
-	 * Aggiunge la notifica data alle notifiche ricevute dall'utente
+	 * Aggiunge la notifica data alle notifiche ricevute dall'utente.
+	 * La stessa notifica puo' essere consegnata a piu' utenti: ciascuno ne mantiene un riferimento
+	 * e il proprio stato di lettura.
 	 * 
 	 * @param n La notifica da ricevere
 	 */
 	public void receive(Notification n) {
 		this.mailbox.deliver(n);
+		this.mailboxChanged();
 	}
 	
 	/**
@@ -99,6 +105,7 @@ public class User extends AbstractFieldable {
 	 */
 	public void receive(Invite i) {
 		this.mailbox.deliver(i);
+		this.mailboxChanged();
 	}
 	
 	/**
@@ -108,6 +115,7 @@ public class User extends AbstractFieldable {
 	 */
 	public void delete(Notification n) {
 		this.mailbox.delete(n);
+		this.mailboxChanged();
 	}
 	
 	/**
@@ -117,6 +125,7 @@ public class User extends AbstractFieldable {
 	 */
 	public void delete(Invite i) {
 		this.mailbox.delete(i);
+		this.mailboxChanged();
 	}
 	
 	/**
@@ -128,6 +137,46 @@ public class User extends AbstractFieldable {
 		return this.mailbox.containsNotifications();
 	}
 	
+	/**
+	 * Restituisce il numero di notifiche non ancora lette dall'utente
+	 * 
+	 * @return Il numero di notifiche non lette
+	 */
+	public int countUnreadNotifications() {
+		return this.mailbox.countUnreadNotifications();
+	}
+	
+	/**
+	 * Indica se l'utente ha gia' letto la notifica data
+	 * 
+	 * Precondizione: la notifica deve essere stata ricevuta dall'utente
+	 * 
+	 * @param n La notifica
+	 * @return true se la notifica e' stata letta
+	 */
+	public boolean hasRead(Notification n) {
+		return this.mailbox.isRead(n);
+	}
+	
+	/**
+	 * Segna come lette tutte le notifiche ricevute finora dall'utente
+	 */
+	public void markNotificationsRead() {
+		this.mailbox.markNotificationsRead();
+		this.mailboxChanged();
+	}
+	
+	/**
+	 * Segna come lette le notifiche ricevute dall'utente fino a quella con il numero di consegna dato, compresa.<br>
+	 * Le notifiche ricevute in seguito restano non lette.
+	 * 
+	 * @param lastDelivery Il numero di consegna dell'ultima notifica letta (vedi {@link NotificationsSnapshot#getLastDelivery()})
+	 */
+	public void markNotificationsReadUntil(long lastDelivery) {
+		this.mailbox.markNotificationsReadUntil(lastDelivery);
+		this.mailboxChanged();
+	}
+	
 	/**
 	 * Restituisce true se l'utente ha inviti
 	 * 
@@ -146,6 +195,16 @@ public class User extends AbstractFieldable {
 		return this.mailbox.getEveryNotification();
 	}
 	
+	/**
+	 * Restituisce la lista delle notifiche ricevute dall'utente insieme al loro stato di lettura,
+	 * letti in maniera atomica
+	 * 
+	 * @return La copia delle notifiche ricevute dall'utente
+	 */
+	public NotificationsSnapshot getNotificationsSnapshot() {
+		return this.mailbox.getNotificationsSnapshot();
+	}
+	
 	/**
 	 * Restituisce la lista degli inviti ricevuti dall'utente
 	 * 
@@ -154,5 +213,25 @@ public class User extends AbstractFieldable {
 	public List<Invite> getInvites() {
 		return this.mailbox.getEveryInvite();
 	}
+	
+	/**
+	 * Imposta il repository in cui l'utente è registrato.<br>
+	 * Viene invocato dal {@link UsersRepository} che contiene l'utente.
+	 * 
+	 * @param repository Il repository dell'utente
+	 */
+	void setRepository(UsersRepository repository) {
+		this.repository = repository;
+	}
+	
+	/**
+	 * Comunica al repository dell'utente, se presente, la modifica della casella di posta.
+	 */
+	private void mailboxChanged() {
+		UsersRepository currentRepository = this.repository;
+		if (currentRepository != null) {
+			currentRepository.fireMailboxChanged(this);
+		}
+	}
 
 }
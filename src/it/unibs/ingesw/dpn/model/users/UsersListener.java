@@ -0,0 +1,29 @@
+package it.unibs.ingesw.dpn.model.users;
+
+/**
+ * Interfaccia degli oggetti interessati alle modifiche degli utenti di un {@link UsersRepository}:
+ * registrazione di nuovi utenti e modifiche al contenuto delle loro caselle di posta.<br>
+ * I metodi vengono invocati dal thread che ha effettuato la modifica, subito dopo la modifica stessa,
+ * e devono quindi terminare rapidamente.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public interface UsersListener {
+
+	/**
+	 * Comunica la registrazione di un nuovo utente.
+	 *
+	 * @param user L'utente registrato
+	 */
+	public void userRegistered(User user);
+
+	/**
+	 * Comunica una modifica alla casella di posta di un utente registrato (consegna o eliminazione
+	 * di notifiche e inviti, lettura delle notifiche).
+	 *
+	 * @param user L'utente la cui casella di posta è stata modificata
+	 */
+	public void mailboxChanged(User user);
+
+}
@@ -1,8 +1,16 @@
 package it.unibs.ingesw.dpn.model.users;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -10,7 +18,9 @@ import it.unibs.ingesw.dpn.model.categories.Category;
 import it.unibs.ingesw.dpn.model.fields.UserField;
 import it.unibs.ingesw.dpn.model.fieldvalues.CategoryListFieldValue;
 /**
- * Classe adibita alla gestione dei dati relativi agli utenti e dei login/logout
+ * Classe adibita alla gestione dei dati relativi agli utenti e dei login/logout.<br>
+ * Il repository è thread-safe: le registrazioni sono serializzate, mentre le ricerche per nickname
+ * non richiedono alcun lock.
  */
 public class UsersRepository implements Serializable {
 	
@@ -20,12 +30,25 @@ public class UsersRepository implements Serializable {
 	private static final long serialVersionUID = 5696141226031129287L;
 	private List<User> users; 		// Lista degli utenti registrati
 	
+	/*
+	 * Indici per nickname e per identità, ricostruiti dopo la deserializzazione: rendono le ricerche 
+	 * e le aggiunte a tempo costante, indipendentemente dal numero di utenti registrati.
+	 * A parità di nickname, l'indice conserva il primo utente registrato.
+	 * L'indice per nickname è concorrente, in modo da poter essere consultato senza lock.
+	 */
+	private transient Map<String, User> usersByNickname;
+	private transient Set<User> registeredUsers;
+	
+	/** Oggetti interessati alle modifiche degli utenti; non vengono salvati su disco */
+	private transient List<UsersListener> listeners;
+	
 	/**
 	 * Istanzia un nuovo gestore degli utenti. Alla creazione, tale gestore non avra' alcun utente associato.
 	 */
 	public UsersRepository() {
 		
 		this.users = new ArrayList<>();
+		this.buildIndexes();
 		
 	}
 	
@@ -38,15 +61,10 @@ public class UsersRepository implements Serializable {
 	 */
 	public User getUser(String nickname) {
 		
-		User result = null;
-		for (User user : this.users) {
-			if (user.getNickname().equals(nickname)) {
-				result = user;
-				break;
-			}
+		if (nickname == null) {
+			return null;
 		}
-		
-		return result;
+		return this.usersByNickname.get(nickname);
 	}
 	
 	/**
@@ -57,16 +75,70 @@ public class UsersRepository implements Serializable {
 	 * 
 	 * @param newUser Il nuovo utente da aggiungere
 	 */
-	public void addUser(User newUser) {
+	public synchronized void addUser(User newUser) {
 		if (newUser == null) {
 			throw new IllegalArgumentException("Impossibile aggiungere un utente nullo");
-		} else if (this.users.contains(newUser)) {
+		} else if (this.registeredUsers.contains(newUser)) {
 			throw new IllegalArgumentException("Impossibile aggiungere un utente già presente nel sistema");
 		}
 		this.users.add(newUser);
+		this.index(newUser);
+		for (UsersListener listener : this.listeners) {
+			listener.userRegistered(newUser);
+		}
+	}
+	
+	/**
+	 * Registra un oggetto interessato alle modifiche degli utenti.
+	 * 
+	 * Precondizione: listener != null
+	 * 
+	 * @param listener L'oggetto da informare delle modifiche
+	 */
+	public void addListener(UsersListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("Impossibile registrare un listener nullo");
+		}
+		this.listeners.add(listener);
+	}
+	
+	/**
+	 * Rimuove un oggetto interessato alle modifiche degli utenti.
+	 * 
+	 * @param listener L'oggetto da rimuovere
+	 */
+	public void removeListener(UsersListener listener) {
+		this.listeners.remove(listener);
+	}
+	
+	/**
+	 * Comunica a tutti gli interessati la modifica della casella di posta dell'utente dato.
+	 * 
+	 * @param user L'utente la cui casella di posta è stata modificata
+	 */
+	void fireMailboxChanged(User user) {
+		for (UsersListener listener : this.listeners) {
+			listener.mailboxChanged(user);
+		}
 	}
 	
-	public List<User> getUserByCategoryOfInterest(Category category){
+	/**
+	 * Restituisce una copia (immutabile) della lista degli utenti registrati, nell'ordine di registrazione.
+	 * 
+	 * @return Gli utenti registrati
+	 */
+	public synchronized List<User> getUsers() {
+		return Collections.unmodifiableList(new ArrayList<>(this.users));
+	}
+	
+	/**
+	 * @return Il numero di utenti registrati
+	 */
+	public synchronized int size() {
+		return this.users.size();
+	}
+	
+	public synchronized List<User> getUserByCategoryOfInterest(Category category){
 		
 		Predicate<User> filterPredicate = (user) -> {
 			
@@ -89,16 +161,44 @@ public class UsersRepository implements Serializable {
 	 * @return "True" se l'utente esiste, "False" altrimenti.
 	 */
 	public boolean isNicknameExisting(String nickname) {
+		return this.getUser(nickname) != null;
+	}
+	
+	public synchronized boolean isEmpty() {
+		return this.users.isEmpty();
+	}
+	
+	/**
+	 * Costruisce gli indici a partire dalla lista degli utenti, e prepara la lista (vuota)
+	 * degli oggetti interessati alle modifiche.
+	 */
+	private void buildIndexes() {
+		this.listeners = new CopyOnWriteArrayList<>();
+		this.usersByNickname = new ConcurrentHashMap<>();
+		this.registeredUsers = Collections.newSetFromMap(new IdentityHashMap<>());
 		for (User u : this.users) {
-			if (u.getNickname().toString().equals(nickname)) {
-				return true;
-			}
+			this.index(u);
 		}
-		return false;
 	}
 	
-	public boolean isEmpty() {
-		return this.users.isEmpty();
+	private void index(User user) {
+		this.registeredUsers.add(user);
+		user.setRepository(this);
+		// Un utente senza nickname non può essere cercato per nickname
+		if (user.getNickname() != null) {
+			this.usersByNickname.putIfAbsent(user.getNickname(), user);
+		}
+	}
+	
+	/**
+	 * Metodo di deserializzazione: ricostruisce gli indici, che non vengono salvati su disco,
+	 * e ricollega gli utenti al repository.
+	 * 
+	 * @param in Lo stream di lettura
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.buildIndexes();
 	}
 
 }
\ No newline at end of file
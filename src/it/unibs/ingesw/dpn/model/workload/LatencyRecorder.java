@@ -0,0 +1,73 @@
+package it.unibs.ingesw.dpn.model.workload;
+
+import java.util.Arrays;
+
+/**
+ * Raccolta delle latenze di un insieme di operazioni, espresse in nanosecondi.<br>
+ * Le latenze vengono memorizzate in un array che cresce al bisogno, senza alcun oggetto per campione;
+ * il calcolo dei percentili ordina l'array una sola volta, al primo utilizzo.<br>
+ * La classe non è thread-safe: ogni thread deve utilizzare una propria istanza, da unire alle altre al termine.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+class LatencyRecorder {
+	
+	private static final int INITIAL_CAPACITY = 1024;
+	
+	private long [] samples;
+	private int size;
+	private boolean sorted;
+	
+	LatencyRecorder() {
+		this.samples = new long[INITIAL_CAPACITY];
+		this.size = 0;
+		this.sorted = true;
+	}
+	
+	void record(long nanos) {
+		this.ensureCapacity(this.size + 1);
+		this.samples[this.size++] = nanos;
+		this.sorted = false;
+	}
+	
+	void addAll(LatencyRecorder other) {
+		this.ensureCapacity(this.size + other.size);
+		System.arraycopy(other.samples, 0, this.samples, this.size, other.size);
+		this.size += other.size;
+		this.sorted = false;
+	}
+	
+	int size() {
+		return this.size;
+	}
+	
+	/**
+	 * Restituisce il percentile dato delle latenze registrate, secondo il metodo "nearest rank".
+	 * 
+	 * Precondizione: 0 < percentile <= 100
+	 * 
+	 * @param percentile Il percentile desiderato
+	 * @return La latenza corrispondente in nanosecondi, o 0 se non è stata registrata alcuna latenza
+	 */
+	long percentile(double percentile) {
+		if (percentile <= 0 || percentile > 100) {
+			throw new IllegalArgumentException("Il percentile deve essere compreso fra 0 (escluso) e 100");
+		} else if (this.size == 0) {
+			return 0;
+		}
+		if (!this.sorted) {
+			Arrays.sort(this.samples, 0, this.size);
+			this.sorted = true;
+		}
+		int rank = (int) Math.ceil(percentile / 100.0 * this.size);
+		return this.samples[Math.max(rank, 1) - 1];
+	}
+	
+	private void ensureCapacity(int capacity) {
+		if (capacity > this.samples.length) {
+			this.samples = Arrays.copyOf(this.samples, Math.max(capacity, this.samples.length * 2));
+		}
+	}
+
+}
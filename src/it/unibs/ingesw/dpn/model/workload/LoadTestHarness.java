@@ -0,0 +1,341 @@
+package it.unibs.ingesw.dpn.model.workload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import it.unibs.ingesw.dpn.model.admission.AdmissionController;
+import it.unibs.ingesw.dpn.model.admission.AdmissionResult;
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.events.EventBoard;
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fields.ConferenceField;
+import it.unibs.ingesw.dpn.model.fields.FieldCompatibilityException;
+import it.unibs.ingesw.dpn.model.fields.SoccerMatchField;
+import it.unibs.ingesw.dpn.model.fields.UserField;
+import it.unibs.ingesw.dpn.model.fields.builder.EventBuilder;
+import it.unibs.ingesw.dpn.model.fields.builder.UserBuilder;
+import it.unibs.ingesw.dpn.model.fieldvalues.DateFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.GenderFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.IntegerFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.IntegerIntervalFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.MoneyAmountFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.StringFieldValue;
+import it.unibs.ingesw.dpn.model.persistence.Model;
+import it.unibs.ingesw.dpn.model.time.Clocks;
+import it.unibs.ingesw.dpn.model.users.User;
+import it.unibs.ingesw.dpn.model.users.UsersRepository;
+
+/**
+ * Esecutore di carichi di lavoro sintetici (vedi {@link Workload}) su un model, da più thread,
+ * senza alcuna interazione con l'utente.<br>
+ * <br>
+ * Le operazioni di ciascuna fase vengono suddivise fra i thread in base all'utente che le esegue:
+ * le operazioni di uno stesso utente vengono quindi eseguite in sequenza, nell'ordine della traccia,
+ * mentre quelle di utenti diversi vengono eseguite in parallelo. Le fasi vengono eseguite una dopo l'altra.<br>
+ * Gli utenti e gli eventi vengono creati con i Builder privi di interfaccia utente, e quindi con
+ * gli stessi controlli della creazione interattiva; le date degli eventi sono calcolate a partire
+ * dall'istante di inizio dell'esecuzione, in modo che una traccia possa essere rieseguita in qualsiasi momento.<br>
+ * <br>
+ * Se all'esecutore viene fornito un {@link AdmissionController}, le iscrizioni vengono sottoposte al
+ * controllo di ammissione, e le iscrizioni scartate risultano respinte.<br>
+ * <br>
+ * Per ciascuna operazione vengono misurati la latenza e l'esito (vedi {@link LoadTestReport}).
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class LoadTestHarness {
+	
+	/** Intervallo fra il termine ultimo di iscrizione e lo svolgimento degli eventi creati */
+	private static final long EVENT_DELAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+	private static final long INDIVIDUAL_FEE_CENTS = 1000;
+	
+	private static final String WORKER_THREAD_NAME = "LoadTestHarness-worker-";
+	
+	private final int threads;
+	private final AdmissionController admission;
+	
+	/**
+	 * Crea un esecutore che utilizza il numero di thread dato.
+	 * 
+	 * Precondizione: threads > 0
+	 * 
+	 * @param threads Il numero di thread
+	 */
+	public LoadTestHarness(int threads) {
+		this(threads, null);
+	}
+	
+	/**
+	 * Crea un esecutore che utilizza il numero di thread dato e che sottopone le iscrizioni
+	 * al controllo di ammissione dato.
+	 * 
+	 * Precondizione: threads > 0
+	 * 
+	 * @param threads Il numero di thread
+	 * @param admission Il controllo di ammissione delle iscrizioni, o null per eseguire le iscrizioni direttamente
+	 */
+	public LoadTestHarness(int threads, AdmissionController admission) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Il numero di thread deve essere positivo");
+		}
+		this.threads = threads;
+		this.admission = admission;
+	}
+	
+	/**
+	 * Esegue un carico di lavoro sul model dato.
+	 * 
+	 * Precondizione: model != null, workload != null
+	 * 
+	 * @param model Il model su cui eseguire le operazioni
+	 * @param workload Il carico di lavoro
+	 * @return Il resoconto dell'esecuzione
+	 */
+	public LoadTestReport run(Model model, Workload workload) {
+		if (model == null || workload == null) {
+			throw new IllegalArgumentException("Impossibile eseguire un carico di lavoro con parametri nulli");
+		}
+		
+		Execution execution = new Execution(model, this.admission, Clocks.current().currentTimeMillis());
+		LoadTestReport report = new LoadTestReport();
+		AtomicInteger threadCounter = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(this.threads, task -> {
+			Thread thread = new Thread(task, WORKER_THREAD_NAME + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		long start = System.nanoTime();
+		try {
+			for (List<WorkloadOperation> phase : workload.getPhases()) {
+				List<Future<LoadTestReport>> results = new ArrayList<>(this.threads);
+				for (List<WorkloadOperation> slice : this.split(phase)) {
+					results.add(executor.submit(() -> execution.executeAll(slice)));
+				}
+				// Attendo la conclusione della fase prima di cominciare la successiva
+				for (Future<LoadTestReport> result : results) {
+					report.merge(result.get());
+				}
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Esecuzione del carico di lavoro interrotta", ex);
+		}
+		catch (ExecutionException ex) {
+			throw new IllegalStateException("Errore durante l'esecuzione del carico di lavoro", ex.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		report.setElapsedNanos(System.nanoTime() - start);
+		
+		return report;
+	}
+	
+	/**
+	 * Suddivide le operazioni di una fase fra i thread, in base all'utente che le esegue
+	 * e mantenendo l'ordine della traccia.
+	 */
+	private List<List<WorkloadOperation>> split(List<WorkloadOperation> phase) {
+		List<List<WorkloadOperation>> slices = new ArrayList<>(this.threads);
+		for (int i = 0; i < this.threads; i++) {
+			slices.add(new ArrayList<>());
+		}
+		for (WorkloadOperation operation : phase) {
+			slices.get(Math.floorMod(operation.getUser().hashCode(), this.threads)).add(operation);
+		}
+		slices.removeIf(List::isEmpty);
+		return slices;
+	}
+	
+	/**
+	 * Stato condiviso di un'esecuzione: il model, il controllo di ammissione e gli eventi creati, per chiave.
+	 */
+	private static class Execution {
+		
+		private final EventBoard board;
+		private final UsersRepository users;
+		private final AdmissionController admission;
+		private final long origin;
+		private final Map<String, Event> events;
+		
+		Execution(Model model, AdmissionController admission, long origin) {
+			this.board = model.getEventBoard();
+			this.users = model.getUsersRepository();
+			this.admission = admission;
+			this.origin = origin;
+			this.events = new ConcurrentHashMap<>();
+		}
+		
+		LoadTestReport executeAll(List<WorkloadOperation> operations) {
+			LoadTestReport report = new LoadTestReport();
+			for (WorkloadOperation operation : operations) {
+				LoadTestReport.Outcome outcome;
+				long start = System.nanoTime();
+				try {
+					outcome = this.execute(operation) ? LoadTestReport.Outcome.ACCEPTED : LoadTestReport.Outcome.REJECTED;
+				}
+				catch (FieldCompatibilityException | IllegalStateException ex) {
+					// Operazione respinta dalle regole di dominio
+					outcome = LoadTestReport.Outcome.REJECTED;
+				}
+				catch (RuntimeException ex) {
+					outcome = LoadTestReport.Outcome.FAILED;
+					report.recordFailure(operation, ex);
+				}
+				report.record(operation.getType(), outcome, System.nanoTime() - start);
+			}
+			return report;
+		}
+		
+		/**
+		 * Esegue una singola operazione.
+		 * 
+		 * @return "true" se l'operazione è stata completata, "false" se è stata respinta
+		 */
+		private boolean execute(WorkloadOperation operation) throws FieldCompatibilityException {
+			if (operation.getType() == OperationType.REGISTRAZIONE) {
+				return this.register(operation.getUser());
+			}
+			
+			User user = this.users.getUser(operation.getUser());
+			if (user == null) {
+				return false;
+			}
+			if (operation.getType() == OperationType.CREAZIONE_EVENTO) {
+				return this.createEvent(user, operation);
+			} else if (operation.getType() == OperationType.LETTURA_POSTA) {
+				// Leggo le notifiche e gli inviti, come farebbe l'interfaccia utente
+				user.getNotifications();
+				user.getInvites();
+				return true;
+			}
+			
+			Event event = this.events.get(operation.getEvent());
+			if (event == null) {
+				return false;
+			}
+			if (operation.getType() == OperationType.RITIRO_EVENTO) {
+				if (event.getCreator() != user || !this.board.removeEvent(event)) {
+					return false;
+				}
+				this.events.remove(operation.getEvent());
+				return true;
+			}
+			if (operation.getType() == OperationType.ISCRIZIONE && this.admission != null) {
+				return this.admission.subscribe(event, user) == AdmissionResult.ADMITTED;
+			}
+			return executeSubscription(event, user, operation);
+		}
+		
+		private boolean register(String nickname) throws FieldCompatibilityException {
+			return LoadTestHarness.register(this.users, nickname);
+		}
+		
+		private boolean createEvent(User creator, WorkloadOperation operation) throws FieldCompatibilityException {
+			if (this.events.containsKey(operation.getEvent())) {
+				return false;
+			}
+			Event event = buildEvent(creator, operation, this.origin);
+			
+			if (!this.board.addEvent(event)) {
+				return false;
+			}
+			this.events.put(operation.getEvent(), event);
+			return true;
+		}
+		
+	}
+	
+	/* PASSI COMUNI ALLE ESECUZIONI */
+	
+	/**
+	 * Registra un nuovo utente con il nickname dato.
+	 * 
+	 * @return "true" se l'utente è stato registrato, "false" se il nickname era già in uso
+	 */
+	static boolean register(UsersRepository users, String nickname) throws FieldCompatibilityException {
+		if (users.isNicknameExisting(nickname)) {
+			return false;
+		}
+		UserBuilder builder = new UserBuilder();
+		builder.startCreation();
+		builder.setFieldValue(UserField.NICKNAME, new StringFieldValue(nickname));
+		users.addUser((User) builder.finalise());
+		return true;
+	}
+	
+	/**
+	 * Esegue un'iscrizione o una disiscrizione dell'utente dato all'evento dato.<br>
+	 * La verifica e l'operazione avvengono tenendo il lock dell'evento, come in {@link AdmissionController}:
+	 * un'operazione concorrente non può invalidare la verifica prima che l'operazione venga eseguita.
+	 * 
+	 * @return "true" se l'operazione è stata completata, "false" se è stata respinta
+	 */
+	static boolean executeSubscription(Event event, User user, WorkloadOperation operation) {
+		synchronized (event) {
+			switch (operation.getType()) {
+			
+			case ISCRIZIONE :
+				if (!event.canSubscribe(user)) {
+					return false;
+				}
+				event.subscribe(user);
+				return true;
+				
+			case DISISCRIZIONE :
+				if (!event.canUnsubscribe(user)) {
+					return false;
+				}
+				event.unsubscribe(user);
+				return true;
+				
+			default :
+				throw new IllegalArgumentException("Tipo di operazione non supportato: " + operation.getType());
+			}
+		}
+	}
+	
+	/**
+	 * Costruisce, senza pubblicarlo, l'evento descritto da un'operazione di creazione, con le date calcolate
+	 * a partire dall'istante di inizio dell'esecuzione.
+	 */
+	static Event buildEvent(User creator, WorkloadOperation operation, long origin) throws FieldCompatibilityException {
+		long deadline = origin + TimeUnit.HOURS.toMillis(operation.getDeadlineHours());
+		
+		EventBuilder builder = new EventBuilder();
+		builder.startCreation(creator, operation.getCategory());
+		builder.setFieldValue(CommonField.TITOLO, new StringFieldValue(operation.getEvent()));
+		builder.setFieldValue(CommonField.LUOGO, new StringFieldValue("Brescia"));
+		builder.setFieldValue(CommonField.DATA_E_ORA, new DateFieldValue(deadline + EVENT_DELAY_MILLIS));
+		builder.setFieldValue(CommonField.TERMINE_ULTIMO_DI_ISCRIZIONE, new DateFieldValue(deadline));
+		builder.setFieldValue(CommonField.NUMERO_DI_PARTECIPANTI, new IntegerFieldValue(operation.getCapacity()));
+		builder.setFieldValue(CommonField.QUOTA_INDIVIDUALE, MoneyAmountFieldValue.ofCents(INDIVIDUAL_FEE_CENTS));
+		switch (operation.getCategory()) {
+		
+		case CONFERENZA :
+			builder.setFieldValue(ConferenceField.RELATORI, new StringFieldValue(creator.getNickname()));
+			builder.setFieldValue(ConferenceField.ARGOMENTO, new StringFieldValue(operation.getEvent()));
+			break;
+			
+		case PARTITA_DI_CALCIO :
+			builder.setFieldValue(SoccerMatchField.GENERE, new GenderFieldValue("Misto"));
+			builder.setFieldValue(SoccerMatchField.FASCIA_DI_ETA, new IntegerIntervalFieldValue(18, 60));
+			break;
+			
+		}
+		return (Event) builder.finalise();
+	}
+
+}
+
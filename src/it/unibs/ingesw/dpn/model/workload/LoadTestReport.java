@@ -0,0 +1,216 @@
+package it.unibs.ingesw.dpn.model.workload;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resoconto dell'esecuzione di un carico di lavoro: numero di operazioni completate, rifiutate e fallite
+ * per ciascun tipo di operazione, throughput complessivo e percentili delle latenze.<br>
+ * Un'operazione è "rifiutata" quando il model la respinge secondo le regole di dominio (ad esempio
+ * un'iscrizione ad un evento chiuso) ed è "fallita" quando genera un errore inatteso.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class LoadTestReport {
+	
+	/** Numero massimo di errori conservati nel resoconto */
+	public static final int MAX_REPORTED_FAILURES = 20;
+	
+	/** Percentili riportati nella descrizione testuale */
+	private static final double [] REPORTED_PERCENTILES = {50, 90, 99, 99.9};
+	
+	/**
+	 * Esito di una singola operazione.
+	 */
+	enum Outcome {
+		ACCEPTED,
+		REJECTED,
+		FAILED
+	}
+	
+	private final Map<OperationType, long []> outcomes;
+	private final Map<OperationType, LatencyRecorder> latencies;
+	private final List<String> failures;
+	private long elapsedNanos;
+	
+	LoadTestReport() {
+		this.outcomes = new EnumMap<>(OperationType.class);
+		this.latencies = new EnumMap<>(OperationType.class);
+		for (OperationType type : OperationType.values()) {
+			this.outcomes.put(type, new long[Outcome.values().length]);
+			this.latencies.put(type, new LatencyRecorder());
+		}
+		this.failures = new ArrayList<>();
+		this.elapsedNanos = 0;
+	}
+	
+	void record(OperationType type, Outcome outcome, long latencyNanos) {
+		this.outcomes.get(type)[outcome.ordinal()]++;
+		this.latencies.get(type).record(latencyNanos);
+	}
+	
+	void recordFailure(WorkloadOperation operation, Throwable cause) {
+		if (this.failures.size() < MAX_REPORTED_FAILURES) {
+			this.failures.add(String.format("%s: %s", operation.encode(), cause));
+		}
+	}
+	
+	void merge(LoadTestReport other) {
+		for (OperationType type : OperationType.values()) {
+			long [] counts = this.outcomes.get(type);
+			long [] otherCounts = other.outcomes.get(type);
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] += otherCounts[i];
+			}
+			this.latencies.get(type).addAll(other.latencies.get(type));
+		}
+		for (String failure : other.failures) {
+			if (this.failures.size() < MAX_REPORTED_FAILURES) {
+				this.failures.add(failure);
+			}
+		}
+	}
+	
+	void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+	
+	/**
+	 * @param type Il tipo di operazione, o null per considerare tutte le operazioni
+	 * @return Il numero di operazioni eseguite
+	 */
+	public long getOperations(OperationType type) {
+		return this.count(type, Outcome.ACCEPTED) + this.count(type, Outcome.REJECTED) + this.count(type, Outcome.FAILED);
+	}
+	
+	/**
+	 * @param type Il tipo di operazione, o null per considerare tutte le operazioni
+	 * @return Il numero di operazioni completate con successo
+	 */
+	public long getAccepted(OperationType type) {
+		return this.count(type, Outcome.ACCEPTED);
+	}
+	
+	/**
+	 * @param type Il tipo di operazione, o null per considerare tutte le operazioni
+	 * @return Il numero di operazioni respinte dalle regole di dominio
+	 */
+	public long getRejected(OperationType type) {
+		return this.count(type, Outcome.REJECTED);
+	}
+	
+	/**
+	 * @param type Il tipo di operazione, o null per considerare tutte le operazioni
+	 * @return Il numero di operazioni fallite per un errore inatteso
+	 */
+	public long getFailed(OperationType type) {
+		return this.count(type, Outcome.FAILED);
+	}
+	
+	/**
+	 * Restituisce i primi {@link #MAX_REPORTED_FAILURES} errori inattesi, con la relativa operazione.
+	 * 
+	 * @return La lista (immutabile) degli errori
+	 */
+	public List<String> getFailures() {
+		return Collections.unmodifiableList(this.failures);
+	}
+	
+	/**
+	 * @return La durata complessiva dell'esecuzione, in millisecondi
+	 */
+	public long getElapsedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(this.elapsedNanos);
+	}
+	
+	/**
+	 * @return Il numero di operazioni eseguite al secondo, sull'intera esecuzione
+	 */
+	public double getThroughput() {
+		if (this.elapsedNanos == 0) {
+			return 0.0;
+		}
+		return this.getOperations(null) * (double) TimeUnit.SECONDS.toNanos(1) / this.elapsedNanos;
+	}
+	
+	/**
+	 * Restituisce il percentile dato delle latenze delle operazioni del tipo dato.
+	 * 
+	 * Precondizione: 0 < percentile <= 100
+	 * 
+	 * @param type Il tipo di operazione, o null per considerare tutte le operazioni
+	 * @param percentile Il percentile desiderato (ad es. 99 per il 99-esimo percentile)
+	 * @return La latenza corrispondente in nanosecondi, o 0 se non è stata eseguita alcuna operazione
+	 */
+	public long getLatencyPercentile(OperationType type, double percentile) {
+		if (type != null) {
+			return this.latencies.get(type).percentile(percentile);
+		}
+		LatencyRecorder all = new LatencyRecorder();
+		for (LatencyRecorder recorder : this.latencies.values()) {
+			all.addAll(recorder);
+		}
+		return all.percentile(percentile);
+	}
+	
+	private long count(OperationType type, Outcome outcome) {
+		if (type != null) {
+			return this.outcomes.get(type)[outcome.ordinal()];
+		}
+		long count = 0;
+		for (long [] counts : this.outcomes.values()) {
+			count += counts[outcome.ordinal()];
+		}
+		return count;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuffer s = new StringBuffer();
+		s.append(String.format("Operazioni: %d in %d ms (%.0f op/s)\n",
+				this.getOperations(null),
+				this.getElapsedMillis(),
+				this.getThroughput()));
+		
+		s.append(String.format("%-18s %9s %9s %9s %9s", "Operazione", "Totale", "Riuscite", "Rifiutate", "Errori"));
+		for (double p : REPORTED_PERCENTILES) {
+			s.append(String.format(" %10s", String.format("p%s (us)", formatPercentile(p))));
+		}
+		s.append(String.format(" %10s\n", "max (us)"));
+		
+		for (OperationType type : OperationType.values()) {
+			if (this.getOperations(type) > 0) {
+				this.appendRow(s, type.name(), type);
+			}
+		}
+		this.appendRow(s, "TOTALE", null);
+		
+		for (String failure : this.failures) {
+			s.append(" - ").append(failure).append('\n');
+		}
+		return s.toString();
+	}
+	
+	private void appendRow(StringBuffer s, String name, OperationType type) {
+		s.append(String.format("%-18s %9d %9d %9d %9d",
+				name,
+				this.getOperations(type),
+				this.getAccepted(type),
+				this.getRejected(type),
+				this.getFailed(type)));
+		for (double p : REPORTED_PERCENTILES) {
+			s.append(String.format(" %10d", TimeUnit.NANOSECONDS.toMicros(this.getLatencyPercentile(type, p))));
+		}
+		s.append(String.format(" %10d\n", TimeUnit.NANOSECONDS.toMicros(this.getLatencyPercentile(type, 100))));
+	}
+	
+	private static String formatPercentile(double p) {
+		return (p == Math.rint(p)) ? Long.toString((long) p) : Double.toString(p);
+	}
+
+}
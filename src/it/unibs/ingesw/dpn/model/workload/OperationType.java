@@ -0,0 +1,29 @@
+package it.unibs.ingesw.dpn.model.workload;
+
+/**
+ * Tipi di operazione che compongono un carico di lavoro sintetico (vedi {@link WorkloadGenerator}).
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public enum OperationType {
+	
+	/** Registrazione di un nuovo utente */
+	REGISTRAZIONE,
+	
+	/** Creazione e pubblicazione di un evento */
+	CREAZIONE_EVENTO,
+	
+	/** Iscrizione di un utente ad un evento */
+	ISCRIZIONE,
+	
+	/** Disiscrizione di un utente da un evento */
+	DISISCRIZIONE,
+	
+	/** Ritiro di un evento da parte del suo creatore */
+	RITIRO_EVENTO,
+	
+	/** Lettura delle notifiche e degli inviti di un utente */
+	LETTURA_POSTA;
+
+}
@@ -0,0 +1,134 @@
+package it.unibs.ingesw.dpn.model.workload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import it.unibs.ingesw.dpn.model.fields.FieldCompatibilityException;
+import it.unibs.ingesw.dpn.model.sharding.ShardCoordinator;
+import it.unibs.ingesw.dpn.model.time.Clocks;
+
+/**
+ * Esecutore di carichi di lavoro sintetici (vedi {@link Workload}) su un model partizionato,
+ * attraverso un {@link ShardCoordinator}.<br>
+ * <br>
+ * Le operazioni di ciascuna fase vengono inviate tutte alle partizioni, nell'ordine della traccia, e la fase
+ * successiva comincia al completamento di tutte le operazioni; gli utenti sono partizionati per nickname e gli
+ * eventi per chiave (vedi {@link it.unibs.ingesw.dpn.model.sharding.ShardRouter}).
+ * Le operazioni di uno stesso utente vengono quindi eseguite nell'ordine della traccia, come in {@link LoadTestHarness}.<br>
+ * <br>
+ * La latenza di ciascuna operazione è misurata dall'invio al completamento, e comprende quindi il tempo
+ * di attesa nella coda della partizione.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class ShardedLoadTestHarness {
+
+	/**
+	 * Esito e istante di completamento di un'operazione.
+	 */
+	private static class Completion {
+
+		private final LoadTestReport.Outcome outcome;
+		private final Throwable failure;
+		private final long endNanos;
+
+		private Completion(LoadTestReport.Outcome outcome, Throwable failure) {
+			this.outcome = outcome;
+			this.failure = failure;
+			this.endNanos = System.nanoTime();
+		}
+
+	}
+
+	private final ShardCoordinator coordinator;
+
+	/**
+	 * Crea un esecutore che utilizza il coordinatore dato.
+	 *
+	 * Precondizione: coordinator != null
+	 *
+	 * @param coordinator Il coordinatore delle partizioni
+	 */
+	public ShardedLoadTestHarness(ShardCoordinator coordinator) {
+		if (coordinator == null) {
+			throw new IllegalArgumentException("Impossibile creare un esecutore senza coordinatore");
+		}
+		this.coordinator = coordinator;
+	}
+
+	/**
+	 * Esegue un carico di lavoro sulle partizioni del coordinatore.
+	 *
+	 * Precondizione: workload != null
+	 *
+	 * @param workload Il carico di lavoro
+	 * @return Il resoconto dell'esecuzione
+	 */
+	public LoadTestReport run(Workload workload) {
+		if (workload == null) {
+			throw new IllegalArgumentException("Impossibile eseguire un carico di lavoro nullo");
+		}
+
+		long origin = Clocks.current().currentTimeMillis();
+		LoadTestReport report = new LoadTestReport();
+
+		long start = System.nanoTime();
+		for (List<WorkloadOperation> phase : workload.getPhases()) {
+			long [] starts = new long[phase.size()];
+			List<CompletableFuture<Completion>> results = new ArrayList<>(phase.size());
+			for (int i = 0; i < phase.size(); i++) {
+				starts[i] = System.nanoTime();
+				results.add(this.dispatch(phase.get(i), origin).handle(ShardedLoadTestHarness::complete));
+			}
+			// Attendo la conclusione della fase prima di cominciare la successiva
+			for (int i = 0; i < phase.size(); i++) {
+				Completion completion = results.get(i).join();
+				report.record(phase.get(i).getType(), completion.outcome, completion.endNanos - starts[i]);
+				if (completion.failure != null) {
+					report.recordFailure(phase.get(i), completion.failure);
+				}
+			}
+		}
+		report.setElapsedNanos(System.nanoTime() - start);
+
+		return report;
+	}
+
+	/**
+	 * Classifica l'esito di un'operazione come in {@link LoadTestHarness}.
+	 */
+	private static Completion complete(Boolean accepted, Throwable error) {
+		if (error == null) {
+			return new Completion(accepted ? LoadTestReport.Outcome.ACCEPTED : LoadTestReport.Outcome.REJECTED, null);
+		}
+		Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+		if (cause instanceof FieldCompatibilityException || cause instanceof IllegalStateException) {
+			// Operazione respinta dalle regole di dominio
+			return new Completion(LoadTestReport.Outcome.REJECTED, null);
+		}
+		return new Completion(LoadTestReport.Outcome.FAILED, cause);
+	}
+
+	/**
+	 * Invia una singola operazione alle partizioni interessate (vedi {@link ShardedOperation}).
+	 *
+	 * @return Il risultato futuro: "true" se l'operazione è stata completata, "false" se è stata respinta
+	 */
+	private CompletableFuture<Boolean> dispatch(WorkloadOperation operation, long origin) {
+		ShardedOperation request = new ShardedOperation(operation, origin);
+
+		switch (operation.getType()) {
+
+		case REGISTRAZIONE :
+		case LETTURA_POSTA :
+			return this.coordinator.callUserShard(operation.getUser(), request);
+
+		default :
+			return this.coordinator.callWithUser(operation.getUser(), operation.getEvent(), request);
+		}
+	}
+
+}
@@ -0,0 +1,100 @@
+package it.unibs.ingesw.dpn.model.workload;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.sharding.Shard;
+import it.unibs.ingesw.dpn.model.sharding.ShardRequest;
+import it.unibs.ingesw.dpn.model.sharding.UserShardRequest;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Richiesta che esegue una singola operazione di un carico di lavoro sulla partizione interessata
+ * (vedi {@link ShardedLoadTestHarness}).<br>
+ * L'operazione viene trasmessa come riga di una traccia (vedi {@link WorkloadOperation#encode()}), insieme
+ * all'istante di inizio dell'esecuzione, e interpretata dalla partizione che riceve la richiesta:
+ * <ul>
+ * 	<li> registrazione e lettura della posta vengono inviate alla partizione dell'utente; </li>
+ * 	<li> le altre operazioni vengono inviate alla partizione dell'evento, per conto dell'utente. </li>
+ * </ul>
+ * Il risultato è "true" se l'operazione è stata completata, "false" se è stata respinta.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+final class ShardedOperation implements ShardRequest<Boolean>, UserShardRequest<Boolean> {
+
+	private static final long serialVersionUID = -4418025317940526718L;
+
+	private final String operation;
+	private final long origin;
+
+	/**
+	 * Crea la richiesta per l'operazione data.
+	 *
+	 * @param operation L'operazione
+	 * @param origin L'istante di inizio dell'esecuzione, in millisecondi
+	 */
+	ShardedOperation(WorkloadOperation operation, long origin) {
+		this.operation = operation.encode();
+		this.origin = origin;
+	}
+
+	/**
+	 * Esegue sulla partizione dell'utente una registrazione o una lettura della posta.
+	 */
+	@Override
+	public Boolean handle(Shard shard) throws Exception {
+		WorkloadOperation operation = WorkloadOperation.decode(this.operation);
+		String nickname = operation.getUser();
+
+		switch (operation.getType()) {
+
+		case REGISTRAZIONE :
+			return LoadTestHarness.register(shard.getModel().getUsersRepository(), nickname);
+
+		case LETTURA_POSTA :
+			User user = shard.getModel().getUsersRepository().getUser(nickname);
+			if (user == null) {
+				return false;
+			}
+			// Leggo le notifiche e gli inviti, come farebbe l'interfaccia utente
+			user.getNotifications();
+			user.getInvites();
+			return true;
+
+		default :
+			throw new IllegalArgumentException("Operazione da inviare alla partizione dell'evento: " + operation.getType());
+		}
+	}
+
+	/**
+	 * Esegue sulla partizione dell'evento un'operazione dell'utente dato.
+	 */
+	@Override
+	public Boolean handle(Shard shard, User user) throws Exception {
+		WorkloadOperation operation = WorkloadOperation.decode(this.operation);
+		String eventId = operation.getEvent();
+		Event event = shard.getEvent(eventId);
+
+		switch (operation.getType()) {
+
+		case CREAZIONE_EVENTO :
+			if (user == null || event != null) {
+				return false;
+			}
+			return shard.publishEvent(eventId, LoadTestHarness.buildEvent(user, operation, this.origin));
+
+		case RITIRO_EVENTO :
+			if (user == null || event == null || event.getCreator() != user) {
+				return false;
+			}
+			return shard.removeEvent(eventId);
+
+		default :
+			if (user == null || event == null) {
+				return false;
+			}
+			return LoadTestHarness.executeSubscription(event, user, operation);
+		}
+	}
+
+}
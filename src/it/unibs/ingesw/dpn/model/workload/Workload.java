@@ -0,0 +1,127 @@
+package it.unibs.ingesw.dpn.model.workload;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Carico di lavoro sintetico: una sequenza di fasi, ciascuna composta da una lista ordinata di operazioni.<br>
+ * Le operazioni di una fase vengono eseguite in parallelo (vedi {@link LoadTestHarness}), mentre
+ * una fase comincia solo al termine della precedente.<br>
+ * <br>
+ * Un carico di lavoro può essere salvato come traccia testuale e riletto per essere rieseguito: la traccia
+ * contiene una riga "FASE" all'inizio di ogni fase, seguita da una riga per ciascuna operazione
+ * (vedi {@link WorkloadOperation#encode()}); le righe che cominciano con "#" sono commenti.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public final class Workload {
+	
+	private static final String PHASE_MARKER = "FASE";
+	private static final String COMMENT_PREFIX = "#";
+	
+	private final List<List<WorkloadOperation>> phases;
+	
+	/**
+	 * Crea un carico di lavoro a partire dalle sue fasi.
+	 * 
+	 * Precondizione: phases != null, nessuna fase e nessuna operazione devono essere nulle
+	 * 
+	 * @param phases Le fasi del carico di lavoro
+	 */
+	public Workload(List<List<WorkloadOperation>> phases) {
+		if (phases == null) {
+			throw new IllegalArgumentException("Impossibile creare un carico di lavoro senza fasi");
+		}
+		List<List<WorkloadOperation>> copy = new ArrayList<>(phases.size());
+		for (List<WorkloadOperation> phase : phases) {
+			if (phase == null || phase.contains(null)) {
+				throw new IllegalArgumentException("Impossibile creare un carico di lavoro con fasi od operazioni nulle");
+			}
+			copy.add(Collections.unmodifiableList(new ArrayList<>(phase)));
+		}
+		this.phases = Collections.unmodifiableList(copy);
+	}
+	
+	/**
+	 * @return La lista (immutabile) delle fasi
+	 */
+	public List<List<WorkloadOperation>> getPhases() {
+		return this.phases;
+	}
+	
+	/**
+	 * @return Il numero totale di operazioni
+	 */
+	public int size() {
+		int size = 0;
+		for (List<WorkloadOperation> phase : this.phases) {
+			size += phase.size();
+		}
+		return size;
+	}
+	
+	/**
+	 * Scrive il carico di lavoro come traccia testuale.
+	 * 
+	 * @param out Lo stream su cui scrivere
+	 * @throws IOException In caso di errori di scrittura
+	 */
+	public void write(Writer out) throws IOException {
+		BufferedWriter writer = (out instanceof BufferedWriter) ? (BufferedWriter) out : new BufferedWriter(out);
+		writer.write(String.format("%s Carico di lavoro: %d fasi, %d operazioni", COMMENT_PREFIX, this.phases.size(), this.size()));
+		writer.newLine();
+		for (List<WorkloadOperation> phase : this.phases) {
+			writer.write(PHASE_MARKER);
+			writer.newLine();
+			for (WorkloadOperation operation : phase) {
+				writer.write(operation.encode());
+				writer.newLine();
+			}
+		}
+		writer.flush();
+	}
+	
+	/**
+	 * Legge un carico di lavoro da una traccia testuale.
+	 * 
+	 * @param in Lo stream da cui leggere
+	 * @return Il carico di lavoro letto
+	 * @throws IOException In caso di errori di lettura
+	 * @throws IllegalArgumentException Se la traccia non è nel formato previsto
+	 */
+	public static Workload read(Reader in) throws IOException {
+		BufferedReader reader = (in instanceof BufferedReader) ? (BufferedReader) in : new BufferedReader(in);
+		List<List<WorkloadOperation>> phases = new ArrayList<>();
+		List<WorkloadOperation> current = null;
+		long lineNumber = 0;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			lineNumber++;
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith(COMMENT_PREFIX)) {
+				continue;
+			} else if (line.equals(PHASE_MARKER)) {
+				current = new ArrayList<>();
+				phases.add(current);
+			} else if (current == null) {
+				throw new IllegalArgumentException(String.format("Riga %d: operazione esterna ad una fase", lineNumber));
+			} else {
+				try {
+					current.add(WorkloadOperation.decode(line));
+				}
+				catch (IllegalArgumentException ex) {
+					throw new IllegalArgumentException(String.format("Riga %d: %s", lineNumber, ex.getMessage()), ex);
+				}
+			}
+		}
+		return new Workload(phases);
+	}
+
+}
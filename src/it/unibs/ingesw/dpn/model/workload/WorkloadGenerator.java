@@ -0,0 +1,193 @@
+package it.unibs.ingesw.dpn.model.workload;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import it.unibs.ingesw.dpn.model.categories.Category;
+
+/**
+ * Generatore deterministico di carichi di lavoro sintetici.<br>
+ * A parità di seme e di parametri, il generatore produce sempre lo stesso carico di lavoro, composto da tre fasi:
+ * <ol>
+ * 	<li> Registrazione di tutti gli utenti </li>
+ * 	<li> Creazione degli eventi, con categorie, creatori, numero di partecipanti e termini di iscrizione casuali </li>
+ * 	<li> Attività degli utenti: iscrizioni, disiscrizioni, ritiri di eventi e letture della posta </li>
+ * </ol>
+ * Nella terza fase le iscrizioni si concentrano sugli eventi con il termine ultimo di iscrizione più vicino,
+ * in modo da simulare le raffiche di iscrizioni che precedono la chiusura; le disiscrizioni riguardano
+ * iscrizioni generate in precedenza e solo una piccola parte degli eventi viene ritirata.<br>
+ * <br>
+ * Il generatore produce inoltre carichi di lavoro "flash crowd" (vedi {@link #generateFlashCrowd(int, int, int)}),
+ * in cui tutti gli utenti tentano di iscriversi contemporaneamente ad un unico evento con pochi posti.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class WorkloadGenerator {
+	
+	/** Probabilità di ciascun tipo di operazione nella fase di attività */
+	public static final double SUBSCRIPTION_RATIO = 0.55;
+	public static final double MAILBOX_READ_RATIO = 0.30;
+	public static final double UNSUBSCRIPTION_RATIO = 0.12;
+	// Le restanti operazioni sono ritiri di eventi
+	
+	/** Frazione massima degli eventi che vengono ritirati; oltre questa soglia, i ritiri diventano letture della posta */
+	public static final double MAX_WITHDRAWN_FRACTION = 0.1;
+	
+	/** Esponente della distribuzione delle iscrizioni: più è alto, più le iscrizioni si concentrano sulle scadenze vicine */
+	public static final double BURST_EXPONENT = 3.0;
+	
+	/** Termine di iscrizione massimo degli eventi, in ore dall'inizio dell'esecuzione */
+	public static final int MAX_DEADLINE_HOURS = 30 * 24;
+	
+	/** Numero massimo di partecipanti degli eventi */
+	public static final int MAX_CAPACITY = 50;
+	
+	/** Termine di iscrizione dell'evento dei carichi di lavoro "flash crowd", in ore dall'inizio dell'esecuzione */
+	public static final int FLASH_CROWD_DEADLINE_HOURS = 24;
+	
+	private static final String USER_PREFIX = "utente";
+	private static final String EVENT_PREFIX = "evento";
+	
+	private final long seed;
+	
+	/**
+	 * Crea un generatore con il seme dato.
+	 * 
+	 * @param seed Il seme del generatore pseudo-casuale
+	 */
+	public WorkloadGenerator(long seed) {
+		this.seed = seed;
+	}
+	
+	/**
+	 * Genera un carico di lavoro.
+	 * 
+	 * Precondizione: users > 0, events >= 0, operations >= 0
+	 * 
+	 * @param users Il numero di utenti da registrare
+	 * @param events Il numero di eventi da creare
+	 * @param operations Il numero di operazioni della fase di attività
+	 * @return Il carico di lavoro generato
+	 */
+	public Workload generate(int users, int events, int operations) {
+		if (users <= 0 || events < 0 || operations < 0) {
+			throw new IllegalArgumentException("Parametri del carico di lavoro non validi");
+		}
+		Random random = new Random(this.seed);
+		List<List<WorkloadOperation>> phases = new ArrayList<>();
+		
+		// Fase 1: registrazioni
+		List<WorkloadOperation> registrations = new ArrayList<>(users);
+		for (int i = 0; i < users; i++) {
+			registrations.add(WorkloadOperation.registration(USER_PREFIX + i));
+		}
+		phases.add(registrations);
+		
+		// Fase 2: creazione degli eventi
+		Category [] categories = Category.values();
+		List<WorkloadOperation> creations = new ArrayList<>(events);
+		for (int i = 0; i < events; i++) {
+			creations.add(WorkloadOperation.eventCreation(
+					USER_PREFIX + random.nextInt(users),
+					EVENT_PREFIX + i,
+					categories[random.nextInt(categories.length)],
+					2 + random.nextInt(MAX_CAPACITY - 1),
+					1 + random.nextInt(MAX_DEADLINE_HOURS)));
+		}
+		phases.add(creations);
+		
+		// Fase 3: attività degli utenti
+		// Gli eventi sono ordinati per scadenza, per concentrare le iscrizioni sulle scadenze vicine
+		List<WorkloadOperation> byDeadline = new ArrayList<>(creations);
+		byDeadline.sort(Comparator.comparingInt(WorkloadOperation::getDeadlineHours));
+		List<WorkloadOperation> subscriptions = new ArrayList<>();
+		int withdrawable = (int) (events * MAX_WITHDRAWN_FRACTION);
+		
+		List<WorkloadOperation> activity = new ArrayList<>(operations);
+		for (int i = 0; i < operations; i++) {
+			double p = random.nextDouble();
+			String user = USER_PREFIX + random.nextInt(users);
+			
+			if (byDeadline.isEmpty()) {
+				activity.add(WorkloadOperation.mailboxRead(user));
+				
+			} else if (p >= SUBSCRIPTION_RATIO + UNSUBSCRIPTION_RATIO + MAILBOX_READ_RATIO && withdrawable > 0) {
+				// Ritiro di un evento da parte del suo creatore; l'evento non viene più coinvolto
+				WorkloadOperation creation = byDeadline.remove(random.nextInt(byDeadline.size()));
+				activity.add(WorkloadOperation.withdrawal(creation.getUser(), creation.getEvent()));
+				withdrawable--;
+				
+			} else if (p < SUBSCRIPTION_RATIO) {
+				int index = (int) (byDeadline.size() * Math.pow(random.nextDouble(), BURST_EXPONENT));
+				WorkloadOperation subscription = WorkloadOperation.subscription(user, byDeadline.get(index).getEvent());
+				activity.add(subscription);
+				subscriptions.add(subscription);
+				
+			} else if (p < SUBSCRIPTION_RATIO + UNSUBSCRIPTION_RATIO && !subscriptions.isEmpty()) {
+				WorkloadOperation subscription = subscriptions.remove(random.nextInt(subscriptions.size()));
+				activity.add(WorkloadOperation.unsubscription(subscription.getUser(), subscription.getEvent()));
+				
+			} else {
+				activity.add(WorkloadOperation.mailboxRead(user));
+			}
+		}
+		phases.add(activity);
+		
+		return new Workload(phases);
+	}
+
+	
+	/**
+	 * Genera un carico di lavoro "flash crowd": tutti gli utenti tentano di iscriversi, più volte,
+	 * ad un unico evento appena pubblicato, con un numero di posti molto inferiore al numero di utenti.
+	 * Il carico di lavoro è composto da tre fasi:
+	 * <ol>
+	 * 	<li> Registrazione di tutti gli utenti </li>
+	 * 	<li> Creazione dell'evento, da parte del primo utente </li>
+	 * 	<li> Tentativi di iscrizione, in ordine casuale </li>
+	 * </ol>
+	 * 
+	 * Precondizione: users > 0, capacity > 1, attemptsPerUser > 0
+	 * 
+	 * @param users Il numero di utenti da registrare
+	 * @param capacity Il numero di partecipanti dell'evento
+	 * @param attemptsPerUser Il numero di tentativi di iscrizione di ciascun utente
+	 * @return Il carico di lavoro generato
+	 */
+	public Workload generateFlashCrowd(int users, int capacity, int attemptsPerUser) {
+		if (users <= 0 || capacity <= 1 || attemptsPerUser <= 0) {
+			throw new IllegalArgumentException("Parametri del carico di lavoro non validi");
+		}
+		Random random = new Random(this.seed);
+		List<List<WorkloadOperation>> phases = new ArrayList<>();
+		
+		// Fase 1: registrazioni
+		List<WorkloadOperation> registrations = new ArrayList<>(users);
+		for (int i = 0; i < users; i++) {
+			registrations.add(WorkloadOperation.registration(USER_PREFIX + i));
+		}
+		phases.add(registrations);
+		
+		// Fase 2: creazione dell'evento
+		String event = EVENT_PREFIX + 0;
+		phases.add(Collections.singletonList(WorkloadOperation.eventCreation(
+				USER_PREFIX + 0, event, Category.CONFERENZA, capacity, FLASH_CROWD_DEADLINE_HOURS)));
+		
+		// Fase 3: tentativi di iscrizione; i tentativi ripetuti di uno stesso utente sono sparsi nella fase
+		List<WorkloadOperation> attempts = new ArrayList<>(users * attemptsPerUser);
+		for (int i = 0; i < users; i++) {
+			for (int j = 0; j < attemptsPerUser; j++) {
+				attempts.add(WorkloadOperation.subscription(USER_PREFIX + i, event));
+			}
+		}
+		Collections.shuffle(attempts, random);
+		phases.add(attempts);
+		
+		return new Workload(phases);
+	}
+
+}
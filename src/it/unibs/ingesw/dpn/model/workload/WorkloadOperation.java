@@ -0,0 +1,221 @@
+package it.unibs.ingesw.dpn.model.workload;
+
+import it.unibs.ingesw.dpn.model.categories.Category;
+
+/**
+ * Singola operazione di un carico di lavoro sintetico.<br>
+ * Utenti ed eventi sono identificati da chiavi testuali (il nickname dell'utente e una chiave assegnata
+ * all'evento alla sua creazione), in modo che una traccia possa essere salvata e rieseguita su un model diverso.
+ * Le date degli eventi sono espresse come scostamento dall'istante di inizio dell'esecuzione.<br>
+ * <br>
+ * Le istanze sono immutabili e si ottengono mediante i metodi statici di creazione.
+ * 
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public final class WorkloadOperation {
+	
+	private static final String SEPARATOR = ";";
+	private static final int ENCODED_PARTS = 6;
+	
+	private final OperationType type;
+	private final String user;
+	private final String event;
+	private final Category category;
+	private final int capacity;
+	private final int deadlineHours;
+	
+	private WorkloadOperation(OperationType type, String user, String event, Category category, int capacity, int deadlineHours) {
+		if (type == null || user == null || user.isEmpty() || user.contains(SEPARATOR)) {
+			throw new IllegalArgumentException("Impossibile creare un'operazione senza tipo o con un utente non valido");
+		} else if (event != null && (event.isEmpty() || event.contains(SEPARATOR))) {
+			throw new IllegalArgumentException("Impossibile creare un'operazione con un evento non valido");
+		}
+		this.type = type;
+		this.user = user;
+		this.event = event;
+		this.category = category;
+		this.capacity = capacity;
+		this.deadlineHours = deadlineHours;
+	}
+	
+	/**
+	 * Crea l'operazione di registrazione di un utente.
+	 * 
+	 * @param user Il nickname dell'utente
+	 * @return L'operazione
+	 */
+	public static WorkloadOperation registration(String user) {
+		return new WorkloadOperation(OperationType.REGISTRAZIONE, user, null, null, 0, 0);
+	}
+	
+	/**
+	 * Crea l'operazione di creazione e pubblicazione di un evento.
+	 * 
+	 * Precondizione: capacity >= 2, deadlineHours >= 1
+	 * 
+	 * @param creator Il nickname del creatore
+	 * @param event La chiave dell'evento
+	 * @param category La categoria dell'evento
+	 * @param capacity Il numero di partecipanti
+	 * @param deadlineHours Le ore che separano l'inizio dell'esecuzione dal termine ultimo di iscrizione
+	 * @return L'operazione
+	 */
+	public static WorkloadOperation eventCreation(String creator, String event, Category category, int capacity, int deadlineHours) {
+		if (event == null || category == null) {
+			throw new IllegalArgumentException("Impossibile creare un evento senza chiave o categoria");
+		} else if (capacity < 2 || deadlineHours < 1) {
+			throw new IllegalArgumentException("Numero di partecipanti o termine di iscrizione non validi");
+		}
+		return new WorkloadOperation(OperationType.CREAZIONE_EVENTO, creator, event, category, capacity, deadlineHours);
+	}
+	
+	/**
+	 * Crea l'operazione di iscrizione di un utente ad un evento.
+	 * 
+	 * @param user Il nickname dell'utente
+	 * @param event La chiave dell'evento
+	 * @return L'operazione
+	 */
+	public static WorkloadOperation subscription(String user, String event) {
+		return withEvent(OperationType.ISCRIZIONE, user, event);
+	}
+	
+	/**
+	 * Crea l'operazione di disiscrizione di un utente da un evento.
+	 * 
+	 * @param user Il nickname dell'utente
+	 * @param event La chiave dell'evento
+	 * @return L'operazione
+	 */
+	public static WorkloadOperation unsubscription(String user, String event) {
+		return withEvent(OperationType.DISISCRIZIONE, user, event);
+	}
+	
+	/**
+	 * Crea l'operazione di ritiro di un evento da parte del suo creatore.
+	 * 
+	 * @param creator Il nickname del creatore
+	 * @param event La chiave dell'evento
+	 * @return L'operazione
+	 */
+	public static WorkloadOperation withdrawal(String creator, String event) {
+		return withEvent(OperationType.RITIRO_EVENTO, creator, event);
+	}
+	
+	/**
+	 * Crea l'operazione di lettura della posta di un utente.
+	 * 
+	 * @param user Il nickname dell'utente
+	 * @return L'operazione
+	 */
+	public static WorkloadOperation mailboxRead(String user) {
+		return new WorkloadOperation(OperationType.LETTURA_POSTA, user, null, null, 0, 0);
+	}
+	
+	private static WorkloadOperation withEvent(OperationType type, String user, String event) {
+		if (event == null) {
+			throw new IllegalArgumentException("Impossibile creare un'operazione su un evento nullo");
+		}
+		return new WorkloadOperation(type, user, event, null, 0, 0);
+	}
+
+	/**
+	 * @return Il tipo dell'operazione
+	 */
+	public OperationType getType() {
+		return this.type;
+	}
+
+	/**
+	 * @return Il nickname dell'utente che esegue l'operazione
+	 */
+	public String getUser() {
+		return this.user;
+	}
+
+	/**
+	 * @return La chiave dell'evento coinvolto, o null se l'operazione non coinvolge eventi
+	 */
+	public String getEvent() {
+		return this.event;
+	}
+
+	/**
+	 * @return La categoria dell'evento creato, o null se l'operazione non è una creazione
+	 */
+	public Category getCategory() {
+		return this.category;
+	}
+
+	/**
+	 * @return Il numero di partecipanti dell'evento creato
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * @return Le ore che separano l'inizio dell'esecuzione dal termine ultimo di iscrizione dell'evento creato
+	 */
+	public int getDeadlineHours() {
+		return this.deadlineHours;
+	}
+	
+	/**
+	 * Restituisce la rappresentazione dell'operazione come riga di una traccia,
+	 * interpretabile con il metodo {@link #decode(String)}.
+	 * 
+	 * @return La riga corrispondente all'operazione
+	 */
+	public String encode() {
+		return String.join(SEPARATOR,
+				this.type.name(),
+				this.user,
+				(this.event == null) ? "" : this.event,
+				(this.category == null) ? "" : this.category.name(),
+				Integer.toString(this.capacity),
+				Integer.toString(this.deadlineHours));
+	}
+	
+	/**
+	 * Interpreta una riga di una traccia.
+	 * 
+	 * Precondizione: line != null
+	 * 
+	 * @param line La riga
+	 * @return L'operazione corrispondente
+	 * @throws IllegalArgumentException Se la riga non è nel formato previsto
+	 */
+	public static WorkloadOperation decode(String line) {
+		String [] parts = line.split(SEPARATOR, -1);
+		if (parts.length != ENCODED_PARTS) {
+			throw new IllegalArgumentException("Operazione non nel formato previsto: " + line);
+		}
+		OperationType type = OperationType.valueOf(parts[0]);
+		String event = parts[2].isEmpty() ? null : parts[2];
+		switch (type) {
+		case REGISTRAZIONE:
+			return registration(parts[1]);
+		case CREAZIONE_EVENTO:
+			return eventCreation(parts[1], event, Category.valueOf(parts[3]),
+					Integer.parseInt(parts[4]), Integer.parseInt(parts[5]));
+		case ISCRIZIONE:
+			return subscription(parts[1], event);
+		case DISISCRIZIONE:
+			return unsubscription(parts[1], event);
+		case RITIRO_EVENTO:
+			return withdrawal(parts[1], event);
+		case LETTURA_POSTA:
+			return mailboxRead(parts[1]);
+		default:
+			throw new IllegalArgumentException("Tipo di operazione non supportato: " + type);
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return this.encode();
+	}
+
+}
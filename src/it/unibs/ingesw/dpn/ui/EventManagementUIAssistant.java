@@ -1,15 +1,20 @@
 package it.unibs.ingesw.dpn.ui;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import it.unibs.ingesw.dpn.model.admission.AdmissionResult;
 import it.unibs.ingesw.dpn.model.events.Event;
 import it.unibs.ingesw.dpn.model.events.EventBoard;
 import it.unibs.ingesw.dpn.model.fields.Field;
+import it.unibs.ingesw.dpn.model.fieldvalues.MoneyAmount;
 import it.unibs.ingesw.dpn.model.fieldvalues.UserDependantFieldValue;
 import it.unibs.ingesw.dpn.model.users.User;
 import it.unibs.ingesw.dpn.ui.actions.Action;
+import it.unibs.ingesw.dpn.ui.actions.CachedMenuAction;
 import it.unibs.ingesw.dpn.ui.actions.DialogAction;
 import it.unibs.ingesw.dpn.ui.actions.MenuAction;
 import it.unibs.ingesw.dpn.ui.actions.SimpleAction;
-import it.unibs.ingesw.dpn.ui.actions.UpdatingMenuAction;
 
 /**
  * Affianca la classe {@link MenuManager} nella gestione di uno specifico menu
@@ -17,9 +22,9 @@ import it.unibs.ingesw.dpn.ui.actions.UpdatingMenuAction;
  * Necessita di un riferimento all'interfaccia utente attualmente in uso, più
  * necessariamente il riferimento all'evento in questione.<br>
  * <br>
- * Il menu di gestione (compresi tutti i menu figli, secondo la struttura ad albero)
- * è creato in modo da essere aggiornato ad ogni visualizzazione, grazie all'utilizzo dell'interfaccia
- * funzionale {@link UpdatingMenuAction}.
+ * Il menu di gestione di ciascun evento viene costruito una sola volta per l'utente corrente e
+ * memorizzato (vedi {@link CachedMenuAction}); viene ricostruito solamente dopo che l'evento è stato
+ * modificato (vedi {@link #invalidate(Event)}).
  *
  * 
  * @author Michele Dusi
@@ -29,6 +34,11 @@ public class EventManagementUIAssistant {
 	
 	private EventBoard eventBoard;
 	
+	/** Menu di gestione già costruiti, per l'utente corrente */
+	private final Map<Event, CachedMenuAction> eventMenus;
+	/** L'utente per cui sono stati costruiti i menu memorizzati */
+	private User menusUser;
+	
 	/**
 	 * Costruttore data l'interfaccia utente e la bacheca.
 	 * 
@@ -45,16 +55,22 @@ public class EventManagementUIAssistant {
 		}
 		
 		this.eventBoard = eventBoard;
+		this.eventMenus = new ConcurrentHashMap<>();
+		this.menusUser = null;
 	}
 	
 	/**
 	 * Presenta il menu di gestione dell'evento.<br>
-	 * Ogni volta che viene selezionata un'opzione, il menu si aggiorna di conseguenza.<br>
+	 * Il menu viene costruito alla prima visualizzazione e riutilizzato finché l'evento non
+	 * viene modificato; le richieste successive per lo stesso evento e lo stesso utente restituiscono
+	 * la stessa azione.<br>
 	 * <br>
 	 * Tale menu può comprendere (a seconda di specifiche condizioni) le seguenti opzioni:
 	 * <ul>
 	 * 	<li> L'opzione di iscrizione, se l'utente corrente NON è il creatore e NON è iscritto. </li>
 	 * 	<li> L'opzione di disiscrizione, se l'utente corrente NON è il creatore ed è iscritto. </li>
+	 * 	<li> L'opzione di personalizzazione delle spese opzionali, se l'utente corrente può disiscriversi e
+	 * 	  l'evento prevede spese opzionali. </li>
 	 * 	<li> L'opzione di ritiro, se l'utente corrente È il creatore. </li>
 	 * </ul>
 	 * 
@@ -70,12 +86,38 @@ public class EventManagementUIAssistant {
 			throw new IllegalArgumentException("Impossibile procedere senza un riferimento valido all'utente corrente o all'evento target");
 		}
 		
-		// Preparo l'azione
-		UpdatingMenuAction eventManagementMenuAction = () -> {
-			return prepareEventManagementMenuAction(targetEvent, currentUser);
-		};
-		
-		return eventManagementMenuAction;
+		synchronized (this) {
+			// I menu memorizzati dipendono dall'utente per cui sono stati costruiti
+			if (!currentUser.equals(this.menusUser)) {
+				this.eventMenus.clear();
+				this.menusUser = currentUser;
+			}
+			return this.eventMenus.computeIfAbsent(
+					targetEvent,
+					event -> new CachedMenuAction(() -> prepareEventManagementMenuAction(event, currentUser)));
+		}
+	}
+	
+	/**
+	 * Invalida il menu di gestione dell'evento, se già costruito, in modo che venga ricostruito
+	 * alla prossima visualizzazione.
+	 * 
+	 * @param event L'evento modificato
+	 */
+	public void invalidate(Event event) {
+		CachedMenuAction menu = this.eventMenus.get(event);
+		if (menu != null) {
+			menu.invalidate();
+		}
+	}
+	
+	/**
+	 * Dimentica il menu di gestione dell'evento, ad esempio perché l'evento è stato rimosso dalla bacheca.
+	 * 
+	 * @param event L'evento
+	 */
+	public void forget(Event event) {
+		this.eventMenus.remove(event);
 	}
 	
 	/**
@@ -86,6 +128,8 @@ public class EventManagementUIAssistant {
 	 * <ul>
 	 * 	<li> L'opzione di iscrizione, se l'utente corrente NON è il creatore e NON è iscritto. </li>
 	 * 	<li> L'opzione di disiscrizione, se l'utente corrente NON è il creatore ed è iscritto. </li>
+	 * 	<li> L'opzione di personalizzazione delle spese opzionali, se l'utente corrente può disiscriversi e
+	 * 	  l'evento prevede spese opzionali. </li>
 	 * 	<li> L'opzione di ritiro, se l'utente corrente È il creatore. </li>
 	 * </ul>
 	 * 
@@ -123,6 +167,19 @@ public class EventManagementUIAssistant {
 		if (targetEvent.canUnsubscribe(currentUser)) {
 			// Aggiungo l'opzione di disiscrizione
 			eventMenuAction.addEntry("Disiscriviti", prepareUnsubscriptionAction(targetEvent, currentUser));
+			
+			// Le spese opzionali possono essere scelte di nuovo, ad esempio dopo un'iscrizione dalla lista d'attesa
+			if (targetEvent.hasUserDependantFields()) {
+				eventMenuAction.addEntry("Personalizza spese opzionali", prepareCustomizationAction(targetEvent, currentUser));
+			}
+		}
+		
+		// Verifico se l'utente può entrare nella lista d'attesa, o uscirne
+		if (targetEvent.canJoinWaitlist(currentUser)) {
+			eventMenuAction.addEntry("Entra in lista d'attesa", prepareWaitlistJoinAction(targetEvent, currentUser));
+		}
+		else if (targetEvent.isWaitlisted(currentUser)) {
+			eventMenuAction.addEntry("Lascia la lista d'attesa", prepareWaitlistLeaveAction(targetEvent, currentUser));
 		}
 		
 		return eventMenuAction;
@@ -139,18 +196,19 @@ public class EventManagementUIAssistant {
 		// Azione di iscrizione ad un evento
 		SimpleAction subscriptionAction = (userInterface) -> {
 			
-			// Verifico che l'iscrizione sia ancora possibile
-			if (targetEvent.canSubscribe(currentUser)) {
+			// L'iscrizione passa attraverso il controllo di ammissione, che verifica anche che sia ancora possibile
+			AdmissionResult result = this.eventBoard.getAdmissionController().subscribe(targetEvent, currentUser);
+			if (result == AdmissionResult.ADMITTED) {
 
-				targetEvent.subscribe(currentUser);
 				// Mostro all'utente il risultato dell'iscrizione
 				(new DialogAction("Iscrizione effettuata correttamente", null)).execute(userInterface);
 			
 				// Se l'iscrizione ha avuto successo, imposto i valori dipendenti dall'utente
-				for (Field f : targetEvent.getUserDependantFields()) {
-					UserDependantFieldValue fieldValue = (UserDependantFieldValue) targetEvent.getFieldValue(f);
-					fieldValue.userCustomization(currentUser, userInterface);
-				}
+				customizeExpenses(targetEvent, currentUser, userInterface);
+			}
+			else if (result == AdmissionResult.USER_THROTTLED || result == AdmissionResult.EVENT_THROTTLED) {
+				(new DialogAction("Troppe richieste di iscrizione in questo momento.\n"
+						+ "Riprovare fra qualche istante.", null)).execute(userInterface);
 			}
 			else {
 				(new DialogAction("Non è stato possibile completare l'iscrizione.\n"
@@ -161,6 +219,49 @@ public class EventManagementUIAssistant {
 		return subscriptionAction;
 	}
 
+	/**
+	 * Azione di personalizzazione delle spese opzionali dell'utente corrente, già iscritto all'evento.
+	 * 
+	 * @param targetEvent L'evento in questione
+	 * @param currentUser L'utente corrente
+	 * @return L'azione di personalizzazione come oggetto {@link Action}
+	 */
+	private Action prepareCustomizationAction(Event targetEvent, User currentUser) {
+		SimpleAction customizationAction = (userInterface) -> {
+			
+			// Verifico che l'utente sia ancora iscritto e possa modificare la propria iscrizione
+			if (targetEvent.canUnsubscribe(currentUser)) {
+				
+				customizeExpenses(targetEvent, currentUser, userInterface);
+				(new DialogAction("Spese opzionali aggiornate.\n"
+						+ "Importo dovuto: " + MoneyAmount.toString(targetEvent.getExpensesForUser(currentUser)), null)).execute(userInterface);
+			}
+			else {
+				(new DialogAction("Non è più possibile modificare le spese opzionali di questa iscrizione.", null)).execute(userInterface);
+			}
+			
+		};
+		return customizationAction;
+	}
+	
+	/**
+	 * Chiede all'utente i valori dei campi dipendenti dall'utente, come le spese opzionali dell'evento.
+	 * 
+	 * @param targetEvent L'evento a cui l'utente è iscritto
+	 * @param currentUser L'utente corrente
+	 * @param userInterface L'interfaccia utente
+	 */
+	private static void customizeExpenses(Event targetEvent, User currentUser, UserInterface userInterface) {
+		for (Field f : targetEvent.getUserDependantFields()) {
+			UserDependantFieldValue fieldValue = (UserDependantFieldValue) targetEvent.getFieldValue(f);
+			// Le scelte precedenti vengono sostituite da quelle nuove
+			fieldValue.forgetUserCustomization(currentUser);
+			fieldValue.userCustomization(currentUser, userInterface);
+		}
+		// Le personalizzazioni modificano le spese dell'utente
+		targetEvent.notifyChange();
+	}
+
 	/**
 	 * Azione di disiscrizione di un utente ad un evento.
 	 * 
@@ -190,6 +291,58 @@ public class EventManagementUIAssistant {
 		return unsubscribeAction;
 	}
 	
+	/**
+	 * Azione di ingresso dell'utente corrente nella lista d'attesa di un evento.
+	 * 
+	 * @param targetEvent L'evento in questione
+	 * @param currentUser L'utente corrente
+	 * @return L'azione di ingresso nella lista d'attesa come oggetto {@link Action}
+	 */
+	private Action prepareWaitlistJoinAction(Event targetEvent, User currentUser) {
+		SimpleAction waitlistJoinAction = (userInterface) -> {
+			
+			// Verifico che l'ingresso in lista d'attesa sia ancora possibile
+			if (targetEvent.canJoinWaitlist(currentUser)) {
+				
+				targetEvent.joinWaitlist(currentUser);
+				(new DialogAction("Sei in lista d'attesa.\n"
+						+ "Verrai iscritto/a automaticamente se si libererà un posto entro il \"Termine ultimo di ritiro iscrizione\".", null)).execute(userInterface);
+			}
+			else if (targetEvent.canSubscribe(currentUser)) {
+				(new DialogAction("Si è liberato un posto: è possibile iscriversi direttamente all'evento.", null)).execute(userInterface);
+			}
+			else {
+				(new DialogAction("Non è stato possibile entrare nella lista d'attesa.", null)).execute(userInterface);
+			}
+			
+		};
+		return waitlistJoinAction;
+	}
+	
+	/**
+	 * Azione di uscita dell'utente corrente dalla lista d'attesa di un evento.
+	 * 
+	 * @param targetEvent L'evento in questione
+	 * @param currentUser L'utente corrente
+	 * @return L'azione di uscita dalla lista d'attesa come oggetto {@link Action}
+	 */
+	private Action prepareWaitlistLeaveAction(Event targetEvent, User currentUser) {
+		SimpleAction waitlistLeaveAction = (userInterface) -> {
+			
+			if (targetEvent.leaveWaitlist(currentUser)) {
+				(new DialogAction("Sei uscito/a dalla lista d'attesa.", null)).execute(userInterface);
+			}
+			else if (targetEvent.hasSubscriber(currentUser)) {
+				(new DialogAction("Nel frattempo si è liberato un posto e sei stato/a iscritto/a all'evento.", null)).execute(userInterface);
+			}
+			else {
+				(new DialogAction("Non sei più in lista d'attesa.", null)).execute(userInterface);
+			}
+			
+		};
+		return waitlistLeaveAction;
+	}
+	
 	/**
 	 * Azione di ritiro di un evento.<br>
 	 * Poiché questo metodo è privato, è già stato verificato che
@@ -10,6 +10,7 @@ import it.unibs.ingesw.dpn.model.fieldvalues.UserDependantFieldValue;
 import it.unibs.ingesw.dpn.model.users.Invite;
 import it.unibs.ingesw.dpn.model.users.LoginManager;
 import it.unibs.ingesw.dpn.model.users.Notification;
+import it.unibs.ingesw.dpn.model.users.NotificationsSnapshot;
 import it.unibs.ingesw.dpn.model.users.User;
 import it.unibs.ingesw.dpn.ui.actions.Action;
 import it.unibs.ingesw.dpn.ui.actions.CheckboxListMenuAction;
@@ -23,6 +24,7 @@ import it.unibs.ingesw.dpn.ui.actions.ConfirmAction.OptionStrings;
 public class MailboxUIAssistant {
 
 	private static final String NOTIFICATION_STRING_FORMAT = " * %s\n";
+	private static final String UNREAD_NOTIFICATION_PREFIX = "[NUOVA] ";
 	
 	private LoginManager loginManager;
 	private User currentUser;
@@ -95,15 +97,24 @@ public class MailboxUIAssistant {
 	 */
 	private MenuAction prepareNotificationsMenuAction() {
 		String menuContent = null;
+		// Notifiche e stato di lettura vengono letti insieme
+		NotificationsSnapshot snapshot = currentUser.getNotificationsSnapshot();
 		
 		// Se esistono notifiche, costruisco il testo del menu
-		if (currentUser.hasNotifications()) {
+		if (!snapshot.isEmpty()) {
 			
 			StringBuffer notifications = new StringBuffer();
-			for (Notification n : currentUser.getNotifications()) {
-				notifications.append(String.format(NOTIFICATION_STRING_FORMAT, n.toString()));
+			List<Notification> received = snapshot.getNotifications();
+			for (int i = 0; i < received.size(); i++) {
+				String description = received.get(i).toString();
+				if (snapshot.isUnread(i)) {
+					description = UNREAD_NOTIFICATION_PREFIX + description;
+				}
+				notifications.append(String.format(NOTIFICATION_STRING_FORMAT, description));
 			}
 			menuContent = notifications.toString();
+			// Solo le notifiche visualizzate vengono considerate lette, non quelle consegnate nel frattempo
+			currentUser.markNotificationsReadUntil(snapshot.getLastDelivery());
 			
 		} else {
 			// Altrimenti segnalo che non sono presenti notifiche
@@ -113,7 +124,7 @@ public class MailboxUIAssistant {
 		MenuAction notificationsMenu = new MenuAction("Notifiche Personali", menuContent);
 		
 		// Solo se ho notifiche aggiungo l'opzione per la cancellazione
-		if (currentUser.hasNotifications()) {
+		if (!snapshot.isEmpty()) {
 			notificationsMenu.addEntry("Cancella notifiche", prepareDeleteNotificationsMenu());
 		}
 		
@@ -258,6 +269,8 @@ public class MailboxUIAssistant {
 					UserDependantFieldValue fieldValue = (UserDependantFieldValue) targetEvent.getFieldValue(f);
 					fieldValue.userCustomization(currentUser, userInterface);
 				}
+				// Le personalizzazioni modificano le spese dell'utente
+				targetEvent.notifyChange();
 			}
 			else {
 				(new DialogAction("Non è stato possibile completare l'iscrizione.\n"
@@ -1,19 +1,19 @@
 package it.unibs.ingesw.dpn.ui;
 
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import it.unibs.ingesw.dpn.Main;
 import it.unibs.ingesw.dpn.model.persistence.Model;
 import it.unibs.ingesw.dpn.ui.actions.Action;
+import it.unibs.ingesw.dpn.ui.actions.CachedMenuAction;
 import it.unibs.ingesw.dpn.ui.actions.CheckboxListMenuAction;
 import it.unibs.ingesw.dpn.ui.actions.ConfirmAction;
 import it.unibs.ingesw.dpn.ui.actions.ConfirmAction.OptionStrings;
 import it.unibs.ingesw.dpn.ui.actions.DialogAction;
 import it.unibs.ingesw.dpn.ui.actions.MenuAction;
+import it.unibs.ingesw.dpn.ui.actions.MenuEntry;
 import it.unibs.ingesw.dpn.ui.actions.SimpleAction;
 import it.unibs.ingesw.dpn.ui.actions.UpdatingMenuAction;
 import it.unibs.ingesw.dpn.model.users.LoginManager;
@@ -21,13 +21,24 @@ import it.unibs.ingesw.dpn.model.users.User;
 import it.unibs.ingesw.dpn.model.categories.Category;
 import it.unibs.ingesw.dpn.model.events.Event;
 import it.unibs.ingesw.dpn.model.events.EventState;
-import it.unibs.ingesw.dpn.model.events.Inviter;
-import it.unibs.ingesw.dpn.model.events.NewEventNotifier;
+import it.unibs.ingesw.dpn.model.events.EventBoard;
+import it.unibs.ingesw.dpn.model.bus.DomainEvent;
+import it.unibs.ingesw.dpn.model.bus.EventModified;
+import it.unibs.ingesw.dpn.model.bus.EventPublished;
+import it.unibs.ingesw.dpn.model.bus.EventRemoved;
+import it.unibs.ingesw.dpn.model.bus.StateChanged;
+import it.unibs.ingesw.dpn.model.bus.WaitlistChanged;
 
 /**
  * Classe adibita alla gestione e alla creazione del sistema dei menu.
  * Richiede un riferimento all'interfaccia utente utilizzata, più un riferimento
- * agli oggetti del model.
+ * agli oggetti del model.<br>
+ * <br>
+ * I menu che elencano eventi vengono costruiti una sola volta e memorizzati (vedi {@link CachedMenuAction}):
+ * vengono invalidati dai fatti di dominio pubblicati dalla bacheca (pubblicazioni, rimozioni, cambi di stato,
+ * iscrizioni, liste d'attesa) e, per quelli che dipendono dall'utente, ad ogni login e logout. Le voci di questi menu
+ * vengono prodotte solamente quando la pagina che le contiene viene visualizzata, e il menu di gestione
+ * di ciascun evento viene costruito solamente quando l'utente seleziona l'evento.
  */
 public class MenuManager {
 	
@@ -36,6 +47,20 @@ public class MenuManager {
 	
 	/** Classe per la gestione dei login */
 	private LoginManager loginManager;
+	
+	/** Assistente per i menu di gestione degli eventi, condiviso da tutte le liste di eventi */
+	private final EventManagementUIAssistant eventManagementAssistant;
+	
+	/** Menu memorizzati delle liste di eventi */
+	private final CachedMenuAction eventsViewMenuAction;
+	private final CachedMenuAction subscriptionsMenuAction;
+	private final CachedMenuAction proposalsMenuAction;
+	
+	/** Numero massimo di risultati presentati da una ricerca */
+	private static final int MAX_SEARCH_RESULTS = 20;
+	
+	/** Numero massimo di eventi consigliati presentati all'utente */
+	private static final int MAX_RECOMMENDED_EVENTS = 10;
 		
 	/**
 	 * Crea un nuovo UIManager utilizzando il renderer dato per la creazione
@@ -56,6 +81,60 @@ public class MenuManager {
 		this.model = model;
 		this.loginManager = loginManager;
 		
+		this.eventManagementAssistant = new EventManagementUIAssistant(this.model.getEventBoard());
+		this.eventsViewMenuAction = new CachedMenuAction(() -> { return (MenuAction) getEventsViewMenuAction(); });
+		this.subscriptionsMenuAction = new CachedMenuAction(() -> { return (MenuAction) getSubscriptionsMenuAction(); });
+		this.proposalsMenuAction = new CachedMenuAction(() -> { return (MenuAction) getProposalsMenuAction(); });
+		
+		// Ad ogni modifica della bacheca invalido i menu interessati
+		this.model.getEventBoard().getEventBus().addListener(DomainEvent.class, this::invalidateMenus);
+		
+	}
+	
+	/**
+	 * Invalida i menu memorizzati il cui contenuto dipende dal fatto di dominio ricevuto.
+	 * 
+	 * @param domainEvent Il fatto di dominio
+	 */
+	private void invalidateMenus(DomainEvent domainEvent) {
+		Event source = domainEvent.getSource();
+		
+		if (domainEvent instanceof EventRemoved) {
+			this.eventManagementAssistant.forget(source);
+		} else {
+			this.eventManagementAssistant.invalidate(source);
+		}
+		
+		// Le liste di eventi contengono solo i titoli, che non cambiano con le modifiche dei valori
+		// né con le liste d'attesa (i cambi di stato e le iscrizioni sono invece sottoclassi da considerare)
+		if (domainEvent.getClass() == EventModified.class || domainEvent instanceof WaitlistChanged) {
+			return;
+		}
+		
+		// Eventi aperti e proposte cambiano solo con la pubblicazione, la rimozione o il cambio di stato
+		if (domainEvent instanceof EventPublished || domainEvent instanceof EventRemoved || domainEvent instanceof StateChanged) {
+			this.eventsViewMenuAction.invalidate();
+			this.proposalsMenuAction.invalidate();
+		}
+		// Le iscrizioni cambiano con tutti i fatti restanti
+		if (!(domainEvent instanceof EventPublished)) {
+			this.subscriptionsMenuAction.invalidate();
+		}
+	}
+	
+	/**
+	 * @return L'assistente che costruisce e memorizza i menu di gestione degli eventi
+	 */
+	EventManagementUIAssistant getEventManagementAssistant() {
+		return this.eventManagementAssistant;
+	}
+	
+	/**
+	 * Invalida i menu memorizzati che dipendono dall'utente corrente.
+	 */
+	private void invalidateUserMenus() {
+		this.subscriptionsMenuAction.invalidate();
+		this.proposalsMenuAction.invalidate();
 	}
 	
 	/**
@@ -94,6 +173,7 @@ public class MenuManager {
 			String username = userInterface.getter().getString();
 			// Provo a loggare
 			if (loginManager.login(this.model.getUsersRepository(), username)) {
+				invalidateUserMenus();
 				userInterface.renderer().renderTextInFrame("Login effettuato con successo!");
 				getHomeMenuAction().execute(userInterface);
 			} else {
@@ -152,6 +232,7 @@ public class MenuManager {
 		// Callback Logout effettiva
 		SimpleAction logoutAction = (userInterface) -> {
 			loginManager.logout();
+			invalidateUserMenus();
 			userInterface.renderer().renderTextInFrame("Logout effettuato");
 		};
 		
@@ -167,9 +248,8 @@ public class MenuManager {
 		// Menu per la bacheca
 		MenuAction boardMenuAction = new MenuAction("Bacheca", null);
 
-		UpdatingMenuAction eventsViewMenuAction = () -> { return (MenuAction) getEventsViewMenuAction(); };
-		
-		boardMenuAction.addEntry("Visualizza eventi aperti", eventsViewMenuAction);
+		boardMenuAction.addEntry("Visualizza eventi aperti", this.eventsViewMenuAction);
+		boardMenuAction.addEntry("Cerca eventi aperti", getEventSearchAction());
 		boardMenuAction.addEntry("Visualizza categorie", getCategoriesViewMenuAction());
 		boardMenuAction.addEntry("Proponi evento", getEventCreationAction());
 		
@@ -197,12 +277,13 @@ public class MenuManager {
 		personalSpaceMenuAction.addEntry("Notifiche", mailboxAssistant.getNotificationsManagementMenuAction());
 
 		personalSpaceMenuAction.addEntry("Inviti", mailboxAssistant.getInvitationsManagementMenuAction());
+		
+		UpdatingMenuAction recommendationsMenuAction = () -> { return (MenuAction) getRecommendationsMenuAction(); };
+		personalSpaceMenuAction.addEntry("Eventi consigliati", recommendationsMenuAction);
 
-		UpdatingMenuAction subscriptionMenuAction = () -> { return (MenuAction) getSubscriptionsMenuAction(); };
-		personalSpaceMenuAction.addEntry("Le mie iscrizioni", subscriptionMenuAction);
+		personalSpaceMenuAction.addEntry("Le mie iscrizioni", this.subscriptionsMenuAction);
 
-		UpdatingMenuAction proposalsMenuAction = () -> { return (MenuAction) getProposalsMenuAction(); };
-		personalSpaceMenuAction.addEntry("Le mie proposte", proposalsMenuAction);
+		personalSpaceMenuAction.addEntry("Le mie proposte", this.proposalsMenuAction);
 		
 		personalSpaceMenuAction.addEntry("Modifica profilo", getUserEditingAction());
 		
@@ -214,23 +295,45 @@ public class MenuManager {
 	 * Presenta un'opzione per ciascun evento aperto presente in bacheca.
 	 */
 	private Action getEventsViewMenuAction() {
-		//  Creo un nuovo assistente alla UI per la gestione dell'evento
-		EventManagementUIAssistant eventManagementAssistant = new EventManagementUIAssistant(this.model.getEventBoard());
-		
 		// Menu di visualizzazione
 		MenuAction eventsViewMenuAction = new MenuAction("Lista eventi aperti", null);
 		
-		// Callback per gli eventi
-		for (Event openEvent : model.getEventBoard().getEventsByState(EventState.OPEN)) {
-			// Associo al titolo dell'evento l'azione del menu relativo ad esso
-			eventsViewMenuAction.addEntry(
-					openEvent.getTitle(), 
-					eventManagementAssistant.getEventManagementMenuAction(openEvent, loginManager.getCurrentUser()));
-		}
+		// Callback per gli eventi, prodotte pagina per pagina; la lista del modello di lettura non viene copiata
+		List<Event> openEvents = model.getEventBoard().getReadModel().getEventsByState(EventState.OPEN);
+		eventsViewMenuAction.setLazyEntries(openEvents, this::getEventEntry);
 		
 		return eventsViewMenuAction;
 	}
 	
+	/**
+	 * Azione di ricerca testuale fra gli eventi aperti.<br>
+	 * Richiede all'utente le parole da cercare e presenta un'opzione per ciascun evento trovato,
+	 * in ordine di rilevanza.
+	 */
+	private Action getEventSearchAction() {
+		// Callback per la ricerca
+		SimpleAction eventSearchAction = (userInterface) -> {
+			// Leggo il testo da cercare
+			userInterface.renderer().renderText("Parole da cercare (titolo, luogo, note): ");
+			String text = userInterface.getter().getString();
+			
+			List<Event> results = model.getEventBoard().searchEvents(text, EventState.OPEN, MAX_SEARCH_RESULTS);
+			
+			// Se non ho trovato nulla, lo comunico all'utente
+			if (results.isEmpty()) {
+				(new DialogAction("Nessun evento aperto corrisponde alla ricerca.", "Indietro")).execute(userInterface);
+				return;
+			}
+			
+			// Menu dei risultati
+			MenuAction resultsMenuAction = new MenuAction("Risultati della ricerca", String.format("Eventi trovati per \"%s\":", text));
+			resultsMenuAction.setLazyEntries(results, this::getEventEntry);
+			resultsMenuAction.execute(userInterface);
+		};
+		
+		return eventSearchAction;
+	}
+	
 	/**
 	 * Menu di visualizzazione della lista di categorie<br>
 	 * Per ciascuna categoria presenta un'opzione per la visualizzazione delle sue informazioni
@@ -278,13 +381,12 @@ public class MenuManager {
 					"Avanti")).execute(userInterface);
 			
 			// Preparo il menu degli inviti
-			Inviter inviter = new Inviter(newEvent, model.getEventBoard());
-			NewEventNotifier notifier = new NewEventNotifier(newEvent, model.getUsersRepository());
+			List<User> candidates = this.model.getEventBoard().getListOfOldSubscribersFromPastEvents(newEvent.getCreator());
 			
 			// Se sono presenti utenti invitabili
-			if (inviter.getCandidates().size() > 0) {
+			if (candidates.size() > 0) {
 				// Preparo l'azione di invito
-				UpdatingMenuAction invitationsAction = () -> { return (MenuAction) getUserInvitationsMenuAction(inviter); };
+				UpdatingMenuAction invitationsAction = () -> { return (MenuAction) getUserInvitationsMenuAction(newEvent, candidates); };
 				// Inglobo l'azione in un'azione di conferma
 				ConfirmAction confirmInvitationsAction = new ConfirmAction(
 						"Vuoi procedere con l'invio di inviti all'evento?", 
@@ -299,32 +401,36 @@ public class MenuManager {
 						"Torna al menu principale"))
 				.execute(userInterface);
 			}
-			
-			// Alla fine, notifico gli utenti che sono interessati alla categoria dell'evento
-			notifier.sendNotifications();
 		};
 		
 		return eventCreationAction;		
 	}
 	
+	/**
+	 * Presenta la lista degli eventi aperti consigliati all'utente, in ordine di rilevanza.<br>
+	 * Si avvale della classe {@link it.unibs.ingesw.dpn.model.recommendations.RecommendationFeed}.
+	 */
+	private Action getRecommendationsMenuAction() {
+		// Menu degli eventi consigliati
+		MenuAction recommendationsMenuAction = new MenuAction("Eventi consigliati", "Eventi aperti che potrebbero interessarti:");
+		
+		List<Event> feed = model.getEventBoard().getRecommendationFeed().getFeed(loginManager.getCurrentUser(), MAX_RECOMMENDED_EVENTS);
+		recommendationsMenuAction.setLazyEntries(feed, this::getEventEntry);
+		
+		return recommendationsMenuAction;
+	}
+	
 	/**
 	 * Presenta la lista di eventi a cui un utente è iscritto.<br>
 	 */
 	private Action getSubscriptionsMenuAction() {
-		// Creo un nuovo assistente alla UI per la gestione dell'evento
-		EventManagementUIAssistant eventManagementAssistant = new EventManagementUIAssistant(this.model.getEventBoard());
-			
 		// Menu di gestione delle iscrizioni
 		MenuAction subscriptionsMenuAction = new MenuAction("Le mie iscrizioni", null);
 		
 		// Callback per ogni evento al quale l'utente e' iscritto ma del quale non e' creatore
-		List<Event> subscriptions = model.getEventBoard().getOpenSubscriptionsNotProposedByUser(loginManager.getCurrentUser());
-		for (Event event : subscriptions) {
-			// Per ciascuna iscrizione aggiungo un'opzione al menu
-			subscriptionsMenuAction.addEntry(
-					event.getTitle(), 
-					eventManagementAssistant.getEventManagementMenuAction(event, loginManager.getCurrentUser()));
-		}
+		List<Event> subscriptions = model.getEventBoard().getReadModel().getSubscriptions(loginManager.getCurrentUser());
+		// Per ciascuna iscrizione un'opzione del menu, prodotta solo quando viene visualizzata
+		subscriptionsMenuAction.setLazyEntries(subscriptions, this::getEventEntry);
 		
 		return subscriptionsMenuAction;
 	}
@@ -334,26 +440,43 @@ public class MenuManager {
 	 * Si avvale dei metodi contenuti nella classe {@link EventManagementUIAssistant}.
 	 */
 	private Action getProposalsMenuAction() {
-		// Creo un nuovo assistente alla UI per la gestione dell'evento
-		EventManagementUIAssistant eventManagementAssistant = new EventManagementUIAssistant(this.model.getEventBoard());
-			
 		// Menu di gestione degli eventi proposti
 		MenuAction proposalsMenuAction = new MenuAction("Le mie proposte", null);
 
 		// Callback per ogni evento creato dall'utente
-		List<Event> proposals = model.getEventBoard().getEventsByAuthor(loginManager.getCurrentUser());
-		for (Event event : proposals) {			
-			// Per ciascuna proposta aggiungo un'opzione al menu
-			proposalsMenuAction.addEntry(
-					event.getTitle(), 
-					eventManagementAssistant.getEventManagementMenuAction(
-							event, 
-							loginManager.getCurrentUser()));
-		}
+		List<Event> proposals = model.getEventBoard().getReadModel().getProposals(loginManager.getCurrentUser());
+		// Per ciascuna proposta un'opzione del menu, prodotta solo quando viene visualizzata
+		proposalsMenuAction.setLazyEntries(proposals, this::getEventEntry);
 		
 		return proposalsMenuAction;
 	}
 	
+	/**
+	 * Restituisce l'opzione associata ad un evento nelle liste di eventi: il titolo dell'evento
+	 * e l'azione del menu relativo ad esso.
+	 * 
+	 * @param event L'evento
+	 */
+	private MenuEntry getEventEntry(Event event) {
+		return new MenuEntry(event.getTitle(), getEventManagementAction(event));
+	}
+	
+	/**
+	 * Restituisce l'azione associata ad un evento nelle liste di eventi.<br>
+	 * Il menu di gestione dell'evento viene ottenuto da {@link EventManagementUIAssistant} solamente
+	 * quando l'utente seleziona l'evento, e non alla costruzione della lista.
+	 * 
+	 * @param event L'evento
+	 */
+	private Action getEventManagementAction(Event event) {
+		// Callback di gestione dell'evento
+		SimpleAction eventManagementAction = (userInterface) -> {
+			this.eventManagementAssistant.getEventManagementMenuAction(event, loginManager.getCurrentUser()).execute(userInterface);
+		};
+		
+		return eventManagementAction;
+	}
+	
 	/**
 	 * Restituisce l'azione per la modifica dei dati dell'utente.<br>
 	 * Si avvale dei metodi della classe {@link BuilderUIAssistant}.
@@ -366,6 +489,8 @@ public class MenuManager {
 			
 			// Eseguo il processo di modifica
 			builderAssistant.editUser(this.loginManager.getCurrentUser());
+			// Le categorie di interesse potrebbero essere cambiate
+			this.model.getEventBoard().getRecommendationFeed().invalidate(this.loginManager.getCurrentUser());
 			};
 		
 		return userEditingAction;
@@ -391,13 +516,14 @@ public class MenuManager {
 	}
 	
 	/**
-	 * Restituisce il menu per selezionare gli utenti da inviare.
+	 * Restituisce il menu per selezionare gli utenti da invitare.<br>
+	 * Gli inviti vengono recapitati dai listener del bus della bacheca (vedi {@link EventBoard#inviteUsers}).
 	 * 
-	 * @param inviter L'inviter
+	 * @param event L'evento a cui invitare gli utenti
+	 * @param candidates Gli utenti invitabili
 	 */
-	private Action getUserInvitationsMenuAction(Inviter inviter) {
+	private Action getUserInvitationsMenuAction(Event event, List<User> candidates) {
 		// Lista di candidati
-		Set<User> candidates = inviter.getCandidates();
 		Map<User, String> candidatesNicknames = new LinkedHashMap<>();
 		for (User candidate : candidates) {
 			candidatesNicknames.put(candidate, candidate.getNickname());
@@ -410,14 +536,12 @@ public class MenuManager {
 		
 		// Creo l'azione di conferma degli inviti
 		SimpleAction finishInvitationsAction = (userInterface) -> {
-			// Aggiungo gli inviti
-			inviter.addAllInvitations(new HashSet<>(userInvitationsMenuAction.getSelectedObjects()));
 			// Invia gli inviti
-			inviter.sendInvites();
+			int invited = this.model.getEventBoard().inviteUsers(event, userInvitationsMenuAction.getSelectedObjects());
 			// Presenta una finestra di dialogo per confermare
 			(new DialogAction(
 					"Procedura di invito terminata correttamente.\n" + 
-				    String.format("Hai inviato %d inviti", inviter.getInvited().size()),
+				    String.format("Hai inviato %d inviti", invited),
 				    "Torna al menu principale"))
 			.execute(userInterface);
 		};
@@ -16,6 +16,10 @@ import it.unibs.ingesw.dpn.ui.actions.MenuEntry;
  */
 public class TextGetter implements UIGetter {
 	
+	/** Comandi per la navigazione fra le pagine di un menu */
+	public static final String NEXT_PAGE_COMMAND = ">";
+	public static final String PREVIOUS_PAGE_COMMAND = "<";
+	
 	private Scanner input;
 	private UIRenderer renderer;
 	
@@ -31,6 +35,9 @@ public class TextGetter implements UIGetter {
 	private static final String LOWERBOUND_FLOAT_ERROR = "Il valore %f è inferiore al minimo previsto %f";
 	private static final String UPPERBOUND_FLOAT_ERROR = "Il valore %f è superiore al massimo previsto %f";
 	private static final String INVALID_FORMAT_STRING_ERROR = "La stringa \"%s\" non corrisponde al formato atteso";
+	private static final String PARSING_MENU_CHOICE_ERROR = "Impossibile interpretare il valore \"%s\" come numero di una voce o comando di navigazione";
+	private static final String LAST_PAGE_ERROR = "Questa è l'ultima pagina";
+	private static final String FIRST_PAGE_ERROR = "Questa è la prima pagina";
 
 	private static final float FLOAT_DELTA = 0.000001f;
 	
@@ -252,7 +259,10 @@ public class TextGetter implements UIGetter {
 
 	/**
 	 * Dopo aver presentato le opzioni presenti nel menu, richiede all'utente di selezionarne una.
-	 * Se la selezione è stata effettuata correttamente, restituisce l'azione associata a tale opzione.
+	 * Se la selezione è stata effettuata correttamente, restituisce l'azione associata a tale opzione.<br>
+	 * Se il menu ha più pagine, l'utente può anche spostarsi alla pagina successiva o precedente
+	 * (vedi {@link #NEXT_PAGE_COMMAND} e {@link #PREVIOUS_PAGE_COMMAND}); il numero di una voce che non
+	 * si trova nella pagina corrente la seleziona direttamente.
 	 * 
 	 * Nota: La visualizzazione del menu <b>è compresa</b> nella chiamata di questo metodo.
 	 * 
@@ -264,13 +274,60 @@ public class TextGetter implements UIGetter {
 		renderer.renderMenu(menu);
 		
 		// Acquisizione del numero relativo all'opzione
-		int choice = this.getInteger(0, menu.getEntries().size());
+		int choice = (menu.getPageCount() > 1) ?
+				this.getPagedMenuChoice(menu) :
+				this.getInteger(0, menu.getEntryCount());
 		
 		// Restituzione dell'opzione corrispondente
 		if (choice == 0) {
 			return menu.getBackEntry();
 		} else {
-			return menu.getEntries().get(choice - 1);
+			// Al ritorno nel menu verrà visualizzata la pagina della voce selezionata
+			menu.showEntry(choice - 1);
+			return menu.getEntry(choice - 1);
+		}
+	}
+	
+	/**
+	 * Acquisisce il numero di una voce di un menu con più pagine, gestendo i comandi di navigazione:
+	 * ad ogni cambio di pagina il menu viene nuovamente visualizzato.
+	 * 
+	 * @param menu Il menu, già visualizzato
+	 * @return Il numero della voce selezionata, oppure 0 per l'opzione di uscita
+	 */
+	private int getPagedMenuChoice(MenuAction menu) {
+		int max = menu.getEntryCount();
+		while (true) {
+			renderer.renderEmptyPrompt();
+			String userInput = input.nextLine().trim();
+			
+			if (userInput.equals(NEXT_PAGE_COMMAND)) {
+				if (menu.nextPage()) {
+					renderer.renderMenu(menu);
+				} else {
+					renderer.renderError(LAST_PAGE_ERROR);
+				}
+			} else if (userInput.equals(PREVIOUS_PAGE_COMMAND)) {
+				if (menu.previousPage()) {
+					renderer.renderMenu(menu);
+				} else {
+					renderer.renderError(FIRST_PAGE_ERROR);
+				}
+			} else {
+				try {
+					int choice = Integer.parseInt(userInput);
+					if (choice < 0) {
+						renderer.renderError(String.format(LOWERBOUND_INTEGER_ERROR, choice, 0));
+					} else if (choice > max) {
+						renderer.renderError(String.format(UPPERBOUND_INTEGER_ERROR, choice, max));
+					} else {
+						return choice;
+					}
+				}
+				catch (NumberFormatException ex) {
+					renderer.renderError(String.format(PARSING_MENU_CHOICE_ERROR, userInput));
+				}
+			}
 		}
 	}
 
@@ -293,6 +350,7 @@ public class TextGetter implements UIGetter {
 		
 		// acquisizione di un valore qualsiasi
 //		renderer.renderEmptyPrompt();
+		renderer.flush();
 		input.nextLine(); // TODO Potrebbe richiedere una correzione
 	}
 
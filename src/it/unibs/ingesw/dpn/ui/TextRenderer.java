@@ -1,5 +1,13 @@
 package it.unibs.ingesw.dpn.ui;
 
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -10,11 +18,23 @@ import it.unibs.ingesw.dpn.ui.actions.MenuEntry;
 
 /**
  * Implementazione dell'interfaccia UIRenderer utilizzata per realizzare un'interfaccia
- * utente da riga di comando.
+ * utente da riga di comando.<br>
+ * <br>
+ * Ciascun elemento viene composto per intero in un buffer riutilizzato fra un rendering e l'altro,
+ * quindi accodato all'output in sospeso. L'output in sospeso viene codificato in un canale bufferizzato
+ * e scritto sullo stream con un'unica operazione in corrispondenza dei prompt (vedi {@link #renderEmptyPrompt()}), alla chiamata esplicita
+ * di {@link #flush()} oppure quando un nuovo elemento le farebbe superare la soglia {@link #FLUSH_THRESHOLD}.
  */
 public class TextRenderer implements UIRenderer {
 	
-	private static final String OPTION_FORMAT = "%2d - %s\n";
+	/** Dimensione (in caratteri) oltre la quale l'output in sospeso viene scritto anche in assenza di prompt */
+	public static final int FLUSH_THRESHOLD = 64 * 1024;
+	/** Dimensione (in byte) del buffer del canale di output, sufficiente a contenere l'output in sospeso codificato */
+	public static final int OUTPUT_BUFFER_SIZE = 1024 * 1024;
+	
+	private static final String OPTION_SEPARATOR = " - ";
+	
+	private static final String PAGE_FOOTER_FORMAT = "Pagina %d di %d (\"%s\" successiva, \"%s\" precedente, oppure il numero di una voce qualsiasi)";
 	
 	private static final String CLI_PROMPT = ">> ";
 	private static final String ERROR_PREFIX = "ERRORE: ";
@@ -69,34 +89,77 @@ public class TextRenderer implements UIRenderer {
 		
 	}
 
+	private final Writer out;
+	/** Buffer di composizione, riutilizzato da ciascun rendering */
+	private final StringBuilder frame;
+	/** Output composto ma non ancora scritto sullo stream */
+	private final StringBuilder pending;
+	
+	/**
+	 * Crea un renderer che scrive sullo standard output, con la stessa codifica di {@link System#out}.
+	 */
+	public TextRenderer() {
+		this(new FileOutputStream(FileDescriptor.out), getStandardOutputCharset());
+	}
+	
 	/**
-	 * Metodo adibito al rendering dell'intero menu.
+	 * Crea un renderer che scrive sullo stream dato.
+	 * 
+	 * Precondizione: out != null
+	 * Precondizione: charset != null
+	 * 
+	 * @param out Lo stream su cui scrivere l'output
+	 * @param charset La codifica dei caratteri
+	 */
+	public TextRenderer(OutputStream out, Charset charset) {
+		// Verifica delle precondizioni
+		if (out == null || charset == null) {
+			throw new IllegalArgumentException("Impossibile creare un renderer con parametri nulli");
+		}
+		
+		this.out = new OutputStreamWriter(new BufferedOutputStream(out, OUTPUT_BUFFER_SIZE), charset);
+		this.frame = new StringBuilder();
+		this.pending = new StringBuilder();
+	}
+	
+	/**
+	 * Metodo adibito al rendering del menu.
+	 * Vengono renderizzate solamente le voci della pagina corrente, numerate secondo la loro posizione
+	 * nell'intero menu; se il menu ha più pagine, viene aggiunta l'indicazione dei comandi di navigazione
+	 * (vedi {@link TextGetter#getMenuChoice(MenuAction)}).
 	 * 
 	 * @param menu Il menu da renderizzare
 	 */
 	@Override
 	public void renderMenu(MenuAction menu) {
 		
-		// Costruisco la stringa totale
-		StringBuffer result = new StringBuffer();
-		
 	// Preparo il contenuto dell'intestazione
 		String titleLine = addHorizontalPadding(menu.getTitle());
 		
 	// Preparo il corpo
-		StringBuffer body = new StringBuffer("\n");
+		StringBuilder body = this.startFrame();
+		body.append('\n');
 		// Se la descrizione è presente, la aggiungo
 		if (!menu.getDescription().equals("")) {
-			body.append(menu.getDescription() + "\n\n");
+			body.append(menu.getDescription()).append("\n\n");
 		}
-		// Aggiungo le opzioni
-		List<MenuEntry> entries = menu.getEntries();
-		for (int i = 0; i < entries.size(); i++) {
-			body.append(toStringMenuEntry(entries.get(i), (i + 1)));
+		// Aggiungo le opzioni della pagina corrente
+		int index = menu.getPageStart() + 1;
+		for (MenuEntry entry : menu.getPageEntries()) {
+			appendOption(body, entry.getName(), index++);
 		}
 		// Aggiungo l'opzione finale
-		body.append(toStringMenuEntry(menu.getBackEntry(), 0));
-		body.append(" "); // Aggiungo una riga vuota finale
+		appendOption(body, menu.getBackEntry().getName(), 0);
+		// Aggiungo i comandi di navigazione fra le pagine
+		if (menu.getPageCount() > 1) {
+			body.append('\n').append(String.format(
+					PAGE_FOOTER_FORMAT,
+					menu.getCurrentPage() + 1,
+					menu.getPageCount(),
+					TextGetter.NEXT_PAGE_COMMAND,
+					TextGetter.PREVIOUS_PAGE_COMMAND)).append('\n');
+		}
+		body.append(' '); // Aggiungo una riga vuota finale
 		
 	// Separo il corpo in linee
 		List<String> bodyLines = getStringLines(body.toString(), MAX_WIDTH);
@@ -116,38 +179,42 @@ public class TextRenderer implements UIRenderer {
 		CharStyle titleStyle = CharStyle.DOUBLE;
 		CharStyle boxStyle = CharStyle.SINGLE;
 		
+		// Costruisco la stringa totale, riutilizzando il buffer
+		StringBuilder result = this.startFrame();
+		
 		// Costruisco il bordo superiore
-		result.append(" " + getFrameTopLine(titleWidth, titleStyle) + "\n");
+		result.append(' ');
+		appendFrameTopLine(result, titleWidth, titleStyle);
+		result.append('\n');
 		
 		// Costruisco la riga centrale
 		result.append(boxStyle.get(CharFrame.SOUTH_EAST));
 		result.append(T_WEST);
 		result.append(titleLine);
 		result.append(T_EAST);
-		result.append(iterateChar(
-				boxStyle.get(CharFrame.HORIZONTAL), 
-				bodyOverwidth));
+		appendChars(result, boxStyle.get(CharFrame.HORIZONTAL), bodyOverwidth);
 		result.append(boxStyle.get(CharFrame.SOUTH_WEST));
-		result.append("\n");
+		result.append('\n');
 		
 		// Costruisco la riga di chiusura del titolo
 		result.append(boxStyle.get(CharFrame.VERTICAL));
-		result.append(getFrameBottomLine(titleLine.length() + 2, titleStyle));
-		result.append(iterateChar(' ', bodyOverwidth));
+		appendFrameBottomLine(result, titleLine.length() + 2, titleStyle);
+		appendChars(result, ' ', bodyOverwidth);
 		result.append(boxStyle.get(CharFrame.VERTICAL));
-		result.append("\n");
+		result.append('\n');
 		
 		// RIghe centrali del corpo del menu
 		for (String line : bodyLines) {
-			result.append(getFrameMiddleLine(bodyWidth, boxStyle, line));
-			result.append("\n");
+			appendFrameMiddleLine(result, bodyWidth, boxStyle, line);
+			result.append('\n');
 		}
 		
 		// Riga di chiusura
-		result.append(getFrameBottomLine(bodyWidth, boxStyle));
+		appendFrameBottomLine(result, bodyWidth, boxStyle);
+		result.append('\n');
 		
-		// Stampo tutto
-		System.out.println(result.toString());
+		// Accodo tutto
+		this.commitFrame();
 		
 	}
 
@@ -160,15 +227,15 @@ public class TextRenderer implements UIRenderer {
 	public void renderConfirm(ConfirmAction confirm) {
 		
 		// Costruisco la stringa totale
-		StringBuffer result = new StringBuffer();
+		StringBuilder result = this.startFrame();
 		
 		// Messaggio
-		result.append("\n" + confirm.getMessage() + "\n\n");
+		result.append('\n').append(confirm.getMessage()).append("\n\n");
 		// Aggiungo le opzioni
-		result.append(toStringMenuEntry(confirm.getConfirmString(), 1));
-		result.append(toStringMenuEntry(confirm.getCancelString(), 0));
+		appendOption(result, confirm.getConfirmString(), 1);
+		appendOption(result, confirm.getCancelString(), 0);
 		
-		result.append(" "); // Aggiungo una riga vuota finale
+		result.append(' '); // Aggiungo una riga vuota finale
 	
 		this.renderLongTextInFrame(result.toString(), MAX_WIDTH, DEFAULT_CONFIRM_STYLE);
 		
@@ -181,9 +248,10 @@ public class TextRenderer implements UIRenderer {
 	 */
 	@Override
 	public void renderDialog(DialogAction dialog) {
-		StringBuffer text = new StringBuffer(" \n" + dialog.getMessage());
+		StringBuilder text = this.startFrame();
+		text.append(" \n").append(dialog.getMessage());
 		text.append("\n\n");
-		text.append(">> " + dialog.getOption());
+		text.append(">> ").append(dialog.getOption());
 		text.append(" [premi INVIO]\n ");
 		
 		this.renderLongTextInFrame(text.toString(), MAX_WIDTH, DEFAULT_DIALOG_STYLE);
@@ -201,148 +269,159 @@ public class TextRenderer implements UIRenderer {
 			throw new IllegalArgumentException("Impossibile accettare una stringa nulla");
 		}
 		
-		StringBuffer s = new StringBuffer();
-		s.append(iterateChar(' ', HORIZ_PADDING));
+		StringBuilder s = new StringBuilder(text.length() + 2 * HORIZ_PADDING);
+		appendChars(s, ' ', HORIZ_PADDING);
 		s.append(text);
-		s.append(iterateChar(' ', HORIZ_PADDING));
+		appendChars(s, ' ', HORIZ_PADDING);
 		return s.toString();
 	}
 
 	/**
-	 * Restituisce la stringa che rappresenta la cornice superiore di una "box",
-	 * formata con il set di caratteri specificato.
+	 * Accoda la cornice superiore di una "box", formata con il set di caratteri specificato.
 	 * 
 	 * Precondizione: la larghezza "width" deve essere almeno 2.
 	 * 
+	 * @param s Il buffer su cui comporre la cornice
 	 * @param width La larghezza della cornice, compresi i due angoli
 	 * @param style Lo stile di caratteri da utilizzare
-	 * @return
 	 */
-	private String getFrameTopLine(int width, CharStyle style) {
+	private static void appendFrameTopLine(StringBuilder s, int width, CharStyle style) {
 		if (width < 2) {
 			throw new IllegalArgumentException("Impossibile creare una cornice con larghezza inferiore a 2");
 		}
 		
-		StringBuffer s = new StringBuffer();
 		s.append(style.get(CharFrame.SOUTH_EAST));
-		s.append(iterateChar(style.get(CharFrame.HORIZONTAL), width - 2));
+		appendChars(s, style.get(CharFrame.HORIZONTAL), width - 2);
 		s.append(style.get(CharFrame.SOUTH_WEST));
-		// Restituisco il valore
-		return s.toString();
 	}
 	
 	/**
-	 * Restituisce la stringa che rappresenta la cornice inferiore di una "box",
-	 * formata con il set di caratteri specificato.
+	 * Accoda la cornice inferiore di una "box", formata con il set di caratteri specificato.
 	 * 
 	 * Precondizione: la larghezza "width" deve essere almeno 2.
 	 * 
+	 * @param s Il buffer su cui comporre la cornice
 	 * @param width La larghezza della cornice, compresi i due angoli
 	 * @param style Lo stile di caratteri da utilizzare
-	 * @return La stringa formattata correttamente
 	 */
-	private String getFrameBottomLine(int width, CharStyle style) {
+	private static void appendFrameBottomLine(StringBuilder s, int width, CharStyle style) {
 		if (width < 2) {
 			throw new IllegalArgumentException("Impossibile creare una cornice con larghezza inferiore a 2");
 		}
 		
-		StringBuffer s = new StringBuffer();
 		s.append(style.get(CharFrame.NORTH_EAST));
-		s.append(iterateChar(style.get(CharFrame.HORIZONTAL), width - 2));
+		appendChars(s, style.get(CharFrame.HORIZONTAL), width - 2);
 		s.append(style.get(CharFrame.NORTH_WEST));
-		// Restituisco il valore
-		return s.toString();
 	}
 	
 	/**
-	 * Restituisce una linea "di mezzo" di una cornice, eventualmente con testo.
+	 * Accoda una linea "di mezzo" di una cornice, eventualmente con testo.
 	 * 
 	 * Precondizione: Il testo deve avere una lunghezza sufficiente per stare nella cornice, comprensiva di padding.
 	 * 
+	 * @param s Il buffer su cui comporre la linea
 	 * @param width La larghezza delle "box" (comprensiva di estremi)
 	 * @param style Lo stile della "box"/cornice
 	 * @param text Il testo da inserire
-	 * @return La stringa rappresentante la linea
 	 */
-	private String getFrameMiddleLine(int width, CharStyle style, String text) {
+	private static void appendFrameMiddleLine(StringBuilder s, int width, CharStyle style, String text) {
 		// Calcolo la dimensione massima che può prendere il testo
 		int maxTextWidth = width - HORIZ_PADDING * 2 - 2;
 		// Eventualmente, in caso di testo nullo, visualizzo una riga vuota
-		if (text == null) {
-			text = "";
-		}
+		String trimmed = (text == null) ? "" : text.trim();
 		// Verifica delle precondizioni
-		if (text.trim().length() > maxTextWidth) {
+		if (trimmed.length() > maxTextWidth) {
 			throw new IllegalArgumentException("Dimensione del testo eccessiva");
 		}
 		
-		StringBuffer s = new StringBuffer();
 		s.append(style.get(CharFrame.VERTICAL));
-		s.append(iterateChar(' ', HORIZ_PADDING));
-		s.append(String.format("%-" + maxTextWidth + "s", text.trim()));
-		s.append(iterateChar(' ', HORIZ_PADDING));
+		appendChars(s, ' ', HORIZ_PADDING);
+		s.append(trimmed);
+		appendChars(s, ' ', maxTextWidth - trimmed.length() + HORIZ_PADDING);
 		s.append(style.get(CharFrame.VERTICAL));
-		
-		return s.toString();		
 	}
 	
 	/**
-	 * Restituisce una stringa data dalla concatenazione di simboli uguali.
+	 * Accoda la concatenazione di simboli uguali.
 	 * 
 	 * Precondizione: il numero di ripetizioni deve essere positivo o al più nullo.
-	 * In caso sia "0", viene restituita la stringa vuota.
+	 * In caso sia "0", non viene accodato nulla.
 	 * 
+	 * @param s Il buffer su cui accodare i simboli
 	 * @param symbol Il simbolo da ripetere e concatenare.
 	 * @param times Il numero di volte che il simbolo deve essere ripetuto.
-	 * @return
 	 */
-	private String iterateChar(char symbol, int times) {
+	private static void appendChars(StringBuilder s, char symbol, int times) {
 		if (times < 0) {
 			throw new IllegalArgumentException("Impossibile interpretare una quantità negativa");
 		}
-		StringBuffer s = new StringBuffer();
 		for (int i = 0; i < times; i++) {
 			s.append(symbol);
 		}
-		return s.toString();
 	}
 
 	/**
-	 * Restituisce la stringa contenente il testo di una entry, più il numero iniziale.
+	 * Accoda il testo di un'opzione, preceduto dal numero associato e seguito da un "a capo".
 	 * 
-	 * @param entry L'opzione da renderizzare
+	 * @param s Il buffer su cui comporre l'opzione
+	 * @param option Il testo da renderizzare
 	 * @param index Il numero associato all'opzione
-	 * @return La stringa che rappresenta l'opzione
 	 */
-	private String toStringMenuEntry(MenuEntry entry, int index) {
-		return String.format(
-				OPTION_FORMAT,
-				index,
-				entry.getName());
+	private static void appendOption(StringBuilder s, String option, int index) {
+		// Numero allineato a destra su due colonne
+		if (index < 10) {
+			s.append(' ');
+		}
+		s.append(index).append(OPTION_SEPARATOR).append(option).append('\n');
 	}
 	
 	/**
-	 * Restituisce la stringa contenente un testo più il numero iniziale.
-	 * 
-	 * @param message Il testo da renderizzare
-	 * @param index Il numero associato all'opzione
-	 * @return La stringa che rappresenta l'opzione
+	 * Renderizza il prompt e scrive tutto l'output in sospeso, dal momento che
+	 * l'utente deve poterlo leggere prima di inserire un dato.
 	 */
-	private String toStringMenuEntry(String option, int index) {
-		return String.format(
-				OPTION_FORMAT,
-				index,
-				option);
-	}
-
 	@Override
 	public void renderEmptyPrompt() {
-		System.out.print(CLI_PROMPT);
+		this.pending.append(CLI_PROMPT);
+		this.flush();
 	}
 	
 	@Override
 	public void renderLineSpace() {
-		System.out.println();
+		this.startFrame().append('\n');
+		this.commitFrame();
+	}
+	
+	/**
+	 * Scrive sullo stream tutto l'output in sospeso, con un'unica operazione di scrittura.
+	 */
+	@Override
+	public void flush() {
+		try {
+			if (this.pending.length() > 0) {
+				this.out.append(this.pending);
+				this.pending.setLength(0);
+			}
+			this.out.flush();
+		}
+		catch (IOException ex) {
+			// Come per System.out, un errore di scrittura sul terminale non interrompe l'applicazione
+			this.pending.setLength(0);
+		}
+	}
+	
+	/**
+	 * Restituisce la codifica utilizzata dalla JVM per lo standard output.
+	 * 
+	 * @return La codifica dello standard output
+	 */
+	private static Charset getStandardOutputCharset() {
+		for (String property : new String [] {"stdout.encoding", "sun.stdout.encoding"}) {
+			String name = System.getProperty(property);
+			if (name != null && Charset.isSupported(name)) {
+				return Charset.forName(name);
+			}
+		}
+		return Charset.defaultCharset();
 	}
 	
 	/**
@@ -353,7 +432,7 @@ public class TextRenderer implements UIRenderer {
 	 * @param maxLenght La lunghezza massima di ogni linea
 	 * @return La lista di tutte le linee
 	 */
-	private List<String> getStringLines(String text, int maxLenght) {
+	private static List<String> getStringLines(String text, int maxLenght) {
 		// Spezzo la stringa di testo in più sottostringhe.
 		List<String> textLines = new ArrayList<>();
 		for (String sentence : text.split("\n")) {
@@ -363,18 +442,19 @@ public class TextRenderer implements UIRenderer {
 				textLines.add(sentence);
 			} else {
 				// In caso contrario, identifico la posizione migliore per andare a capo
-				StringBuffer buffer = new StringBuffer();
+				StringBuilder buffer = new StringBuilder();
 				for (String word : sentence.split(" ")) {
 					// Verifico se la parola può rientrare nella riga
 					if (buffer.length() + word.length() < maxLenght) {
-						// In caso affermativo, la aggiungo alla riga che sto costruendo pezzo per pezzo
-						buffer.append(word + " ");
+						// In tal caso, la aggiungo alla riga che sto costruendo pezzo per pezzo
+						buffer.append(word).append(' ');
 					} else {
 						// Altrimenti, la riga era già pronta.
 						// La aggiungo alla lista di righe
 						textLines.add(buffer.toString());
 						// Resetto il buffer, aggiungendo la parola appena trovata
-						buffer = new StringBuffer(word + " ");
+						buffer.setLength(0);
+						buffer.append(word).append(' ');
 						
 						/* TODO : al momento il metodo si incasina se ho una parola più lunga 
 						 * del massimo numero di caratteri per riga. Tuttavia è un caso 
@@ -395,16 +475,15 @@ public class TextRenderer implements UIRenderer {
 	 * @param strings La lista di stringhe
 	 * @return La massima lunghezza
 	 */
-	private int getMaxLength(List<String> strings) {
+	private static int getMaxLength(List<String> strings) {
 		if (strings == null || strings.isEmpty()) {
 			throw new IllegalArgumentException("Impossibile analizzare una lista vuota o nulla di stringhe.");
 		}
-		return strings
-				.stream()
-				.sorted((s1, s2) -> {return s2.length() - s1.length();})
-				.findFirst()
-				.get()
-				.length();
+		int max = 0;
+		for (String s : strings) {
+			max = Math.max(max, s.length());
+		}
+		return max;
 	}
 
 	/**
@@ -414,7 +493,8 @@ public class TextRenderer implements UIRenderer {
 	 */
 	@Override
 	public void renderText(String text) {
-		System.out.println(text);		
+		this.startFrame().append(text).append('\n');
+		this.commitFrame();
 	}
 
 	/**
@@ -443,17 +523,18 @@ public class TextRenderer implements UIRenderer {
 		// Calcolo delle dimensioni
 		int frameWidth = text.trim().length() + HORIZ_PADDING * 2 + 2;
 		// Costruisco la stringa finale
-		StringBuffer result = new StringBuffer();
+		StringBuilder result = this.startFrame();
 		
 		// Costruisco la cornice, aggregando tre linee di testo 
-		result.append(getFrameTopLine(frameWidth, style));
-		result.append("\n");
-		result.append(getFrameMiddleLine(frameWidth, style, text.trim()));
-		result.append("\n");
-		result.append(getFrameBottomLine(frameWidth, style));
-		
-		// Stampo tutto
-		System.out.println(result.toString());
+		appendFrameTopLine(result, frameWidth, style);
+		result.append('\n');
+		appendFrameMiddleLine(result, frameWidth, style, text);
+		result.append('\n');
+		appendFrameBottomLine(result, frameWidth, style);
+		result.append('\n');
+		
+		// Accodo tutto
+		this.commitFrame();
 	}
 
 	/**
@@ -508,28 +589,55 @@ public class TextRenderer implements UIRenderer {
 		int boxWidth = textWidth + HORIZ_PADDING * 2 + 2;
 		
 		// Costruisco la stringa finale
-		StringBuffer result = new StringBuffer();
+		StringBuilder result = this.startFrame();
 		
 		// Cornice superiore
-		result.append(getFrameTopLine(boxWidth, style));
-		result.append("\n");
+		appendFrameTopLine(result, boxWidth, style);
+		result.append('\n');
 
 		// Costruisco le righe centrali
 		for (String line : textLines) {
-			result.append(getFrameMiddleLine(boxWidth, style, line.trim()));
-			result.append("\n");
+			appendFrameMiddleLine(result, boxWidth, style, line);
+			result.append('\n');
 		}
 		
 		// Cornice inferiore
-		result.append(getFrameBottomLine(boxWidth, style));
+		appendFrameBottomLine(result, boxWidth, style);
+		result.append('\n');
 		
-		// Stampo tutto
-		System.out.println(result.toString());
+		// Accodo tutto
+		this.commitFrame();
 	}
 
 	@Override
 	public void renderError(String errorText) {
-		System.out.println(ERROR_PREFIX + errorText);		
+		this.startFrame().append(ERROR_PREFIX).append(errorText).append('\n');
+		this.commitFrame();
+	}
+	
+	/**
+	 * Svuota e restituisce il buffer di composizione.
+	 * 
+	 * @return Il buffer di composizione, vuoto
+	 */
+	private StringBuilder startFrame() {
+		this.frame.setLength(0);
+		return this.frame;
+	}
+	
+	/**
+	 * Accoda all'output in sospeso il contenuto del buffer di composizione.
+	 * Poiché il buffer viene accodato solo a composizione ultimata, un errore durante
+	 * il rendering non lascia mai elementi parziali nell'output.<br>
+	 * Se l'elemento porterebbe l'output in sospeso oltre la soglia, viene prima scritto l'output precedente:
+	 * in questo modo un elemento non viene mai spezzato su più scritture.
+	 */
+	private void commitFrame() {
+		if (this.pending.length() > 0 && this.pending.length() + this.frame.length() > FLUSH_THRESHOLD) {
+			this.flush();
+		}
+		this.pending.append(this.frame);
+		this.frame.setLength(0);
 	}
 
 }
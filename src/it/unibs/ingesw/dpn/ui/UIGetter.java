@@ -84,6 +84,8 @@ public interface UIGetter {
 	/**
 	 * Dopo aver presentato le opzioni presenti nel menu, richiede all'utente di selezionarne una.
 	 * Se la selezione è stata effettuata correttamente, restituisce l'azione associata a tale opzione.
+	 * Se il menu ha più pagine, l'utente può spostarsi fra di esse prima di selezionare un'opzione, oppure
+	 * selezionare direttamente un'opzione di un'altra pagina tramite il suo numero.
 	 * 
 	 * Nota: La visualizzazione del menu <b>è compresa</b> nella chiamata di questo metodo.
 	 * 
@@ -20,6 +20,13 @@ public interface UIRenderer {
 	 * Nelle interfacce testuali stampa una riga vuota.
 	 */
 	void renderLineSpace();
+
+	/**
+	 * Rende visibile all'utente tutto ciò che è stato renderizzato finora.
+	 * Le implementazioni possono trattenere l'output e visualizzarlo in blocco: questo metodo
+	 * va invocato prima di attendere un input dell'utente che non sia preceduto da un prompt.
+	 */
+	void flush();
 	
 	/**
 	 * Metodo che visualizza un testo passato come parametro.
@@ -76,7 +83,9 @@ public interface UIRenderer {
 	public void renderError(String errorText);
 
 	/**
-	 * Metodo adibito al rendering dell'intero menu.
+	 * Metodo adibito al rendering del menu.
+	 * Vengono renderizzate solamente le voci della pagina corrente (vedi {@link MenuAction#getPageEntries()}),
+	 * numerate secondo la loro posizione nell'intero menu.
 	 * 
 	 * @param menu Il menu da renderizzare
 	 */
@@ -0,0 +1,83 @@
+package it.unibs.ingesw.dpn.ui.actions;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementazione di {@link UpdatingMenuAction} che memorizza il menu costruito e lo ricostruisce
+ * solamente dopo essere stato invalidato (vedi {@link #invalidate()}).<br>
+ * A differenza di un semplice {@link UpdatingMenuAction}, che ricostruisce il menu ad ogni selezione
+ * dell'utente, questa classe è adatta ai menu costosi da costruire (ad esempio le liste di eventi),
+ * da invalidare in corrispondenza delle modifiche al model che ne cambiano il contenuto.<br>
+ * <br>
+ * L'invalidazione non acquisisce alcun lock, e può quindi essere richiesta da qualsiasi thread (ad esempio
+ * dai listener del bus dei fatti di dominio) anche mentre il menu viene costruito: in tal caso il menu
+ * appena costruito viene considerato già scaduto, e sarà ricostruito alla selezione successiva.
+ *
+ * @author Michele Dusi, Emanuele Poggi, Lorenzo Nodari
+ *
+ */
+public class CachedMenuAction implements UpdatingMenuAction {
+
+	private final UpdatingMenuAction builder;
+
+	/** Versione del contenuto, incrementata ad ogni invalidazione */
+	private final AtomicLong version;
+
+	private MenuAction cachedMenu;
+	private long cachedVersion;
+	private int buildCount;
+
+	/**
+	 * Crea un menu memorizzato, costruito mediante il processo dato.
+	 *
+	 * Precondizione: builder != null
+	 *
+	 * @param builder Il processo di costruzione del menu
+	 */
+	public CachedMenuAction(UpdatingMenuAction builder) {
+		// Verifica della precondizione
+		if (builder == null) {
+			throw new IllegalArgumentException("Impossibile creare un menu memorizzato senza processo di costruzione");
+		}
+
+		this.builder = builder;
+		this.version = new AtomicLong();
+		this.cachedMenu = null;
+		this.cachedVersion = -1;
+		this.buildCount = 0;
+	}
+
+	/**
+	 * Restituisce il menu memorizzato, costruendolo se non è mai stato costruito o se è stato
+	 * invalidato dopo l'ultima costruzione.
+	 *
+	 * @return Il menu aggiornato
+	 */
+	@Override
+	public synchronized MenuAction prepareMenuAction() {
+		long currentVersion = this.version.get();
+		if (this.cachedMenu == null || this.cachedVersion != currentVersion) {
+			this.cachedMenu = this.builder.prepareMenuAction();
+			this.cachedVersion = currentVersion;
+			this.buildCount++;
+		}
+		return this.cachedMenu;
+	}
+
+	/**
+	 * Invalida il menu memorizzato, che verrà ricostruito alla prossima visualizzazione.
+	 */
+	public void invalidate() {
+		this.version.incrementAndGet();
+	}
+
+	/**
+	 * Restituisce il numero di volte in cui il menu è stato costruito.
+	 *
+	 * @return Il numero di costruzioni del menu
+	 */
+	public synchronized int getBuildCount() {
+		return this.buildCount;
+	}
+
+}
@@ -1,10 +1,12 @@
 package it.unibs.ingesw.dpn.ui.actions;
 
 import java.util.List;
+import java.util.function.Function;
 
 import it.unibs.ingesw.dpn.ui.UserInterface;
 
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.Collections;
 
 /**
@@ -23,6 +25,11 @@ import java.util.Collections;
  * </ul>
  * Questa particolare implementazione permette una maggiore flessibilità sulla permanenza o sull'uscita 
  * dal menu. Inoltre, l'opzione di uscita assicura che il menu possa terminare in almeno un modo.
+ * <br>
+ * Le opzioni sono suddivise in pagine di dimensione prefissata (vedi {@link #setPageSize(int)}): l'interfaccia
+ * utente visualizza solamente le opzioni della pagina corrente, numerate secondo la loro posizione nell'intero menu.
+ * Per le liste lunghe, le opzioni possono essere prodotte in maniera pigra (vedi {@link #setLazyEntries(List, Function)}),
+ * solamente quando la pagina che le contiene viene visualizzata.
  * 
  * @author Lorenzo Nodari, Michele Dusi
  * 
@@ -31,10 +38,54 @@ public class MenuAction implements Action {
 	
 	public static final String BACK_ENTRY_TITLE = "Indietro";
 	
+	/** Numero di opzioni per pagina di default */
+	public static final int DEFAULT_PAGE_SIZE = 20;
+	
+	/**
+	 * Lista di opzioni prodotte su richiesta a partire da una lista di oggetti.
+	 * Ciascuna opzione viene prodotta al primo accesso e poi mantenuta, in modo che
+	 * accessi successivi restituiscano la stessa istanza.
+	 *
+	 * @param <T> Il tipo degli oggetti da cui produrre le opzioni
+	 */
+	private static class LazyEntryList<T> extends AbstractList<MenuEntry> {
+		
+		private final List<T> items;
+		private final Function<? super T, MenuEntry> toEntry;
+		private final MenuEntry [] produced;
+		
+		LazyEntryList(List<T> items, Function<? super T, MenuEntry> toEntry) {
+			this.items = items;
+			this.toEntry = toEntry;
+			this.produced = new MenuEntry[items.size()];
+		}
+		
+		@Override
+		public MenuEntry get(int index) {
+			if (this.produced[index] == null) {
+				MenuEntry entry = this.toEntry.apply(this.items.get(index));
+				if (entry == null) {
+					throw new IllegalStateException("Impossibile produrre una entry nulla");
+				}
+				this.produced[index] = entry;
+			}
+			return this.produced[index];
+		}
+		
+		@Override
+		public int size() {
+			return this.produced.length;
+		}
+		
+	}
+	
 	private String title;
 	private String text;
-	private LinkedList<MenuEntry> entries;
+	private List<MenuEntry> entries;
+	private boolean lazyEntries;
 	private MenuEntry backEntry;
+	private int pageSize;
+	private int currentPage;
 	
 	/**
 	 * Crea un nuovo menu. Il titolo non puo' essere vuoto.
@@ -55,9 +106,12 @@ public class MenuAction implements Action {
 		
 		this.title = title;
 		this.text = text != null ? text : "";
-		this.entries = new LinkedList<MenuEntry>();
+		this.entries = new ArrayList<MenuEntry>();
+		this.lazyEntries = false;
 		// Imposto l'opzione di uscita come azione vuota, ma terminante
 		this.backEntry = new MenuEntry(BACK_ENTRY_TITLE, SimpleAction.EMPTY_ACTION, true);
+		this.pageSize = DEFAULT_PAGE_SIZE;
+		this.currentPage = 0;
 	}
 	
 	public String getTitle() {
@@ -74,12 +128,176 @@ public class MenuAction implements Action {
 	 * non sia possibile per classi esterne modificare i menu.<br>
 	 * <br>
 	 * <em>Nota:</em> L'entry di uscita NON è compresa in questa lista.<br>
+	 * <em>Nota:</em> Se le opzioni sono prodotte in maniera pigra, scorrere l'intera lista le produce tutte:
+	 * per la visualizzazione è preferibile {@link #getPageEntries()}.<br>
 	 * 
 	 * @return Una view non modificabile della lista delle voci del menu
 	 */
 	public List<MenuEntry> getEntries() {
 		return Collections.unmodifiableList(this.entries);
 	}
+	
+	/**
+	 * Restituisce il numero di voci del menu, esclusa l'entry di uscita.
+	 * 
+	 * @return Il numero di voci del menu
+	 */
+	public int getEntryCount() {
+		return this.entries.size();
+	}
+	
+	/**
+	 * Restituisce la voce del menu nella posizione data.
+	 * 
+	 * Precondizione: 0 <= index < getEntryCount()
+	 * 
+	 * @param index La posizione della voce, a partire da 0
+	 * @return La voce del menu
+	 */
+	public MenuEntry getEntry(int index) {
+		// Verifica della precondizione
+		if (index < 0 || index >= this.entries.size()) {
+			throw new IllegalArgumentException(String.format("Il menu non contiene la voce %d", index));
+		}
+		return this.entries.get(index);
+	}
+	
+	/**
+	 * Imposta le voci del menu in modo che vengano prodotte solamente quando servono, ad esempio
+	 * quando la pagina che le contiene viene visualizzata.<br>
+	 * La lista di oggetti viene mantenuta così com'è: non deve essere modificata successivamente.
+	 * 
+	 * Precondizione: items != null, toEntry != null
+	 * Precondizione: il menu non deve contenere altre voci
+	 * 
+	 * Postcondizione: getEntryCount() == items.size()
+	 * 
+	 * @param items Gli oggetti da cui produrre le voci, nell'ordine di visualizzazione
+	 * @param toEntry La funzione che produce la voce di un oggetto
+	 */
+	public <T> void setLazyEntries(List<T> items, Function<? super T, MenuEntry> toEntry) {
+		// Verifica delle precondizioni
+		if (items == null || toEntry == null) {
+			throw new IllegalArgumentException("Impossibile impostare le voci del menu con parametri nulli");
+		} else if (!this.entries.isEmpty()) {
+			throw new IllegalStateException("Impossibile impostare voci prodotte su richiesta in un menu che contiene già delle voci");
+		}
+		
+		this.entries = new LazyEntryList<T>(items, toEntry);
+		this.lazyEntries = true;
+		this.currentPage = 0;
+		
+		// Verifica della postcondizione
+		assert this.getEntryCount() == items.size();
+	}
+	
+	/**
+	 * Restituisce il numero massimo di voci per pagina.
+	 * 
+	 * @return La dimensione delle pagine
+	 */
+	public int getPageSize() {
+		return this.pageSize;
+	}
+	
+	/**
+	 * Imposta il numero massimo di voci per pagina, tornando alla prima pagina.
+	 * 
+	 * Precondizione: pageSize >= 1
+	 * 
+	 * @param pageSize La dimensione delle pagine
+	 */
+	public void setPageSize(int pageSize) {
+		// Verifica della precondizione
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("Impossibile impostare una dimensione di pagina non positiva");
+		}
+		this.pageSize = pageSize;
+		this.currentPage = 0;
+	}
+	
+	/**
+	 * Restituisce il numero di pagine del menu; un menu senza voci ha comunque una pagina.
+	 * 
+	 * @return Il numero di pagine
+	 */
+	public int getPageCount() {
+		return Math.max(1, (this.entries.size() + this.pageSize - 1) / this.pageSize);
+	}
+	
+	/**
+	 * Restituisce l'indice della pagina corrente, a partire da 0.
+	 * 
+	 * @return La pagina corrente
+	 */
+	public int getCurrentPage() {
+		// Le voci potrebbero essere diminuite dall'ultima visualizzazione
+		return Math.min(this.currentPage, this.getPageCount() - 1);
+	}
+	
+	/**
+	 * Passa alla pagina successiva, se esiste.
+	 * 
+	 * @return "True" se la pagina è cambiata, "false" se la pagina corrente era l'ultima
+	 */
+	public boolean nextPage() {
+		int page = this.getCurrentPage();
+		if (page + 1 >= this.getPageCount()) {
+			return false;
+		}
+		this.currentPage = page + 1;
+		return true;
+	}
+	
+	/**
+	 * Passa alla pagina precedente, se esiste.
+	 * 
+	 * @return "True" se la pagina è cambiata, "false" se la pagina corrente era la prima
+	 */
+	public boolean previousPage() {
+		int page = this.getCurrentPage();
+		if (page == 0) {
+			return false;
+		}
+		this.currentPage = page - 1;
+		return true;
+	}
+	
+	/**
+	 * Passa alla pagina che contiene la voce data, in modo che sia visibile alla prossima visualizzazione.
+	 * 
+	 * Precondizione: 0 <= index < getEntryCount()
+	 * 
+	 * @param index La posizione della voce, a partire da 0
+	 */
+	public void showEntry(int index) {
+		// Verifica della precondizione
+		if (index < 0 || index >= this.entries.size()) {
+			throw new IllegalArgumentException(String.format("Il menu non contiene la voce %d", index));
+		}
+		this.currentPage = index / this.pageSize;
+	}
+	
+	/**
+	 * Restituisce la posizione, nell'intero menu, della prima voce della pagina corrente.
+	 * 
+	 * @return La posizione della prima voce visibile, a partire da 0
+	 */
+	public int getPageStart() {
+		return this.getCurrentPage() * this.pageSize;
+	}
+	
+	/**
+	 * Restituisce le voci della pagina corrente. Se le voci sono prodotte su richiesta,
+	 * vengono prodotte solamente quelle della pagina.
+	 * 
+	 * @return Una view non modificabile delle voci visibili
+	 */
+	public List<MenuEntry> getPageEntries() {
+		int start = this.getPageStart();
+		int end = Math.min(start + this.pageSize, this.entries.size());
+		return Collections.unmodifiableList(this.entries.subList(start, end));
+	}
 
 	public MenuEntry getBackEntry() {
 		return this.backEntry;
@@ -125,6 +343,8 @@ public class MenuAction implements Action {
 			throw new IllegalArgumentException("Impossibile aggiungere una entry con componenti nulle");
 		}
 		
+		this.checkNotLazy();
+		
 		MenuEntry entry = new MenuEntry(entryText, entryAction, isTerminatingEntry);
 		this.entries.add(entry);
 		
@@ -170,6 +390,8 @@ public class MenuAction implements Action {
 			throw new IllegalArgumentException("Impossibile aggiungere una entry nulla");
 		}
 		
+		this.checkNotLazy();
+		
 		// Aggiungo la entry
 		this.entries.add(entry);
 		
@@ -196,6 +418,8 @@ public class MenuAction implements Action {
 			throw new IllegalArgumentException("Impossibile aggiungere una entry nulla al menu");
 		}
 		
+		this.checkNotLazy();
+		
 		for (MenuEntry entry : menuEntries) {
 			this.entries.add(entry);
 			
@@ -205,6 +429,15 @@ public class MenuAction implements Action {
 		
 	}
 	
+	/**
+	 * Verifica che le voci del menu non siano prodotte su richiesta, e possano quindi essere aggiunte una ad una.
+	 */
+	private void checkNotLazy() {
+		if (this.lazyEntries) {
+			throw new IllegalStateException("Impossibile aggiungere voci ad un menu con voci prodotte su richiesta");
+		}
+	}
+	
 	/**
 	 * Esegue l'azione associata a questo {@link MenuAction}.
 	 * Questo comprende:
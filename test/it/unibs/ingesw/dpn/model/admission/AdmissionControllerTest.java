@@ -0,0 +1,243 @@
+package it.unibs.ingesw.dpn.model.admission;
+
+import static it.unibs.ingesw.dpn.model.events.EventFixture.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.events.EventBoard;
+import it.unibs.ingesw.dpn.model.events.EventFixture;
+import it.unibs.ingesw.dpn.model.fields.FieldCompatibilityException;
+import it.unibs.ingesw.dpn.model.persistence.Model;
+import it.unibs.ingesw.dpn.model.time.VirtualClock;
+import it.unibs.ingesw.dpn.model.users.User;
+import it.unibs.ingesw.dpn.model.users.UsersRepository;
+import it.unibs.ingesw.dpn.model.workload.LoadTestHarness;
+import it.unibs.ingesw.dpn.model.workload.LoadTestReport;
+import it.unibs.ingesw.dpn.model.workload.OperationType;
+import it.unibs.ingesw.dpn.model.workload.Workload;
+import it.unibs.ingesw.dpn.model.workload.WorkloadGenerator;
+
+public class AdmissionControllerTest {
+	
+	private VirtualClock clock;
+	private EventBoard board;
+	private User creator;
+	
+	@Before
+	public void useVirtualClock() throws FieldCompatibilityException {
+		this.clock = EventFixture.useVirtualClock();
+		this.board = new EventBoard();
+		this.creator = user("creatore");
+	}
+	
+	@After
+	public void restoreSystemClock() {
+		EventFixture.restoreSystemClock();
+	}
+	
+	/**
+	 * Pubblica una conferenza con il numero di partecipanti dato e termine d'iscrizione a 10 ore.
+	 */
+	private Event event(int participants) throws FieldCompatibilityException {
+		return publish(this.board, conference(this.creator, "Conferenza", participants));
+	}
+	
+	@Test
+	public void fullEvent_isRejectedWithoutLock() throws Exception {
+		Event event = this.event(2);
+		AdmissionController admission = new AdmissionController();
+		User anna = user("anna");
+		User bruno = user("bruno");
+		
+		// Il creatore occupa il primo posto
+		assertEquals(AdmissionResult.ADMITTED, admission.subscribe(event, anna));
+		assertFalse(event.acceptsSubscriptions());
+		
+		CountDownLatch locked = new CountDownLatch(1);
+		Thread holder = new Thread(() -> {
+			synchronized (event) {
+				locked.countDown();
+				try {
+					Thread.sleep(Long.MAX_VALUE);
+				}
+				catch (InterruptedException ex) {
+					// Fine del test
+				}
+			}
+		});
+		holder.start();
+		try {
+			assertTrue(locked.await(10, TimeUnit.SECONDS));
+			// La richiesta viene respinta anche mentre un altro thread tiene il lock dell'evento
+			assertEquals(AdmissionResult.NO_CAPACITY, admission.subscribe(event, bruno));
+		}
+		finally {
+			holder.interrupt();
+			holder.join();
+		}
+		
+		assertEquals(1, admission.getCount(AdmissionResult.NO_CAPACITY));
+		assertEquals(1, admission.getShedCount());
+		assertFalse(event.getSubscribers().contains(bruno));
+	}
+	
+	@Test
+	public void repeatedAttempts_areThrottledPerUser() throws Exception {
+		Event event = this.event(10);
+		AdmissionController admission = new AdmissionController(100, 100, 1, 2);
+		User anna = user("anna");
+		
+		assertEquals(AdmissionResult.ADMITTED, admission.subscribe(event, anna));
+		// L'utente è già iscritto: l'evento respinge la richiesta senza eccezioni
+		assertEquals(AdmissionResult.REJECTED, admission.subscribe(event, anna));
+		assertEquals(AdmissionResult.USER_THROTTLED, admission.subscribe(event, anna));
+		
+		// Gli altri utenti non sono limitati
+		assertEquals(AdmissionResult.ADMITTED, admission.subscribe(event, user("bruno")));
+		
+		this.clock.advanceBy(1000);
+		assertEquals(AdmissionResult.REJECTED, admission.subscribe(event, anna));
+		
+		assertEquals(5, admission.getRequestCount());
+		assertEquals(1, admission.getShedCount());
+		assertEquals(2, admission.getCount(AdmissionResult.REJECTED));
+	}
+	
+	@Test
+	public void eventRate_limitsRequestsReachingTheEvent() throws Exception {
+		Event event = this.event(100);
+		AdmissionController admission = new AdmissionController(1, 3, 10, 10);
+		
+		int admitted = 0;
+		for (int i = 0; i < 10; i++) {
+			if (admission.subscribe(event, user("utente" + i)) == AdmissionResult.ADMITTED) {
+				admitted++;
+			}
+		}
+		
+		assertEquals(3, admitted);
+		assertEquals(7, admission.getCount(AdmissionResult.EVENT_THROTTLED));
+		assertEquals(4, event.getSubscribers().size());
+		assertTrue(admission.toString().contains("scartate: 7"));
+	}
+	
+	@Test
+	public void eventThrottling_refundsTheUserToken() throws Exception {
+		Event first = this.event(10);
+		Event second = this.event(10);
+		AdmissionController admission = new AdmissionController(1, 1, 1, 1);
+		User bruno = user("bruno");
+		
+		assertEquals(AdmissionResult.ADMITTED, admission.subscribe(first, user("anna")));
+		assertEquals(AdmissionResult.EVENT_THROTTLED, admission.subscribe(first, bruno));
+		// La richiesta scartata dall'evento non consuma il gettone dell'utente
+		assertEquals(AdmissionResult.ADMITTED, admission.subscribe(second, bruno));
+		assertEquals(AdmissionResult.USER_THROTTLED, admission.subscribe(second, bruno));
+	}
+	
+	@Test
+	public void rejection_refundsTheEventToken() throws Exception {
+		Event event = this.event(10);
+		AdmissionController admission = new AdmissionController(1, 2, 10, 10);
+		User anna = user("anna");
+		
+		assertEquals(AdmissionResult.ADMITTED, admission.subscribe(event, anna));
+		assertEquals(AdmissionResult.REJECTED, admission.subscribe(event, anna));
+		// La richiesta respinta dall'evento non consuma il gettone dell'evento
+		assertEquals(AdmissionResult.ADMITTED, admission.subscribe(event, user("bruno")));
+		assertEquals(AdmissionResult.EVENT_THROTTLED, admission.subscribe(event, user("carla")));
+	}
+	
+	@Test
+	public void idleBuckets_areEvictedIncrementally() throws Exception {
+		final int users = 1000;
+		Event event = this.event(2 * users + 1);
+		AdmissionController admission = new AdmissionController(1_000_000, 1_000_000, 1, 3);
+		
+		for (int i = 0; i < users; i++) {
+			assertEquals(AdmissionResult.ADMITTED, admission.subscribe(event, user("primo" + i)));
+		}
+		assertEquals(users + 1, admission.getTrackedBuckets());
+		
+		// I secchi dei primi utenti tornano pieni, e vengono eliminati mentre arrivano i nuovi utenti
+		this.clock.advanceBy(10_000);
+		for (int i = 0; i < users; i++) {
+			assertEquals(AdmissionResult.ADMITTED, admission.subscribe(event, user("secondo" + i)));
+		}
+		assertEquals(users + 1, admission.getTrackedBuckets());
+	}
+	
+	@Test
+	public void closedEvent_isRejected() throws Exception {
+		Event event = this.event(10);
+		AdmissionController admission = new AdmissionController();
+		
+		this.clock.advanceBy(11 * HOUR);
+		
+		assertEquals(AdmissionResult.NO_CAPACITY, admission.subscribe(event, user("anna")));
+		assertThrows(IllegalArgumentException.class, () -> admission.subscribe(event, null));
+		assertThrows(IllegalArgumentException.class, () -> new AdmissionController(1, 0, 1, 1));
+	}
+	
+	@Test
+	public void concurrentBurst_neverOverbooks() throws Exception {
+		Event event = this.event(20);
+		AdmissionController admission = new AdmissionController(1000, 1000, 1, 3);
+		List<User> users = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			users.add(user("utente" + i));
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> results = new ArrayList<>();
+		try {
+			for (User user : users) {
+				results.add(executor.submit(() -> {
+					for (int j = 0; j < 5; j++) {
+						admission.subscribe(event, user);
+					}
+				}));
+			}
+			for (Future<?> result : results) {
+				result.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		
+		assertEquals(20, event.getSubscribers().size());
+		assertEquals(19, admission.getCount(AdmissionResult.ADMITTED));
+		assertEquals(1000, admission.getRequestCount());
+		assertEquals(1000 - 19 - admission.getCount(AdmissionResult.REJECTED), admission.getShedCount());
+		assertTrue(admission.getCount(AdmissionResult.NO_CAPACITY) > 0);
+	}
+	
+	@Test
+	public void flashCrowd_throughHarness() {
+		Workload workload = new WorkloadGenerator(3).generateFlashCrowd(300, 10, 4);
+		AdmissionController admission = new AdmissionController();
+		
+		LoadTestReport report = new LoadTestHarness(4, admission).run(new Model(new EventBoard(), new UsersRepository()), workload);
+		
+		assertEquals(0, report.getFailed(null));
+		// Il creatore occupa il primo posto
+		assertEquals(9, report.getAccepted(OperationType.ISCRIZIONE));
+		assertEquals(1200 - 9, report.getRejected(OperationType.ISCRIZIONE));
+		assertEquals(1200, admission.getRequestCount());
+		assertTrue(admission.getShedCount() > admission.getCount(AdmissionResult.REJECTED));
+	}
+	
+}
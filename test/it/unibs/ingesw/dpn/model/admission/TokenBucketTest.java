@@ -0,0 +1,139 @@
+package it.unibs.ingesw.dpn.model.admission;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.events.EventFixture;
+import it.unibs.ingesw.dpn.model.time.VirtualClock;
+
+public class TokenBucketTest {
+	
+	private VirtualClock clock;
+	
+	@Before
+	public void useVirtualClock() {
+		this.clock = EventFixture.useVirtualClock();
+	}
+	
+	@After
+	public void restoreSystemClock() {
+		EventFixture.restoreSystemClock();
+	}
+	
+	@Test
+	public void burst_isLimitedByCapacity() {
+		TokenBucket bucket = new TokenBucket(2, 3);
+		
+		assertTrue(bucket.isFull());
+		assertEquals(3, bucket.getAvailableTokens());
+		assertTrue(bucket.tryAcquire());
+		assertTrue(bucket.tryAcquire());
+		assertTrue(bucket.tryAcquire());
+		assertFalse(bucket.tryAcquire());
+		assertEquals(0, bucket.getAvailableTokens());
+		assertFalse(bucket.isFull());
+	}
+	
+	@Test
+	public void releasedToken_canBeAcquiredAgain() {
+		TokenBucket bucket = new TokenBucket(1, 2);
+		assertTrue(bucket.tryAcquire());
+		assertTrue(bucket.tryAcquire());
+		assertFalse(bucket.tryAcquire());
+		
+		bucket.release();
+		assertEquals(1, bucket.getAvailableTokens());
+		assertTrue(bucket.tryAcquire());
+		assertFalse(bucket.tryAcquire());
+		
+		bucket.release();
+		bucket.release();
+		assertTrue(bucket.isFull());
+	}
+	
+	@Test
+	public void tokens_areRefilledAtTheGivenRate() {
+		TokenBucket bucket = new TokenBucket(2, 3);
+		for (int i = 0; i < 3; i++) {
+			assertTrue(bucket.tryAcquire());
+		}
+		
+		// Un gettone ogni 500 ms
+		this.clock.advanceBy(499);
+		assertFalse(bucket.tryAcquire());
+		this.clock.advanceBy(1);
+		assertTrue(bucket.tryAcquire());
+		assertFalse(bucket.tryAcquire());
+		
+		// Il secchio non supera la sua capacità
+		this.clock.advanceBy(TimeUnit.MINUTES.toMillis(1));
+		assertTrue(bucket.isFull());
+		assertEquals(3, bucket.getAvailableTokens());
+		for (int i = 0; i < 3; i++) {
+			assertTrue(bucket.tryAcquire());
+		}
+		assertFalse(bucket.tryAcquire());
+	}
+	
+	@Test
+	public void concurrentAcquisitions_neverExceedCapacity() throws Exception {
+		TokenBucket bucket = new TokenBucket(1, 100);
+		AtomicInteger acquired = new AtomicInteger();
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (int i = 0; i < 4; i++) {
+				executor.submit(() -> {
+					for (int j = 0; j < 1000; j++) {
+						if (bucket.tryAcquire()) {
+							acquired.incrementAndGet();
+						}
+					}
+				});
+			}
+		}
+		finally {
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		}
+		
+		// L'orologio simulato è fermo: nessun gettone viene ricaricato
+		assertEquals(100, acquired.get());
+	}
+	
+	@Test
+	public void onlyFullBuckets_areRetired() {
+		TokenBucket bucket = new TokenBucket(1, 2);
+		
+		assertTrue(bucket.tryAcquire());
+		assertFalse(bucket.retireIfFull());
+		assertFalse(bucket.isRetired());
+		
+		this.clock.advanceBy(1000);
+		assertTrue(bucket.retireIfFull());
+		assertFalse(bucket.retireIfFull());
+		assertTrue(bucket.isRetired());
+		
+		// Un secchio ritirato non concede gettoni, neanche dopo una restituzione
+		bucket.release();
+		assertFalse(bucket.tryAcquire());
+		assertFalse(bucket.isFull());
+		assertEquals(0, bucket.getAvailableTokens());
+	}
+	
+	@Test
+	public void invalidParameters() {
+		assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+		assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+		assertThrows(IllegalArgumentException.class, () -> new TokenBucket(Double.NaN, 1));
+	}
+	
+}
@@ -0,0 +1,141 @@
+package it.unibs.ingesw.dpn.model.analytics;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.analytics.EventAnalytics.Dimension;
+import it.unibs.ingesw.dpn.model.analytics.EventAnalytics.Measure;
+import it.unibs.ingesw.dpn.model.bus.EventPublished;
+import it.unibs.ingesw.dpn.model.bus.StateChanged;
+import it.unibs.ingesw.dpn.model.categories.Category;
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.events.EventState;
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fieldvalues.DateFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.MoneyAmountFieldValue;
+import it.unibs.ingesw.dpn.model.users.User;
+
+public class EventAnalyticsTest {
+	
+	private static final long JANUARY_2050_MILLIS = 2524678200000L; // 01/01/2050 @ 7:30
+	
+	private static Event mockEvent(Category category, String state, User creator, long revenue, User ... subscribers) {
+		Event event = mock(Event.class);
+		when(event.getCategory()).thenReturn(category);
+		when(event.getState()).thenReturn(state);
+		when(event.getCreator()).thenReturn(creator);
+		when(event.getFieldValue(CommonField.DATA_E_ORA)).thenReturn(new DateFieldValue(JANUARY_2050_MILLIS));
+		when(event.getFieldValue(CommonField.QUOTA_INDIVIDUALE)).thenReturn(new MoneyAmountFieldValue());
+		when(event.getExpectedRevenue()).thenReturn(revenue);
+		when(event.getSubscribers()).thenReturn(Arrays.asList(subscribers));
+		return event;
+	}
+	
+	@Test
+	public void groupByCategoryTest() {
+		
+		User creator = mock(User.class);
+		User user = mock(User.class);
+		Event match = mockEvent(Category.PARTITA_DI_CALCIO, EventState.OPEN, creator, 500L, creator, user);
+		Event conference1 = mockEvent(Category.CONFERENZA, EventState.OPEN, creator, 1000L, creator);
+		Event conference2 = mockEvent(Category.CONFERENZA, EventState.CLOSED, creator, 2000L, creator, user);
+		
+		EventAnalytics analytics = new EventAnalytics();
+		analytics.track(match);
+		analytics.track(conference1);
+		analytics.track(conference2);
+		
+		Map<Object, Long> revenues = analytics.groupBy(Dimension.CATEGORY, Measure.REVENUE);
+		assertEquals(Long.valueOf(500L), revenues.get(Category.PARTITA_DI_CALCIO));
+		assertEquals(Long.valueOf(3000L), revenues.get(Category.CONFERENZA));
+		
+		assertEquals(5L, analytics.getTotal(Measure.PARTICIPANTS));
+		assertEquals(3L, analytics.get(Dimension.MONTH, YearMonth.of(2050, 1), Measure.EVENTS));
+		assertEquals(2L, analytics.get(Dimension.STATE, EventState.OPEN, Measure.EVENTS));
+		
+	}
+	
+	@Test
+	public void aggregatesAreUpdated_whenEventChanges() {
+		
+		User creator = mock(User.class);
+		User user = mock(User.class);
+		Event event = mockEvent(Category.CONFERENZA, EventState.OPEN, creator, 0L, creator);
+		
+		EventAnalytics analytics = new EventAnalytics();
+		analytics.handle(new EventPublished(event));
+		
+		// Un utente si iscrive e l'evento si chiude
+		when(event.getState()).thenReturn(EventState.CLOSED);
+		when(event.getSubscribers()).thenReturn(Arrays.asList(creator, user));
+		when(event.getExpectedRevenue()).thenReturn(1500L);
+		analytics.handle(new StateChanged(event, EventState.OPEN, EventState.CLOSED));
+		
+		Map<Object, Long> byState = analytics.groupBy(Dimension.STATE, Measure.EVENTS);
+		assertFalse(byState.containsKey(EventState.OPEN));
+		assertEquals(Long.valueOf(1L), byState.get(EventState.CLOSED));
+		assertEquals(2L, analytics.get(Dimension.CREATOR, creator, Measure.PARTICIPANTS));
+		assertEquals(1500L, analytics.getTotal(Measure.REVENUE));
+		
+	}
+	
+	@Test
+	public void aggregatesAreEmpty_whenEventIsUntracked() {
+		
+		User creator = mock(User.class);
+		Event event = mockEvent(Category.CONFERENZA, EventState.OPEN, creator, 700L, creator);
+		
+		EventAnalytics analytics = new EventAnalytics();
+		analytics.track(event);
+		analytics.untrack(event);
+		
+		assertEquals(0, analytics.size());
+		assertEquals(0L, analytics.getTotal(Measure.REVENUE));
+		assertTrue(analytics.groupBy(Dimension.CATEGORY, Measure.EVENTS).isEmpty());
+		
+	}
+	
+	@Test
+	public void withdrawnEventIsNotTracked() {
+		
+		User creator = mock(User.class);
+		Event event = mockEvent(Category.CONFERENZA, EventState.OPEN, creator, 700L, creator);
+		
+		EventAnalytics analytics = new EventAnalytics();
+		analytics.track(event);
+		// La rimozione viene applicata prima che il tracciamento iniziale raggiunga l'evento
+		when(event.getState()).thenReturn(EventState.WITHDRAWN);
+		analytics.untrack(event);
+		analytics.track(event);
+		
+		assertEquals(0, analytics.size());
+		assertEquals(0L, analytics.getTotal(Measure.REVENUE));
+		
+	}
+	
+	@Test
+	public void manyEventsAreTracked() {
+		
+		User creator = mock(User.class);
+		Event event = mockEvent(Category.CONFERENZA, EventState.OPEN, creator, 100L, creator);
+		
+		// Le colonne devono allargarsi oltre la capacita' iniziale
+		EventAnalytics analytics = new EventAnalytics();
+		for (int i = 0; i < 200; i++) {
+			Event copy = mockEvent(Category.CONFERENZA, EventState.OPEN, creator, 100L, creator);
+			analytics.track(copy);
+		}
+		analytics.track(event);
+		
+		assertEquals(201, analytics.size());
+		assertEquals(20100L, analytics.get(Dimension.CREATOR, creator, Measure.REVENUE));
+		
+	}
+
+}
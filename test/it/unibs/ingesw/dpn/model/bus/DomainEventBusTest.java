@@ -0,0 +1,228 @@
+package it.unibs.ingesw.dpn.model.bus;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.users.User;
+
+public class DomainEventBusTest {
+	
+	@Test
+	public void listenerReceivesOnlyEventsOfItsType() {
+		
+		DomainEventBus bus = new DomainEventBus();
+		Event event = mock(Event.class);
+		List<DomainEvent> received = new ArrayList<>();
+		bus.addListener(EventPublished.class, received::add);
+		
+		bus.publish(new EventRemoved(event));
+		bus.publish(new EventPublished(event));
+		
+		assertEquals(1, received.size());
+		assertTrue(received.get(0) instanceof EventPublished);
+		assertSame(event, received.get(0).getSource());
+		assertEquals(2L, bus.getPublishedCount());
+		
+	}
+	
+	@Test
+	public void listenerReceivesSubclassesOfItsType() {
+		
+		DomainEventBus bus = new DomainEventBus();
+		Event event = mock(Event.class);
+		User user = mock(User.class);
+		List<EventModified> received = new ArrayList<>();
+		bus.addListener(EventModified.class, received::add);
+		
+		bus.publish(new StateChanged(event, "Open", "Closed"));
+		bus.publish(new UserSubscribed(event, user));
+		bus.publish(new EventPublished(event));
+		
+		assertEquals(2, received.size());
+		assertEquals("Closed", ((StateChanged) received.get(0)).getNewState());
+		assertSame(user, ((UserSubscribed) received.get(1)).getUser());
+		
+	}
+	
+	@Test
+	public void asyncListenerReceivesEventsInOrder() throws InterruptedException {
+		
+		DomainEventBus bus = new DomainEventBus();
+		Event event = mock(Event.class);
+		List<DomainEvent> received = Collections.synchronizedList(new ArrayList<>());
+		bus.addAsyncListener(DomainEvent.class, received::add);
+		
+		DomainEvent first = new EventPublished(event);
+		DomainEvent second = new EventModified(event);
+		DomainEvent third = new EventRemoved(event);
+		bus.publish(first);
+		bus.publish(second);
+		bus.publish(third);
+		
+		assertTrue(bus.awaitAsyncDelivery(5000));
+		assertEquals(0L, bus.getPendingAsyncCount());
+		synchronized (received) {
+			assertEquals(3, received.size());
+			assertSame(first, received.get(0));
+			assertSame(second, received.get(1));
+			assertSame(third, received.get(2));
+		}
+		
+	}
+	
+	@Test
+	public void removedListenerReceivesNothing() {
+		
+		DomainEventBus bus = new DomainEventBus();
+		List<DomainEvent> received = new ArrayList<>();
+		DomainEventListener<DomainEvent> listener = received::add;
+		bus.addListener(DomainEvent.class, listener);
+		bus.removeListener(listener);
+		
+		bus.publish(new EventPublished(mock(Event.class)));
+		
+		assertTrue(received.isEmpty());
+		
+	}
+	
+	@Test
+	public void failingListenerDoesNotStopOtherListeners() {
+		
+		DomainEventBus bus = new DomainEventBus();
+		List<DomainEvent> received = new ArrayList<>();
+		bus.addListener(DomainEvent.class, e -> { throw new IllegalStateException(); });
+		bus.addListener(DomainEvent.class, received::add);
+		
+		bus.publish(new EventPublished(mock(Event.class)));
+		
+		assertEquals(1, received.size());
+		
+	}
+	
+	@Test
+	public void listenerFailuresAreReportedWithStackTrace() throws InterruptedException {
+		
+		DomainEventBus bus = new DomainEventBus();
+		bus.addListener(DomainEvent.class, e -> { throw new IllegalStateException("Indice non coerente"); });
+		bus.addAsyncListener(DomainEvent.class, e -> { throw new IllegalStateException("Statistiche non coerenti"); });
+		
+		ByteArrayOutputStream errors = new ByteArrayOutputStream();
+		PrintStream standardError = System.err;
+		System.setErr(new PrintStream(errors, true));
+		try {
+			bus.publish(new EventPublished(mock(Event.class)));
+			assertTrue(bus.awaitAsyncDelivery(5000));
+		}
+		finally {
+			System.setErr(standardError);
+		}
+		
+		assertEquals(2L, bus.getListenerFailureCount());
+		String report = errors.toString();
+		assertTrue(report.contains("EventPublished"));
+		assertTrue(report.contains("java.lang.IllegalStateException: Indice non coerente"));
+		assertTrue(report.contains("java.lang.IllegalStateException: Statistiche non coerenti"));
+		// La traccia dello stack comprende il listener che ha sollevato l'eccezione
+		assertTrue(report.contains("DomainEventBusTest"));
+		
+	}
+	
+	@Test
+	public void nullEventIsRejected() {
+		
+		DomainEventBus bus = new DomainEventBus();
+		assertThrows(IllegalArgumentException.class, () -> bus.publish(null));
+		
+	}
+
+	@Test
+	public void close_deliversQueuedEventsAndStopsTheDispatcher() throws InterruptedException {
+		
+		DomainEventBus bus = new DomainEventBus();
+		Event event = mock(Event.class);
+		List<DomainEvent> received = Collections.synchronizedList(new ArrayList<>());
+		List<Thread> dispatchers = Collections.synchronizedList(new ArrayList<>());
+		List<DomainEvent> syncReceived = new ArrayList<>();
+		bus.addListener(DomainEvent.class, syncReceived::add);
+		bus.addAsyncListener(DomainEvent.class, fact -> {
+			dispatchers.add(Thread.currentThread());
+			received.add(fact);
+		});
+		
+		for (int i = 0; i < 100; i++) {
+			bus.publish(new EventModified(event));
+		}
+		bus.close();
+		
+		// I fatti accodati prima della chiusura vengono consegnati, quindi il thread di consegna termina
+		assertTrue(bus.isClosed());
+		assertEquals(100, received.size());
+		assertEquals(0L, bus.getPendingAsyncCount());
+		assertFalse(dispatchers.get(0).isAlive());
+		
+		// Dopo la chiusura i fatti raggiungono solo i listener sincroni
+		bus.publish(new EventRemoved(event));
+		assertEquals(101, syncReceived.size());
+		assertEquals(100, received.size());
+		assertEquals(0L, bus.getPendingAsyncCount());
+		assertThrows(IllegalStateException.class, () -> bus.addAsyncListener(DomainEvent.class, fact -> { }));
+		
+		// Chiudere di nuovo non ha effetto
+		bus.close();
+		
+	}
+	
+	@Test
+	public void publishConcurrentWithClose_leavesNoPendingEvents() throws InterruptedException {
+		
+		Event event = mock(Event.class);
+		for (int round = 0; round < 200; round++) {
+			DomainEventBus bus = new DomainEventBus();
+			AtomicLong received = new AtomicLong();
+			bus.addAsyncListener(DomainEvent.class, fact -> received.incrementAndGet());
+			
+			int publishers = 4;
+			CountDownLatch start = new CountDownLatch(1);
+			List<Thread> threads = new ArrayList<>();
+			for (int i = 0; i < publishers; i++) {
+				Thread thread = new Thread(() -> {
+					try {
+						start.await();
+					}
+					catch (InterruptedException ex) {
+						return;
+					}
+					for (int j = 0; j < 1000; j++) {
+						bus.publish(new EventModified(event));
+					}
+				});
+				thread.start();
+				threads.add(thread);
+			}
+			
+			start.countDown();
+			bus.close();
+			for (Thread thread : threads) {
+				thread.join();
+			}
+			
+			// Ogni fatto accodato è stato consegnato oppure ritirato: nessuno resta in attesa
+			assertEquals(0L, bus.getPendingAsyncCount());
+			assertTrue(bus.awaitAsyncDelivery(0));
+			assertTrue(received.get() <= publishers * 1000L);
+		}
+		
+	}
+	
+}
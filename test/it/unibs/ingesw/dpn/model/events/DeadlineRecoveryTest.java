@@ -0,0 +1,225 @@
+package it.unibs.ingesw.dpn.model.events;
+
+import static it.unibs.ingesw.dpn.model.events.EventFixture.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.bus.StateChanged;
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fields.FieldCompatibilityException;
+import it.unibs.ingesw.dpn.model.fields.builder.EventBuilder;
+import it.unibs.ingesw.dpn.model.fieldvalues.IntegerFieldValue;
+import it.unibs.ingesw.dpn.model.time.Clock;
+import it.unibs.ingesw.dpn.model.time.Clocks;
+import it.unibs.ingesw.dpn.model.time.TimestampFormat;
+import it.unibs.ingesw.dpn.model.time.VirtualClock;
+import it.unibs.ingesw.dpn.model.users.Notification;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Verifica il recupero delle scadenze trascorse fra il salvataggio e il caricamento della bacheca.
+ */
+public class DeadlineRecoveryTest {
+	
+	private EventBoard board;
+	private User creator;
+	private User guest;
+	
+	@Before
+	public void buildBoard() throws FieldCompatibilityException {
+		EventFixture.useVirtualClock();
+		this.board = new EventBoard();
+		this.creator = user("creatore");
+		this.guest = user("ospite");
+	}
+	
+	@After
+	public void restoreSystemClock() {
+		EventFixture.restoreSystemClock();
+	}
+	
+	/**
+	 * Pubblica un evento con termine di ritiro a 5 ore, termine d'iscrizione a 10 ore, inizio a 20 ore e conclusione a 30 ore.
+	 */
+	private Event publish(String title, int participants) throws FieldCompatibilityException {
+		EventBuilder builder = soccerMatch(this.creator, title, participants);
+		setTime(builder, CommonField.DATA_E_ORA_CONCLUSIVE, 30);
+		setTime(builder, CommonField.TERMINE_ULTIMO_DI_RITIRO_ISCRIZIONE, 5);
+		builder.setFieldValue(CommonField.TOLLERANZA_NUMERO_DI_PARTECIPANTI, new IntegerFieldValue(1));
+		return EventFixture.publish(this.board, builder);
+	}
+	
+	/**
+	 * Simula un salvataggio e un riavvio dopo il numero di ore dato: la bacheca viene serializzata,
+	 * viene installato un nuovo orologio e la bacheca viene ricaricata, senza ripristinarne gli stati.
+	 */
+	private static EventBoard restart(EventBoard saved, VirtualClock clock) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(saved);
+		}
+		Clocks.setCurrent(clock);
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (EventBoard) in.readObject();
+		}
+	}
+	
+	private static Event find(EventBoard board, String title) {
+		for (Event e : board.getEvents()) {
+			if (e.getTitle().equals(title)) {
+				return e;
+			}
+		}
+		throw new AssertionError("Evento non trovato: " + title);
+	}
+	
+	@Test
+	public void missedDeadlines_areAppliedInChronologicalOrder() throws Exception {
+		
+		Event ended = this.publish("Conclusa", 2);
+		ended.subscribe(this.guest);
+		Event failed = this.publish("Fallita", 3);
+		
+		VirtualClock clock = new VirtualClock(START + 40 * HOUR);
+		EventBoard loaded = restart(this.board, clock);
+		
+		// Conclusa: ritiro, iscrizione, inizio e conclusione; Fallita: ritiro e iscrizione
+		assertEquals(6, loaded.resetEventStates());
+		assertEquals(EventState.ENDED, find(loaded, "Conclusa").getState());
+		assertEquals(EventState.FAILED, find(loaded, "Fallita").getState());
+		
+		// Nessuna scadenza residua sull'orologio attivo
+		assertEquals(0, clock.getPendingTasks());
+		assertEquals(START + 40 * HOUR, clock.currentTimeMillis());
+	}
+	
+	@Test
+	public void notifications_areCoalescedPerUser() throws Exception {
+		
+		Event ended = this.publish("Conclusa", 2);
+		ended.subscribe(this.guest);
+		Event failed = this.publish("Fallita", 3);
+		
+		EventBoard loaded = restart(this.board, new VirtualClock(START + 40 * HOUR));
+		Event loadedEvent = find(loaded, "Conclusa");
+		User loadedCreator = loadedEvent.getCreator();
+		User loadedGuest = loadedEvent.getSubscribers().get(1);
+		int creatorBefore = loadedCreator.getNotifications().size();
+		int guestBefore = loadedGuest.getNotifications().size();
+		
+		loaded.resetEventStates();
+		
+		List<Notification> creatorNotifications = loadedCreator.getNotifications();
+		assertEquals(creatorBefore + 1, creatorNotifications.size());
+		String digest = creatorNotifications.get(creatorNotifications.size() - 1).getMessage();
+		assertTrue(digest.startsWith(DeadlineRecovery.DIGEST_HEADER));
+		// Il fallimento (10 ore) precede la conclusione (30 ore)
+		int failure = digest.indexOf("Fallita");
+		int conclusion = digest.indexOf("L'evento Conclusa e' concluso");
+		assertTrue(failure >= 0 && conclusion > failure);
+		
+		assertEquals(guestBefore + 1, loadedGuest.getNotifications().size());
+	}
+	
+	@Test
+	public void futureDeadlines_areRescheduledOnTheActiveClock() throws Exception {
+		
+		Event event = this.publish("Partita", 2);
+		event.subscribe(this.guest);
+		
+		VirtualClock clock = new VirtualClock(START + 12 * HOUR);
+		EventBoard loaded = restart(this.board, clock);
+		
+		assertEquals(2, loaded.resetEventStates());
+		Event loadedEvent = find(loaded, "Partita");
+		assertEquals(EventState.CLOSED, loadedEvent.getState());
+		
+		clock.advanceTo(START + 20 * HOUR);
+		assertEquals(EventState.ONGOING, loadedEvent.getState());
+		clock.advanceTo(START + 30 * HOUR);
+		assertEquals(EventState.ENDED, loadedEvent.getState());
+	}
+	
+	@Test
+	public void missedUnsubscriptionDeadline_isAppliedToOpenEvents() throws Exception {
+		
+		Event event = this.publish("Partita", 2);
+		event.subscribe(this.guest);
+		
+		VirtualClock clock = new VirtualClock(START + 7 * HOUR);
+		EventBoard loaded = restart(this.board, clock);
+		
+		assertEquals(1, loaded.resetEventStates());
+		Event loadedEvent = find(loaded, "Partita");
+		assertEquals(EventState.OPEN, loadedEvent.getState());
+		assertFalse(loadedEvent.canUnsubscribe(loadedEvent.getCreator()));
+		
+		// Il termine d'iscrizione resta pianificato
+		clock.advanceTo(START + 10 * HOUR);
+		assertEquals(EventState.CLOSED, loadedEvent.getState());
+	}
+	
+	@Test
+	public void waitlistDismissals_areCoalescedWithTheOtherNotifications() throws Exception {
+		
+		User waiting = user("attesa");
+		for (String title : new String[] {"Prima", "Seconda"}) {
+			Event event = this.publish(title, 2);
+			event.subscribe(this.guest);
+			event.subscribe(user("terzo"));
+			event.joinWaitlist(waiting);
+		}
+		
+		EventBoard loaded = restart(this.board, new VirtualClock(START + 7 * HOUR));
+		User loadedWaiting = find(loaded, "Prima").getWaitlist().get(0);
+		int before = loadedWaiting.getNotifications().size();
+		
+		loaded.resetEventStates();
+		
+		// Le due liste d'attesa vengono svuotate allo scadere del termine di ritiro, con un solo messaggio
+		assertEquals(0, find(loaded, "Prima").getWaitlistSize());
+		assertEquals(0, find(loaded, "Seconda").getWaitlistSize());
+		List<Notification> notifications = loadedWaiting.getNotifications();
+		assertEquals(before + 1, notifications.size());
+		String digest = notifications.get(notifications.size() - 1).getMessage();
+		assertTrue(digest.startsWith(DeadlineRecovery.DIGEST_HEADER));
+		assertTrue(digest.contains("Prima") && digest.contains("Seconda"));
+	}
+	
+	@Test
+	public void recovery_leavesTheActiveClockUnchanged() throws Exception {
+		
+		Event event = this.publish("Partita", 2);
+		event.subscribe(this.guest);
+		
+		VirtualClock clock = new VirtualClock(START + 40 * HOUR);
+		EventBoard loaded = restart(this.board, clock);
+		List<Clock> observed = new ArrayList<>();
+		loaded.getEventBus().addListener(StateChanged.class, fact -> observed.add(Clocks.current()));
+		
+		assertEquals(4, loaded.resetEventStates());
+		
+		// Ogni cambio di stato recuperato vede lo stesso orologio attivo, che non viene mai sostituito
+		// Chiusura, inizio e conclusione
+		assertEquals(3, observed.size());
+		for (Clock active : observed) {
+			assertSame(clock, active);
+		}
+		assertSame(clock, Clocks.current());
+		// Lo storico riporta l'istante della scadenza, non quello del recupero
+		assertTrue(find(loaded, "Partita").toString().contains(
+				TimestampFormat.HISTORY_DATE_TIME.format(START + 30 * HOUR)));
+	}
+	
+}
@@ -0,0 +1,110 @@
+package it.unibs.ingesw.dpn.model.events;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fieldvalues.DateFieldValue;
+
+public class EventDateIndexTest {
+	
+	private static final long BASE_MILLIS = 2524678200000L; // 01/01/2050 @ 7:30
+	private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+	
+	private static Event mockEventOnDay(int day) {
+		Event event = mock(Event.class);
+		when(event.canBePublished()).thenReturn(true);
+		when(event.getState()).thenReturn(EventState.OPEN);
+		when(event.getFieldValue(CommonField.DATA_E_ORA)).thenReturn(new DateFieldValue(BASE_MILLIS + day * DAY_MILLIS));
+		when(event.getFieldValue(CommonField.TERMINE_ULTIMO_DI_ISCRIZIONE)).thenReturn(new DateFieldValue(BASE_MILLIS + (day - 1) * DAY_MILLIS));
+		return event;
+	}
+	
+	@Test
+	public void windowScanIsChronological() {
+		
+		Event day5 = mockEventOnDay(5);
+		Event day1 = mockEventOnDay(1);
+		Event day9 = mockEventOnDay(9);
+		Event day3 = mockEventOnDay(3);
+		
+		EventDateIndex index = new EventDateIndex(CommonField.DATA_E_ORA);
+		for (Event e : Arrays.asList(day5, day1, day9, day3)) {
+			index.add(e);
+		}
+		
+		List<Event> nextWeek = index.getEventsBetween(new Date(BASE_MILLIS), new Date(BASE_MILLIS + 7 * DAY_MILLIS));
+		assertEquals(Arrays.asList(day1, day3, day5), nextWeek);
+		
+		List<Event> page = index.getEventsFrom(new Date(BASE_MILLIS + 2 * DAY_MILLIS), 2);
+		assertEquals(Arrays.asList(day3, day5), page);
+		
+	}
+	
+	@Test
+	public void eventsWithSameDateAreKept() {
+		
+		Event first = mockEventOnDay(2);
+		Event second = mockEventOnDay(2);
+		
+		EventDateIndex index = new EventDateIndex(CommonField.DATA_E_ORA);
+		index.add(first);
+		index.add(second);
+		index.remove(first);
+		
+		assertEquals(1, index.size());
+		assertEquals(Arrays.asList(second), index.getEventsFrom(new Date(BASE_MILLIS), 10));
+		
+	}
+	
+	@Test
+	public void eventsWithoutValueAreNotIndexed() {
+		
+		Event event = mock(Event.class);
+		
+		EventDateIndex index = new EventDateIndex(CommonField.TERMINE_ULTIMO_DI_RITIRO_ISCRIZIONE);
+		index.add(event);
+		
+		assertEquals(0, index.size());
+		
+	}
+	
+	@Test
+	public void nonDateFieldIsRejected() {
+		
+		assertThrows(IllegalArgumentException.class, () -> {
+			new EventDateIndex(CommonField.TITOLO);
+		});
+		
+	}
+	
+	@Test
+	public void boardIndexesFollowBoardChanges() {
+		
+		Event day1 = mockEventOnDay(1);
+		Event day2 = mockEventOnDay(2);
+		when(day2.canBeWithdrawn()).thenReturn(true);
+		
+		EventBoard board = new EventBoard();
+		board.addEvent(day1);
+		// Indice costruito dopo la prima aggiunta, aggiornato dalle successive
+		EventDateIndex index = board.getDateIndex(CommonField.DATA_E_ORA);
+		board.addEvent(day2);
+		
+		assertEquals(2, index.size());
+		assertEquals(Arrays.asList(day1, day2), 
+				board.getEventsClosingSubscriptionsBetween(new Date(BASE_MILLIS), new Date(BASE_MILLIS + 3 * DAY_MILLIS)));
+		
+		board.removeEvent(day2);
+		assertEquals(Arrays.asList(day1), 
+				board.getEventsTakingPlaceBetween(new Date(BASE_MILLIS), new Date(BASE_MILLIS + 3 * DAY_MILLIS)));
+		
+	}
+
+}
@@ -0,0 +1,74 @@
+package it.unibs.ingesw.dpn.model.events;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.users.User;
+
+public class EventDescriptionCacheTest {
+
+	@Test
+	public void descriptionIsRenderedOnce_untilInvalidated() {
+		EventDescriptionCache cache = new EventDescriptionCache();
+		AtomicInteger renders = new AtomicInteger();
+
+		assertEquals("descrizione 1", cache.getDescription(() -> "descrizione " + renders.incrementAndGet()));
+		assertEquals("descrizione 1", cache.getDescription(() -> "descrizione " + renders.incrementAndGet()));
+		assertEquals(1, renders.get());
+
+		cache.invalidate();
+		assertEquals("descrizione 2", cache.getDescription(() -> "descrizione " + renders.incrementAndGet()));
+		assertEquals(2, renders.get());
+	}
+
+	@Test
+	public void userSectionsAreCachedPerUser() {
+		EventDescriptionCache cache = new EventDescriptionCache();
+		User first = mock(User.class);
+		User second = mock(User.class);
+		AtomicInteger renders = new AtomicInteger();
+
+		String firstSection = cache.getUserSection(first, u -> "sezione " + renders.incrementAndGet());
+		String secondSection = cache.getUserSection(second, u -> "sezione " + renders.incrementAndGet());
+		assertNotEquals(firstSection, secondSection);
+		assertSame(firstSection, cache.getUserSection(first, u -> "sezione " + renders.incrementAndGet()));
+		assertEquals(2, renders.get());
+
+		// La descrizione comune è indipendente dalle sezioni degli utenti
+		cache.getDescription(() -> "descrizione");
+		assertSame(secondSection, cache.getUserSection(second, u -> "sezione " + renders.incrementAndGet()));
+		assertEquals(2, renders.get());
+	}
+
+	@Test
+	public void invalidationDiscardsUserSections() {
+		EventDescriptionCache cache = new EventDescriptionCache();
+		User user = mock(User.class);
+
+		cache.getUserSection(user, u -> "vecchia sezione");
+		long version = cache.getVersion();
+		cache.invalidate();
+
+		assertEquals(version + 1, cache.getVersion());
+		assertEquals("nuova sezione", cache.getUserSection(user, u -> "nuova sezione"));
+	}
+
+	@Test
+	public void descriptionRenderedDuringInvalidation_isNotReused() {
+		EventDescriptionCache cache = new EventDescriptionCache();
+
+		// L'evento viene modificato mentre la descrizione viene prodotta
+		String stale = cache.getDescription(() -> {
+			cache.invalidate();
+			return "descrizione scaduta";
+		});
+
+		assertEquals("descrizione scaduta", stale);
+		assertEquals("descrizione aggiornata", cache.getDescription(() -> "descrizione aggiornata"));
+	}
+
+}
@@ -0,0 +1,111 @@
+package it.unibs.ingesw.dpn.model.events;
+
+import java.util.concurrent.TimeUnit;
+
+import it.unibs.ingesw.dpn.model.categories.Category;
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fields.ConferenceField;
+import it.unibs.ingesw.dpn.model.fields.Field;
+import it.unibs.ingesw.dpn.model.fields.FieldCompatibilityException;
+import it.unibs.ingesw.dpn.model.fields.SoccerMatchField;
+import it.unibs.ingesw.dpn.model.fields.UserField;
+import it.unibs.ingesw.dpn.model.fields.builder.EventBuilder;
+import it.unibs.ingesw.dpn.model.fields.builder.UserBuilder;
+import it.unibs.ingesw.dpn.model.fieldvalues.DateFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.GenderFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.IntegerFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.IntegerIntervalFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.MoneyAmountFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.StringFieldValue;
+import it.unibs.ingesw.dpn.model.time.Clocks;
+import it.unibs.ingesw.dpn.model.time.VirtualClock;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Costruzione di utenti ed eventi su un orologio simulato, utilizzata dai test delle scadenze degli eventi,
+ * del controllo di ammissione e dei menu: è l'unico punto in cui tali test definiscono l'istante iniziale,
+ * gli utenti e gli eventi di prova.<br>
+ * Tutti gli istanti sono espressi in ore a partire da {@link #START}.
+ */
+public final class EventFixture {
+
+	/** 1 gennaio 2030, 00:00 UTC */
+	public static final long START = 1_893_456_000_000L;
+	public static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+	private EventFixture() {
+	}
+
+	/**
+	 * Installa e restituisce un orologio simulato fermo all'istante {@link #START}.
+	 */
+	public static VirtualClock useVirtualClock() {
+		VirtualClock clock = new VirtualClock(START);
+		Clocks.setCurrent(clock);
+		return clock;
+	}
+
+	public static void restoreSystemClock() {
+		Clocks.useSystemClock();
+	}
+
+	public static User user(String nickname) throws FieldCompatibilityException {
+		UserBuilder builder = new UserBuilder();
+		builder.startCreation();
+		builder.setFieldValue(UserField.NICKNAME, new StringFieldValue(nickname));
+		return (User) builder.finalise();
+	}
+
+	/**
+	 * Imposta il campo dato all'istante che segue {@link #START} del numero di ore dato.
+	 */
+	public static void setTime(EventBuilder builder, Field field, long hours) throws FieldCompatibilityException {
+		builder.setFieldValue(field, new DateFieldValue(START + hours * HOUR));
+	}
+
+	/**
+	 * Avvia la costruzione di una partita di calcio con il numero di partecipanti dato (creatore compreso),
+	 * termine d'iscrizione a 10 ore e inizio a 20 ore.
+	 */
+	public static EventBuilder soccerMatch(User creator, String title, int participants) throws FieldCompatibilityException {
+		EventBuilder builder = start(creator, Category.PARTITA_DI_CALCIO, title, participants);
+		builder.setFieldValue(SoccerMatchField.GENERE, new GenderFieldValue("Misto"));
+		builder.setFieldValue(SoccerMatchField.FASCIA_DI_ETA, new IntegerIntervalFieldValue(18, 60));
+		return builder;
+	}
+
+	/**
+	 * Avvia la costruzione di una conferenza con il numero di partecipanti dato (creatore compreso),
+	 * termine d'iscrizione a 10 ore e inizio a 20 ore.
+	 */
+	public static EventBuilder conference(User creator, String title, int participants) throws FieldCompatibilityException {
+		EventBuilder builder = start(creator, Category.CONFERENZA, title, participants);
+		builder.setFieldValue(ConferenceField.RELATORI, new StringFieldValue("Relatore"));
+		builder.setFieldValue(ConferenceField.ARGOMENTO, new StringFieldValue("Argomento"));
+		return builder;
+	}
+
+	private static EventBuilder start(User creator, Category category, String title, int participants) throws FieldCompatibilityException {
+		EventBuilder builder = new EventBuilder();
+		builder.startCreation(creator, category);
+		builder.setFieldValue(CommonField.TITOLO, new StringFieldValue(title));
+		builder.setFieldValue(CommonField.LUOGO, new StringFieldValue("Brescia"));
+		setTime(builder, CommonField.DATA_E_ORA, 20);
+		setTime(builder, CommonField.TERMINE_ULTIMO_DI_ISCRIZIONE, 10);
+		builder.setFieldValue(CommonField.NUMERO_DI_PARTECIPANTI, new IntegerFieldValue(participants));
+		builder.setFieldValue(CommonField.QUOTA_INDIVIDUALE, MoneyAmountFieldValue.ofCents(500));
+		return builder;
+	}
+
+	/**
+	 * Completa la costruzione dell'evento e lo pubblica nella bacheca data.
+	 */
+	public static Event publish(EventBoard board, EventBuilder builder) {
+		Event event = (Event) builder.finalise();
+		if (!board.addEvent(event)) {
+			throw new IllegalStateException("Evento non pubblicato: " + event.getTitle());
+		}
+		return event;
+	}
+
+}
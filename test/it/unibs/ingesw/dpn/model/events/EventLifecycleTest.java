@@ -0,0 +1,156 @@
+package it.unibs.ingesw.dpn.model.events;
+
+import static it.unibs.ingesw.dpn.model.events.EventFixture.*;
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fields.FieldCompatibilityException;
+import it.unibs.ingesw.dpn.model.fields.builder.EventBuilder;
+import it.unibs.ingesw.dpn.model.time.VirtualClock;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Verifica i passaggi di stato temporizzati degli eventi mediante un orologio simulato.
+ */
+public class EventLifecycleTest {
+	
+	private VirtualClock clock;
+	private EventBoard board;
+	private User creator;
+	
+	@Before
+	public void useVirtualClock() throws FieldCompatibilityException {
+		this.clock = EventFixture.useVirtualClock();
+		this.board = new EventBoard();
+		this.creator = user("creatore");
+	}
+	
+	@After
+	public void restoreSystemClock() {
+		EventFixture.restoreSystemClock();
+	}
+	
+	/**
+	 * Crea un evento con termine d'iscrizione a 10 ore, inizio a 20 ore e, se richiesto, conclusione a 30 ore.
+	 */
+	private Event event(int participants, boolean withEnd, Long unsubscriptionHours) throws FieldCompatibilityException {
+		EventBuilder builder = soccerMatch(this.creator, "Partita", participants);
+		if (withEnd) {
+			setTime(builder, CommonField.DATA_E_ORA_CONCLUSIVE, 30);
+		}
+		if (unsubscriptionHours != null) {
+			setTime(builder, CommonField.TERMINE_ULTIMO_DI_RITIRO_ISCRIZIONE, unsubscriptionHours);
+		}
+		return publish(this.board, builder);
+	}
+	
+	@Test
+	public void fullLifecycle_isDrivenByTheVirtualClock() throws FieldCompatibilityException {
+		
+		Event event = this.event(2, true, null);
+		event.subscribe(user("ospite"));
+		assertEquals(EventState.OPEN, event.getState());
+		
+		this.clock.advanceTo(START + 10 * HOUR - 1);
+		assertEquals(EventState.OPEN, event.getState());
+		
+		this.clock.advanceTo(START + 10 * HOUR);
+		assertEquals(EventState.CLOSED, event.getState());
+		
+		this.clock.advanceTo(START + 20 * HOUR);
+		assertEquals(EventState.ONGOING, event.getState());
+		
+		this.clock.advanceTo(START + 30 * HOUR);
+		assertEquals(EventState.ENDED, event.getState());
+		assertEquals(0, this.clock.getPendingTasks());
+	}
+	
+	@Test
+	public void instantEvent_endsAtItsStart() throws FieldCompatibilityException {
+		
+		Event event = this.event(2, false, null);
+		event.subscribe(user("ospite"));
+		
+		this.clock.runUntilIdle();
+		assertEquals(EventState.ENDED, event.getState());
+		assertEquals(START + 20 * HOUR, this.clock.currentTimeMillis());
+	}
+	
+	@Test
+	public void eventFails_whenSubscribersAreNotEnough() throws FieldCompatibilityException {
+		
+		Event event = this.event(3, true, null);
+		
+		this.clock.runUntilIdle();
+		assertEquals(EventState.FAILED, event.getState());
+	}
+	
+	@Test
+	public void fullEvent_closesAtTheUnsubscriptionDeadline() throws FieldCompatibilityException {
+		
+		Event event = this.event(2, true, 5L);
+		event.subscribe(user("ospite"));
+		
+		this.clock.advanceTo(START + 5 * HOUR);
+		assertEquals(EventState.CLOSED, event.getState());
+	}
+	
+	@Test
+	public void withdrawnEvent_ignoresItsDeadlines() throws FieldCompatibilityException {
+		
+		Event event = this.event(2, true, null);
+		event.withdraw();
+		
+		this.clock.runUntilIdle();
+		assertEquals(EventState.WITHDRAWN, event.getState());
+	}
+	
+	@Test
+	public void manyLifecycles_runWithoutRealWaiting() throws FieldCompatibilityException {
+		
+		User guest = user("ospite");
+		Event [] events = new Event[500];
+		for (int i = 0; i < events.length; i++) {
+			events[i] = this.event(2, true, null);
+			events[i].subscribe(guest);
+		}
+		
+		// Per ciascun evento, al completo: chiusura al termine di ritiro, inizio e conclusione
+		assertEquals(3 * events.length, this.clock.runUntilIdle());
+		for (Event event : events) {
+			assertEquals(EventState.ENDED, event.getState());
+		}
+	}
+	
+	@Test
+	public void stateNotifications_areDigestedByTheBoard() throws FieldCompatibilityException {
+		
+		this.board.getNotificationDigester().setWindow(HOUR);
+		User guest = user("ospite");
+		for (int i = 0; i < 3; i++) {
+			this.event(2, false, null).subscribe(guest);
+		}
+		
+		// Anche le conferme d'iscrizione vengono raggruppate
+		assertEquals(0, guest.getNotifications().size());
+		this.clock.advanceTo(START + HOUR);
+		assertEquals(1, guest.getNotifications().size());
+		String confirmations = guest.getNotifications().get(0).getMessage();
+		assertTrue(confirmations.startsWith("Aggiornamenti: 3 conferme di iscrizione (Partita)\n - "));
+		// Il riassunto mantiene il testo completo di ciascuna conferma, importo dovuto compreso
+		assertEquals(3, confirmations.split("Importo dovuto: ", -1).length - 1);
+		
+		// Le tre chiusure avvengono insieme, al termine d'iscrizione
+		this.clock.advanceTo(START + 10 * HOUR);
+		assertEquals(1, guest.getNotifications().size());
+		
+		this.clock.advanceTo(START + 11 * HOUR);
+		assertEquals(2, guest.getNotifications().size());
+		assertTrue(guest.getNotifications().get(1).getMessage().startsWith("Aggiornamenti: 3 eventi chiusi (Partita)\n - "));
+	}
+	
+}
@@ -0,0 +1,113 @@
+package it.unibs.ingesw.dpn.model.events;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.users.User;
+
+public class EventQueryTest {
+	
+	private EventBoard board;
+	private User creator;
+	private Event[] events;
+	
+	@Before
+	public void buildTestBoard() {
+		
+		this.creator = mock(User.class);
+		this.board = new EventBoard();
+		this.events = new Event[5];
+		
+		for (int i = 0; i < events.length; i++) {
+			Event event = mock(Event.class);
+			when(event.canBePublished()).thenReturn(true);
+			when(event.getTitle()).thenReturn("Evento " + (events.length - i));
+			when(event.getState()).thenReturn(i % 2 == 0 ? EventState.OPEN : EventState.CLOSED);
+			when(event.getCreator()).thenReturn(i < 2 ? creator : mock(User.class));
+			this.events[i] = event;
+			this.board.addEvent(event);
+		}
+		
+	}
+	
+	@Test
+	public void filtersAreCombined() {
+		
+		List<Event> result = board.query()
+				.withState(EventState.OPEN)
+				.withCreator(creator)
+				.toList();
+		
+		assertEquals(1, result.size());
+		assertTrue(result.contains(events[0]));
+		
+	}
+	
+	@Test
+	public void sortingAndPagingTest() {
+		
+		List<Event> page = board.query()
+				.sortedBy(Comparator.comparing(Event::getTitle))
+				.skip(1)
+				.limit(2)
+				.toList();
+		
+		// Titoli: "Evento 5" ... "Evento 1", in ordine inverso rispetto all'inserimento
+		assertEquals(2, page.size());
+		assertEquals(events[3], page.get(0));
+		assertEquals(events[2], page.get(1));
+		
+	}
+	
+	@Test
+	public void queryIsNotAffectedByLaterChanges() {
+		
+		EventQuery query = board.query();
+		
+		// Una nuova interrogazione vede le modifiche, un'iterazione gia' iniziata no
+		List<Event> seen = new ArrayList<>();
+		query.forEach(event -> {
+			if (seen.isEmpty()) {
+				Event newEvent = mock(Event.class);
+				when(newEvent.canBePublished()).thenReturn(true);
+				board.addEvent(newEvent);
+			}
+			seen.add(event);
+		});
+		
+		assertEquals(5, seen.size());
+		assertEquals(6, board.query().count());
+		
+	}
+	
+	@Test
+	public void parallelQueryKeepsOrder_whenSorted() {
+		
+		List<Event> sorted = board.query()
+				.parallel()
+				.sortedBy(Comparator.comparing(Event::getTitle))
+				.toList();
+		
+		for (int i = 0; i < events.length; i++) {
+			assertEquals(events[events.length - 1 - i], sorted.get(i));
+		}
+		
+	}
+	
+	@Test
+	public void negativeLimitIsRejected() {
+		
+		assertThrows(IllegalArgumentException.class, () -> {
+			board.query().limit(-1);
+		});
+		
+	}
+
+}
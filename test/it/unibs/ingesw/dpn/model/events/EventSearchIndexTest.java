@@ -0,0 +1,166 @@
+package it.unibs.ingesw.dpn.model.events;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fieldvalues.StringFieldValue;
+
+public class EventSearchIndexTest {
+	
+	private static Event mockEvent(String title, String place, String state) {
+		Event event = mock(Event.class);
+		when(event.canBePublished()).thenReturn(true);
+		when(event.getState()).thenReturn(state);
+		when(event.getFieldValue(CommonField.TITOLO)).thenReturn(new StringFieldValue(title));
+		when(event.getFieldValue(CommonField.LUOGO)).thenReturn(new StringFieldValue(place));
+		return event;
+	}
+	
+	@Test
+	public void tokenizationRemovesAccentsAndStopWords() {
+		
+		assertEquals(
+				Arrays.asList("partita", "universita", "citta"),
+				EventSearchIndex.tokenize("Partita dell'Università della Città!"));
+		
+	}
+	
+	@Test
+	public void resultsAreRankedByRelevance() {
+		
+		Event match = mockEvent("Partita di calcio", "Brescia", EventState.OPEN);
+		Event derby = mockEvent("Derby: partita di calcio a Brescia", "Stadio di Brescia", EventState.OPEN);
+		Event conference = mockEvent("Conferenza sul calcio", "Milano", EventState.OPEN);
+		
+		EventSearchIndex index = new EventSearchIndex();
+		index.add(match);
+		index.add(derby);
+		index.add(conference);
+		
+		List<Event> results = index.search("brescia", null, 10);
+		assertEquals(Arrays.asList(derby, match), results);
+		
+		assertTrue(index.search("città", null, 10).isEmpty());
+		assertEquals(3, index.search("CALCIO", null, 10).size());
+		
+	}
+	
+	@Test
+	public void accentsAreIgnoredInQueries() {
+		
+		Event event = mockEvent("Festa dell'università", "Aula magna", EventState.OPEN);
+		
+		EventSearchIndex index = new EventSearchIndex();
+		index.add(event);
+		
+		assertEquals(Arrays.asList(event), index.search("universita", null, 10));
+		
+	}
+	
+	@Test
+	public void removedEventsAreNotFound() {
+		
+		Event event = mockEvent("Torneo di scacchi", "Bergamo", EventState.OPEN);
+		
+		EventSearchIndex index = new EventSearchIndex();
+		index.add(event);
+		index.remove(event);
+		
+		assertEquals(0, index.size());
+		assertTrue(index.search("scacchi", null, 10).isEmpty());
+		
+	}
+	
+	@Test
+	public void boardSearchFiltersByState() {
+		
+		Event open = mockEvent("Torneo di scacchi", "Bergamo", EventState.OPEN);
+		Event closed = mockEvent("Torneo di scacchi lampo", "Bergamo", EventState.CLOSED);
+		
+		EventBoard board = new EventBoard();
+		board.addEvent(open);
+		board.addEvent(closed);
+		
+		assertEquals(Arrays.asList(open), board.searchEvents("scacchi", EventState.OPEN, 10));
+		assertEquals(2, board.searchEvents("scacchi", null, 10).size());
+		
+	}
+
+	@Test
+	public void ties_followInsertionOrder_evenWhenIdsAreReused() {
+		
+		Event first = mockEvent("Torneo di scacchi", "Bergamo", EventState.OPEN);
+		Event second = mockEvent("Torneo di scacchi", "Bergamo", EventState.OPEN);
+		Event third = mockEvent("Torneo di scacchi", "Bergamo", EventState.OPEN);
+		Event fourth = mockEvent("Torneo di scacchi", "Bergamo", EventState.OPEN);
+		
+		EventSearchIndex index = new EventSearchIndex();
+		index.add(first);
+		index.add(second);
+		index.add(third);
+		// Il quarto evento riutilizza l'identificativo del primo, ma resta l'ultimo inserito
+		index.remove(first);
+		index.add(fourth);
+		
+		assertEquals(Arrays.asList(second, third, fourth), index.search("scacchi", null, 10));
+		assertEquals(Arrays.asList(second, third), index.search("scacchi", null, 2));
+		
+	}
+	
+	@Test
+	public void topResults_matchTheFullRanking_withAndWithoutFilter() {
+		
+		EventSearchIndex index = new EventSearchIndex();
+		for (int i = 0; i < 200; i++) {
+			// Titoli di lunghezza diversa, con un numero variabile di ripetizioni del termine cercato
+			StringBuilder title = new StringBuilder("Torneo");
+			for (int j = 0; j < i % 7; j++) {
+				title.append(" scacchi");
+			}
+			for (int j = 0; j < i % 5; j++) {
+				title.append(" lampo");
+			}
+			index.add(mockEvent(title.toString() + " scacchi", "Bergamo", (i % 10 == 0) ? EventState.OPEN : EventState.CLOSED));
+		}
+		
+		List<Event> all = index.search("scacchi torneo", null, Integer.MAX_VALUE);
+		assertEquals(200, all.size());
+		assertEquals(all.subList(0, 5), index.search("scacchi torneo", null, 5));
+		
+		// Il filtro scarta 9 candidati su 10: la selezione deve essere ampliata
+		List<Event> open = new ArrayList<>();
+		for (Event event : all) {
+			if (event.getState().equals(EventState.OPEN)) {
+				open.add(event);
+			}
+		}
+		assertEquals(open.subList(0, 8), index.search("scacchi torneo", event -> event.getState().equals(EventState.OPEN), 8));
+		assertEquals(open, index.search("scacchi torneo", event -> event.getState().equals(EventState.OPEN), 100));
+		assertTrue(index.search("scacchi", null, 0).isEmpty());
+		
+	}
+	
+	@Test
+	public void removal_usesTheIndexedText() {
+		
+		Event event = mockEvent("Torneo di scacchi", "Bergamo", EventState.OPEN);
+		EventSearchIndex index = new EventSearchIndex();
+		index.add(event);
+		
+		// Il titolo cambia dopo l'indicizzazione
+		when(event.getFieldValue(CommonField.TITOLO)).thenReturn(new StringFieldValue("Torneo di dama"));
+		index.remove(event);
+		
+		assertTrue(index.search("scacchi", null, 10).isEmpty());
+		assertTrue(index.search("bergamo", null, 10).isEmpty());
+		
+	}
+	
+}
@@ -294,4 +294,63 @@ public class EventTest {
 		
 	}
 
+	@Test
+	public void toStringIsReused_untilFieldValueChanges() {
+		
+		// Test code
+		Event event = this.testEvent;
+		String description = event.toString();
+		
+		assertSame(description, event.toString());
+		assertTrue(description.contains("Evento di test"));
+		
+		event.setFieldValue(CommonField.TITOLO, new StringFieldValue("Nuovo titolo"));
+		String updated = event.toString();
+		
+		assertNotSame(description, updated);
+		assertTrue(updated.contains("Nuovo titolo"));
+		assertFalse(updated.contains("Evento di test"));
+		
+	}
+	
+	@Test
+	public void toStringIsUpdated_whenStateChanges() {
+		
+		// Mocks configuration
+		EventState state = mock(EventState.class);
+		when(state.getStateName()).thenReturn("NEW STATE");
+		
+		// Test code
+		Event event = this.testEvent;
+		String description = event.toString();
+		event.setState(state);
+		
+		assertFalse(description.contains("NEW STATE"));
+		assertTrue(event.toString().contains("NEW STATE"));
+		
+	}
+	
+	@Test
+	public void toStringForUser_isCachedPerUser() {
+		
+		// Mocks configuration
+		User first = mock(User.class);
+		User second = mock(User.class);
+		
+		// Test code
+		Event event = this.testEvent;
+		String firstDescription = event.toString(first);
+		
+		assertTrue(firstDescription.startsWith(event.toString()));
+		assertTrue(firstDescription.contains("Selezioni dell'utente:"));
+		assertEquals(firstDescription, event.toString(second));
+		assertEquals(event.toString(), event.toString(TestEvent.CREATOR));
+		
+		// Le personalizzazioni dell'utente vengono comunicate con notifyChange
+		event.notifyChange();
+		event.setFieldValue(CommonField.TITOLO, new StringFieldValue("Nuovo titolo"));
+		assertTrue(event.toString(first).contains("Nuovo titolo"));
+		
+	}
+
 }
@@ -0,0 +1,419 @@
+package it.unibs.ingesw.dpn.model.events;
+
+import static it.unibs.ingesw.dpn.model.events.EventFixture.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.bus.WaitlistChanged;
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fields.ConferenceField;
+import it.unibs.ingesw.dpn.model.fields.FieldCompatibilityException;
+import it.unibs.ingesw.dpn.model.fields.builder.EventBuilder;
+import it.unibs.ingesw.dpn.model.fieldvalues.MoneyAmount;
+import it.unibs.ingesw.dpn.model.fieldvalues.OptionalCostsFieldValue;
+import it.unibs.ingesw.dpn.model.time.VirtualClock;
+import it.unibs.ingesw.dpn.model.users.Notification;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Verifica la lista d'attesa degli eventi, sia come coda sia nelle promozioni automatiche.
+ */
+public class EventWaitlistTest {
+
+	private VirtualClock clock;
+	private EventBoard board;
+	private User creator;
+
+	@Before
+	public void useVirtualClock() throws FieldCompatibilityException {
+		this.clock = EventFixture.useVirtualClock();
+		this.board = new EventBoard();
+		this.creator = user("creatore");
+	}
+
+	@After
+	public void restoreSystemClock() {
+		EventFixture.restoreSystemClock();
+	}
+
+	/**
+	 * Crea un evento con il numero di partecipanti dato (creatore compreso), termine di ritiro a 5 ore
+	 * e termine d'iscrizione a 10 ore.
+	 */
+	private Event event(int participants) throws FieldCompatibilityException {
+		EventBuilder builder = soccerMatch(this.creator, "Partita", participants);
+		setTime(builder, CommonField.TERMINE_ULTIMO_DI_RITIRO_ISCRIZIONE, 5);
+		return publish(this.board, builder);
+	}
+
+	private static String lastMessage(User user) {
+		List<Notification> notifications = user.getNotifications();
+		return notifications.get(notifications.size() - 1).getMessage();
+	}
+
+	@Test
+	public void queue_keepsArrivalOrder() throws FieldCompatibilityException {
+		EventWaitlist waitlist = new EventWaitlist();
+		User anna = user("anna");
+		User bruno = user("bruno");
+		User carla = user("carla");
+
+		assertTrue(waitlist.add(anna));
+		assertTrue(waitlist.add(bruno));
+		assertTrue(waitlist.add(carla));
+		assertFalse(waitlist.add(bruno));
+		assertEquals(3, waitlist.size());
+		assertEquals(Arrays.asList(anna, bruno, carla), waitlist.getUsers());
+
+		assertTrue(waitlist.remove(bruno));
+		assertFalse(waitlist.remove(bruno));
+		assertFalse(waitlist.contains(bruno));
+		assertSame(anna, waitlist.poll());
+		// Un utente uscito può rientrare, in coda
+		assertTrue(waitlist.add(bruno));
+		assertEquals(Arrays.asList(carla, bruno), waitlist.clear());
+		assertNull(waitlist.poll());
+		assertEquals(0, waitlist.size());
+		assertThrows(IllegalArgumentException.class, () -> waitlist.add(null));
+	}
+
+	@Test
+	public void queue_neverHandsOutAnEntryTwice() throws Exception {
+		final int users = 2000;
+		EventWaitlist waitlist = new EventWaitlist();
+		List<User> waiting = new ArrayList<>();
+		for (int i = 0; i < users; i++) {
+			User user = user("utente" + i);
+			waiting.add(user);
+			waitlist.add(user);
+		}
+
+		// Metà dei thread estrae utenti, metà li rimuove: ciascun utente viene rimosso da una sola operazione
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				boolean polling = (t % 2 == 0);
+				int offset = t;
+				results.add(executor.submit(() -> {
+					start.await();
+					int taken = 0;
+					if (polling) {
+						while (waitlist.poll() != null) {
+							taken++;
+						}
+					}
+					else {
+						for (int i = offset; i < users; i += 2) {
+							if (waitlist.remove(waiting.get(i))) {
+								taken++;
+							}
+						}
+					}
+					return taken;
+				}));
+			}
+			start.countDown();
+			int total = 0;
+			for (Future<Integer> result : results) {
+				total += result.get();
+			}
+			assertEquals(users, total);
+			assertEquals(0, waitlist.size());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void queue_removesEveryUserVisibleAfterAdding() throws Exception {
+		final int users = 2000;
+		EventWaitlist waitlist = new EventWaitlist();
+		List<User> waiting = new ArrayList<>();
+		for (int i = 0; i < users; i++) {
+			waiting.add(user("utente" + i));
+		}
+
+		// Un utente che risulta in lista mentre viene aggiunto deve poter essere rimosso
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			Future<?> adder = executor.submit(() -> {
+				start.await();
+				for (User user : waiting) {
+					waitlist.add(user);
+				}
+				return null;
+			});
+			Future<Integer> remover = executor.submit(() -> {
+				start.await();
+				int removed = 0;
+				for (User user : waiting) {
+					while (!waitlist.contains(user)) {
+						Thread.yield();
+					}
+					if (waitlist.remove(user)) {
+						removed++;
+					}
+				}
+				return removed;
+			});
+			start.countDown();
+			adder.get();
+			assertEquals(users, (int) remover.get());
+			assertEquals(0, waitlist.size());
+			assertTrue(waitlist.getUsers().isEmpty());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void unsubscription_promotesTheFirstWaitingUser() throws FieldCompatibilityException {
+		Event event = this.event(2);
+		User guest = user("ospite");
+		User first = user("primo");
+		User second = user("secondo");
+		event.subscribe(guest);
+
+		// L'evento è pieno: iscrizione impossibile, lista d'attesa possibile
+		assertFalse(event.canSubscribe(first));
+		assertTrue(event.canJoinWaitlist(first));
+		event.joinWaitlist(first);
+		event.joinWaitlist(second);
+		assertFalse(event.canJoinWaitlist(first));
+		assertThrows(IllegalStateException.class, () -> event.joinWaitlist(first));
+		assertEquals(Arrays.asList(first, second), event.getWaitlist());
+
+		event.unsubscribe(guest);
+
+		assertTrue(event.hasSubscriber(first));
+		assertFalse(event.isWaitlisted(first));
+		assertTrue(lastMessage(first).contains("lista d'attesa"));
+		assertFalse(event.hasSubscriber(second));
+		assertEquals(Arrays.asList(second), event.getWaitlist());
+		assertEquals(EventState.OPEN, event.getState());
+	}
+
+	@Test
+	public void promotion_sendsASingleNoticeWithTheAmountDue() throws FieldCompatibilityException {
+		Event event = this.event(2);
+		User guest = user("ospite");
+		User waiting = user("attesa");
+		event.subscribe(guest);
+		event.joinWaitlist(waiting);
+		int before = waiting.getNotifications().size();
+
+		event.unsubscribe(guest);
+
+		assertTrue(event.hasSubscriber(waiting));
+		assertEquals(before + 1, waiting.getNotifications().size());
+		assertTrue(lastMessage(waiting).contains("lista d'attesa"));
+		assertTrue(lastMessage(waiting).contains("Importo dovuto: " + MoneyAmount.toString(event.getExpensesForUser(waiting))));
+	}
+
+	@Test
+	public void promotion_withOptionalCosts_pointsToCustomization() throws FieldCompatibilityException {
+		OptionalCostsFieldValue optionalCosts = new OptionalCostsFieldValue();
+		optionalCosts.addEntry("Pranzo", 1500);
+
+		EventBuilder builder = conference(this.creator, "Convegno", 2);
+		setTime(builder, CommonField.TERMINE_ULTIMO_DI_RITIRO_ISCRIZIONE, 5);
+		builder.setFieldValue(ConferenceField.SPESE_OPZIONALI, optionalCosts);
+		Event event = publish(this.board, builder);
+
+		User guest = user("ospite");
+		User waiting = user("attesa");
+		event.subscribe(guest);
+		event.joinWaitlist(waiting);
+		int before = waiting.getNotifications().size();
+
+		event.unsubscribe(guest);
+
+		assertTrue(event.hasSubscriber(waiting));
+		assertEquals(before + 1, waiting.getNotifications().size());
+		assertTrue(lastMessage(waiting).contains("Personalizza spese opzionali"));
+		assertFalse(lastMessage(waiting).contains("Importo dovuto:"));
+	}
+
+	@Test
+	public void leavingUsers_areSkipped() throws FieldCompatibilityException {
+		Event event = this.event(2);
+		User guest = user("ospite");
+		User first = user("primo");
+		User second = user("secondo");
+		event.subscribe(guest);
+		event.joinWaitlist(first);
+		event.joinWaitlist(second);
+
+		assertTrue(event.leaveWaitlist(first));
+		assertFalse(event.leaveWaitlist(first));
+		event.unsubscribe(guest);
+
+		assertFalse(event.hasSubscriber(first));
+		assertTrue(event.hasSubscriber(second));
+		assertEquals(0, event.getWaitlistSize());
+	}
+
+	@Test
+	public void waitlistChanges_arePublishedOnTheBus() throws FieldCompatibilityException {
+		Event event = this.event(2);
+		User guest = user("ospite");
+		User first = user("primo");
+		User second = user("secondo");
+		event.subscribe(guest);
+		List<String> changes = new ArrayList<>();
+		this.board.getEventBus().addListener(WaitlistChanged.class, 
+				changed -> changes.add((changed.hasJoined() ? "+" : "-") + changed.getUser().getNickname()));
+
+		event.joinWaitlist(first);
+		event.joinWaitlist(second);
+		assertTrue(event.leaveWaitlist(second));
+		assertFalse(event.leaveWaitlist(second));
+		event.joinWaitlist(second);
+		// Promozione del primo utente, poi rimozione del secondo allo scadere del termine di ritiro
+		event.unsubscribe(guest);
+		this.clock.advanceTo(START + 5 * HOUR);
+
+		assertEquals(Arrays.asList("+primo", "+secondo", "-secondo", "+secondo", "-primo", "-secondo"), changes);
+	}
+
+	@Test
+	public void unsubscriptionDeadline_dismissesTheWaitlist() throws FieldCompatibilityException {
+		Event event = this.event(2);
+		User guest = user("ospite");
+		User waiting = user("attesa");
+		User late = user("ritardatario");
+		event.subscribe(guest);
+		event.joinWaitlist(waiting);
+
+		this.clock.advanceTo(START + 5 * HOUR);
+
+		// Nessun posto può più liberarsi: la lista viene svuotata e non accetta nuovi utenti
+		assertEquals(0, event.getWaitlistSize());
+		assertTrue(lastMessage(waiting).contains("rimosso/a dalla lista d'attesa"));
+		assertFalse(event.canJoinWaitlist(late));
+		assertFalse(event.canUnsubscribe(guest));
+	}
+
+	@Test
+	public void withdrawal_dismissesTheWaitlist() throws FieldCompatibilityException {
+		Event event = this.event(2);
+		User waiting = user("attesa");
+		event.subscribe(user("ospite"));
+		event.joinWaitlist(waiting);
+
+		assertTrue(this.board.removeEvent(event));
+
+		assertEquals(0, event.getWaitlistSize());
+		assertTrue(lastMessage(waiting).contains("rimosso/a dalla lista d'attesa"));
+	}
+
+	@Test
+	public void notFullEvent_rejectsWaitlist() throws FieldCompatibilityException {
+		Event event = this.event(3);
+		User user = user("utente");
+
+		assertTrue(event.canSubscribe(user));
+		assertFalse(event.canJoinWaitlist(user));
+		assertFalse(event.canJoinWaitlist(this.creator));
+	}
+
+	@Test
+	public void burstyContention_losesAndDuplicatesNoPromotion() throws Exception {
+		final int seats = 20;
+		final int waiting = 200;
+		Event event = this.event(seats + 1);
+		List<User> subscribers = new ArrayList<>();
+		for (int i = 0; i < seats; i++) {
+			User user = user("iscritto" + i);
+			event.subscribe(user);
+			subscribers.add(user);
+		}
+		List<User> candidates = new ArrayList<>();
+		for (int i = 0; i < waiting; i++) {
+			candidates.add(user("attesa" + i));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			// Ingressi in lista d'attesa, uscite dalla lista e disiscrizioni concorrenti
+			for (int t = 0; t < 4; t++) {
+				int offset = t;
+				results.add(executor.submit(() -> {
+					start.await();
+					for (int i = offset; i < waiting; i += 4) {
+						User candidate = candidates.get(i);
+						// Se nel frattempo si è liberato un posto, l'utente si iscrive direttamente
+						synchronized (event) {
+							if (event.canSubscribe(candidate)) {
+								event.subscribe(candidate);
+							}
+							else {
+								event.joinWaitlist(candidate);
+							}
+						}
+					}
+					return null;
+				}));
+			}
+			results.add(executor.submit(() -> {
+				start.await();
+				for (User subscriber : subscribers) {
+					event.unsubscribe(subscriber);
+				}
+				return null;
+			}));
+			results.add(executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < waiting; i += 3) {
+					event.leaveWaitlist(candidates.get(i));
+				}
+				return null;
+			}));
+			start.countDown();
+			for (Future<?> result : results) {
+				result.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		// I posti liberati sono tutti occupati, finché ci sono utenti in attesa
+		List<User> participants = event.getSubscribers();
+		int promoted = 0;
+		for (User candidate : candidates) {
+			boolean subscribed = participants.contains(candidate);
+			boolean queued = event.isWaitlisted(candidate);
+			// Nessun utente è allo stesso tempo iscritto e in attesa
+			assertFalse(subscribed && queued);
+			if (subscribed) {
+				promoted++;
+			}
+		}
+		assertEquals(participants.size(), participants.stream().distinct().count());
+		assertTrue(participants.size() <= seats + 1);
+		if (event.getWaitlistSize() > 0) {
+			assertEquals(seats + 1, participants.size());
+		}
+		assertEquals(participants.size() - 1, promoted);
+	}
+
+}
@@ -0,0 +1,91 @@
+package it.unibs.ingesw.dpn.model.events;
+
+import static it.unibs.ingesw.dpn.model.events.EventFixture.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.categories.Category;
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fields.FieldCompatibilityException;
+import it.unibs.ingesw.dpn.model.fields.UserField;
+import it.unibs.ingesw.dpn.model.fields.builder.EventBuilder;
+import it.unibs.ingesw.dpn.model.fields.builder.UserBuilder;
+import it.unibs.ingesw.dpn.model.fieldvalues.CategoryListFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.StringFieldValue;
+import it.unibs.ingesw.dpn.model.persistence.Model;
+import it.unibs.ingesw.dpn.model.time.VirtualClock;
+import it.unibs.ingesw.dpn.model.users.User;
+import it.unibs.ingesw.dpn.model.users.UsersRepository;
+
+/**
+ * Verifica le notifiche dei nuovi eventi e gli inviti, recapitati dai listener del bus della bacheca.
+ */
+public class NotificationListenersTest {
+	
+	private VirtualClock clock;
+	private Model model;
+	private User creator;
+	
+	@Before
+	public void useVirtualClock() throws FieldCompatibilityException {
+		this.clock = EventFixture.useVirtualClock();
+		this.model = new Model(new EventBoard(), new UsersRepository());
+		this.model.attachNotificationListeners();
+		this.creator = user("creatore");
+	}
+	
+	@After
+	public void restoreSystemClock() {
+		EventFixture.restoreSystemClock();
+	}
+	
+	@Test
+	public void publishedEvents_notifyInterestedUsers() throws FieldCompatibilityException {
+		UserBuilder builder = new UserBuilder();
+		builder.startCreation();
+		builder.setFieldValue(UserField.NICKNAME, new StringFieldValue("appassionato"));
+		CategoryListFieldValue interests = new CategoryListFieldValue();
+		interests.addCategory(Category.PARTITA_DI_CALCIO);
+		builder.setFieldValue(UserField.CATEGORIE_DI_INTERESSE, interests);
+		User fan = (User) builder.finalise();
+		this.model.getUsersRepository().addUser(fan);
+		
+		publish(this.model.getEventBoard(), soccerMatch(this.creator, "Partita", 3));
+		
+		assertEquals(1, fan.getNotifications().size());
+		assertTrue(fan.getNotifications().get(0).getMessage().endsWith("Partita"));
+		
+		// Gli eventi caricati in massa non sono novità
+		Event loaded = (Event) soccerMatch(this.creator, "Vecchia partita", 3).finalise();
+		assertEquals(1, this.model.getEventBoard().addEvents(Arrays.asList(loaded)).size());
+		assertEquals(1, fan.getNotifications().size());
+	}
+	
+	@Test
+	public void invitations_reachOnlyPastParticipants() throws FieldCompatibilityException {
+		EventBoard board = this.model.getEventBoard();
+		User participant = user("partecipante");
+		User stranger = user("estraneo");
+		EventBuilder past = soccerMatch(this.creator, "Passata", 2);
+		setTime(past, CommonField.DATA_E_ORA_CONCLUSIVE, 30);
+		publish(board, past).subscribe(participant);
+		EventBuilder next = soccerMatch(this.creator, "Nuova", 2);
+		setTime(next, CommonField.DATA_E_ORA, 50);
+		setTime(next, CommonField.TERMINE_ULTIMO_DI_ISCRIZIONE, 40);
+		
+		// Il nuovo evento viene pubblicato quando il precedente è concluso
+		this.clock.advanceTo(START + 30 * HOUR);
+		Event event = publish(board, next);
+		
+		assertEquals(1, board.inviteUsers(event, Arrays.asList(participant, stranger)));
+		assertEquals(1, participant.getInvites().size());
+		assertSame(event, participant.getInvites().get(0).getEvent());
+		assertTrue(stranger.getInvites().isEmpty());
+	}
+	
+}
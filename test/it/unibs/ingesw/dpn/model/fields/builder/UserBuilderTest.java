@@ -0,0 +1,81 @@
+package it.unibs.ingesw.dpn.model.fields.builder;
+
+import static org.junit.Assert.*;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.categories.Category;
+import it.unibs.ingesw.dpn.model.fields.FieldCompatibilityException;
+import it.unibs.ingesw.dpn.model.fields.UserField;
+import it.unibs.ingesw.dpn.model.fieldvalues.CategoryListFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.LocalDateFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.StringFieldValue;
+import it.unibs.ingesw.dpn.model.users.User;
+
+public class UserBuilderTest {
+	
+	@Test
+	public void headlessCreationTest() throws Exception {
+		
+		UserBuilder builder = new UserBuilder();
+		builder.startCreation();
+		builder.setFieldValue(UserField.NICKNAME, new StringFieldValue("mario"));
+		builder.setFieldValue(UserField.DATA_DI_NASCITA, "1990-05-12");
+		builder.setFieldValue(UserField.CATEGORIE_DI_INTERESSE, "CONFERENZA");
+		
+		assertTrue(builder.verifyMandatoryFields());
+		User user = (User) builder.finalise();
+		
+		assertTrue(builder.isReady());
+		assertEquals("mario", user.getNickname());
+		assertEquals(LocalDate.of(1990, 5, 12),
+				((LocalDateFieldValue) user.getFieldValue(UserField.DATA_DI_NASCITA)).getLocalDate());
+		assertTrue(((CategoryListFieldValue) user.getFieldValue(UserField.CATEGORIE_DI_INTERESSE))
+				.contains(Category.CONFERENZA));
+	}
+	
+	@Test
+	public void headlessCreation_appliesCompatibilityChecks() {
+		
+		UserBuilder builder = new UserBuilder();
+		builder.startCreation();
+		
+		// Una data futura viene rifiutata come nell'acquisizione interattiva, senza modificare l'utente
+		String future = LocalDate.now().plusYears(1).toString();
+		FieldCompatibilityException ex = assertThrows(FieldCompatibilityException.class,
+				() -> builder.setFieldValue(UserField.DATA_DI_NASCITA, future));
+		assertTrue(ex.getMessage().startsWith("Campo \"" + UserField.DATA_DI_NASCITA.getName() + "\""));
+		assertNull(builder.getProvisionalFieldValues().get(UserField.DATA_DI_NASCITA));
+	}
+	
+	@Test
+	public void headlessCreation_whenMalformedText() {
+		
+		UserBuilder builder = new UserBuilder();
+		builder.startCreation();
+		
+		assertThrows(IllegalArgumentException.class,
+				() -> builder.setFieldValue(UserField.DATA_DI_NASCITA, "12/05/1990"));
+	}
+	
+	@Test
+	public void headlessCreation_whenReady() {
+		
+		UserBuilder builder = new UserBuilder();
+		
+		assertThrows(IllegalStateException.class,
+				() -> builder.setFieldValue(UserField.NICKNAME, new StringFieldValue("mario")));
+	}
+	
+	@Test
+	public void acquireFieldValue_whenHeadless() {
+		
+		UserBuilder builder = new UserBuilder();
+		builder.startCreation();
+		
+		assertThrows(IllegalStateException.class, () -> builder.acquireFieldValue(UserField.NICKNAME));
+	}
+	
+}
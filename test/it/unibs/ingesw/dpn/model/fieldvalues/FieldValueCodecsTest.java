@@ -0,0 +1,129 @@
+package it.unibs.ingesw.dpn.model.fieldvalues;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.categories.Category;
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fields.ConferenceField;
+import it.unibs.ingesw.dpn.model.fields.UserField;
+
+public class FieldValueCodecsTest {
+	
+	private static <T extends FieldValue> T binaryRoundTrip(FieldValueCodec<T> codec, T value) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		codec.write(value, new DataOutputStream(bytes));
+		return codec.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+	}
+	
+	@Test
+	public void textRoundTripTest() {
+		
+		String [] texts = {
+				"2050-01-31T21:30:00Z",
+				"PT1H30M",
+				"12.50",
+				"3;7",
+				"PARTITA_DI_CALCIO;CONFERENZA",
+				"Pranzo=15.00;Cena=22.50"};
+		List<FieldValueCodec<?>> codecs = Arrays.asList(
+				FieldValueCodecs.DATE,
+				FieldValueCodecs.TIME_AMOUNT,
+				FieldValueCodecs.MONEY_AMOUNT,
+				FieldValueCodecs.INTEGER_INTERVAL,
+				FieldValueCodecs.CATEGORY_LIST,
+				FieldValueCodecs.OPTIONAL_COSTS);
+		
+		for (int i = 0; i < texts.length; i++) {
+			assertEquals(texts[i], FieldValueCodecs.format(codecs.get(i).parse(texts[i])));
+		}
+	}
+	
+	@Test
+	public void dateText_doesNotDependOnTimeZone() {
+		
+		assertEquals(0L, FieldValueCodecs.DATE.parse("1970-01-01T01:00+01:00").getValue().getTime());
+		assertEquals("1970-01-01T00:00:00Z", FieldValueCodecs.format(new DateFieldValue(0L)));
+	}
+	
+	@Test
+	public void textRoundTrip_whenNamesContainSeparators() {
+		
+		OptionalCostsFieldValue costs = new OptionalCostsFieldValue();
+		costs.addEntry("Pranzo; bevande", 1500);
+		costs.addEntry("Cena \\ dolce", 2250);
+		
+		String text = FieldValueCodecs.format(costs);
+		
+		assertEquals("Pranzo\\; bevande=15.00;Cena \\\\ dolce=22.50", text);
+		assertEquals(costs.getValue(), FieldValueCodecs.OPTIONAL_COSTS.parse(text).getValue());
+		assertEquals(Arrays.asList("a;b", "c"), FieldValueCodecs.parseList("a\\;b;c"));
+		assertThrows(IllegalArgumentException.class, () -> FieldValueCodecs.OPTIONAL_COSTS.parse("Pranzo=15.00\\"));
+	}
+	
+	@Test
+	public void parseByFieldTest() {
+		
+		FieldValue value = FieldValueCodecs.parse(CommonField.QUOTA_INDIVIDUALE, "0.10");
+		
+		assertEquals(10, ((MoneyAmountFieldValue) value).getCents());
+		assertEquals(UserField.DATA_DI_NASCITA.getType(),
+				FieldValueCodecs.parse(UserField.DATA_DI_NASCITA, "1990-05-12").getClass());
+	}
+	
+	@Test
+	public void parse_whenMalformed() {
+		
+		assertThrows(IllegalArgumentException.class, () -> FieldValueCodecs.DATE.parse("domani"));
+		assertThrows(IllegalArgumentException.class, () -> FieldValueCodecs.DATE.parse("2050-01-31T21:30"));
+		assertThrows(IllegalArgumentException.class, () -> FieldValueCodecs.INTEGER_INTERVAL.parse("3"));
+		assertThrows(IllegalArgumentException.class, () -> FieldValueCodecs.MONEY_AMOUNT.parse("0.001"));
+		assertThrows(IllegalArgumentException.class, () -> FieldValueCodecs.TIME_AMOUNT.parse("-PT1H"));
+		assertThrows(IllegalArgumentException.class, () -> FieldValueCodecs.CATEGORY_LIST.parse("CONCERTO"));
+	}
+	
+	@Test
+	public void binaryRoundTripTest() throws IOException {
+		
+		assertEquals("Conferenza \"ä\"", binaryRoundTrip(FieldValueCodecs.STRING, new StringFieldValue("Conferenza \"ä\"")).toString());
+		assertEquals(-5, binaryRoundTrip(FieldValueCodecs.INTEGER, new IntegerFieldValue(-5)).getValue());
+		assertEquals(123456789L, binaryRoundTrip(FieldValueCodecs.DATE, new DateFieldValue(123456789L)).getValue().getTime());
+		assertEquals(LocalDate.of(1990, 5, 12),
+				binaryRoundTrip(FieldValueCodecs.LOCAL_DATE, new LocalDateFieldValue(LocalDate.of(1990, 5, 12))).getLocalDate());
+		assertEquals(5400, binaryRoundTrip(FieldValueCodecs.TIME_AMOUNT, TimeAmountFieldValue.ofSeconds(5400)).getSeconds());
+		assertEquals(1250, binaryRoundTrip(FieldValueCodecs.MONEY_AMOUNT, MoneyAmountFieldValue.ofCents(1250)).getCents());
+		
+		IntegerIntervalFieldValue interval = binaryRoundTrip(FieldValueCodecs.INTEGER_INTERVAL, new IntegerIntervalFieldValue(3, 7));
+		assertEquals(3, interval.getMin());
+		assertEquals(7, interval.getMax());
+		
+		CategoryListFieldValue categories = new CategoryListFieldValue();
+		categories.addCategory(Category.PARTITA_DI_CALCIO);
+		categories = binaryRoundTrip(FieldValueCodecs.CATEGORY_LIST, categories);
+		assertTrue(categories.contains(Category.PARTITA_DI_CALCIO));
+		assertFalse(categories.contains(Category.CONFERENZA));
+		
+		OptionalCostsFieldValue costs = new OptionalCostsFieldValue();
+		costs.addEntry("Pranzo", 1500);
+		costs.addEntry("Cena", 2250);
+		assertEquals(costs.getValue(), binaryRoundTrip(FieldValueCodecs.OPTIONAL_COSTS, costs).getValue());
+	}
+	
+	@Test
+	public void forType_whenUnsupported() {
+		
+		assertThrows(IllegalArgumentException.class, () -> FieldValueCodecs.forType(FieldValue.class));
+		assertSame(FieldValueCodecs.OPTIONAL_COSTS, FieldValueCodecs.forField(ConferenceField.SPESE_OPZIONALI));
+	}
+	
+}
@@ -0,0 +1,76 @@
+package it.unibs.ingesw.dpn.model.fieldvalues;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.text.DecimalFormatSymbols;
+
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.users.User;
+
+public class MoneyAmountTest {
+	
+	private static final char SEPARATOR = DecimalFormatSymbols.getInstance().getDecimalSeparator();
+	
+	@Test
+	public void floatIsRoundedToNearestCent() {
+		
+		assertEquals(10L, MoneyAmount.fromFloat(0.1f));
+		assertEquals(1999L, MoneyAmount.fromFloat(19.99f));
+		assertEquals(-250L, MoneyAmount.fromFloat(-2.5f));
+		
+	}
+	
+	@Test
+	public void sumIsExact() {
+		
+		// Con i float, la somma di dieci volte 0.10 non restituisce esattamente 1.00
+		long total = MoneyAmount.ZERO;
+		for (int i = 0; i < 10; i++) {
+			total = MoneyAmount.add(total, MoneyAmount.fromFloat(0.1f));
+		}
+		
+		assertEquals(100L, total);
+		assertEquals(600L, MoneyAmount.add(MoneyAmount.add(100L, 200L), 300L));
+		
+	}
+	
+	@Test
+	public void overflowIsDetected() {
+		
+		assertThrows(IllegalArgumentException.class, () -> {
+			MoneyAmount.add(Long.MAX_VALUE, 1L);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			MoneyAmount.multiply(Long.MAX_VALUE, 2L);
+		});
+		
+	}
+	
+	@Test
+	public void formattingTest() {
+		
+		assertEquals("12" + SEPARATOR + "05 €", MoneyAmount.toString(1205L));
+		assertEquals("0" + SEPARATOR + "00 €", MoneyAmount.toString(0L));
+		assertEquals("-0" + SEPARATOR + "50 €", MoneyAmount.toString(-50L));
+		assertEquals("12" + SEPARATOR + "05 €", MoneyAmountFieldValue.ofCents(1205L).toString());
+		
+	}
+	
+	@Test
+	public void optionalCostsExpensesAreExact() {
+		
+		User user = mock(User.class);
+		OptionalCostsFieldValue costs = new OptionalCostsFieldValue();
+		costs.addEntry("Pranzo", 1010L);
+		costs.addEntry("Cena", 2020L);
+		costs.addEntry("Gadget", 330L);
+		costs.registerUserToCost(user, "Pranzo");
+		costs.registerUserToCost(user, "Gadget");
+		
+		assertEquals(1340L, costs.getExpensesForUser(user));
+		
+	}
+
+}
@@ -0,0 +1,97 @@
+package it.unibs.ingesw.dpn.model.fieldvalues;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.users.User;
+
+public class OptionalCostsFieldValueTest {
+	
+	private OptionalCostsFieldValue costs;
+	private User user1;
+	private User user2;
+	
+	@Before
+	public void buildTestValue() {
+		
+		this.user1 = mock(User.class);
+		this.user2 = mock(User.class);
+		
+		this.costs = new OptionalCostsFieldValue();
+		this.costs.addEntry("Pranzo", 1500L);
+		this.costs.addEntry("Cena", 2500L);
+		
+	}
+	
+	@Test
+	public void userHasCost_onlyWhenRegistered() {
+		
+		costs.registerUserToCost(user1, "Pranzo");
+		
+		assertTrue(costs.userHasCost(user1, "Pranzo"));
+		assertFalse(costs.userHasCost(user1, "Cena"));
+		assertFalse(costs.userHasCost(user2, "Pranzo"));
+		
+	}
+	
+	@Test
+	public void expensesAreZero_whenUserHasNoChoices() {
+		
+		assertEquals(0L, costs.getExpensesForUser(user1));
+		
+	}
+	
+	@Test
+	public void removeUserFromCostTest() {
+		
+		costs.registerUserToCost(user1, "Pranzo");
+		costs.registerUserToCost(user1, "Cena");
+		costs.removeUserFromCost(user1, "Pranzo");
+		
+		assertFalse(costs.userHasCost(user1, "Pranzo"));
+		assertEquals(2500L, costs.getExpensesForUser(user1));
+		
+	}
+	
+	@Test
+	public void forgottenSlotIsReused_withoutLeakingChoices() {
+		
+		costs.registerUserToCost(user1, "Pranzo");
+		costs.registerUserToCost(user1, "Cena");
+		costs.forgetUserCustomization(user1);
+		
+		// Il nuovo utente riceve lo slot liberato, ma non le scelte precedenti
+		costs.registerUserToCost(user2, "Cena");
+		
+		assertEquals(0L, costs.getExpensesForUser(user1));
+		assertEquals(2500L, costs.getExpensesForUser(user2));
+		assertFalse(costs.userHasCost(user2, "Pranzo"));
+		
+	}
+	
+	@Test
+	public void reportsTest() {
+		
+		costs.registerUserToCost(user1, "Pranzo");
+		costs.registerUserToCost(user1, "Cena");
+		costs.registerUserToCost(user2, "Cena");
+		
+		assertEquals(1, costs.getUptakeForCost("Pranzo"));
+		assertEquals(2, costs.getUptakeForCost("Cena"));
+		assertEquals(6500L, costs.getTotalExpenses());
+		
+	}
+	
+	@Test
+	public void unknownCostIsRejected() {
+		
+		assertThrows(IllegalArgumentException.class, () -> {
+			costs.getUptakeForCost("Colazione");
+		});
+		
+	}
+
+}
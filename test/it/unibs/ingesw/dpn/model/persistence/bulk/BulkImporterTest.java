@@ -0,0 +1,177 @@
+package it.unibs.ingesw.dpn.model.persistence.bulk;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.bus.EventPublished;
+import it.unibs.ingesw.dpn.model.categories.Category;
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.events.EventBoard;
+import it.unibs.ingesw.dpn.model.events.EventState;
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fields.ConferenceField;
+import it.unibs.ingesw.dpn.model.fields.UserField;
+import it.unibs.ingesw.dpn.model.fieldvalues.CategoryListFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.LocalDateFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.MoneyAmountFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.OptionalCostsFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.TimeAmountFieldValue;
+import it.unibs.ingesw.dpn.model.persistence.Model;
+import it.unibs.ingesw.dpn.model.users.User;
+import it.unibs.ingesw.dpn.model.users.UsersRepository;
+
+public class BulkImporterTest {
+	
+	private static final String USERS_JSONL = 
+			  "{\"NICKNAME\": \"anna\", \"DATA_DI_NASCITA\": \"1990-05-12\", \"CATEGORIE_DI_INTERESSE\": \"CONFERENZA\"}\n"
+			+ "\n"
+			+ "{\"NICKNAME\": \"bruno\"}\n"
+			+ "{\"NICKNAME\": \"anna\"}\n"
+			+ "{\"NICKNAME\": \"carla\", \"DATA_DI_NASCITA\": \"2100-01-01\"}\n"
+			+ "{\"DATA_DI_NASCITA\": \"1990-01-01\"}\n"
+			+ "{\"NICKNAME\": \"dario\", \"COLORE\": \"blu\"}\n";
+	
+	private static final String CONFERENCE = 
+			  "{\"CATEGORIA\": \"CONFERENZA\", \"CREATORE\": \"anna\", \"LUOGO\": \"Brescia\", "
+			+ "\"DATA_E_ORA\": \"2050-01-10T21:00Z\", \"DURATA\": \"PT1H30M\", "
+			+ "\"TERMINE_ULTIMO_DI_ISCRIZIONE\": \"2050-01-05T12:00Z\", \"NUMERO_DI_PARTECIPANTI\": \"10\", "
+			+ "\"QUOTA_INDIVIDUALE\": \"12.50\", \"RELATORI\": \"Rossi\", \"ARGOMENTO\": \"Java\", "
+			+ "\"SPESE_OPZIONALI\": \"Cena=20.00;Gadget=3.10\", \"ISCRITTI\": \"bruno\"}";
+	
+	private Model model;
+	
+	@Before
+	public void setUp() throws Exception {
+		this.model = new Model(new EventBoard(), new UsersRepository());
+		BulkReport report = new BulkImporter(this.model, 2).importUsers(new StringReader(USERS_JSONL), RecordFormat.JSONL);
+		assertEquals(6, report.getProcessed());
+		assertEquals(2, report.getAccepted());
+	}
+	
+	@Test
+	public void validUsersAreImported_andInvalidOnesReported() {
+		
+		UsersRepository users = this.model.getUsersRepository();
+		assertEquals(2, users.size());
+		assertEquals(LocalDate.of(1990, 5, 12), 
+				((LocalDateFieldValue) users.getUser("anna").getFieldValue(UserField.DATA_DI_NASCITA)).getLocalDate());
+		assertTrue(((CategoryListFieldValue) users.getUser("anna").getFieldValue(UserField.CATEGORIE_DI_INTERESSE))
+				.contains(Category.CONFERENZA));
+		assertNotNull(users.getUser("bruno"));
+		
+	}
+	
+	@Test
+	public void rejectedUsersAreReportedWithLineNumber() throws Exception {
+		
+		UsersRepository users = new UsersRepository();
+		users.addUser(this.model.getUsersRepository().getUser("anna"));
+		BulkReport report = new BulkImporter(new Model(new EventBoard(), users))
+				.importUsers(new StringReader(USERS_JSONL), RecordFormat.JSONL);
+		
+		assertEquals(5, report.getRejected());
+		assertTrue(report.getErrors().get(0).startsWith("Riga 1:"));
+		assertTrue(report.getErrors().get(2).startsWith("Riga 5:"));
+		
+	}
+	
+	@Test
+	public void eventIsImportedWithSameValidationAsBuilder() throws Exception {
+		
+		BulkReport report = new BulkImporter(this.model).importEvents(new StringReader(CONFERENCE), RecordFormat.JSONL);
+		
+		assertEquals(1, report.getAccepted());
+		Event event = this.model.getEventBoard().getEvents().get(0);
+		assertEquals(EventState.OPEN, event.getState());
+		assertEquals(1250L, ((MoneyAmountFieldValue) event.getFieldValue(CommonField.QUOTA_INDIVIDUALE)).getCents());
+		assertEquals(5400L, ((TimeAmountFieldValue) event.getFieldValue(CommonField.DURATA)).getSeconds());
+		// Valori propagati e valori di default
+		assertNotNull(event.getFieldValue(CommonField.DATA_E_ORA_CONCLUSIVE));
+		assertNotNull(event.getFieldValue(CommonField.TITOLO));
+		assertEquals(Long.valueOf(310L), 
+				((OptionalCostsFieldValue) event.getFieldValue(ConferenceField.SPESE_OPZIONALI)).getValue().get("Gadget"));
+		// Creatore iscritto alla pubblicazione, più l'iscritto indicato
+		assertEquals(2, event.getSubscribers().size());
+		
+	}
+	
+	@Test
+	public void bulkLoadSendsNoNotifications_andReportsSkippedSubscribers() throws Exception {
+		
+		UsersRepository users = this.model.getUsersRepository();
+		User anna = users.getUser("anna");
+		User bruno = users.getUser("bruno");
+		List<EventPublished> facts = new ArrayList<>();
+		this.model.getEventBoard().getEventBus().addListener(EventPublished.class, facts::add);
+		
+		// Il creatore è già iscritto, e bruno compare due volte
+		String repeated = CONFERENCE.replace("\"ISCRITTI\": \"bruno\"", "\"ISCRITTI\": \"bruno;anna;bruno\"");
+		BulkReport report = new BulkImporter(this.model).importEvents(new StringReader(repeated), RecordFormat.JSONL);
+		
+		assertEquals(1, report.getAccepted());
+		assertEquals(2, report.getWarningCount());
+		assertTrue(report.getWarnings().get(0).startsWith("Riga 1:"));
+		assertTrue(report.getWarnings().get(0).contains("\"anna\""));
+		assertTrue(report.toString().contains("\"bruno\""));
+		
+		Event event = this.model.getEventBoard().getEvents().get(0);
+		assertTrue(event.hasSubscriber(bruno));
+		assertTrue(anna.getNotifications().isEmpty());
+		assertTrue(bruno.getNotifications().isEmpty());
+		assertEquals(1, facts.size());
+		assertTrue(facts.get(0).isBulkLoad());
+		
+	}
+	
+	@Test
+	public void incompatibleEventIsRejected() throws Exception {
+		
+		String pastEvent = CONFERENCE.replace("2050-01-10T21:00Z", "2000-01-10T21:00Z");
+		String lateSubscriptions = CONFERENCE.replace("2050-01-05T12:00Z", "2050-02-05T12:00Z");
+		String unknownCreator = CONFERENCE.replace("\"anna\"", "\"zeno\"");
+		String missingMandatory = CONFERENCE.replace("\"LUOGO\": \"Brescia\", ", "");
+		
+		BulkReport report = new BulkImporter(this.model).importEvents(new StringReader(
+				pastEvent + "\n" + lateSubscriptions + "\n" + unknownCreator + "\n" + missingMandatory), RecordFormat.JSONL);
+		
+		assertEquals(4, report.getRejected());
+		assertTrue(this.model.getEventBoard().isEmpty());
+		
+	}
+	
+	@Test
+	public void exportedRecordsCanBeImportedAgain() throws Exception {
+		
+		new BulkImporter(this.model).importEvents(new StringReader(CONFERENCE), RecordFormat.JSONL);
+		
+		for (RecordFormat format : RecordFormat.values()) {
+			StringWriter users = new StringWriter();
+			StringWriter events = new StringWriter();
+			BulkExporter exporter = new BulkExporter(this.model);
+			assertEquals(2, exporter.exportUsers(users, format).getAccepted());
+			assertEquals(1, exporter.exportEvents(events, format, null).getAccepted());
+			
+			Model copy = new Model(new EventBoard(), new UsersRepository());
+			BulkImporter importer = new BulkImporter(copy);
+			assertEquals(2, importer.importUsers(new StringReader(users.toString()), format).getAccepted());
+			assertEquals(1, importer.importEvents(new StringReader(events.toString()), format).getAccepted());
+			
+			Event original = this.model.getEventBoard().getEvents().get(0);
+			Event imported = copy.getEventBoard().getEvents().get(0);
+			for (CommonField f : CommonField.values()) {
+				assertEquals(String.valueOf(original.getFieldValue(f)), String.valueOf(imported.getFieldValue(f)));
+			}
+			assertEquals(original.getSubscribers().size(), imported.getSubscribers().size());
+		}
+		
+	}
+
+}
@@ -0,0 +1,79 @@
+package it.unibs.ingesw.dpn.model.persistence.bulk;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class RecordFormatTest {
+	
+	private static final List<String> COLUMNS = Arrays.asList("A", "B", "C");
+	
+	@Test
+	public void jsonlRecordIsDecodedAsEncoded() {
+		
+		Map<String, String> record = new LinkedHashMap<>();
+		record.put("A", "valore \"tra apici\", con virgola");
+		record.put("C", "a capo\ne \\ barra");
+		
+		String line = RecordFormat.JSONL.encode(record, COLUMNS);
+		
+		assertFalse(line.contains("\n"));
+		assertEquals(record, RecordFormat.JSONL.decode(line, null));
+		
+	}
+	
+	@Test
+	public void jsonlNullsAndLiteralsAreAccepted() {
+		
+		Map<String, String> record = RecordFormat.JSONL.decode("{ \"A\" : 12, \"B\": null, \"C\": \"\\u00e8\" }", null);
+		
+		assertEquals("12", record.get("A"));
+		assertFalse(record.containsKey("B"));
+		assertEquals("è", record.get("C"));
+		
+	}
+	
+	@Test
+	public void malformedJsonlIsRejected() {
+		
+		assertThrows(IllegalArgumentException.class, () -> RecordFormat.JSONL.decode("{\"A\": \"aperto", null));
+		assertThrows(IllegalArgumentException.class, () -> RecordFormat.JSONL.decode("{\"A\": \"x\"} altro", null));
+		
+	}
+	
+	@Test
+	public void csvRecordIsDecodedAsEncoded() {
+		
+		Map<String, String> record = new LinkedHashMap<>();
+		record.put("A", "semplice");
+		record.put("B", "con, virgola e \"apici\"");
+		
+		String header = RecordFormat.CSV.encodeHeader(COLUMNS);
+		String line = RecordFormat.CSV.encode(record, COLUMNS);
+		
+		assertEquals(COLUMNS, RecordFormat.CSV.decodeHeader(header));
+		assertEquals(record, RecordFormat.CSV.decode(line, COLUMNS));
+		
+	}
+	
+	@Test
+	public void csvLineWithWrongColumnCountIsRejected() {
+		
+		assertThrows(IllegalArgumentException.class, () -> RecordFormat.CSV.decode("uno,due", COLUMNS));
+		
+	}
+	
+	@Test
+	public void formatIsChosenByExtension() {
+		
+		assertEquals(RecordFormat.CSV, RecordFormat.forFileName("utenti.CSV"));
+		assertEquals(RecordFormat.JSONL, RecordFormat.forFileName("utenti.jsonl"));
+		
+	}
+
+}
@@ -0,0 +1,195 @@
+package it.unibs.ingesw.dpn.model.readmodel;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.categories.Category;
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.events.EventBoard;
+import it.unibs.ingesw.dpn.model.events.EventState;
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fields.ConferenceField;
+import it.unibs.ingesw.dpn.model.fields.UserField;
+import it.unibs.ingesw.dpn.model.fields.builder.EventBuilder;
+import it.unibs.ingesw.dpn.model.fieldvalues.DateFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.IntegerFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.MoneyAmountFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.StringFieldValue;
+import it.unibs.ingesw.dpn.model.time.Clocks;
+import it.unibs.ingesw.dpn.model.users.User;
+
+public class BoardReadModelTest {
+
+	private EventBoard board;
+	private User anna;
+	private User bruno;
+
+	private static User user(String nickname) {
+		User user = new User();
+		user.setFieldValue(UserField.NICKNAME, new StringFieldValue(nickname));
+		return user;
+	}
+
+	private Event publish(User creator, String title, int capacity) throws Exception {
+		long deadline = Clocks.current().currentTimeMillis() + TimeUnit.DAYS.toMillis(7);
+
+		EventBuilder builder = new EventBuilder();
+		builder.startCreation(creator, Category.CONFERENZA);
+		builder.setFieldValue(CommonField.TITOLO, new StringFieldValue(title));
+		builder.setFieldValue(CommonField.LUOGO, new StringFieldValue("Brescia"));
+		builder.setFieldValue(CommonField.DATA_E_ORA, new DateFieldValue(deadline + TimeUnit.DAYS.toMillis(1)));
+		builder.setFieldValue(CommonField.TERMINE_ULTIMO_DI_ISCRIZIONE, new DateFieldValue(deadline));
+		builder.setFieldValue(CommonField.NUMERO_DI_PARTECIPANTI, new IntegerFieldValue(capacity));
+		builder.setFieldValue(CommonField.QUOTA_INDIVIDUALE, MoneyAmountFieldValue.ofCents(1000));
+		builder.setFieldValue(ConferenceField.RELATORI, new StringFieldValue(creator.getNickname()));
+		builder.setFieldValue(ConferenceField.ARGOMENTO, new StringFieldValue(title));
+		Event event = (Event) builder.finalise();
+		assertTrue(this.board.addEvent(event));
+		return event;
+	}
+
+	@Before
+	public void setUp() {
+		this.board = new EventBoard();
+		this.anna = user("anna");
+		this.bruno = user("bruno");
+	}
+
+	@Test
+	public void existingEvents_areTrackedOnCreation() throws Exception {
+		Event first = this.publish(this.anna, "Primo", 10);
+		Event second = this.publish(this.bruno, "Secondo", 10);
+		first.subscribe(this.bruno);
+
+		BoardReadModel readModel = this.board.getReadModel();
+
+		assertEquals(Arrays.asList(first, second), readModel.getEventsByState(EventState.OPEN));
+		assertEquals(Arrays.asList(first), readModel.getProposals(this.anna));
+		assertEquals(Arrays.asList(second), readModel.getProposals(this.bruno));
+		// Il creatore non compare fra gli iscritti
+		assertEquals(Arrays.asList(first), readModel.getSubscriptions(this.bruno));
+		assertTrue(readModel.getSubscriptions(this.anna).isEmpty());
+		assertSame(readModel, this.board.getReadModel());
+	}
+
+	@Test
+	public void lists_followBoardChanges() throws Exception {
+		BoardReadModel readModel = this.board.getReadModel();
+
+		Event first = this.publish(this.anna, "Primo", 10);
+		Event second = this.publish(this.anna, "Secondo", 10);
+		second.subscribe(this.bruno);
+		first.subscribe(this.bruno);
+
+		assertEquals(this.board.getEventsByState(EventState.OPEN), readModel.getEventsByState(EventState.OPEN));
+		assertEquals(this.board.getEventsByAuthor(this.anna), readModel.getProposals(this.anna));
+		// Le iscrizioni sono nell'ordine di pubblicazione, non di iscrizione
+		assertEquals(this.board.getOpenSubscriptionsNotProposedByUser(this.bruno), readModel.getSubscriptions(this.bruno));
+		assertEquals(Arrays.asList(first, second), readModel.getSubscriptions(this.bruno));
+
+		second.unsubscribe(this.bruno);
+		assertEquals(Arrays.asList(first), readModel.getSubscriptions(this.bruno));
+
+		first.unsubscribe(this.bruno);
+		assertTrue(this.board.removeEvent(first));
+		assertEquals(Arrays.asList(second), readModel.getEventsByState(EventState.OPEN));
+		assertEquals(Arrays.asList(second), readModel.getProposals(this.anna));
+		assertTrue(readModel.getSubscriptions(this.bruno).isEmpty());
+		assertTrue(readModel.getEventsByState(EventState.WITHDRAWN).isEmpty());
+	}
+
+	@Test
+	public void returnedLists_areImmutableSnapshots() throws Exception {
+		BoardReadModel readModel = this.board.getReadModel();
+		Event first = this.publish(this.anna, "Primo", 10);
+
+		List<Event> before = readModel.getEventsByState(EventState.OPEN);
+		assertSame(before, readModel.getEventsByState(EventState.OPEN));
+		assertThrows(UnsupportedOperationException.class, () -> before.add(first));
+
+		Event second = this.publish(this.anna, "Secondo", 10);
+		// La lista ottenuta in precedenza non viene modificata
+		assertEquals(Arrays.asList(first), before);
+		assertEquals(Arrays.asList(first, second), readModel.getEventsByState(EventState.OPEN));
+
+		assertTrue(readModel.getEventsByState("Inesistente").isEmpty());
+		assertTrue(readModel.getSubscriptions(null).isEmpty());
+	}
+
+	@Test
+	public void longLists_spanningManyChunks_followBoardChanges() throws Exception {
+		BoardReadModel readModel = this.board.getReadModel();
+		int count = 3 * ChunkedList.MAX_CHUNK_SIZE;
+		List<Event> events = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			events.add(this.publish(this.anna, "Evento " + i, 10));
+		}
+		// Iscrizioni in ordine inverso rispetto alla pubblicazione
+		for (int i = count - 1; i >= 0; i--) {
+			events.get(i).subscribe(this.bruno);
+		}
+		for (int i = 0; i < count; i += 3) {
+			events.get(i).unsubscribe(this.bruno);
+			assertTrue(this.board.removeEvent(events.get(i)));
+		}
+
+		assertEquals(this.board.getEventsByState(EventState.OPEN), readModel.getEventsByState(EventState.OPEN));
+		assertEquals(this.board.getEventsByAuthor(this.anna), readModel.getProposals(this.anna));
+		assertEquals(this.board.getOpenSubscriptionsNotProposedByUser(this.bruno), readModel.getSubscriptions(this.bruno));
+		assertEquals(2 * count / 3, readModel.getSubscriptions(this.bruno).size());
+	}
+
+	@Test
+	public void concurrentSubscriptions_areAllProjected() throws Exception {
+		BoardReadModel readModel = this.board.getReadModel();
+		List<Event> events = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			events.add(this.publish(this.anna, "Evento " + i, 200));
+		}
+		List<User> users = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			users.add(user("utente" + i));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			for (User user : users) {
+				results.add(executor.submit(() -> {
+					for (Event event : events) {
+						event.subscribe(user);
+						// Le letture concorrenti restituiscono sempre liste consistenti
+						assertFalse(readModel.getEventsByState(EventState.OPEN).isEmpty());
+					}
+					// Metà degli utenti si disiscrive dagli eventi di indice pari
+					if (users.indexOf(user) % 2 == 0) {
+						for (int i = 0; i < events.size(); i += 2) {
+							events.get(i).unsubscribe(user);
+						}
+					}
+				}));
+			}
+			for (Future<?> result : results) {
+				result.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		for (User user : users) {
+			assertEquals(this.board.getOpenSubscriptionsNotProposedByUser(user), readModel.getSubscriptions(user));
+		}
+	}
+
+}
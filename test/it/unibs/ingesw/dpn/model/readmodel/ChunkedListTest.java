@@ -0,0 +1,67 @@
+package it.unibs.ingesw.dpn.model.readmodel;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ChunkedListTest {
+
+	@Test
+	public void insertAndDelete_matchArrayList() {
+		Random random = new Random(42);
+		List<Integer> expected = new ArrayList<>();
+		ChunkedList<Integer> list = ChunkedList.empty();
+
+		for (int i = 0; i < 5000; i++) {
+			if (expected.isEmpty() || random.nextInt(3) > 0) {
+				int index = random.nextInt(expected.size() + 1);
+				expected.add(index, i);
+				list = list.insert(index, i);
+			}
+			else {
+				int index = random.nextInt(expected.size());
+				expected.remove(index);
+				list = list.delete(index);
+			}
+			assertEquals(expected.size(), list.size());
+		}
+		assertEquals(expected, list);
+		assertEquals(expected, new ArrayList<>(list));
+	}
+
+	@Test
+	public void modifications_leaveOriginalUnchanged() {
+		ChunkedList<Integer> original = ChunkedList.empty();
+		for (int i = 0; i < 3 * ChunkedList.MAX_CHUNK_SIZE; i++) {
+			original = original.insert(i, i);
+		}
+		List<Integer> snapshot = new ArrayList<>(original);
+
+		ChunkedList<Integer> inserted = original.insert(10, -1);
+		ChunkedList<Integer> deleted = original.delete(0);
+
+		assertEquals(snapshot, original);
+		assertEquals(Integer.valueOf(-1), inserted.get(10));
+		assertEquals(original.size() + 1, inserted.size());
+		assertEquals(snapshot.subList(1, snapshot.size()), deleted);
+	}
+
+	@Test
+	public void list_isImmutableAndChecksIndexes() {
+		ChunkedList<String> list = ChunkedList.<String>empty().insert(0, "a").insert(1, "b");
+
+		assertEquals(Arrays.asList("a", "b"), list);
+		assertThrows(UnsupportedOperationException.class, () -> list.add("c"));
+		assertThrows(UnsupportedOperationException.class, () -> list.remove(0));
+		assertThrows(IndexOutOfBoundsException.class, () -> list.get(2));
+		assertThrows(IndexOutOfBoundsException.class, () -> list.insert(3, "c"));
+		assertThrows(IndexOutOfBoundsException.class, () -> list.delete(-1));
+		assertTrue(ChunkedList.empty().isEmpty());
+	}
+
+}
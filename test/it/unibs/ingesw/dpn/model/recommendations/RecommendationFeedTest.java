@@ -0,0 +1,267 @@
+package it.unibs.ingesw.dpn.model.recommendations;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.bus.UserSubscribed;
+import it.unibs.ingesw.dpn.model.bus.UserUnsubscribed;
+import it.unibs.ingesw.dpn.model.categories.Category;
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.events.EventBoard;
+import it.unibs.ingesw.dpn.model.events.EventState;
+import it.unibs.ingesw.dpn.model.fields.UserField;
+import it.unibs.ingesw.dpn.model.fieldvalues.CategoryListFieldValue;
+import it.unibs.ingesw.dpn.model.users.User;
+
+public class RecommendationFeedTest {
+	
+	private User user;
+	private User creator;
+	private EventBoard board;
+	
+	private Event mockEvent(Category category, String state, User ... subscribers) {
+		Event event = mock(Event.class);
+		when(event.canBePublished()).thenReturn(true);
+		when(event.getCategory()).thenReturn(category);
+		when(event.getState()).thenReturn(state);
+		when(event.getCreator()).thenReturn(this.creator);
+		List<User> subscribersList = new ArrayList<>(Arrays.asList(subscribers));
+		when(event.getSubscribers()).thenReturn(subscribersList);
+		when(event.hasSubscriber(any(User.class))).thenAnswer(invocation -> subscribersList.contains(invocation.getArgument(0)));
+		this.board.addEvent(event);
+		return event;
+	}
+	
+	@Before
+	public void setUp() {
+		
+		this.creator = mock(User.class);
+		this.user = mock(User.class);
+		CategoryListFieldValue interests = new CategoryListFieldValue();
+		interests.addCategory(Category.CONFERENZA);
+		when(this.user.getFieldValue(UserField.CATEGORIE_DI_INTERESSE)).thenReturn(interests);
+		
+		this.board = new EventBoard();
+		
+	}
+	
+	@After
+	public void closeBoard() {
+		this.board.close();
+	}
+	
+	@Test
+	public void interestingCategoryComesFirst() {
+		
+		Event match = mockEvent(Category.PARTITA_DI_CALCIO, EventState.OPEN);
+		Event conference = mockEvent(Category.CONFERENZA, EventState.OPEN);
+		
+		List<Event> feed = board.getRecommendationFeed().getFeed(user, 10);
+		
+		assertEquals(Arrays.asList(conference, match), feed);
+		
+	}
+	
+	@Test
+	public void coParticipantsRaiseScore() {
+		
+		User friend = mock(User.class);
+		mockEvent(Category.PARTITA_DI_CALCIO, EventState.ENDED, user, friend);
+		Event withoutFriend = mockEvent(Category.PARTITA_DI_CALCIO, EventState.OPEN);
+		Event withFriend = mockEvent(Category.PARTITA_DI_CALCIO, EventState.OPEN, friend);
+		
+		List<Event> feed = board.getRecommendationFeed().getFeed(user, 10);
+		
+		assertEquals(Arrays.asList(withFriend, withoutFriend), feed);
+		
+	}
+	
+	@Test
+	public void feedIsUpdated_whenEventChanges() throws InterruptedException {
+		
+		Event conference = mockEvent(Category.CONFERENZA, EventState.OPEN);
+		RecommendationFeed feed = board.getRecommendationFeed();
+		assertEquals(Arrays.asList(conference), feed.getFeed(user, 10));
+		
+		// L'evento si chiude: non deve piu' essere consigliato
+		when(conference.getState()).thenReturn(EventState.CLOSED);
+		feed.onEventChange(conference);
+		assertTrue(feed.getFeed(user, 10).isEmpty());
+		
+		// Un nuovo evento pubblicato compare senza ricalcolo completo, dopo la consegna asincrona del fatto
+		Event newConference = mockEvent(Category.CONFERENZA, EventState.OPEN);
+		assertTrue(board.getEventBus().awaitAsyncDelivery(5000));
+		assertEquals(Collections.singletonList(newConference), feed.getFeed(user, 10));
+		
+	}
+	
+	@Test
+	public void subscribedEventsAreNotRecommended() {
+		
+		mockEvent(Category.CONFERENZA, EventState.OPEN, user);
+		Event other = mockEvent(Category.PARTITA_DI_CALCIO, EventState.OPEN);
+		
+		assertEquals(Arrays.asList(other), board.getRecommendationFeed().getFeed(user, 10));
+		assertTrue(board.getRecommendationFeed().getFeed(user, 0).isEmpty());
+		
+	}
+	
+	@Test
+	public void subscriptionsAreApplied_withoutReadingTheEvent() {
+		
+		User friend = mock(User.class);
+		mockEvent(Category.PARTITA_DI_CALCIO, EventState.ENDED, user, friend);
+		Event first = mockEvent(Category.PARTITA_DI_CALCIO, EventState.OPEN);
+		Event second = mockEvent(Category.PARTITA_DI_CALCIO, EventState.OPEN);
+		RecommendationFeed feed = board.getRecommendationFeed();
+		feed.getFeed(user, 10);
+		clearInvocations(first, second);
+		
+		// L'amico si iscrive al secondo evento, poi l'utente si iscrive al primo
+		feed.handle(new UserSubscribed(second, friend));
+		feed.handle(new UserSubscribed(first, user));
+		
+		assertEquals(Arrays.asList(second), feed.getFeed(user, 10));
+		// Né l'aggiornamento né la consultazione accedono agli eventi
+		verifyNoMoreInteractions(first, second);
+		
+		feed.handle(new UserUnsubscribed(first, user));
+		feed.handle(new UserUnsubscribed(second, friend));
+		assertEquals(2, feed.getFeed(user, 10).size());
+		
+	}
+	
+	@Test(timeout = 10000)
+	public void getFeed_doesNotWaitForEventLocks() throws InterruptedException {
+		
+		Event conference = mockEvent(Category.CONFERENZA, EventState.OPEN);
+		RecommendationFeed feed = board.getRecommendationFeed();
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		
+		// Un altro thread tiene il lock dell'evento, come durante un'iscrizione o un passaggio di stato
+		Thread holder = new Thread(() -> {
+			synchronized (conference) {
+				locked.countDown();
+				try {
+					release.await();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				feed.onEventChange(conference);
+			}
+		});
+		holder.start();
+		assertTrue(locked.await(5, TimeUnit.SECONDS));
+		
+		assertEquals(Arrays.asList(conference), feed.getFeed(user, 10));
+		
+		release.countDown();
+		holder.join();
+		
+	}
+	
+	@Test
+	public void ties_followTrackingOrder() {
+		
+		List<Event> events = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			events.add(mockEvent(Category.CONFERENZA, EventState.OPEN));
+		}
+		RecommendationFeed feed = board.getRecommendationFeed();
+		
+		assertEquals(events, feed.getFeed(user, 20));
+		assertEquals(events.subList(0, 5), feed.getFeed(user, 5));
+		
+	}
+	
+	@Test
+	public void cachedFeed_isRecomputedForLongerFeedsAndAfterChanges() {
+		
+		Event first = mockEvent(Category.CONFERENZA, EventState.OPEN);
+		Event second = mockEvent(Category.CONFERENZA, EventState.OPEN);
+		Event third = mockEvent(Category.PARTITA_DI_CALCIO, EventState.OPEN);
+		RecommendationFeed feed = board.getRecommendationFeed();
+		
+		assertEquals(Arrays.asList(first), feed.getFeed(user, 1));
+		assertEquals(Arrays.asList(first, second, third), feed.getFeed(user, 3));
+		assertEquals(Arrays.asList(first, second), feed.getFeed(user, 2));
+		
+		// L'utente si iscrive al primo evento, che non deve più essere consigliato
+		feed.handle(new UserSubscribed(first, user));
+		assertEquals(Arrays.asList(second, third), feed.getFeed(user, 3));
+		
+	}
+	
+	@Test
+	public void subscriptionChanges_invalidateOnlyAffectedFeeds() {
+		
+		User other = mock(User.class);
+		User subscriber = mock(User.class);
+		Event first = mockEvent(Category.CONFERENZA, EventState.OPEN);
+		Event second = mockEvent(Category.PARTITA_DI_CALCIO, EventState.OPEN);
+		RecommendationFeed feed = board.getRecommendationFeed();
+		
+		assertEquals(Arrays.asList(first), feed.getFeed(user, 1));
+		assertEquals(Arrays.asList(first), feed.getFeed(other, 1));
+		
+		// L'iscrizione ad un evento che non entra in alcuna bacheca non invalida le bacheche degli altri utenti
+		feed.handle(new UserSubscribed(second, subscriber));
+		assertTrue(feed.hasCachedFeed(user));
+		assertTrue(feed.hasCachedFeed(other));
+		
+		// L'iscrizione ad un evento presente nelle bacheche le invalida
+		feed.handle(new UserSubscribed(first, subscriber));
+		assertFalse(feed.hasCachedFeed(user));
+		assertFalse(feed.hasCachedFeed(other));
+		assertEquals(Arrays.asList(first), feed.getFeed(user, 1));
+		
+	}
+	
+	@Test
+	public void unsubscription_bringsTheEventBackIntoTheFeed() {
+		
+		Event first = mockEvent(Category.CONFERENZA, EventState.OPEN, user);
+		Event second = mockEvent(Category.CONFERENZA, EventState.OPEN);
+		RecommendationFeed feed = board.getRecommendationFeed();
+		
+		assertEquals(Arrays.asList(second), feed.getFeed(user, 1));
+		
+		// L'evento non è nella bacheca dell'utente, ma con la disiscrizione vi rientra al primo posto
+		feed.handle(new UserUnsubscribed(first, user));
+		assertEquals(Arrays.asList(first), feed.getFeed(user, 1));
+		
+	}
+	
+	@Test
+	public void newOpenEvent_invalidatesEveryFeed() {
+		
+		mockEvent(Category.PARTITA_DI_CALCIO, EventState.OPEN);
+		RecommendationFeed feed = board.getRecommendationFeed();
+		feed.getFeed(user, 5);
+		
+		Event added = mock(Event.class);
+		when(added.getCategory()).thenReturn(Category.CONFERENZA);
+		when(added.getState()).thenReturn(EventState.OPEN);
+		when(added.getCreator()).thenReturn(this.creator);
+		when(added.getSubscribers()).thenReturn(new ArrayList<>());
+		feed.track(added);
+		
+		assertFalse(feed.hasCachedFeed(user));
+		assertEquals(added, feed.getFeed(user, 5).get(0));
+		
+	}
+	
+}
@@ -0,0 +1,133 @@
+package it.unibs.ingesw.dpn.model.replication;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.events.EventState;
+import it.unibs.ingesw.dpn.model.persistence.Model;
+import it.unibs.ingesw.dpn.model.users.Notification;
+import it.unibs.ingesw.dpn.model.users.User;
+
+public class ChangeJournalTest {
+
+	private Model model;
+	private ChangeJournal journal;
+
+	@Before
+	public void createJournal() {
+		this.model = ReplicationFixture.emptyModel();
+		this.journal = new ChangeJournal(this.model);
+	}
+
+	@After
+	public void detachJournal() {
+		this.journal.detach();
+	}
+
+	private static Map<Class<?>, Integer> countByType(ChangeBatch batch) {
+		Map<Class<?>, Integer> counts = new HashMap<>();
+		for (ChangeRecord record : batch.getRecords()) {
+			counts.merge(record.getClass(), 1, Integer::sum);
+		}
+		return counts;
+	}
+
+	@Test
+	public void newCursor_containsTheWholeModel() throws Exception {
+		User anna = ReplicationFixture.register(this.model, "anna");
+		ReplicationFixture.register(this.model, "bruno");
+		Event event = ReplicationFixture.publish(this.model, anna, "Convegno");
+
+		ChangeJournal.Cursor cursor = this.journal.openCursor();
+		ChangeBatch batch = cursor.awaitBatch(0);
+
+		assertEquals(this.journal.getPosition(), batch.getPosition());
+		Map<Class<?>, Integer> counts = countByType(batch);
+		assertEquals(Integer.valueOf(1), counts.get(EventSnapshot.class));
+		assertEquals(Integer.valueOf(2), counts.get(MailboxSnapshot.class));
+		for (ChangeRecord record : batch.getRecords()) {
+			if (record instanceof EventSnapshot) {
+				EventSnapshot snapshot = (EventSnapshot) record;
+				assertEquals(this.journal.idOf(event), snapshot.getId());
+				assertEquals("Convegno", snapshot.getTitle());
+				assertEquals("anna", snapshot.getCreator());
+				assertEquals(EventState.OPEN, snapshot.getState());
+				assertEquals(event.toString(), snapshot.toString());
+			}
+		}
+
+		// Il gruppo successivo è vuoto
+		assertTrue(cursor.awaitBatch(0).isHeartbeat());
+	}
+
+	@Test
+	public void repeatedChanges_areCoalesced() throws Exception {
+		User anna = ReplicationFixture.register(this.model, "anna");
+		ChangeJournal.Cursor cursor = this.journal.openCursor();
+		cursor.awaitBatch(0);
+		long start = this.journal.getPosition();
+
+		for (int i = 0; i < 20; i++) {
+			anna.receive(new Notification("Messaggio " + i));
+		}
+
+		ChangeBatch batch = cursor.awaitBatch(0);
+		assertEquals(start + 20, batch.getPosition());
+		assertEquals(1, batch.getRecords().size());
+		MailboxSnapshot mailbox = (MailboxSnapshot) batch.getRecords().get(0);
+		assertEquals("anna", mailbox.getNickname());
+		assertEquals(20, mailbox.getNotifications().size());
+		assertEquals(20, mailbox.getUnreadNotifications());
+	}
+
+	@Test
+	public void removedEvent_isSentAsRemovalOnly() throws Exception {
+		User anna = ReplicationFixture.register(this.model, "anna");
+		ChangeJournal.Cursor cursor = this.journal.openCursor();
+		cursor.awaitBatch(0);
+
+		Event event = ReplicationFixture.publish(this.model, anna, "Convegno");
+		long id = this.journal.idOf(event);
+		assertTrue(this.model.getEventBoard().removeEvent(event));
+
+		List<ChangeRecord> records = cursor.awaitBatch(0).getRecords();
+		assertTrue(records.stream().anyMatch(r -> r instanceof EventRemoval && ((EventRemoval) r).getId() == id));
+		assertFalse(records.stream().anyMatch(r -> r instanceof EventSnapshot));
+	}
+
+	@Test
+	public void closedCursor_andDetachedJournal_stopCollecting() throws Exception {
+		User anna = ReplicationFixture.register(this.model, "anna");
+		ChangeJournal.Cursor cursor = this.journal.openCursor();
+		cursor.awaitBatch(0);
+		this.journal.closeCursor(cursor);
+		anna.receive(new Notification("Messaggio"));
+		assertTrue(cursor.awaitBatch(0).isHeartbeat());
+
+		long position = this.journal.getPosition();
+		this.journal.detach();
+		anna.receive(new Notification("Messaggio"));
+		ReplicationFixture.publish(this.model, anna, "Convegno");
+		assertEquals(position, this.journal.getPosition());
+	}
+
+	@Test
+	public void idOf_isStablePerInstance() throws Exception {
+		User anna = ReplicationFixture.register(this.model, "anna");
+		Event first = ReplicationFixture.publish(this.model, anna, "Primo");
+		Event second = ReplicationFixture.publish(this.model, anna, "Secondo");
+
+		assertEquals(this.journal.idOf(first), this.journal.idOf(first));
+		assertNotEquals(this.journal.idOf(first), this.journal.idOf(second));
+		assertThrows(IllegalArgumentException.class, () -> this.journal.idOf(null));
+	}
+
+}
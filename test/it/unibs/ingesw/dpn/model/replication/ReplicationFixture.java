@@ -0,0 +1,60 @@
+package it.unibs.ingesw.dpn.model.replication;
+
+import java.util.concurrent.TimeUnit;
+
+import it.unibs.ingesw.dpn.model.categories.Category;
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.events.EventBoard;
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fields.ConferenceField;
+import it.unibs.ingesw.dpn.model.fields.UserField;
+import it.unibs.ingesw.dpn.model.fields.builder.EventBuilder;
+import it.unibs.ingesw.dpn.model.fieldvalues.DateFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.IntegerFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.MoneyAmountFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.StringFieldValue;
+import it.unibs.ingesw.dpn.model.persistence.Model;
+import it.unibs.ingesw.dpn.model.time.Clocks;
+import it.unibs.ingesw.dpn.model.users.User;
+import it.unibs.ingesw.dpn.model.users.UsersRepository;
+
+/**
+ * Costruzione degli oggetti del model del primario utilizzati dai test della replicazione.
+ */
+final class ReplicationFixture {
+
+	private ReplicationFixture() {
+	}
+
+	static Model emptyModel() {
+		return new Model(new EventBoard(), new UsersRepository());
+	}
+
+	static User register(Model model, String nickname) {
+		User user = new User();
+		user.setFieldValue(UserField.NICKNAME, new StringFieldValue(nickname));
+		model.getUsersRepository().addUser(user);
+		return user;
+	}
+
+	static Event publish(Model model, User creator, String title) throws Exception {
+		long deadline = Clocks.current().currentTimeMillis() + TimeUnit.DAYS.toMillis(7);
+
+		EventBuilder builder = new EventBuilder();
+		builder.startCreation(creator, Category.CONFERENZA);
+		builder.setFieldValue(CommonField.TITOLO, new StringFieldValue(title));
+		builder.setFieldValue(CommonField.LUOGO, new StringFieldValue("Brescia"));
+		builder.setFieldValue(CommonField.DATA_E_ORA, new DateFieldValue(deadline + TimeUnit.DAYS.toMillis(1)));
+		builder.setFieldValue(CommonField.TERMINE_ULTIMO_DI_ISCRIZIONE, new DateFieldValue(deadline));
+		builder.setFieldValue(CommonField.NUMERO_DI_PARTECIPANTI, new IntegerFieldValue(10));
+		builder.setFieldValue(CommonField.QUOTA_INDIVIDUALE, MoneyAmountFieldValue.ofCents(1000));
+		builder.setFieldValue(ConferenceField.RELATORI, new StringFieldValue(creator.getNickname()));
+		builder.setFieldValue(ConferenceField.ARGOMENTO, new StringFieldValue(title));
+		Event event = (Event) builder.finalise();
+		if (!model.getEventBoard().addEvent(event)) {
+			throw new IllegalStateException("Evento non pubblicato: " + title);
+		}
+		return event;
+	}
+
+}
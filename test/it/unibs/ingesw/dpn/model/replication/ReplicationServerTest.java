@@ -0,0 +1,203 @@
+package it.unibs.ingesw.dpn.model.replication;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.events.EventState;
+import it.unibs.ingesw.dpn.model.persistence.Model;
+import it.unibs.ingesw.dpn.model.replication.ReplicaClient.ReplicationInputStream;
+import it.unibs.ingesw.dpn.model.users.Notification;
+import it.unibs.ingesw.dpn.model.users.User;
+
+/**
+ * Test di integrazione: il primario e le repliche vengono eseguiti nella stessa JVM,
+ * e comunicano attraverso l'interfaccia di rete locale.
+ */
+public class ReplicationServerTest {
+
+	private static final long TIMEOUT_MILLIS = 5000;
+
+	private Model model;
+	private ReplicationServer server;
+
+	@Before
+	public void startPrimary() throws Exception {
+		this.model = ReplicationFixture.emptyModel();
+		this.server = new ReplicationServer(this.model, 0);
+	}
+
+	@After
+	public void stopPrimary() {
+		this.server.close();
+	}
+
+	private ReplicaClient connectReplica() throws Exception {
+		return new ReplicaClient(InetAddress.getLoopbackAddress().getHostAddress(), this.server.getPort());
+	}
+
+	private void awaitPrimaryPosition(ReplicaClient replica) throws InterruptedException {
+		assertTrue(replica.getModel().awaitPosition(this.server.getJournal().getPosition(), TIMEOUT_MILLIS));
+	}
+
+	@Test
+	public void replica_receivesInitialSnapshot() throws Exception {
+		User anna = ReplicationFixture.register(this.model, "anna");
+		ReplicationFixture.register(this.model, "bruno");
+		Event event = ReplicationFixture.publish(this.model, anna, "Convegno");
+
+		try (ReplicaClient replica = this.connectReplica()) {
+			this.awaitPrimaryPosition(replica);
+			ReplicaModel view = replica.getModel();
+
+			assertEquals(2, view.getUserCount());
+			assertNotNull(view.getMailbox("bruno"));
+			List<EventSnapshot> open = view.getEventsByState(EventState.OPEN);
+			assertEquals(1, open.size());
+			assertEquals(event.toString(), open.get(0).toString());
+			assertEquals(1, view.getEventsByCreator("anna").size());
+			assertTrue(view.getEventsByCreator("bruno").isEmpty());
+		}
+	}
+
+	@Test
+	public void replica_followsChangesOfThePrimary() throws Exception {
+		User anna = ReplicationFixture.register(this.model, "anna");
+
+		try (ReplicaClient replica = this.connectReplica()) {
+			this.awaitPrimaryPosition(replica);
+			ReplicaModel view = replica.getModel();
+
+			User bruno = ReplicationFixture.register(this.model, "bruno");
+			Event event = ReplicationFixture.publish(this.model, anna, "Convegno");
+			event.subscribe(bruno);
+			bruno.receive(new Notification("Benvenuto"));
+			this.awaitPrimaryPosition(replica);
+
+			long id = this.server.getJournal().idOf(event);
+			assertEquals(event.toString(), view.getEvent(id).toString());
+			assertTrue(view.getEvent(id).getSubscribers().contains("bruno"));
+			assertEquals(1, view.getSubscriptionsOf("bruno").size());
+			assertEquals(bruno.countUnreadNotifications(), view.getMailbox("bruno").getUnreadNotifications());
+			assertEquals(bruno.getNotifications().size(), view.getMailbox("bruno").getNotifications().size());
+
+			bruno.markNotificationsRead();
+			this.awaitPrimaryPosition(replica);
+			assertEquals(0, view.getMailbox("bruno").getUnreadNotifications());
+
+			event.unsubscribe(bruno);
+			assertTrue(this.model.getEventBoard().removeEvent(event));
+			this.awaitPrimaryPosition(replica);
+			assertNull(view.getEvent(id));
+			assertTrue(view.getSubscriptionsOf("bruno").isEmpty());
+		}
+	}
+
+	@Test
+	public void severalReplicas_convergeToTheSameState() throws Exception {
+		User anna = ReplicationFixture.register(this.model, "anna");
+
+		try (ReplicaClient first = this.connectReplica(); ReplicaClient second = this.connectReplica()) {
+			for (int i = 0; i < 50; i++) {
+				User user = ReplicationFixture.register(this.model, "utente" + i);
+				Event event = ReplicationFixture.publish(this.model, anna, "Evento " + i);
+				event.subscribe(user);
+			}
+			this.awaitPrimaryPosition(first);
+			this.awaitPrimaryPosition(second);
+
+			assertEquals(51, first.getModel().getUserCount());
+			assertEquals(50, first.getModel().getEvents().size());
+			for (EventSnapshot event : first.getModel().getEvents()) {
+				assertEquals(event.toString(), second.getModel().getEvent(event.getId()).toString());
+			}
+		}
+	}
+
+	@Test
+	public void lagMetrics_areReported() throws Exception {
+		try (ReplicaClient replica = this.connectReplica()) {
+			assertTrue(replica.getModel().awaitPosition(0, TIMEOUT_MILLIS));
+			// Il primario trasmette periodicamente un gruppo vuoto anche in assenza di modifiche
+			long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+			while (replica.getLagMillis() < 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertTrue(replica.getLagMillis() >= 0);
+			assertTrue(replica.isConnected());
+			assertEquals(1, this.server.getReplicaCount());
+			assertTrue(this.server.getMaxReplicaLag() >= 0);
+		}
+	}
+
+	@Test
+	public void closingThePrimary_disconnectsReplicas() throws Exception {
+		ReplicationFixture.register(this.model, "anna");
+		ReplicaClient replica = this.connectReplica();
+		this.awaitPrimaryPosition(replica);
+
+		this.server.close();
+		long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (replica.isConnected() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertFalse(replica.isConnected());
+		// Il model della replica resta consultabile
+		assertNotNull(replica.getModel().getMailbox("anna"));
+		replica.close();
+	}
+
+	private static Object serializeAndRead(Object object) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(object);
+		}
+		try (ReplicationInputStream in = new ReplicationInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return in.readObject();
+		}
+	}
+
+	@Test
+	public void replicationStream_acceptsChangeBatches() throws Exception {
+		User anna = ReplicationFixture.register(this.model, "anna");
+		Event event = ReplicationFixture.publish(this.model, anna, "Convegno");
+		List<ChangeRecord> records = Arrays.asList(
+				EventSnapshot.of(1, event),
+				new EventRemoval(2),
+				MailboxSnapshot.of(anna));
+
+		ChangeBatch batch = (ChangeBatch) serializeAndRead(new ChangeBatch(3, 42, records));
+
+		assertEquals(3, batch.getPosition());
+		assertEquals(3, batch.getRecords().size());
+		assertEquals(event.toString(), batch.getRecords().get(0).toString());
+	}
+
+	@Test
+	public void replicationStream_rejectsOtherClasses() {
+		assertThrows(InvalidClassException.class, () -> serializeAndRead(new Date()));
+		assertThrows(InvalidClassException.class, () -> serializeAndRead(new ArrayList<>(Arrays.asList(new Date()))));
+	}
+
+	@Test
+	public void invalidParameters_areRejected() {
+		assertThrows(IllegalArgumentException.class, () -> new ReplicationServer(null, 0));
+		assertThrows(IllegalArgumentException.class, () -> new ReplicationServer(this.model, -1));
+		assertThrows(IllegalArgumentException.class, () -> new ReplicaClient(null, 0));
+	}
+
+}
@@ -0,0 +1,308 @@
+package it.unibs.ingesw.dpn.model.sharding;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.categories.Category;
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.fields.CommonField;
+import it.unibs.ingesw.dpn.model.fields.ConferenceField;
+import it.unibs.ingesw.dpn.model.fields.UserField;
+import it.unibs.ingesw.dpn.model.fields.builder.EventBuilder;
+import it.unibs.ingesw.dpn.model.fieldvalues.DateFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.IntegerFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.MoneyAmountFieldValue;
+import it.unibs.ingesw.dpn.model.fieldvalues.StringFieldValue;
+import it.unibs.ingesw.dpn.model.time.Clocks;
+import it.unibs.ingesw.dpn.model.users.Notification;
+import it.unibs.ingesw.dpn.model.users.User;
+
+public class ShardCoordinatorTest {
+
+	private static final int SHARDS = 4;
+
+	private LoopbackTransport transport;
+	private ShardCoordinator coordinator;
+
+	@Before
+	public void createCoordinator() {
+		this.transport = new LoopbackTransport(SHARDS);
+		this.coordinator = new ShardCoordinator(this.transport);
+	}
+
+	@After
+	public void closeCoordinator() {
+		this.coordinator.close();
+	}
+
+	private void register(String nickname) {
+		this.coordinator.callUserShard(nickname, shard -> {
+			User user = new User();
+			user.setFieldValue(UserField.NICKNAME, new StringFieldValue(nickname));
+			shard.getModel().getUsersRepository().addUser(user);
+			return user;
+		}).join();
+	}
+
+	private User userOnShard(String nickname) {
+		return this.coordinator.callUserShard(nickname, shard -> shard.getModel().getUsersRepository().getUser(nickname)).join();
+	}
+
+	/**
+	 * Restituisce un nickname assegnato alla partizione data, o ad un'altra partizione.
+	 */
+	private String nickname(int shard, boolean onShard) {
+		for (int i = 0; ; i++) {
+			String nickname = "utente" + i;
+			if ((this.coordinator.getRouter().shardOfUser(nickname) == shard) == onShard) {
+				return nickname;
+			}
+		}
+	}
+
+	@Test
+	public void routerTest_isStableAndInRange() {
+		ShardRouter router = new ShardRouter(SHARDS);
+		int [] counts = new int[SHARDS];
+		for (int i = 0; i < 4000; i++) {
+			int shard = router.shardOfUser("utente" + i);
+			assertTrue(shard >= 0 && shard < SHARDS);
+			assertEquals(shard, new ShardRouter(SHARDS).shardOfUser("utente" + i));
+			counts[shard]++;
+		}
+		// Chiavi simili vengono distribuite in modo uniforme
+		for (int count : counts) {
+			assertTrue(count > 800);
+		}
+		assertThrows(IllegalArgumentException.class, () -> new ShardRouter(0));
+		assertThrows(IllegalArgumentException.class, () -> router.shardOfEvent(null));
+	}
+
+	@Test
+	public void usersAreStoredOnTheirShard() {
+		List<String> nicknames = Arrays.asList("anna", "bruno", "carla", "dario", "elena", "franco");
+		for (String nickname : nicknames) {
+			this.register(nickname);
+		}
+
+		for (String nickname : nicknames) {
+			int owner = this.coordinator.getRouter().shardOfUser(nickname);
+			for (int i = 0; i < SHARDS; i++) {
+				boolean stored = this.transport.call(i,
+						shard -> shard.getModel().getUsersRepository().isNicknameExisting(nickname)).join();
+				assertEquals(i == owner, stored);
+			}
+		}
+		List<Integer> sizes = this.coordinator.broadcast(shard -> shard.getModel().getUsersRepository().size()).join();
+		assertEquals(nicknames.size(), sizes.stream().mapToInt(Integer::intValue).sum());
+	}
+
+	@Test
+	public void callWithUserTest_runsOnEventShard() {
+		this.register("anna");
+		int eventShard = this.coordinator.getRouter().shardOfEvent("partita");
+
+		User user = this.coordinator.callWithUser("anna", "partita", (shard, u) -> {
+			// L'operazione viene eseguita dal thread della partizione dell'evento
+			assertEquals(eventShard, shard.getIndex());
+			assertEquals("Shard-" + eventShard, Thread.currentThread().getName());
+			return u;
+		}).join();
+		assertEquals("anna", user.getNickname());
+
+		User missing = this.coordinator.callWithUser("nessuno", "partita", (shard, u) -> u).join();
+		assertNull(missing);
+	}
+
+	@Test
+	public void callWithUserTest_keepsForeignUsersOnTheirShard() {
+		int eventShard = this.coordinator.getRouter().shardOfEvent("partita");
+		String local = this.nickname(eventShard, true);
+		String foreign = this.nickname(eventShard, false);
+		this.register(local);
+		this.register(foreign);
+
+		// L'utente della partizione dell'evento viene passato direttamente
+		assertSame(this.userOnShard(local), this.coordinator.callWithUser(local, "partita", (shard, u) -> u).join());
+
+		// L'utente di un'altra partizione è rappresentato da un oggetto della partizione dell'evento, sempre lo stesso
+		User first = this.coordinator.callWithUser(foreign, "partita", (shard, u) -> {
+			u.receive(new Notification("Iscrizione confermata"));
+			return u;
+		}).join();
+		User second = this.coordinator.callWithUser(foreign, "partita", (shard, u) -> u).join();
+		User owned = this.userOnShard(foreign);
+		assertSame(first, second);
+		assertNotSame(owned, first);
+		assertEquals(foreign, first.getNickname());
+
+		// La posta ricevuta dal rappresentante viene recapitata all'utente sulla sua partizione
+		assertFalse(first.hasNotifications());
+		assertEquals(1, owned.getNotifications().size());
+		assertEquals("Iscrizione confermata", owned.getNotifications().get(0).getMessage());
+	}
+
+	@Test
+	public void notifyUsersTest_sharesOneNotificationPerShard() {
+		String first = this.nickname(0, true);
+		String second = "altro" + first;
+		while (this.coordinator.getRouter().shardOfUser(second) != 0) {
+			second = "altro" + second;
+		}
+		String other = this.nickname(0, false);
+		for (String nickname : Arrays.asList(first, second, other)) {
+			this.register(nickname);
+		}
+
+		int delivered = this.coordinator.notifyUsers(Arrays.asList(first, second, other, "nessuno"), "Messaggio di prova").join();
+
+		assertEquals(3, delivered);
+		Notification shared = this.userOnShard(first).getNotifications().get(0);
+		Notification copy = this.userOnShard(other).getNotifications().get(0);
+		// I destinatari della stessa partizione condividono la notifica, creata dalla partizione
+		assertSame(shared, this.userOnShard(second).getNotifications().get(0));
+		assertNotSame(shared, copy);
+		assertEquals("Messaggio di prova", copy.getMessage());
+	}
+
+	@Test
+	public void inviteUsersTest_withMissingEvent() {
+		this.register("anna");
+
+		assertEquals(Integer.valueOf(0), this.coordinator.inviteUsers("inesistente", Arrays.asList("anna")).join());
+	}
+
+	@Test
+	public void inviteUsersTest_sendsTextToOtherShards() {
+		int eventShard = this.coordinator.getRouter().shardOfEvent("convegno");
+		String creator = this.nickname(eventShard, true);
+		String foreign = this.nickname(eventShard, false);
+		this.register(creator);
+		this.register(foreign);
+		assertTrue(this.coordinator.callWithUser(creator, "convegno",
+				(shard, u) -> shard.publishEvent("convegno", conference(u))).join());
+
+		int delivered = this.coordinator.inviteUsers("convegno", Arrays.asList(creator, foreign, "nessuno")).join();
+
+		assertEquals(2, delivered);
+		// L'utente della partizione dell'evento riceve l'invito, gli altri una notifica con il testo dell'invito
+		assertTrue(this.userOnShard(creator).hasInvites());
+		User invited = this.userOnShard(foreign);
+		assertFalse(invited.hasInvites());
+		assertEquals(creator + " ti ha invitato all'evento \"Convegno\"", invited.getNotifications().get(0).getMessage());
+	}
+
+	private static Event conference(User creator) throws Exception {
+		long now = Clocks.current().currentTimeMillis();
+		EventBuilder builder = new EventBuilder();
+		builder.startCreation(creator, Category.CONFERENZA);
+		builder.setFieldValue(CommonField.TITOLO, new StringFieldValue("Convegno"));
+		builder.setFieldValue(CommonField.LUOGO, new StringFieldValue("Brescia"));
+		builder.setFieldValue(CommonField.DATA_E_ORA, new DateFieldValue(now + TimeUnit.HOURS.toMillis(20)));
+		builder.setFieldValue(CommonField.TERMINE_ULTIMO_DI_ISCRIZIONE, new DateFieldValue(now + TimeUnit.HOURS.toMillis(10)));
+		builder.setFieldValue(CommonField.NUMERO_DI_PARTECIPANTI, new IntegerFieldValue(5));
+		builder.setFieldValue(CommonField.QUOTA_INDIVIDUALE, MoneyAmountFieldValue.ofCents(500));
+		builder.setFieldValue(ConferenceField.RELATORI, new StringFieldValue("Relatore"));
+		builder.setFieldValue(ConferenceField.ARGOMENTO, new StringFieldValue("Argomento"));
+		return (Event) builder.finalise();
+	}
+
+	/**
+	 * Trasporto che consegna alle partizioni una copia serializzata di ciascuna richiesta,
+	 * come farebbe un trasporto fra processi diversi.
+	 */
+	private static class SerializingTransport implements ShardTransport {
+
+		private final ShardTransport target;
+		private int requests;
+
+		private SerializingTransport(ShardTransport target) {
+			this.target = target;
+		}
+
+		@Override
+		public int getShardCount() {
+			return this.target.getShardCount();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> CompletableFuture<T> call(int shard, ShardRequest<T> request) {
+			try {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+					out.writeObject(request);
+				}
+				ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+				this.requests++;
+				return this.target.call(shard, (ShardRequest<T>) in.readObject());
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+			catch (ClassNotFoundException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+
+		@Override
+		public void close() {
+			this.target.close();
+		}
+
+	}
+
+	@Test
+	public void requestsAreSerializableMessages() {
+		SerializingTransport serializing = new SerializingTransport(this.transport);
+		ShardCoordinator remote = new ShardCoordinator(serializing);
+		int eventShard = remote.getRouter().shardOfEvent("convegno");
+		String creator = this.nickname(eventShard, true);
+		String foreign = this.nickname(eventShard, false);
+		this.register(creator);
+		this.register(foreign);
+
+		assertTrue(remote.callWithUser(creator, "convegno", (shard, u) -> shard.publishEvent("convegno", conference(u))).join());
+		assertTrue(remote.callWithUser(foreign, "convegno", (shard, u) -> u != null).join());
+		assertEquals(Integer.valueOf(2), remote.inviteUsers("convegno", Arrays.asList(creator, foreign)).join());
+		assertEquals(Integer.valueOf(1), remote.notifyUsers(Arrays.asList(foreign), "Messaggio di prova").join());
+
+		// Una verifica della registrazione, due richieste per conto di un utente, l'invito e due consegne di notifiche
+		assertEquals(6, serializing.requests);
+		assertTrue(this.userOnShard(creator).hasInvites());
+		assertEquals(2, this.userOnShard(foreign).getNotifications().size());
+	}
+
+	@Test
+	public void errorsAreReturnedToTheCaller() {
+		CompletionException ex = assertThrows(CompletionException.class,
+				() -> this.coordinator.callEventShard("evento", shard -> {
+					throw new IllegalStateException("errore di prova");
+				}).join());
+		assertTrue(ex.getCause() instanceof IllegalStateException);
+	}
+
+	@Test
+	public void closedTransportRejectsCalls() {
+		this.coordinator.close();
+
+		assertThrows(IllegalStateException.class, () -> this.coordinator.callUserShard("anna", shard -> null));
+		assertThrows(IllegalArgumentException.class, () -> this.transport.call(SHARDS, shard -> null));
+	}
+
+}
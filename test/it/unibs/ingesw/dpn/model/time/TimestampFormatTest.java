@@ -0,0 +1,106 @@
+package it.unibs.ingesw.dpn.model.time;
+
+import static org.junit.Assert.*;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class TimestampFormatTest {
+
+	private static final TimestampFormat [] FORMATS = {
+			TimestampFormat.FIELD_DATE_TIME,
+			TimestampFormat.FIELD_DATE,
+			TimestampFormat.MESSAGE_DATE_TIME,
+			TimestampFormat.HISTORY_DATE_TIME
+	};
+
+	@Test
+	public void formatTest_matchesSimpleDateFormat() {
+		Random random = new Random(42);
+		for (TimestampFormat format : FORMATS) {
+			SimpleDateFormat expected = new SimpleDateFormat(format.getPattern());
+			for (int i = 0; i < 1000; i++) {
+				Date date = new Date(Math.floorMod(random.nextLong(), 4_000_000_000_000L));
+				assertEquals(expected.format(date), format.format(date));
+			}
+		}
+	}
+
+	@Test
+	public void formatTest_reusesFormattedStrings() {
+		TimestampFormat format = new TimestampFormat("dd/MM/yyyy @ HH:mm");
+		long instant = 1_540_000_000_000L;
+
+		String first = format.format(instant);
+		assertSame(first, format.format(instant));
+		assertSame(first, format.format(new Date(instant)));
+	}
+
+	@Test
+	public void formatToTest_appendsToBuffer() {
+		TimestampFormat format = TimestampFormat.MESSAGE_DATE_TIME;
+		long instant = 1_540_000_000_000L;
+		StringBuilder buffer = new StringBuilder("Data: ");
+
+		assertSame(buffer, format.formatTo(instant, buffer));
+		assertEquals("Data: " + format.format(instant), buffer.toString());
+	}
+
+	@Test
+	public void formatTest_withLocalDate() {
+		assertEquals("05/03/2019", TimestampFormat.FIELD_DATE.format(LocalDate.of(2019, 3, 5)));
+	}
+
+	@Test
+	public void formatTest_withNullArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new TimestampFormat(null));
+		assertThrows(IllegalArgumentException.class, () -> TimestampFormat.FIELD_DATE.format((Date) null));
+		assertThrows(IllegalArgumentException.class, () -> TimestampFormat.FIELD_DATE.format((LocalDate) null));
+		assertThrows(IllegalArgumentException.class, () -> TimestampFormat.FIELD_DATE.formatTo(0, null));
+	}
+
+	@Test
+	public void formatTest_fromConcurrentThreads() throws Exception {
+		TimestampFormat format = new TimestampFormat("EEE dd/MM/yyyy, HH:mm:ss");
+		SimpleDateFormat expected = new SimpleDateFormat(format.getPattern());
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				final long seed = t;
+				Callable<Boolean> task = () -> {
+					Random random = new Random(seed);
+					for (int i = 0; i < 2000; i++) {
+						// Pochi istanti distinti, in modo che i thread condividano le stringhe memorizzate
+						long instant = 1_540_000_000_000L + random.nextInt(3000) * 1000L;
+						String text = format.format(instant);
+						synchronized (expected) {
+							if (!expected.format(new Date(instant)).equals(text)) {
+								return false;
+							}
+						}
+					}
+					return true;
+				};
+				results.add(executor.submit(task));
+			}
+			for (Future<Boolean> result : results) {
+				assertTrue(result.get());
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
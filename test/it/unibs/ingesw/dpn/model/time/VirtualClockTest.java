@@ -0,0 +1,93 @@
+package it.unibs.ingesw.dpn.model.time;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+public class VirtualClockTest {
+	
+	private static final long START = 1_000_000L;
+	
+	@Test
+	public void timeAdvancesOnlyOnRequest() {
+		
+		VirtualClock clock = new VirtualClock(START);
+		assertEquals(START, clock.currentTimeMillis());
+		assertEquals(new Date(START), clock.now());
+		
+		clock.advanceBy(500);
+		assertEquals(START + 500, clock.currentTimeMillis());
+		
+		assertThrows(IllegalArgumentException.class, () -> clock.advanceTo(START));
+		assertThrows(IllegalArgumentException.class, () -> clock.advanceBy(-1));
+	}
+	
+	@Test
+	public void tasksRunInDueOrder_andSeeTheirDueTime() {
+		
+		VirtualClock clock = new VirtualClock(START);
+		List<String> log = new ArrayList<>();
+		clock.schedule(new Date(START + 30), () -> log.add("c@" + (clock.currentTimeMillis() - START)));
+		clock.schedule(new Date(START + 10), () -> log.add("a@" + (clock.currentTimeMillis() - START)));
+		clock.schedule(new Date(START + 10), () -> log.add("b@" + (clock.currentTimeMillis() - START)));
+		clock.schedule(new Date(START + 50), () -> log.add("d"));
+		
+		assertEquals(3, clock.advanceTo(START + 40));
+		assertEquals(Arrays.asList("a@10", "b@10", "c@30"), log);
+		assertEquals(START + 40, clock.currentTimeMillis());
+		assertEquals(1, clock.getPendingTasks());
+	}
+	
+	@Test
+	public void tasksScheduledDuringAdvance_areRunIfDue() {
+		
+		VirtualClock clock = new VirtualClock(START);
+		List<String> log = new ArrayList<>();
+		clock.schedule(new Date(START + 10), () -> {
+			log.add("first");
+			clock.schedule(new Date(START + 20), () -> log.add("second"));
+			// Le scadenze già trascorse vengono eseguite all'istante corrente
+			clock.schedule(new Date(START), () -> log.add("overdue"));
+		});
+		
+		assertEquals(3, clock.advanceBy(100));
+		assertEquals(Arrays.asList("first", "overdue", "second"), log);
+		assertEquals(3, clock.getExecutedTasks());
+	}
+	
+	@Test
+	public void cancelledTasksAreNotRun() {
+		
+		VirtualClock clock = new VirtualClock(START);
+		List<String> log = new ArrayList<>();
+		ScheduledTask task = clock.schedule(new Date(START + 10), () -> log.add("cancelled"));
+		clock.schedule(new Date(START + 20), () -> log.add("kept"));
+		task.cancel();
+		
+		assertEquals(1, clock.getPendingTasks());
+		assertEquals(1, clock.runUntilIdle());
+		assertEquals(Arrays.asList("kept"), log);
+		assertEquals(START + 20, clock.currentTimeMillis());
+	}
+	
+	@Test
+	public void clocksCanBeReplaced() {
+		
+		VirtualClock clock = new VirtualClock(START);
+		try {
+			Clocks.setCurrent(clock);
+			assertSame(clock, Clocks.current());
+		}
+		finally {
+			Clocks.useSystemClock();
+		}
+		assertSame(SystemClock.INSTANCE, Clocks.current());
+		assertThrows(IllegalArgumentException.class, () -> Clocks.setCurrent(null));
+	}
+	
+}
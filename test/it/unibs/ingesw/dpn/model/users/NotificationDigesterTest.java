@@ -0,0 +1,149 @@
+package it.unibs.ingesw.dpn.model.users;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.time.Clocks;
+import it.unibs.ingesw.dpn.model.time.VirtualClock;
+
+public class NotificationDigesterTest {
+	
+	private static final long WINDOW = 60_000;
+	
+	private VirtualClock clock;
+	private NotificationDigester digester;
+	
+	@Before
+	public void useVirtualClock() {
+		this.clock = new VirtualClock(0);
+		Clocks.setCurrent(this.clock);
+		this.digester = new NotificationDigester();
+	}
+	
+	@After
+	public void restoreSystemClock() {
+		Clocks.useSystemClock();
+	}
+	
+	@Test
+	public void messagesAreDeliveredImmediately_byDefault() {
+		
+		User user = new User();
+		this.digester.send(user, NotificationTopic.CHIUSURA, "Conferenza", "A", new Notification("L'evento A è chiuso"));
+		
+		assertEquals(1, user.getNotifications().size());
+		assertEquals("L'evento A è chiuso", user.getNotifications().get(0).getMessage());
+		assertEquals(1, this.digester.getDeliveredNotifications());
+	}
+	
+	@Test
+	public void messagesAreMergedPerUser_untilTheWindowExpires() {
+		
+		User user = new User();
+		this.digester.setWindow(WINDOW);
+		this.digester.send(user, NotificationTopic.NUOVO_EVENTO, "Conferenza", "A", new Notification("Nuovo evento: A"));
+		this.digester.send(user, NotificationTopic.NUOVO_EVENTO, "Conferenza", "B", new Notification("Nuovo evento: B"));
+		this.digester.send(user, NotificationTopic.CHIUSURA, "Conferenza", "C", new Notification("L'evento C è chiuso"));
+		this.digester.send(user, NotificationTopic.NUOVO_EVENTO, "Partita di calcio", "D", new Notification("Nuovo evento: D"));
+		this.digester.send(user, NotificationTopic.NUOVO_EVENTO, "Conferenza", "E", new Notification("Nuovo evento: E"));
+		
+		this.clock.advanceBy(WINDOW - 1);
+		assertTrue(user.getNotifications().isEmpty());
+		assertEquals(5, this.digester.getPendingMessages());
+		
+		this.clock.advanceBy(1);
+		List<Notification> notifications = user.getNotifications();
+		assertEquals(1, notifications.size());
+		assertEquals("Aggiornamenti: 3 nuovi eventi nella categoria Conferenza (A, B, E), "
+				+ "1 evento chiuso (C), 1 nuovo evento nella categoria Partita di calcio (D)"
+				+ "\n - Nuovo evento: A\n - Nuovo evento: B\n - L'evento C è chiuso\n - Nuovo evento: D\n - Nuovo evento: E", 
+				notifications.get(0).getMessage());
+		assertEquals(0, this.digester.getPendingMessages());
+	}
+	
+	@Test
+	public void singlePendingMessage_isDeliveredUnchanged() {
+		
+		User user = new User();
+		this.digester.setWindow(WINDOW);
+		this.digester.send(user, NotificationTopic.FALLIMENTO, "Conferenza", "A", new Notification("L'evento A è fallito"));
+		
+		this.clock.runUntilIdle();
+		assertEquals("L'evento A è fallito", user.getNotifications().get(0).getMessage());
+	}
+	
+	@Test
+	public void subjectsAreTruncated() {
+		
+		User user = new User();
+		this.digester.setWindow(WINDOW);
+		for (int i = 0; i < 5; i++) {
+			this.digester.send(user, NotificationTopic.CONCLUSIONE, "Conferenza", "E" + i, new Notification("Concluso E" + i));
+		}
+		
+		this.digester.flush();
+		assertTrue(user.getNotifications().get(0).getMessage().startsWith("Aggiornamenti: 5 eventi conclusi (E0, E1, E2, ...)\n"));
+	}
+	
+	@Test
+	public void digest_keepsTheAmountDue() {
+		
+		User user = new User();
+		this.digester.setWindow(WINDOW);
+		this.digester.send(user, NotificationTopic.ISCRIZIONE, "Conferenza", "A",
+				new Notification("Ti sei iscritto/a correttamente all'evento \"A\"; Importo dovuto: 12,50 €"));
+		this.digester.send(user, NotificationTopic.CHIUSURA, "Conferenza", "B",
+				new Notification("L'evento \"B\" è chiuso: si terrà il 01/02 a Brescia, quota individuale 5,00 €"));
+		
+		this.clock.runUntilIdle();
+		String digest = user.getNotifications().get(0).getMessage();
+		assertTrue(digest.startsWith("Aggiornamenti: 1 conferma di iscrizione (A), 1 evento chiuso (B)"));
+		assertTrue(digest.contains("Importo dovuto: 12,50 €"));
+		assertTrue(digest.contains("si terrà il 01/02 a Brescia, quota individuale 5,00 €"));
+	}
+	
+	@Test
+	public void burstDeliveries_dropToOnePerRecipient() {
+		
+		User [] users = new User[50];
+		for (int i = 0; i < users.length; i++) {
+			users[i] = new User();
+		}
+		this.digester.setWindow(WINDOW);
+		for (int event = 0; event < 200; event++) {
+			for (User user : users) {
+				this.digester.send(user, NotificationTopic.NUOVO_EVENTO, "Conferenza", "E" + event, new Notification("Nuovo evento E" + event));
+			}
+		}
+		
+		// Un'unica scadenza per finestra, indipendentemente dal numero di messaggi
+		assertEquals(1, this.clock.getPendingTasks());
+		this.clock.runUntilIdle();
+		
+		assertEquals(10_000, this.digester.getReceivedMessages());
+		assertEquals(50, this.digester.getDeliveredNotifications());
+		for (User user : users) {
+			assertEquals(1, user.getNotifications().size());
+			// Riassunti identici condividono la stessa notifica
+			assertSame(users[0].getNotifications().get(0), user.getNotifications().get(0));
+		}
+	}
+	
+	@Test
+	public void closingTheWindow_deliversPendingMessages() {
+		
+		User user = new User();
+		this.digester.setWindow(WINDOW);
+		this.digester.send(user, NotificationTopic.RITIRO, "Conferenza", "A", new Notification("L'evento A è stato ritirato"));
+		
+		this.digester.setWindow(0);
+		assertEquals(1, user.getNotifications().size());
+		assertThrows(IllegalArgumentException.class, () -> this.digester.setWindow(-1));
+	}
+	
+}
@@ -2,6 +2,14 @@ package it.unibs.ingesw.dpn.model.users;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Test;
 
 public class NotificationTest {
@@ -14,5 +22,153 @@ public class NotificationTest {
 		assertEquals("Test", n.getMessage());
 		
 	}
+	
+	@Test
+	public void idsGrowWithCreationOrder() {
+		
+		Notification first = new Notification("Prima");
+		Notification second = new Notification("Seconda");
+		
+		assertTrue(second.getId() > first.getId());
+		
+	}
+	
+	@Test
+	public void sharedNotification_keepsPerRecipientReadState() {
+		
+		Notification shared = new Notification("Condivisa");
+		User reader = new User();
+		User other = new User();
+		reader.receive(shared);
+		other.receive(shared);
+		
+		reader.markNotificationsRead();
+		
+		assertTrue(reader.hasRead(shared));
+		assertFalse(other.hasRead(shared));
+		assertEquals(0, reader.countUnreadNotifications());
+		assertEquals(1, other.countUnreadNotifications());
+		assertSame(reader.getNotifications().get(0), other.getNotifications().get(0));
+		
+	}
+	
+	@Test
+	public void readState_survivesDeletionsAndNewDeliveries() {
+		
+		User user = new User();
+		Notification first = new Notification("1");
+		Notification second = new Notification("2");
+		user.receive(first);
+		user.receive(second);
+		user.markNotificationsRead();
+		Notification third = new Notification("3");
+		user.receive(third);
+		
+		user.delete(first);
+		
+		assertTrue(user.hasRead(second));
+		assertFalse(user.hasRead(third));
+		assertEquals(1, user.countUnreadNotifications());
+		assertThrows(IllegalArgumentException.class, () -> user.hasRead(first));
+		
+	}
+	
+	@Test
+	public void markReadUntil_leavesLaterDeliveriesUnread() {
+		
+		User user = new User();
+		Notification first = new Notification("1");
+		Notification second = new Notification("2");
+		user.receive(first);
+		user.markNotificationsRead();
+		user.receive(second);
+		
+		NotificationsSnapshot snapshot = user.getNotificationsSnapshot();
+		assertEquals(2, snapshot.getNotifications().size());
+		assertFalse(snapshot.isUnread(0));
+		assertTrue(snapshot.isUnread(1));
+		assertEquals(1, snapshot.countUnread());
+		
+		// Una notifica consegnata dopo la copia non viene segnata come letta
+		Notification third = new Notification("3");
+		user.receive(third);
+		user.markNotificationsReadUntil(snapshot.getLastDelivery());
+		
+		assertTrue(user.hasRead(second));
+		assertFalse(user.hasRead(third));
+		assertEquals(1, user.countUnreadNotifications());
+		
+		// Una copia meno recente non annulla le letture successive
+		user.markNotificationsRead();
+		user.markNotificationsReadUntil(snapshot.getLastDelivery());
+		assertTrue(user.hasRead(third));
+		assertEquals(0, user.countUnreadNotifications());
+		
+	}
+	
+	@Test
+	public void sharedNotification_isSerializedOnce() throws IOException, ClassNotFoundException {
+		
+		Notification shared = new Notification("Un messaggio condiviso da molti destinatari");
+		List<User> shareRecipients = new ArrayList<>();
+		List<User> copyRecipients = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			User sharing = new User();
+			sharing.receive(shared);
+			shareRecipients.add(sharing);
+			User copying = new User();
+			copying.receive(new Notification(shared.getMessage()));
+			copyRecipients.add(copying);
+		}
+		
+		byte [] sharedBytes = serialize(shareRecipients);
+		assertTrue(sharedBytes.length < serialize(copyRecipients).length);
+		
+		@SuppressWarnings("unchecked")
+		List<User> loaded = (List<User>) new ObjectInputStream(new ByteArrayInputStream(sharedBytes)).readObject();
+		Notification loadedShared = loaded.get(0).getNotifications().get(0);
+		for (User user : loaded) {
+			assertSame(loadedShared, user.getNotifications().get(0));
+		}
+		assertEquals(shared.getId(), loadedShared.getId());
+		
+		// Le notifiche create dopo il caricamento non riutilizzano gli identificativi caricati
+		assertTrue(new Notification("Nuova").getId() > loadedShared.getId());
+		
+	}
+	
+	@Test
+	public void mailbox_findsNotificationsById() throws IOException, ClassNotFoundException {
+		
+		User user = new User();
+		Notification first = new Notification("1");
+		Notification second = new Notification("2");
+		user.receive(first);
+		user.markNotificationsRead();
+		user.receive(second);
+		
+		// Una copia caricata da disco è la stessa notifica
+		Notification loaded = (Notification) new ObjectInputStream(new ByteArrayInputStream(serialize(first))).readObject();
+		assertNotSame(first, loaded);
+		assertEquals(first, loaded);
+		assertNotEquals(first, second);
+		assertTrue(user.hasRead(loaded));
+		assertThrows(IllegalArgumentException.class, () -> user.receive(loaded));
+		
+		user.delete(loaded);
+		assertEquals(1, user.getNotifications().size());
+		assertSame(second, user.getNotifications().get(0));
+		assertFalse(user.hasRead(second));
+		assertEquals(1, user.countUnreadNotifications());
+		
+	}
+	
+	private static byte [] serialize(Object object) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(object);
+		}
+		return bytes.toByteArray();
+	}
 
 }
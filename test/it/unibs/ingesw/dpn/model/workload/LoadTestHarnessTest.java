@@ -0,0 +1,81 @@
+package it.unibs.ingesw.dpn.model.workload;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.categories.Category;
+import it.unibs.ingesw.dpn.model.events.EventBoard;
+import it.unibs.ingesw.dpn.model.persistence.Model;
+import it.unibs.ingesw.dpn.model.users.UsersRepository;
+
+public class LoadTestHarnessTest {
+	
+	private static Model emptyModel() {
+		return new Model(new EventBoard(), new UsersRepository());
+	}
+	
+	@Test
+	public void generatedWorkloadRunsWithoutFailures() {
+		
+		Model model = emptyModel();
+		Workload workload = new WorkloadGenerator(11).generate(40, 6, 400);
+		
+		LoadTestReport report = new LoadTestHarness(4).run(model, workload);
+		
+		assertEquals(workload.size(), report.getOperations(null));
+		assertEquals(0, report.getFailed(null));
+		assertEquals(40, report.getAccepted(OperationType.REGISTRAZIONE));
+		assertEquals(6, report.getAccepted(OperationType.CREAZIONE_EVENTO));
+		assertEquals(40, model.getUsersRepository().size());
+		assertEquals(6 - report.getAccepted(OperationType.RITIRO_EVENTO), model.getEventBoard().getEvents().size());
+		assertTrue(report.getLatencyPercentile(null, 50) <= report.getLatencyPercentile(null, 100));
+	}
+	
+	@Test
+	public void domainRejectionsAreCounted() {
+		
+		Workload workload = new Workload(Arrays.asList(
+				Arrays.asList(
+						WorkloadOperation.registration("anna"),
+						WorkloadOperation.registration("bruno"),
+						WorkloadOperation.registration("anna")),
+				Collections.singletonList(
+						WorkloadOperation.eventCreation("anna", "e1", Category.PARTITA_DI_CALCIO, 2, 24)),
+				Arrays.asList(
+						WorkloadOperation.subscription("bruno", "e1"),
+						WorkloadOperation.subscription("bruno", "e1"),
+						WorkloadOperation.subscription("carla", "e1"),
+						WorkloadOperation.withdrawal("bruno", "e1"),
+						WorkloadOperation.mailboxRead("bruno"))));
+		
+		LoadTestReport report = new LoadTestHarness(2).run(emptyModel(), workload);
+		
+		assertEquals(2, report.getAccepted(OperationType.REGISTRAZIONE));
+		assertEquals(1, report.getRejected(OperationType.REGISTRAZIONE));
+		assertEquals(1, report.getAccepted(OperationType.ISCRIZIONE));
+		assertEquals(2, report.getRejected(OperationType.ISCRIZIONE));
+		assertEquals(1, report.getRejected(OperationType.RITIRO_EVENTO));
+		assertEquals(1, report.getAccepted(OperationType.LETTURA_POSTA));
+		assertEquals(0, report.getFailed(null));
+	}
+	
+	@Test
+	public void latencyPercentileTest() {
+		
+		LatencyRecorder recorder = new LatencyRecorder();
+		for (int i = 100; i >= 1; i--) {
+			recorder.record(i);
+		}
+		
+		assertEquals(50, recorder.percentile(50));
+		assertEquals(99, recorder.percentile(99));
+		assertEquals(100, recorder.percentile(100));
+		assertEquals(1, recorder.percentile(0.1));
+		assertThrows(IllegalArgumentException.class, () -> recorder.percentile(0));
+	}
+	
+}
@@ -0,0 +1,71 @@
+package it.unibs.ingesw.dpn.model.workload;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.categories.Category;
+import it.unibs.ingesw.dpn.model.sharding.LoopbackTransport;
+import it.unibs.ingesw.dpn.model.sharding.ShardCoordinator;
+
+public class ShardedLoadTestHarnessTest {
+	
+	@Test
+	public void generatedWorkloadRunsWithoutFailures() {
+		
+		Workload workload = new WorkloadGenerator(11).generate(40, 6, 400);
+		LoopbackTransport transport = new LoopbackTransport(3);
+		
+		try (ShardCoordinator coordinator = new ShardCoordinator(transport)) {
+			LoadTestReport report = new ShardedLoadTestHarness(coordinator).run(workload);
+			
+			assertEquals(workload.size(), report.getOperations(null));
+			assertEquals(0, report.getFailed(null));
+			assertEquals(40, report.getAccepted(OperationType.REGISTRAZIONE));
+			assertEquals(6, report.getAccepted(OperationType.CREAZIONE_EVENTO));
+			
+			int users = 0;
+			int events = 0;
+			for (int i = 0; i < transport.getShardCount(); i++) {
+				users += transport.call(i, shard -> shard.getModel().getUsersRepository().size()).join();
+				events += transport.call(i, shard -> shard.getModel().getEventBoard().getEvents().size()).join();
+			}
+			assertEquals(40, users);
+			assertEquals(6 - report.getAccepted(OperationType.RITIRO_EVENTO), events);
+		}
+	}
+	
+	@Test
+	public void domainRejectionsAreCounted_acrossShards() {
+		
+		Workload workload = new Workload(Arrays.asList(
+				Arrays.asList(
+						WorkloadOperation.registration("anna"),
+						WorkloadOperation.registration("bruno"),
+						WorkloadOperation.registration("anna")),
+				Collections.singletonList(
+						WorkloadOperation.eventCreation("anna", "e1", Category.PARTITA_DI_CALCIO, 2, 24)),
+				Arrays.asList(
+						WorkloadOperation.subscription("bruno", "e1"),
+						WorkloadOperation.subscription("bruno", "e1"),
+						WorkloadOperation.subscription("carla", "e1"),
+						WorkloadOperation.withdrawal("bruno", "e1"),
+						WorkloadOperation.mailboxRead("bruno"))));
+		
+		try (ShardCoordinator coordinator = new ShardCoordinator(new LoopbackTransport(4))) {
+			LoadTestReport report = new ShardedLoadTestHarness(coordinator).run(workload);
+			
+			assertEquals(2, report.getAccepted(OperationType.REGISTRAZIONE));
+			assertEquals(1, report.getRejected(OperationType.REGISTRAZIONE));
+			assertEquals(1, report.getAccepted(OperationType.ISCRIZIONE));
+			assertEquals(2, report.getRejected(OperationType.ISCRIZIONE));
+			assertEquals(1, report.getRejected(OperationType.RITIRO_EVENTO));
+			assertEquals(1, report.getAccepted(OperationType.LETTURA_POSTA));
+			assertEquals(0, report.getFailed(null));
+		}
+	}
+	
+}
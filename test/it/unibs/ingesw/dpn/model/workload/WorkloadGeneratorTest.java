@@ -0,0 +1,103 @@
+package it.unibs.ingesw.dpn.model.workload;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.categories.Category;
+
+public class WorkloadGeneratorTest {
+	
+	private static String trace(Workload workload) throws Exception {
+		StringWriter out = new StringWriter();
+		workload.write(out);
+		return out.toString();
+	}
+	
+	@Test
+	public void sameSeed_producesSameWorkload() throws Exception {
+		
+		Workload first = new WorkloadGenerator(7).generate(50, 10, 500);
+		Workload second = new WorkloadGenerator(7).generate(50, 10, 500);
+		Workload other = new WorkloadGenerator(8).generate(50, 10, 500);
+		
+		assertEquals(trace(first), trace(second));
+		assertNotEquals(trace(first), trace(other));
+	}
+	
+	@Test
+	public void generatedPhasesTest() {
+		
+		Workload workload = new WorkloadGenerator(1).generate(50, 10, 500);
+		List<List<WorkloadOperation>> phases = workload.getPhases();
+		
+		assertEquals(3, phases.size());
+		assertEquals(560, workload.size());
+		for (WorkloadOperation operation : phases.get(0)) {
+			assertEquals(OperationType.REGISTRAZIONE, operation.getType());
+		}
+		for (WorkloadOperation operation : phases.get(1)) {
+			assertEquals(OperationType.CREAZIONE_EVENTO, operation.getType());
+			assertTrue(operation.getCapacity() >= 2);
+			assertTrue(operation.getDeadlineHours() >= 1);
+		}
+		long withdrawals = phases.get(2).stream().filter(o -> o.getType() == OperationType.RITIRO_EVENTO).count();
+		assertTrue(withdrawals <= 10 * WorkloadGenerator.MAX_WITHDRAWN_FRACTION);
+	}
+	
+	@Test
+	public void flashCrowdPhasesTest() throws Exception {
+		
+		Workload workload = new WorkloadGenerator(5).generateFlashCrowd(30, 4, 3);
+		List<List<WorkloadOperation>> phases = workload.getPhases();
+		
+		assertEquals(3, phases.size());
+		assertEquals(30 + 1 + 90, workload.size());
+		assertEquals(1, phases.get(1).size());
+		WorkloadOperation creation = phases.get(1).get(0);
+		assertEquals(4, creation.getCapacity());
+		for (WorkloadOperation operation : phases.get(2)) {
+			assertEquals(OperationType.ISCRIZIONE, operation.getType());
+			assertEquals(creation.getEvent(), operation.getEvent());
+		}
+		assertEquals(trace(workload), trace(new WorkloadGenerator(5).generateFlashCrowd(30, 4, 3)));
+		assertThrows(IllegalArgumentException.class, () -> new WorkloadGenerator(5).generateFlashCrowd(30, 1, 3));
+	}
+	
+	@Test
+	public void traceRoundTripTest() throws Exception {
+		
+		Workload workload = new WorkloadGenerator(3).generate(20, 5, 100);
+		Workload read = Workload.read(new StringReader(trace(workload)));
+		
+		assertEquals(trace(workload), trace(read));
+		assertEquals(workload.getPhases().size(), read.getPhases().size());
+	}
+	
+	@Test
+	public void decodeTest() {
+		
+		WorkloadOperation operation = WorkloadOperation.decode("CREAZIONE_EVENTO;anna;e1;CONFERENZA;10;48");
+		
+		assertEquals(OperationType.CREAZIONE_EVENTO, operation.getType());
+		assertEquals("anna", operation.getUser());
+		assertEquals("e1", operation.getEvent());
+		assertEquals(Category.CONFERENZA, operation.getCategory());
+		assertEquals(10, operation.getCapacity());
+		assertEquals(48, operation.getDeadlineHours());
+		assertEquals("CREAZIONE_EVENTO;anna;e1;CONFERENZA;10;48", operation.encode());
+	}
+	
+	@Test
+	public void read_whenMalformed() {
+		
+		assertThrows(IllegalArgumentException.class, () -> Workload.read(new StringReader("ISCRIZIONE;anna;e1;;0;0\n")));
+		assertThrows(IllegalArgumentException.class, () -> Workload.read(new StringReader("FASE\nISCRIZIONE;anna\n")));
+		assertThrows(IllegalArgumentException.class, () -> Workload.read(new StringReader("FASE\nISCRIZIONE;anna;;;0;0\n")));
+	}
+	
+}
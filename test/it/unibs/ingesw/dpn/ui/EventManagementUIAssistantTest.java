@@ -0,0 +1,61 @@
+package it.unibs.ingesw.dpn.ui;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.events.EventBoard;
+import it.unibs.ingesw.dpn.model.users.User;
+import it.unibs.ingesw.dpn.ui.actions.Action;
+import it.unibs.ingesw.dpn.ui.actions.CachedMenuAction;
+
+public class EventManagementUIAssistantTest {
+	
+	@Test
+	public void eventMenusAreReusedTest() {
+		EventManagementUIAssistant assistant = new EventManagementUIAssistant(mock(EventBoard.class));
+		Event event = mock(Event.class);
+		Event other = mock(Event.class);
+		User user = mock(User.class);
+		
+		Action menu = assistant.getEventManagementMenuAction(event, user);
+		assertTrue(menu instanceof CachedMenuAction);
+		assertSame(menu, assistant.getEventManagementMenuAction(event, user));
+		assertNotSame(menu, assistant.getEventManagementMenuAction(other, user));
+		
+		// Un evento dimenticato ottiene un nuovo menu
+		assistant.forget(event);
+		assertNotSame(menu, assistant.getEventManagementMenuAction(event, user));
+	}
+	
+	@Test
+	public void eventMenusDependOnUserTest() {
+		EventManagementUIAssistant assistant = new EventManagementUIAssistant(mock(EventBoard.class));
+		Event event = mock(Event.class);
+		
+		Action menu = assistant.getEventManagementMenuAction(event, mock(User.class));
+		assertNotSame(menu, assistant.getEventManagementMenuAction(event, mock(User.class)));
+	}
+	
+	@Test
+	public void invalidatedEventMenuIsRebuiltTest() {
+		EventManagementUIAssistant assistant = new EventManagementUIAssistant(mock(EventBoard.class));
+		Event event = mock(Event.class);
+		User user = mock(User.class);
+		when(event.toString(user)).thenReturn("Evento");
+		when(event.getCreator()).thenReturn(mock(User.class));
+		
+		CachedMenuAction menu = (CachedMenuAction) assistant.getEventManagementMenuAction(event, user);
+		menu.prepareMenuAction();
+		menu.prepareMenuAction();
+		assertEquals(1, menu.getBuildCount());
+		
+		assistant.invalidate(event);
+		menu.prepareMenuAction();
+		assertEquals(2, menu.getBuildCount());
+		verify(event, times(2)).toString(user);
+	}
+
+}
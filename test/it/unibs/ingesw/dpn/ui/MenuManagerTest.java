@@ -0,0 +1,76 @@
+package it.unibs.ingesw.dpn.ui;
+
+import static it.unibs.ingesw.dpn.model.events.EventFixture.*;
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.model.events.Event;
+import it.unibs.ingesw.dpn.model.events.EventBoard;
+import it.unibs.ingesw.dpn.model.events.EventFixture;
+import it.unibs.ingesw.dpn.model.fields.FieldCompatibilityException;
+import it.unibs.ingesw.dpn.model.persistence.Model;
+import it.unibs.ingesw.dpn.model.users.LoginManager;
+import it.unibs.ingesw.dpn.model.users.User;
+import it.unibs.ingesw.dpn.model.users.UsersRepository;
+import it.unibs.ingesw.dpn.ui.actions.CachedMenuAction;
+import it.unibs.ingesw.dpn.ui.actions.MenuEntry;
+
+public class MenuManagerTest {
+	
+	private Model model;
+	private MenuManager menuManager;
+	
+	@Before
+	public void setUp() {
+		EventFixture.useVirtualClock();
+		this.model = new Model(new EventBoard(), new UsersRepository());
+		this.menuManager = new MenuManager(this.model, new LoginManager());
+	}
+	
+	@After
+	public void restoreSystemClock() {
+		EventFixture.restoreSystemClock();
+	}
+	
+	/**
+	 * Pubblica una conferenza con un solo posto oltre a quello del creatore.
+	 */
+	private Event fullEvent(User creator, User subscriber) throws FieldCompatibilityException {
+		Event event = publish(this.model.getEventBoard(), conference(creator, "Conferenza", 2));
+		event.subscribe(subscriber);
+		return event;
+	}
+	
+	private static List<String> entryNames(CachedMenuAction menu) {
+		return menu.prepareMenuAction().getEntries().stream()
+				.map(MenuEntry::getName)
+				.collect(Collectors.toList());
+	}
+	
+	@Test
+	public void waitlistChanges_rebuildTheEventMenu() throws FieldCompatibilityException {
+		User guest = user("ospite");
+		Event event = this.fullEvent(user("creatore"), user("iscritto"));
+		
+		CachedMenuAction menu = (CachedMenuAction) this.menuManager.getEventManagementAssistant()
+				.getEventManagementMenuAction(event, guest);
+		assertTrue(entryNames(menu).contains("Entra in lista d'attesa"));
+		
+		event.joinWaitlist(guest);
+		List<String> entries = entryNames(menu);
+		assertTrue(entries.contains("Lascia la lista d'attesa"));
+		assertFalse(entries.contains("Entra in lista d'attesa"));
+		assertEquals(2, menu.getBuildCount());
+		
+		assertTrue(event.leaveWaitlist(guest));
+		assertTrue(entryNames(menu).contains("Entra in lista d'attesa"));
+		assertEquals(3, menu.getBuildCount());
+	}
+	
+}
@@ -1,7 +1,6 @@
 package it.unibs.ingesw.dpn.ui;
 
 import java.util.LinkedList;
-import java.util.List;
 import java.util.Queue;
 
 import it.unibs.ingesw.dpn.ui.actions.ConfirmAction;
@@ -130,13 +129,12 @@ public class TestGetter implements UIGetter {
 
 	@Override
 	public MenuEntry getMenuChoice(MenuAction menu) {
-		List<MenuEntry> entries = menu.getEntries();
-		int choice = this.getInteger(0, entries.size());
+		int choice = this.getInteger(0, menu.getEntryCount());
 		
 		if (choice == 0) {
 			return menu.getBackEntry();
 		} else {
-			return entries.get(choice - 1);
+			return menu.getEntry(choice - 1);
 		}
 	}
 
@@ -0,0 +1,153 @@
+package it.unibs.ingesw.dpn.ui;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibs.ingesw.dpn.ui.actions.Action;
+import it.unibs.ingesw.dpn.ui.actions.MenuAction;
+
+public class TextRendererTest {
+
+	/**
+	 * Stream che conta le scritture ricevute.
+	 */
+	private static class CountingOutputStream extends ByteArrayOutputStream {
+
+		private int writes = 0;
+
+		@Override
+		public synchronized void write(byte [] b, int off, int len) {
+			super.write(b, off, len);
+			this.writes++;
+		}
+
+	}
+
+	private CountingOutputStream stream;
+	private TextRenderer renderer;
+
+	@Before
+	public void setUp() {
+		this.stream = new CountingOutputStream();
+		this.renderer = new TextRenderer(this.stream, StandardCharsets.UTF_8);
+	}
+
+	private String output() {
+		return new String(this.stream.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void constructorTest() {
+		assertThrows(IllegalArgumentException.class, () -> { new TextRenderer(null, StandardCharsets.UTF_8); });
+		assertThrows(IllegalArgumentException.class, () -> { new TextRenderer((OutputStream) this.stream, null); });
+	}
+
+	@Test
+	public void renderTextInFrameTest() {
+		this.renderer.renderTextInFrame("Ciao");
+		this.renderer.flush();
+
+		assertEquals(
+				"┌──────────┐\n" +
+				"│   Ciao   │\n" +
+				"└──────────┘\n",
+				this.output());
+	}
+
+	@Test
+	public void renderMenuTest() {
+		MenuAction menu = new MenuAction("Titolo", "Testo del menu");
+		menu.addEntry("Prima voce", Action.EMPTY_ACTION);
+		menu.addEntry("Seconda voce", Action.EMPTY_ACTION);
+		this.renderer.renderMenu(menu);
+		this.renderer.flush();
+
+		String [] lines = this.output().split("\n");
+		assertEquals(11, lines.length);
+		assertEquals("│   Testo del menu      │", lines[4]);
+		assertEquals("│   1 - Prima voce      │", lines[6]);
+		assertEquals("│   2 - Seconda voce    │", lines[7]);
+		assertEquals("│   0 - Indietro        │", lines[8]);
+		// Tutte le righe del corpo hanno la stessa larghezza della cornice inferiore
+		for (int i = 1; i < lines.length; i++) {
+			assertEquals(lines[lines.length - 1].length(), lines[i].length());
+		}
+	}
+
+	@Test
+	public void outputIsWrittenAtPromptTest() {
+		this.renderer.renderText("Prima riga");
+		this.renderer.renderLineSpace();
+		this.renderer.renderError("Valore non valido");
+		this.renderer.renderTextInFrame("Titolo");
+
+		// Nulla viene scritto prima del prompt
+		assertEquals(0, this.stream.size());
+
+		this.renderer.renderEmptyPrompt();
+
+		assertEquals(1, this.stream.writes);
+		String output = this.output();
+		assertTrue(output.startsWith("Prima riga\n\nERRORE: Valore non valido\n"));
+		assertTrue(output.endsWith("\n>> "));
+	}
+
+	@Test
+	public void largeMenuIsWrittenOnceTest() {
+		MenuAction menu = new MenuAction("Bacheca", null);
+		for (int i = 1; i <= 1000; i++) {
+			menu.addEntry("Evento numero " + i, Action.EMPTY_ACTION);
+		}
+		menu.setPageSize(1000);
+		this.renderer.renderMenu(menu);
+		this.renderer.renderEmptyPrompt();
+
+		assertEquals(1, this.stream.writes);
+		assertTrue(this.output().contains("1000 - Evento numero 1000"));
+	}
+
+	@Test
+	public void onlyCurrentPageIsRenderedTest() {
+		MenuAction menu = new MenuAction("Bacheca", null);
+		for (int i = 1; i <= 45; i++) {
+			menu.addEntry("Evento numero " + i, Action.EMPTY_ACTION);
+		}
+		menu.setPageSize(20);
+		menu.nextPage();
+		this.renderer.renderMenu(menu);
+		this.renderer.flush();
+
+		String output = this.output();
+		// Le voci mantengono la numerazione dell'intero menu
+		assertFalse(output.contains("Evento numero 20 "));
+		assertTrue(output.contains("21 - Evento numero 21 "));
+		assertTrue(output.contains("40 - Evento numero 40 "));
+		assertFalse(output.contains("Evento numero 41 "));
+		assertTrue(output.contains("0 - Indietro"));
+		assertTrue(output.contains("Pagina 2 di 3"));
+	}
+
+	@Test
+	public void outputIsWrittenBeyondThresholdTest() {
+		String line = new String(new char[99]).replace('\0', 'x');
+
+		// Riempio l'output in sospeso fino alla soglia
+		int lines = TextRenderer.FLUSH_THRESHOLD / (line.length() + 1);
+		for (int i = 0; i < lines; i++) {
+			this.renderer.renderText(line);
+		}
+		assertEquals(0, this.stream.size());
+
+		// L'elemento successivo non rientra nella soglia: l'output precedente viene scritto per intero
+		this.renderer.renderText(line);
+		assertEquals(1, this.stream.writes);
+		assertEquals(lines * (line.length() + 1), this.stream.size());
+	}
+
+}
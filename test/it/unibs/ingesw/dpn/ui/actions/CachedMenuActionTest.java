@@ -0,0 +1,57 @@
+package it.unibs.ingesw.dpn.ui.actions;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class CachedMenuActionTest {
+	
+	@Test
+	public void constructorTest() {
+		assertThrows(IllegalArgumentException.class, () -> { new CachedMenuAction(null); });
+	}
+	
+	@Test
+	public void menuIsBuiltOnceUntilInvalidatedTest() {
+		AtomicInteger builds = new AtomicInteger();
+		CachedMenuAction cached = new CachedMenuAction(() -> {
+			return new MenuAction("Menu " + builds.incrementAndGet(), null);
+		});
+		
+		// Nessuna costruzione prima della prima visualizzazione
+		assertEquals(0, cached.getBuildCount());
+		
+		MenuAction first = cached.prepareMenuAction();
+		assertSame(first, cached.prepareMenuAction());
+		assertEquals(1, cached.getBuildCount());
+		
+		cached.invalidate();
+		MenuAction second = cached.prepareMenuAction();
+		assertNotSame(first, second);
+		assertEquals("Menu 2", second.getTitle());
+		assertSame(second, cached.prepareMenuAction());
+		assertEquals(2, cached.getBuildCount());
+	}
+	
+	@Test
+	public void invalidationDuringBuildTest() {
+		CachedMenuAction [] holder = new CachedMenuAction[1];
+		AtomicInteger builds = new AtomicInteger();
+		holder[0] = new CachedMenuAction(() -> {
+			// La prima costruzione viene invalidata mentre è in corso
+			if (builds.incrementAndGet() == 1) {
+				holder[0].invalidate();
+			}
+			return new MenuAction("Menu", null);
+		});
+		
+		MenuAction stale = holder[0].prepareMenuAction();
+		MenuAction fresh = holder[0].prepareMenuAction();
+		assertNotSame(stale, fresh);
+		assertSame(fresh, holder[0].prepareMenuAction());
+		assertEquals(2, builds.get());
+	}
+
+}
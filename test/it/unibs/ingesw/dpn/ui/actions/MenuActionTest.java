@@ -275,6 +275,88 @@ public class MenuActionTest {
 	}
 	
 	
+	@Test
+	public void paginationTest() {
+		MenuAction menu = newMenu();
+		// Un menu vuoto ha comunque una pagina
+		assertEquals(1, menu.getPageCount());
+		assertTrue(menu.getPageEntries().isEmpty());
+		
+		for (int i = 0; i < 25; i++) {
+			menu.addEntry(randomString(), mock(Action.class));
+		}
+		menu.setPageSize(10);
+		assertEquals(3, menu.getPageCount());
+		assertEquals(0, menu.getCurrentPage());
+		assertFalse(menu.previousPage());
+		assertEquals(menu.getEntries().subList(0, 10), menu.getPageEntries());
+		
+		assertTrue(menu.nextPage());
+		assertTrue(menu.nextPage());
+		assertFalse(menu.nextPage());
+		assertEquals(20, menu.getPageStart());
+		assertEquals(menu.getEntries().subList(20, 25), menu.getPageEntries());
+		
+		// Il passaggio alla pagina di una voce
+		menu.showEntry(12);
+		assertEquals(1, menu.getCurrentPage());
+		assertThrows(IllegalArgumentException.class, () -> { menu.showEntry(25); });
+		assertThrows(IllegalArgumentException.class, () -> { menu.setPageSize(0); });
+	}
+	
+	@Test
+	public void lazyEntriesTest() {
+		List<Integer> items = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			items.add(i);
+		}
+		List<Integer> produced = new ArrayList<>();
+		MenuAction menu = newMenu();
+		menu.setLazyEntries(items, item -> {
+			produced.add(item);
+			return new MenuEntry("Voce " + item, mock(Action.class));
+		});
+		menu.setPageSize(10);
+		
+		// Nessuna voce viene prodotta prima della visualizzazione
+		assertEquals(100, menu.getEntryCount());
+		assertTrue(produced.isEmpty());
+		
+		// Vengono prodotte solamente le voci della pagina visualizzata, una sola volta
+		menu.nextPage();
+		List<MenuEntry> page = menu.getPageEntries();
+		assertEquals(10, page.size());
+		int expected = 10;
+		for (MenuEntry entry : page) {
+			assertEquals("Voce " + expected++, entry.getName());
+		}
+		assertEquals(10, produced.size());
+		assertSame(page.get(0), menu.getEntry(10));
+		assertEquals(10, produced.size());
+		
+		// Non è possibile aggiungere altre voci
+		assertThrows(IllegalStateException.class, () -> { menu.addEntry("Altra voce", mock(Action.class)); });
+		assertThrows(IllegalStateException.class, () -> { menu.setLazyEntries(items, item -> null); });
+	}
+	
+	@Test
+	public void executeTest_withEntriesOnOtherPages() {
+		MenuAction menu = newMenu();
+		menu.setPageSize(5);
+		List<Integer> executed = new ArrayList<>();
+		for (int i = 1; i <= 12; i++) {
+			final int value = i;
+			menu.addEntry(randomString(), (SimpleAction) (userInterface) -> { executed.add(value); });
+		}
+		
+		// Le voci sono selezionabili con il loro numero anche se non si trovano nella pagina corrente
+		TestGetter getter = new TestGetter(new TextRenderer());
+		getter.feedArguments("12", "3", "0");
+		menu.execute(new TestUI(getter));
+		assertEquals(java.util.Arrays.asList(12, 3), executed);
+	}
+	
+	
 	// METODI PRIVATI
 	
 	/**